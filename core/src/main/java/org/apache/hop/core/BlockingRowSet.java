@@ -19,6 +19,8 @@ package org.apache.hop.core;
 
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.TimeUnit;
 import org.apache.hop.core.row.IRowMeta;
 
@@ -69,7 +71,11 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
   public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
     this.rowMeta = rowMeta;
     try {
-
+      if (ForkJoinTask.inForkJoinPool()) {
+        RowPutter putter = new RowPutter(rowData, time, tu);
+        ForkJoinPool.managedBlock(putter);
+        return putter.added;
+      }
       return queArray.offer(rowData, time, tu);
     } catch (InterruptedException | NullPointerException e) {
       return false;
@@ -108,6 +114,11 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
   public Object[] getRowWait(long timeout, TimeUnit tu) {
 
     try {
+      if (ForkJoinTask.inForkJoinPool()) {
+        RowGetter getter = new RowGetter(timeout, tu);
+        ForkJoinPool.managedBlock(getter);
+        return getter.row;
+      }
       return queArray.poll(timeout, tu);
     } catch (InterruptedException e) {
       return null;
@@ -124,4 +135,65 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<IRowSet>, I
     queArray.clear();
     done.set(false);
   }
+
+  /**
+   * Waits for room in the queue on a fork/join worker thread. The pool can start a spare worker
+   * while we wait so that the transform which reads from this row set gets a chance to run.
+   */
+  private final class RowPutter implements ForkJoinPool.ManagedBlocker {
+    private final Object[] rowData;
+    private final long time;
+    private final TimeUnit tu;
+    private boolean added;
+
+    private RowPutter(Object[] rowData, long time, TimeUnit tu) {
+      this.rowData = rowData;
+      this.time = time;
+      this.tu = tu;
+    }
+
+    @Override
+    public boolean block() throws InterruptedException {
+      if (!added) {
+        added = queArray.offer(rowData, time, tu);
+      }
+      return true;
+    }
+
+    @Override
+    public boolean isReleasable() {
+      if (!added) {
+        added = queArray.offer(rowData);
+      }
+      return added;
+    }
+  }
+
+  /** Waits for a row on a fork/join worker thread, see {@link RowPutter}. */
+  private final class RowGetter implements ForkJoinPool.ManagedBlocker {
+    private final long timeout;
+    private final TimeUnit tu;
+    private Object[] row;
+
+    private RowGetter(long timeout, TimeUnit tu) {
+      this.timeout = timeout;
+      this.tu = tu;
+    }
+
+    @Override
+    public boolean block() throws InterruptedException {
+      if (row == null) {
+        row = queArray.poll(timeout, tu);
+      }
+      return true;
+    }
+
+    @Override
+    public boolean isReleasable() {
+      if (row == null) {
+        row = queArray.poll();
+      }
+      return row != null;
+    }
+  }
 }
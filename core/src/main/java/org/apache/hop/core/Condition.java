@@ -24,6 +24,7 @@ import static org.apache.hop.core.Condition.Function.TRUE;
 import static org.apache.hop.core.Condition.Operator.AND;
 import static org.apache.hop.core.Condition.Operator.NONE;
 
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -167,6 +168,11 @@ public class Condition implements Cloneable {
   private Object cachedField2;
   private boolean rightValueCached;
 
+  // Cache to compare binary strings with a constant right value without converting them
+  private IValueMeta rawFieldMeta;
+  private byte[] rawField2;
+  private long rawComparisons;
+
   /**
    * Temporary variable, no need to persist this one. Contains the sorted array of strings in an IN
    * LIST condition
@@ -314,6 +320,65 @@ public class Condition implements Cloneable {
     rightValueCached = false;
     cachedFieldMeta2 = null;
     cachedField2 = null;
+    rawFieldMeta = null;
+    rawField2 = null;
+  }
+
+  /**
+   * A binary string which is stored as is can be compared for equality with a constant string
+   * without converting it: the constant is encoded once and the bytes are compared.
+   *
+   * @param fieldMeta The metadata of the left value
+   * @return The encoded constant or null if the left value needs to be converted to compare it
+   */
+  private byte[] getRawRightValue(IValueMeta fieldMeta) throws HopValueException {
+    if (rightFieldIndex >= 0 || !rightValueCached) {
+      return null;
+    }
+    if (fieldMeta != rawFieldMeta) {
+      rawFieldMeta = fieldMeta;
+      rawField2 = null;
+      if (fieldMeta.isRawBinaryString()
+          && !fieldMeta.isCaseInsensitive()
+          && fieldMeta.isCollatorDisabled()
+          && !fieldMeta.isIgnoreWhitespace()
+          && cachedFieldMeta2.isString()) {
+        String string = cachedFieldMeta2.getString(cachedField2);
+        Charset charset = getCharset(fieldMeta.getStringEncoding());
+        if (!Utils.isEmpty(string) && string.indexOf('\uFFFD') < 0 && charset != null) {
+          byte[] bytes = string.getBytes(charset);
+          // Only if the constant survives the encoding, otherwise the bytes can't match exactly
+          //
+          if (string.equals(new String(bytes, charset))) {
+            rawField2 = bytes;
+          }
+        }
+      }
+    }
+    return rawField2;
+  }
+
+  /**
+   * @return the number of binary string values this condition and its sub-conditions compared
+   *     without converting them
+   */
+  public long getRawComparisons() {
+    long count = rawComparisons;
+    for (Condition child : children) {
+      count += child.getRawComparisons();
+    }
+    return count;
+  }
+
+  private static Charset getCharset(String encoding) {
+    if (Utils.isEmpty(encoding)) {
+      return Charset.defaultCharset();
+    }
+    try {
+      return Charset.forName(encoding);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
   }
 
   /**
@@ -389,10 +454,22 @@ public class Condition implements Cloneable {
         // Evaluate
         switch (function) {
           case EQUAL:
-            evaluation = (fieldMeta.compare(field, fieldMeta2, field2) == 0);
+            byte[] raw = getRawRightValue(fieldMeta);
+            if (raw != null) {
+              evaluation = Arrays.equals((byte[]) field, raw);
+              rawComparisons++;
+            } else {
+              evaluation = (fieldMeta.compare(field, fieldMeta2, field2) == 0);
+            }
             break;
           case NOT_EQUAL:
-            evaluation = (fieldMeta.compare(field, fieldMeta2, field2) != 0);
+            byte[] rawNotEqual = getRawRightValue(fieldMeta);
+            if (rawNotEqual != null) {
+              evaluation = !Arrays.equals((byte[]) field, rawNotEqual);
+              rawComparisons++;
+            } else {
+              evaluation = (fieldMeta.compare(field, fieldMeta2, field2) != 0);
+            }
             break;
           case SMALLER:
             if (fieldMeta.isNull(field)) {
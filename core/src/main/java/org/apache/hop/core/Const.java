@@ -677,6 +677,22 @@ public class Const {
           "Set this variable to 'Y' if you want to test a more efficient batching row set.")
   public static final String HOP_BATCHING_ROWSET = "HOP_BATCHING_ROWSET";
 
+  /**
+   * The compression codec of the compact spill file format for temporary files written by Sort
+   * rows, Blocking transform and Group by. Leave empty to keep using the classic format.
+   */
+  @Variable(
+      description =
+          "The compression provider (None, GZip, Snappy, ...) of the compact spill file format used for the temporary files of Sort rows, Blocking transform and Group by. Leave empty to use the classic format.")
+  public static final String HOP_SPILL_FILE_CODEC = "HOP_SPILL_FILE_CODEC";
+
+  /** Set this variable to N to disable dictionary encoding of strings in spill files. */
+  @Variable(
+      value = "Y",
+      description =
+          "Set this variable to 'N' to disable the dictionary encoding of repeated strings in the compact spill file format.")
+  public static final String HOP_SPILL_FILE_DICTIONARY = "HOP_SPILL_FILE_DICTIONARY";
+
   /**
    * Set this variable to limit max number of files the Text File Output transform can have open at
    * one time.
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * Contains a buffer of rows backed by a lock-free single-producer/single-consumer ring buffer.
+ *
+ * <p>Every row set in a local pipeline connects exactly one transform copy that writes to exactly
+ * one transform copy that reads, so we don't need a lock to protect the queue: the producer only
+ * ever moves the tail, the consumer only ever moves the head. When the buffer is full (or empty)
+ * the waiting side first spins, then yields and finally parks for short periods until the timeout
+ * expires.
+ *
+ * <p>Do not use this row set when more than one thread can put rows into it (or get rows from it)
+ * at the same time.
+ */
+public class RingBufferRowSet extends BaseRowSet implements Comparable<IRowSet>, IRowSet {
+  /** The number of busy-spin iterations before we start yielding */
+  private static final int SPIN_TRIES = 128;
+
+  /** The number of yields before we start parking */
+  private static final int YIELD_TRIES = 16;
+
+  /** The time to park while waiting for the other side */
+  private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final Object[][] buffer;
+  private final int mask;
+  private final int capacity;
+
+  /** The sequence of the next row to read, only moved by the consumer. */
+  private final AtomicLong head;
+
+  /** The sequence of the next row to write, only moved by the producer. */
+  private final AtomicLong tail;
+
+  /** The last head value seen by the producer. */
+  private long producerHeadCache;
+
+  /** The last tail value seen by the consumer. */
+  private long consumerTailCache;
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  /**
+   * Create a new ring buffer row set with the given capacity.
+   *
+   * @param maxSize the maximum number of rows in the buffer
+   */
+  public RingBufferRowSet(int maxSize) {
+    super();
+
+    capacity = Math.max(1, maxSize);
+
+    // Round up to the next power of 2 so that we can use a mask to find the slot
+    //
+    int length = Integer.highestOneBit(capacity);
+    if (length < capacity) {
+      length <<= 1;
+    }
+    buffer = new Object[length][];
+    mask = length - 1;
+
+    head = new AtomicLong(0L);
+    tail = new AtomicLong(0L);
+
+    timeoutGet =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_GET_TIMEOUT), Const.TIMEOUT_GET_MILLIS);
+    timeoutPut =
+        Const.toInt(System.getProperty(Const.HOP_ROWSET_PUT_TIMEOUT), Const.TIMEOUT_PUT_MILLIS);
+  }
+
+  @Override
+  public boolean putRow(IRowMeta rowMeta, Object[] rowData) {
+    return putRowWait(rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public boolean putRowWait(IRowMeta rowMeta, Object[] rowData, long time, TimeUnit tu) {
+    this.rowMeta = rowMeta;
+    if (rowData == null) {
+      return false;
+    }
+    if (offer(rowData)) {
+      return true;
+    }
+
+    long deadline = System.nanoTime() + tu.toNanos(time);
+    int attempt = 0;
+    while (!offer(rowData)) {
+      if (!idle(attempt++, deadline)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait(timeoutGet, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    return poll();
+  }
+
+  @Override
+  public Object[] getRowWait(long timeout, TimeUnit tu) {
+    Object[] row = poll();
+    if (row != null) {
+      return row;
+    }
+
+    long deadline = System.nanoTime() + tu.toNanos(timeout);
+    int attempt = 0;
+    while ((row = poll()) == null) {
+      if (!idle(attempt++, deadline)) {
+        return null;
+      }
+    }
+    return row;
+  }
+
+  /**
+   * Only called by the producer thread.
+   *
+   * @param rowData the row to add
+   * @return true if the row was added, false if the buffer is full
+   */
+  private boolean offer(Object[] rowData) {
+    long currentTail = tail.get();
+    if (currentTail - producerHeadCache >= capacity) {
+      producerHeadCache = head.get();
+      if (currentTail - producerHeadCache >= capacity) {
+        return false;
+      }
+    }
+    buffer[(int) (currentTail & mask)] = rowData;
+
+    // Publish the row to the consumer
+    //
+    tail.lazySet(currentTail + 1);
+    return true;
+  }
+
+  /**
+   * Only called by the consumer thread.
+   *
+   * @return the next row or null if the buffer is empty
+   */
+  private Object[] poll() {
+    long currentHead = head.get();
+    if (currentHead >= consumerTailCache) {
+      consumerTailCache = tail.get();
+      if (currentHead >= consumerTailCache) {
+        return null;
+      }
+    }
+    int index = (int) (currentHead & mask);
+    Object[] rowData = buffer[index];
+    buffer[index] = null;
+
+    // Hand the slot back to the producer
+    //
+    head.lazySet(currentHead + 1);
+    return rowData;
+  }
+
+  /**
+   * Back off while waiting for the other side of the ring buffer: spin, then yield, then park.
+   *
+   * @param attempt the number of times we already waited
+   * @param deadline the System.nanoTime() after which we give up
+   * @return false if we should stop waiting because of the timeout or an interruption
+   */
+  private static boolean idle(int attempt, long deadline) {
+    if (attempt < SPIN_TRIES) {
+      Thread.onSpinWait();
+      return true;
+    }
+    if (System.nanoTime() - deadline >= 0) {
+      return false;
+    }
+    if (attempt < SPIN_TRIES + YIELD_TRIES) {
+      Thread.yield();
+    } else {
+      LockSupport.parkNanos(PARK_NANOS);
+      if (Thread.interrupted()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int size() {
+    // Read the head first: that way we never report a negative size
+    //
+    long currentHead = head.get();
+    return (int) (tail.get() - currentHead);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(buffer, null);
+    head.set(0L);
+    tail.set(0L);
+    producerHeadCache = 0L;
+    consumerTailCache = 0L;
+    done.set(false);
+  }
+}
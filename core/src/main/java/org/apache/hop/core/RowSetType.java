@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import org.apache.hop.core.row.value.ValueMetaBase;
+
+/** The type of row set to allocate between two transform copies in a multi-threaded pipeline. */
+@SuppressWarnings("java:S115")
+public enum RowSetType {
+  /**
+   * The classic blocking row set. The batching row set is used instead if system property
+   * HOP_BATCHING_ROWSET is set to Y.
+   */
+  Blocking,
+
+  /** Rows are handed over in small batches to lower the locking overhead. */
+  BlockingBatching,
+
+  /** A lock-free single-producer/single-consumer ring buffer. */
+  RingBuffer;
+
+  /**
+   * Create a new row set of this type.
+   *
+   * @param rowSetSize The maximum number of rows in the row set
+   * @return The new row set
+   */
+  public IRowSet createRowSet(int rowSetSize) {
+    return switch (this) {
+      case BlockingBatching -> new BlockingBatchingRowSet(rowSetSize);
+      case RingBuffer -> new RingBufferRowSet(rowSetSize);
+      default -> {
+        Boolean batchingRowSet =
+            ValueMetaBase.convertStringToBoolean(System.getProperty(Const.HOP_BATCHING_ROWSET));
+        if (batchingRowSet != null && batchingRowSet) {
+          yield new BlockingBatchingRowSet(rowSetSize);
+        }
+        yield new BlockingRowSet(rowSetSize);
+      }
+    };
+  }
+
+  /**
+   * Look up a row set type by name. Unknown or empty names give you the default blocking type.
+   *
+   * @param name The name of the row set type
+   * @return The row set type
+   */
+  public static RowSetType lookupName(String name) {
+    for (RowSetType type : values()) {
+      if (type.name().equalsIgnoreCase(name)) {
+        return type;
+      }
+    }
+    return Blocking;
+  }
+}
@@ -0,0 +1,541 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.cache;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A cache of lookup results with a maximum number of entries and/or an estimated maximum size in
+ * bytes. When the cache is full an entry is evicted according to the {@link CacheEvictionPolicy}.
+ * Entries can optionally expire a fixed time after they were stored.
+ *
+ * <p>The cache keeps statistics: the number of hits, misses, evictions and the time spent loading
+ * the values which were not found. Loading happens outside of the cache, report it with {@link
+ * #recordLoad(long)}.
+ *
+ * <p>This class is not thread safe: a transform copy uses its own cache, or locks around it.
+ * Reading the statistics from another thread is fine.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+public class BoundedCache<K, V> {
+  private static final int WINDOW_PERCENTAGE = 1;
+  private static final int PROTECTED_PERCENTAGE = 80;
+
+  private static final int WINDOW = 0;
+  private static final int PROBATION = 1;
+  private static final int PROTECTED = 2;
+
+  private final CacheEvictionPolicy policy;
+  private final long maxEntries;
+  private final long maxBytes;
+  private final long timeToLiveNanos;
+  private final ToLongBiFunction<K, V> weigher;
+  private final LongSupplier ticker;
+
+  private final Map<K, Node<K, V>> map;
+  private final Region<K, V> window;
+  private final Region<K, V> probation;
+  private final Region<K, V> protect;
+  private final FrequencySketch sketch;
+
+  private volatile long hitCount;
+  private volatile long missCount;
+  private volatile long evictionCount;
+  private volatile long loadCount;
+  private volatile long loadTimeNanos;
+  private volatile long weightedSize;
+  private volatile int size;
+
+  /**
+   * Create a new cache.
+   *
+   * @param policy The eviction policy
+   * @param maxEntries The maximum number of entries, 0 or lower for no maximum
+   * @param maxBytes The maximum estimated size of all the entries in bytes, 0 or lower for no
+   *     maximum. This needs a weigher.
+   * @param timeToLive The time after which a stored entry expires, 0 or lower to never expire
+   * @param timeUnit The unit of the time to live
+   * @param weigher Estimates the size of an entry in bytes, can be null if there is no maximum size
+   *     in bytes
+   */
+  public BoundedCache(
+      CacheEvictionPolicy policy,
+      long maxEntries,
+      long maxBytes,
+      long timeToLive,
+      TimeUnit timeUnit,
+      ToLongBiFunction<K, V> weigher) {
+    this(policy, maxEntries, maxBytes, timeUnit.toNanos(timeToLive), weigher, System::nanoTime);
+  }
+
+  BoundedCache(
+      CacheEvictionPolicy policy,
+      long maxEntries,
+      long maxBytes,
+      long timeToLiveNanos,
+      ToLongBiFunction<K, V> weigher,
+      LongSupplier ticker) {
+    if (maxBytes > 0 && weigher == null) {
+      throw new IllegalArgumentException("A maximum size in bytes needs a weigher");
+    }
+    this.policy = policy == null ? CacheEvictionPolicy.LRU : policy;
+    this.maxEntries = Math.max(0L, maxEntries);
+    this.maxBytes = Math.max(0L, maxBytes);
+    this.timeToLiveNanos = Math.max(0L, timeToLiveNanos);
+    this.weigher = weigher;
+    this.ticker = ticker;
+
+    this.map = new LinkedHashMap<>();
+    boolean lru = this.policy == CacheEvictionPolicy.LRU;
+    this.window =
+        lru
+            ? new Region<>(WINDOW, this.maxEntries, this.maxBytes)
+            : new Region<>(
+                WINDOW,
+                percentage(this.maxEntries, WINDOW_PERCENTAGE),
+                percentage(this.maxBytes, WINDOW_PERCENTAGE));
+    this.probation = new Region<>(PROBATION, 0L, 0L);
+    this.protect =
+        new Region<>(
+            PROTECTED,
+            percentage(this.maxEntries - window.maxEntries, PROTECTED_PERCENTAGE),
+            percentage(this.maxBytes - window.maxBytes, PROTECTED_PERCENTAGE));
+
+    long expectedEntries = this.maxEntries;
+    if (expectedEntries == 0) {
+      expectedEntries = this.maxBytes > 0 ? this.maxBytes / 256 : 1024;
+    }
+    this.sketch = lru || !isBounded() ? null : new FrequencySketch(expectedEntries);
+  }
+
+  private static long percentage(long maximum, int percentage) {
+    if (maximum <= 0) {
+      return 0L;
+    }
+    return Math.max(1L, maximum * percentage / 100);
+  }
+
+  private boolean isBounded() {
+    return maxEntries > 0 || maxBytes > 0;
+  }
+
+  /**
+   * Look up a value and count a hit or a miss.
+   *
+   * @param key The key to look up
+   * @return The value or null if the key is not in the cache or if the entry expired
+   */
+  public V get(K key) {
+    if (sketch != null) {
+      sketch.increment(key);
+    }
+    Node<K, V> node = map.get(key);
+    if (node != null && isExpired(node)) {
+      removeNode(node);
+      evictionCount++;
+      node = null;
+    }
+    if (node == null) {
+      missCount++;
+      return null;
+    }
+    hitCount++;
+    onAccess(node);
+    return node.value;
+  }
+
+  /**
+   * Check if there is a value for a key without counting a hit or a miss or changing the order of
+   * the entries.
+   *
+   * @param key The key to look for
+   * @return true if the key is in the cache and didn't expire
+   */
+  public boolean containsKey(K key) {
+    Node<K, V> node = map.get(key);
+    return node != null && !isExpired(node);
+  }
+
+  /**
+   * Store a value in the cache, replacing the existing value for the key. This can evict other
+   * entries.
+   *
+   * @param key The key
+   * @param value The value
+   */
+  public void put(K key, V value) {
+    long weight = weigher == null ? 0L : Math.max(0L, weigher.applyAsLong(key, value));
+    Node<K, V> node = map.get(key);
+    if (node != null) {
+      Region<K, V> region = regionOf(node);
+      region.bytes += weight - node.weight;
+      weightedSize += weight - node.weight;
+      node.value = value;
+      node.weight = weight;
+      node.writeTime = ticker.getAsLong();
+      onAccess(node);
+    } else {
+      node = new Node<>(key, value, weight, ticker.getAsLong());
+      map.put(key, node);
+      size = map.size();
+      weightedSize += weight;
+      window.addLast(node);
+    }
+    evict();
+  }
+
+  /**
+   * Remove an entry. This is not counted as an eviction.
+   *
+   * @param key The key to remove
+   * @return The removed value or null if the key was not in the cache
+   */
+  public V remove(K key) {
+    Node<K, V> node = map.get(key);
+    if (node == null) {
+      return null;
+    }
+    removeNode(node);
+    return node.value;
+  }
+
+  /** Remove all entries. The statistics are kept. */
+  public void clear() {
+    map.clear();
+    window.clear();
+    probation.clear();
+    protect.clear();
+    size = 0;
+    weightedSize = 0L;
+  }
+
+  /**
+   * The keys currently in the cache in the order in which they were first stored, expired entries
+   * included. Don't change the cache while you loop over the keys.
+   *
+   * @return An unmodifiable view of the keys
+   */
+  public Set<K> keySet() {
+    return Collections.unmodifiableSet(map.keySet());
+  }
+
+  /**
+   * Remove every entry which expired, counted as evictions. Use this before looping over the keys
+   * when the expired entries shouldn't be found.
+   *
+   * @return The number of removed entries
+   */
+  public int removeExpired() {
+    if (timeToLiveNanos <= 0) {
+      return 0;
+    }
+    int removed = 0;
+    Iterator<Node<K, V>> iterator = map.values().iterator();
+    while (iterator.hasNext()) {
+      Node<K, V> node = iterator.next();
+      if (isExpired(node)) {
+        iterator.remove();
+        regionOf(node).remove(node);
+        weightedSize -= node.weight;
+        removed++;
+      }
+    }
+    size = map.size();
+    evictionCount += removed;
+    return removed;
+  }
+
+  /**
+   * Count a lookup which didn't find a value without calling {@link #get(Object)}, for example
+   * after searching the keys yourself.
+   */
+  public void recordMiss() {
+    missCount++;
+  }
+
+  /**
+   * Count the time spent loading a value which wasn't found in the cache.
+   *
+   * @param nanos The time it took in nanoseconds
+   */
+  public void recordLoad(long nanos) {
+    loadCount++;
+    loadTimeNanos += nanos;
+  }
+
+  private boolean isExpired(Node<K, V> node) {
+    return timeToLiveNanos > 0 && ticker.getAsLong() - node.writeTime >= timeToLiveNanos;
+  }
+
+  private Region<K, V> regionOf(Node<K, V> node) {
+    return switch (node.region) {
+      case PROBATION -> probation;
+      case PROTECTED -> protect;
+      default -> window;
+    };
+  }
+
+  private void onAccess(Node<K, V> node) {
+    switch (node.region) {
+      case PROBATION:
+        // Used again: promote to the protected part of the main cache
+        probation.remove(node);
+        protect.addLast(node);
+        while (protect.isOverflowing()) {
+          Node<K, V> demoted = protect.first();
+          protect.remove(demoted);
+          probation.addLast(demoted);
+        }
+        break;
+      case PROTECTED:
+        protect.moveToLast(node);
+        break;
+      default:
+        window.moveToLast(node);
+        break;
+    }
+  }
+
+  private void evict() {
+    if (!isBounded()) {
+      return;
+    }
+    if (policy == CacheEvictionPolicy.LRU) {
+      while (isOverflowing() && window.first() != null) {
+        evictNode(window.first());
+      }
+      return;
+    }
+
+    // Entries leaving the window become candidates at the end of the probation queue
+    //
+    Node<K, V> firstCandidate = null;
+    while (window.isOverflowing()) {
+      Node<K, V> candidate = window.first();
+      window.remove(candidate);
+      probation.addLast(candidate);
+      if (firstCandidate == null) {
+        firstCandidate = candidate;
+      }
+    }
+
+    // The candidates compete with the victims at the start of the probation queue
+    //
+    while (isOverflowing()) {
+      Node<K, V> victim = probation.first();
+      if (victim == null) {
+        victim = protect.first() != null ? protect.first() : window.first();
+        evictNode(victim);
+        continue;
+      }
+      Node<K, V> candidate = probation.last();
+      if (firstCandidate == null || candidate == victim) {
+        evictNode(victim);
+      } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+        evictNode(victim);
+      } else {
+        if (candidate == firstCandidate) {
+          firstCandidate = null;
+        }
+        evictNode(candidate);
+      }
+    }
+  }
+
+  private boolean isOverflowing() {
+    return (maxEntries > 0 && size > maxEntries) || (maxBytes > 0 && weightedSize > maxBytes);
+  }
+
+  private void evictNode(Node<K, V> node) {
+    removeNode(node);
+    evictionCount++;
+  }
+
+  private void removeNode(Node<K, V> node) {
+    map.remove(node.key);
+    regionOf(node).remove(node);
+    size = map.size();
+    weightedSize -= node.weight;
+  }
+
+  /**
+   * @return The eviction policy
+   */
+  public CacheEvictionPolicy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * @return The number of entries in the cache
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return The estimated size of all the entries in bytes, 0 without a weigher
+   */
+  public long getWeightedSize() {
+    return weightedSize;
+  }
+
+  /**
+   * @return The number of lookups which found a value
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * @return The number of lookups which didn't find a value
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * @return The number of entries removed because the cache was full or because they expired
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * @return The number of loads reported with {@link #recordLoad(long)}
+   */
+  public long getLoadCount() {
+    return loadCount;
+  }
+
+  /**
+   * @return The total time reported with {@link #recordLoad(long)} in nanoseconds
+   */
+  public long getLoadTimeNanos() {
+    return loadTimeNanos;
+  }
+
+  /**
+   * @return The fraction of lookups which found a value, 0 if there were no lookups
+   */
+  public double getHitRate() {
+    long hits = hitCount;
+    long lookups = hits + missCount;
+    return lookups == 0 ? 0.0 : (double) hits / lookups;
+  }
+
+  private static final class Node<K, V> {
+    private final K key;
+    private V value;
+    private long weight;
+    private long writeTime;
+    private int region;
+    private Node<K, V> previous;
+    private Node<K, V> next;
+
+    private Node(K key, V value, long weight, long writeTime) {
+      this.key = key;
+      this.value = value;
+      this.weight = weight;
+      this.writeTime = writeTime;
+    }
+  }
+
+  /** A doubly linked list of entries, from least to most recently used. */
+  private static final class Region<K, V> {
+    private final int id;
+    private final long maxEntries;
+    private final long maxBytes;
+    private Node<K, V> head;
+    private Node<K, V> tail;
+    private long entries;
+    private long bytes;
+
+    private Region(int id, long maxEntries, long maxBytes) {
+      this.id = id;
+      this.maxEntries = maxEntries;
+      this.maxBytes = maxBytes;
+    }
+
+    private boolean isOverflowing() {
+      return head != null
+          && ((maxEntries > 0 && entries > maxEntries) || (maxBytes > 0 && bytes > maxBytes));
+    }
+
+    private Node<K, V> first() {
+      return head;
+    }
+
+    private Node<K, V> last() {
+      return tail;
+    }
+
+    private void addLast(Node<K, V> node) {
+      node.region = id;
+      node.previous = tail;
+      node.next = null;
+      if (tail == null) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+      entries++;
+      bytes += node.weight;
+    }
+
+    private void remove(Node<K, V> node) {
+      if (node.previous == null) {
+        head = node.next;
+      } else {
+        node.previous.next = node.next;
+      }
+      if (node.next == null) {
+        tail = node.previous;
+      } else {
+        node.next.previous = node.previous;
+      }
+      node.previous = null;
+      node.next = null;
+      entries--;
+      bytes -= node.weight;
+    }
+
+    private void moveToLast(Node<K, V> node) {
+      if (tail != node) {
+        remove(node);
+        addLast(node);
+      }
+    }
+
+    private void clear() {
+      head = null;
+      tail = null;
+      entries = 0;
+      bytes = 0L;
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.cache;
+
+import org.apache.commons.lang.StringUtils;
+
+/** Decides which entry leaves a {@link BoundedCache} when it is full. */
+@SuppressWarnings("java:S115")
+public enum CacheEvictionPolicy {
+  /** Evict the least recently used entry. */
+  LRU,
+
+  /**
+   * Window TinyLFU: new entries go to a small LRU window. When they leave the window they only
+   * replace an entry of the main cache if they were used more often, which keeps frequently used
+   * keys in the cache when a burst of keys is only used once.
+   */
+  TinyLFU;
+
+  /**
+   * Look up a policy by name. Unknown or empty names give you {@link #LRU}.
+   *
+   * @param name The name of the policy
+   * @return The policy
+   */
+  public static CacheEvictionPolicy lookupName(String name) {
+    for (CacheEvictionPolicy policy : values()) {
+      if (policy.name().equalsIgnoreCase(StringUtils.trim(name))) {
+        return policy;
+      }
+    }
+    return LRU;
+  }
+
+  /**
+   * @return The names of all the policies
+   */
+  public static String[] getNames() {
+    String[] names = new String[values().length];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = values()[i].name();
+    }
+    return names;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.cache;
+
+/**
+ * Estimates how often a key was used with a count-min sketch of 4 rows of small counters. The
+ * counters are halved after a number of increments so that old popularity fades away.
+ */
+class FrequencySketch {
+  private static final int DEPTH = 4;
+  private static final int MAX_COUNT = 15;
+  private static final int[] SEEDS = {0x97cb3127, 0xb1a36c35, 0x8f4ba2d7, 0xc3a5c85b};
+
+  private final byte[] table;
+  private final int mask;
+  private final int sampleSize;
+  private int additions;
+
+  /**
+   * @param expectedEntries the expected number of entries in the cache
+   */
+  FrequencySketch(long expectedEntries) {
+    int width = Integer.highestOneBit((int) Math.max(16, Math.min(expectedEntries, 1 << 22)) - 1);
+    width = Math.max(16, width << 1);
+    this.table = new byte[width * DEPTH];
+    this.mask = width - 1;
+    this.sampleSize = 10 * width;
+  }
+
+  private int index(int hash, int row) {
+    int h = (hash ^ SEEDS[row]) * SEEDS[row];
+    h ^= h >>> 16;
+    return row * (mask + 1) + (h & mask);
+  }
+
+  private static int spread(Object key) {
+    int h = key.hashCode() * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * @param key the key
+   * @return the estimated number of times the key was used, at most 15
+   */
+  int frequency(Object key) {
+    int hash = spread(key);
+    int frequency = MAX_COUNT;
+    for (int row = 0; row < DEPTH; row++) {
+      frequency = Math.min(frequency, table[index(hash, row)]);
+    }
+    return frequency;
+  }
+
+  /**
+   * Count one more use of the key.
+   *
+   * @param key the key
+   */
+  void increment(Object key) {
+    int hash = spread(key);
+    int frequency = frequency(key);
+    if (frequency >= MAX_COUNT) {
+      return;
+    }
+    // Conservative update: only raise the counters which hold the minimum
+    for (int row = 0; row < DEPTH; row++) {
+      int index = index(hash, row);
+      if (table[index] == frequency) {
+        table[index]++;
+      }
+    }
+    if (++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (byte) (table[i] >>> 1);
+    }
+    additions /= 2;
+  }
+}
@@ -101,6 +101,12 @@ import org.apache.hop.i18n.BaseMessages;
 public class Database implements IVariables, ILoggingObject, AutoCloseable {
   private static final Class<?> PKG = Database.class;
 
+  /**
+   * The maximum number of parameters in a statement with many keys: Oracle allows 1000 items in an
+   * IN-list, SQL Server 2100 parameters in a statement.
+   */
+  public static final int MAX_LOOKUP_PARAMETERS = 1000;
+
   private static final Map<String, Set<String>> registeredDrivers = new HashMap<>();
 
   private final DatabaseMeta databaseMeta;
@@ -1041,6 +1047,31 @@ public class Database implements IVariables, ILoggingObject, AutoCloseable {
     closeInsert();
   }
 
+  /**
+   * Create a writer to load many rows into a table. The native bulk load protocol of the database
+   * is used when there is one, otherwise the rows are inserted with JDBC batches.
+   *
+   * @param schemaName The schema of the table
+   * @param tableName The table to write to
+   * @param rowMeta The metadata of the rows to write, the names are the column names
+   * @param batchSize The size of the JDBC batches if there is no native protocol
+   * @return The bulk writer
+   * @throws HopDatabaseException In case the writer can't be created
+   */
+  public IBulkWriter createBulkWriter(
+      String schemaName, String tableName, IRowMeta rowMeta, int batchSize)
+      throws HopDatabaseException {
+    IBulkWriter writer =
+        databaseMeta.getIDatabase().createBulkWriter(this, schemaName, tableName, rowMeta);
+    if (writer == null) {
+      writer = new JdbcBatchBulkWriter(this, schemaName, tableName, rowMeta, batchSize);
+    }
+    if (log.isDetailed()) {
+      log.logDetailed("Writing rows to table [" + tableName + "] with " + writer.getDescription());
+    }
+    return writer;
+  }
+
   public String getInsertStatement(String tableName, IRowMeta fields) {
     return getInsertStatement(null, tableName, fields);
   }
@@ -2598,6 +2629,132 @@ public class Database implements IVariables, ILoggingObject, AutoCloseable {
     }
   }
 
+  /**
+   * Look up the rows of many keys with a single query. For one key field the query is <code>
+   * SELECT keys, gets FROM table WHERE key IN (?, ?, ...)</code>, for more key fields the keys are
+   * combined with <code>(key1 = ? AND key2 = ?) OR (...)</code>. The key fields are returned first
+   * so that the rows can be matched with the keys. This doesn't change the lookup prepared with
+   * {@link #setLookup(String, String, String[], String[], String[], String[], String, boolean)}.
+   * Many keys are looked up in chunks of at most {@link #MAX_LOOKUP_PARAMETERS} parameters.
+   *
+   * @param schemaName The schema of the table
+   * @param tableName The table to look up the keys in
+   * @param codes The key fields in the table
+   * @param gets The fields to return
+   * @param rename The new names of the fields to return, null entries to keep the name
+   * @param orderby The optional order by clause
+   * @param keyMeta The metadata of the keys
+   * @param keys The keys to look up
+   * @return The rows found for any of the keys: the key fields followed by the fields to return
+   * @throws HopDatabaseException In case something goes wrong
+   */
+  public List<RowMetaAndData> getLookupRows(
+      String schemaName,
+      String tableName,
+      String[] codes,
+      String[] gets,
+      String[] rename,
+      String orderby,
+      IRowMeta keyMeta,
+      List<Object[]> keys)
+      throws HopDatabaseException {
+    List<RowMetaAndData> result = new ArrayList<>();
+    int chunkSize = Math.max(1, MAX_LOOKUP_PARAMETERS / Math.max(1, codes.length));
+    for (int from = 0; from < keys.size(); from += chunkSize) {
+      List<Object[]> chunk = keys.subList(from, Math.min(keys.size(), from + chunkSize));
+      result.addAll(
+          getLookupRowsChunk(schemaName, tableName, codes, gets, rename, orderby, keyMeta, chunk));
+    }
+    return result;
+  }
+
+  private List<RowMetaAndData> getLookupRowsChunk(
+      String schemaName,
+      String tableName,
+      String[] codes,
+      String[] gets,
+      String[] rename,
+      String orderby,
+      IRowMeta keyMeta,
+      List<Object[]> keys)
+      throws HopDatabaseException {
+    List<RowMetaAndData> result = new ArrayList<>();
+
+    String table = databaseMeta.getQuotedSchemaTableCombination(this, schemaName, tableName);
+
+    StringBuilder sql = new StringBuilder();
+    sql.append("SELECT ");
+    for (int i = 0; i < codes.length; i++) {
+      if (i != 0) {
+        sql.append(", ");
+      }
+      sql.append(databaseMeta.quoteField(codes[i]));
+    }
+    for (int i = 0; i < gets.length; i++) {
+      sql.append(", ").append(databaseMeta.quoteField(gets[i]));
+      if (rename != null && rename[i] != null && !gets[i].equalsIgnoreCase(rename[i])) {
+        sql.append(" AS ").append(databaseMeta.quoteField(rename[i]));
+      }
+    }
+    sql.append(" FROM ").append(table).append(" WHERE ");
+
+    IRowMeta params = new RowMeta();
+    Object[] values = new Object[keys.size() * codes.length];
+    if (codes.length == 1) {
+      sql.append(databaseMeta.quoteField(codes[0])).append(" IN (");
+    }
+    for (int k = 0; k < keys.size(); k++) {
+      if (codes.length == 1) {
+        sql.append(k == 0 ? "?" : ", ?");
+      } else {
+        sql.append(k == 0 ? "(" : " OR (");
+        for (int i = 0; i < codes.length; i++) {
+          if (i != 0) {
+            sql.append(" AND ");
+          }
+          sql.append(databaseMeta.quoteField(codes[i])).append(" = ?");
+        }
+        sql.append(")");
+      }
+      for (int i = 0; i < codes.length; i++) {
+        params.addValueMeta(keyMeta.getValueMeta(i));
+        values[k * codes.length + i] = keys.get(k)[i];
+      }
+    }
+    if (codes.length == 1) {
+      sql.append(")");
+    }
+
+    if (!Utils.isEmpty(orderby)) {
+      sql.append(" ORDER BY ").append(orderby);
+    }
+
+    if (log.isDebug()) {
+      log.logDebug("Looking up " + keys.size() + " keys with [" + sql + "]");
+    }
+
+    try {
+      log.snap(Metrics.METRIC_DATABASE_GET_LOOKUP_START, databaseMeta.getName());
+      try (PreparedStatement ps = connection.prepareStatement(databaseMeta.stripCR(sql))) {
+        setValues(params, values, ps);
+        try (ResultSet res = ps.executeQuery()) {
+          IRowMeta returnRowMeta =
+              getRowInfo(res.getMetaData(), databaseMeta.isMySqlVariant(), false);
+          Object[] row = getRow(res, null, returnRowMeta);
+          while (row != null) {
+            result.add(new RowMetaAndData(returnRowMeta, row));
+            row = getRow(res, null, returnRowMeta);
+          }
+        }
+      }
+      return result;
+    } catch (SQLException ex) {
+      throw new HopDatabaseException("Error looking up rows in database [" + sql + "]", ex);
+    } finally {
+      log.snap(Metrics.METRIC_DATABASE_GET_LOOKUP_STOP, databaseMeta.getName());
+    }
+  }
+
   public boolean prepareUpdate(String table, String[] codes, String[] condition, String[] sets) {
     return prepareUpdate(null, table, codes, condition, sets);
   }
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import org.apache.hop.core.exception.HopDatabaseException;
+
+/**
+ * A channel to write a large number of rows to a single table. Databases can offer a native bulk
+ * load protocol through {@link IDatabase#createBulkWriter(Database, String, String,
+ * org.apache.hop.core.row.IRowMeta)}, {@link Database#createBulkWriter(String, String,
+ * org.apache.hop.core.row.IRowMeta, int)} falls back to JDBC batch inserts for the others.
+ *
+ * <p>The rows are written in the transaction of the database connection: call {@link #flush()}
+ * before committing the connection.
+ */
+public interface IBulkWriter extends AutoCloseable {
+
+  /**
+   * Write a row to the table. Depending on the implementation the row is buffered until {@link
+   * #flush()} is called.
+   *
+   * @param row The row with the values described by the row metadata of the writer
+   * @throws HopDatabaseException In case the row can't be written
+   */
+  void writeRow(Object[] row) throws HopDatabaseException;
+
+  /**
+   * Send every buffered row to the database. After this the rows can be committed and new rows can
+   * be written.
+   *
+   * @return The number of rows the database reports as written since the previous flush
+   * @throws HopDatabaseException In case the rows couldn't be written
+   */
+  long flush() throws HopDatabaseException;
+
+  /** Throw away the rows which weren't flushed, for example before a rollback. */
+  void abort();
+
+  /**
+   * @return The number of binary string values (lazy conversion) written as they are, without
+   *     converting them, 0 by default
+   */
+  default long getConversionsAvoided() {
+    return 0L;
+  }
+
+  /**
+   * @return A short description of the protocol used, for logging
+   */
+  String getDescription();
+
+  /**
+   * Release the resources of the writer, rows which weren't flushed are thrown away.
+   *
+   * @throws HopDatabaseException In case of an error releasing the resources
+   */
+  @Override
+  void close() throws HopDatabaseException;
+}
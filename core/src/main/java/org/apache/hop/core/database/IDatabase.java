@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.metadata.api.HopMetadataObject;
@@ -1129,6 +1130,23 @@ public interface IDatabase extends Cloneable {
     return "";
   }
 
+  /**
+   * Create a writer which uses the native bulk load protocol of the database to write rows to a
+   * table, for example COPY on PostgreSQL.
+   *
+   * @param database The connected database
+   * @param schemaName The schema of the table
+   * @param tableName The table to write to
+   * @param rowMeta The metadata of the rows to write, the names are the column names
+   * @return The bulk writer or null if the database has no native protocol to use
+   * @throws HopDatabaseException In case the writer can't be created
+   */
+  default IBulkWriter createBulkWriter(
+      Database database, String schemaName, String tableName, IRowMeta rowMeta)
+      throws HopDatabaseException {
+    return null;
+  }
+
   /**
    * Allows to get the column name for JDBC drivers with different behavior for aliases depending on
    * the connector version.
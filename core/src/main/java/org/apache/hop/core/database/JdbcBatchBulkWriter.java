@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * The generic bulk writer: a prepared insert statement executed in batches. It is used for the
+ * databases without a native bulk load protocol.
+ */
+public class JdbcBatchBulkWriter implements IBulkWriter {
+  private final Database database;
+  private final IRowMeta rowMeta;
+  private final int batchSize;
+  private final PreparedStatement statement;
+  private final boolean useBatch;
+
+  private int batchCounter;
+  private long rowsWritten;
+
+  /**
+   * @param database The connected database
+   * @param schemaName The schema of the table
+   * @param tableName The table to insert into
+   * @param rowMeta The metadata of the rows, the names are the column names
+   * @param batchSize The number of rows after which the batch is executed
+   * @throws HopDatabaseException In case the insert statement can't be prepared
+   */
+  public JdbcBatchBulkWriter(
+      Database database, String schemaName, String tableName, IRowMeta rowMeta, int batchSize)
+      throws HopDatabaseException {
+    this.database = database;
+    this.rowMeta = rowMeta;
+    this.batchSize = Math.max(1, batchSize);
+    this.statement =
+        database.prepareSql(database.getInsertStatement(schemaName, tableName, rowMeta));
+    this.useBatch = database.getUseBatchInsert(true) && !database.isAutoCommit();
+  }
+
+  @Override
+  public void writeRow(Object[] row) throws HopDatabaseException {
+    database.setValues(rowMeta, row, statement);
+    database.insertRow(statement, useBatch, false);
+    rowsWritten++;
+    if (useBatch && ++batchCounter >= batchSize) {
+      executeBatch();
+    }
+  }
+
+  private void executeBatch() throws HopDatabaseException {
+    try {
+      statement.executeBatch();
+      statement.clearBatch();
+      batchCounter = 0;
+    } catch (SQLException e) {
+      throw Database.createHopDatabaseBatchException("Error updating batch", e);
+    }
+  }
+
+  @Override
+  public long flush() throws HopDatabaseException {
+    if (batchCounter > 0) {
+      executeBatch();
+    }
+    long written = rowsWritten;
+    rowsWritten = 0;
+    return written;
+  }
+
+  @Override
+  public void abort() {
+    try {
+      statement.clearBatch();
+    } catch (SQLException e) {
+      // Ignore, the statement is rolled back anyway
+    }
+    batchCounter = 0;
+    rowsWritten = 0;
+  }
+
+  @Override
+  public String getDescription() {
+    return "JDBC batch insert";
+  }
+
+  @Override
+  public void close() throws HopDatabaseException {
+    database.closePreparedStatement(statement);
+  }
+}
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.hash;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hash index of serialized keys and values, like {@link ByteArrayHashIndex}, which keeps its
+ * entries in direct (off-heap) memory. The keys and values are appended to an arena of direct
+ * buffers. An open addressing table with linear probing points to the entries and keeps the hash
+ * code and the key length to avoid looking at most of the entries which don't match.
+ *
+ * <p>Keys are compared byte by byte, so they need to be serialized the same way, for example with
+ * {@link org.apache.hop.core.row.RowMeta#extractData}. When the value of an existing key is
+ * replaced by a value with a different length, the old value stays in the arena until the index is
+ * garbage collected.
+ *
+ * <p>This class is not thread-safe.
+ */
+public class OffHeapByteArrayHashIndex {
+  private static final int STANDARD_INDEX_SIZE = 512;
+  private static final float STANDARD_LOAD_FACTOR = 0.7f;
+
+  /** The size of the direct buffers in the arena: 4MB */
+  public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+  private static final int SLOT_SIZE = 16;
+  private static final int ADDRESS = 0;
+  private static final int HASH = 8;
+  private static final int KEY_LENGTH = 12;
+
+  /** Every entry in the arena starts with the length of the key and the length of the value */
+  private static final int ENTRY_HEADER_SIZE = 8;
+
+  private final int chunkSize;
+  private final List<ByteBuffer> chunks;
+  private ByteBuffer currentChunk;
+  private long arenaBytes;
+
+  private OffHeapTable table;
+  private int mask;
+  private int size;
+  private int resizeThreshold;
+
+  /**
+   * Create a new off-heap hash index
+   *
+   * @param size The expected number of entries
+   * @param chunkSize The size of the direct buffers which hold the keys and values
+   */
+  public OffHeapByteArrayHashIndex(int size, int chunkSize) {
+    this.chunkSize = chunkSize;
+    this.chunks = new ArrayList<>();
+    allocate(OffHeapTable.tableSizeFor(size, STANDARD_LOAD_FACTOR));
+  }
+
+  /** Create a new off-heap hash index */
+  public OffHeapByteArrayHashIndex() {
+    this(STANDARD_INDEX_SIZE, DEFAULT_CHUNK_SIZE);
+  }
+
+  private void allocate(int capacity) {
+    table = new OffHeapTable(capacity, SLOT_SIZE);
+    mask = capacity - 1;
+    resizeThreshold = (int) (capacity * STANDARD_LOAD_FACTOR);
+  }
+
+  /**
+   * @return The number of entries in the index
+   */
+  public int getSize() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return The number of bytes of direct memory used by the table and the arena
+   */
+  public long getOffHeapBytes() {
+    return table.getMemorySize() + arenaBytes;
+  }
+
+  /**
+   * Look up the value of a key
+   *
+   * @param key The serialized key
+   * @return A copy of the serialized value or null if the key isn't in the index
+   */
+  public byte[] get(byte[] key) {
+    int hash = hash(key);
+    int slot = findSlot(key, hash);
+    long address = table.getLong(slot, ADDRESS);
+    if (address == 0L) {
+      return null;
+    }
+    ByteBuffer chunk = chunk(address);
+    int position = position(address);
+    byte[] value = new byte[chunk.getInt(position + 4)];
+    chunk.get(position + ENTRY_HEADER_SIZE + key.length, value);
+    return value;
+  }
+
+  /**
+   * Add a key and its value to the index, replacing the value of an existing key.
+   *
+   * @param key The serialized key
+   * @param value The serialized value
+   */
+  public void put(byte[] key, byte[] value) {
+    int hash = hash(key);
+    int slot = findSlot(key, hash);
+    long address = table.getLong(slot, ADDRESS);
+    if (address != 0L) {
+      ByteBuffer chunk = chunk(address);
+      int position = position(address);
+      if (chunk.getInt(position + 4) == value.length) {
+        chunk.put(position + ENTRY_HEADER_SIZE + key.length, value);
+        return;
+      }
+      table.putLong(slot, ADDRESS, append(key, value));
+      return;
+    }
+
+    table.putLong(slot, ADDRESS, append(key, value));
+    table.putInt(slot, HASH, hash);
+    table.putInt(slot, KEY_LENGTH, key.length);
+    if (++size >= resizeThreshold) {
+      resize();
+    }
+  }
+
+  /**
+   * Find the slot of a key or the empty slot where it should go.
+   *
+   * @return The slot number
+   */
+  private int findSlot(byte[] key, int hash) {
+    int slot = hash & mask;
+    while (true) {
+      long address = table.getLong(slot, ADDRESS);
+      if (address == 0L
+          || (table.getInt(slot, HASH) == hash
+              && table.getInt(slot, KEY_LENGTH) == key.length
+              && equalsKey(address, key))) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private boolean equalsKey(long address, byte[] key) {
+    int position = position(address) + ENTRY_HEADER_SIZE;
+    return chunk(address).slice(position, key.length).mismatch(ByteBuffer.wrap(key)) < 0;
+  }
+
+  /**
+   * Copy a key and value to the arena
+   *
+   * @return The address of the new entry
+   */
+  private long append(byte[] key, byte[] value) {
+    int entrySize = ENTRY_HEADER_SIZE + key.length + value.length;
+    if (currentChunk == null || currentChunk.remaining() < entrySize) {
+      currentChunk = ByteBuffer.allocateDirect(Math.max(chunkSize, entrySize));
+      chunks.add(currentChunk);
+      arenaBytes += currentChunk.capacity();
+    }
+    int position = currentChunk.position();
+    currentChunk.putInt(key.length);
+    currentChunk.putInt(value.length);
+    currentChunk.put(key);
+    currentChunk.put(value);
+
+    // Add one so that an address is never 0, the marker of an empty slot
+    //
+    return (((long) (chunks.size() - 1)) << 32 | position) + 1;
+  }
+
+  private ByteBuffer chunk(long address) {
+    return chunks.get((int) ((address - 1) >>> 32));
+  }
+
+  private static int position(long address) {
+    return (int) (address - 1);
+  }
+
+  private static int hash(byte[] key) {
+    long hash = 1;
+    for (byte b : key) {
+      hash = 31 * hash + b;
+    }
+    return (int) OffHeapTable.mix(hash + key.length);
+  }
+
+  /** Double the size of the table and re-insert all the slots, the arena doesn't change */
+  private void resize() {
+    OffHeapTable oldTable = table;
+    allocate(oldTable.getCapacity() * 2);
+
+    for (int i = 0; i < oldTable.getCapacity(); i++) {
+      long address = oldTable.getLong(i, ADDRESS);
+      if (address != 0L) {
+        int hash = oldTable.getInt(i, HASH);
+        int slot = hash & mask;
+        while (table.getLong(slot, ADDRESS) != 0L) {
+          slot = (slot + 1) & mask;
+        }
+        table.putLong(slot, ADDRESS, address);
+        table.putInt(slot, HASH, hash);
+        table.putInt(slot, KEY_LENGTH, oldTable.getInt(i, KEY_LENGTH));
+      }
+    }
+  }
+}
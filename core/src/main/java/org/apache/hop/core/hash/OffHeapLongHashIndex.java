@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.hash;
+
+/**
+ * A long/long hash index like {@link LongHashIndex} which keeps its entries in direct (off-heap)
+ * memory instead of in one object per entry. The keys and values are stored next to each other in
+ * an open addressing table with linear probing, so a lookup usually touches a single cache line and
+ * the garbage collector never has to visit the entries.
+ *
+ * <p>Key 0 marks an empty slot in the table, it is kept in a field. The direct memory is released
+ * when the index is garbage collected.
+ *
+ * <p>This class is not thread-safe.
+ */
+public class OffHeapLongHashIndex {
+  private static final int STANDARD_INDEX_SIZE = 512;
+  private static final float STANDARD_LOAD_FACTOR = 0.7f;
+
+  private static final int SLOT_SIZE = 16;
+  private static final int KEY = 0;
+  private static final int VALUE = 8;
+
+  private OffHeapTable table;
+  private int mask;
+  private int size;
+  private int resizeThreshold;
+
+  private boolean hasZeroKey;
+  private long zeroKeyValue;
+
+  /**
+   * Create a new off-heap long/long hash index
+   *
+   * @param size the expected number of entries
+   */
+  public OffHeapLongHashIndex(int size) {
+    allocate(OffHeapTable.tableSizeFor(size, STANDARD_LOAD_FACTOR));
+  }
+
+  /** Create a new off-heap long/long hash index */
+  public OffHeapLongHashIndex() {
+    this(STANDARD_INDEX_SIZE);
+  }
+
+  private void allocate(int capacity) {
+    table = new OffHeapTable(capacity, SLOT_SIZE);
+    mask = capacity - 1;
+    resizeThreshold = (int) (capacity * STANDARD_LOAD_FACTOR);
+  }
+
+  /**
+   * @return The number of entries in the index
+   */
+  public int getSize() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return The number of bytes of direct memory used by the index
+   */
+  public long getOffHeapBytes() {
+    return table.getMemorySize();
+  }
+
+  /**
+   * Look up the value of a key
+   *
+   * @param key The key to look up
+   * @return The value or null if the key isn't in the index
+   */
+  public Long get(long key) {
+    if (key == 0L) {
+      return hasZeroKey ? zeroKeyValue : null;
+    }
+    int slot = slotFor(key);
+    while (true) {
+      long check = table.getLong(slot, KEY);
+      if (check == key) {
+        return table.getLong(slot, VALUE);
+      }
+      if (check == 0L) {
+        return null;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * Add a key and its value to the index, replacing the value of an existing key.
+   *
+   * @param key The key
+   * @param value The value
+   */
+  public void put(long key, long value) {
+    if (key == 0L) {
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        size++;
+      }
+      zeroKeyValue = value;
+      return;
+    }
+    int slot = slotFor(key);
+    while (true) {
+      long check = table.getLong(slot, KEY);
+      if (check == key) {
+        table.putLong(slot, VALUE, value);
+        return;
+      }
+      if (check == 0L) {
+        table.putLong(slot, KEY, key);
+        table.putLong(slot, VALUE, value);
+        if (++size >= resizeThreshold) {
+          resize();
+        }
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private int slotFor(long key) {
+    return (int) OffHeapTable.mix(key) & mask;
+  }
+
+  /** Double the size of the table and re-insert all the entries */
+  private void resize() {
+    OffHeapTable oldTable = table;
+    allocate(oldTable.getCapacity() * 2);
+
+    for (int i = 0; i < oldTable.getCapacity(); i++) {
+      long key = oldTable.getLong(i, KEY);
+      if (key != 0L) {
+        int slot = slotFor(key);
+        while (table.getLong(slot, KEY) != 0L) {
+          slot = (slot + 1) & mask;
+        }
+        table.putLong(slot, KEY, key);
+        table.putLong(slot, VALUE, oldTable.getLong(i, VALUE));
+      }
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.hash;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A fixed size table of slots in direct (off-heap) memory. The slots are spread over segments so
+ * the table can grow beyond the 2GB limit of a single buffer. Newly allocated memory is zeroed, an
+ * all-zero slot is considered empty by the hash indexes which use this table.
+ */
+class OffHeapTable {
+  /** The maximum size of a single direct buffer segment: 16MB */
+  static final int SEGMENT_SIZE = 1 << 24;
+
+  private final int slotSize;
+  private final int capacity;
+  private final int slotsPerSegmentShift;
+  private final int slotsPerSegmentMask;
+  private final ByteBuffer[] segments;
+
+  /**
+   * @param capacity The number of slots, a power of 2
+   * @param slotSize The number of bytes in a slot, a power of 2
+   */
+  OffHeapTable(int capacity, int slotSize) {
+    this.capacity = capacity;
+    this.slotSize = slotSize;
+
+    int slotsPerSegment = Math.min(capacity, SEGMENT_SIZE / slotSize);
+    this.slotsPerSegmentShift = Integer.numberOfTrailingZeros(slotsPerSegment);
+    this.slotsPerSegmentMask = slotsPerSegment - 1;
+
+    this.segments = new ByteBuffer[capacity / slotsPerSegment];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = ByteBuffer.allocateDirect(slotsPerSegment * slotSize);
+    }
+  }
+
+  int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * @return The number of bytes of direct memory used by this table
+   */
+  long getMemorySize() {
+    return (long) capacity * slotSize;
+  }
+
+  private ByteBuffer segment(int slot) {
+    return segments[slot >>> slotsPerSegmentShift];
+  }
+
+  private int offset(int slot, int field) {
+    return (slot & slotsPerSegmentMask) * slotSize + field;
+  }
+
+  long getLong(int slot, int field) {
+    return segment(slot).getLong(offset(slot, field));
+  }
+
+  void putLong(int slot, int field, long value) {
+    segment(slot).putLong(offset(slot, field), value);
+  }
+
+  int getInt(int slot, int field) {
+    return segment(slot).getInt(offset(slot, field));
+  }
+
+  void putInt(int slot, int field, int value) {
+    segment(slot).putInt(offset(slot, field), value);
+  }
+
+  /**
+   * Calculate the number of slots for a number of entries and a maximum load factor.
+   *
+   * @param entries The number of entries to store
+   * @param loadFactor The maximum fraction of slots in use
+   * @return A power of 2, at least 16
+   */
+  static int tableSizeFor(long entries, float loadFactor) {
+    long needed = (long) Math.ceil(entries / (double) loadFactor);
+    int size = 16;
+    while (size < needed) {
+      if (size == 1 << 30) {
+        throw new IllegalStateException(
+            "An off-heap hash index can't hold " + entries + " entries");
+      }
+      size <<= 1;
+    }
+    return size;
+  }
+
+  /** A 64 bit finalizer to spread the bits of a hash code over the lower bits of the result */
+  static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+}
@@ -521,6 +521,15 @@ public interface IValueMeta extends Cloneable {
    */
   boolean isStorageBinaryString();
 
+  /**
+   * Checks if the binary string storage of a String value holds exactly the bytes of the string in
+   * its encoding: no trimming or other conversion is needed to use it. Such a value can be written,
+   * compared for equality or checked for null without converting it.
+   *
+   * @return true if the binary string can be used as is
+   */
+  boolean isRawBinaryString();
+
   /**
    * Gets the conversion mask.
    *
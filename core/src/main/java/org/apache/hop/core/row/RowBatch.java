@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import java.util.Arrays;
+
+/**
+ * A batch of rows which all share the same row metadata. Transforms can hand over a batch of rows
+ * in one call instead of paying the per-row overhead of getRow() and putRow() for every single row.
+ *
+ * <p>The rows are kept as the usual Object[] arrays so that they can be put into any row set
+ * without being converted. Values can be accessed by row and by column.
+ */
+public class RowBatch {
+  private IRowMeta rowMeta;
+  private final Object[][] rows;
+  private int size;
+
+  /**
+   * Create a new empty batch of rows.
+   *
+   * @param rowMeta The metadata of all the rows in the batch
+   * @param capacity The maximum number of rows in the batch
+   */
+  public RowBatch(IRowMeta rowMeta, int capacity) {
+    this.rowMeta = rowMeta;
+    this.rows = new Object[Math.max(1, capacity)][];
+    this.size = 0;
+  }
+
+  /**
+   * Add a row at the end of the batch
+   *
+   * @param row The row to add
+   * @throws IllegalStateException in case the batch is full
+   */
+  public void addRow(Object[] row) {
+    if (size >= rows.length) {
+      throw new IllegalStateException(
+          "Unable to add a row to a full batch of " + rows.length + " rows");
+    }
+    rows[size++] = row;
+  }
+
+  /**
+   * @param rowIndex The index of the row in the batch
+   * @return The row at the given index
+   */
+  public Object[] getRow(int rowIndex) {
+    checkIndex(rowIndex);
+    return rows[rowIndex];
+  }
+
+  /**
+   * Replace a row in the batch
+   *
+   * @param rowIndex The index of the row in the batch
+   * @param row The new row
+   */
+  public void setRow(int rowIndex, Object[] row) {
+    checkIndex(rowIndex);
+    rows[rowIndex] = row;
+  }
+
+  /**
+   * @param rowIndex The index of the row in the batch
+   * @param valueIndex The index of the value in the row
+   * @return The value
+   */
+  public Object getValue(int rowIndex, int valueIndex) {
+    return getRow(rowIndex)[valueIndex];
+  }
+
+  /**
+   * @param rowIndex The index of the row in the batch
+   * @param valueIndex The index of the value in the row
+   * @param value The value to set
+   */
+  public void setValue(int rowIndex, int valueIndex, Object value) {
+    getRow(rowIndex)[valueIndex] = value;
+  }
+
+  /**
+   * Only keep the selected rows, keeping them in the same order.
+   *
+   * @param selection For every row in the batch: true if the row needs to be kept.
+   */
+  public void retainRows(boolean[] selection) {
+    int target = 0;
+    for (int i = 0; i < size; i++) {
+      if (selection[i]) {
+        rows[target++] = rows[i];
+      }
+    }
+    Arrays.fill(rows, target, size, null);
+    size = target;
+  }
+
+  /** Remove all rows from the batch */
+  public void clear() {
+    Arrays.fill(rows, 0, size, null);
+    size = 0;
+  }
+
+  private void checkIndex(int rowIndex) {
+    if (rowIndex < 0 || rowIndex >= size) {
+      throw new IndexOutOfBoundsException(
+          "Row index " + rowIndex + " is out of bounds for a batch of " + size + " rows");
+    }
+  }
+
+  /**
+   * @return The number of rows in the batch
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return The maximum number of rows in the batch
+   */
+  public int getCapacity() {
+    return rows.length;
+  }
+
+  /**
+   * @return true if there are no rows in the batch
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return true if no more rows can be added to the batch
+   */
+  public boolean isFull() {
+    return size >= rows.length;
+  }
+
+  /**
+   * Gets rowMeta
+   *
+   * @return value of rowMeta
+   */
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+
+  /**
+   * @param rowMeta The rowMeta to set
+   */
+  public void setRowMeta(IRowMeta rowMeta) {
+    this.rowMeta = rowMeta;
+  }
+}
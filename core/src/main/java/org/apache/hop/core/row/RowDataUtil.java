@@ -17,6 +17,10 @@
 
 package org.apache.hop.core.row;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+
 /**
  * This class of static methods can be used to manipulate rows: add, delete, resize, etc... That
  * way, when we want to go for a metadata driven system with hiding deletes, over sized arrays etc.,
@@ -190,4 +194,37 @@ public class RowDataUtil {
 
     return data;
   }
+
+  /**
+   * Roughly estimate the number of bytes a row of data takes on the Java heap. This is meant to
+   * bound caches, not to be exact.
+   *
+   * @param rowData the row of data, can be null
+   * @return the estimated size in bytes
+   */
+  public static long estimateMemorySize(Object[] rowData) {
+    if (rowData == null) {
+      return 0L;
+    }
+    long size = 16L + 8L * rowData.length;
+    for (Object value : rowData) {
+      if (value == null) {
+        continue;
+      }
+      if (value instanceof String string) {
+        size += 40L + string.length();
+      } else if (value instanceof byte[] bytes) {
+        size += 16L + bytes.length;
+      } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+        size += 64L;
+      } else if (value instanceof Date) {
+        size += 32L;
+      } else if (value instanceof Object[] nested) {
+        size += estimateMemorySize(nested);
+      } else {
+        size += 16L;
+      }
+    }
+    return size;
+  }
 }
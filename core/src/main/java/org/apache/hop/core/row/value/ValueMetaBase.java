@@ -826,6 +826,17 @@ public class ValueMetaBase implements IValueMeta {
     return storageType == STORAGE_TYPE_BINARY_STRING;
   }
 
+  @Override
+  @JsonIgnore
+  public boolean isRawBinaryString() {
+    return type == TYPE_STRING
+        && storageType == STORAGE_TYPE_BINARY_STRING
+        && identicalFormat
+        && trimType == TRIM_TYPE_NONE
+        && storageMetadata != null
+        && storageMetadata.getTrimType() == TRIM_TYPE_NONE;
+  }
+
   /**
    * @return the type
    */
@@ -4150,6 +4161,9 @@ public class ValueMetaBase implements IValueMeta {
         if (value == null || !emptyStringDiffersFromNull && ((byte[]) value).length == 0) {
           return true; // shortcut
         }
+        if (isRawBinaryString()) {
+          return false; // the bytes of a non-empty string, no need to convert them
+        }
         value = convertBinaryStringToNativeType((byte[]) data);
       }
 
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Creates threads that run on virtual threads when the Java runtime supports them (Java 21 or
+ * later) and on regular platform threads otherwise. Hop is built for Java 17 so the virtual thread
+ * API is looked up at runtime.
+ *
+ * <p>The number of started and running virtual threads is kept. While virtual threads are in use we
+ * can also listen to the JFR event that signals that a virtual thread blocked while pinned to its
+ * carrier thread, for example while waiting inside a synchronized block, see {@link
+ * #startPinnedMonitor()}.
+ */
+public class VirtualThreadUtil {
+  private static final String PINNED_EVENT_NAME = "jdk.VirtualThreadPinned";
+
+  private static final MethodHandle OF_VIRTUAL;
+  private static final MethodHandle BUILDER_NAME;
+  private static final MethodHandle BUILDER_UNSTARTED;
+
+  private static final LongAdder startedVirtualThreads = new LongAdder();
+  private static final LongAdder activeVirtualThreads = new LongAdder();
+  private static final LongAdder pinnedEvents = new LongAdder();
+
+  /** The JFR stream shared by everyone who started the pinned monitor, guarded by the class */
+  private static RecordingStream pinnedMonitor;
+
+  private static int pinnedMonitorUsers;
+
+  static {
+    MethodHandle ofVirtual = null;
+    MethodHandle builderName = null;
+    MethodHandle builderUnstarted = null;
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+      ofVirtual =
+          lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass));
+      builderName =
+          lookup.findVirtual(
+              builderClass, "name", MethodType.methodType(builderClass, String.class));
+      builderUnstarted =
+          lookup.findVirtual(
+              builderClass, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+    } catch (ReflectiveOperationException e) {
+      // Java 17-20: no virtual threads
+      ofVirtual = null;
+    }
+    OF_VIRTUAL = ofVirtual;
+    BUILDER_NAME = builderName;
+    BUILDER_UNSTARTED = builderUnstarted;
+  }
+
+  private VirtualThreadUtil() {}
+
+  /**
+   * @return true if the Java runtime supports virtual threads
+   */
+  public static boolean isSupported() {
+    return OF_VIRTUAL != null;
+  }
+
+  /**
+   * Create a new thread which is not started yet.
+   *
+   * @param runnable the work to do in the thread
+   * @param name the name of the thread
+   * @param virtual true to create a virtual thread if the Java runtime supports it
+   * @return the new thread
+   */
+  public static Thread newThread(Runnable runnable, String name, boolean virtual) {
+    if (virtual && isSupported()) {
+      Runnable counted =
+          () -> {
+            activeVirtualThreads.increment();
+            try {
+              runnable.run();
+            } finally {
+              activeVirtualThreads.decrement();
+            }
+          };
+      try {
+        Object builder = OF_VIRTUAL.invoke();
+        builder = BUILDER_NAME.invoke(builder, name);
+        Thread thread = (Thread) BUILDER_UNSTARTED.invoke(builder, counted);
+        startedVirtualThreads.increment();
+        return thread;
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalStateException("Unable to create virtual thread " + name, e);
+      }
+    }
+    Thread thread = new Thread(runnable);
+    thread.setName(name);
+    return thread;
+  }
+
+  /**
+   * Start counting the virtual threads which block while pinned to their carrier thread. The JFR
+   * recording stream is shared: it is started by the first caller and closed when every caller
+   * called {@link #stopPinnedMonitor()}. When JFR isn't available in this runtime the pinned
+   * threads are simply not counted.
+   */
+  public static synchronized void startPinnedMonitor() {
+    pinnedMonitorUsers++;
+    if (pinnedMonitorUsers > 1) {
+      return;
+    }
+    try {
+      RecordingStream stream = new RecordingStream();
+      stream.enable(PINNED_EVENT_NAME);
+      stream.onEvent(PINNED_EVENT_NAME, event -> pinnedEvents.increment());
+      stream.setReuse(true);
+      stream.startAsync();
+      pinnedMonitor = stream;
+    } catch (IllegalStateException | SecurityException | NoClassDefFoundError e) {
+      // JFR can't be used or the jdk.jfr module isn't part of this runtime
+    }
+  }
+
+  /** Stop counting pinned virtual threads for a caller of {@link #startPinnedMonitor()}. */
+  public static synchronized void stopPinnedMonitor() {
+    if (pinnedMonitorUsers == 0) {
+      return;
+    }
+    pinnedMonitorUsers--;
+    if (pinnedMonitorUsers == 0 && pinnedMonitor != null) {
+      pinnedMonitor.close();
+      pinnedMonitor = null;
+    }
+  }
+
+  /**
+   * @return true if the JFR stream of the pinned monitor is open
+   */
+  static synchronized boolean isPinnedMonitorRunning() {
+    return pinnedMonitor != null;
+  }
+
+  /**
+   * @return the number of virtual threads created since the start of the JVM
+   */
+  public static long getStartedVirtualThreadCount() {
+    return startedVirtualThreads.sum();
+  }
+
+  /**
+   * @return the number of virtual threads which are currently running
+   */
+  public static long getActiveVirtualThreadCount() {
+    return activeVirtualThreads.sum();
+  }
+
+  /**
+   * @return the number of times a virtual thread blocked while pinned to its carrier thread for
+   *     longer than the JFR threshold of the event (20ms by default)
+   */
+  public static long getPinnedEventCount() {
+    return pinnedEvents.sum();
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.vfs;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Uploads an object to an object store in parts, the way the S3 multipart upload API works. Parts
+ * can be uploaded concurrently, the part tags are passed to {@link #complete(List)} in the order of
+ * the part numbers.
+ */
+public interface IMultipartUploader {
+
+  /**
+   * Upload an object which fits in a single part in one request.
+   *
+   * @param data the content
+   * @param length the number of bytes of content in the data
+   * @throws IOException in case of an upload error
+   */
+  void putObject(byte[] data, int length) throws IOException;
+
+  /**
+   * Start a multipart upload. This is called once, before the first part is uploaded.
+   *
+   * @throws IOException in case the upload can't be started
+   */
+  void start() throws IOException;
+
+  /**
+   * Upload a part. This can be called from several threads at once.
+   *
+   * @param partNumber the number of the part, starting at 1
+   * @param data the content of the part
+   * @param length the number of bytes of content in the data
+   * @return the tag identifying the uploaded part (the ETag for S3)
+   * @throws IOException in case of an upload error
+   */
+  String uploadPart(int partNumber, byte[] data, int length) throws IOException;
+
+  /**
+   * Complete the upload and create the object.
+   *
+   * @param partTags the tags of the uploaded parts in the order of the part numbers
+   * @throws IOException in case the upload can't be completed
+   */
+  void complete(List<String> partTags) throws IOException;
+
+  /**
+   * Abort the upload and discard the uploaded parts.
+   *
+   * @throws IOException in case the upload can't be aborted
+   */
+  void abort() throws IOException;
+}
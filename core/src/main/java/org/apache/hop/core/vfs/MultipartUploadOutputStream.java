@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.vfs;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An output stream which uploads the data written to it in parts on a number of threads. The memory
+ * used is bounded: there are never more part buffers than fit in the memory budget, the buffer
+ * being filled included. When all buffers are in flight, writing blocks until a part is uploaded.
+ * Data which fits in a single part is uploaded as one object.
+ */
+public class MultipartUploadOutputStream extends OutputStream {
+
+  public static final int DEFAULT_UPLOAD_THREADS = 4;
+
+  public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+  private static final AtomicInteger threadNum = new AtomicInteger(1);
+
+  private final IMultipartUploader uploader;
+  private final int partSize;
+  private final int maxBuffers;
+  private final ExecutorService executor;
+  private final BlockingQueue<byte[]> freeBuffers;
+  private final List<Future<String>> parts;
+
+  private int allocatedBuffers;
+  private byte[] buffer;
+  private int position;
+  private boolean started;
+  private boolean closed;
+  private volatile Throwable failure;
+
+  /**
+   * @param uploader the uploader for the object
+   * @param partSize the size of a part
+   * @param uploadThreads the maximum number of parts to upload at the same time
+   * @param memoryBudget the maximum number of bytes to use for part buffers. At least two buffers
+   *     are used: one to write to and one to upload.
+   */
+  public MultipartUploadOutputStream(
+      IMultipartUploader uploader, int partSize, int uploadThreads, long memoryBudget) {
+    if (partSize <= 0) {
+      throw new IllegalArgumentException("The part size needs to be larger than 0");
+    }
+    this.uploader = uploader;
+    this.partSize = partSize;
+    this.maxBuffers = (int) Math.max(2, Math.min(Integer.MAX_VALUE, memoryBudget / partSize));
+    this.executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, uploadThreads),
+            r -> {
+              Thread thread = Executors.defaultThreadFactory().newThread(r);
+              thread.setDaemon(true);
+              thread.setName("Multipart upload thread " + threadNum.getAndIncrement());
+              return thread;
+            });
+    this.freeBuffers = new ArrayBlockingQueue<>(maxBuffers);
+    this.parts = new ArrayList<>();
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureBuffer();
+    buffer[position++] = (byte) b;
+    if (position == partSize) {
+      uploadPart();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      ensureBuffer();
+      int n = Math.min(len, partSize - position);
+      System.arraycopy(b, off, buffer, position, n);
+      position += n;
+      off += n;
+      len -= n;
+      if (position == partSize) {
+        uploadPart();
+      }
+    }
+  }
+
+  private void ensureBuffer() throws IOException {
+    if (closed) {
+      throw new IOException("The stream is closed");
+    }
+    if (buffer != null) {
+      return;
+    }
+    buffer = freeBuffers.poll();
+    if (buffer == null && allocatedBuffers < maxBuffers) {
+      allocatedBuffers++;
+      buffer = new byte[partSize];
+    }
+    if (buffer == null) {
+      // Wait for an upload to finish
+      //
+      try {
+        buffer = freeBuffers.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while waiting for a part upload");
+      }
+    }
+    position = 0;
+  }
+
+  private void uploadPart() throws IOException {
+    if (failure != null) {
+      throw new IOException("Error uploading a part", failure);
+    }
+    if (!started) {
+      uploader.start();
+      started = true;
+    }
+    byte[] data = buffer;
+    int length = position;
+    int partNumber = parts.size() + 1;
+    buffer = null;
+    position = 0;
+    parts.add(
+        executor.submit(
+            () -> {
+              try {
+                return uploader.uploadPart(partNumber, data, length);
+              } catch (Exception e) {
+                failure = e;
+                throw e;
+              } finally {
+                freeBuffers.offer(data);
+              }
+            }));
+  }
+
+  /**
+   * @return the number of parts submitted for upload so far
+   */
+  public int getNrParts() {
+    return parts.size();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    boolean completed = false;
+    try {
+      if (!started) {
+        uploader.putObject(buffer == null ? new byte[0] : buffer, position);
+      } else {
+        if (position > 0) {
+          uploadPart();
+        }
+        List<String> partTags = new ArrayList<>();
+        for (Future<String> part : parts) {
+          partTags.add(getPartTag(part));
+        }
+        uploader.complete(partTags);
+      }
+      completed = true;
+    } finally {
+      // Whatever went wrong, don't leave the uploaded parts behind
+      //
+      if (started && !completed) {
+        abort();
+      }
+      closed = true;
+      buffer = null;
+      freeBuffers.clear();
+      executor.shutdownNow();
+    }
+  }
+
+  private String getPartTag(Future<String> part) throws IOException {
+    try {
+      return part.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a part upload");
+    } catch (ExecutionException e) {
+      throw new IOException("Error uploading a part", e.getCause());
+    }
+  }
+
+  private void abort() {
+    for (Future<String> part : parts) {
+      part.cancel(true);
+    }
+    try {
+      uploader.abort();
+    } catch (IOException | RuntimeException e) {
+      // The original error is more important
+    }
+  }
+}
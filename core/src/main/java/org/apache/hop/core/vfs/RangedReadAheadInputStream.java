@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.vfs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An input stream which reads an object in chunks of a fixed size with range requests. The chunks
+ * after the one being read are fetched ahead on a number of threads, so reading a large object
+ * isn't bounded by the throughput of a single connection. Skipping beyond the chunks fetched
+ * discards them and continues at the new position.
+ */
+public class RangedReadAheadInputStream extends InputStream {
+
+  public static final int DEFAULT_DOWNLOAD_THREADS = 4;
+
+  public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+  private static final AtomicInteger threadNum = new AtomicInteger(1);
+
+  private final IRangeReader reader;
+  private final long length;
+  private final int chunkSize;
+  private final int readAhead;
+  private final ExecutorService executor;
+  private final Deque<Future<byte[]>> chunks;
+
+  /** The position of the next byte to return */
+  private long position;
+
+  /** The position of the next chunk to fetch */
+  private long nextFetch;
+
+  private byte[] current;
+  private int currentPosition;
+  private boolean closed;
+
+  /**
+   * @param reader the reader for ranges of the object
+   * @param length the size of the object
+   * @param chunkSize the number of bytes to read in one request
+   * @param downloadThreads the number of chunks to fetch at the same time
+   */
+  public RangedReadAheadInputStream(
+      IRangeReader reader, long length, int chunkSize, int downloadThreads) {
+    this.reader = reader;
+    this.length = length;
+    this.chunkSize = chunkSize;
+    this.readAhead = Math.max(1, downloadThreads);
+    this.executor =
+        Executors.newFixedThreadPool(
+            readAhead,
+            r -> {
+              Thread thread = Executors.defaultThreadFactory().newThread(r);
+              thread.setDaemon(true);
+              thread.setName("Ranged download thread " + threadNum.getAndIncrement());
+              return thread;
+            });
+    this.chunks = new ArrayDeque<>();
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!ensureData()) {
+      return -1;
+    }
+    position++;
+    return current[currentPosition++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!ensureData()) {
+      return -1;
+    }
+    int n = Math.min(len, current.length - currentPosition);
+    System.arraycopy(current, currentPosition, b, off, n);
+    currentPosition += n;
+    position += n;
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (n <= 0) {
+      return 0;
+    }
+    long skip = Math.min(n, length - position);
+    int remaining = current == null ? 0 : current.length - currentPosition;
+    if (skip <= remaining) {
+      currentPosition += (int) skip;
+    } else {
+      // Continue fetching at the new position
+      //
+      cancelChunks();
+      current = null;
+      currentPosition = 0;
+      nextFetch = position + skip;
+    }
+    position += skip;
+    return skip;
+  }
+
+  @Override
+  public int available() {
+    return current == null ? 0 : current.length - currentPosition;
+  }
+
+  private boolean ensureData() throws IOException {
+    if (closed) {
+      throw new IOException("The stream is closed");
+    }
+    while (current == null || currentPosition == current.length) {
+      if (position >= length) {
+        return false;
+      }
+      fetchAhead();
+      current = getChunk(chunks.poll());
+      currentPosition = 0;
+      fetchAhead();
+    }
+    return true;
+  }
+
+  private void fetchAhead() {
+    while (chunks.size() < readAhead && nextFetch < length) {
+      long start = nextFetch;
+      int size = (int) Math.min(chunkSize, length - start);
+      chunks.add(
+          executor.submit(
+              () -> {
+                byte[] data = reader.read(start, size);
+                if (data.length != size) {
+                  throw new IOException(
+                      "Expected "
+                          + size
+                          + " bytes at position "
+                          + start
+                          + " but received "
+                          + data.length);
+                }
+                return data;
+              }));
+      nextFetch += size;
+    }
+  }
+
+  private byte[] getChunk(Future<byte[]> chunk) throws IOException {
+    try {
+      return chunk.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a download");
+    } catch (ExecutionException e) {
+      throw new IOException("Error reading a range of bytes", e.getCause());
+    }
+  }
+
+  private void cancelChunks() {
+    for (Future<byte[]> chunk : chunks) {
+      chunk.cancel(true);
+    }
+    chunks.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      cancelChunks();
+      current = null;
+      executor.shutdownNow();
+    }
+  }
+}
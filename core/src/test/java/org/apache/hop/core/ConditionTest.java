@@ -18,14 +18,18 @@
 package org.apache.hop.core;
 
 import static org.apache.hop.core.Condition.Function;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.charset.StandardCharsets;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.ValueMetaAndData;
 import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
 import org.apache.hop.core.xml.XmlHandler;
 import org.apache.hop.junit.rules.RestoreHopEnvironment;
 import org.junit.Assert;
@@ -83,6 +87,46 @@ public class ConditionTest {
     assertFalse(condition.evaluate(rowMeta1, new Object[] {null, "test"}));
   }
 
+  @Test
+  public void testEqualOnBinaryStringWithoutConversion() throws Exception {
+    ValueMetaString storageMeta = new ValueMetaString("name");
+    storageMeta.setStringEncoding("UTF-8");
+    ValueMetaString valueMeta = new ValueMetaString("name");
+    valueMeta.setStringEncoding("UTF-8");
+    valueMeta.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    valueMeta.setStorageMetadata(storageMeta);
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(valueMeta);
+
+    ValueMetaString constantMeta = new ValueMetaString("constant");
+    constantMeta.setStringEncoding("UTF-8");
+    ValueMetaAndData constant = new ValueMetaAndData(constantMeta, "Caf\u00e9");
+
+    Condition equal = new Condition("name", Function.EQUAL, null, constant);
+    Condition notEqual = new Condition("name", Function.NOT_EQUAL, null, constant);
+    Object[] match = new Object[] {"Caf\u00e9".getBytes(StandardCharsets.UTF_8)};
+    Object[] other = new Object[] {"Cafe".getBytes(StandardCharsets.UTF_8)};
+
+    assertTrue(equal.evaluate(rowMeta, match));
+    assertFalse(equal.evaluate(rowMeta, other));
+    assertFalse(equal.evaluate(rowMeta, new Object[] {null}));
+    assertFalse(notEqual.evaluate(rowMeta, match));
+    assertTrue(notEqual.evaluate(rowMeta, other));
+    assertEquals(0L, valueMeta.getNumberOfBinaryStringConversions());
+    assertEquals(3L, equal.getRawComparisons());
+    assertEquals(2L, notEqual.getRawComparisons());
+
+    // A case-insensitive comparison still needs the converted value
+    //
+    valueMeta.setCaseInsensitive(true);
+    Condition ignoreCase =
+        new Condition(
+            "name", Function.EQUAL, null, new ValueMetaAndData(new ValueMetaString("c"), "hop"));
+    assertTrue(ignoreCase.evaluate(rowMeta, new Object[] {"HOP".getBytes(StandardCharsets.UTF_8)}));
+    assertTrue(valueMeta.getNumberOfBinaryStringConversions() > 0);
+    assertEquals(0L, ignoreCase.getRawComparisons());
+  }
+
   @Test
   public void testSerialization() throws Exception {
     Document document = XmlHandler.loadXmlFile(getClass().getResourceAsStream("/condition.xml"));
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEnvironment;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+/** Test class for the lock-free ring buffer row set. */
+public class RingBufferRowSetTest {
+  @ClassRule public static RestoreHopEnvironment env = new RestoreHopEnvironment();
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("ROWNR"));
+    return rowMeta;
+  }
+
+  @Test
+  public void testBasicCreation() {
+    IRowSet set = new RingBufferRowSet(10);
+
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertNull(set.getRowImmediate());
+  }
+
+  @Test
+  public void testCapacity() {
+    // 3 is not a power of 2: the capacity should still be respected
+    //
+    IRowSet set = new RingBufferRowSet(3);
+    IRowMeta rowMeta = createRowMeta();
+
+    assertTrue(set.putRowWait(rowMeta, new Object[] {1L}, 1, TimeUnit.MILLISECONDS));
+    assertTrue(set.putRowWait(rowMeta, new Object[] {2L}, 1, TimeUnit.MILLISECONDS));
+    assertTrue(set.putRowWait(rowMeta, new Object[] {3L}, 1, TimeUnit.MILLISECONDS));
+    assertFalse(set.putRowWait(rowMeta, new Object[] {4L}, 1, TimeUnit.MILLISECONDS));
+    assertEquals(3, set.size());
+    assertSame(rowMeta, set.getRowMeta());
+
+    assertArrayEquals(new Object[] {1L}, set.getRowImmediate());
+    assertTrue(set.putRowWait(rowMeta, new Object[] {4L}, 1, TimeUnit.MILLISECONDS));
+    assertArrayEquals(new Object[] {2L}, set.getRow());
+    assertArrayEquals(new Object[] {3L}, set.getRowWait(1, TimeUnit.MILLISECONDS));
+    assertArrayEquals(new Object[] {4L}, set.getRowImmediate());
+    assertNull(set.getRowWait(1, TimeUnit.MILLISECONDS));
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testNullRowIsRejected() {
+    IRowSet set = new RingBufferRowSet(10);
+
+    assertFalse(set.putRow(createRowMeta(), null));
+    assertEquals(0, set.size());
+  }
+
+  @Test
+  public void testClear() {
+    IRowSet set = new RingBufferRowSet(4);
+    IRowMeta rowMeta = createRowMeta();
+    set.putRow(rowMeta, new Object[] {1L});
+    set.putRow(rowMeta, new Object[] {2L});
+    set.setDone();
+
+    set.clear();
+
+    assertFalse(set.isDone());
+    assertEquals(0, set.size());
+    assertNull(set.getRowImmediate());
+    assertTrue(set.putRow(rowMeta, new Object[] {3L}));
+    assertArrayEquals(new Object[] {3L}, set.getRowImmediate());
+  }
+
+  /** One thread puts a lot of rows in a small buffer, another one reads them in the same order. */
+  @Test
+  public void testProducerConsumer() throws Exception {
+    final int nrRows = 250000;
+    final IRowSet set = new RingBufferRowSet(16);
+    final IRowMeta rowMeta = createRowMeta();
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    Thread producer =
+        new Thread(
+            () -> {
+              for (long i = 0; i < nrRows; i++) {
+                Object[] row = new Object[] {i};
+                while (!set.putRow(rowMeta, row)) {
+                  // Wait until the consumer caught up
+                }
+              }
+              set.setDone();
+            });
+    producer.setUncaughtExceptionHandler((t, e) -> failure.set(e));
+    producer.start();
+
+    long expected = 0;
+    Object[] row;
+    while ((row = set.getRow()) != null || !set.isDone() || set.size() > 0) {
+      if (row != null) {
+        assertEquals(expected++, row[0]);
+      }
+    }
+    producer.join();
+
+    assertNull(failure.get());
+    assertEquals(nrRows, expected);
+  }
+}
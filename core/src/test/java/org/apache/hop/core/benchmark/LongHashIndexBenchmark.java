@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.hash.LongHashIndex;
+import org.apache.hop.core.hash.OffHeapLongHashIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the heap based {@link LongHashIndex} with the {@link OffHeapLongHashIndex} the way the
+ * Stream Lookup transform uses them: the index is filled once and then queried for every input row,
+ * with about half of the keys found.
+ *
+ * <p>This is not a unit test. Run it from your IDE with the main method or with the JMH runner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+    value = 1,
+    jvmArgs = {"-Xmx4g"})
+public class LongHashIndexBenchmark {
+  private static final int LOOKUPS_PER_INVOCATION = 100000;
+
+  @Param({"10000", "1000000", "10000000"})
+  public int size;
+
+  private long[] keys;
+  private long[] lookups;
+  private LongHashIndex heapIndex;
+  private OffHeapLongHashIndex offHeapIndex;
+
+  @Setup(Level.Trial)
+  public void setUp() throws HopValueException {
+    Random random = new Random(42L);
+    keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = random.nextInt(Integer.MAX_VALUE);
+    }
+    lookups = new long[LOOKUPS_PER_INVOCATION];
+    for (int i = 0; i < lookups.length; i++) {
+      lookups[i] = i % 2 == 0 ? keys[random.nextInt(size)] : -1L - random.nextInt(size);
+    }
+
+    heapIndex = new LongHashIndex();
+    offHeapIndex = new OffHeapLongHashIndex();
+    for (long key : keys) {
+      heapIndex.put(key, key * 2);
+      offHeapIndex.put(key, key * 2);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LOOKUPS_PER_INVOCATION)
+  public void lookupHeap(Blackhole blackhole) throws HopValueException {
+    for (long key : lookups) {
+      blackhole.consume(heapIndex.get(key));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(LOOKUPS_PER_INVOCATION)
+  public void lookupOffHeap(Blackhole blackhole) {
+    for (long key : lookups) {
+      blackhole.consume(offHeapIndex.get(key));
+    }
+  }
+
+  @Benchmark
+  public LongHashIndex buildHeap() throws HopValueException {
+    LongHashIndex index = new LongHashIndex();
+    for (long key : keys) {
+      index.put(key, key);
+    }
+    return index;
+  }
+
+  @Benchmark
+  public OffHeapLongHashIndex buildOffHeap() {
+    OffHeapLongHashIndex index = new OffHeapLongHashIndex();
+    for (long key : keys) {
+      index.put(key, key);
+    }
+    return index;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(LongHashIndexBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
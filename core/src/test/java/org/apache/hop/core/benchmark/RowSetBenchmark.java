@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.RowSetType;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the throughput of the row set implementations when one thread hands rows over to
+ * another, the way two transform copies do in a local pipeline.
+ *
+ * <p>This is not a unit test. Run it from your IDE with the main method or with the JMH runner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowSetBenchmark {
+  /** A multiple of half the row set size: the batching row set only hands over full batches. */
+  private static final int ROWS_PER_INVOCATION = 100000;
+
+  private static final int ROW_SET_SIZE = 10000;
+
+  @Param({"Blocking", "BlockingBatching", "RingBuffer"})
+  public String rowSetType;
+
+  private IRowMeta rowMeta;
+  private Object[] row;
+  private IRowSet rowSet;
+  private Thread consumer;
+  private AtomicLong consumed;
+  private volatile boolean running;
+  private long produced;
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    row = new Object[] {1L, "Apache Hop"};
+
+    rowSet = RowSetType.valueOf(rowSetType).createRowSet(ROW_SET_SIZE);
+    consumed = new AtomicLong(0L);
+    produced = 0L;
+    running = true;
+
+    consumer =
+        new Thread(
+            () -> {
+              long count = 0;
+              while (running) {
+                if (rowSet.getRow() != null) {
+                  consumed.lazySet(++count);
+                }
+              }
+            },
+            "row-set-benchmark-consumer");
+    consumer.setDaemon(true);
+    consumer.start();
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() throws InterruptedException {
+    running = false;
+    consumer.join();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS_PER_INVOCATION)
+  public void handOverRows() {
+    for (int i = 0; i < ROWS_PER_INVOCATION; i++) {
+      while (!rowSet.putRow(rowMeta, row)) {
+        // The consumer is behind, try again
+      }
+    }
+    produced += ROWS_PER_INVOCATION;
+
+    // Only count the rows the other thread actually received
+    //
+    while (consumed.get() < produced) {
+      Thread.onSpinWait();
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(RowSetBenchmark.class.getSimpleName()).build()).run();
+  }
+}
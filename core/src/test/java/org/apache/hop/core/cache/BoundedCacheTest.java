@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class BoundedCacheTest {
+
+  @Test
+  public void testLruEvictsLeastRecentlyUsed() {
+    BoundedCache<String, String> cache =
+        new BoundedCache<>(CacheEvictionPolicy.LRU, 2, 0, 0, TimeUnit.SECONDS, null);
+    cache.put("a", "1");
+    cache.put("b", "2");
+    assertEquals("1", cache.get("a"));
+    cache.put("c", "3");
+
+    assertEquals(2, cache.size());
+    assertNull(cache.get("b"));
+    assertEquals("1", cache.get("a"));
+    assertEquals("3", cache.get("c"));
+    assertEquals(1, cache.getEvictionCount());
+    assertEquals(3, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  public void testUnbounded() {
+    BoundedCache<Integer, Integer> cache =
+        new BoundedCache<>(CacheEvictionPolicy.TinyLFU, 0, 0, 0, TimeUnit.SECONDS, null);
+    for (int i = 0; i < 10000; i++) {
+      cache.put(i, i);
+    }
+    assertEquals(10000, cache.size());
+    assertEquals(0, cache.getEvictionCount());
+  }
+
+  @Test
+  public void testTinyLfuKeepsFrequentKeysDuringScan() {
+    BoundedCache<Integer, Integer> cache =
+        new BoundedCache<>(CacheEvictionPolicy.TinyLFU, 100, 0, 0, TimeUnit.SECONDS, null);
+    for (int round = 0; round < 10; round++) {
+      for (int key = 0; key < 50; key++) {
+        if (cache.get(key) == null) {
+          cache.put(key, key);
+        }
+      }
+    }
+    // A scan over many keys which are used once
+    for (int key = 1000; key < 5000; key++) {
+      if (cache.get(key) == null) {
+        cache.put(key, key);
+      }
+    }
+    assertEquals(100, cache.size());
+    int kept = 0;
+    for (int key = 0; key < 50; key++) {
+      if (cache.get(key) != null) {
+        kept++;
+      }
+    }
+    assertTrue("Only " + kept + " frequent keys survived", kept >= 45);
+  }
+
+  @Test
+  public void testLruLosesFrequentKeysDuringScan() {
+    BoundedCache<Integer, Integer> cache =
+        new BoundedCache<>(CacheEvictionPolicy.LRU, 100, 0, 0, TimeUnit.SECONDS, null);
+    for (int key = 0; key < 50; key++) {
+      cache.put(key, key);
+    }
+    for (int key = 1000; key < 5000; key++) {
+      cache.put(key, key);
+    }
+    for (int key = 0; key < 50; key++) {
+      assertNull(cache.get(key));
+    }
+  }
+
+  @Test
+  public void testMaximumBytes() {
+    BoundedCache<String, String> cache =
+        new BoundedCache<>(
+            CacheEvictionPolicy.LRU, 0, 100, 0, TimeUnit.SECONDS, (k, v) -> v.length());
+    cache.put("a", "x".repeat(40));
+    cache.put("b", "x".repeat(40));
+    assertEquals(80, cache.getWeightedSize());
+    cache.put("c", "x".repeat(40));
+
+    assertEquals(2, cache.size());
+    assertEquals(80, cache.getWeightedSize());
+    assertNull(cache.get("a"));
+
+    // Replacing a value changes the size
+    cache.put("b", "x");
+    assertEquals(41, cache.getWeightedSize());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaximumBytesNeedsWeigher() {
+    new BoundedCache<String, String>(CacheEvictionPolicy.LRU, 0, 100, 0, TimeUnit.SECONDS, null);
+  }
+
+  @Test
+  public void testTimeToLive() {
+    AtomicLong time = new AtomicLong();
+    BoundedCache<String, String> cache =
+        new BoundedCache<>(CacheEvictionPolicy.TinyLFU, 10, 0, 1000L, null, time::get);
+    cache.put("a", "1");
+    time.set(999L);
+    assertNotNull(cache.get("a"));
+    time.set(1000L);
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+  }
+
+  @Test
+  public void testRemoveExpired() {
+    AtomicLong time = new AtomicLong();
+    BoundedCache<String, String> cache =
+        new BoundedCache<>(CacheEvictionPolicy.LRU, 10, 0, 1000L, null, time::get);
+    cache.put("a", "1");
+    cache.put("b", "2");
+    time.set(500L);
+    cache.put("c", "3");
+    // Stored again: it expires later although it comes first
+    cache.put("a", "4");
+    cache.put("d", "5");
+
+    time.set(1000L);
+    assertEquals(1, cache.removeExpired());
+    assertEquals(Set.of("a", "c", "d"), cache.keySet());
+
+    time.set(1500L);
+    assertEquals(3, cache.removeExpired());
+    assertEquals(0, cache.size());
+    assertEquals(4, cache.getEvictionCount());
+  }
+
+  @Test
+  public void testContainsKeyDoesNotCount() {
+    AtomicLong time = new AtomicLong();
+    BoundedCache<String, String> cache =
+        new BoundedCache<>(CacheEvictionPolicy.LRU, 10, 0, 1000L, null, time::get);
+    cache.put("a", "1");
+    assertTrue(cache.containsKey("a"));
+    assertFalse(cache.containsKey("b"));
+    time.set(1000L);
+    assertFalse(cache.containsKey("a"));
+    assertEquals(0, cache.getHitCount());
+    assertEquals(0, cache.getMissCount());
+  }
+
+  @Test
+  public void testLoadStatistics() {
+    BoundedCache<String, String> cache =
+        new BoundedCache<>(CacheEvictionPolicy.LRU, 10, 0, 0, TimeUnit.SECONDS, null);
+    cache.recordLoad(100L);
+    cache.recordLoad(50L);
+    assertEquals(2, cache.getLoadCount());
+    assertEquals(150L, cache.getLoadTimeNanos());
+
+    assertNull(cache.get("a"));
+    cache.put("a", "1");
+    cache.get("a");
+    assertEquals(0.5, cache.getHitRate(), 0.0001);
+  }
+
+  @Test
+  public void testLookupName() {
+    assertEquals(CacheEvictionPolicy.TinyLFU, CacheEvictionPolicy.lookupName("tinylfu"));
+    assertEquals(CacheEvictionPolicy.LRU, CacheEvictionPolicy.lookupName(null));
+    assertEquals(CacheEvictionPolicy.LRU, CacheEvictionPolicy.lookupName("unknown"));
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.PreparedStatement;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JdbcBatchBulkWriterTest {
+  private Database database;
+  private PreparedStatement statement;
+  private IRowMeta rowMeta;
+
+  @Before
+  public void setUp() throws Exception {
+    database = mock(Database.class);
+    statement = mock(PreparedStatement.class);
+    doReturn("INSERT").when(database).getInsertStatement(anyString(), anyString(), any());
+    doReturn(statement).when(database).prepareSql("INSERT");
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+  }
+
+  @Test
+  public void testBatches() throws Exception {
+    doReturn(true).when(database).getUseBatchInsert(true);
+    JdbcBatchBulkWriter writer = new JdbcBatchBulkWriter(database, "schema", "table", rowMeta, 10);
+    for (long i = 0; i < 25; i++) {
+      writer.writeRow(new Object[] {i});
+    }
+    verify(statement, times(2)).executeBatch();
+    assertEquals(25L, writer.flush());
+    verify(statement, times(3)).executeBatch();
+    verify(database, times(25)).insertRow(statement, true, false);
+
+    // Nothing left to execute
+    assertEquals(0L, writer.flush());
+    verify(statement, times(3)).executeBatch();
+
+    writer.close();
+    verify(database).closePreparedStatement(statement);
+  }
+
+  @Test
+  public void testNoBatchSupport() throws Exception {
+    doReturn(false).when(database).getUseBatchInsert(true);
+    JdbcBatchBulkWriter writer = new JdbcBatchBulkWriter(database, "schema", "table", rowMeta, 10);
+    for (long i = 0; i < 15; i++) {
+      writer.writeRow(new Object[] {i});
+    }
+    assertEquals(15L, writer.flush());
+    verify(database, times(15)).insertRow(statement, false, false);
+    verify(statement, never()).executeBatch();
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.hash;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.Test;
+
+public class OffHeapByteArrayHashIndexTest {
+
+  private static byte[] bytes(String string) {
+    return string.getBytes();
+  }
+
+  @Test
+  public void testPutAndGet() {
+    OffHeapByteArrayHashIndex index = new OffHeapByteArrayHashIndex();
+    assertTrue(index.isEmpty());
+    index.put(bytes("a"), bytes("value a"));
+    index.put(bytes("b"), bytes("value b"));
+    index.put(new byte[0], bytes("empty"));
+
+    assertEquals(3, index.getSize());
+    assertArrayEquals(bytes("value a"), index.get(bytes("a")));
+    assertArrayEquals(bytes("value b"), index.get(bytes("b")));
+    assertArrayEquals(bytes("empty"), index.get(new byte[0]));
+    assertNull(index.get(bytes("c")));
+  }
+
+  @Test
+  public void testReplaceValue() {
+    OffHeapByteArrayHashIndex index = new OffHeapByteArrayHashIndex();
+    index.put(bytes("key"), bytes("one"));
+    index.put(bytes("key"), bytes("two"));
+    assertArrayEquals(bytes("two"), index.get(bytes("key")));
+
+    // A value with a different length is appended to the arena
+    //
+    index.put(bytes("key"), bytes("three"));
+    assertArrayEquals(bytes("three"), index.get(bytes("key")));
+    assertEquals(1, index.getSize());
+  }
+
+  @Test
+  public void testManyEntriesOverSmallChunks() {
+    OffHeapByteArrayHashIndex index = new OffHeapByteArrayHashIndex(16, 1024);
+    for (int i = 0; i < 50000; i++) {
+      index.put(bytes("key-" + i), bytes("value-" + (i * 7)));
+    }
+    assertEquals(50000, index.getSize());
+    for (int i = 0; i < 50000; i++) {
+      assertArrayEquals(bytes("value-" + (i * 7)), index.get(bytes("key-" + i)));
+    }
+    assertNull(index.get(bytes("key-50000")));
+    assertTrue(index.getOffHeapBytes() > 50000L * 16);
+  }
+
+  @Test
+  public void testEntryLargerThanChunk() {
+    OffHeapByteArrayHashIndex index = new OffHeapByteArrayHashIndex(16, 1024);
+    byte[] value = new byte[5000];
+    value[4999] = 1;
+    index.put(bytes("small"), bytes("value"));
+    index.put(bytes("large"), value);
+    assertArrayEquals(value, index.get(bytes("large")));
+    assertArrayEquals(bytes("value"), index.get(bytes("small")));
+  }
+
+  @Test
+  public void testSerializedRowKeys() throws Exception {
+    IRowMeta keyMeta = new RowMeta();
+    keyMeta.addValueMeta(new ValueMetaInteger("id"));
+    keyMeta.addValueMeta(new ValueMetaString("code"));
+    IRowMeta valueMeta = new RowMeta();
+    valueMeta.addValueMeta(new ValueMetaString("name"));
+
+    OffHeapByteArrayHashIndex index = new OffHeapByteArrayHashIndex();
+    for (long i = 0; i < 1000; i++) {
+      index.put(
+          RowMeta.extractData(keyMeta, new Object[] {i, i % 2 == 0 ? "even" : null}),
+          RowMeta.extractData(valueMeta, new Object[] {"name " + i}));
+    }
+
+    byte[] value = index.get(RowMeta.extractData(keyMeta, new Object[] {7L, null}));
+    assertArrayEquals(new Object[] {"name 7"}, RowMeta.getRow(valueMeta, value));
+    assertNull(index.get(RowMeta.extractData(keyMeta, new Object[] {7L, "even"})));
+  }
+}
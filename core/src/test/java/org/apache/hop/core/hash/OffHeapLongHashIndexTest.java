@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class OffHeapLongHashIndexTest {
+
+  @Test
+  public void testPutAndGet() {
+    OffHeapLongHashIndex index = new OffHeapLongHashIndex();
+    assertTrue(index.isEmpty());
+    index.put(1L, 10L);
+    index.put(2L, 20L);
+    index.put(-3L, -30L);
+    assertEquals(3, index.getSize());
+    assertEquals(Long.valueOf(10L), index.get(1L));
+    assertEquals(Long.valueOf(20L), index.get(2L));
+    assertEquals(Long.valueOf(-30L), index.get(-3L));
+    assertNull(index.get(4L));
+  }
+
+  @Test
+  public void testZeroKey() {
+    OffHeapLongHashIndex index = new OffHeapLongHashIndex();
+    assertNull(index.get(0L));
+    index.put(0L, 0L);
+    assertEquals(Long.valueOf(0L), index.get(0L));
+    index.put(0L, 5L);
+    assertEquals(Long.valueOf(5L), index.get(0L));
+    assertEquals(1, index.getSize());
+  }
+
+  @Test
+  public void testReplaceValue() {
+    OffHeapLongHashIndex index = new OffHeapLongHashIndex();
+    index.put(42L, 1L);
+    index.put(42L, 2L);
+    assertEquals(1, index.getSize());
+    assertEquals(Long.valueOf(2L), index.get(42L));
+  }
+
+  @Test
+  public void testResize() {
+    OffHeapLongHashIndex index = new OffHeapLongHashIndex(16);
+    long initialBytes = index.getOffHeapBytes();
+    Map<Long, Long> expected = new HashMap<>();
+    Random random = new Random(123L);
+    for (int i = 0; i < 100000; i++) {
+      long key = random.nextLong();
+      long value = random.nextLong();
+      index.put(key, value);
+      expected.put(key, value);
+    }
+    assertEquals(expected.size(), index.getSize());
+    for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+      assertEquals(entry.getValue(), index.get(entry.getKey()));
+    }
+    assertTrue(index.getOffHeapBytes() > initialBytes);
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.row;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.Test;
+
+public class RowBatchTest {
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaInteger("value"));
+    return rowMeta;
+  }
+
+  @Test
+  public void testAddAndGet() {
+    IRowMeta rowMeta = createRowMeta();
+    RowBatch batch = new RowBatch(rowMeta, 2);
+
+    assertTrue(batch.isEmpty());
+    assertSame(rowMeta, batch.getRowMeta());
+    assertEquals(2, batch.getCapacity());
+
+    batch.addRow(new Object[] {1L, 10L});
+    batch.addRow(new Object[] {2L, 20L});
+
+    assertTrue(batch.isFull());
+    assertEquals(2, batch.size());
+    assertEquals(20L, batch.getValue(1, 1));
+
+    batch.setValue(0, 1, 11L);
+    assertArrayEquals(new Object[] {1L, 11L}, batch.getRow(0));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAddToFullBatch() {
+    RowBatch batch = new RowBatch(createRowMeta(), 1);
+    batch.addRow(new Object[] {1L, 10L});
+    batch.addRow(new Object[] {2L, 20L});
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOutOfBounds() {
+    RowBatch batch = new RowBatch(createRowMeta(), 10);
+    batch.addRow(new Object[] {1L, 10L});
+    batch.getRow(1);
+  }
+
+  @Test
+  public void testRetainRows() {
+    RowBatch batch = new RowBatch(createRowMeta(), 4);
+    for (long i = 0; i < 4; i++) {
+      batch.addRow(new Object[] {i, i * 10});
+    }
+
+    batch.retainRows(new boolean[] {false, true, false, true});
+
+    assertEquals(2, batch.size());
+    assertFalse(batch.isFull());
+    assertArrayEquals(new Object[] {1L, 10L}, batch.getRow(0));
+    assertArrayEquals(new Object[] {3L, 30L}, batch.getRow(1));
+
+    batch.clear();
+    assertTrue(batch.isEmpty());
+  }
+}
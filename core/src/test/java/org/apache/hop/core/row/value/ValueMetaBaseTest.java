@@ -809,6 +809,31 @@ public class ValueMetaBaseTest {
     assertEquals("2", valueMetaInteger.getCompatibleString(2L)); // BACKLOG-15750
   }
 
+  @Test
+  public void testIsRawBinaryString() throws Exception {
+    ValueMetaString storageMeta = new ValueMetaString("name");
+    ValueMetaString valueMeta = new ValueMetaString("name");
+    valueMeta.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    valueMeta.setStorageMetadata(storageMeta);
+    assertTrue(valueMeta.isRawBinaryString());
+
+    assertFalse(valueMeta.isNull(" ".getBytes()));
+    assertTrue(valueMeta.isNull(new byte[0]));
+    assertEquals(0L, valueMeta.getNumberOfBinaryStringConversions());
+
+    valueMeta.setTrimType(IValueMeta.TRIM_TYPE_BOTH);
+    assertFalse(valueMeta.isRawBinaryString());
+    valueMeta.setTrimType(IValueMeta.TRIM_TYPE_NONE);
+
+    storageMeta.setTrimType(IValueMeta.TRIM_TYPE_LEFT);
+    assertFalse(valueMeta.isRawBinaryString());
+
+    ValueMetaInteger integerMeta = new ValueMetaInteger("id");
+    integerMeta.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    integerMeta.setStorageMetadata(new ValueMetaString("id"));
+    assertFalse(integerMeta.isRawBinaryString());
+  }
+
   @Test
   public void testReadDataInet() throws Exception {
     InetAddress localhost = InetAddress.getByName("127.0.0.1");
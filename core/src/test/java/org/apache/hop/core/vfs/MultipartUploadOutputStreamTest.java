@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.vfs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class MultipartUploadOutputStreamTest {
+
+  /** An in-memory stand-in for an object store */
+  private static class InMemoryUploader implements IMultipartUploader {
+    private final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final int failingPart;
+    private byte[] object;
+    private boolean started;
+    private boolean aborted;
+    private boolean failOnComplete;
+
+    InMemoryUploader(int failingPart) {
+      this.failingPart = failingPart;
+    }
+
+    @Override
+    public void putObject(byte[] data, int length) {
+      object = Arrays.copyOf(data, length);
+    }
+
+    @Override
+    public void start() {
+      started = true;
+    }
+
+    @Override
+    public String uploadPart(int partNumber, byte[] data, int length) throws IOException {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(5);
+        if (partNumber == failingPart) {
+          throw new IOException("Part " + partNumber + " failed");
+        }
+        parts.put(partNumber, Arrays.copyOf(data, length));
+        return "etag-" + partNumber;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    }
+
+    @Override
+    public void complete(List<String> partTags) throws IOException {
+      if (failOnComplete) {
+        // Like the unchecked exceptions of the object store clients
+        throw new IllegalStateException("Completing the upload failed");
+      }
+      ByteArrayOutputStream content = new ByteArrayOutputStream();
+      for (int i = 0; i < partTags.size(); i++) {
+        assertEquals("etag-" + (i + 1), partTags.get(i));
+        content.write(parts.get(i + 1));
+      }
+      object = content.toByteArray();
+    }
+
+    @Override
+    public void abort() {
+      aborted = true;
+    }
+  }
+
+  private static byte[] randomData(int size) {
+    byte[] data = new byte[size];
+    new Random(size).nextBytes(data);
+    return data;
+  }
+
+  @Test
+  public void testSmallObjectIsUploadedInOneRequest() throws Exception {
+    InMemoryUploader uploader = new InMemoryUploader(-1);
+    byte[] data = randomData(100);
+    try (MultipartUploadOutputStream out =
+        new MultipartUploadOutputStream(uploader, 1024, 4, 4096)) {
+      out.write(data);
+    }
+    assertFalse(uploader.started);
+    assertArrayEquals(data, uploader.object);
+  }
+
+  @Test
+  public void testPartsAreUploadedInParallel() throws Exception {
+    InMemoryUploader uploader = new InMemoryUploader(-1);
+    byte[] data = randomData(100 * 1024 + 17);
+    MultipartUploadOutputStream out = new MultipartUploadOutputStream(uploader, 1024, 4, 8 * 1024);
+    for (int i = 0; i < data.length; i += 333) {
+      out.write(data, i, Math.min(333, data.length - i));
+    }
+    out.write(42);
+    out.close();
+
+    byte[] expected = Arrays.copyOf(data, data.length + 1);
+    expected[data.length] = 42;
+    assertTrue(uploader.started);
+    assertEquals(101, out.getNrParts());
+    assertArrayEquals(expected, uploader.object);
+    assertTrue(uploader.maxInFlight.get() > 1);
+    assertTrue(uploader.maxInFlight.get() <= 4);
+  }
+
+  @Test
+  public void testMemoryBudgetLimitsPartsInFlight() throws Exception {
+    InMemoryUploader uploader = new InMemoryUploader(-1);
+    byte[] data = randomData(20 * 1024);
+    // Room for two buffers: the writer waits for an upload to finish before filling a third
+    try (MultipartUploadOutputStream out =
+        new MultipartUploadOutputStream(uploader, 1024, 8, 2048)) {
+      out.write(data);
+    }
+    assertArrayEquals(data, uploader.object);
+    assertTrue(uploader.maxInFlight.get() <= 2);
+  }
+
+  @Test
+  public void testFailedPartAbortsTheUpload() {
+    InMemoryUploader uploader = new InMemoryUploader(3);
+    byte[] data = randomData(10 * 1024);
+    try (MultipartUploadOutputStream out =
+        new MultipartUploadOutputStream(uploader, 1024, 2, 4096)) {
+      out.write(data);
+      fail("Expected the upload to fail");
+    } catch (IOException e) {
+      // Expected, while writing or closing
+    }
+    assertTrue(uploader.aborted);
+    assertEquals(null, uploader.object);
+  }
+
+  @Test
+  public void testUncheckedErrorAbortsTheUpload() throws Exception {
+    InMemoryUploader uploader = new InMemoryUploader(-1);
+    uploader.failOnComplete = true;
+    MultipartUploadOutputStream out = new MultipartUploadOutputStream(uploader, 1024, 2, 4096);
+    out.write(randomData(3 * 1024));
+
+    assertThrows(IllegalStateException.class, out::close);
+    assertTrue(uploader.aborted);
+    assertEquals(null, uploader.object);
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.vfs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class RangedReadAheadInputStreamTest {
+
+  /** An in-memory stand-in for an object store serving range requests */
+  private static class InMemoryRangeReader implements IRangeReader {
+    private final byte[] object;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    InMemoryRangeReader(byte[] object) {
+      this.object = object;
+    }
+
+    @Override
+    public byte[] read(long position, int length) {
+      requests.incrementAndGet();
+      return Arrays.copyOfRange(object, (int) position, (int) position + length);
+    }
+  }
+
+  private static byte[] randomData(int size) {
+    byte[] data = new byte[size];
+    new Random(size).nextBytes(data);
+    return data;
+  }
+
+  private static byte[] readAll(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[700];
+    int n;
+    while ((n = in.read(buffer)) >= 0) {
+      out.write(buffer, 0, n);
+    }
+    return out.toByteArray();
+  }
+
+  @Test
+  public void testReadWholeObject() throws Exception {
+    byte[] data = randomData(50 * 1024 + 3);
+    InMemoryRangeReader reader = new InMemoryRangeReader(data);
+    try (InputStream in = new RangedReadAheadInputStream(reader, data.length, 1024, 4)) {
+      assertArrayEquals(data, readAll(in));
+      assertEquals(-1, in.read());
+    }
+    assertEquals(51, reader.requests.get());
+  }
+
+  @Test
+  public void testReadSingleBytes() throws Exception {
+    byte[] data = randomData(3000);
+    try (InputStream in =
+        new RangedReadAheadInputStream(new InMemoryRangeReader(data), data.length, 256, 2)) {
+      for (byte b : data) {
+        assertEquals(b & 0xff, in.read());
+      }
+      assertEquals(-1, in.read());
+    }
+  }
+
+  @Test
+  public void testSkip() throws Exception {
+    byte[] data = randomData(20 * 1024);
+    InMemoryRangeReader reader = new InMemoryRangeReader(data);
+    try (InputStream in = new RangedReadAheadInputStream(reader, data.length, 1024, 2)) {
+      assertEquals(data[0] & 0xff, in.read());
+
+      // Within the current chunk
+      assertEquals(99, in.skip(99));
+      assertEquals(data[100] & 0xff, in.read());
+
+      // Far beyond the chunks fetched ahead
+      assertEquals(10000, in.skip(10000));
+      byte[] rest = readAll(in);
+      assertArrayEquals(Arrays.copyOfRange(data, 10101, data.length), rest);
+
+      assertEquals(0, in.skip(10));
+    }
+    assertTrue(reader.requests.get() < 20);
+  }
+
+  @Test
+  public void testEmptyObject() throws Exception {
+    try (InputStream in =
+        new RangedReadAheadInputStream(new InMemoryRangeReader(new byte[0]), 0, 1024, 2)) {
+      assertEquals(-1, in.read());
+    }
+  }
+}
@@ -40,4 +40,10 @@ public interface IBeamPipelineEngineRunConfiguration extends IPipelineEngineRunC
   String getStreamingHopTransformsBufferSize();
 
   String getFatJar();
+
+  /**
+   * @return true if the rows of a PCollection are encoded against the row layout of the transform
+   *     which produces them instead of with a type tag per value
+   */
+  boolean isUsingSchemaRowCoder();
 }
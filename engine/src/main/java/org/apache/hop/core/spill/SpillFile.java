@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.spill;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.compress.CompressionProviderFactory;
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.compress.NoneCompressionProvider;
+import org.apache.hop.core.compress.zip.ZipCompressionProvider;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.vfs.HopVfs;
+
+/**
+ * The compact binary format for the temporary files which transforms use to spill rows to disk.
+ *
+ * <p>A spill file starts with a small header: a magic number, the format version, flags and the
+ * name of the compression provider. After that come blocks of rows. Every block has the length
+ * before and after compression, followed by the (compressed) data. Inside a block every row is
+ * prefixed with its length. Strings with a normal storage type can be dictionary encoded: repeated
+ * values are only written once per file.
+ *
+ * <p>Any compression provider plugin which compresses a stream can be used as a codec, for example
+ * "None", "GZip" or the much faster "Snappy".
+ */
+public class SpillFile {
+  /** "HSPF" */
+  static final int MAGIC = 0x48535046;
+
+  static final byte VERSION = 1;
+
+  static final byte FLAG_DICTIONARY = 0x01;
+
+  /** The number of uncompressed bytes after which a block is compressed and written */
+  public static final int DEFAULT_BLOCK_SIZE = 256 * 1024;
+
+  /** The size of the direct buffer to read from and write to the file channel */
+  public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+  /** The maximum number of different strings in the dictionary of a file */
+  static final int MAX_DICTIONARY_SIZE = 65536;
+
+  /** Longer strings are never put in the dictionary */
+  static final int MAX_DICTIONARY_STRING_LENGTH = 256;
+
+  /* Markers for dictionary encoded strings */
+  static final byte STRING_NULL = 0;
+  static final byte STRING_REFERENCE = 1;
+  static final byte STRING_NEW_ENTRY = 2;
+  static final byte STRING_LITERAL = 3;
+
+  private SpillFile() {
+    // Utility class
+  }
+
+  /**
+   * Get the name of the spill file codec configured with variable HOP_SPILL_FILE_CODEC.
+   *
+   * @param variables The variables to resolve with
+   * @return The codec name or null if the classic temporary file format should be used
+   */
+  public static String getCodecName(IVariables variables) {
+    String codecName = variables.getVariable(Const.HOP_SPILL_FILE_CODEC);
+    return Utils.isEmpty(codecName) ? null : codecName.trim();
+  }
+
+  /**
+   * @param variables The variables to resolve with
+   * @return true unless dictionary encoding is disabled with variable HOP_SPILL_FILE_DICTIONARY
+   */
+  public static boolean isDictionaryEncoding(IVariables variables) {
+    return !"N".equalsIgnoreCase(variables.getVariable(Const.HOP_SPILL_FILE_DICTIONARY, "Y"));
+  }
+
+  /**
+   * Look up the compression provider to use as codec.
+   *
+   * @param codecName The name of the compression provider
+   * @return The compression provider or null if no compression is needed
+   * @throws HopException If the provider doesn't exist or doesn't compress streams
+   */
+  static ICompressionProvider getCodec(String codecName) throws HopException {
+    if (Utils.isEmpty(codecName)) {
+      return null;
+    }
+    ICompressionProvider provider =
+        CompressionProviderFactory.getInstance().createCompressionProviderInstance(codecName);
+    if (provider == null) {
+      throw new HopException("Unknown spill file codec '" + codecName + "'");
+    }
+    if (provider instanceof NoneCompressionProvider) {
+      return null;
+    }
+    if (provider instanceof ZipCompressionProvider
+        || !provider.supportsInput()
+        || !provider.supportsOutput()) {
+      throw new HopException(
+          "Compression provider '" + codecName + "' can't be used to compress spill files");
+    }
+    return provider;
+  }
+
+  /**
+   * Create a new temporary spill file in a local folder.
+   *
+   * @param directory The folder, it needs to be on the local file system
+   * @param prefix The prefix of the filename
+   * @return The path of the new empty file
+   * @throws HopException In case the folder is not local or the file couldn't be created
+   */
+  public static Path createTempFile(String directory, String prefix) throws HopException {
+    try {
+      FileObject folder = HopVfs.getFileObject(directory);
+      if (!"file".equals(folder.getName().getScheme())) {
+        throw new HopException(
+            "Spill files can only be written to a local folder, not to '" + directory + "'");
+      }
+      return Files.createTempFile(folder.getPath(), prefix, ".tmp");
+    } catch (IOException e) {
+      throw new HopException("Unable to create a spill file in folder '" + directory + "'", e);
+    }
+  }
+
+  /**
+   * Remove a spill file, ignoring files which don't exist.
+   *
+   * @param path The file to remove
+   * @throws HopException In case the file couldn't be deleted
+   */
+  public static void delete(Path path) throws HopException {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      throw new HopException("Unable to delete spill file " + path, e);
+    }
+  }
+
+  static void writeVarInt(DataOutput output, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      output.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    output.writeByte(value);
+  }
+
+  static int readVarInt(DataInput input) throws IOException {
+    int value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = input.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+
+  /** A byte array output stream which gives access to its buffer to avoid copies */
+  static class Buffer extends ByteArrayOutputStream {
+    Buffer(int size) {
+      super(size);
+    }
+
+    byte[] getBuffer() {
+      return buf;
+    }
+  }
+
+  /** A byte array input stream which can be pointed to new data */
+  static class InputBuffer extends ByteArrayInputStream {
+    InputBuffer() {
+      super(new byte[0]);
+    }
+
+    void reset(byte[] data, int length) {
+      this.buf = data;
+      this.pos = 0;
+      this.count = length;
+      this.mark = 0;
+    }
+
+    int position() {
+      return pos;
+    }
+  }
+}
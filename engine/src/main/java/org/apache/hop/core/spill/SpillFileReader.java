@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.spill;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * Reads the rows of a spill file written by {@link SpillFileWriter}, in the same order.
+ *
+ * <p>This class is not thread-safe.
+ */
+public class SpillFileReader implements Closeable {
+  private final Path path;
+  private final IRowMeta rowMeta;
+  private final FileChannel channel;
+  private final ByteBuffer directBuffer;
+  private final byte[] header = new byte[8];
+
+  private ICompressionProvider codec;
+  private boolean dictionaryEncoding;
+  private final List<String> dictionary = new ArrayList<>();
+
+  private byte[] compressed = new byte[0];
+  private byte[] block = new byte[0];
+  private final SpillFile.InputBuffer blockInput = new SpillFile.InputBuffer();
+  private final DataInputStream blockData = new DataInputStream(blockInput);
+
+  /**
+   * Open a spill file for reading.
+   *
+   * @param path The file to read
+   * @param rowMeta The metadata of the rows in the file
+   * @throws HopException In case the file can't be opened or isn't a spill file
+   */
+  public SpillFileReader(Path path, IRowMeta rowMeta) throws HopException {
+    this(path, rowMeta, SpillFile.DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Open a spill file for reading.
+   *
+   * @param path The file to read
+   * @param rowMeta The metadata of the rows in the file
+   * @param bufferSize The size of the direct buffer to read the file with
+   * @throws HopException In case the file can't be opened or isn't a spill file
+   */
+  public SpillFileReader(Path path, IRowMeta rowMeta, int bufferSize) throws HopException {
+    this.path = path;
+    this.rowMeta = rowMeta;
+    this.directBuffer = ByteBuffer.allocateDirect(Math.max(4096, bufferSize));
+    this.directBuffer.flip();
+    try {
+      this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    } catch (IOException e) {
+      throw new HopFileException("Unable to open spill file " + path, e);
+    }
+    try {
+      readHeader();
+    } catch (IOException | HopException e) {
+      closeQuietly();
+      throw new HopFileException("Unable to read the header of spill file " + path, e);
+    }
+  }
+
+  private void readHeader() throws IOException, HopException {
+    if (!readFully(header, 8)) {
+      throw new HopFileException("The file is empty");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(header);
+    if (buffer.getInt() != SpillFile.MAGIC) {
+      throw new HopFileException("This is not a spill file");
+    }
+    byte version = buffer.get();
+    if (version != SpillFile.VERSION) {
+      throw new HopFileException("Unsupported spill file version " + version);
+    }
+    dictionaryEncoding = (buffer.get() & SpillFile.FLAG_DICTIONARY) != 0;
+    byte[] name = new byte[buffer.getShort()];
+    if (!readFully(name, name.length)) {
+      throw new HopFileException("Unexpected end of file");
+    }
+    codec = SpillFile.getCodec(new String(name, StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Read the next row.
+   *
+   * @return The next row or null if all rows were read
+   * @throws HopFileException In case of an I/O error or a corrupt file
+   */
+  public Object[] readRow() throws HopFileException {
+    try {
+      if (blockInput.available() == 0 && !readBlock()) {
+        return null;
+      }
+      int length = SpillFile.readVarInt(blockData);
+      int start = blockInput.position();
+
+      Object[] row = new Object[rowMeta.size()];
+      for (int i = 0; i < rowMeta.size(); i++) {
+        IValueMeta valueMeta = rowMeta.getValueMeta(i);
+        if (dictionaryEncoding
+            && valueMeta.getType() == IValueMeta.TYPE_STRING
+            && valueMeta.getStorageType() == IValueMeta.STORAGE_TYPE_NORMAL) {
+          row[i] = readString();
+        } else {
+          row[i] = valueMeta.readData(blockData);
+        }
+      }
+
+      if (blockInput.position() - start != length) {
+        throw new HopFileException(
+            "Corrupt row in spill file " + path + ": the row metadata doesn't match");
+      }
+      return row;
+    } catch (IOException e) {
+      throw new HopFileException("Unable to read from spill file " + path, e);
+    }
+  }
+
+  private String readString() throws IOException {
+    byte marker = blockData.readByte();
+    switch (marker) {
+      case SpillFile.STRING_NULL:
+        return null;
+      case SpillFile.STRING_REFERENCE:
+        return dictionary.get(SpillFile.readVarInt(blockData));
+      case SpillFile.STRING_NEW_ENTRY:
+        String entry = readUtf8();
+        dictionary.add(entry);
+        return entry;
+      case SpillFile.STRING_LITERAL:
+        return readUtf8();
+      default:
+        throw new IOException("Unknown string marker " + marker);
+    }
+  }
+
+  private String readUtf8() throws IOException {
+    int length = SpillFile.readVarInt(blockData);
+    byte[] bytes = new byte[length];
+    blockData.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Read and decompress the next block. */
+  private boolean readBlock() throws IOException {
+    if (!readFully(header, 8)) {
+      return false;
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(header);
+    int uncompressedLength = buffer.getInt();
+    int storedLength = buffer.getInt();
+
+    if (block.length < uncompressedLength) {
+      block = new byte[uncompressedLength];
+    }
+    if (codec == null) {
+      if (!readFully(block, storedLength)) {
+        throw new IOException("Unexpected end of spill file " + path);
+      }
+    } else {
+      if (compressed.length < storedLength) {
+        compressed = new byte[storedLength];
+      }
+      if (!readFully(compressed, storedLength)) {
+        throw new IOException("Unexpected end of spill file " + path);
+      }
+      try (InputStream inputStream =
+          codec.createInputStream(new ByteArrayInputStream(compressed, 0, storedLength))) {
+        int read = inputStream.readNBytes(block, 0, uncompressedLength);
+        if (read != uncompressedLength) {
+          throw new IOException("Corrupt block in spill file " + path);
+        }
+      }
+    }
+    blockInput.reset(block, uncompressedLength);
+    return uncompressedLength > 0 || readBlock();
+  }
+
+  /**
+   * Fill the given array from the file channel.
+   *
+   * @return false if the end of the file was reached before any byte was read
+   */
+  private boolean readFully(byte[] target, int length) throws IOException {
+    int offset = 0;
+    while (offset < length) {
+      if (!directBuffer.hasRemaining()) {
+        directBuffer.clear();
+        int read = channel.read(directBuffer);
+        directBuffer.flip();
+        if (read < 0) {
+          if (offset == 0) {
+            return false;
+          }
+          throw new IOException("Unexpected end of spill file " + path);
+        }
+      }
+      int size = Math.min(directBuffer.remaining(), length - offset);
+      directBuffer.get(target, offset, size);
+      offset += size;
+    }
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private void closeQuietly() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // Ignore
+    }
+  }
+
+  /**
+   * @return The path of the spill file
+   */
+  public Path getPath() {
+    return path;
+  }
+}
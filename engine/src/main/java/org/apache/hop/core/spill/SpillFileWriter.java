@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.spill;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopFileException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * Writes rows to a spill file. See {@link SpillFile} for the format. The rows are collected in
+ * blocks which are compressed and handed to a file channel through a direct buffer.
+ *
+ * <p>This class is not thread-safe.
+ */
+public class SpillFileWriter implements Closeable {
+  private final Path path;
+  private final IRowMeta rowMeta;
+  private final ICompressionProvider codec;
+  private final boolean dictionaryEncoding;
+  private final int blockSize;
+
+  private final FileChannel channel;
+  private final ByteBuffer directBuffer;
+
+  private final SpillFile.Buffer block;
+  private final DataOutputStream blockOutput;
+  private final SpillFile.Buffer rowBuffer;
+  private final DataOutputStream rowOutput;
+  private final SpillFile.Buffer compressed;
+
+  private final Map<String, Integer> dictionary;
+
+  private long rowCount;
+  private long bytesWritten;
+  private long uncompressedBytes;
+  private boolean closed;
+
+  /**
+   * Create a new spill file or overwrite an existing one.
+   *
+   * @param path The file to write to
+   * @param rowMeta The metadata of the rows to write
+   * @param codecName The name of the compression provider to use, null or "None" for no compression
+   * @param dictionaryEncoding Dictionary encode strings with a normal storage type
+   * @throws HopException In case the file can't be created
+   */
+  public SpillFileWriter(Path path, IRowMeta rowMeta, String codecName, boolean dictionaryEncoding)
+      throws HopException {
+    this(
+        path,
+        rowMeta,
+        codecName,
+        dictionaryEncoding,
+        SpillFile.DEFAULT_BLOCK_SIZE,
+        SpillFile.DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Create a new spill file or overwrite an existing one.
+   *
+   * @param path The file to write to
+   * @param rowMeta The metadata of the rows to write
+   * @param codecName The name of the compression provider to use, null or "None" for no compression
+   * @param dictionaryEncoding Dictionary encode strings with a normal storage type
+   * @param blockSize The number of uncompressed bytes in a block
+   * @param bufferSize The size of the direct buffer to write to the file with
+   * @throws HopException In case the file can't be created
+   */
+  public SpillFileWriter(
+      Path path,
+      IRowMeta rowMeta,
+      String codecName,
+      boolean dictionaryEncoding,
+      int blockSize,
+      int bufferSize)
+      throws HopException {
+    this.path = path;
+    this.rowMeta = rowMeta;
+    this.codec = SpillFile.getCodec(codecName);
+    this.dictionaryEncoding = dictionaryEncoding;
+    this.blockSize = Math.max(1024, blockSize);
+
+    this.block = new SpillFile.Buffer(this.blockSize + 1024);
+    this.blockOutput = new DataOutputStream(block);
+    this.rowBuffer = new SpillFile.Buffer(1024);
+    this.rowOutput = new DataOutputStream(rowBuffer);
+    this.compressed = new SpillFile.Buffer(codec == null ? 0 : this.blockSize + 1024);
+    this.dictionary = dictionaryEncoding ? new HashMap<>() : null;
+
+    this.directBuffer = ByteBuffer.allocateDirect(Math.max(4096, bufferSize));
+    try {
+      this.channel =
+          FileChannel.open(
+              path,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING);
+    } catch (IOException e) {
+      throw new HopFileException("Unable to create spill file " + path, e);
+    }
+
+    try {
+      writeHeader(codec == null ? "None" : codecName);
+    } catch (IOException e) {
+      closeQuietly();
+      throw new HopFileException("Unable to write to spill file " + path, e);
+    }
+  }
+
+  private void writeHeader(String codecName) throws IOException {
+    byte[] name = codecName.getBytes(StandardCharsets.UTF_8);
+    directBuffer.putInt(SpillFile.MAGIC);
+    directBuffer.put(SpillFile.VERSION);
+    directBuffer.put(dictionaryEncoding ? SpillFile.FLAG_DICTIONARY : 0);
+    directBuffer.putShort((short) name.length);
+    directBuffer.put(name);
+  }
+
+  /**
+   * Write a row to the spill file.
+   *
+   * @param row The row to write
+   * @throws HopFileException In case of an I/O error
+   */
+  public void writeRow(Object[] row) throws HopFileException {
+    try {
+      rowBuffer.reset();
+      for (int i = 0; i < rowMeta.size(); i++) {
+        IValueMeta valueMeta = rowMeta.getValueMeta(i);
+        if (dictionaryEncoding
+            && valueMeta.getType() == IValueMeta.TYPE_STRING
+            && valueMeta.getStorageType() == IValueMeta.STORAGE_TYPE_NORMAL) {
+          writeString((String) row[i]);
+        } else {
+          valueMeta.writeData(rowOutput, row[i]);
+        }
+      }
+
+      SpillFile.writeVarInt(blockOutput, rowBuffer.size());
+      blockOutput.write(rowBuffer.getBuffer(), 0, rowBuffer.size());
+      rowCount++;
+
+      if (block.size() >= blockSize) {
+        flushBlock();
+      }
+    } catch (IOException e) {
+      throw new HopFileException("Unable to write to spill file " + path, e);
+    }
+  }
+
+  private void writeString(String string) throws IOException {
+    if (string == null) {
+      rowOutput.writeByte(SpillFile.STRING_NULL);
+      return;
+    }
+    Integer index = dictionary.get(string);
+    if (index != null) {
+      rowOutput.writeByte(SpillFile.STRING_REFERENCE);
+      SpillFile.writeVarInt(rowOutput, index);
+      return;
+    }
+    if (dictionary.size() < SpillFile.MAX_DICTIONARY_SIZE
+        && string.length() <= SpillFile.MAX_DICTIONARY_STRING_LENGTH) {
+      dictionary.put(string, dictionary.size());
+      rowOutput.writeByte(SpillFile.STRING_NEW_ENTRY);
+    } else {
+      rowOutput.writeByte(SpillFile.STRING_LITERAL);
+    }
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    SpillFile.writeVarInt(rowOutput, bytes.length);
+    rowOutput.write(bytes);
+  }
+
+  /** Compress the current block and hand it to the file channel */
+  private void flushBlock() throws IOException {
+    if (block.size() == 0) {
+      return;
+    }
+    byte[] data = block.getBuffer();
+    int length = block.size();
+    if (codec != null) {
+      compressed.reset();
+      try (OutputStream outputStream = codec.createOutputStream(compressed)) {
+        outputStream.write(block.getBuffer(), 0, block.size());
+      }
+      data = compressed.getBuffer();
+      length = compressed.size();
+    }
+
+    ensureRemaining(8);
+    directBuffer.putInt(block.size());
+    directBuffer.putInt(length);
+    write(data, length);
+
+    uncompressedBytes += block.size();
+    block.reset();
+  }
+
+  private void ensureRemaining(int size) throws IOException {
+    if (directBuffer.remaining() < size) {
+      drain();
+    }
+  }
+
+  private void write(byte[] data, int length) throws IOException {
+    int offset = 0;
+    while (offset < length) {
+      if (!directBuffer.hasRemaining()) {
+        drain();
+      }
+      int size = Math.min(directBuffer.remaining(), length - offset);
+      directBuffer.put(data, offset, size);
+      offset += size;
+    }
+  }
+
+  private void drain() throws IOException {
+    directBuffer.flip();
+    while (directBuffer.hasRemaining()) {
+      bytesWritten += channel.write(directBuffer);
+    }
+    directBuffer.clear();
+  }
+
+  /**
+   * Write the last block and close the file.
+   *
+   * @throws IOException In case of an I/O error
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      flushBlock();
+      drain();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void closeQuietly() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // Ignore
+    }
+  }
+
+  /**
+   * @return The path of the spill file
+   */
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * @return The number of rows written
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * @return The number of bytes written to disk so far
+   */
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  /**
+   * @return The number of bytes written before compression so far
+   */
+  public long getUncompressedBytes() {
+    return uncompressedBytes;
+  }
+}
@@ -119,6 +119,18 @@ public final class ExecutionStateBuilder {
         addMetric(componentMetrics, engineMetrics, component, Pipeline.METRIC_BUFFER_IN);
         addMetric(componentMetrics, engineMetrics, component, Pipeline.METRIC_BUFFER_OUT);
 
+        // Transform specific metrics like the statistics of a lookup cache
+        //
+        Map<IEngineMetric, Long> transformMetrics =
+            engineMetrics.getComponentMetricsMap().get(component);
+        if (transformMetrics != null) {
+          for (IEngineMetric metric : transformMetrics.keySet()) {
+            if (!componentMetrics.getMetrics().containsKey(metric.getHeader())) {
+              addMetric(componentMetrics, engineMetrics, component, metric);
+            }
+          }
+        }
+
         builder.addMetrics(componentMetrics);
       }
     }
@@ -45,7 +45,6 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
-import org.apache.hop.core.BlockingBatchingRowSet;
 import org.apache.hop.core.BlockingRowSet;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.HopVersionProvider;
@@ -56,6 +55,7 @@ import org.apache.hop.core.QueueRowSet;
 import org.apache.hop.core.Result;
 import org.apache.hop.core.ResultFile;
 import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.RowSetType;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
@@ -85,6 +85,7 @@ import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.util.EnvUtil;
 import org.apache.hop.core.util.ExecutorUtil;
 import org.apache.hop.core.util.Utils;
+import org.apache.hop.core.util.VirtualThreadUtil;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.variables.Variables;
 import org.apache.hop.core.vfs.HopVfs;
@@ -143,6 +144,7 @@ public abstract class Pipeline
   public static final String METRIC_NAME_BUFFER_OUT = "buffer_out";
   public static final String METRIC_NAME_FLUSH_BUFFER = "flush_buffer";
   public static final String METRIC_NAME_INIT = "init";
+  public static final String METRIC_NAME_CONVERSIONS_AVOIDED = "conversions_avoided";
 
   /** The package name, used for internationalization of messages. */
   private static final Class<?> PKG = Pipeline.class;
@@ -361,6 +363,18 @@ public abstract class Pipeline
 
   protected int rowSetSize;
 
+  /** The type of row set to allocate between transform copies. */
+  protected RowSetType rowSetType;
+
+  /** The number of rows transforms supporting it read and write at once. */
+  protected int rowBatchSize;
+
+  /** Run the transform copies on virtual threads if the Java runtime supports it. */
+  protected boolean usingVirtualThreads;
+
+  /** The number of transform copies that were started on a virtual thread. */
+  private int nrVirtualTransformThreads;
+
   /** Whether the feedback is shown. */
   protected boolean feedbackShown;
 
@@ -392,6 +406,7 @@ public abstract class Pipeline
     extensionDataMap = new HashMap<>();
 
     rowSetSize = Const.ROWS_IN_ROWSET;
+    rowSetType = RowSetType.Blocking;
 
     dataSamplers = Collections.synchronizedList(new ArrayList<>());
   }
@@ -698,19 +713,10 @@ public abstract class Pipeline
             IRowSet rowSet;
             switch (pipelineMeta.getPipelineType()) {
               case Normal:
-                // This is a temporary patch until the batching rowset has proven
-                // to be working in all situations.
-                // Currently there are stalling problems when dealing with small
-                // amounts of rows.
+                // Every row set connects exactly one source copy with one target copy.
+                // The run configuration decides which implementation is used.
                 //
-                Boolean batchingRowSet =
-                    ValueMetaBase.convertStringToBoolean(
-                        System.getProperty(Const.HOP_BATCHING_ROWSET));
-                if (batchingRowSet != null && batchingRowSet) {
-                  rowSet = new BlockingBatchingRowSet(rowSetSize);
-                } else {
-                  rowSet = new BlockingRowSet(rowSetSize);
-                }
+                rowSet = rowSetType.createRowSet(rowSetSize);
                 break;
 
               case SingleThreaded:
@@ -757,7 +763,7 @@ public abstract class Pipeline
           // distribution...
           for (int s = 0; s < thisCopies; s++) {
             for (int t = 0; t < nextCopies; t++) {
-              BlockingRowSet rowSet = new BlockingRowSet(rowSetSize);
+              IRowSet rowSet = rowSetType.createRowSet(rowSetSize);
               rowSet.setThreadNameFromToCopy(
                   thisTransform.getName(), s, nextTransform.getName(), t);
               rowsets.add(rowSet);
@@ -1255,30 +1261,9 @@ public abstract class Pipeline
 
     switch (pipelineMeta.getPipelineType()) {
       case Normal:
-
         // Now start all the threads...
         //
-        for (final TransformMetaDataCombi combi : transforms) {
-          RunThread runThread = new RunThread(combi);
-          Thread thread = new Thread(runThread);
-          thread.setName(getName() + " - " + combi.transformName);
-          ExtensionPointHandler.callExtensionPoint(
-              log, this, HopExtensionPoint.TransformBeforeStart.id, combi);
-          // Call an extension point at the end of the transform
-          //
-          combi.transform.addTransformFinishedListener(
-              (pipeline, transformMeta, transform) -> {
-                try {
-                  ExtensionPointHandler.callExtensionPoint(
-                      log, this, HopExtensionPoint.TransformFinished.id, combi);
-                } catch (HopException e) {
-                  throw new RuntimeException(
-                      "Unexpected error in calling extension point upon transform finish", e);
-                }
-              });
-
-          thread.start();
-        }
+        startTransformThreads();
         break;
 
       case SingleThreaded:
@@ -1309,6 +1294,72 @@ public abstract class Pipeline
     }
   }
 
+  /**
+   * Run the transforms of a normal pipeline. By default every transform copy runs in its own
+   * thread. Pipeline engines can override this method to run the transforms in another way, as long
+   * as {@link #beforeTransformStart(TransformMetaDataCombi)} is called for every transform copy
+   * before it runs and every transform eventually calls {@link ITransform#markStop()}.
+   *
+   * @throws HopException In case the transforms can't be started
+   */
+  protected void startTransformThreads() throws HopException {
+    if (usingVirtualThreads && !VirtualThreadUtil.isSupported()) {
+      log.logBasic(
+          BaseMessages.getString(
+              PKG, "Pipeline.Log.VirtualThreadsNotSupported", System.getProperty("java.version")));
+    }
+    nrVirtualTransformThreads = 0;
+
+    // Count the pinned virtual threads while this pipeline runs
+    //
+    if (usingVirtualThreads && VirtualThreadUtil.isSupported() && !transforms.isEmpty()) {
+      AtomicBoolean monitorStopped = new AtomicBoolean(false);
+      VirtualThreadUtil.startPinnedMonitor();
+      addExecutionFinishedListener(
+          pipeline -> {
+            if (monitorStopped.compareAndSet(false, true)) {
+              VirtualThreadUtil.stopPinnedMonitor();
+            }
+          });
+    }
+
+    for (final TransformMetaDataCombi combi : transforms) {
+      RunThread runThread = new RunThread(combi);
+      Thread thread =
+          VirtualThreadUtil.newThread(
+              runThread, getName() + " - " + combi.transformName, usingVirtualThreads);
+      if (usingVirtualThreads && VirtualThreadUtil.isSupported()) {
+        nrVirtualTransformThreads++;
+      }
+      beforeTransformStart(combi);
+      thread.start();
+    }
+  }
+
+  /**
+   * Call the extension point before a transform copy starts and register the one called when it
+   * finishes.
+   *
+   * @param combi The transform copy about to start
+   * @throws HopException In case an extension point fails
+   */
+  protected void beforeTransformStart(TransformMetaDataCombi combi) throws HopException {
+    ExtensionPointHandler.callExtensionPoint(
+        log, this, HopExtensionPoint.TransformBeforeStart.id, combi);
+    // Call an extension point at the end of the transform
+    //
+    combi.transform.addTransformFinishedListener(
+        (pipeline, transformMeta, transform) -> {
+          try {
+            ExtensionPointHandler.callExtensionPoint(
+                log, this, HopExtensionPoint.TransformFinished.id, combi);
+          } catch (HopException e) {
+            throw new RuntimeException(
+                "Unexpected error in calling extension point upon transform finish", e);
+          }
+        });
+  }
+
   /**
    * @deprecated Make attempt to fire all registered finished listeners if possible.
    * @throws HopException if any errors occur during notification
@@ -3295,6 +3346,13 @@ public abstract class Pipeline
           "The number of rows in the transforms output buffers",
           "090",
           true);
+  public static final IEngineMetric METRIC_CONVERSIONS_AVOIDED =
+      new EngineMetric(
+          METRIC_NAME_CONVERSIONS_AVOIDED,
+          "Conversions avoided",
+          "The number of lazy conversion values passed on, compared or written without converting them",
+          "094",
+          true);
 
   public static final IEngineMetric METRIC_INIT =
       new EngineMetric(
@@ -3364,6 +3422,17 @@ public abstract class Pipeline
             }
             metrics.setComponentMetric(combi.transform, METRIC_BUFFER_OUT, outputBufferSize);
 
+            long conversionsAvoided = combi.transform.getConversionsAvoided();
+            if (conversionsAvoided > 0) {
+              metrics.setComponentMetric(
+                  combi.transform, METRIC_CONVERSIONS_AVOIDED, conversionsAvoided);
+            }
+
+            for (Map.Entry<IEngineMetric, Long> entry :
+                combi.transform.getTransformMetrics().entrySet()) {
+              metrics.setComponentMetric(combi.transform, entry.getKey(), entry.getValue());
+            }
+
             TransformStatus transformStatus = new TransformStatus(combi.transform);
             metrics.setComponentSpeed(combi.transform, transformStatus.getSpeed());
             metrics.setComponentStatus(
@@ -3538,6 +3607,65 @@ public abstract class Pipeline
     this.rowSetSize = rowSetSize;
   }
 
+  /**
+   * Gets rowSetType
+   *
+   * @return value of rowSetType
+   */
+  public RowSetType getRowSetType() {
+    return rowSetType;
+  }
+
+  /**
+   * @param rowSetType The rowSetType to set
+   */
+  public void setRowSetType(RowSetType rowSetType) {
+    this.rowSetType = rowSetType == null ? RowSetType.Blocking : rowSetType;
+  }
+
+  /**
+   * Gets rowBatchSize
+   *
+   * @return value of rowBatchSize
+   */
+  @Override
+  public int getRowBatchSize() {
+    return rowBatchSize;
+  }
+
+  /**
+   * @param rowBatchSize The rowBatchSize to set
+   */
+  public void setRowBatchSize(int rowBatchSize) {
+    this.rowBatchSize = rowBatchSize;
+  }
+
+  /**
+   * Gets usingVirtualThreads
+   *
+   * @return true if the transform copies run on virtual threads when the Java runtime supports it
+   */
+  public boolean isUsingVirtualThreads() {
+    return usingVirtualThreads;
+  }
+
+  /**
+   * @param usingVirtualThreads true to run the transform copies on virtual threads when the Java
+   *     runtime supports it
+   */
+  public void setUsingVirtualThreads(boolean usingVirtualThreads) {
+    this.usingVirtualThreads = usingVirtualThreads;
+  }
+
+  /**
+   * Gets nrVirtualTransformThreads
+   *
+   * @return the number of transform copies that were started on a virtual thread
+   */
+  public int getNrVirtualTransformThreads() {
+    return nrVirtualTransformThreads;
+  }
+
   /**
    * Gets feedbackShown
    *
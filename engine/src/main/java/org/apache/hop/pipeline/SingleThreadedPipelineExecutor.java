@@ -26,6 +26,7 @@ import org.apache.hop.core.Result;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.logging.ILogChannel;
 import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
 import org.apache.hop.pipeline.transform.stream.IStream;
@@ -42,6 +43,8 @@ public class SingleThreadedPipelineExecutor {
   private TransformMetaDataCombi inProcessCombi;
   private List<List<IStream>> transformInfoStreams;
   private List<List<IRowSet>> transformInfoRowSets;
+  private List<List<IRowSet>> transformInputRowSets;
+  private List<List<IRowSet>> transformOutputRowSets;
   private ILogChannel log;
   private static final Class<?> PKG = SingleThreadedPipelineExecutor.class;
   private static final String CONST_SEPARATOR =
@@ -71,7 +74,14 @@ public class SingleThreadedPipelineExecutor {
 
     transformInfoStreams = new ArrayList<>();
     transformInfoRowSets = new ArrayList<>();
+    transformInputRowSets = new ArrayList<>();
+    transformOutputRowSets = new ArrayList<>();
     for (TransformMetaDataCombi combi : transforms) {
+      // Remember the row sets: a transform forgets about an input row set once it is done.
+      //
+      transformInputRowSets.add(combi.transform.getInputRowSets());
+      transformOutputRowSets.add(combi.transform.getOutputRowSets());
+
       List<IStream> infoStreams =
           combi.transformMeta.getTransform().getTransformIOMeta().getInfoStreams();
       transformInfoStreams.add(infoStreams);
@@ -398,6 +408,104 @@ public class SingleThreadedPipelineExecutor {
     return nrDone < transforms.size() && !pipeline.isStopped();
   }
 
+  /**
+   * Execute the pipeline until all transforms are finished. Unlike {@link #oneIteration()} the
+   * transforms see the end of their input, so they can produce their final rows and finish. A
+   * transform is only executed once all the row sets it reads from are done, so all the rows are
+   * passed on in the order of the sorted transforms without ever waiting for a row. Call {@link
+   * #reset()} to execute the pipeline again.
+   *
+   * @return true if all transforms finished without errors
+   * @throws HopException in case a transform fails or if the transforms can't finish
+   */
+  public boolean executeUntilFinished() throws HopException {
+    try {
+      while (nrDone < transforms.size() && !pipeline.isStopped()) {
+        boolean progress = false;
+        for (int s = 0; s < transforms.size() && !pipeline.isStopped(); s++) {
+          if (done[s] || !isInputDone(s)) {
+            continue;
+          }
+          TransformMetaDataCombi combi = transforms.get(s);
+          this.inProcessCombi = combi;
+          while (combi.transform.processRow()) {
+            if (combi.transform.getErrors() > 0 || pipeline.isStopped()) {
+              return false;
+            }
+          }
+          if (combi.transform.getErrors() > 0) {
+            return false;
+          }
+          combi.data.setStatus(ComponentExecutionStatus.STATUS_FINISHED);
+          done[s] = true;
+          nrDone++;
+          progress = true;
+        }
+        if (!progress && !pipeline.isStopped()) {
+          throw new HopException(
+              "Unable to finish the single threaded pipeline: no transform can read all its input");
+        }
+      }
+    } catch (HopException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new HopException(
+          "Error executing transform "
+              + inProcessCombi.transformName
+              + " in a single threaded pipeline",
+          e);
+    }
+    return !pipeline.isStopped();
+  }
+
+  private boolean isInputDone(int s) {
+    for (IRowSet rowSet : transformInputRowSets.get(s)) {
+      if (!rowSet.isDone()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Prepare the pipeline to be executed again with {@link #executeUntilFinished()}. The errors,
+   * result rows and result files of the pipeline are cleared, the row sets are emptied and every
+   * transform is disposed, reset and initialized again. Set the variables of the transforms before
+   * calling this method to have init() pick them up.
+   *
+   * @return true if all transforms initialized correctly
+   */
+  public boolean reset() {
+    pipeline.clearError();
+    pipeline.setResultRows(new ArrayList<>());
+    pipeline.setResultFiles(new ArrayList<>());
+
+    for (int s = 0; s < transforms.size(); s++) {
+      TransformMetaDataCombi combi = transforms.get(s);
+      combi.transform.dispose();
+
+      for (IRowSet rowSet : transformInputRowSets.get(s)) {
+        rowSet.clear();
+      }
+      if (combi.transform instanceof BaseTransform<?, ?> baseTransform) {
+        baseTransform.setInputRowSets(new ArrayList<>(transformInputRowSets.get(s)));
+        baseTransform.setOutputRowSets(new ArrayList<>(transformOutputRowSets.get(s)));
+        baseTransform.resetExecutionState();
+      }
+
+      done[s] = false;
+    }
+    nrDone = 0;
+
+    for (TransformMetaDataCombi combi : transforms) {
+      if (!combi.transform.init()) {
+        return false;
+      }
+      combi.data.setStatus(ComponentExecutionStatus.STATUS_IDLE);
+    }
+    return true;
+  }
+
   public void buildExecutionSummary() {
 
     for (TransformMetaDataCombi combi : transforms) {
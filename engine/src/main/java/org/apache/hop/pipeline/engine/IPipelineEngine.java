@@ -459,6 +459,15 @@ public interface IPipelineEngine<T extends PipelineMeta>
   @Deprecated(since = "2.0") // TODO: move the run configuration API
   int getFeedbackSize();
 
+  /**
+   * The number of rows transforms supporting it should read and write at once.
+   *
+   * @return The row batch size, 1 or lower means that rows are handled one by one
+   */
+  default int getRowBatchSize() {
+    return 0;
+  }
+
   /**
    * Get the execution result of a previous execution in a workflow
    *
@@ -20,6 +20,7 @@ package org.apache.hop.pipeline.engines.local;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.RowSetType;
 import org.apache.hop.core.gui.plugin.GuiElementType;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
 import org.apache.hop.core.gui.plugin.GuiWidgetElement;
@@ -143,6 +144,43 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   @HopMetadataProperty(key = "transactional")
   protected boolean transactional;
 
+  @GuiWidgetElement(
+      id = "rowSetType",
+      order = "110",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.COMBO,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetType.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowSetType.ToolTip",
+      comboValuesMethod = "getRowSetTypes")
+  @HopMetadataProperty(key = "rowset_type")
+  protected String rowSetType;
+
+  @GuiWidgetElement(
+      id = "rowBatchSize",
+      order = "120",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowBatchSize.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.RowBatchSize.ToolTip")
+  @HopMetadataProperty(key = "row_batch_size")
+  protected String rowBatchSize;
+
+  @GuiWidgetElement(
+      id = "usingVirtualThreads",
+      order = "130",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.CHECKBOX,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.UsingVirtualThreads.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.UsingVirtualThreads.ToolTip")
+  @HopMetadataProperty(key = "virtual_threads")
+  protected boolean usingVirtualThreads;
+
   @SuppressWarnings("java:S115")
   public enum SampleType {
     None,
@@ -160,6 +198,8 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     this.sampleTypeInGui = SampleType.Last.name();
     this.sampleSize = "100";
     this.transactional = false;
+    this.rowSetType = RowSetType.Blocking.name();
+    this.rowBatchSize = "0";
   }
 
   public LocalPipelineRunConfiguration(LocalPipelineRunConfiguration config) {
@@ -174,6 +214,9 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     this.sampleTypeInGui = config.sampleTypeInGui;
     this.sampleSize = config.sampleSize;
     this.transactional = config.transactional;
+    this.rowSetType = config.rowSetType;
+    this.rowBatchSize = config.rowBatchSize;
+    this.usingVirtualThreads = config.usingVirtualThreads;
   }
 
   @Override
@@ -189,6 +232,14 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
     return list;
   }
 
+  public List<String> getRowSetTypes(ILogChannel log, IHopMetadataProvider metadataProvider) {
+    List<String> list = new ArrayList<>();
+    for (RowSetType type : RowSetType.values()) {
+      list.add(type.name());
+    }
+    return list;
+  }
+
   /**
    * Gets rowSetSize
    *
@@ -348,4 +399,52 @@ public class LocalPipelineRunConfiguration extends EmptyPipelineRunConfiguration
   public void setTransactional(boolean transactional) {
     this.transactional = transactional;
   }
+
+  /**
+   * Gets rowSetType
+   *
+   * @return value of rowSetType
+   */
+  public String getRowSetType() {
+    return rowSetType;
+  }
+
+  /**
+   * @param rowSetType The rowSetType to set
+   */
+  public void setRowSetType(String rowSetType) {
+    this.rowSetType = rowSetType;
+  }
+
+  /**
+   * Gets rowBatchSize
+   *
+   * @return value of rowBatchSize
+   */
+  public String getRowBatchSize() {
+    return rowBatchSize;
+  }
+
+  /**
+   * @param rowBatchSize The rowBatchSize to set
+   */
+  public void setRowBatchSize(String rowBatchSize) {
+    this.rowBatchSize = rowBatchSize;
+  }
+
+  /**
+   * Gets usingVirtualThreads
+   *
+   * @return value of usingVirtualThreads
+   */
+  public boolean isUsingVirtualThreads() {
+    return usingVirtualThreads;
+  }
+
+  /**
+   * @param usingVirtualThreads The usingVirtualThreads to set
+   */
+  public void setUsingVirtualThreads(boolean usingVirtualThreads) {
+    this.usingVirtualThreads = usingVirtualThreads;
+  }
 }
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engines.localscheduled;
+
+import org.apache.hop.core.Const;
+import org.apache.hop.core.RowSetType;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.parameters.INamedParameters;
+import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.metadata.api.IHopMetadataProvider;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.config.IPipelineEngineRunConfiguration;
+import org.apache.hop.pipeline.engine.PipelineEnginePlugin;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
+
+/**
+ * Executes a pipeline locally like the local engine, but the transform copies share a fixed pool of
+ * worker threads. See {@link TransformScheduler}.
+ */
+@PipelineEnginePlugin(
+    id = "LocalScheduled",
+    name = "Hop local scheduled pipeline engine",
+    description = "Executes your pipeline locally on a fixed pool of worker threads")
+public class LocalScheduledPipelineEngine extends LocalPipelineEngine {
+  private static final Class<?> PKG = Pipeline.class;
+
+  private TransformScheduler scheduler;
+
+  public LocalScheduledPipelineEngine() {
+    super();
+  }
+
+  public LocalScheduledPipelineEngine(PipelineMeta pipelineMeta) {
+    super(pipelineMeta);
+  }
+
+  public LocalScheduledPipelineEngine(
+      PipelineMeta pipelineMeta, IVariables variables, ILoggingObject parent) {
+    super(pipelineMeta, variables, parent);
+  }
+
+  public <Parent extends IVariables & INamedParameters> LocalScheduledPipelineEngine(
+      Parent parent, String name, String filename, IHopMetadataProvider metadataProvider)
+      throws HopException {
+    super(parent, name, filename, metadataProvider);
+  }
+
+  @Override
+  public IPipelineEngineRunConfiguration createDefaultPipelineEngineRunConfiguration() {
+    return new LocalScheduledPipelineRunConfiguration();
+  }
+
+  @Override
+  public void prepareExecution() throws HopException {
+    if (!(pipelineRunConfiguration.getEngineRunConfiguration()
+        instanceof LocalScheduledPipelineRunConfiguration config)) {
+      throw new HopException(
+          "A local scheduled pipeline execution expects a local scheduled pipeline configuration, not an instance of class "
+              + pipelineRunConfiguration.getEngineRunConfiguration().getClass().getName());
+    }
+
+    RowSetType configuredType = RowSetType.lookupName(resolve(config.getRowSetType()));
+    if (configuredType != RowSetType.Blocking) {
+      log.logBasic(
+          BaseMessages.getString(
+              PKG, "Pipeline.Log.ScheduledRowSetTypeIgnored", configuredType.name()));
+    }
+
+    super.prepareExecution();
+  }
+
+  /**
+   * The worker threads wait for full or empty row sets through the fork/join pool. Only the
+   * blocking row set supports this so we always use that one.
+   *
+   * @param rowSetType The rowSetType to set. It is ignored.
+   */
+  @Override
+  public void setRowSetType(RowSetType rowSetType) {
+    super.setRowSetType(RowSetType.Blocking);
+  }
+
+  @Override
+  protected void startTransformThreads() throws HopException {
+    LocalScheduledPipelineRunConfiguration config =
+        (LocalScheduledPipelineRunConfiguration)
+            pipelineRunConfiguration.getEngineRunConfiguration();
+    int workerCount =
+        Const.toInt(resolve(config.getWorkerCount()), Runtime.getRuntime().availableProcessors());
+    if (workerCount < 1) {
+      workerCount = Runtime.getRuntime().availableProcessors();
+    }
+    int sliceSize =
+        Const.toInt(resolve(config.getSliceSize()), TransformScheduler.DEFAULT_SLICE_SIZE);
+    if (sliceSize < 1) {
+      sliceSize = TransformScheduler.DEFAULT_SLICE_SIZE;
+    }
+
+    if (log.isDetailed()) {
+      log.logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "Pipeline.Log.ScheduledWorkers",
+              String.valueOf(getTransforms().size()),
+              String.valueOf(workerCount)));
+    }
+
+    // The transforms only run once the scheduler is started
+    //
+    for (TransformMetaDataCombi combi : getTransforms()) {
+      beforeTransformStart(combi);
+    }
+
+    scheduler =
+        new TransformScheduler(getName(), getTransforms(), getRowSetSize(), workerCount, sliceSize);
+    scheduler.start();
+  }
+
+  /**
+   * Gets scheduler
+   *
+   * @return value of scheduler, null before the transforms are started
+   */
+  public TransformScheduler getScheduler() {
+    return scheduler;
+  }
+}
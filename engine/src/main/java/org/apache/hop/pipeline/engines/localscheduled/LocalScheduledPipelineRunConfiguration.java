@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engines.localscheduled;
+
+import org.apache.hop.core.gui.plugin.GuiElementType;
+import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.gui.plugin.GuiWidgetElement;
+import org.apache.hop.metadata.api.HopMetadataProperty;
+import org.apache.hop.pipeline.config.IPipelineEngineRunConfiguration;
+import org.apache.hop.pipeline.config.PipelineRunConfiguration;
+import org.apache.hop.pipeline.engines.local.LocalPipelineRunConfiguration;
+
+@GuiPlugin(description = "Local scheduled pipeline run configuration widgets")
+public class LocalScheduledPipelineRunConfiguration extends LocalPipelineRunConfiguration
+    implements IPipelineEngineRunConfiguration {
+
+  @GuiWidgetElement(
+      id = "workerCount",
+      order = "200",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.WorkerCount.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.WorkerCount.ToolTip")
+  @HopMetadataProperty(key = "worker_count")
+  protected String workerCount;
+
+  @GuiWidgetElement(
+      id = "sliceSize",
+      order = "210",
+      parentId = PipelineRunConfiguration.GUI_PLUGIN_ELEMENT_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.SliceSize.Label",
+      toolTip =
+          "i18n:org.apache.hop.ui.pipeline.config:PipelineRunConfigurationDialog.SliceSize.ToolTip")
+  @HopMetadataProperty(key = "slice_size")
+  protected String sliceSize;
+
+  public LocalScheduledPipelineRunConfiguration() {
+    super();
+    this.workerCount = "";
+    this.sliceSize = Integer.toString(TransformScheduler.DEFAULT_SLICE_SIZE);
+  }
+
+  public LocalScheduledPipelineRunConfiguration(LocalScheduledPipelineRunConfiguration config) {
+    super(config);
+    this.workerCount = config.workerCount;
+    this.sliceSize = config.sliceSize;
+  }
+
+  @Override
+  public LocalScheduledPipelineRunConfiguration clone() {
+    return new LocalScheduledPipelineRunConfiguration(this);
+  }
+
+  /**
+   * Gets workerCount
+   *
+   * @return value of workerCount
+   */
+  public String getWorkerCount() {
+    return workerCount;
+  }
+
+  /**
+   * @param workerCount The workerCount to set
+   */
+  public void setWorkerCount(String workerCount) {
+    this.workerCount = workerCount;
+  }
+
+  /**
+   * Gets sliceSize
+   *
+   * @return value of sliceSize
+   */
+  public String getSliceSize() {
+    return sliceSize;
+  }
+
+  /**
+   * @param sliceSize The sliceSize to set
+   */
+  public void setSliceSize(String sliceSize) {
+    this.sliceSize = sliceSize;
+  }
+}
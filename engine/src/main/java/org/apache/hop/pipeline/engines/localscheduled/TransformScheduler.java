@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engines.localscheduled;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.RunThread;
+import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
+
+/**
+ * Runs the transform copies of a pipeline on a fixed pool of work-stealing worker threads instead
+ * of giving every copy its own thread.
+ *
+ * <p>Every transform copy is a task which calls {@link ITransform#processRow()} for a slice of
+ * rows. A task is only scheduled when the transform is ready: it has rows waiting on one of its
+ * inputs (or all its inputs are done, or it has no inputs) and there is room in all its outputs.
+ * When a slice ends the task re-schedules itself if it is still ready and wakes up the producers
+ * and consumers it shares a row set with. A timer checks the idle tasks at a regular interval to
+ * pick up rows coming from outside the pipeline, like a row producer, and stopped transforms.
+ *
+ * <p>A transform which has to wait inside processRow() for a row set, for example a lookup waiting
+ * for its info stream, blocks through {@link ForkJoinPool#managedBlock} in {@link
+ * org.apache.hop.core.BlockingRowSet} so that the pool can add a spare worker in the meantime.
+ */
+public class TransformScheduler {
+
+  /** The default maximum number of processRow() calls of a transform in one go */
+  public static final int DEFAULT_SLICE_SIZE = 256;
+
+  /** The interval in ms at which idle transforms are checked */
+  public static final long CHECK_INTERVAL = 10L;
+
+  private final String name;
+  private final int rowSetSize;
+  private final int workerCount;
+  private final int sliceSize;
+  private final List<TransformTask> tasks;
+  private final AtomicInteger nrActive;
+
+  private ForkJoinPool pool;
+  private Timer timer;
+
+  /**
+   * @param name the name of the pipeline, used to name the worker threads
+   * @param transforms the transform copies to run
+   * @param rowSetSize the maximum number of rows in a row set
+   * @param workerCount the number of worker threads
+   * @param sliceSize the maximum number of processRow() calls of a transform in one go
+   */
+  public TransformScheduler(
+      String name,
+      List<TransformMetaDataCombi> transforms,
+      int rowSetSize,
+      int workerCount,
+      int sliceSize) {
+    this.name = name;
+    this.rowSetSize = rowSetSize;
+    this.workerCount = workerCount;
+    this.sliceSize = sliceSize;
+    this.tasks = new ArrayList<>();
+    for (TransformMetaDataCombi combi : transforms) {
+      tasks.add(new TransformTask(combi));
+    }
+    this.nrActive = new AtomicInteger(tasks.size());
+
+    // Link the tasks which share a row set so that they can wake up each other
+    //
+    Map<IRowSet, TransformTask> producers = new IdentityHashMap<>();
+    Map<IRowSet, TransformTask> consumers = new IdentityHashMap<>();
+    for (TransformTask task : tasks) {
+      task.outputRowSets.forEach(rowSet -> producers.put(rowSet, task));
+      task.inputRowSets.forEach(rowSet -> consumers.put(rowSet, task));
+    }
+    for (TransformTask task : tasks) {
+      for (IRowSet rowSet : task.inputRowSets) {
+        TransformTask producer = producers.get(rowSet);
+        if (producer != null && !task.neighbours.contains(producer)) {
+          task.neighbours.add(producer);
+        }
+      }
+      for (IRowSet rowSet : task.outputRowSets) {
+        TransformTask consumer = consumers.get(rowSet);
+        if (consumer != null && !task.neighbours.contains(consumer)) {
+          task.neighbours.add(consumer);
+        }
+      }
+    }
+  }
+
+  /** Start running the transforms. This method returns right away. */
+  public void start() {
+    if (tasks.isEmpty()) {
+      return;
+    }
+    pool =
+        new ForkJoinPool(
+            workerCount,
+            forkJoinPool -> {
+              ForkJoinWorkerThread thread =
+                  ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+              thread.setName(name + " - worker " + thread.getPoolIndex());
+              return thread;
+            },
+            null,
+            true);
+
+    timer = new Timer(name + " - scheduler", true);
+    timer.schedule(
+        new TimerTask() {
+          @Override
+          public void run() {
+            for (TransformTask task : tasks) {
+              task.scheduleIfReady();
+            }
+          }
+        },
+        CHECK_INTERVAL,
+        CHECK_INTERVAL);
+
+    for (TransformTask task : tasks) {
+      task.scheduleIfReady();
+    }
+  }
+
+  /** Stop the worker threads and the timer. Running slices are not interrupted. */
+  public void shutdown() {
+    if (timer != null) {
+      timer.cancel();
+    }
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * @return the number of transform copies which didn't finish yet
+   */
+  public int getNrActive() {
+    return nrActive.get();
+  }
+
+  public int getWorkerCount() {
+    return workerCount;
+  }
+
+  public int getSliceSize() {
+    return sliceSize;
+  }
+
+  /** The scheduling state of one transform copy */
+  private class TransformTask {
+    private final ITransform transform;
+    private final RunThread runThread;
+    private final List<IRowSet> inputRowSets;
+    private final List<IRowSet> outputRowSets;
+    private final List<TransformTask> neighbours;
+    private final AtomicBoolean scheduled;
+    private boolean started;
+    private volatile boolean finished;
+
+    TransformTask(TransformMetaDataCombi combi) {
+      this.transform = combi.transform;
+      this.runThread = new RunThread(combi);
+      // The transforms remove input row sets once they are done: keep our own copy
+      this.inputRowSets = new ArrayList<>(transform.getInputRowSets());
+      this.outputRowSets = new ArrayList<>(transform.getOutputRowSets());
+      this.neighbours = new ArrayList<>();
+      this.scheduled = new AtomicBoolean(false);
+    }
+
+    /**
+     * @return true if a call to processRow() is not expected to wait for input or output
+     */
+    boolean isReady() {
+      if (transform.isStopped()) {
+        return true;
+      }
+      if (transform.isPaused()) {
+        return false;
+      }
+      if (!inputRowSets.isEmpty()) {
+        boolean allDone = true;
+        boolean hasRows = false;
+        for (IRowSet rowSet : inputRowSets) {
+          if (rowSet.size() > 0) {
+            hasRows = true;
+            break;
+          }
+          if (!rowSet.isDone()) {
+            allDone = false;
+          }
+        }
+        if (!hasRows && !allDone) {
+          return false;
+        }
+      }
+      for (IRowSet rowSet : outputRowSets) {
+        if (rowSet.size() >= rowSetSize && !rowSet.isDone()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    void scheduleIfReady() {
+      if (!finished && !scheduled.get() && isReady()) {
+        schedule();
+      }
+    }
+
+    private void schedule() {
+      if (!finished && scheduled.compareAndSet(false, true)) {
+        try {
+          pool.execute(this::runSlice);
+        } catch (RuntimeException e) {
+          // The pool was shut down
+          scheduled.set(false);
+        }
+      }
+    }
+
+    private void runSlice() {
+      try {
+        if (!started) {
+          started = true;
+          runThread.beforeRun();
+        }
+        int nrCalls = 0;
+        while (true) {
+          if (!transform.processRow() || transform.isStopped()) {
+            finish();
+            break;
+          }
+          if (++nrCalls >= sliceSize || !isReady()) {
+            break;
+          }
+        }
+      } catch (Throwable t) {
+        runThread.handleError(t);
+        finish();
+      } finally {
+        scheduled.set(false);
+        // Anything which arrived while we were busy?
+        scheduleIfReady();
+        for (TransformTask neighbour : neighbours) {
+          neighbour.scheduleIfReady();
+        }
+      }
+    }
+
+    private void finish() {
+      if (finished) {
+        return;
+      }
+      finished = true;
+      int remaining = nrActive.decrementAndGet();
+      try {
+        runThread.afterRun();
+      } finally {
+        if (remaining == 0) {
+          shutdown();
+        }
+      }
+    }
+  }
+}
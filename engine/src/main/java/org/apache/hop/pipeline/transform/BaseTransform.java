@@ -36,6 +36,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.BlockingRowSet;
 import org.apache.hop.core.Const;
@@ -53,6 +54,7 @@ import org.apache.hop.core.logging.LogLevel;
 import org.apache.hop.core.logging.LoggingObjectType;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.util.EnvUtil;
@@ -177,6 +179,9 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
   /** Number of lines rejected to an error handling transform */
   private long linesRejected;
 
+  /** Number of binary string values passed on or written without converting them */
+  private long conversionsAvoided;
+
   private boolean distributed;
 
   private final IRowDistribution rowDistribution;
@@ -391,6 +396,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       linesRejected = 0L;
       linesInput = 0L;
       linesOutput = 0L;
+      conversionsAvoided = 0L;
     }
 
     inputRowSets = new ArrayList<>();
@@ -581,6 +587,50 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     // Do nothing
   }
 
+  /**
+   * Reset the execution state of this transform after it finished: the first row flag, the row
+   * counters, the errors, the stopped flags, the input row metadata and the result files. This
+   * allows a prepared single threaded pipeline to be executed again. The caller is responsible for
+   * restoring and clearing the row sets, and for disposing and initializing the transform.
+   */
+  public void resetExecutionState() {
+    first = true;
+    synchronized (statusCountersLock) {
+      linesRead = 0L;
+      linesWritten = 0L;
+      linesUpdated = 0L;
+      linesSkipped = 0L;
+      linesRejected = 0L;
+      linesInput = 0L;
+      linesOutput = 0L;
+      conversionsAvoided = 0L;
+      errors = 0L;
+    }
+    stopped.set(false);
+    safeStopped.set(false);
+    paused.set(false);
+
+    inputRowMeta = null;
+    currentInputRowSetNr = 0;
+    currentOutputRowSetNr = 0;
+    blockPointer = 0;
+    waitingTime = null;
+    deadLockCounter = 0;
+    firstRowReadDate = null;
+    lastRowWrittenDate = null;
+    if (terminatorRows != null) {
+      terminatorRows.clear();
+    }
+
+    ReentrantReadWriteLock.WriteLock lock = resultFilesLock.writeLock();
+    lock.lock();
+    try {
+      resultFiles.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
   /*
    * (non-Javadoc)
    *
@@ -920,6 +970,51 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     }
   }
 
+  /**
+   * @return the number of binary string values passed on, compared or written without converting
+   *     them
+   * @see #addConversionsAvoided(long)
+   */
+  @Override
+  public long getConversionsAvoided() {
+    synchronized (statusCountersLock) {
+      return conversionsAvoided;
+    }
+  }
+
+  /**
+   * Count binary string values (lazy conversion) which this transform passed on, compared or wrote
+   * without converting them to their data type.
+   *
+   * @param count the number of values
+   * @see #getConversionsAvoided()
+   */
+  public void addConversionsAvoided(long count) {
+    if (count > 0) {
+      synchronized (statusCountersLock) {
+        conversionsAvoided += count;
+      }
+    }
+  }
+
+  /**
+   * Count the values in a row layout which are stored as binary strings (lazy conversion).
+   *
+   * @param rowMeta the row layout
+   * @param excludedIndexes the indexes of values which are converted anyway, may be null
+   * @return the number of binary string values which are not excluded
+   */
+  public static int countBinaryStrings(IRowMeta rowMeta, int[] excludedIndexes) {
+    int count = 0;
+    for (int i = 0; i < rowMeta.size(); i++) {
+      if (rowMeta.getValueMeta(i).isStorageBinaryString()
+          && (excludedIndexes == null || !ArrayUtils.contains(excludedIndexes, i))) {
+        count++;
+      }
+    }
+    return count;
+  }
+
   @Override
   public boolean isSelected() {
     return transformMeta != null && transformMeta.isSelected();
@@ -1009,6 +1104,40 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
    */
   @Override
   public void putRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+    verifyOutputRowMeta(rowMeta);
+    getRowHandler().putRow(rowMeta, row);
+
+    // This transform is not reading data, only writing
+    //
+    if (firstRowReadDate == null) {
+      firstRowReadDate = new Date();
+    }
+  }
+
+  /**
+   * putRowBatch is used to put a batch of rows on the output rowset(s). The rows are distributed or
+   * copied exactly like with {@link #putRow(IRowMeta, Object[])} but the checks which don't depend
+   * on the row data are only done once per batch.
+   *
+   * @param batch The batch of rows to put to the destination rowset(s).
+   * @throws HopTransformException
+   */
+  @Override
+  public void putRowBatch(RowBatch batch) throws HopTransformException {
+    if (batch == null || batch.isEmpty()) {
+      return;
+    }
+    verifyOutputRowMeta(batch.getRowMeta());
+    getRowHandler().putRowBatch(batch);
+
+    // This transform is not reading data, only writing
+    //
+    if (firstRowReadDate == null) {
+      firstRowReadDate = new Date();
+    }
+  }
+
+  private void verifyOutputRowMeta(IRowMeta rowMeta) throws HopTransformException {
     if (rowMeta != null && !allowEmptyFieldNamesAndTypes) {
       // check row meta for empty field name (BACKLOG-18004)
       for (IValueMeta vmi : rowMeta.getValueMetaList()) {
@@ -1024,16 +1153,43 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         }
       }
     }
-    getRowHandler().putRow(rowMeta, row);
+  }
 
-    // This transform is not reading data, only writing
-    //
-    if (firstRowReadDate == null) {
-      firstRowReadDate = new Date();
+  private void handlePutRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+    if (!waitUntilReadyToPutRows()) {
+      return;
+    }
+
+    outputRowSetsLock.readLock().lock();
+    try {
+      dispatchRow(rowMeta, row);
+    } finally {
+      outputRowSetsLock.readLock().unlock();
     }
   }
 
-  private void handlePutRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+  private void handlePutRowBatch(RowBatch batch) throws HopTransformException {
+    if (!waitUntilReadyToPutRows()) {
+      return;
+    }
+
+    IRowMeta rowMeta = batch.getRowMeta();
+    outputRowSetsLock.readLock().lock();
+    try {
+      for (int i = 0; i < batch.size(); i++) {
+        dispatchRow(rowMeta, batch.getRow(i));
+      }
+    } finally {
+      outputRowSetsLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Stall while the transform is paused and wait a bit until all threads have been started.
+   *
+   * @return false if the transform was stopped and no rows should be written anymore.
+   */
+  private boolean waitUntilReadyToPutRows() throws HopTransformException {
     // Are we pausing the transform? If so, stall forever...
     //
     while (paused.get() && !stopped.get()) {
@@ -1052,7 +1208,7 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         logDebug(BaseMessages.getString(PKG, "BaseTransform.Log.StopPuttingARow"));
       }
       stopAll();
-      return;
+      return false;
     }
 
     // Have all threads started?
@@ -1075,7 +1231,14 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       }
       this.checkPipelineRunning = true;
     }
+    return true;
+  }
 
+  /**
+   * Send a single row to the output row set(s). The caller holds the read lock on the output row
+   * sets.
+   */
+  private void dispatchRow(IRowMeta rowMeta, Object[] row) throws HopTransformException {
     // call all row listeners...
     //
     for (IRowListener listener : rowListeners) {
@@ -1093,39 +1256,34 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       }
     }
 
-    outputRowSetsLock.readLock().lock();
-    try {
-      if (outputRowSets.isEmpty()) {
-        // No more output rowsets!
-        // Still update the nr of lines written.
-        //
-        incrementLinesWritten();
+    if (outputRowSets.isEmpty()) {
+      // No more output rowsets!
+      // Still update the nr of lines written.
+      //
+      incrementLinesWritten();
 
-        return; // we're done here!
-      }
+      return; // we're done here!
+    }
 
-      // Repartitioning happens when the current transform is not partitioned, but the next one is.
-      // That means we need to look up the partitioning information in the next transform..
-      // If there are multiple transforms, we need to look at the first (they should be all the
-      // same)
-      //
-      switch (repartitioning) {
-        case TransformPartitioningMeta.PARTITIONING_METHOD_NONE:
-          noPartitioning(rowMeta, row);
-          break;
+    // Repartitioning happens when the current transform is not partitioned, but the next one is.
+    // That means we need to look up the partitioning information in the next transform..
+    // If there are multiple transforms, we need to look at the first (they should be all the
+    // same)
+    //
+    switch (repartitioning) {
+      case TransformPartitioningMeta.PARTITIONING_METHOD_NONE:
+        noPartitioning(rowMeta, row);
+        break;
 
-        case TransformPartitioningMeta.PARTITIONING_METHOD_SPECIAL:
-          specialPartitioning(rowMeta, row);
-          break;
-        case TransformPartitioningMeta.PARTITIONING_METHOD_MIRROR:
-          mirrorPartitioning(rowMeta, row);
-          break;
-        default:
-          throw new HopTransformException(
-              "Internal error: invalid repartitioning type: " + repartitioning);
-      }
-    } finally {
-      outputRowSetsLock.readLock().unlock();
+      case TransformPartitioningMeta.PARTITIONING_METHOD_SPECIAL:
+        specialPartitioning(rowMeta, row);
+        break;
+      case TransformPartitioningMeta.PARTITIONING_METHOD_MIRROR:
+        mirrorPartitioning(rowMeta, row);
+        break;
+      default:
+        throw new HopTransformException(
+            "Internal error: invalid repartitioning type: " + repartitioning);
     }
   }
 
@@ -1544,6 +1702,96 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
     return row;
   }
 
+  /**
+   * Get a batch of rows from the input rowset(s). We wait for the first row just like {@link
+   * #getRow()} does. After that we only add the rows which are immediately available in the same
+   * input row set, so we never wait to fill up a batch.
+   *
+   * @param maxRows The maximum number of rows in the batch
+   * @return a batch of at least one row or null if there are no more rows to be expected.
+   */
+  @Override
+  public RowBatch getRowBatch(int maxRows) throws HopException {
+    RowBatch batch = getRowHandler().getRowBatch(maxRows);
+
+    if (firstRowReadDate == null) {
+      firstRowReadDate = new Date();
+    }
+    if (batch != null && batch.getRowMeta() == null) {
+      batch.setRowMeta(inputRowMeta);
+    }
+
+    return batch;
+  }
+
+  private RowBatch handleGetRowBatch(int maxRows) throws HopException {
+    Object[] row = handleGetRow();
+    if (row == null) {
+      return null;
+    }
+    RowBatch batch = new RowBatch(inputRowMeta, maxRows);
+    batch.addRow(row);
+
+    inputRowSetsLock.readLock().lock();
+    try {
+      if (batch.isFull()
+          || stopped.get()
+          || currentInputRowSetNr < 0
+          || currentInputRowSetNr >= inputRowSets.size()) {
+        return batch;
+      }
+      IRowSet inputRowSet = inputRowSets.get(currentInputRowSetNr);
+
+      // With multiple input transforms the row layout can differ between row sets.
+      //
+      if (prevTransforms != null
+          && prevTransforms.length > 1
+          && inputRowSet.getRowMeta() != inputRowMeta) {
+        return batch;
+      }
+
+      Object[] nextRow;
+      while (!batch.isFull() && (nextRow = inputRowSet.getRowImmediate()) != null) {
+        batch.addRow(nextRow);
+      }
+    } finally {
+      inputRowSetsLock.readLock().unlock();
+    }
+
+    int extraRows = batch.size() - 1;
+    if (extraRows > 0) {
+      synchronized (statusCountersLock) {
+        linesRead += extraRows;
+      }
+      blockPointer += extraRows;
+
+      for (IRowListener listener : rowListeners) {
+        for (int i = 1; i < batch.size(); i++) {
+          listener.rowReadEvent(inputRowMeta, batch.getRow(i));
+        }
+      }
+    }
+
+    return batch;
+  }
+
+  /**
+   * The number of rows transforms should handle at once with {@link #getRowBatch(int)} and {@link
+   * #putRowBatch(RowBatch)}. This is set in the pipeline run configuration.
+   *
+   * @return The row batch size, 1 or lower means that rows are handled one by one.
+   */
+  public int getRowBatchSize() {
+    return pipeline == null ? 0 : pipeline.getRowBatchSize();
+  }
+
+  /**
+   * @return true if transforms supporting batches should read and write batches of rows.
+   */
+  public boolean isUsingRowBatches() {
+    return getRowBatchSize() > 1;
+  }
+
   private Object[] handleGetRow() throws HopException {
 
     // Are we pausing the transform? If so, stall forever...
@@ -3313,6 +3561,22 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
         && (lines % getPipeline().getFeedbackSize()) == 0;
   }
 
+  /**
+   * Feedback check for transforms handling batches of rows: the number of lines can jump past a
+   * multiple of the feedback size.
+   *
+   * @param previousLines The number of lines before the batch was handled
+   * @param lines The number of lines after the batch was handled
+   * @return true if feedback should be given
+   */
+  protected boolean checkFeedback(long previousLines, long lines) {
+    int feedbackSize = getPipeline().getFeedbackSize();
+    return getPipeline().isFeedbackShown()
+        && (lines > 0)
+        && (feedbackSize > 0)
+        && (lines / feedbackSize) > (previousLines / feedbackSize);
+  }
+
   /**
    * @return the rowMeta
    */
@@ -3857,6 +4121,16 @@ public class BaseTransform<Meta extends ITransformMeta, Data extends ITransformD
       handlePutRow(rowMeta, row);
     }
 
+    @Override
+    public RowBatch getRowBatch(int maxRows) throws HopException {
+      return handleGetRowBatch(maxRows);
+    }
+
+    @Override
+    public void putRowBatch(RowBatch batch) throws HopTransformException {
+      handlePutRowBatch(batch);
+    }
+
     @Override
     public void putError(
         IRowMeta rowMeta,
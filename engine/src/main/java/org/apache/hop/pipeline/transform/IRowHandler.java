@@ -21,6 +21,7 @@ import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.i18n.BaseMessages;
 
 /**
@@ -38,6 +39,35 @@ public interface IRowHandler {
 
   void putRow(IRowMeta rowMeta, Object[] row) throws HopTransformException;
 
+  /**
+   * Get a batch of rows. Row handlers without batch support get a batch with the single row
+   * returned by {@link #getRow()}.
+   *
+   * @param maxRows The maximum number of rows in the batch
+   * @return a batch of at least one row or null if there are no more rows to be expected.
+   */
+  default RowBatch getRowBatch(int maxRows) throws HopException {
+    Object[] row = getRow();
+    if (row == null) {
+      return null;
+    }
+    RowBatch batch = new RowBatch(null, 1);
+    batch.addRow(row);
+    return batch;
+  }
+
+  /**
+   * Put a batch of rows. Row handlers without batch support get every row through {@link
+   * #putRow(IRowMeta, Object[])}.
+   *
+   * @param batch The batch of rows, including its metadata
+   */
+  default void putRowBatch(RowBatch batch) throws HopTransformException {
+    for (int i = 0; i < batch.size(); i++) {
+      putRow(batch.getRowMeta(), batch.getRow(i));
+    }
+  }
+
   void putError(
       IRowMeta rowMeta,
       Object[] row,
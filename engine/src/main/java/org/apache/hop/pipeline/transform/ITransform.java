@@ -30,11 +30,13 @@ import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.logging.IHasLogChannel;
 import org.apache.hop.core.logging.ILogChannel;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.metadata.api.IHopMetadataProvider;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.engine.EngineComponent.ComponentExecutionStatus;
 import org.apache.hop.pipeline.engine.IEngineComponent;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 
 /**
@@ -219,6 +221,36 @@ public interface ITransform extends IVariables, IHasLogChannel, IEngineComponent
    */
   Object[] getRow() throws HopException;
 
+  /**
+   * Put a batch of rows on the destination rowsets. By default, every row in the batch is handed to
+   * {@link #putRow(IRowMeta, Object[])}.
+   *
+   * @param batch The batch of rows to send to the destination transforms, including its metadata
+   */
+  default void putRowBatch(RowBatch batch) throws HopException {
+    for (int i = 0; i < batch.size(); i++) {
+      putRow(batch.getRowMeta(), batch.getRow(i));
+    }
+  }
+
+  /**
+   * Get a batch of rows from the source transform(s). By default, this returns a batch with the
+   * single row returned by {@link #getRow()}. Implementations can return more rows when these are
+   * available right away.
+   *
+   * @param maxRows The maximum number of rows in the batch
+   * @return a batch of at least one row or null if there are no more rows to be expected.
+   */
+  default RowBatch getRowBatch(int maxRows) throws HopException {
+    Object[] row = getRow();
+    if (row == null) {
+      return null;
+    }
+    RowBatch batch = new RowBatch(null, 1);
+    batch.addRow(row);
+    return batch;
+  }
+
   /** Signal output done to destination transforms */
   void setOutputDone();
 
@@ -422,6 +454,27 @@ public interface ITransform extends IVariables, IHasLogChannel, IEngineComponent
     return Collections.emptyList();
   }
 
+  /**
+   * Metrics which are specific to this transform, like the memory used by a lookup cache. They are
+   * reported next to the standard metrics like the number of rows read and written.
+   *
+   * @return The transform specific metrics and their current values, empty by default
+   */
+  default Map<IEngineMetric, Long> getTransformMetrics() {
+    return Collections.emptyMap();
+  }
+
+  /**
+   * With lazy conversion, values are passed around as binary strings until they are needed in their
+   * data type. This counts the values which the transform passed on, compared or wrote without
+   * converting them.
+   *
+   * @return The number of conversions avoided, 0 by default
+   */
+  default long getConversionsAvoided() {
+    return 0L;
+  }
+
   default void addRowSetToInputRowSets(IRowSet rowSet) {
     getInputRowSets().add(rowSet);
   }
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transform;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.hop.core.cache.BoundedCache;
+import org.apache.hop.pipeline.engine.EngineMetric;
+import org.apache.hop.pipeline.engine.IEngineMetric;
+
+/**
+ * The metrics of a lookup cache used by a transform. Return them from {@link
+ * ITransform#getTransformMetrics()}.
+ */
+public class TransformCacheMetrics {
+  public static final IEngineMetric METRIC_CACHE_HITS =
+      new EngineMetric(
+          "cache_hits", "Cache hits", "The number of lookups found in the cache", "101", true);
+  public static final IEngineMetric METRIC_CACHE_MISSES =
+      new EngineMetric(
+          "cache_misses",
+          "Cache misses",
+          "The number of lookups not found in the cache",
+          "102",
+          true);
+  public static final IEngineMetric METRIC_CACHE_EVICTIONS =
+      new EngineMetric(
+          "cache_evictions",
+          "Cache evictions",
+          "The number of entries removed from the cache because it was full or they expired",
+          "103",
+          true);
+  public static final IEngineMetric METRIC_CACHE_LOAD_TIME =
+      new EngineMetric(
+          "cache_load_time",
+          "Cache load time (ms)",
+          "The time spent looking up the values which were not found in the cache",
+          "104",
+          true);
+
+  private TransformCacheMetrics() {}
+
+  /**
+   * Get the metrics of a cache.
+   *
+   * @param cache The cache, can be null
+   * @return The hits, misses, evictions and load time of the cache. Empty if there is no cache.
+   */
+  public static Map<IEngineMetric, Long> of(BoundedCache<?, ?> cache) {
+    if (cache == null) {
+      return Collections.emptyMap();
+    }
+    Map<IEngineMetric, Long> metrics = new LinkedHashMap<>();
+    metrics.put(METRIC_CACHE_HITS, cache.getHitCount());
+    metrics.put(METRIC_CACHE_MISSES, cache.getMissCount());
+    metrics.put(METRIC_CACHE_EVICTIONS, cache.getEvictionCount());
+    metrics.put(METRIC_CACHE_LOAD_TIME, TimeUnit.NANOSECONDS.toMillis(cache.getLoadTimeNanos()));
+    return metrics;
+  }
+}
@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.transforms.dummy;
 
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -40,6 +41,10 @@ public class Dummy extends BaseTransform<DummyMeta, DummyData> {
 
   @Override
   public boolean processRow() throws HopException {
+    if (isUsingRowBatches()) {
+      return processRowBatch();
+    }
+
     Object[] r = getRow(); // get row, set busy!
     // no more input to be expected...
     if (r == null) {
@@ -55,4 +60,22 @@ public class Dummy extends BaseTransform<DummyMeta, DummyData> {
 
     return true;
   }
+
+  private boolean processRowBatch() throws HopException {
+    long previousLinesRead = getLinesRead();
+    RowBatch batch = getRowBatch(getRowBatchSize());
+    // no more input to be expected...
+    if (batch == null) {
+      setOutputDone();
+      return false;
+    }
+
+    putRowBatch(batch); // copy rows to possible alternate rowset(s).
+
+    if (checkFeedback(previousLinesRead, getLinesRead()) && isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "Dummy.Log.LineNumber") + getLinesRead());
+    }
+
+    return true;
+  }
 }
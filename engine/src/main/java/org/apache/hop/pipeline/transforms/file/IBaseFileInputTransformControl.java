@@ -41,4 +41,6 @@ public interface IBaseFileInputTransformControl {
   long getErrors();
 
   void setErrors(long e);
+
+  void addConversionsAvoided(long count);
 }
@@ -35,6 +35,7 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.annotations.HopServerServlet;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.json.HopJson;
+import org.apache.hop.core.util.VirtualThreadUtil;
 import org.apache.hop.core.xml.XmlHandler;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.PipelineMeta;
@@ -1219,6 +1220,8 @@ public class GetStatusServlet extends BaseHttpServlet implements IHopServerPlugi
     serverStatus.setCpuProcessTime(allThreadsCpuTime);
     serverStatus.setUptime(uptime);
     serverStatus.setThreadCount(threadCount);
+    serverStatus.setVirtualThreadCount(VirtualThreadUtil.getActiveVirtualThreadCount());
+    serverStatus.setVirtualThreadPinnedCount(VirtualThreadUtil.getPinnedEventCount());
     serverStatus.setLoadAvg(loadAvg);
     serverStatus.setOsName(osName);
     serverStatus.setOsVersion(osVersion);
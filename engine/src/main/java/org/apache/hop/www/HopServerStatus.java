@@ -42,6 +42,8 @@ public class HopServerStatus {
   @Getter @Setter private long cpuProcessTime;
   @Getter @Setter private long uptime;
   @Getter @Setter private int threadCount;
+  @Getter @Setter private long virtualThreadCount;
+  @Getter @Setter private long virtualThreadPinnedCount;
   @Getter @Setter private double loadAvg;
   @Getter @Setter private String osName;
   @Getter @Setter private String osVersion;
@@ -86,6 +88,8 @@ public class HopServerStatus {
 
     xml.append(XmlHandler.addTagValue("uptime", uptime));
     xml.append(XmlHandler.addTagValue("thread_count", threadCount));
+    xml.append(XmlHandler.addTagValue("virtual_thread_count", virtualThreadCount));
+    xml.append(XmlHandler.addTagValue("virtual_thread_pinned_count", virtualThreadPinnedCount));
 
     xml.append(XmlHandler.addTagValue("load_avg", loadAvg));
 
@@ -124,6 +128,10 @@ public class HopServerStatus {
 
     uptime = Const.toLong(XmlHandler.getTagValue(statusNode, "uptime"), -1);
     threadCount = Const.toInt(XmlHandler.getTagValue(statusNode, "thread_count"), -1);
+    virtualThreadCount =
+        Const.toLong(XmlHandler.getTagValue(statusNode, "virtual_thread_count"), -1L);
+    virtualThreadPinnedCount =
+        Const.toLong(XmlHandler.getTagValue(statusNode, "virtual_thread_pinned_count"), -1L);
     loadAvg = Const.toDouble(XmlHandler.getTagValue(statusNode, "load_avg"), -1.0);
 
     osName = XmlHandler.getTagValue(statusNode, "os_name");
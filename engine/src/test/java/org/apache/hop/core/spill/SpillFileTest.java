@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.core.spill;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import org.apache.hop.core.compress.CompressionPluginType;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.plugins.PluginRegistry;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SpillFileTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    PluginRegistry.addPluginType(CompressionPluginType.getInstance());
+    PluginRegistry.init();
+  }
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("country"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("total"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+    rowMeta.addValueMeta(new ValueMetaString("description"));
+    return rowMeta;
+  }
+
+  private Object[] createRow(long id) {
+    String[] countries = {"Belgium", "Netherlands", "France", null};
+    return new Object[] {
+      id,
+      countries[(int) (id % countries.length)],
+      id * 1.5,
+      new Date(1700000000000L + id),
+      id % 3 == 0 ? null : BigDecimal.valueOf(id, 2),
+      id % 2 == 0,
+      "Description of row " + id + " which is unique"
+    };
+  }
+
+  private void writeAndRead(String codec, boolean dictionary, int nrRows) throws Exception {
+    IRowMeta rowMeta = createRowMeta();
+    Path path = folder.newFile().toPath();
+
+    // Small blocks and buffers to test the boundaries
+    //
+    try (SpillFileWriter writer =
+        new SpillFileWriter(path, rowMeta, codec, dictionary, 1024, 4096)) {
+      for (long i = 0; i < nrRows; i++) {
+        writer.writeRow(createRow(i));
+      }
+      assertEquals(nrRows, writer.getRowCount());
+    }
+
+    try (SpillFileReader reader = new SpillFileReader(path, rowMeta, 4096)) {
+      for (long i = 0; i < nrRows; i++) {
+        assertArrayEquals(createRow(i), reader.readRow());
+      }
+      assertNull(reader.readRow());
+      assertNull(reader.readRow());
+    }
+  }
+
+  @Test
+  public void testNoCompression() throws Exception {
+    writeAndRead(null, false, 10000);
+    writeAndRead("None", true, 10000);
+  }
+
+  @Test
+  public void testGzip() throws Exception {
+    writeAndRead("GZip", true, 10000);
+  }
+
+  @Test
+  public void testSnappy() throws Exception {
+    writeAndRead("Snappy", true, 10000);
+    writeAndRead("Snappy", false, 10000);
+  }
+
+  @Test
+  public void testEmptyFile() throws Exception {
+    writeAndRead("Snappy", true, 0);
+  }
+
+  @Test
+  public void testBinaryStringStorage() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    ValueMetaString storageMeta = new ValueMetaString("name");
+    ValueMetaString valueMeta = new ValueMetaString("name");
+    valueMeta.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    valueMeta.setStorageMetadata(storageMeta);
+    rowMeta.addValueMeta(valueMeta);
+
+    Path path = folder.newFile().toPath();
+    try (SpillFileWriter writer = new SpillFileWriter(path, rowMeta, "Snappy", true)) {
+      writer.writeRow(new Object[] {"Hop".getBytes()});
+    }
+    try (SpillFileReader reader = new SpillFileReader(path, rowMeta)) {
+      assertArrayEquals("Hop".getBytes(), (byte[]) reader.readRow()[0]);
+      assertNull(reader.readRow());
+    }
+  }
+
+  @Test
+  public void testDictionaryMakesFilesSmaller() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("country"));
+    Path plain = folder.newFile().toPath();
+    Path encoded = folder.newFile().toPath();
+
+    try (SpillFileWriter plainWriter = new SpillFileWriter(plain, rowMeta, "None", false);
+        SpillFileWriter encodedWriter = new SpillFileWriter(encoded, rowMeta, "None", true)) {
+      for (int i = 0; i < 10000; i++) {
+        Object[] row = new Object[] {"Country number " + (i % 10)};
+        plainWriter.writeRow(row);
+        encodedWriter.writeRow(row);
+      }
+    }
+    assertTrue(Files.size(encoded) * 3 < Files.size(plain));
+  }
+
+  @Test(expected = HopException.class)
+  public void testNotASpillFile() throws Exception {
+    Path path = folder.newFile().toPath();
+    Files.write(path, "This is not a spill file".getBytes());
+    new SpillFileReader(path, createRowMeta());
+  }
+
+  @Test(expected = HopException.class)
+  public void testUnknownCodec() throws Exception {
+    new SpillFileWriter(folder.newFile().toPath(), createRowMeta(), "Unknown", true);
+  }
+
+  @Test
+  public void testCreateTempFile() throws Exception {
+    Path path = SpillFile.createTempFile(folder.getRoot().getAbsolutePath(), "spill");
+    assertTrue(Files.exists(path));
+    assertTrue(path.getFileName().toString().startsWith("spill"));
+    SpillFile.delete(path);
+    assertTrue(Files.notExists(path));
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class SingleThreadedPipelineExecutorTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    HopEnvironment.init();
+  }
+
+  @Test
+  public void testExecuteAgainAfterReset() throws Exception {
+    TransformMeta injector = new TransformMeta("Injector", "input", new InjectorMeta());
+    TransformMeta dummy = new TransformMeta("Dummy", "output", new DummyMeta());
+
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("testExecuteAgainAfterReset");
+    pipelineMeta.setPipelineType(PipelineMeta.PipelineType.SingleThreaded);
+    pipelineMeta.addTransform(injector);
+    pipelineMeta.addTransform(dummy);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(injector, dummy));
+
+    Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.prepareExecution();
+    RowProducer producer = pipeline.addRowProducer("input", 0);
+    ITransform output = pipeline.getTransform("output", 0);
+    List<Object[]> rows = new ArrayList<>();
+    output.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+            rows.add(row);
+          }
+        });
+    pipeline.startThreads();
+
+    SingleThreadedPipelineExecutor executor = new SingleThreadedPipelineExecutor(pipeline);
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+
+    for (int run = 1; run <= 3; run++) {
+      if (run > 1) {
+        assertTrue(executor.reset());
+      }
+      rows.clear();
+      for (long id = 0; id < run; id++) {
+        producer.putRow(rowMeta, new Object[] {id});
+      }
+      producer.finished();
+
+      assertTrue(executor.executeUntilFinished());
+      assertEquals(run, rows.size());
+      assertEquals(run, output.getLinesWritten());
+      assertEquals(0, executor.getResult().getNrErrors());
+    }
+
+    executor.dispose();
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.engines.localscheduled;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hop.core.HopEnvironment;
+import org.apache.hop.core.RowSetType;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironment;
+import org.apache.hop.pipeline.PipelineHopMeta;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
+import org.apache.hop.pipeline.transform.ITransform;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transforms.dummy.DummyMeta;
+import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class LocalScheduledPipelineEngineTest {
+  @ClassRule public static RestoreHopEngineEnvironment env = new RestoreHopEngineEnvironment();
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    HopEnvironment.init();
+  }
+
+  private LocalScheduledPipelineEngine createPipeline(int copies) {
+    TransformMeta injector = new TransformMeta("Injector", "input", new InjectorMeta());
+    TransformMeta middle = new TransformMeta("Dummy", "middle", new DummyMeta());
+    middle.setCopiesString(Integer.toString(copies));
+    TransformMeta output = new TransformMeta("Dummy", "output", new DummyMeta());
+
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("scheduled");
+    pipelineMeta.addTransform(injector);
+    pipelineMeta.addTransform(middle);
+    pipelineMeta.addTransform(output);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(injector, middle));
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(middle, output));
+
+    LocalScheduledPipelineEngine pipeline = new LocalScheduledPipelineEngine(pipelineMeta);
+    LocalScheduledPipelineRunConfiguration config =
+        (LocalScheduledPipelineRunConfiguration)
+            pipeline.getPipelineRunConfiguration().getEngineRunConfiguration();
+    config.setRowSetSize("10");
+    config.setRowSetType(RowSetType.RingBuffer.name());
+    config.setWorkerCount("2");
+    config.setSliceSize("3");
+    return pipeline;
+  }
+
+  private void runRows(int copies, long nrRows) throws Exception {
+    LocalScheduledPipelineEngine pipeline = createPipeline(copies);
+    pipeline.prepareExecution();
+    assertEquals(RowSetType.Blocking, pipeline.getRowSetType());
+
+    RowProducer producer = pipeline.addRowProducer("input", 0);
+    ITransform output = pipeline.getTransform("output", 0);
+    AtomicLong sum = new AtomicLong();
+    output.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+            sum.addAndGet((Long) row[0]);
+          }
+        });
+    pipeline.startThreads();
+    assertEquals(2, pipeline.getScheduler().getWorkerCount());
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    for (long id = 1; id <= nrRows; id++) {
+      producer.putRow(rowMeta, new Object[] {id});
+    }
+    producer.finished();
+
+    pipeline.waitUntilFinished();
+    assertTrue(pipeline.isFinished());
+    assertEquals(0, pipeline.getErrors());
+    assertEquals(0, pipeline.getScheduler().getNrActive());
+    assertEquals(nrRows, output.getLinesWritten());
+    assertEquals(nrRows * (nrRows + 1) / 2, sum.get());
+  }
+
+  @Test
+  public void testRowsPassThroughSmallRowSets() throws Exception {
+    runRows(1, 5000);
+  }
+
+  @Test
+  public void testMoreTransformCopiesThanWorkers() throws Exception {
+    runRows(4, 5000);
+  }
+
+  @Test
+  public void testNoRows() throws Exception {
+    runRows(1, 0);
+  }
+}
@@ -17,6 +17,7 @@
 
 package org.apache.hop.pipeline.transform;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
@@ -32,6 +33,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +50,7 @@ import org.apache.hop.core.logging.ILogChannel;
 import org.apache.hop.core.logging.ILoggingObject;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaBase;
 import org.apache.hop.core.row.value.ValueMetaInteger;
@@ -276,6 +279,90 @@ public class BaseTransformTest {
     verify(rowHandler, times(1)).putRow(iRowMeta, objects);
   }
 
+  @Test
+  public void putRowBatchWithRowHandler() throws HopException {
+    BaseTransform baseTransform =
+        new BaseTransform(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    baseTransform.setRowHandler(rowHandler);
+
+    RowBatch batch = new RowBatch(mock(IRowMeta.class), 2);
+    batch.addRow(new Object[] {"foo", "bar"});
+    baseTransform.putRowBatch(batch);
+    verify(rowHandler, times(1)).putRowBatch(batch);
+  }
+
+  @Test
+  public void putRowBatchWritesAllRows() throws Exception {
+    IRowSet rowSet = new QueueRowSet();
+
+    when(mockHelper.pipeline.isRunning()).thenReturn(true);
+    BaseTransform<ITransformMeta, ITransformData> baseTransform =
+        new BaseTransform(
+            mockHelper.transformMeta,
+            mockHelper.iTransformMeta,
+            mockHelper.iTransformData,
+            0,
+            mockHelper.pipelineMeta,
+            mockHelper.pipeline);
+    baseTransform.setStopped(false);
+    baseTransform.setRepartitioning(TransformPartitioningMeta.PARTITIONING_METHOD_NONE);
+    baseTransform.setOutputRowSets(Arrays.asList(rowSet));
+
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("integer"));
+    RowBatch batch = new RowBatch(rowMeta, 3);
+    for (long i = 0; i < 3; i++) {
+      batch.addRow(new Object[] {i});
+    }
+
+    baseTransform.putRowBatch(batch);
+
+    assertEquals(3, rowSet.size());
+    assertEquals(3, baseTransform.getLinesWritten());
+    assertEquals(0L, rowSet.getRowImmediate()[0]);
+  }
+
+  @Test
+  public void getRowBatchReadsAvailableRows() throws HopException {
+    BaseTransform baseTransformSpy =
+        spy(
+            new BaseTransform(
+                mockHelper.transformMeta,
+                mockHelper.iTransformMeta,
+                mockHelper.iTransformData,
+                0,
+                mockHelper.pipelineMeta,
+                new LocalPipelineEngine()));
+    doNothing().when(baseTransformSpy).waitUntilPipelineIsStarted();
+
+    BlockingRowSet rowSet = new BlockingRowSet(10);
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("x"));
+    for (long i = 0; i < 3; i++) {
+      rowSet.putRow(rowMeta, new Object[] {i});
+    }
+    rowSet.setDone();
+    baseTransformSpy.setInputRowSets(new ArrayList<>(List.of(rowSet)));
+
+    RowBatch batch = baseTransformSpy.getRowBatch(2);
+    assertEquals(2, batch.size());
+    assertNotNull(batch.getRowMeta());
+    assertEquals(1L, batch.getValue(1, 0));
+
+    batch = baseTransformSpy.getRowBatch(2);
+    assertEquals(1, batch.size());
+    assertEquals(2L, batch.getValue(0, 0));
+
+    assertNull(baseTransformSpy.getRowBatch(2));
+    assertEquals(3, baseTransformSpy.getLinesRead());
+  }
+
   @Test
   public void putErrorWithRowHandler() throws HopException {
     BaseTransform baseTransform =
@@ -29,4 +29,11 @@ import org.apache.hop.databases.postgresql.PostgreSqlDatabaseMeta;
     image = "cockroachdb.svg",
     documentationUrl = "/database/databases/postgresql.html")
 @GuiPlugin(id = "GUI-CockroachDatabaseMeta")
-public class CockroachDatabaseMeta extends PostgreSqlDatabaseMeta implements IDatabase {}
+public class CockroachDatabaseMeta extends PostgreSqlDatabaseMeta implements IDatabase {
+
+  /** CockroachDB doesn't accept every binary encoding of COPY, the text format is safe */
+  @Override
+  public boolean isSupportsBinaryCopy() {
+    return false;
+  }
+}
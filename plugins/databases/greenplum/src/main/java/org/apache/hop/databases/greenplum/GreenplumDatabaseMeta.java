@@ -46,4 +46,10 @@ public class GreenplumDatabaseMeta extends PostgreSqlDatabaseMeta implements IDa
   public boolean IsSupportsErrorHandlingOnBatchUpdates() {
     return false;
   }
+
+  /** Greenplum only supports the text and CSV formats of COPY */
+  @Override
+  public boolean isSupportsBinaryCopy() {
+    return false;
+  }
 }
@@ -0,0 +1,663 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.databases.postgresql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.TimeZone;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.IBulkWriter;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.util.Utils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * Streams rows into a table with COPY ... FROM STDIN. The binary format is used when every column
+ * has a type this writer can encode, the text format otherwise or when the database doesn't support
+ * the binary format. Every {@link #flush()} ends the running COPY statement.
+ */
+public class PostgreSqlCopyWriter implements IBulkWriter {
+  /** The signature at the start of the binary COPY format */
+  static final byte[] BINARY_SIGNATURE = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0
+  };
+
+  /** The number of bytes after which the buffer is sent to the server */
+  private static final int SEND_SIZE = 64 * 1024;
+
+  /** 2000-01-01, the epoch of PostgreSQL dates and timestamps */
+  private static final long PG_EPOCH_DAYS = 10957L;
+
+  private static final long PG_EPOCH_MICROS = PG_EPOCH_DAYS * 86400L * 1000000L;
+
+  private static final DateTimeFormatter TEXT_TIMESTAMP_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSSxxx");
+
+  /** The column types which the binary format supports */
+  enum ColumnType {
+    BOOL,
+    INT2,
+    INT4,
+    INT8,
+    FLOAT4,
+    FLOAT8,
+    NUMERIC,
+    TEXT,
+    JSONB,
+    BYTEA,
+    DATE,
+    TIMESTAMP,
+    TIMESTAMPTZ,
+    UUID;
+
+    /**
+     * @param typeName The PostgreSQL type name of a column
+     * @return The column type or null if the binary format of the type isn't supported
+     */
+    static ColumnType fromTypeName(String typeName) {
+      if (typeName == null) {
+        return null;
+      }
+      switch (typeName.toLowerCase()) {
+        case "bool":
+          return BOOL;
+        case "int2":
+          return INT2;
+        case "int4":
+        case "serial":
+          return INT4;
+        case "int8":
+        case "bigserial":
+          return INT8;
+        case "float4":
+          return FLOAT4;
+        case "float8":
+          return FLOAT8;
+        case "numeric":
+          return NUMERIC;
+        case "text":
+        case "varchar":
+        case "bpchar":
+        case "name":
+        case "json":
+          return TEXT;
+        case "jsonb":
+          return JSONB;
+        case "bytea":
+          return BYTEA;
+        case "date":
+          return DATE;
+        case "timestamp":
+          return TIMESTAMP;
+        case "timestamptz":
+          return TIMESTAMPTZ;
+        case "uuid":
+          return UUID;
+        default:
+          return null;
+      }
+    }
+  }
+
+  private final CopyManager copyManager;
+  private final String copySql;
+  private final IRowMeta rowMeta;
+
+  /** The types of the columns in the binary format, null for the text format */
+  private final ColumnType[] columnTypes;
+
+  /** The columns with binary strings (lazy conversion) which hold UTF-8 and can be sent as is */
+  private final boolean[] rawUtf8;
+
+  private long conversionsAvoided;
+
+  private final Buffer buffer = new Buffer(SEND_SIZE + 1024);
+  private final DataOutputStream output = new DataOutputStream(buffer);
+  private final Buffer field = new Buffer(64);
+  private final DataOutputStream fieldOutput = new DataOutputStream(field);
+
+  private CopyIn copyIn;
+
+  /**
+   * Create a COPY writer for a table.
+   *
+   * @param database The connected database
+   * @param schemaName The schema of the table
+   * @param tableName The table to write to
+   * @param rowMeta The metadata of the rows, the names are the column names
+   * @param binarySupported false if the database only supports the text format of COPY
+   * @return The writer or null if the connection isn't a PostgreSQL driver connection
+   * @throws HopDatabaseException In case of a database error
+   */
+  public static PostgreSqlCopyWriter create(
+      Database database,
+      String schemaName,
+      String tableName,
+      IRowMeta rowMeta,
+      boolean binarySupported)
+      throws HopDatabaseException {
+    Connection connection = database.getConnection();
+    CopyManager copyManager;
+    try {
+      if (connection == null || !connection.isWrapperFor(PGConnection.class)) {
+        return null;
+      }
+      copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+    } catch (SQLException e) {
+      throw new HopDatabaseException("Unable to access the COPY API of the connection", e);
+    }
+
+    DatabaseMeta databaseMeta = database.getDatabaseMeta();
+    String schemaTable =
+        databaseMeta.getQuotedSchemaTableCombination(database, schemaName, tableName);
+    StringBuilder columns = new StringBuilder();
+    for (int i = 0; i < rowMeta.size(); i++) {
+      if (i > 0) {
+        columns.append(", ");
+      }
+      columns.append(databaseMeta.quoteField(rowMeta.getValueMeta(i).getName()));
+    }
+
+    ColumnType[] columnTypes = null;
+    if (binarySupported) {
+      columnTypes = getColumnTypes(connection, schemaTable, columns.toString(), rowMeta.size());
+    }
+
+    String copySql = "COPY " + schemaTable + " (" + columns + ") FROM STDIN";
+    if (columnTypes != null) {
+      copySql += " (FORMAT BINARY)";
+    }
+    return new PostgreSqlCopyWriter(copyManager, copySql, rowMeta, columnTypes);
+  }
+
+  /**
+   * Look up the types of the target columns.
+   *
+   * @return The column types or null if one of the columns has a type we can't encode
+   */
+  private static ColumnType[] getColumnTypes(
+      Connection connection, String schemaTable, String columns, int nrColumns)
+      throws HopDatabaseException {
+    String sql = "SELECT " + columns + " FROM " + schemaTable + " WHERE 1=0";
+    try (PreparedStatement statement = connection.prepareStatement(sql);
+        ResultSet resultSet = statement.executeQuery()) {
+      ResultSetMetaData metaData = resultSet.getMetaData();
+      ColumnType[] columnTypes = new ColumnType[nrColumns];
+      for (int i = 0; i < nrColumns; i++) {
+        columnTypes[i] = ColumnType.fromTypeName(metaData.getColumnTypeName(i + 1));
+        if (columnTypes[i] == null) {
+          return null;
+        }
+      }
+      return columnTypes;
+    } catch (SQLException e) {
+      throw new HopDatabaseException("Unable to determine the column types of " + schemaTable, e);
+    }
+  }
+
+  PostgreSqlCopyWriter(
+      CopyManager copyManager, String copySql, IRowMeta rowMeta, ColumnType[] columnTypes) {
+    this.copyManager = copyManager;
+    this.copySql = copySql;
+    this.rowMeta = rowMeta;
+    this.columnTypes = columnTypes;
+    this.rawUtf8 = new boolean[rowMeta.size()];
+    for (int i = 0; i < rowMeta.size(); i++) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(i);
+      rawUtf8[i] = valueMeta.isRawBinaryString() && isUtf8(valueMeta.getStringEncoding());
+    }
+  }
+
+  private static boolean isUtf8(String encoding) {
+    if (Utils.isEmpty(encoding)) {
+      return StandardCharsets.UTF_8.equals(Charset.defaultCharset());
+    }
+    try {
+      return StandardCharsets.UTF_8.equals(Charset.forName(encoding));
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public void writeRow(Object[] row) throws HopDatabaseException {
+    try {
+      if (copyIn == null) {
+        copyIn = copyManager.copyIn(copySql);
+        if (isBinary()) {
+          output.write(BINARY_SIGNATURE);
+          output.writeInt(0); // flags
+          output.writeInt(0); // header extension length
+        }
+      }
+      if (isBinary()) {
+        writeBinaryRow(row);
+      } else {
+        writeTextRow(row);
+      }
+      if (buffer.size() >= SEND_SIZE) {
+        send();
+      }
+    } catch (SQLException | IOException | HopValueException e) {
+      throw new HopDatabaseException("Error writing a row with " + copySql, e);
+    }
+  }
+
+  void writeBinaryRow(Object[] row) throws IOException, HopValueException, HopDatabaseException {
+    output.writeShort(rowMeta.size());
+    for (int i = 0; i < rowMeta.size(); i++) {
+      IValueMeta valueMeta = rowMeta.getValueMeta(i);
+      Object value = row[i];
+      if (valueMeta.isNull(value)) {
+        output.writeInt(-1);
+        continue;
+      }
+      switch (columnTypes[i]) {
+        case BOOL:
+          output.writeInt(1);
+          output.writeByte(Boolean.TRUE.equals(valueMeta.getBoolean(value)) ? 1 : 0);
+          break;
+        case INT2:
+          output.writeInt(2);
+          output.writeShort(
+              (short) getInteger(valueMeta, value, Short.MIN_VALUE, Short.MAX_VALUE, "smallint"));
+          break;
+        case INT4:
+          output.writeInt(4);
+          output.writeInt(
+              (int) getInteger(valueMeta, value, Integer.MIN_VALUE, Integer.MAX_VALUE, "integer"));
+          break;
+        case INT8:
+          output.writeInt(8);
+          output.writeLong(valueMeta.getInteger(value));
+          break;
+        case FLOAT4:
+          output.writeInt(4);
+          output.writeFloat(getFloat(valueMeta, value));
+          break;
+        case FLOAT8:
+          output.writeInt(8);
+          output.writeDouble(valueMeta.getNumber(value));
+          break;
+        case NUMERIC:
+          field.reset();
+          writeNumeric(fieldOutput, valueMeta.getBigNumber(value));
+          writeField();
+          break;
+        case TEXT:
+          if (rawUtf8[i]) {
+            writeBytes((byte[]) value);
+            conversionsAvoided++;
+          } else {
+            writeBytes(valueMeta.getString(value).getBytes(StandardCharsets.UTF_8));
+          }
+          break;
+        case JSONB:
+          byte[] json = valueMeta.getString(value).getBytes(StandardCharsets.UTF_8);
+          output.writeInt(json.length + 1);
+          output.writeByte(1); // jsonb version
+          output.write(json);
+          break;
+        case BYTEA:
+          writeBytes(valueMeta.getBinary(value));
+          break;
+        case DATE:
+          output.writeInt(4);
+          long localDays = Math.floorDiv(getLocalMicros(valueMeta.getDate(value)), 86400000000L);
+          output.writeInt((int) (localDays - PG_EPOCH_DAYS));
+          break;
+        case TIMESTAMP:
+          output.writeInt(8);
+          output.writeLong(getLocalMicros(valueMeta.getDate(value)) - PG_EPOCH_MICROS);
+          break;
+        case TIMESTAMPTZ:
+          output.writeInt(8);
+          output.writeLong(getEpochMicros(valueMeta.getDate(value)) - PG_EPOCH_MICROS);
+          break;
+        case UUID:
+          java.util.UUID uuid = java.util.UUID.fromString(valueMeta.getString(value));
+          output.writeInt(16);
+          output.writeLong(uuid.getMostSignificantBits());
+          output.writeLong(uuid.getLeastSignificantBits());
+          break;
+        default:
+          throw new IOException("Unsupported column type " + columnTypes[i]);
+      }
+    }
+  }
+
+  /** The integer value of a field, checked against the range of the column type */
+  private static long getInteger(
+      IValueMeta valueMeta, Object value, long min, long max, String columnType)
+      throws HopValueException, HopDatabaseException {
+    long number = valueMeta.getInteger(value);
+    if (number < min || number > max) {
+      throw new HopDatabaseException(
+          "Value "
+              + number
+              + " of field '"
+              + valueMeta.getName()
+              + "' is out of range for a column of type "
+              + columnType);
+    }
+    return number;
+  }
+
+  /** The number value of a field as a float, which may round it but not overflow */
+  private static float getFloat(IValueMeta valueMeta, Object value)
+      throws HopValueException, HopDatabaseException {
+    double number = valueMeta.getNumber(value);
+    if (!Double.isInfinite(number) && Math.abs(number) > Float.MAX_VALUE) {
+      throw new HopDatabaseException(
+          "Value "
+              + number
+              + " of field '"
+              + valueMeta.getName()
+              + "' is out of range for a column of type real");
+    }
+    return (float) number;
+  }
+
+  private void writeBytes(byte[] bytes) throws IOException {
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private void writeField() throws IOException {
+    output.writeInt(field.size());
+    output.write(field.getBuffer(), 0, field.size());
+  }
+
+  /** Microseconds since 1970-01-01 UTC, keeping the microseconds of a timestamp */
+  static long getEpochMicros(Date date) {
+    long micros = Math.floorDiv(date.getTime(), 1000L) * 1000000L;
+    if (date instanceof Timestamp timestamp) {
+      return micros + timestamp.getNanos() / 1000;
+    }
+    return micros + Math.floorMod(date.getTime(), 1000L) * 1000L;
+  }
+
+  /** Microseconds since 1970-01-01 of the wall clock time in the default time zone */
+  static long getLocalMicros(Date date) {
+    long offset = TimeZone.getDefault().getOffset(date.getTime());
+    return getEpochMicros(date) + offset * 1000L;
+  }
+
+  /**
+   * Write a number in the binary format of numeric: base 10000 digits with a weight, a sign and the
+   * display scale.
+   */
+  static void writeNumeric(DataOutputStream out, BigDecimal value) throws IOException {
+    BigDecimal abs = value.abs();
+    int displayScale = Math.max(0, abs.scale());
+    if (abs.scale() < 0) {
+      abs = abs.setScale(0);
+    }
+    String plain = abs.toPlainString();
+    int point = plain.indexOf('.');
+    String integerPart = point < 0 ? plain : plain.substring(0, point);
+    String fractionPart = point < 0 ? "" : plain.substring(point + 1);
+    if ("0".equals(integerPart)) {
+      integerPart = "";
+    }
+    int integerPadding = (4 - integerPart.length() % 4) % 4;
+    int fractionPadding = (4 - fractionPart.length() % 4) % 4;
+    String digits =
+        "0".repeat(integerPadding) + integerPart + fractionPart + "0".repeat(fractionPadding);
+
+    short[] groups = new short[digits.length() / 4];
+    for (int i = 0; i < groups.length; i++) {
+      groups[i] = Short.parseShort(digits.substring(i * 4, i * 4 + 4));
+    }
+    int weight = (integerPadding + integerPart.length()) / 4 - 1;
+    int start = 0;
+    while (start < groups.length && groups[start] == 0) {
+      start++;
+      weight--;
+    }
+    int end = groups.length;
+    while (end > start && groups[end - 1] == 0) {
+      end--;
+    }
+    if (start == end) {
+      weight = 0;
+    }
+
+    out.writeShort(end - start);
+    out.writeShort(weight);
+    out.writeShort(value.signum() < 0 ? 0x4000 : 0x0000);
+    out.writeShort(displayScale);
+    for (int i = start; i < end; i++) {
+      out.writeShort(groups[i]);
+    }
+  }
+
+  void writeTextRow(Object[] row) throws IOException, HopValueException {
+    for (int i = 0; i < rowMeta.size(); i++) {
+      if (i > 0) {
+        output.writeByte('\t');
+      }
+      IValueMeta valueMeta = rowMeta.getValueMeta(i);
+      Object value = row[i];
+      if (valueMeta.isNull(value)) {
+        output.writeBytes("\\N");
+        continue;
+      }
+      if (rawUtf8[i]) {
+        writeEscapedText((byte[]) value);
+        conversionsAvoided++;
+        continue;
+      }
+      output.write(escapeText(getTextValue(valueMeta, value)).getBytes(StandardCharsets.UTF_8));
+    }
+    output.writeByte('\n');
+  }
+
+  /** The value in a form PostgreSQL parses for the type of the column */
+  static String getTextValue(IValueMeta valueMeta, Object value) throws HopValueException {
+    switch (valueMeta.getType()) {
+      case IValueMeta.TYPE_INTEGER:
+        return Long.toString(valueMeta.getInteger(value));
+      case IValueMeta.TYPE_NUMBER:
+        double number = valueMeta.getNumber(value);
+        if (Double.isNaN(number) || Double.isInfinite(number)) {
+          // PostgreSQL spells these NaN, Infinity and -Infinity like Java does
+          return Double.toString(number);
+        }
+        // Without an exponent, which not every column type accepts
+        return BigDecimal.valueOf(number).stripTrailingZeros().toPlainString();
+      case IValueMeta.TYPE_BIGNUMBER:
+        return valueMeta.getBigNumber(value).toPlainString();
+      case IValueMeta.TYPE_BOOLEAN:
+        return Boolean.TRUE.equals(valueMeta.getBoolean(value)) ? "t" : "f";
+      case IValueMeta.TYPE_DATE:
+      case IValueMeta.TYPE_TIMESTAMP:
+        return TEXT_TIMESTAMP_FORMAT.format(
+            valueMeta.getDate(value).toInstant().atZone(ZoneId.systemDefault()));
+      case IValueMeta.TYPE_BINARY:
+        StringBuilder hex = new StringBuilder("\\x");
+        for (byte b : valueMeta.getBinary(value)) {
+          hex.append(Character.forDigit((b >> 4) & 0xF, 16))
+              .append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+      default:
+        return valueMeta.getString(value);
+    }
+  }
+
+  /** Escape the characters with a special meaning in the text format */
+  static String escapeText(String value) {
+    StringBuilder escaped = null;
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      String replacement;
+      switch (c) {
+        case '\\':
+          replacement = "\\\\";
+          break;
+        case '\t':
+          replacement = "\\t";
+          break;
+        case '\n':
+          replacement = "\\n";
+          break;
+        case '\r':
+          replacement = "\\r";
+          break;
+        default:
+          replacement = null;
+      }
+      if (replacement != null && escaped == null) {
+        escaped = new StringBuilder(value.length() + 16);
+        escaped.append(value, 0, i);
+      }
+      if (escaped != null) {
+        if (replacement != null) {
+          escaped.append(replacement);
+        } else {
+          escaped.append(c);
+        }
+      }
+    }
+    return escaped == null ? value : escaped.toString();
+  }
+
+  /**
+   * Escape UTF-8 bytes like {@link #escapeText(String)}: the special characters are ASCII, which
+   * never occur inside a multi-byte UTF-8 sequence.
+   */
+  void writeEscapedText(byte[] value) throws IOException {
+    for (byte b : value) {
+      switch (b) {
+        case '\\':
+          output.writeBytes("\\\\");
+          break;
+        case '\t':
+          output.writeBytes("\\t");
+          break;
+        case '\n':
+          output.writeBytes("\\n");
+          break;
+        case '\r':
+          output.writeBytes("\\r");
+          break;
+        default:
+          output.writeByte(b);
+      }
+    }
+  }
+
+  private void send() throws SQLException {
+    copyIn.writeToCopy(buffer.getBuffer(), 0, buffer.size());
+    buffer.reset();
+  }
+
+  @Override
+  public long flush() throws HopDatabaseException {
+    if (copyIn == null) {
+      return 0L;
+    }
+    try {
+      if (isBinary()) {
+        output.writeShort(-1); // file trailer
+      }
+      send();
+      return copyIn.endCopy();
+    } catch (SQLException | IOException e) {
+      throw new HopDatabaseException("Error finishing " + copySql, e);
+    } finally {
+      copyIn = null;
+      buffer.reset();
+    }
+  }
+
+  @Override
+  public void abort() {
+    buffer.reset();
+    if (copyIn != null) {
+      try {
+        if (copyIn.isActive()) {
+          copyIn.cancelCopy();
+        }
+      } catch (SQLException e) {
+        // Ignore, the transaction is rolled back anyway
+      }
+      copyIn = null;
+    }
+  }
+
+  @Override
+  public long getConversionsAvoided() {
+    return conversionsAvoided;
+  }
+
+  @Override
+  public String getDescription() {
+    return isBinary() ? "COPY in binary format" : "COPY in text format";
+  }
+
+  @Override
+  public void close() {
+    abort();
+  }
+
+  /**
+   * @return true if the binary format is used, false for the text format
+   */
+  public boolean isBinary() {
+    return columnTypes != null;
+  }
+
+  /**
+   * @return The COPY statement
+   */
+  public String getCopySql() {
+    return copySql;
+  }
+
+  /** A byte array output stream which gives access to its buffer to avoid copies */
+  private static class Buffer extends ByteArrayOutputStream {
+    Buffer(int size) {
+      super(size);
+    }
+
+    byte[] getBuffer() {
+      return buf;
+    }
+  }
+}
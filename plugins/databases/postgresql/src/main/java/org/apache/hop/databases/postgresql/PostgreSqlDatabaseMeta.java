@@ -19,10 +19,14 @@ package org.apache.hop.databases.postgresql;
 
 import org.apache.hop.core.Const;
 import org.apache.hop.core.database.BaseDatabaseMeta;
+import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.DatabaseMetaPlugin;
+import org.apache.hop.core.database.IBulkWriter;
 import org.apache.hop.core.database.IDatabase;
+import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 
 /** Contains PostgreSQL specific information through static final members */
@@ -1066,6 +1070,22 @@ public class PostgreSqlDatabaseMeta extends BaseDatabaseMeta implements IDatabas
     return false;
   }
 
+  /** Stream the rows with COPY ... FROM STDIN */
+  @Override
+  public IBulkWriter createBulkWriter(
+      Database database, String schemaName, String tableName, IRowMeta rowMeta)
+      throws HopDatabaseException {
+    return PostgreSqlCopyWriter.create(
+        database, schemaName, tableName, rowMeta, isSupportsBinaryCopy());
+  }
+
+  /**
+   * @return true if COPY supports the binary format, false to always use the text format
+   */
+  public boolean isSupportsBinaryCopy() {
+    return true;
+  }
+
   /**
    * PG needs the extra E in front of the string before it allows you to quote it. Imagine that.
    *
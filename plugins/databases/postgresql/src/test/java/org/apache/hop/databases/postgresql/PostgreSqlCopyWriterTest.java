@@ -0,0 +1,258 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.databases.postgresql;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Calendar;
+import org.apache.hop.core.exception.HopDatabaseException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.databases.postgresql.PostgreSqlCopyWriter.ColumnType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+class PostgreSqlCopyWriterTest {
+  private CopyManager copyManager;
+  private CopyIn copyIn;
+  private ByteArrayOutputStream sent;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    copyManager = mock(CopyManager.class);
+    copyIn = mock(CopyIn.class);
+    doReturn(copyIn).when(copyManager).copyIn(any(String.class));
+    sent = new ByteArrayOutputStream();
+    doAnswer(
+            invocation -> {
+              byte[] buffer = invocation.getArgument(0);
+              sent.write(buffer, invocation.getArgument(1), invocation.getArgument(2));
+              return null;
+            })
+        .when(copyIn)
+        .writeToCopy(any(byte[].class), anyInt(), anyInt());
+  }
+
+  private static short[] numeric(BigDecimal value) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    PostgreSqlCopyWriter.writeNumeric(new DataOutputStream(bytes), value);
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    short[] shorts = new short[bytes.size() / 2];
+    for (int i = 0; i < shorts.length; i++) {
+      shorts[i] = input.readShort();
+    }
+    return shorts;
+  }
+
+  @Test
+  void testNumeric() throws Exception {
+    // ndigits, weight, sign, dscale, digits...
+    assertArrayEquals(
+        new short[] {3, 1, 0, 3, 1, 2345, 6780}, numeric(new BigDecimal("12345.678")));
+    assertArrayEquals(new short[] {1, -1, 0, 4, 1}, numeric(new BigDecimal("0.0001")));
+    assertArrayEquals(new short[] {1, 2, 0x4000, 0, 1}, numeric(new BigDecimal("-100000000")));
+    assertArrayEquals(new short[] {0, 0, 0, 2}, numeric(new BigDecimal("0.00")));
+    assertArrayEquals(new short[] {1, 0, 0, 0, 1000}, numeric(new BigDecimal("1E+3")));
+  }
+
+  @Test
+  void testEscapeText() {
+    assertEquals("plain", PostgreSqlCopyWriter.escapeText("plain"));
+    assertEquals("a\\tb\\nc\\rd\\\\e", PostgreSqlCopyWriter.escapeText("a\tb\nc\rd\\e"));
+  }
+
+  @Test
+  void testTextFormat() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+    rowMeta.addValueMeta(new ValueMetaBinary("data"));
+
+    PostgreSqlCopyWriter writer = new PostgreSqlCopyWriter(copyManager, "COPY t", rowMeta, null);
+    writer.writeRow(new Object[] {1L, "tab\there", true, new byte[] {0x0A, (byte) 0xFF}});
+    writer.writeRow(new Object[] {2L, null, false, null});
+    doReturn(2L).when(copyIn).endCopy();
+    assertEquals(2L, writer.flush());
+
+    assertEquals(
+        "1\ttab\\there\tt\t\\\\x0aff\n2\t\\N\tf\t\\N\n", sent.toString(StandardCharsets.UTF_8));
+    verify(copyManager).copyIn("COPY t");
+  }
+
+  @Test
+  void testTextNumbers() throws Exception {
+    ValueMetaNumber number = new ValueMetaNumber("amount");
+    assertEquals("12345678901.5", PostgreSqlCopyWriter.getTextValue(number, 12345678901.5));
+    assertEquals("0.00001", PostgreSqlCopyWriter.getTextValue(number, 0.00001));
+    assertEquals("-2.5", PostgreSqlCopyWriter.getTextValue(number, -2.5));
+    assertEquals("NaN", PostgreSqlCopyWriter.getTextValue(number, Double.NaN));
+    assertEquals("-Infinity", PostgreSqlCopyWriter.getTextValue(number, Double.NEGATIVE_INFINITY));
+  }
+
+  @Test
+  void testBinaryOutOfRange() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("small"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+
+    PostgreSqlCopyWriter writer =
+        new PostgreSqlCopyWriter(
+            copyManager,
+            "COPY t",
+            rowMeta,
+            new ColumnType[] {ColumnType.INT2, ColumnType.INT4, ColumnType.FLOAT4});
+    writer.writeRow(new Object[] {-32768L, 2147483647L, 1.5});
+    assertThrows(HopDatabaseException.class, () -> writer.writeRow(new Object[] {32768L, 1L, 1.5}));
+    assertThrows(
+        HopDatabaseException.class, () -> writer.writeRow(new Object[] {1L, 2147483648L, 1.5}));
+    assertThrows(HopDatabaseException.class, () -> writer.writeRow(new Object[] {1L, 1L, 1e39}));
+  }
+
+  @Test
+  void testBinaryFormat() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaDate("day"));
+
+    Calendar calendar = Calendar.getInstance();
+    calendar.clear();
+    calendar.set(2000, Calendar.JANUARY, 3);
+
+    PostgreSqlCopyWriter writer =
+        new PostgreSqlCopyWriter(
+            copyManager,
+            "COPY t",
+            rowMeta,
+            new ColumnType[] {ColumnType.INT4, ColumnType.TEXT, ColumnType.DATE});
+    assertTrue(writer.isBinary());
+    writer.writeRow(new Object[] {7L, "Hop", calendar.getTime()});
+    writer.writeRow(new Object[] {8L, null, null});
+    writer.flush();
+
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(sent.toByteArray()));
+    byte[] signature = new byte[PostgreSqlCopyWriter.BINARY_SIGNATURE.length];
+    input.readFully(signature);
+    assertArrayEquals(PostgreSqlCopyWriter.BINARY_SIGNATURE, signature);
+    assertEquals(0, input.readInt());
+    assertEquals(0, input.readInt());
+
+    // First row
+    assertEquals(3, input.readShort());
+    assertEquals(4, input.readInt());
+    assertEquals(7, input.readInt());
+    assertEquals(3, input.readInt());
+    byte[] name = new byte[3];
+    input.readFully(name);
+    assertEquals("Hop", new String(name, StandardCharsets.UTF_8));
+    assertEquals(4, input.readInt());
+    assertEquals(2, input.readInt()); // days since 2000-01-01
+
+    // Second row
+    assertEquals(3, input.readShort());
+    assertEquals(4, input.readInt());
+    assertEquals(8, input.readInt());
+    assertEquals(-1, input.readInt());
+    assertEquals(-1, input.readInt());
+
+    // Trailer
+    assertEquals(-1, input.readShort());
+    assertEquals(-1, input.read());
+  }
+
+  @Test
+  void testLazyConversionStrings() throws Exception {
+    ValueMetaString storageMeta = new ValueMetaString("name");
+    storageMeta.setStringEncoding("UTF-8");
+    ValueMetaString valueMeta = new ValueMetaString("name");
+    valueMeta.setStringEncoding("UTF-8");
+    valueMeta.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    valueMeta.setStorageMetadata(storageMeta);
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(valueMeta);
+
+    PostgreSqlCopyWriter writer = new PostgreSqlCopyWriter(copyManager, "COPY t", rowMeta, null);
+    writer.writeRow(new Object[] {"caf\u00e9\there".getBytes(StandardCharsets.UTF_8)});
+    writer.writeRow(new Object[] {null});
+    writer.flush();
+
+    assertEquals("caf\u00e9\\there\n\\N\n", sent.toString(StandardCharsets.UTF_8));
+    assertEquals(1L, writer.getConversionsAvoided());
+    assertEquals(0L, valueMeta.getNumberOfBinaryStringConversions());
+
+    sent.reset();
+    writer =
+        new PostgreSqlCopyWriter(
+            copyManager, "COPY t", rowMeta, new ColumnType[] {ColumnType.TEXT});
+    writer.writeRow(new Object[] {"Hop".getBytes(StandardCharsets.UTF_8)});
+    writer.flush();
+    assertEquals(1L, writer.getConversionsAvoided());
+    assertEquals(0L, valueMeta.getNumberOfBinaryStringConversions());
+  }
+
+  @Test
+  void testColumnTypes() {
+    assertEquals(ColumnType.INT8, ColumnType.fromTypeName("int8"));
+    assertEquals(ColumnType.TEXT, ColumnType.fromTypeName("VARCHAR"));
+    assertEquals(ColumnType.TIMESTAMPTZ, ColumnType.fromTypeName("timestamptz"));
+    assertNull(ColumnType.fromTypeName("geometry"));
+    assertNull(ColumnType.fromTypeName(null));
+  }
+
+  @Test
+  void testAbort() throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    doReturn(true).when(copyIn).isActive();
+
+    PostgreSqlCopyWriter writer = new PostgreSqlCopyWriter(copyManager, "COPY t", rowMeta, null);
+    writer.writeRow(new Object[] {"Hop"});
+    writer.abort();
+
+    verify(copyIn).cancelCopy();
+    assertEquals(0L, writer.flush());
+    assertEquals(0, sent.size());
+  }
+}
@@ -16,9 +16,12 @@
  */
 package org.apache.hop.databases.redshift;
 
+import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.DatabaseMetaPlugin;
+import org.apache.hop.core.database.IBulkWriter;
 import org.apache.hop.core.gui.plugin.GuiPlugin;
+import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.databases.postgresql.PostgreSqlDatabaseMeta;
 
 @DatabaseMetaPlugin(
@@ -80,4 +83,16 @@ public class RedshiftDatabaseMeta extends PostgreSqlDatabaseMeta {
   public boolean isSupportsSetMaxRows() {
     return false;
   }
+
+  /**
+   * Redshift can't COPY from the client, only from S3 and similar sources. Rows are inserted with
+   * JDBC batches.
+   *
+   * @return null
+   */
+  @Override
+  public IBulkWriter createBulkWriter(
+      Database database, String schemaName, String tableName, IRowMeta rowMeta) {
+    return null;
+  }
 }
@@ -0,0 +1,500 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.coder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.CustomCoder;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * A row coder which encodes against the field types of a fixed {@link IRowMeta}. The types are
+ * carried once by the coder of a PCollection instead of being written with every row like {@link
+ * HopRowCoder} does.
+ *
+ * <p>Every row is written as the varint length of the payload followed by the payload:
+ *
+ * <ul>
+ *   <li>The format version
+ *   <li>The varint number of values plus one, 0 for a null row
+ *   <li>The kind of every value, two bits per value: typed, null or tagged
+ *   <li>The non-null values
+ * </ul>
+ *
+ * <p>Typed values use the type of the row metadata: varint (zigzag) integers, dates and timestamps,
+ * 8 byte numbers, length prefixed UTF-8 strings and binaries, and big numbers as scale and unscaled
+ * bytes. A value which doesn't match the type of its field, or which is beyond the fields of the
+ * row metadata, is tagged: its type is written before it. Internet addresses and Avro records are
+ * encoded with {@link HopRowCoder}.
+ *
+ * <p>A decoder rejects rows of a format version it doesn't know.
+ */
+public class HopRowSchemaCoder extends CustomCoder<HopRow> {
+
+  /** The version of the format of the encoded rows */
+  public static final byte FORMAT_VERSION = 1;
+
+  static final int KIND_TYPED = 0;
+  static final int KIND_NULL = 1;
+  static final int KIND_TAGGED = 2;
+
+  /** The Hop data types of the fields */
+  private final int[] types;
+
+  private static final ThreadLocal<Buffer> ENCODE_BUFFER =
+      ThreadLocal.withInitial(() -> new Buffer(1024));
+  private static final ThreadLocal<Buffer> DECODE_BUFFER =
+      ThreadLocal.withInitial(() -> new Buffer(1024));
+
+  public HopRowSchemaCoder(int[] types) {
+    this.types = types == null ? new int[0] : types.clone();
+  }
+
+  /**
+   * Create a coder for rows with the given layout.
+   *
+   * @param rowMeta The metadata of the rows in the PCollection
+   * @return A new coder
+   */
+  public static HopRowSchemaCoder of(IRowMeta rowMeta) {
+    int[] types = new int[rowMeta.size()];
+    for (int i = 0; i < types.length; i++) {
+      types[i] = rowMeta.getValueMeta(i).getType();
+    }
+    return new HopRowSchemaCoder(types);
+  }
+
+  @Override
+  public void encode(HopRow hopRow, OutputStream outStream) throws IOException {
+    Buffer payload = ENCODE_BUFFER.get();
+    payload.reset();
+
+    payload.write(FORMAT_VERSION);
+    Object[] row = hopRow.getRow();
+    if (row == null) {
+      payload.writeVarInt(0);
+    } else {
+      int length = hopRow.length();
+      payload.writeVarInt(length + 1);
+
+      // The kinds of the values, 4 per byte
+      //
+      int kindsOffset = payload.size();
+      payload.reserve((length + 3) / 4);
+      for (int i = 0; i < length; i++) {
+        Object value = row[i];
+        int kind;
+        if (value == null) {
+          kind = KIND_NULL;
+        } else if (i < types.length && matches(types[i], value)) {
+          kind = KIND_TYPED;
+          writeValue(payload, types[i], value);
+        } else {
+          kind = KIND_TAGGED;
+          int type = HopRowCoder.getObjectType(value);
+          payload.writeVarInt(type);
+          writeValue(payload, type, value);
+        }
+        payload.getBuffer()[kindsOffset + i / 4] |= (byte) (kind << ((i % 4) * 2));
+      }
+    }
+
+    writeVarInt(outStream, payload.size());
+    outStream.write(payload.getBuffer(), 0, payload.size());
+  }
+
+  @Override
+  public HopRow decode(InputStream inStream) throws IOException {
+    int size = readVarInt(inStream);
+    Buffer payload = DECODE_BUFFER.get();
+    payload.fill(inStream, size);
+
+    byte version = payload.readByte();
+    if (version != FORMAT_VERSION) {
+      throw new CoderException(
+          "Unsupported Hop row format version "
+              + version
+              + ", this coder reads version "
+              + FORMAT_VERSION);
+    }
+    int length = payload.readVarInt() - 1;
+    if (length < 0) {
+      return new HopRow(null);
+    }
+
+    Object[] row = new Object[length];
+    int kindsOffset = payload.position();
+    payload.skip((length + 3) / 4);
+    for (int i = 0; i < length; i++) {
+      int kind = (payload.getBuffer()[kindsOffset + i / 4] >> ((i % 4) * 2)) & 0x03;
+      switch (kind) {
+        case KIND_NULL:
+          break;
+        case KIND_TYPED:
+          if (i >= types.length) {
+            throw new CoderException(
+                "The encoded Hop row has more typed values than the " + types.length + " fields");
+          }
+          row[i] = readValue(payload, types[i]);
+          break;
+        case KIND_TAGGED:
+          row[i] = readValue(payload, payload.readVarInt());
+          break;
+        default:
+          throw new CoderException("Unknown kind of value " + kind + " at index " + i);
+      }
+    }
+    if (payload.position() != size) {
+      throw new CoderException("The encoded Hop row doesn't match the row layout of this coder");
+    }
+    return new HopRow(row, length);
+  }
+
+  @Override
+  public void verifyDeterministic() {
+    // Same as HopRowCoder
+  }
+
+  /**
+   * @return The Hop data types of the fields
+   */
+  public int[] getTypes() {
+    return types.clone();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (other == null || getClass() != other.getClass()) {
+      return false;
+    }
+    return Arrays.equals(types, ((HopRowSchemaCoder) other).types);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(types);
+  }
+
+  /** See if the value can be written without a tag for the given field type */
+  private static boolean matches(int type, Object value) {
+    return switch (type) {
+      case IValueMeta.TYPE_STRING -> value instanceof String;
+      case IValueMeta.TYPE_INTEGER -> value instanceof Long;
+      case IValueMeta.TYPE_NUMBER -> value instanceof Double;
+      case IValueMeta.TYPE_DATE -> value instanceof Date && !(value instanceof Timestamp);
+      case IValueMeta.TYPE_TIMESTAMP -> value instanceof Timestamp;
+      case IValueMeta.TYPE_BOOLEAN -> value instanceof Boolean;
+      case IValueMeta.TYPE_BIGNUMBER -> value instanceof BigDecimal;
+      case IValueMeta.TYPE_BINARY -> value instanceof byte[];
+      default -> false;
+    };
+  }
+
+  private static void writeValue(Buffer out, int type, Object value) throws IOException {
+    switch (type) {
+      case IValueMeta.TYPE_STRING:
+        out.writeUtf8((String) value);
+        break;
+      case IValueMeta.TYPE_INTEGER:
+        out.writeVarLong(zigZag((Long) value));
+        break;
+      case IValueMeta.TYPE_NUMBER:
+        out.writeLong(Double.doubleToLongBits((Double) value));
+        break;
+      case IValueMeta.TYPE_DATE:
+        out.writeVarLong(zigZag(((Date) value).getTime()));
+        break;
+      case IValueMeta.TYPE_TIMESTAMP:
+        Timestamp timestamp = (Timestamp) value;
+        out.writeVarLong(zigZag(timestamp.getTime()));
+        out.writeVarInt(timestamp.getNanos());
+        break;
+      case IValueMeta.TYPE_BOOLEAN:
+        out.write(((Boolean) value) ? 1 : 0);
+        break;
+      case IValueMeta.TYPE_BIGNUMBER:
+        BigDecimal bigDecimal = (BigDecimal) value;
+        out.writeVarLong(zigZag(bigDecimal.scale()));
+        out.writeBytes(bigDecimal.unscaledValue().toByteArray());
+        break;
+      case IValueMeta.TYPE_BINARY:
+        out.writeBytes((byte[]) value);
+        break;
+      default:
+        // Internet addresses and Avro records are rare enough to let the classic coder handle them
+        //
+        Buffer classic = new Buffer(256);
+        new HopRowCoder().encode(new HopRow(new Object[] {value}), classic);
+        out.writeVarInt(classic.size());
+        out.write(classic.getBuffer(), 0, classic.size());
+        break;
+    }
+  }
+
+  private static Object readValue(Buffer in, int type) throws IOException {
+    switch (type) {
+      case IValueMeta.TYPE_STRING:
+        return in.readUtf8();
+      case IValueMeta.TYPE_INTEGER:
+        return unZigZag(in.readVarLong());
+      case IValueMeta.TYPE_NUMBER:
+        return Double.longBitsToDouble(in.readLong());
+      case IValueMeta.TYPE_DATE:
+        return new Date(unZigZag(in.readVarLong()));
+      case IValueMeta.TYPE_TIMESTAMP:
+        Timestamp timestamp = new Timestamp(unZigZag(in.readVarLong()));
+        timestamp.setNanos(in.readVarInt());
+        return timestamp;
+      case IValueMeta.TYPE_BOOLEAN:
+        return in.readByte() != 0;
+      case IValueMeta.TYPE_BIGNUMBER:
+        int scale = (int) unZigZag(in.readVarLong());
+        return new BigDecimal(new BigInteger(in.readBytes()), scale);
+      case IValueMeta.TYPE_BINARY:
+        return in.readBytes();
+      case IValueMeta.TYPE_INET, IValueMeta.TYPE_AVRO:
+        byte[] classic = in.readBytes();
+        return new HopRowCoder().decode(new ByteArrayInputStream(classic)).getRow()[0];
+      default:
+        throw new CoderException("Data type not supported yet: " + type);
+    }
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  static void writeVarInt(OutputStream out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  static int readVarInt(InputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        throw new CoderException("Unexpected end of stream while reading a Hop row");
+      }
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new CoderException("Malformed varint while reading a Hop row");
+  }
+
+  /**
+   * A growable byte buffer to encode a row into or to decode a row from. Every thread gets its own
+   * buffers so a row doesn't cause any allocations besides its values.
+   */
+  static final class Buffer extends OutputStream {
+    private byte[] data;
+    private int size;
+    private int position;
+
+    Buffer(int capacity) {
+      data = new byte[capacity];
+    }
+
+    byte[] getBuffer() {
+      return data;
+    }
+
+    int size() {
+      return size;
+    }
+
+    int position() {
+      return position;
+    }
+
+    void reset() {
+      size = 0;
+      position = 0;
+    }
+
+    private void ensureCapacity(int extra) {
+      if (size + extra > data.length) {
+        data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+      }
+    }
+
+    /** Reserve zeroed bytes, used for the value kinds which are filled in later */
+    void reserve(int count) {
+      ensureCapacity(count);
+      Arrays.fill(data, size, size + count, (byte) 0);
+      size += count;
+      position = size;
+    }
+
+    void skip(int count) throws CoderException {
+      require(count);
+      position += count;
+    }
+
+    @Override
+    public void write(int b) {
+      ensureCapacity(1);
+      data[size++] = (byte) b;
+      position = size;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+      ensureCapacity(length);
+      System.arraycopy(bytes, offset, data, size, length);
+      size += length;
+      position = size;
+    }
+
+    void writeVarInt(int value) {
+      ensureCapacity(5);
+      while ((value & ~0x7F) != 0) {
+        data[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      data[size++] = (byte) value;
+      position = size;
+    }
+
+    void writeVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        data[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      data[size++] = (byte) value;
+      position = size;
+    }
+
+    void writeLong(long value) {
+      ensureCapacity(8);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        data[size++] = (byte) (value >>> shift);
+      }
+      position = size;
+    }
+
+    void writeBytes(byte[] bytes) {
+      writeVarInt(bytes.length);
+      write(bytes, 0, bytes.length);
+    }
+
+    /** Encode an ASCII string straight into the buffer, without an intermediate byte array */
+    void writeUtf8(String string) {
+      int length = string.length();
+      for (int i = 0; i < length; i++) {
+        if (string.charAt(i) >= 0x80) {
+          writeBytes(string.getBytes(StandardCharsets.UTF_8));
+          return;
+        }
+      }
+      writeVarInt(length);
+      ensureCapacity(length);
+      for (int i = 0; i < length; i++) {
+        data[size++] = (byte) string.charAt(i);
+      }
+      position = size;
+    }
+
+    /** Read the given number of bytes from the stream to decode them */
+    void fill(InputStream in, int count) throws IOException {
+      reset();
+      ensureCapacity(count);
+      int read = in.readNBytes(data, 0, count);
+      if (read != count) {
+        throw new CoderException("Unexpected end of stream while reading a Hop row");
+      }
+      size = count;
+    }
+
+    private void require(int count) throws CoderException {
+      if (position + count > size) {
+        throw new CoderException("The encoded Hop row is truncated");
+      }
+    }
+
+    byte readByte() throws CoderException {
+      require(1);
+      return data[position++];
+    }
+
+    int readVarInt() throws CoderException {
+      return (int) readVarLong();
+    }
+
+    long readVarLong() throws CoderException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        byte b = readByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new CoderException("Malformed varint in encoded Hop row");
+    }
+
+    long readLong() throws CoderException {
+      require(8);
+      long value = 0;
+      for (int i = 0; i < 8; i++) {
+        value = (value << 8) | (data[position++] & 0xFF);
+      }
+      return value;
+    }
+
+    byte[] readBytes() throws CoderException {
+      int length = readVarInt();
+      require(length);
+      byte[] bytes = Arrays.copyOfRange(data, position, position + length);
+      position += length;
+      return bytes;
+    }
+
+    String readUtf8() throws CoderException {
+      int length = readVarInt();
+      require(length);
+      String string = new String(data, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return string;
+    }
+  }
+}
@@ -37,6 +37,7 @@ import org.apache.beam.sdk.values.PCollectionList;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.beam.core.HopRow;
 import org.apache.hop.beam.core.coder.HopRowCoder;
+import org.apache.hop.beam.core.coder.HopRowSchemaCoder;
 import org.apache.hop.beam.core.util.HopBeamUtil;
 import org.apache.hop.beam.engines.HopPipelineExecutionOptions;
 import org.apache.hop.beam.engines.IBeamPipelineEngineRunConfiguration;
@@ -365,6 +366,9 @@ public class HopPipelineMetaToBeamPipelineConverter {
                 + transformMeta.getName());
       }
 
+      Map<String, PCollection<HopRow>> previousCollections = new HashMap<>(transformCollectionMap);
+      IRowMeta outputRowMeta = pipelineMeta.getTransformFields(variables, transformMeta);
+
       transformHandler.handleTransform(
           log,
           variables,
@@ -376,10 +380,13 @@ public class HopPipelineMetaToBeamPipelineConverter {
           transformMeta,
           transformCollectionMap,
           pipeline,
-          pipelineMeta.getTransformFields(variables, transformMeta),
+          outputRowMeta,
           null,
           null,
           parentLogChannelId);
+
+      setSchemaRowCoders(
+          log, transformMeta, outputRowMeta, previousCollections, transformCollectionMap);
     }
   }
 
@@ -580,6 +587,9 @@ public class HopPipelineMetaToBeamPipelineConverter {
           transformHandler = genericTransformHandler;
         }
 
+        Map<String, PCollection<HopRow>> previousCollections =
+            new HashMap<>(transformCollectionMap);
+
         transformHandler.handleTransform(
             log,
             variables,
@@ -595,6 +605,46 @@ public class HopPipelineMetaToBeamPipelineConverter {
             previousTransforms,
             input,
             parentLogChannelId);
+
+        setSchemaRowCoders(
+            log,
+            transformMeta,
+            pipelineMeta.getTransformFields(variables, transformMeta),
+            previousCollections,
+            transformCollectionMap);
+      }
+    }
+  }
+
+  /**
+   * Give the PCollections which a transform handler added a coder for the output row layout of the
+   * transform, if the run configuration asks for it.
+   */
+  private void setSchemaRowCoders(
+      ILogChannel log,
+      TransformMeta transformMeta,
+      IRowMeta outputRowMeta,
+      Map<String, PCollection<HopRow>> previousCollections,
+      Map<String, PCollection<HopRow>> transformCollectionMap) {
+    if (!pipelineRunConfiguration.isUsingSchemaRowCoder()) {
+      return;
+    }
+    HopRowSchemaCoder coder = HopRowSchemaCoder.of(outputRowMeta);
+    for (Map.Entry<String, PCollection<HopRow>> entry : transformCollectionMap.entrySet()) {
+      PCollection<HopRow> collection = entry.getValue();
+      if (collection == null || previousCollections.get(entry.getKey()) == collection) {
+        continue;
+      }
+      try {
+        collection.setCoder(coder);
+      } catch (IllegalStateException e) {
+        // The collection is already used by the handler itself, it keeps the classic coder
+        //
+        log.logDetailed(
+            "Keeping the classic row coder for output '"
+                + entry.getKey()
+                + "' of transform "
+                + transformMeta.getName());
       }
     }
   }
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.beam.core.coder.HopRowCoder;
+import org.apache.hop.beam.core.coder.HopRowSchemaCoder;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the classic {@link HopRowCoder} with the {@link HopRowSchemaCoder}: nanoseconds to
+ * encode and decode a row, for a narrow and a wide row layout with some null values. The main
+ * method prints the number of encoded bytes per row before running the benchmarks.
+ *
+ * <p>This is not a unit test. Run it from your IDE with the main method or with the JMH runner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HopRowCoderBenchmark {
+  private static final int ROWS_PER_INVOCATION = 1000;
+
+  @Param({"narrow", "wide"})
+  public String layout;
+
+  @Param({"classic", "schema"})
+  public String coderType;
+
+  private Coder<HopRow> coder;
+  private HopRow[] rows;
+  private byte[] encoded;
+  private final ByteArrayOutputStream output = new ByteArrayOutputStream(1024 * 1024);
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    IRowMeta rowMeta = createRowMeta(layout);
+    coder = "classic".equals(coderType) ? new HopRowCoder() : HopRowSchemaCoder.of(rowMeta);
+    rows = createRows(rowMeta, ROWS_PER_INVOCATION);
+
+    output.reset();
+    for (HopRow row : rows) {
+      coder.encode(row, output);
+    }
+    encoded = output.toByteArray();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS_PER_INVOCATION)
+  public int encode() throws IOException {
+    output.reset();
+    for (HopRow row : rows) {
+      coder.encode(row, output);
+    }
+    return output.size();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS_PER_INVOCATION)
+  public void decode(Blackhole blackhole) throws IOException {
+    ByteArrayInputStream input = new ByteArrayInputStream(encoded);
+    for (int i = 0; i < ROWS_PER_INVOCATION; i++) {
+      blackhole.consume(coder.decode(input));
+    }
+  }
+
+  static IRowMeta createRowMeta(String layout) {
+    IRowMeta rowMeta = new RowMeta();
+    int copies = "wide".equals(layout) ? 8 : 1;
+    for (int c = 0; c < copies; c++) {
+      rowMeta.addValueMeta(new ValueMetaInteger("id" + c));
+      rowMeta.addValueMeta(new ValueMetaString("name" + c));
+      rowMeta.addValueMeta(new ValueMetaNumber("amount" + c));
+      rowMeta.addValueMeta(new ValueMetaDate("date" + c));
+      rowMeta.addValueMeta(new ValueMetaBoolean("flag" + c));
+      rowMeta.addValueMeta(new ValueMetaBigNumber("total" + c));
+    }
+    return rowMeta;
+  }
+
+  static HopRow[] createRows(IRowMeta rowMeta, int nrRows) {
+    Random random = new Random(42L);
+    HopRow[] rows = new HopRow[nrRows];
+    for (int r = 0; r < nrRows; r++) {
+      Object[] row = new Object[rowMeta.size()];
+      for (int i = 0; i < row.length; i++) {
+        if (random.nextInt(10) == 0) {
+          continue; // 10% nulls
+        }
+        row[i] =
+            switch (i % 6) {
+              case 0 -> (long) random.nextInt(1000000);
+              case 1 -> "Customer name " + random.nextInt(10000);
+              case 2 -> random.nextDouble() * 1000;
+              case 3 -> new Date(1700000000000L + random.nextInt(1000000000));
+              case 4 -> random.nextBoolean();
+              default -> BigDecimal.valueOf(random.nextInt(10000000), 2);
+            };
+      }
+      rows[r] = new HopRow(row);
+    }
+    return rows;
+  }
+
+  /** Print the number of bytes per row for every layout and coder */
+  static void printBytesPerRow() throws IOException {
+    for (String layout : new String[] {"narrow", "wide"}) {
+      IRowMeta rowMeta = createRowMeta(layout);
+      HopRow[] rows = createRows(rowMeta, ROWS_PER_INVOCATION);
+      for (Coder<HopRow> coder : List.of(new HopRowCoder(), HopRowSchemaCoder.of(rowMeta))) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (HopRow row : rows) {
+          coder.encode(row, output);
+        }
+        System.out.printf(
+            "%-6s %-18s %8.1f bytes/row%n",
+            layout, coder.getClass().getSimpleName(), (double) output.size() / rows.length);
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException, IOException {
+    printBytesPerRow();
+    new Runner(new OptionsBuilder().include(HopRowCoderBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.beam.core.coder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.util.Date;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.util.SerializableUtils;
+import org.apache.hop.beam.core.HopRow;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaBinary;
+import org.apache.hop.core.row.value.ValueMetaBoolean;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.row.value.ValueMetaTimestamp;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HopRowSchemaCoderTest {
+
+  private IRowMeta rowMeta;
+  private HopRowSchemaCoder coder;
+
+  @BeforeEach
+  void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+    rowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    rowMeta.addValueMeta(new ValueMetaDate("date"));
+    rowMeta.addValueMeta(new ValueMetaTimestamp("timestamp"));
+    rowMeta.addValueMeta(new ValueMetaBoolean("flag"));
+    rowMeta.addValueMeta(new ValueMetaBigNumber("total"));
+    rowMeta.addValueMeta(new ValueMetaBinary("data"));
+    coder = HopRowSchemaCoder.of(rowMeta);
+  }
+
+  private byte[] encode(HopRowCoder rowCoder, HopRow row) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    rowCoder.encode(row, out);
+    return out.toByteArray();
+  }
+
+  private byte[] encode(HopRow row) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    coder.encode(row, out);
+    return out.toByteArray();
+  }
+
+  private HopRow decode(byte[] bytes) throws Exception {
+    return coder.decode(new ByteArrayInputStream(bytes));
+  }
+
+  private Object[] createRow() {
+    Timestamp timestamp = new Timestamp(1700000000123L);
+    timestamp.setNanos(123456789);
+    return new Object[] {
+      "Caf\u00e9 \uD83D\uDE00",
+      -1234567890123L,
+      1.25,
+      new Date(-86400000L),
+      timestamp,
+      true,
+      new BigDecimal("-12345.6789"),
+      new byte[] {1, 2, 3}
+    };
+  }
+
+  @Test
+  void testEncodeDecodeAllTypes() throws Exception {
+    Object[] row = createRow();
+    HopRow decoded = decode(encode(new HopRow(row)));
+
+    Object[] result = decoded.getRow();
+    assertEquals(row.length, result.length);
+    for (int i = 0; i < row.length - 1; i++) {
+      assertEquals(row[i], result[i]);
+    }
+    assertEquals(123456789, ((Timestamp) result[4]).getNanos());
+    assertArrayEquals((byte[]) row[7], (byte[]) result[7]);
+  }
+
+  @Test
+  void testNullsAndNullRow() throws Exception {
+    HopRow decoded = decode(encode(new HopRow(new Object[8])));
+    assertEquals(8, decoded.length());
+    for (Object value : decoded.getRow()) {
+      assertNull(value);
+    }
+
+    assertNull(decode(encode(new HopRow(null))).getRow());
+  }
+
+  @Test
+  void testValuesNotMatchingTheLayout() throws Exception {
+    // A number in a string field, and more values than fields
+    //
+    Object[] row =
+        new Object[] {
+          2.5, 1L, null, null, null, null, null, null, "extra", InetAddress.getByName("127.0.0.1")
+        };
+    HopRow decoded = decode(encode(new HopRow(row)));
+    assertEquals(row.length, decoded.length());
+    assertEquals(2.5, decoded.getRow()[0]);
+    assertEquals(1L, decoded.getRow()[1]);
+    assertEquals("extra", decoded.getRow()[8]);
+    assertEquals(row[9], decoded.getRow()[9]);
+  }
+
+  @Test
+  void testSelfDelimiting() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    coder.encode(new HopRow(createRow()), out);
+    coder.encode(new HopRow(new Object[] {"second"}), out);
+
+    ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+    assertEquals(createRow()[0], coder.decode(in).getRow()[0]);
+    assertEquals("second", coder.decode(in).getRow()[0]);
+    assertEquals(-1, in.read());
+  }
+
+  @Test
+  void testUnknownVersion() throws Exception {
+    byte[] bytes = encode(new HopRow(createRow()));
+    bytes[1] = (byte) (HopRowSchemaCoder.FORMAT_VERSION + 1);
+    assertThrows(CoderException.class, () -> decode(bytes));
+  }
+
+  @Test
+  void testSmallerThanClassicCoder() throws Exception {
+    HopRow row = new HopRow(createRow());
+    int schemaSize = encode(row).length;
+    int classicSize = encode(new HopRowCoder(), row).length;
+    assertTrue(schemaSize * 2 < classicSize, schemaSize + " bytes vs " + classicSize + " bytes");
+  }
+
+  @Test
+  void testSerializable() {
+    HopRowSchemaCoder clone = SerializableUtils.clone(coder);
+    assertEquals(coder, clone);
+    assertArrayEquals(coder.getTypes(), clone.getTypes());
+    assertNotEquals(coder, new HopRowSchemaCoder(new int[] {1}));
+  }
+}
@@ -22,6 +22,7 @@ import static java.util.AbstractMap.SimpleEntry;
 import com.amazonaws.SdkClientException;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
@@ -115,6 +116,12 @@ public class S3FileObject extends S3CommonFileObject {
         ((S3FileSystem) this.fileSystem).getPartSize());
   }
 
+  @Override
+  protected GetObjectRequest createGetObjectRequest(String bucketName, String key) {
+    SimpleEntry<String, String> newPath = fixFilePath(key, bucketName);
+    return new GetObjectRequest(newPath.getValue(), newPath.getKey());
+  }
+
   @Override
   protected PutObjectRequest createPutObjectRequest(
       String bucketName, String key, InputStream inputStream, ObjectMetadata objectMetadata) {
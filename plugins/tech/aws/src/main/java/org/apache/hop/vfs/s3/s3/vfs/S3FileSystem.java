@@ -26,6 +26,7 @@ import org.apache.hop.core.logging.LogChannel;
 import org.apache.hop.core.util.StorageUnitConverter;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.vfs.s3.s3common.S3CommonFileSystem;
+import org.apache.hop.vfs.s3.s3common.S3CommonFileSystemConfigBuilder;
 import org.apache.hop.vfs.s3.s3common.S3HopProperty;
 
 public class S3FileSystem extends S3CommonFileSystem {
@@ -69,8 +70,17 @@ public class S3FileSystem extends S3CommonFileSystem {
     return new S3FileObject(name, this);
   }
 
+  @Override
+  protected S3HopProperty getHopProperty() {
+    return s3HopProperty;
+  }
+
   public int getPartSize() {
-    long parsedPartSize = parsePartSize(s3HopProperty.getPartSize());
+    String partSize = new S3CommonFileSystemConfigBuilder(getFileSystemOptions()).getPartSize();
+    if (partSize == null) {
+      partSize = s3HopProperty.getPartSize();
+    }
+    long parsedPartSize = parsePartSize(partSize);
     return convertToInt(parsedPartSize);
   }
 
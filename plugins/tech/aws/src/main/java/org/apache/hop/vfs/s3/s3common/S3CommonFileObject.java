@@ -20,6 +20,7 @@ package org.apache.hop.vfs.s3.s3common;
 import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.Bucket;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
@@ -39,6 +40,7 @@ import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
 import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.core.vfs.RangedReadAheadInputStream;
 
 public abstract class S3CommonFileObject extends AbstractFileObject {
 
@@ -66,6 +68,24 @@ public abstract class S3CommonFileObject extends AbstractFileObject {
   protected InputStream doGetInputStream() throws Exception {
     LogChannel.GENERAL.logDebug("Accessing content {0}", getQualifiedName());
     closeS3Object();
+
+    // Read large objects in byte ranges on a number of threads
+    //
+    int downloadThreads = fileSystem.getDownloadThreads();
+    int chunkSize = fileSystem.getDownloadChunkSize();
+    if (downloadThreads > 1
+        && s3ObjectMetadata != null
+        && s3ObjectMetadata.getContentLength() > chunkSize) {
+      return new RangedReadAheadInputStream(
+          new S3RangeReader(
+              fileSystem.getS3Client(),
+              createGetObjectRequest(bucketName, key),
+              s3ObjectMetadata.getETag()),
+          s3ObjectMetadata.getContentLength(),
+          chunkSize,
+          downloadThreads);
+    }
+
     S3Object streamS3Object = getS3Object();
     return new S3CommonFileInputStream(streamS3Object.getObjectContent(), streamS3Object);
   }
@@ -343,6 +363,10 @@ public abstract class S3CommonFileObject extends AbstractFileObject {
     }
   }
 
+  protected GetObjectRequest createGetObjectRequest(String bucketName, String key) {
+    return new GetObjectRequest(bucketName, key);
+  }
+
   protected PutObjectRequest createPutObjectRequest(
       String bucketName, String key, InputStream inputStream, ObjectMetadata objectMetadata) {
     return new PutObjectRequest(bucketName, key, inputStream, objectMetadata);
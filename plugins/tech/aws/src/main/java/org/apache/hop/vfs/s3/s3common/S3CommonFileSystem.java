@@ -36,7 +36,11 @@ import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileSystem;
+import org.apache.hop.core.Const;
 import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.core.util.StorageUnitConverter;
+import org.apache.hop.core.vfs.MultipartUploadOutputStream;
+import org.apache.hop.core.vfs.RangedReadAheadInputStream;
 import org.apache.hop.vfs.s3.amazon.s3.S3Util;
 
 public abstract class S3CommonFileSystem extends AbstractFileSystem {
@@ -130,6 +134,67 @@ public abstract class S3CommonFileSystem extends AbstractFileSystem {
     return client;
   }
 
+  /**
+   * @return the properties used when the file system options don't specify a tunable
+   */
+  protected S3HopProperty getHopProperty() {
+    return new S3HopProperty();
+  }
+
+  /**
+   * @return the number of parts of a file to upload at the same time
+   */
+  public int getUploadThreads() {
+    S3CommonFileSystemConfigBuilder configBuilder =
+        new S3CommonFileSystemConfigBuilder(getFileSystemOptions());
+    String uploadThreads =
+        Const.NVL(configBuilder.getUploadThreads(), getHopProperty().getUploadThreads());
+    return Math.max(
+        1, Const.toInt(uploadThreads, MultipartUploadOutputStream.DEFAULT_UPLOAD_THREADS));
+  }
+
+  /**
+   * @return the maximum number of bytes used for the parts of a file being uploaded
+   */
+  public long getUploadMemoryBudget() {
+    S3CommonFileSystemConfigBuilder configBuilder =
+        new S3CommonFileSystemConfigBuilder(getFileSystemOptions());
+    String memoryBudget =
+        Const.NVL(configBuilder.getUploadMemoryBudget(), getHopProperty().getUploadMemoryBudget());
+    return parseSize(memoryBudget, MultipartUploadOutputStream.DEFAULT_MEMORY_BUDGET);
+  }
+
+  /**
+   * @return the number of byte ranges of a file to download at the same time, 1 to read files as a
+   *     single stream
+   */
+  public int getDownloadThreads() {
+    S3CommonFileSystemConfigBuilder configBuilder =
+        new S3CommonFileSystemConfigBuilder(getFileSystemOptions());
+    String downloadThreads =
+        Const.NVL(configBuilder.getDownloadThreads(), getHopProperty().getDownloadThreads());
+    return Math.max(
+        1, Const.toInt(downloadThreads, RangedReadAheadInputStream.DEFAULT_DOWNLOAD_THREADS));
+  }
+
+  /**
+   * @return the size of a byte range to download
+   */
+  public int getDownloadChunkSize() {
+    S3CommonFileSystemConfigBuilder configBuilder =
+        new S3CommonFileSystemConfigBuilder(getFileSystemOptions());
+    String chunkSize =
+        Const.NVL(configBuilder.getDownloadChunkSize(), getHopProperty().getDownloadChunkSize());
+    return (int)
+        Math.min(
+            Integer.MAX_VALUE, parseSize(chunkSize, RangedReadAheadInputStream.DEFAULT_CHUNK_SIZE));
+  }
+
+  private static long parseSize(String size, long defaultSize) {
+    long bytes = new StorageUnitConverter().displaySizeToByteCount(size);
+    return bytes > 0 ? bytes : defaultSize;
+  }
+
   private boolean hasClientChangedCredentials() {
     return client != null
         && (S3Util.hasChanged(
@@ -34,6 +34,11 @@ public class S3CommonFileSystemConfigBuilder extends FileSystemConfigBuilder {
   private static final String ENDPOINT = "endpoint";
   private static final String SIGNATURE_VERSION = "signature_version";
   private static final String PATH_STYLE_ACCESS = "pathSyleAccess";
+  private static final String PART_SIZE = "partSize";
+  private static final String UPLOAD_THREADS = "uploadThreads";
+  private static final String UPLOAD_MEMORY_BUDGET = "uploadMemoryBudget";
+  private static final String DOWNLOAD_THREADS = "downloadThreads";
+  private static final String DOWNLOAD_CHUNK_SIZE = "downloadChunkSize";
 
   private FileSystemOptions fileSystemOptions;
 
@@ -121,6 +126,63 @@ public class S3CommonFileSystemConfigBuilder extends FileSystemConfigBuilder {
     return (String) this.getParam(getFileSystemOptions(), PATH_STYLE_ACCESS);
   }
 
+  /**
+   * @param partSize the size of a part in a multipart upload, for example "16MB"
+   */
+  public void setPartSize(String partSize) {
+    this.setParam(getFileSystemOptions(), PART_SIZE, partSize);
+  }
+
+  public String getPartSize() {
+    return (String) this.getParam(getFileSystemOptions(), PART_SIZE);
+  }
+
+  /**
+   * @param uploadThreads the number of parts of a file to upload at the same time
+   */
+  public void setUploadThreads(String uploadThreads) {
+    this.setParam(getFileSystemOptions(), UPLOAD_THREADS, uploadThreads);
+  }
+
+  public String getUploadThreads() {
+    return (String) this.getParam(getFileSystemOptions(), UPLOAD_THREADS);
+  }
+
+  /**
+   * @param uploadMemoryBudget the memory to use for the parts of a file being uploaded, for example
+   *     "64MB"
+   */
+  public void setUploadMemoryBudget(String uploadMemoryBudget) {
+    this.setParam(getFileSystemOptions(), UPLOAD_MEMORY_BUDGET, uploadMemoryBudget);
+  }
+
+  public String getUploadMemoryBudget() {
+    return (String) this.getParam(getFileSystemOptions(), UPLOAD_MEMORY_BUDGET);
+  }
+
+  /**
+   * @param downloadThreads the number of ranges of a file to download at the same time. Use 1 to
+   *     read files as a single stream.
+   */
+  public void setDownloadThreads(String downloadThreads) {
+    this.setParam(getFileSystemOptions(), DOWNLOAD_THREADS, downloadThreads);
+  }
+
+  public String getDownloadThreads() {
+    return (String) this.getParam(getFileSystemOptions(), DOWNLOAD_THREADS);
+  }
+
+  /**
+   * @param downloadChunkSize the size of a range to download, for example "8MB"
+   */
+  public void setDownloadChunkSize(String downloadChunkSize) {
+    this.setParam(getFileSystemOptions(), DOWNLOAD_CHUNK_SIZE, downloadChunkSize);
+  }
+
+  public String getDownloadChunkSize() {
+    return (String) this.getParam(getFileSystemOptions(), DOWNLOAD_CHUNK_SIZE);
+  }
+
   @Override
   protected Class<? extends FileSystem> getConfigClass() {
     return S3NFileSystem.class;
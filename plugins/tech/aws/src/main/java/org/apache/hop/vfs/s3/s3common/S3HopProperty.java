@@ -28,7 +28,42 @@ public class S3HopProperty {
           "Default part size for new files on S3, Acceptable are 5MB as a minimum and 5GB as a maximum value. (Default: 5MB)")
   public static final String HOP_S3_VFS_PART_SIZE = "HOP_S3_VFS_PART_SIZE";
 
+  @Variable(
+      description = "The number of parts of a file to upload to S3 at the same time. (Default: 4)")
+  public static final String HOP_S3_VFS_UPLOAD_THREADS = "HOP_S3_VFS_UPLOAD_THREADS";
+
+  @Variable(
+      description =
+          "The maximum amount of memory used for the parts of a file being uploaded to S3, at least two parts are kept in memory. (Default: 64MB)")
+  public static final String HOP_S3_VFS_UPLOAD_MEMORY_BUDGET = "HOP_S3_VFS_UPLOAD_MEMORY_BUDGET";
+
+  @Variable(
+      description =
+          "The number of byte ranges of a file to download from S3 at the same time. Use 1 to read files as a single stream. (Default: 4)")
+  public static final String HOP_S3_VFS_DOWNLOAD_THREADS = "HOP_S3_VFS_DOWNLOAD_THREADS";
+
+  @Variable(
+      description =
+          "The size of a byte range to download from S3. Smaller files are read as a single stream. (Default: 8MB)")
+  public static final String HOP_S3_VFS_DOWNLOAD_CHUNK_SIZE = "HOP_S3_VFS_DOWNLOAD_CHUNK_SIZE";
+
   public String getPartSize() {
     return HopConfig.getInstance().findDescribedVariableValue(HOP_S3_VFS_PART_SIZE);
   }
+
+  public String getUploadThreads() {
+    return HopConfig.getInstance().findDescribedVariableValue(HOP_S3_VFS_UPLOAD_THREADS);
+  }
+
+  public String getUploadMemoryBudget() {
+    return HopConfig.getInstance().findDescribedVariableValue(HOP_S3_VFS_UPLOAD_MEMORY_BUDGET);
+  }
+
+  public String getDownloadThreads() {
+    return HopConfig.getInstance().findDescribedVariableValue(HOP_S3_VFS_DOWNLOAD_THREADS);
+  }
+
+  public String getDownloadChunkSize() {
+    return HopConfig.getInstance().findDescribedVariableValue(HOP_S3_VFS_DOWNLOAD_CHUNK_SIZE);
+  }
 }
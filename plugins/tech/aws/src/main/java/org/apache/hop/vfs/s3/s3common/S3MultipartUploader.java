@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.vfs.s3.s3common;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.core.vfs.IMultipartUploader;
+import org.apache.hop.i18n.BaseMessages;
+
+/** Uploads an object to S3 with the multipart upload API */
+public class S3MultipartUploader implements IMultipartUploader {
+
+  private static final Class<?> PKG = S3MultipartUploader.class;
+
+  private final S3CommonFileSystem fileSystem;
+  private final String bucketId;
+  private final String key;
+  private final int partSize;
+  private String uploadId;
+
+  /**
+   * @param fileSystem the file system with the S3 client
+   * @param bucketId the bucket to upload to
+   * @param key the key of the object
+   * @param partSize the size of all parts except the last one
+   */
+  public S3MultipartUploader(
+      S3CommonFileSystem fileSystem, String bucketId, String key, int partSize) {
+    this.fileSystem = fileSystem;
+    this.bucketId = bucketId;
+    this.key = key;
+    this.partSize = partSize;
+  }
+
+  @Override
+  public void putObject(byte[] data, int length) throws IOException {
+    ObjectMetadata metadata = new ObjectMetadata();
+    metadata.setContentLength(length);
+    try {
+      fileSystem
+          .getS3Client()
+          .putObject(
+              new PutObjectRequest(
+                  bucketId, key, new ByteArrayInputStream(data, 0, length), metadata));
+    } catch (SdkClientException e) {
+      throw new IOException("Error uploading to S3 bucket " + bucketId + ", key " + key, e);
+    }
+  }
+
+  @Override
+  public void start() throws IOException {
+    LogChannel.GENERAL.logDetailed(BaseMessages.getString(PKG, "INFO.S3MultiPart.Start"));
+    try {
+      uploadId =
+          fileSystem
+              .getS3Client()
+              .initiateMultipartUpload(new InitiateMultipartUploadRequest(bucketId, key))
+              .getUploadId();
+    } catch (SdkClientException e) {
+      throw new IOException(
+          "Error starting a multipart upload to S3 bucket " + bucketId + ", key " + key, e);
+    }
+  }
+
+  @Override
+  public String uploadPart(int partNumber, byte[] data, int length) throws IOException {
+    LogChannel.GENERAL.logDetailed(
+        BaseMessages.getString(
+            PKG,
+            "INFO.S3MultiPart.Upload",
+            partNumber,
+            Long.toString((long) (partNumber - 1) * partSize),
+            Integer.toString(length)));
+    UploadPartRequest uploadRequest =
+        new UploadPartRequest()
+            .withBucketName(bucketId)
+            .withKey(key)
+            .withUploadId(uploadId)
+            .withPartNumber(partNumber)
+            .withPartSize(length)
+            .withInputStream(new ByteArrayInputStream(data, 0, length));
+    try {
+      return fileSystem.getS3Client().uploadPart(uploadRequest).getETag();
+    } catch (SdkClientException e) {
+      throw new IOException("Error uploading part " + partNumber + " to S3", e);
+    }
+  }
+
+  @Override
+  public void complete(List<String> partTags) throws IOException {
+    List<PartETag> partETags = new ArrayList<>();
+    for (int i = 0; i < partTags.size(); i++) {
+      partETags.add(new PartETag(i + 1, partTags.get(i)));
+    }
+    try {
+      fileSystem
+          .getS3Client()
+          .completeMultipartUpload(
+              new CompleteMultipartUploadRequest(bucketId, key, uploadId, partETags));
+    } catch (SdkClientException e) {
+      throw new IOException("Error completing the multipart upload to S3", e);
+    }
+    LogChannel.GENERAL.logDetailed(BaseMessages.getString(PKG, "INFO.S3MultiPart.Complete"));
+  }
+
+  @Override
+  public void abort() throws IOException {
+    try {
+      fileSystem
+          .getS3Client()
+          .abortMultipartUpload(new AbortMultipartUploadRequest(bucketId, key, uploadId));
+    } catch (SdkClientException e) {
+      throw new IOException("Error aborting the multipart upload to S3", e);
+    }
+    LogChannel.GENERAL.logError(BaseMessages.getString(PKG, "ERROR.S3MultiPart.Aborted"));
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.vfs.s3.s3common;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import java.io.IOException;
+import org.apache.commons.io.IOUtils;
+import org.apache.hop.core.vfs.IRangeReader;
+
+/**
+ * Reads byte ranges of an S3 object. Every range is read from the version of the object with the
+ * ETag seen when the object was opened, so that the ranges of an object which is replaced while we
+ * read it are never mixed. The server-side encryption key and the requester pays flag of the
+ * original request are used for every range.
+ */
+public class S3RangeReader implements IRangeReader {
+
+  private final AmazonS3 client;
+  private final GetObjectRequest request;
+  private final String eTag;
+
+  /**
+   * @param client the S3 client
+   * @param request the request for the object, the range is set for every read
+   * @param eTag the ETag of the object when it was opened, null to read whatever version is there
+   */
+  public S3RangeReader(AmazonS3 client, GetObjectRequest request, String eTag) {
+    this.client = client;
+    this.request = request;
+    this.eTag = eTag;
+  }
+
+  @Override
+  public byte[] read(long position, int length) throws IOException {
+    GetObjectRequest rangeRequest =
+        new GetObjectRequest(request.getBucketName(), request.getKey(), request.getVersionId())
+            .withRange(position, position + length - 1)
+            .withSSECustomerKey(request.getSSECustomerKey());
+    rangeRequest.setRequesterPays(request.isRequesterPays());
+    if (eTag != null) {
+      rangeRequest.withMatchingETagConstraint(eTag);
+    }
+    try (S3Object s3Object = client.getObject(rangeRequest)) {
+      if (s3Object == null) {
+        // The ETag constraint wasn't met
+        throw new IOException(
+            "The S3 object s3://"
+                + request.getBucketName()
+                + "/"
+                + request.getKey()
+                + " changed while it was read");
+      }
+      return IOUtils.toByteArray(s3Object.getObjectContent(), length);
+    } catch (SdkClientException e) {
+      throw new IOException(
+          "Error reading " + length + " bytes at position " + position + " from S3", e);
+    }
+  }
+}
@@ -29,7 +29,9 @@ import org.apache.commons.vfs2.provider.AbstractOriginatingFileProvider;
 import org.apache.commons.vfs2.util.UserAuthenticatorUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.logging.LogChannel;
+import org.apache.hop.core.util.StorageUnitConverter;
 import org.apache.hop.core.variables.IVariables;
+import org.apache.hop.core.vfs.MultipartUploadOutputStream;
 import org.apache.hop.vfs.minio.metadata.MinioMeta;
 
 public class MinioFileProvider extends AbstractOriginatingFileProvider {
@@ -129,6 +131,19 @@ public class MinioFileProvider extends AbstractOriginatingFileProvider {
       String partSize = variables.resolve(minioMeta.getPartSize());
       fileSystem.setPartSize(Const.toLong(partSize, DEFAULT_PART_SIZE));
 
+      // The number of parts uploaded at the same time and the memory they can take
+      String uploadThreads = variables.resolve(minioMeta.getUploadThreads());
+      fileSystem.setUploadThreads(
+          Math.max(
+              1, Const.toInt(uploadThreads, MultipartUploadOutputStream.DEFAULT_UPLOAD_THREADS)));
+      String uploadMemoryBudget = variables.resolve(minioMeta.getUploadMemoryBudget());
+      long memoryBudget = new StorageUnitConverter().displaySizeToByteCount(uploadMemoryBudget);
+      fileSystem.setUploadMemoryBudget(
+          memoryBudget > 0
+              ? memoryBudget
+              : Const.toLong(
+                  uploadMemoryBudget, MultipartUploadOutputStream.DEFAULT_MEMORY_BUDGET));
+
       return fileSystem;
     } finally {
       UserAuthenticatorUtils.cleanup(authData);
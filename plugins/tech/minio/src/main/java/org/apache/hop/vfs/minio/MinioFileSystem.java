@@ -33,6 +33,7 @@ import org.apache.commons.vfs2.provider.AbstractFileSystem;
 import org.apache.hop.core.logging.ILogChannel;
 import org.apache.hop.core.logging.LogChannel;
 import org.apache.hop.core.util.StorageUnitConverter;
+import org.apache.hop.core.vfs.MultipartUploadOutputStream;
 import org.apache.hop.i18n.BaseMessages;
 
 @Getter
@@ -49,6 +50,8 @@ public class MinioFileSystem extends AbstractFileSystem {
   private String secretKey;
   private String region;
   protected long partSize;
+  protected int uploadThreads = MultipartUploadOutputStream.DEFAULT_UPLOAD_THREADS;
+  protected long uploadMemoryBudget = MultipartUploadOutputStream.DEFAULT_MEMORY_BUDGET;
 
   private MinioClient client;
 
@@ -47,6 +47,9 @@ public class MinioMeta extends HopMetadataBase implements Serializable, IHopMeta
   private static final String WIDGET_ID_MINIO_ENDPOINT_SECURE = "10220-minio-endpoint-secure";
   private static final String WIDGET_ID_MINIO_REGION = "10300-minio-region";
   private static final String WIDGET_ID_MINIO_PART_SIZE = "10400-minio-part-size";
+  private static final String WIDGET_ID_MINIO_UPLOAD_THREADS = "10410-minio-upload-threads";
+  private static final String WIDGET_ID_MINIO_UPLOAD_MEMORY_BUDGET =
+      "10420-minio-upload-memory-budget";
 
   @GuiWidgetElement(
       id = WIDGET_ID_MINIO_DESCRIPTION,
@@ -122,6 +125,24 @@ public class MinioMeta extends HopMetadataBase implements Serializable, IHopMeta
   @HopMetadataProperty
   private String partSize;
 
+  @GuiWidgetElement(
+      id = WIDGET_ID_MINIO_UPLOAD_THREADS,
+      parentId = MinioMetaEditor.GUI_WIDGETS_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label = "i18n:org.apache.hop.vfs.minio.metadata:MinioVFS.UploadThreads.Label",
+      toolTip = "i18n:org.apache.hop.vfs.minio.metadata:MinioVFS.UploadThreads.Description")
+  @HopMetadataProperty
+  private String uploadThreads;
+
+  @GuiWidgetElement(
+      id = WIDGET_ID_MINIO_UPLOAD_MEMORY_BUDGET,
+      parentId = MinioMetaEditor.GUI_WIDGETS_PARENT_ID,
+      type = GuiElementType.TEXT,
+      label = "i18n:org.apache.hop.vfs.minio.metadata:MinioVFS.UploadMemoryBudget.Label",
+      toolTip = "i18n:org.apache.hop.vfs.minio.metadata:MinioVFS.UploadMemoryBudget.Description")
+  @HopMetadataProperty
+  private String uploadMemoryBudget;
+
   public MinioMeta() {
     // Do nothing
     this.partSize = Integer.toString(5 * 1024 * 1024);
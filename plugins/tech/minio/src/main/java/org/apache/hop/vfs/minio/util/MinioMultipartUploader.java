@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.vfs.minio.util;
+
+import io.minio.ComposeObjectArgs;
+import io.minio.ComposeSource;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectsArgs;
+import io.minio.Result;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.apache.hop.core.vfs.IMultipartUploader;
+
+/**
+ * Uploads an object to MinIO in parts. Every part is uploaded as a temporary object under the
+ * hidden {@link #PART_PREFIX} folder of the bucket, so the parts never show up next to the target
+ * object. The parts are combined on the server with a compose request, which copies them with the
+ * multipart upload API. The temporary objects are removed afterwards, whether the upload succeeded
+ * or not.
+ */
+public class MinioMultipartUploader implements IMultipartUploader {
+
+  /** The folder in the bucket where the parts of the running uploads are kept */
+  public static final String PART_PREFIX = ".hop-multipart/";
+
+  private static final String CONTENT_TYPE = "application/octet-stream";
+
+  private final MinioClient client;
+  private final String bucketName;
+  private final String key;
+  private final String partPrefix;
+  private final List<String> partObjects;
+
+  /** Set once the upload is completed or aborted: parts which arrive later are removed */
+  private volatile boolean finished;
+
+  public MinioMultipartUploader(MinioClient client, String bucketName, String key) {
+    this.client = client;
+    this.bucketName = bucketName;
+    this.key = key;
+    this.partPrefix = PART_PREFIX + UUID.randomUUID() + "/part-";
+    this.partObjects = new ArrayList<>();
+  }
+
+  @Override
+  public void putObject(byte[] data, int length) throws IOException {
+    put(key, data, length);
+  }
+
+  @Override
+  public void start() {
+    // Nothing to start, the parts are regular objects
+  }
+
+  @Override
+  public String uploadPart(int partNumber, byte[] data, int length) throws IOException {
+    String partObject = String.format("%s%05d", partPrefix, partNumber);
+    synchronized (partObjects) {
+      partObjects.add(partObject);
+    }
+    try {
+      put(partObject, data, length);
+    } finally {
+      if (finished) {
+        // The upload was aborted while this part was being written
+        removeParts();
+      }
+    }
+    return partObject;
+  }
+
+  @Override
+  public void complete(List<String> partTags) throws IOException {
+    List<ComposeSource> sources = new ArrayList<>();
+    for (String partObject : partTags) {
+      sources.add(ComposeSource.builder().bucket(bucketName).object(partObject).build());
+    }
+    try {
+      client.composeObject(
+          ComposeObjectArgs.builder().bucket(bucketName).object(key).sources(sources).build());
+    } catch (Exception e) {
+      throw new IOException(
+          "Error combining the parts of MinIO bucket " + bucketName + ", object " + key, e);
+    } finally {
+      finished = true;
+      removeParts();
+    }
+  }
+
+  @Override
+  public void abort() throws IOException {
+    finished = true;
+    removeParts();
+  }
+
+  private void put(String object, byte[] data, int length) throws IOException {
+    try {
+      client.putObject(
+          PutObjectArgs.builder()
+              .contentType(CONTENT_TYPE)
+              .bucket(bucketName)
+              .object(object)
+              .stream(new ByteArrayInputStream(data, 0, length), length, -1)
+              .build());
+    } catch (Exception e) {
+      throw new IOException(
+          "Error writing to MinIO bucket " + bucketName + ", object " + object, e);
+    }
+  }
+
+  private void removeParts() throws IOException {
+    List<DeleteObject> objects = new ArrayList<>();
+    synchronized (partObjects) {
+      for (String partObject : partObjects) {
+        objects.add(new DeleteObject(partObject));
+      }
+      partObjects.clear();
+    }
+    if (objects.isEmpty()) {
+      return;
+    }
+    try {
+      // The objects are removed while iterating over the results
+      //
+      for (Result<DeleteError> result :
+          client.removeObjects(
+              RemoveObjectsArgs.builder().bucket(bucketName).objects(objects).build())) {
+        result.get();
+      }
+    } catch (Exception e) {
+      throw new IOException("Error removing the parts of MinIO object " + key, e);
+    }
+  }
+}
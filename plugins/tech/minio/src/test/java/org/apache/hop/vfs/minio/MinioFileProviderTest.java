@@ -29,6 +29,7 @@ import org.apache.commons.vfs2.FileType;
 import org.apache.commons.vfs2.provider.FileNameParser;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.core.variables.Variables;
+import org.apache.hop.core.vfs.MultipartUploadOutputStream;
 import org.apache.hop.junit.rules.RestoreHopEnvironmentExtension;
 import org.apache.hop.vfs.minio.metadata.MinioMeta;
 import org.junit.jupiter.api.BeforeEach;
@@ -136,6 +137,40 @@ class MinioFileProviderTest {
     assertEquals("us-east-1", minioFs.getRegion(), "Region should be set");
   }
 
+  @Test
+  void testCreateFileSystemWithUploadSettings() {
+    IVariables variables = new Variables();
+    variables.setVariable("MINIO_UPLOAD_THREADS", "8");
+
+    MinioMeta meta = new MinioMeta();
+    meta.setUploadThreads("${MINIO_UPLOAD_THREADS}");
+    meta.setUploadMemoryBudget("128MB");
+
+    MinioFileProvider providerWithMeta = new MinioFileProvider(variables, meta);
+    MinioFileName fileName = new MinioFileName("s3", "bucket", "/bucket", FileType.FOLDER);
+    MinioFileSystem minioFs = (MinioFileSystem) providerWithMeta.doCreateFileSystem(fileName, null);
+
+    assertEquals(8, minioFs.getUploadThreads(), "Upload threads should be resolved");
+    assertEquals(
+        128L * 1024 * 1024, minioFs.getUploadMemoryBudget(), "Memory budget should be parsed");
+  }
+
+  @Test
+  void testCreateFileSystemWithDefaultUploadSettings() {
+    MinioFileProvider providerWithMeta = new MinioFileProvider(new Variables(), new MinioMeta());
+    MinioFileName fileName = new MinioFileName("s3", "bucket", "/bucket", FileType.FOLDER);
+    MinioFileSystem minioFs = (MinioFileSystem) providerWithMeta.doCreateFileSystem(fileName, null);
+
+    assertEquals(
+        MultipartUploadOutputStream.DEFAULT_UPLOAD_THREADS,
+        minioFs.getUploadThreads(),
+        "Upload threads should default");
+    assertEquals(
+        MultipartUploadOutputStream.DEFAULT_MEMORY_BUDGET,
+        minioFs.getUploadMemoryBudget(),
+        "Memory budget should default");
+  }
+
   @Test
   void testGetDefaultFileSystemOptions() {
     FileSystemOptions options = MinioFileProvider.getDefaultFileSystemOptions();
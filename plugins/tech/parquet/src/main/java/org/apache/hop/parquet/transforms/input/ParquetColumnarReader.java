@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.row.RowDataUtil;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+
+/**
+ * Reads the rows of a parquet file column by column. Only the requested columns are read and row
+ * groups which can't match the filter of the read options are skipped based on their statistics and
+ * dictionary pages. The values of a batch of rows are decoded one column at a time into the row
+ * data, without assembling records. Only flat schemas without repeated fields are supported.
+ */
+public class ParquetColumnarReader implements Closeable {
+
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+
+  private final ParquetFileReader fileReader;
+  private final MessageType requestedSchema;
+  private final String createdBy;
+  private final RowMetaAndData group;
+  private final ParquetRowConverter rowConverter;
+  private final List<ColumnDescriptor> columns;
+  private final int batchSize;
+
+  private ColumnReader[] columnReaders;
+  private long rowGroupRemaining;
+
+  /**
+   * @param inputFile the file to read
+   * @param options the read options, including the filter to skip row groups with
+   * @param requestedSchema the columns to read
+   * @param rowConverter the converter to the row data
+   * @param batchSize the number of rows to decode at once
+   * @throws IOException in case the file can't be opened
+   */
+  public ParquetColumnarReader(
+      InputFile inputFile,
+      ParquetReadOptions options,
+      MessageType requestedSchema,
+      ParquetRowConverter rowConverter,
+      int batchSize)
+      throws IOException {
+    this.fileReader = ParquetFileReader.open(inputFile, options);
+    this.fileReader.setRequestedSchema(requestedSchema);
+    this.requestedSchema = requestedSchema;
+    this.createdBy = fileReader.getFooter().getFileMetaData().getCreatedBy();
+    this.rowConverter = rowConverter;
+    this.group = rowConverter.getGroup();
+    this.columns = requestedSchema.getColumns();
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * See if a schema can be read column by column: all fields need to be primitive and not repeated.
+   *
+   * @param schema the requested schema
+   * @return true if the schema is supported
+   */
+  public static boolean isSupported(MessageType schema) {
+    for (Type type : schema.getFields()) {
+      if (!type.isPrimitive() || type.isRepetition(Type.Repetition.REPEATED)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Read the next batch of rows.
+   *
+   * @param rowSize the size of the row data to allocate
+   * @return the rows or null if there are no more rows
+   * @throws IOException in case of a read error
+   */
+  public Object[][] readBatch(int rowSize) throws IOException {
+    while (rowGroupRemaining == 0) {
+      if (!nextRowGroup()) {
+        return null;
+      }
+    }
+
+    int nrRows = (int) Math.min(batchSize, rowGroupRemaining);
+    Object[][] rows = new Object[nrRows][];
+    for (int r = 0; r < nrRows; r++) {
+      rows[r] = RowDataUtil.allocateRowData(rowSize);
+    }
+
+    // Decode the values column by column. The column readers write to the converters of the
+    // row converter which store the values in the current row data of the group.
+    //
+    for (int c = 0; c < columnReaders.length; c++) {
+      ColumnReader columnReader = columnReaders[c];
+      int maxDefinitionLevel = columns.get(c).getMaxDefinitionLevel();
+      for (int r = 0; r < nrRows; r++) {
+        if (columnReader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+          group.setData(rows[r]);
+          columnReader.writeCurrentValueToConverter();
+        }
+        columnReader.consume();
+      }
+    }
+    rowGroupRemaining -= nrRows;
+    return rows;
+  }
+
+  private boolean nextRowGroup() throws IOException {
+    PageReadStore pages = fileReader.readNextRowGroup();
+    if (pages == null) {
+      return false;
+    }
+    ColumnReadStoreImpl readStore =
+        new ColumnReadStoreImpl(pages, rowConverter, requestedSchema, createdBy);
+    columnReaders = new ColumnReader[columns.size()];
+    for (int c = 0; c < columns.size(); c++) {
+      columnReaders[c] = readStore.getColumnReader(columns.get(c));
+    }
+    rowGroupRemaining = pages.getRowCount();
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    fileReader.close();
+  }
+}
@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.util.Utils;
+import org.apache.hop.metadata.api.HopMetadataProperty;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.IntLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.StringLogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveType;
+
+/**
+ * A simple condition on a column of a parquet file: a comparison with a constant value or a null
+ * check. The conditions are pushed down to the parquet reader where possible to skip row groups
+ * using their statistics and dictionary pages. Rows are always checked against the conditions as
+ * well.
+ */
+@Getter
+@Setter
+public class ParquetFilter {
+
+  public static final String OPERATOR_EQUAL = "=";
+  public static final String OPERATOR_NOT_EQUAL = "<>";
+  public static final String OPERATOR_SMALLER = "<";
+  public static final String OPERATOR_SMALLER_EQUAL = "<=";
+  public static final String OPERATOR_LARGER = ">";
+  public static final String OPERATOR_LARGER_EQUAL = ">=";
+  public static final String OPERATOR_IS_NULL = "IS NULL";
+  public static final String OPERATOR_IS_NOT_NULL = "IS NOT NULL";
+
+  public static final String[] OPERATORS = {
+    OPERATOR_EQUAL,
+    OPERATOR_NOT_EQUAL,
+    OPERATOR_SMALLER,
+    OPERATOR_SMALLER_EQUAL,
+    OPERATOR_LARGER,
+    OPERATOR_LARGER_EQUAL,
+    OPERATOR_IS_NULL,
+    OPERATOR_IS_NOT_NULL,
+  };
+
+  @HopMetadataProperty(key = "source_field")
+  private String sourceField;
+
+  @HopMetadataProperty(key = "operator")
+  private String operator;
+
+  @HopMetadataProperty(key = "value")
+  private String value;
+
+  public ParquetFilter() {}
+
+  public ParquetFilter(ParquetFilter f) {
+    this.sourceField = f.sourceField;
+    this.operator = f.operator;
+    this.value = f.value;
+  }
+
+  public ParquetFilter(String sourceField, String operator, String value) {
+    this.sourceField = sourceField;
+    this.operator = operator;
+    this.value = value;
+  }
+
+  public boolean isNullCheck() {
+    return OPERATOR_IS_NULL.equals(operator) || OPERATOR_IS_NOT_NULL.equals(operator);
+  }
+
+  /**
+   * Convert the value to compare with to the type of the field.
+   *
+   * @param valueMeta the field
+   * @param realValue the value with variables resolved
+   * @return the value to compare with or null for a null check
+   * @throws HopException in case the value can't be converted
+   */
+  public Object convertValue(IValueMeta valueMeta, String realValue) throws HopException {
+    if (isNullCheck()) {
+      return null;
+    }
+    if (Utils.isEmpty(realValue)) {
+      throw new HopException("Please specify a value to compare field " + sourceField + " with");
+    }
+    return valueMeta.convertData(new ValueMetaString(sourceField), realValue);
+  }
+
+  /**
+   * See if a value of a row matches this condition. Null values only match a null check.
+   *
+   * @param valueMeta the field
+   * @param data the value in the row
+   * @param compareValue the converted value to compare with
+   * @return true if the value matches
+   * @throws HopValueException in case the values can't be compared
+   */
+  public boolean matches(IValueMeta valueMeta, Object data, Object compareValue)
+      throws HopValueException {
+    boolean isNull = valueMeta.isNull(data);
+    if (OPERATOR_IS_NULL.equals(operator)) {
+      return isNull;
+    }
+    if (OPERATOR_IS_NOT_NULL.equals(operator)) {
+      return !isNull;
+    }
+    if (isNull) {
+      return false;
+    }
+    int compare = valueMeta.compare(data, compareValue);
+    return switch (operator) {
+      case OPERATOR_EQUAL -> compare == 0;
+      case OPERATOR_NOT_EQUAL -> compare != 0;
+      case OPERATOR_SMALLER -> compare < 0;
+      case OPERATOR_SMALLER_EQUAL -> compare <= 0;
+      case OPERATOR_LARGER -> compare > 0;
+      case OPERATOR_LARGER_EQUAL -> compare >= 0;
+      default -> throw new HopValueException("Unknown operator '" + operator + "'");
+    };
+  }
+
+  /**
+   * Create a predicate for the parquet reader. A condition is only pushed down when the reader
+   * compares the values the same way as the field does: plain numbers, booleans and the equality of
+   * strings.
+   *
+   * @param primitiveType the type of the column in the file
+   * @param valueMeta the field the column is read into
+   * @param compareValue the value converted with {@link #convertValue(IValueMeta, String)}
+   * @return the predicate or null if this condition can't be pushed down
+   * @throws HopValueException in case the value can't be converted
+   */
+  public FilterPredicate createPredicate(
+      PrimitiveType primitiveType, IValueMeta valueMeta, Object compareValue)
+      throws HopValueException {
+    // The name of the column in the file, dots would be read as a nested path
+    String path = primitiveType.getName();
+    boolean nullCheck = isNullCheck();
+    if (path.contains(".")
+        || valueMeta.isSortedDescending()
+        || (!nullCheck && compareValue == null)) {
+      return null;
+    }
+    LogicalTypeAnnotation logicalType = primitiveType.getLogicalTypeAnnotation();
+    boolean plainNumber =
+        logicalType == null
+            || (logicalType instanceof IntLogicalTypeAnnotation intType && intType.isSigned());
+    switch (primitiveType.getPrimitiveTypeName()) {
+      case INT32:
+        if (plainNumber && valueMeta.isInteger()) {
+          Long number = nullCheck ? null : valueMeta.getInteger(compareValue);
+          if (number == null) {
+            return compare(FilterApi.intColumn(path), null);
+          }
+          if (number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE) {
+            return compare(FilterApi.intColumn(path), number.intValue());
+          }
+        }
+        break;
+      case INT64:
+        if (plainNumber && valueMeta.isInteger()) {
+          return compare(
+              FilterApi.longColumn(path), nullCheck ? null : valueMeta.getInteger(compareValue));
+        }
+        break;
+      case FLOAT:
+        if (logicalType == null && valueMeta.isNumber()) {
+          Double number = nullCheck ? null : valueMeta.getNumber(compareValue);
+          if (number == null) {
+            return compare(FilterApi.floatColumn(path), null);
+          }
+          // Rounding the value to a float would change the outcome of the comparison
+          if ((double) number.floatValue() == number) {
+            return compare(FilterApi.floatColumn(path), number.floatValue());
+          }
+        }
+        break;
+      case DOUBLE:
+        if (logicalType == null && valueMeta.isNumber()) {
+          return compare(
+              FilterApi.doubleColumn(path), nullCheck ? null : valueMeta.getNumber(compareValue));
+        }
+        break;
+      case BOOLEAN:
+        if (valueMeta.isBoolean()) {
+          return compareEquality(
+              FilterApi.booleanColumn(path), nullCheck ? null : valueMeta.getBoolean(compareValue));
+        }
+        break;
+      case BINARY:
+        // The file orders strings by their UTF-8 bytes, so only equality is pushed down
+        if (logicalType instanceof StringLogicalTypeAnnotation
+            && valueMeta.isString()
+            && !valueMeta.isCaseInsensitive()
+            && valueMeta.isCollatorDisabled()
+            && !valueMeta.isIgnoreWhitespace()) {
+          return compareEquality(
+              FilterApi.binaryColumn(path),
+              nullCheck ? null : Binary.fromString(valueMeta.getString(compareValue)));
+        }
+        break;
+      default:
+        break;
+    }
+    return null;
+  }
+
+  private <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt>
+      FilterPredicate compare(C column, T compareValue) {
+    return switch (operator) {
+      case OPERATOR_EQUAL -> FilterApi.eq(column, compareValue);
+      case OPERATOR_NOT_EQUAL -> FilterApi.notEq(column, compareValue);
+      case OPERATOR_SMALLER -> FilterApi.lt(column, compareValue);
+      case OPERATOR_SMALLER_EQUAL -> FilterApi.ltEq(column, compareValue);
+      case OPERATOR_LARGER -> FilterApi.gt(column, compareValue);
+      case OPERATOR_LARGER_EQUAL -> FilterApi.gtEq(column, compareValue);
+      case OPERATOR_IS_NULL -> FilterApi.eq(column, null);
+      case OPERATOR_IS_NOT_NULL -> FilterApi.notEq(column, null);
+      default -> null;
+    };
+  }
+
+  private <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsEqNotEq>
+      FilterPredicate compareEquality(C column, T compareValue) {
+    return switch (operator) {
+      case OPERATOR_EQUAL -> FilterApi.eq(column, compareValue);
+      case OPERATOR_NOT_EQUAL -> FilterApi.notEq(column, compareValue);
+      case OPERATOR_IS_NULL -> FilterApi.eq(column, null);
+      case OPERATOR_IS_NOT_NULL -> FilterApi.notEq(column, null);
+      default -> null;
+    };
+  }
+}
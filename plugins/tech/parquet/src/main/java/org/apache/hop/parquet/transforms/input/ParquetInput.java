@@ -19,20 +19,36 @@ package org.apache.hop.parquet.transforms.input;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.provider.local.LocalFile;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaFactory;
 import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
 
 public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputData> {
   public ParquetInput(
@@ -97,44 +113,221 @@ public class ParquetInput extends BaseTransform<ParquetInputMeta, ParquetInputDa
                   Integer.toString(parquetValueMeta.getPrecision())));
         }
       }
+      int nrFields = fields.size();
 
-      long size = fileObject.getContent().getSize();
-      data.inputStream = HopVfs.getInputStream(fileObject);
+      InputFile inputFile = openInputFile(fileObject, filename);
+      MessageType fileSchema;
+      try (ParquetFileReader footerReader = ParquetFileReader.open(inputFile)) {
+        fileSchema = footerReader.getFooter().getFileMetaData().getSchema();
+      }
 
-      // Reads the whole file into memory...
+      // Columns we only need to filter on are read as well but not passed on
       //
-      ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) size);
-      IOUtils.copy(data.inputStream, outputStream);
-      ParquetStream inputFile = new ParquetStream(outputStream.toByteArray(), filename);
+      List<ParquetField> readFields = new ArrayList<>(fields);
+      PrimitiveType[] filterTypes = prepareFilters(fileSchema, readFields);
+      IRowMeta readRowMeta = new RowMeta();
+      for (ParquetField field : readFields) {
+        readRowMeta.addValueMeta(field.createValueMeta());
+      }
+      prepareFilterValues(readFields, readRowMeta);
+      FilterPredicate predicate = createPredicate(filterTypes, readRowMeta);
 
-      ParquetReadSupport readSupport = new ParquetReadSupport(fields);
-      data.reader = new ParquetReaderBuilder<>(readSupport, inputFile).build();
+      MessageType requestedSchema =
+          ParquetReadSupport.createRequestedSchema(fileSchema, readFields);
 
-      RowMetaAndData r = data.reader.read();
-      while (r != null && !isStopped()) {
-        // Add r to the input rows...
-        //
-        Object[] outputRow = RowDataUtil.addRowData(row, getInputRowMeta().size(), r.getData());
-        putRow(data.outputRowMeta, outputRow);
-        r = data.reader.read();
+      if (meta.isVectorizedRead() && ParquetColumnarReader.isSupported(requestedSchema)) {
+        ParquetReadOptions.Builder options =
+            ParquetReadOptions.builder().useStatsFilter(true).useDictionaryFilter(true);
+        if (predicate != null) {
+          options.withRecordFilter(FilterCompat.get(predicate));
+        }
+        ParquetRowConverter rowConverter =
+            new ParquetRowConverter(requestedSchema, readRowMeta, readFields);
+        data.columnarReader =
+            new ParquetColumnarReader(
+                inputFile,
+                options.build(),
+                requestedSchema,
+                rowConverter,
+                ParquetColumnarReader.DEFAULT_BATCH_SIZE);
+
+        Object[][] rows = data.columnarReader.readBatch(readRowMeta.size());
+        while (rows != null && !isStopped()) {
+          for (Object[] values : rows) {
+            putFilteredRow(row, values, readRowMeta, nrFields);
+          }
+          rows = data.columnarReader.readBatch(readRowMeta.size());
+        }
+      } else {
+        ParquetReadSupport readSupport = new ParquetReadSupport(readFields);
+        ParquetReader.Builder<RowMetaAndData> builder =
+            new ParquetReaderBuilder<>(readSupport, inputFile)
+                .useStatsFilter(true)
+                .useDictionaryFilter(true);
+        if (predicate != null) {
+          builder.withFilter(FilterCompat.get(predicate));
+        }
+        data.reader = builder.build();
+
+        RowMetaAndData r = data.reader.read();
+        while (r != null && !isStopped()) {
+          // Add r to the input rows...
+          //
+          putFilteredRow(row, r.getData(), readRowMeta, nrFields);
+          r = data.reader.read();
+        }
       }
     } catch (Exception e) {
       throw new HopException("Error read file " + filename, e);
+    } finally {
+      closeFile();
     }
 
     return true;
   }
 
+  /**
+   * Local files are read directly so that only the column chunks we need are read from disk. Other
+   * files are read into memory.
+   */
+  private InputFile openInputFile(FileObject fileObject, String filename) throws Exception {
+    if (fileObject instanceof LocalFile) {
+      return new LocalInputFile(Paths.get(HopVfs.getFilename(fileObject)));
+    }
+
+    long size = fileObject.getContent().getSize();
+    data.inputStream = HopVfs.getInputStream(fileObject);
+
+    // Reads the whole file into memory...
+    //
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) size);
+    IOUtils.copy(data.inputStream, outputStream);
+    return new ParquetStream(outputStream.toByteArray(), filename);
+  }
+
+  /**
+   * Add the fields we filter on to the fields to read if needed.
+   *
+   * @return the type in the file of the column of every filter
+   */
+  private PrimitiveType[] prepareFilters(MessageType fileSchema, List<ParquetField> readFields)
+      throws HopException {
+    List<ParquetFilter> filters = meta.getFilters();
+    PrimitiveType[] filterTypes = new PrimitiveType[filters.size()];
+    for (int i = 0; i < filters.size(); i++) {
+      ParquetFilter filter = filters.get(i);
+      Type type = null;
+      for (Type fileType : fileSchema.getFields()) {
+        if (fileType.getName().equalsIgnoreCase(filter.getSourceField())) {
+          type = fileType;
+          break;
+        }
+      }
+      if (type == null || !type.isPrimitive()) {
+        throw new HopException(
+            "Unable to filter on field '" + filter.getSourceField() + "': column not found");
+      }
+      if (indexOfSourceField(readFields, filter.getSourceField()) < 0) {
+        readFields.add(
+            new ParquetField(
+                type.getName(),
+                type.getName(),
+                ValueMetaFactory.getValueMetaName(
+                    ParquetInputMeta.getHopType(type.asPrimitiveType())),
+                null,
+                null,
+                null));
+      }
+      filterTypes[i] = type.asPrimitiveType();
+    }
+    return filterTypes;
+  }
+
+  /**
+   * Combine the conditions which can be pushed down to the parquet reader. The values to compare
+   * with are converted with the fields they are compared to, like the rows are checked.
+   *
+   * @return the predicate to push down or null if there is none
+   */
+  private FilterPredicate createPredicate(PrimitiveType[] filterTypes, IRowMeta readRowMeta)
+      throws HopValueException {
+    FilterPredicate predicate = null;
+    for (int i = 0; i < filterTypes.length; i++) {
+      FilterPredicate filterPredicate =
+          meta.getFilters()
+              .get(i)
+              .createPredicate(
+                  filterTypes[i],
+                  readRowMeta.getValueMeta(data.filterIndexes[i]),
+                  data.filterValues[i]);
+      if (filterPredicate != null) {
+        predicate = predicate == null ? filterPredicate : FilterApi.and(predicate, filterPredicate);
+      }
+    }
+    return predicate;
+  }
+
+  private void prepareFilterValues(List<ParquetField> readFields, IRowMeta readRowMeta)
+      throws HopException {
+    List<ParquetFilter> filters = meta.getFilters();
+    data.filterIndexes = new int[filters.size()];
+    data.filterValues = new Object[filters.size()];
+    for (int i = 0; i < filters.size(); i++) {
+      ParquetFilter filter = filters.get(i);
+      int index = indexOfSourceField(readFields, filter.getSourceField());
+      data.filterIndexes[i] = index;
+      data.filterValues[i] =
+          filter.convertValue(readRowMeta.getValueMeta(index), resolve(filter.getValue()));
+    }
+  }
+
+  private static int indexOfSourceField(List<ParquetField> fields, String sourceField) {
+    for (int i = 0; i < fields.size(); i++) {
+      if (fields.get(i).getSourceField().equalsIgnoreCase(sourceField)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Check the values read against the filters: row groups which don't match are skipped by the
+   * reader but the rows of the remaining row groups still need to be checked.
+   */
+  private void putFilteredRow(Object[] row, Object[] values, IRowMeta readRowMeta, int nrFields)
+      throws HopException {
+    List<ParquetFilter> filters = meta.getFilters();
+    for (int i = 0; i < filters.size(); i++) {
+      int index = data.filterIndexes[i];
+      if (!filters
+          .get(i)
+          .matches(readRowMeta.getValueMeta(index), values[index], data.filterValues[i])) {
+        return;
+      }
+    }
+
+    Object[] outputRow = RowDataUtil.createResizedCopy(row, data.outputRowMeta.size());
+    System.arraycopy(values, 0, outputRow, getInputRowMeta().size(), nrFields);
+    putRow(data.outputRowMeta, outputRow);
+  }
+
   public void closeFile() {
-    if (!data.readerClosed && data.reader != null && data.inputStream != null) {
-      try {
+    try {
+      if (data.reader != null) {
         data.reader.close();
+      }
+      if (data.columnarReader != null) {
+        data.columnarReader.close();
+      }
+      if (data.inputStream != null) {
         data.inputStream.close();
-      } catch (IOException e) {
-        logError("Unable to properly close parquet reader!");
       }
-      data.readerClosed = true;
+    } catch (IOException e) {
+      logError("Unable to properly close parquet reader!");
     }
+    data.reader = null;
+    data.columnarReader = null;
+    data.inputStream = null;
   }
 
   @Override
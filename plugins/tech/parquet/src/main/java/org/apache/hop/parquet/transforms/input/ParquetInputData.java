@@ -30,8 +30,14 @@ public class ParquetInputData extends BaseTransformData implements ITransformDat
   public IRowMeta outputRowMeta;
   public int filenameFieldIndex;
   public ParquetReader<RowMetaAndData> reader;
+  public ParquetColumnarReader columnarReader;
   public InputStream inputStream;
-  public boolean readerClosed = false;
+
+  /** The index of the field in the values read for every filter */
+  public int[] filterIndexes;
+
+  /** The converted value to compare with for every filter */
+  public Object[] filterValues;
 
   public ParquetInputData() {
     super();
@@ -50,7 +50,9 @@ public class ParquetInputDialog extends BaseTransformDialog {
 
   private Combo wFilenameField;
   private TextVar wMetaFilename;
+  private Button wVectorizedRead;
   private TableView wFields;
+  private TableView wFilters;
 
   private String returnValue;
 
@@ -147,6 +149,28 @@ public class ParquetInputDialog extends BaseTransformDialog {
     wMetaFilename.setLayoutData(fdMetaFilename);
     lastControl = wMetaFilename;
 
+    Label wlVectorizedRead = new Label(shell, SWT.RIGHT);
+    wlVectorizedRead.setText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.VectorizedRead.Label"));
+    wlVectorizedRead.setToolTipText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.VectorizedRead.Tooltip"));
+    PropsUi.setLook(wlVectorizedRead);
+    FormData fdlVectorizedRead = new FormData();
+    fdlVectorizedRead.left = new FormAttachment(0, 0);
+    fdlVectorizedRead.right = new FormAttachment(middle, -margin);
+    fdlVectorizedRead.top = new FormAttachment(lastControl, margin);
+    wlVectorizedRead.setLayoutData(fdlVectorizedRead);
+    wVectorizedRead = new Button(shell, SWT.CHECK);
+    wVectorizedRead.setToolTipText(
+        BaseMessages.getString(PKG, "ParquetInputDialog.VectorizedRead.Tooltip"));
+    PropsUi.setLook(wVectorizedRead);
+    FormData fdVectorizedRead = new FormData();
+    fdVectorizedRead.left = new FormAttachment(middle, 0);
+    fdVectorizedRead.top = new FormAttachment(wlVectorizedRead, 0, SWT.CENTER);
+    fdVectorizedRead.right = new FormAttachment(100, 0);
+    wVectorizedRead.setLayoutData(fdVectorizedRead);
+    lastControl = wlVectorizedRead;
+
     Label wlFields = new Label(shell, SWT.LEFT);
     wlFields.setText(BaseMessages.getString(PKG, "ParquetInputDialog.Fields.Label"));
     PropsUi.setLook(wlFields);
@@ -195,9 +219,56 @@ public class ParquetInputDialog extends BaseTransformDialog {
     fdFields.left = new FormAttachment(0, 0);
     fdFields.top = new FormAttachment(wlFields, margin);
     fdFields.right = new FormAttachment(100, 0);
-    fdFields.bottom = new FormAttachment(wOk, -2 * margin);
+    fdFields.bottom = new FormAttachment(65, -margin);
     wFields.setLayoutData(fdFields);
 
+    Label wlFilters = new Label(shell, SWT.LEFT);
+    wlFilters.setText(BaseMessages.getString(PKG, "ParquetInputDialog.Filters.Label"));
+    wlFilters.setToolTipText(BaseMessages.getString(PKG, "ParquetInputDialog.Filters.Tooltip"));
+    PropsUi.setLook(wlFilters);
+    FormData fdlFilters = new FormData();
+    fdlFilters.left = new FormAttachment(0, 0);
+    fdlFilters.right = new FormAttachment(middle, -margin);
+    fdlFilters.top = new FormAttachment(wFields, margin);
+    wlFilters.setLayoutData(fdlFilters);
+
+    ColumnInfo[] filterColumns =
+        new ColumnInfo[] {
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "ParquetInputDialog.FiltersColumn.SourceField.Label"),
+              ColumnInfo.COLUMN_TYPE_TEXT,
+              false,
+              false),
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "ParquetInputDialog.FiltersColumn.Operator.Label"),
+              ColumnInfo.COLUMN_TYPE_CCOMBO,
+              ParquetFilter.OPERATORS,
+              true),
+          new ColumnInfo(
+              BaseMessages.getString(PKG, "ParquetInputDialog.FiltersColumn.Value.Label"),
+              ColumnInfo.COLUMN_TYPE_TEXT,
+              false,
+              false),
+        };
+    filterColumns[2].setUsingVariables(true);
+    wFilters =
+        new TableView(
+            variables,
+            shell,
+            SWT.BORDER,
+            filterColumns,
+            input.getFilters().size(),
+            false,
+            null,
+            props);
+    PropsUi.setLook(wFilters);
+    FormData fdFilters = new FormData();
+    fdFilters.left = new FormAttachment(0, 0);
+    fdFilters.top = new FormAttachment(wlFilters, margin);
+    fdFilters.right = new FormAttachment(100, 0);
+    fdFilters.bottom = new FormAttachment(wOk, -2 * margin);
+    wFilters.setLayoutData(fdFilters);
+
     getData();
 
     BaseDialog.defaultShellHandling(shell, c -> ok(), c -> cancel());
@@ -236,6 +307,7 @@ public class ParquetInputDialog extends BaseTransformDialog {
     wTransformName.setText(Const.NVL(transformName, ""));
     wFilenameField.setText(Const.NVL(input.getFilenameField(), ""));
     wMetaFilename.setText(Const.NVL(input.getMetadataFilename(), ""));
+    wVectorizedRead.setSelection(input.isVectorizedRead());
     for (int i = 0; i < input.getFields().size(); i++) {
       ParquetField field = input.getFields().get(i);
       TableItem item = wFields.table.getItem(i);
@@ -247,6 +319,14 @@ public class ParquetInputDialog extends BaseTransformDialog {
       item.setText(index++, Const.NVL(field.getTargetLength(), ""));
       item.setText(index++, Const.NVL(field.getTargetPrecision(), ""));
     }
+    for (int i = 0; i < input.getFilters().size(); i++) {
+      ParquetFilter filter = input.getFilters().get(i);
+      TableItem item = wFilters.table.getItem(i);
+      int index = 1;
+      item.setText(index++, Const.NVL(filter.getSourceField(), ""));
+      item.setText(index++, Const.NVL(filter.getOperator(), ""));
+      item.setText(index++, Const.NVL(filter.getValue(), ""));
+    }
   }
 
   private void ok() {
@@ -260,6 +340,7 @@ public class ParquetInputDialog extends BaseTransformDialog {
   private void getInfo(ParquetInputMeta meta) {
     meta.setFilenameField(wFilenameField.getText());
     meta.setMetadataFilename(wMetaFilename.getText());
+    meta.setVectorizedRead(wVectorizedRead.getSelection());
     meta.getFields().clear();
     for (TableItem item : wFields.getNonEmptyItems()) {
       int index = 1;
@@ -273,6 +354,13 @@ public class ParquetInputDialog extends BaseTransformDialog {
                   item.getText(index++),
                   item.getText(index)));
     }
+    meta.getFilters().clear();
+    for (TableItem item : wFilters.getNonEmptyItems()) {
+      int index = 1;
+      meta.getFilters()
+          .add(
+              new ParquetFilter(item.getText(index++), item.getText(index++), item.getText(index)));
+    }
   }
 
   private void cancel() {
@@ -73,8 +73,15 @@ public class ParquetInputMeta extends BaseTransformMeta<ParquetInput, ParquetInp
   @HopMetadataProperty(groupKey = "fields", key = "field")
   private List<ParquetField> fields;
 
+  @HopMetadataProperty(key = "vectorized_read")
+  private boolean vectorizedRead;
+
+  @HopMetadataProperty(groupKey = "filters", key = "filter")
+  private List<ParquetFilter> filters;
+
   public ParquetInputMeta() {
     fields = new ArrayList<>();
+    filters = new ArrayList<>();
   }
 
   @Override
@@ -153,33 +160,7 @@ public class ParquetInputMeta extends BaseTransformMeta<ParquetInput, ParquetInp
             sourceField += path[i];
           }
         }
-        PrimitiveType primitiveType = column.getPrimitiveType();
-        int hopType = IValueMeta.TYPE_STRING;
-        LogicalTypeAnnotation logicalType = primitiveType.getLogicalTypeAnnotation();
-        if (logicalType != null) {
-          if ((logicalType instanceof TimestampLogicalTypeAnnotation)
-              || (logicalType instanceof TimeLogicalTypeAnnotation)) {
-            hopType = IValueMeta.TYPE_TIMESTAMP;
-          } else if (logicalType instanceof DateLogicalTypeAnnotation) {
-            hopType = IValueMeta.TYPE_DATE;
-          } else if (logicalType instanceof JsonLogicalTypeAnnotation) {
-            hopType = IValueMeta.TYPE_JSON;
-          } else if (logicalType instanceof DecimalLogicalTypeAnnotation) {
-            hopType = IValueMeta.TYPE_BIGNUMBER;
-          } else if (logicalType instanceof IntLogicalTypeAnnotation) {
-            hopType = IValueMeta.TYPE_INTEGER;
-          }
-        } else {
-          hopType =
-              switch (primitiveType.getPrimitiveTypeName()) {
-                case INT32, INT64 -> IValueMeta.TYPE_INTEGER;
-                case INT96 -> IValueMeta.TYPE_BINARY;
-                case FLOAT, DOUBLE -> IValueMeta.TYPE_NUMBER;
-                case BOOLEAN -> IValueMeta.TYPE_BOOLEAN;
-                case BINARY -> IValueMeta.TYPE_BINARY;
-                default -> hopType;
-              };
-        }
+        int hopType = getHopType(column.getPrimitiveType());
         IValueMeta valueMeta = ValueMetaFactory.createValueMeta(sourceField, hopType, -1, -1);
         rowMeta.addValueMeta(valueMeta);
       }
@@ -189,4 +170,40 @@ public class ParquetInputMeta extends BaseTransformMeta<ParquetInput, ParquetInp
           "Unable to extract row metadata from parquet file '" + filename + "'", e);
     }
   }
+
+  /**
+   * Determine the Hop data type to read a parquet column as.
+   *
+   * @param primitiveType the type of the column
+   * @return the Hop data type
+   */
+  public static int getHopType(PrimitiveType primitiveType) {
+    int hopType = IValueMeta.TYPE_STRING;
+    LogicalTypeAnnotation logicalType = primitiveType.getLogicalTypeAnnotation();
+    if (logicalType != null) {
+      if ((logicalType instanceof TimestampLogicalTypeAnnotation)
+          || (logicalType instanceof TimeLogicalTypeAnnotation)) {
+        hopType = IValueMeta.TYPE_TIMESTAMP;
+      } else if (logicalType instanceof DateLogicalTypeAnnotation) {
+        hopType = IValueMeta.TYPE_DATE;
+      } else if (logicalType instanceof JsonLogicalTypeAnnotation) {
+        hopType = IValueMeta.TYPE_JSON;
+      } else if (logicalType instanceof DecimalLogicalTypeAnnotation) {
+        hopType = IValueMeta.TYPE_BIGNUMBER;
+      } else if (logicalType instanceof IntLogicalTypeAnnotation) {
+        hopType = IValueMeta.TYPE_INTEGER;
+      }
+    } else {
+      hopType =
+          switch (primitiveType.getPrimitiveTypeName()) {
+            case INT32, INT64 -> IValueMeta.TYPE_INTEGER;
+            case INT96 -> IValueMeta.TYPE_BINARY;
+            case FLOAT, DOUBLE -> IValueMeta.TYPE_NUMBER;
+            case BOOLEAN -> IValueMeta.TYPE_BOOLEAN;
+            case BINARY -> IValueMeta.TYPE_BINARY;
+            default -> hopType;
+          };
+    }
+    return hopType;
+  }
 }
@@ -17,6 +17,7 @@
 
 package org.apache.hop.parquet.transforms.input;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +28,7 @@ import org.apache.parquet.hadoop.api.InitContext;
 import org.apache.parquet.hadoop.api.ReadSupport;
 import org.apache.parquet.io.api.RecordMaterializer;
 import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
 
 public class ParquetReadSupport extends ReadSupport<RowMetaAndData> {
 
@@ -41,7 +43,32 @@ public class ParquetReadSupport extends ReadSupport<RowMetaAndData> {
   @Override
   public ReadContext init(InitContext context) {
     this.messageType = context.getFileSchema();
-    return new ReadContext(messageType, new HashMap<>());
+    return new ReadContext(createRequestedSchema(messageType, fields), new HashMap<>());
+  }
+
+  /**
+   * Only read the columns of the file we need for the given fields. Without fields we read all
+   * columns.
+   *
+   * @param fileSchema the schema of the file
+   * @param fields the fields to read
+   * @return the schema to request from the file
+   */
+  public static MessageType createRequestedSchema(
+      MessageType fileSchema, List<ParquetField> fields) {
+    if (fields.isEmpty()) {
+      return fileSchema;
+    }
+    List<Type> types = new ArrayList<>();
+    for (Type type : fileSchema.getFields()) {
+      for (ParquetField field : fields) {
+        if (type.getName().equalsIgnoreCase(field.getSourceField())) {
+          types.add(type);
+          break;
+        }
+      }
+    }
+    return new MessageType(fileSchema.getName(), types);
   }
 
   @Override
@@ -50,6 +77,6 @@ public class ParquetReadSupport extends ReadSupport<RowMetaAndData> {
       Map<String, String> keyValueMetaData,
       MessageType messageType,
       ReadContext readContext) {
-    return new ParquetRecordMaterializer(messageType, fields);
+    return new ParquetRecordMaterializer(readContext.getRequestedSchema(), fields);
   }
 }
@@ -0,0 +1,381 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.parquet.transforms.input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.parquet.ParquetReadOptions;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.apache.parquet.schema.PrimitiveType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Reads a small parquet file with every operator on every supported column type and checks that the
+ * rows found with the conditions pushed down to the reader are the rows which match the conditions.
+ */
+class ParquetFilterTest {
+
+  private static final int NR_ROWS = 24;
+  private static final String[] STRINGS = {"a", "b", "B", "b ", "é", "c"};
+
+  private static final MessageType SCHEMA =
+      MessageTypeParser.parseMessageType(
+          "message test {\n"
+              + "  required int64 id;\n"
+              + "  optional int32 i32;\n"
+              + "  optional int64 i64;\n"
+              + "  optional float f;\n"
+              + "  optional double d;\n"
+              + "  optional boolean b;\n"
+              + "  optional binary s (STRING);\n"
+              + "}");
+
+  @TempDir static Path folder;
+
+  private static InputFile inputFile;
+
+  @BeforeAll
+  static void writeFile() throws Exception {
+    HopClientEnvironment.init();
+
+    Path path = folder.resolve("filter-test.parquet");
+    SimpleGroupFactory factory = new SimpleGroupFactory(SCHEMA);
+    try (ParquetWriter<Group> writer =
+        ExampleParquetWriter.builder(new LocalOutputFile(path)).withType(SCHEMA).build()) {
+      for (int i = 0; i < NR_ROWS; i++) {
+        Group group = factory.newGroup().append("id", (long) i);
+        if (i % 7 != 0) {
+          group.append("i32", i - 10);
+        }
+        if (i % 5 != 0) {
+          group.append("i64", i * 1_000_000_000L - 5_000_000_000L);
+        }
+        if (i % 6 != 0) {
+          group.append("f", i * 0.1f);
+        }
+        if (i % 4 != 0) {
+          group.append("d", i * 0.5);
+        }
+        if (i % 3 != 0) {
+          group.append("b", i % 2 == 0);
+        }
+        if (i % 8 != 0) {
+          group.append("s", STRINGS[i % STRINGS.length]);
+        }
+        writer.write(group);
+      }
+    }
+    inputFile = new LocalInputFile(path);
+  }
+
+  @Test
+  void testIntegerFilters() throws Exception {
+    checkFilters("i32", "Integer", "-3", "0", "5", "3000000000", "-3000000000");
+    checkFilters("i64", "Integer", "0", "5000000000", "-4000000000");
+  }
+
+  @Test
+  void testNumberFilters() throws Exception {
+    checkFilters("f", "Number", "0.5", "0.1", "0.3", "0.30000001192092896", "2");
+    checkFilters("d", "Number", "2.5", "3", "0.25");
+  }
+
+  @Test
+  void testBooleanFilters() throws Exception {
+    checkFilters("b", "Boolean", "Y", "N", "true", "false");
+  }
+
+  @Test
+  void testStringFilters() throws Exception {
+    checkFilters("s", "String", "b", "B", "b ", "é", "a");
+  }
+
+  @Test
+  void testFiltersOnConvertedFields() throws Exception {
+    // A number read as a string is compared as a string, "10" is smaller than "9"
+    checkFilters("i32", "String", "-3", "5", "9");
+    checkFilters("d", "String", "2.5", "10.0");
+  }
+
+  @Test
+  void testFilterNameIgnoresCase() throws Exception {
+    List<ParquetField> fields =
+        List.of(
+            new ParquetField("id", "id", "Integer", null, null, null),
+            new ParquetField("i32", "i32", "Integer", null, null, null));
+    ParquetFilter filter = new ParquetFilter("I32", ParquetFilter.OPERATOR_LARGER, "2");
+    // The predicate uses the name of the column in the file
+    assertNotNull(createPredicate(fields, filter));
+    assertEquals(expectedIds(fields, filter), readIds(fields, filter, false));
+  }
+
+  @Test
+  void testPushedDownPredicates() throws Exception {
+    assertNotNull(predicate("i32", "Integer", ParquetFilter.OPERATOR_SMALLER, "5"));
+    assertNotNull(predicate("i64", "Integer", ParquetFilter.OPERATOR_LARGER_EQUAL, "0"));
+    assertNotNull(predicate("f", "Number", ParquetFilter.OPERATOR_SMALLER, "0.5"));
+    assertNotNull(predicate("d", "Number", ParquetFilter.OPERATOR_NOT_EQUAL, "2.5"));
+    assertNotNull(predicate("b", "Boolean", ParquetFilter.OPERATOR_EQUAL, "Y"));
+    assertNotNull(predicate("s", "String", ParquetFilter.OPERATOR_EQUAL, "b"));
+    assertNotNull(predicate("s", "String", ParquetFilter.OPERATOR_IS_NULL, null));
+
+    // Out of range, rounded or compared differently by the reader: only checked on the rows
+    assertNull(predicate("i32", "Integer", ParquetFilter.OPERATOR_SMALLER, "3000000000"));
+    assertNull(predicate("f", "Number", ParquetFilter.OPERATOR_SMALLER, "0.1"));
+    assertNull(predicate("i32", "String", ParquetFilter.OPERATOR_SMALLER, "5"));
+    assertNull(predicate("s", "String", ParquetFilter.OPERATOR_SMALLER, "b"));
+    assertNull(predicate("b", "Boolean", ParquetFilter.OPERATOR_LARGER, "N"));
+  }
+
+  @Test
+  void testProjection() throws Exception {
+    List<ParquetField> fields =
+        List.of(
+            new ParquetField("id", "id", "Integer", null, null, null),
+            new ParquetField("s", "s", "String", null, null, null));
+    ParquetFilter filter = new ParquetFilter("d", ParquetFilter.OPERATOR_LARGER, "3");
+
+    // The column we filter on is read as well but nothing else
+    List<ParquetField> readFields = readFields(fields, filter);
+    MessageType requested = ParquetReadSupport.createRequestedSchema(SCHEMA, readFields);
+    assertEquals(3, requested.getFieldCount());
+    assertTrue(requested.containsField("id"));
+    assertTrue(requested.containsField("s"));
+    assertTrue(requested.containsField("d"));
+
+    for (boolean vectorized : new boolean[] {false, true}) {
+      List<Object[]> rows = read(fields, filter, vectorized, true);
+      assertEquals(expectedIds(fields, filter), ids(rows));
+      for (Object[] row : rows) {
+        int id = ((Long) row[0]).intValue();
+        assertEquals(id % 8 == 0 ? null : STRINGS[id % STRINGS.length], row[1]);
+        assertEquals(id * 0.5, (Double) row[2], 0.0);
+      }
+    }
+  }
+
+  /** Check every operator with every value, on both read paths */
+  private void checkFilters(String column, String type, String... values) throws Exception {
+    List<ParquetField> fields =
+        List.of(
+            new ParquetField("id", "id", "Integer", null, null, null),
+            new ParquetField(column, column, type, null, null, null));
+    List<ParquetFilter> filters = new ArrayList<>();
+    for (String operator : ParquetFilter.OPERATORS) {
+      if (operator.equals(ParquetFilter.OPERATOR_IS_NULL)
+          || operator.equals(ParquetFilter.OPERATOR_IS_NOT_NULL)) {
+        filters.add(new ParquetFilter(column, operator, null));
+      } else {
+        for (String value : values) {
+          filters.add(new ParquetFilter(column, operator, value));
+        }
+      }
+    }
+
+    for (ParquetFilter filter : filters) {
+      Set<Long> expected = expectedIds(fields, filter);
+      for (boolean vectorized : new boolean[] {false, true}) {
+        String description =
+            column + " (" + type + ") " + filter.getOperator() + " " + filter.getValue();
+        // Rows which aren't passed on by the reader are lost
+        Set<Long> pushedDown = readIds(fields, filter, vectorized, false);
+        assertTrue(pushedDown.containsAll(expected), "Rows lost for " + description);
+        // Rows which don't match are removed
+        assertEquals(
+            expected, readIds(fields, filter, vectorized), "Wrong rows for " + description);
+      }
+    }
+  }
+
+  /** The ids of the rows matching the filter, checked on every row of the file */
+  private Set<Long> expectedIds(List<ParquetField> fields, ParquetFilter filter) throws Exception {
+    List<ParquetField> readFields = readFields(fields, filter);
+    IRowMeta rowMeta = rowMeta(readFields);
+    int index = indexOf(readFields, filter.getSourceField());
+    IValueMeta valueMeta = rowMeta.getValueMeta(index);
+    Object compareValue = filter.convertValue(valueMeta, filter.getValue());
+
+    Set<Long> ids = new TreeSet<>();
+    for (Object[] row : readRows(readFields, rowMeta, null, false)) {
+      if (filter.matches(valueMeta, row[index], compareValue)) {
+        ids.add((Long) row[0]);
+      }
+    }
+    return ids;
+  }
+
+  private Set<Long> readIds(List<ParquetField> fields, ParquetFilter filter, boolean vectorized)
+      throws Exception {
+    return readIds(fields, filter, vectorized, true);
+  }
+
+  private Set<Long> readIds(
+      List<ParquetField> fields, ParquetFilter filter, boolean vectorized, boolean checkRows)
+      throws Exception {
+    return ids(read(fields, filter, vectorized, checkRows));
+  }
+
+  /** Read the file like the transform does: push the filter down and check the rows */
+  private List<Object[]> read(
+      List<ParquetField> fields, ParquetFilter filter, boolean vectorized, boolean checkRows)
+      throws Exception {
+    List<ParquetField> readFields = readFields(fields, filter);
+    IRowMeta rowMeta = rowMeta(readFields);
+    int index = indexOf(readFields, filter.getSourceField());
+    IValueMeta valueMeta = rowMeta.getValueMeta(index);
+    Object compareValue = filter.convertValue(valueMeta, filter.getValue());
+    FilterPredicate predicate = createPredicate(readFields, filter);
+
+    List<Object[]> rows = new ArrayList<>();
+    for (Object[] row : readRows(readFields, rowMeta, predicate, vectorized)) {
+      if (!checkRows || filter.matches(valueMeta, row[index], compareValue)) {
+        rows.add(row);
+      }
+    }
+    return rows;
+  }
+
+  private List<Object[]> readRows(
+      List<ParquetField> readFields,
+      IRowMeta rowMeta,
+      FilterPredicate predicate,
+      boolean vectorized)
+      throws Exception {
+    List<Object[]> rows = new ArrayList<>();
+    MessageType requestedSchema = ParquetReadSupport.createRequestedSchema(SCHEMA, readFields);
+    if (vectorized) {
+      ParquetReadOptions.Builder options =
+          ParquetReadOptions.builder().useStatsFilter(true).useDictionaryFilter(true);
+      if (predicate != null) {
+        options.withRecordFilter(FilterCompat.get(predicate));
+      }
+      try (ParquetColumnarReader reader =
+          new ParquetColumnarReader(
+              inputFile,
+              options.build(),
+              requestedSchema,
+              new ParquetRowConverter(requestedSchema, rowMeta, readFields),
+              5)) {
+        Object[][] batch = reader.readBatch(rowMeta.size());
+        while (batch != null) {
+          rows.addAll(List.of(batch));
+          batch = reader.readBatch(rowMeta.size());
+        }
+      }
+    } else {
+      ParquetReader.Builder<RowMetaAndData> builder =
+          new ParquetReaderBuilder<>(new ParquetReadSupport(readFields), inputFile)
+              .useStatsFilter(true)
+              .useDictionaryFilter(true);
+      if (predicate != null) {
+        builder.withFilter(FilterCompat.get(predicate));
+      }
+      try (ParquetReader<RowMetaAndData> reader = builder.build()) {
+        RowMetaAndData row = reader.read();
+        while (row != null) {
+          rows.add(row.getData().clone());
+          row = reader.read();
+        }
+      }
+    }
+    return rows;
+  }
+
+  private FilterPredicate predicate(String column, String type, String operator, String value)
+      throws Exception {
+    return createPredicate(
+        List.of(new ParquetField(column, column, type, null, null, null)),
+        new ParquetFilter(column, operator, value));
+  }
+
+  private FilterPredicate createPredicate(List<ParquetField> fields, ParquetFilter filter)
+      throws Exception {
+    List<ParquetField> readFields = readFields(fields, filter);
+    IValueMeta valueMeta =
+        rowMeta(readFields).getValueMeta(indexOf(readFields, filter.getSourceField()));
+    PrimitiveType primitiveType = null;
+    for (int i = 0; i < SCHEMA.getFieldCount(); i++) {
+      if (SCHEMA.getType(i).getName().equalsIgnoreCase(filter.getSourceField())) {
+        primitiveType = SCHEMA.getType(i).asPrimitiveType();
+      }
+    }
+    return filter.createPredicate(
+        primitiveType, valueMeta, filter.convertValue(valueMeta, filter.getValue()));
+  }
+
+  /** The fields to read: the column we filter on is added in its own type if needed */
+  private List<ParquetField> readFields(List<ParquetField> fields, ParquetFilter filter) {
+    List<ParquetField> readFields = new ArrayList<>(fields);
+    if (indexOf(readFields, filter.getSourceField()) < 0) {
+      String name = filter.getSourceField();
+      readFields.add(new ParquetField(name, name, "Number", null, null, null));
+    }
+    return readFields;
+  }
+
+  private IRowMeta rowMeta(List<ParquetField> fields) throws Exception {
+    IRowMeta rowMeta = new RowMeta();
+    for (ParquetField field : fields) {
+      rowMeta.addValueMeta(field.createValueMeta());
+    }
+    return rowMeta;
+  }
+
+  private static int indexOf(List<ParquetField> fields, String sourceField) {
+    for (int i = 0; i < fields.size(); i++) {
+      if (fields.get(i).getSourceField().equalsIgnoreCase(sourceField)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static Set<Long> ids(List<Object[]> rows) {
+    Set<Long> ids = new TreeSet<>();
+    for (Object[] row : rows) {
+      ids.add((Long) row[0]);
+    }
+    return ids;
+  }
+}
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.SocketTimeoutException;
+import java.nio.file.Path;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import org.apache.commons.vfs2.FileObject;
@@ -33,6 +34,9 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.spill.SpillFile;
+import org.apache.hop.core.spill.SpillFileReader;
+import org.apache.hop.core.spill.SpillFileWriter;
 import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -71,6 +75,10 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
             && r == null
             && !data.buffer.isEmpty()) // No more records: join from disk
     ) {
+      if (data.spillCodec != null) {
+        return writeSpillFile(rowMeta);
+      }
+
       // Then write them to disk...
       DataOutputStream dos;
       GZIPOutputStream gzos;
@@ -114,7 +122,69 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
     return true;
   }
 
-  private Object[] getBuffer() {
+  /** Write the buffer to a temporary file in the compact spill file format */
+  private boolean writeSpillFile(IRowMeta rowMeta) {
+    try {
+      Path path = SpillFile.createTempFile(resolve(meta.getDirectory()), meta.getPrefix());
+      data.files.add(HopVfs.getFileObject(path.toString())); // Remember the files!
+
+      try (SpillFileWriter spillWriter =
+          new SpillFileWriter(path, rowMeta, data.spillCodec, data.spillDictionary)) {
+        for (Object[] row : data.buffer) {
+          spillWriter.writeRow(row);
+        }
+      }
+    } catch (Exception e) {
+      logError("Error processing tmp-file: " + e.toString());
+      return false;
+    }
+
+    data.buffer.clear();
+    return true;
+  }
+
+  /** Read the rows back from the spill files in the order they were written */
+  private Object[] getSpillBuffer() throws HopException {
+    while (!data.files.isEmpty()) {
+      FileObject fileObject = data.files.get(0);
+      if (data.spillReader == null) {
+        if (isDetailed()) {
+          logDetailed(
+              BaseMessages.getString(PKG, "BlockingTransform.Log.Openfilename1")
+                  + HopVfs.getFilename(fileObject)
+                  + BaseMessages.getString(PKG, "BlockingTransform.Log.Openfilename2"));
+        }
+        data.spillReader = new SpillFileReader(fileObject.getPath(), data.outputRowMeta);
+      }
+      Object[] row = data.spillReader.readRow();
+      if (row != null) {
+        return row;
+      }
+
+      // The file is read completely, continue with the next one
+      //
+      BaseTransform.closeQuietly(data.spillReader);
+      data.spillReader = null;
+      try {
+        fileObject.delete();
+      } catch (IOException e) {
+        throw new HopException(
+            BaseMessages.getString(PKG, "BlockingTransformMeta.UnableDeleteFile") + fileObject, e);
+      }
+      data.files.remove(0);
+    }
+
+    if (!data.buffer.isEmpty()) {
+      return data.buffer.remove(0);
+    }
+    return null;
+  }
+
+  private Object[] getBuffer() throws HopException {
+    if (data.spillCodec != null) {
+      return getSpillBuffer();
+    }
+
     Object[] retval;
 
     // Open all files at once and read one row from each file...
@@ -229,6 +299,7 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
 
   @Override
   public void dispose() {
+    BaseTransform.closeQuietly(data.spillReader);
     if ((data.dis != null) && (!data.dis.isEmpty())) {
       for (DataInputStream is : data.dis) {
         BaseTransform.closeQuietly(is);
@@ -252,7 +323,10 @@ public class BlockingTransform extends BaseTransform<BlockingTransformMeta, Bloc
   public boolean init() {
 
     if (super.init()) {
-      // Add init code here.
+      // Use the compact spill file format for the temporary files?
+      //
+      data.spillCodec = SpillFile.getCodecName(this);
+      data.spillDictionary = SpillFile.isDictionaryEncoding(this);
       return true;
     }
     return false;
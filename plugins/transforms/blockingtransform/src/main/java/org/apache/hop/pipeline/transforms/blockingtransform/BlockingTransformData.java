@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.zip.GZIPInputStream;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.spill.SpillFileReader;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
@@ -36,6 +37,14 @@ public class BlockingTransformData extends BaseTransformData implements ITransfo
   public List<DataInputStream> dis;
   public List<Object[]> rowbuffer;
 
+  /** The codec of the spill file format or null to use the classic temporary file format */
+  public String spillCodec;
+
+  public boolean spillDictionary;
+
+  /** The reader of the spill file which is being read back */
+  public SpillFileReader spillReader;
+
   public IRowMeta outputRowMeta;
 
   public int[] fieldnrs; // the corresponding field numbers
@@ -25,6 +25,7 @@ import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
@@ -59,6 +60,9 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
 
   @Override
   public boolean processRow() throws HopException {
+    if (isUsingRowBatches()) {
+      return processRowBatch();
+    }
 
     Object[] r = getRow(); // get row, set busy!
     if (r == null) { // no more input to be expected...
@@ -69,96 +73,7 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
 
     if (first) {
       first = false;
-      data.setOutputRowMeta(getInputRowMeta().clone());
-      meta.getFields(
-          data.getOutputRowMeta(), getTransformName(), null, null, this, metadataProvider);
-
-      // get all metadata, including source rows and temporary fields.
-      data.setCalcRowMeta(meta.getAllFields(getInputRowMeta()));
-
-      data.setFieldIndexes(new FieldIndexes[meta.getFunctions().size()]);
-      List<Integer> tempIndexes = new ArrayList<>();
-
-      // Calculate the indexes of the values and arguments in the target data or temporary data
-      // We do this in advance to save time later on.
-      //
-      for (int i = 0; i < meta.getFunctions().size(); i++) {
-        CalculatorMetaFunction function = meta.getFunctions().get(i);
-        data.getFieldIndexes()[i] = new FieldIndexes();
-
-        if (!Utils.isEmpty(function.getFieldName())) {
-          data.getFieldIndexes()[i].indexName =
-              data.getCalcRowMeta().indexOfValue(function.getFieldName());
-          if (data.getFieldIndexes()[i].indexName < 0) {
-            // Nope: throw an exception
-            throw new HopTransformException(
-                BaseMessages.getString(
-                    PKG,
-                    "Calculator.Error.UnableFindField",
-                    function.getFieldName(),
-                    "" + (i + 1)));
-          }
-        } else {
-          throw new HopTransformException(
-              BaseMessages.getString(PKG, "Calculator.Error.NoNameField", "" + (i + 1)));
-        }
-
-        if (!Utils.isEmpty(function.getFieldA())) {
-          if (function.getCalcType() != CalculationType.CONSTANT) {
-            data.getFieldIndexes()[i].indexA =
-                data.getCalcRowMeta().indexOfValue(function.getFieldA());
-            if (data.getFieldIndexes()[i].indexA < 0) {
-              // Nope: throw an exception
-              throw new HopTransformException(
-                  "Unable to find the first argument field '"
-                      + function.getFieldName()
-                      + CONST_FOR_CALCULATION
-                      + (i + 1));
-            }
-          } else {
-            data.getFieldIndexes()[i].indexA = -1;
-          }
-        } else {
-          throw new HopTransformException(
-              "There is no first argument specified for calculated field #" + (i + 1));
-        }
-
-        if (!Utils.isEmpty(function.getFieldB())) {
-          data.getFieldIndexes()[i].indexB =
-              data.getCalcRowMeta().indexOfValue(function.getFieldB());
-          if (data.getFieldIndexes()[i].indexB < 0) {
-            // Nope: throw an exception
-            throw new HopTransformException(
-                "Unable to find the second argument field '"
-                    + function.getFieldName()
-                    + CONST_FOR_CALCULATION
-                    + (i + 1));
-          }
-        }
-        data.getFieldIndexes()[i].indexC = -1;
-        if (!Utils.isEmpty(function.getFieldC())) {
-          data.getFieldIndexes()[i].indexC =
-              data.getCalcRowMeta().indexOfValue(function.getFieldC());
-          if (data.getFieldIndexes()[i].indexC < 0) {
-            // Nope: throw an exception
-            throw new HopTransformException(
-                "Unable to find the third argument field '"
-                    + function.getFieldName()
-                    + CONST_FOR_CALCULATION
-                    + (i + 1));
-          }
-        }
-
-        if (function.isRemovedFromResult()) {
-          tempIndexes.add(getInputRowMeta().size() + i);
-        }
-      }
-
-      // Convert temp indexes to int[]
-      data.setTempIndexes(new int[tempIndexes.size()]);
-      for (int i = 0; i < data.getTempIndexes().length; i++) {
-        data.getTempIndexes()[i] = tempIndexes.get(i);
-      }
+      initializeCalculations();
     }
 
     if (isRowLevel()) {
@@ -195,6 +110,150 @@ public class Calculator extends BaseTransform<CalculatorMeta, CalculatorData> {
     return true;
   }
 
+  private boolean processRowBatch() throws HopException {
+    long previousLinesRead = getLinesRead();
+    RowBatch batch = getRowBatch(getRowBatchSize()); // get rows, set busy!
+    if (batch == null) { // no more input to be expected...
+      setOutputDone();
+      data.clearValuesMetaMapping();
+      return false;
+    }
+
+    if (first) {
+      first = false;
+      initializeCalculations();
+    }
+
+    // A missing file only skips the row it occurred in, just like in the row by row case
+    //
+    boolean[] selection = new boolean[batch.size()];
+    try {
+      for (int i = 0; i < batch.size(); i++) {
+        Object[] r = batch.getRow(i);
+        if (isRowLevel()) {
+          logRowlevel(
+              BaseMessages.getString(PKG, "Calculator.Log.ReadRow")
+                  + (previousLinesRead + i + 1)
+                  + " : "
+                  + getInputRowMeta().getString(r));
+        }
+        try {
+          batch.setRow(i, calcFields(getInputRowMeta(), r));
+          selection[i] = true;
+        } catch (HopFileNotFoundException e) {
+          if (meta.isFailIfNoFile()) {
+            logError(
+                BaseMessages.getString(PKG, "Calculator.Log.NoFile") + " : " + e.getFilepath());
+            setErrors(getErrors() + 1);
+            return false;
+          }
+        }
+      }
+    } catch (HopException e) {
+      logError(
+          BaseMessages.getString(
+              PKG, "Calculator.ErrorInTransformRunning" + " : " + e.getMessage()));
+      throw new HopTransformException(
+          BaseMessages.getString(PKG, "Calculator.ErrorInTransformRunning"), e);
+    }
+
+    batch.retainRows(selection);
+    batch.setRowMeta(data.getOutputRowMeta());
+    putRowBatch(batch); // copy rows to possible alternate rowset(s).
+
+    if (checkFeedback(previousLinesRead, getLinesRead()) && isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "Calculator.Log.Linenr", "" + getLinesRead()));
+    }
+    return true;
+  }
+
+  private void initializeCalculations() throws HopException {
+    data.setOutputRowMeta(getInputRowMeta().clone());
+    meta.getFields(data.getOutputRowMeta(), getTransformName(), null, null, this, metadataProvider);
+
+    // get all metadata, including source rows and temporary fields.
+    data.setCalcRowMeta(meta.getAllFields(getInputRowMeta()));
+
+    data.setFieldIndexes(new FieldIndexes[meta.getFunctions().size()]);
+    List<Integer> tempIndexes = new ArrayList<>();
+
+    // Calculate the indexes of the values and arguments in the target data or temporary data
+    // We do this in advance to save time later on.
+    //
+    for (int i = 0; i < meta.getFunctions().size(); i++) {
+      CalculatorMetaFunction function = meta.getFunctions().get(i);
+      data.getFieldIndexes()[i] = new FieldIndexes();
+
+      if (!Utils.isEmpty(function.getFieldName())) {
+        data.getFieldIndexes()[i].indexName =
+            data.getCalcRowMeta().indexOfValue(function.getFieldName());
+        if (data.getFieldIndexes()[i].indexName < 0) {
+          // Nope: throw an exception
+          throw new HopTransformException(
+              BaseMessages.getString(
+                  PKG, "Calculator.Error.UnableFindField", function.getFieldName(), "" + (i + 1)));
+        }
+      } else {
+        throw new HopTransformException(
+            BaseMessages.getString(PKG, "Calculator.Error.NoNameField", "" + (i + 1)));
+      }
+
+      if (!Utils.isEmpty(function.getFieldA())) {
+        if (function.getCalcType() != CalculationType.CONSTANT) {
+          data.getFieldIndexes()[i].indexA =
+              data.getCalcRowMeta().indexOfValue(function.getFieldA());
+          if (data.getFieldIndexes()[i].indexA < 0) {
+            // Nope: throw an exception
+            throw new HopTransformException(
+                "Unable to find the first argument field '"
+                    + function.getFieldName()
+                    + CONST_FOR_CALCULATION
+                    + (i + 1));
+          }
+        } else {
+          data.getFieldIndexes()[i].indexA = -1;
+        }
+      } else {
+        throw new HopTransformException(
+            "There is no first argument specified for calculated field #" + (i + 1));
+      }
+
+      if (!Utils.isEmpty(function.getFieldB())) {
+        data.getFieldIndexes()[i].indexB = data.getCalcRowMeta().indexOfValue(function.getFieldB());
+        if (data.getFieldIndexes()[i].indexB < 0) {
+          // Nope: throw an exception
+          throw new HopTransformException(
+              "Unable to find the second argument field '"
+                  + function.getFieldName()
+                  + CONST_FOR_CALCULATION
+                  + (i + 1));
+        }
+      }
+      data.getFieldIndexes()[i].indexC = -1;
+      if (!Utils.isEmpty(function.getFieldC())) {
+        data.getFieldIndexes()[i].indexC = data.getCalcRowMeta().indexOfValue(function.getFieldC());
+        if (data.getFieldIndexes()[i].indexC < 0) {
+          // Nope: throw an exception
+          throw new HopTransformException(
+              "Unable to find the third argument field '"
+                  + function.getFieldName()
+                  + CONST_FOR_CALCULATION
+                  + (i + 1));
+        }
+      }
+
+      if (function.isRemovedFromResult()) {
+        tempIndexes.add(getInputRowMeta().size() + i);
+      }
+    }
+
+    // Convert temp indexes to int[]
+    data.setTempIndexes(new int[tempIndexes.size()]);
+    for (int i = 0; i < data.getTempIndexes().length; i++) {
+      data.getTempIndexes()[i] = tempIndexes.get(i);
+    }
+  }
+
   /**
    * @param inputRowMeta the input row metadata
    * @param r the input row (data)
@@ -0,0 +1,505 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.combinationlookup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.Date;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+
+/**
+ * A cache of combinations of key values to technical keys which lives outside of the Java heap.
+ *
+ * <p>The key values are reduced to a 128-bit fingerprint. The fingerprint and the technical key are
+ * stored in an open addressing hash table of fixed size slots, so an entry takes 24 bytes no matter
+ * how many key fields there are. The table is kept in direct memory or in a memory-mapped file. A
+ * file is kept after the run together with the highest technical key of the table at that time so
+ * that the next run can start with a warm cache.
+ *
+ * <p>Only the fingerprint is kept, not the key values themselves. Two different combinations with
+ * the same fingerprint would therefore get the technical key of the combination which was stored
+ * first. This is a matter of probability: for n combinations the chance of such a collision is
+ * about n&sup2; / 2<sup>129</sup>, which is less than 1 in 10<sup>20</sup> for a billion
+ * combinations. Don't use this cache when even that chance isn't acceptable.
+ */
+public class CombinationKeyCache {
+  private static final long MAGIC = 0x486f70436f6d6231L;
+  private static final int FORMAT_VERSION = 2;
+  private static final int HEADER_SIZE = 64;
+  private static final int CLEAN_OFFSET = 12;
+  private static final int CAPACITY_OFFSET = 16;
+  private static final int SIZE_OFFSET = 24;
+  private static final int MAX_TECHNICAL_KEY_OFFSET = 32;
+  private static final int SIGNATURE_OFFSET = 40;
+
+  private static final int SLOT_SIZE = 24;
+  private static final int CHUNK_BITS = 25;
+  private static final long SLOTS_PER_CHUNK = 1L << CHUNK_BITS;
+  private static final long CHUNK_MASK = SLOTS_PER_CHUNK - 1;
+  private static final long MIN_CAPACITY = 1024;
+  private static final double MAX_LOAD = 0.6;
+
+  private Path file;
+  private final Path targetFile;
+  private final long signatureHash;
+  private long capacity;
+  private long size;
+  private ByteBuffer header;
+  private ByteBuffer[] chunks;
+
+  private final KeyBuffer keyBuffer = new KeyBuffer();
+  private final DataOutputStream keyOutput = new DataOutputStream(keyBuffer);
+  private long fingerprint1;
+  private long fingerprint2;
+
+  private CombinationKeyCache(Path file, String signature) {
+    this.file = file;
+    this.targetFile = file;
+    this.signatureHash = signature == null ? 0L : hash(signature);
+  }
+
+  /**
+   * Create an empty cache in direct memory.
+   *
+   * @param expectedSize the expected number of combinations
+   * @return the cache
+   * @throws HopException in case the memory can't be allocated
+   */
+  public static CombinationKeyCache newCache(long expectedSize) throws HopException {
+    CombinationKeyCache cache = new CombinationKeyCache(null, null);
+    cache.allocate(capacityFor(expectedSize));
+    return cache;
+  }
+
+  /**
+   * Create an empty cache in a memory-mapped file. An existing file is replaced.
+   *
+   * @param file the file to keep the cache in
+   * @param signature the description of the dimension table and its key fields
+   * @param expectedSize the expected number of combinations
+   * @return the cache
+   * @throws HopException in case the file can't be written
+   */
+  public static CombinationKeyCache newCache(Path file, String signature, long expectedSize)
+      throws HopException {
+    CombinationKeyCache cache = new CombinationKeyCache(file, signature);
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      throw new HopException("Unable to create combination cache file " + file, e);
+    }
+    cache.allocate(capacityFor(expectedSize));
+    return cache;
+  }
+
+  /**
+   * Open the cache file which was kept by a previous run.
+   *
+   * @param file the cache file
+   * @param signature the description of the dimension table and its key fields
+   * @param maxTechnicalKey the current highest technical key in the dimension table
+   * @return the cache or null if there is no file or if it is out of date
+   * @throws HopException in case the file can't be read
+   */
+  public static CombinationKeyCache open(Path file, String signature, long maxTechnicalKey)
+      throws HopException {
+    if (!Files.exists(file)) {
+      return null;
+    }
+    CombinationKeyCache cache = new CombinationKeyCache(file, signature);
+    try (FileChannel channel =
+        FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      if (channel.size() < HEADER_SIZE) {
+        return null;
+      }
+      MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+      long capacity = header.getLong(CAPACITY_OFFSET);
+      if (header.getLong(0) != MAGIC
+          || header.getInt(8) != FORMAT_VERSION
+          || header.getInt(CLEAN_OFFSET) != 1
+          || header.getLong(SIGNATURE_OFFSET) != cache.signatureHash
+          || header.getLong(MAX_TECHNICAL_KEY_OFFSET) != maxTechnicalKey
+          || channel.size() != HEADER_SIZE + capacity * SLOT_SIZE) {
+        return null;
+      }
+      cache.header = header;
+      cache.capacity = capacity;
+      cache.size = header.getLong(SIZE_OFFSET);
+      cache.chunks = mapChunks(channel, capacity);
+
+      // Until the cache is closed properly the file can't be trusted
+      //
+      header.putInt(CLEAN_OFFSET, 0);
+      header.force();
+      return cache;
+    } catch (IOException e) {
+      throw new HopException("Error reading combination cache file " + file, e);
+    }
+  }
+
+  /**
+   * Look up the technical key of a combination of key values.
+   *
+   * @param rowMeta the description of the key values
+   * @param row the key values
+   * @return the technical key or null if the combination isn't cached
+   * @throws HopValueException in case a key value can't be read
+   */
+  public Long get(IRowMeta rowMeta, Object[] row) throws HopValueException {
+    fingerprint(rowMeta, row);
+    long slot = findSlot(fingerprint1, fingerprint2);
+    ByteBuffer chunk = chunks[(int) (slot >>> CHUNK_BITS)];
+    int offset = (int) (slot & CHUNK_MASK) * SLOT_SIZE;
+    if (chunk.getLong(offset) == 0L && chunk.getLong(offset + 8) == 0L) {
+      return null;
+    }
+    return chunk.getLong(offset + 16);
+  }
+
+  /**
+   * Store the technical key of a combination of key values.
+   *
+   * @param rowMeta the description of the key values
+   * @param row the key values
+   * @param technicalKey the technical key
+   * @throws HopException in case a key value can't be read or the cache can't grow
+   */
+  public void put(IRowMeta rowMeta, Object[] row, long technicalKey) throws HopException {
+    fingerprint(rowMeta, row);
+    if (store(fingerprint1, fingerprint2, technicalKey) && size > capacity * MAX_LOAD) {
+      resize(capacity * 2);
+    }
+  }
+
+  /**
+   * Close the cache. A cache file is kept for the next run.
+   *
+   * @param maxTechnicalKey the highest technical key in the dimension table now
+   * @throws HopException in case the file can't be updated
+   */
+  public void close(long maxTechnicalKey) throws HopException {
+    if (header instanceof MappedByteBuffer mappedHeader) {
+      for (ByteBuffer chunk : chunks) {
+        ((MappedByteBuffer) chunk).force();
+      }
+      mappedHeader.putLong(SIZE_OFFSET, size);
+      mappedHeader.putLong(MAX_TECHNICAL_KEY_OFFSET, maxTechnicalKey);
+      mappedHeader.putInt(CLEAN_OFFSET, 1);
+      mappedHeader.force();
+      if (!file.equals(targetFile)) {
+        moveToTarget();
+      }
+    }
+    header = null;
+    chunks = null;
+  }
+
+  /**
+   * Close the cache and remove the cache file, if any. This is used when the dimension table might
+   * not contain what is in the cache, for example after a rollback.
+   */
+  public void discard() {
+    header = null;
+    chunks = null;
+    if (file != null) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        // The file is not marked as clean, it will not be used again
+      }
+    }
+  }
+
+  /**
+   * @return true if the cache is kept in a file for the next run
+   */
+  public boolean isPersistent() {
+    return targetFile != null;
+  }
+
+  /**
+   * @return the number of cached combinations
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * @return the number of slots in the hash table
+   */
+  public long getCapacity() {
+    return capacity;
+  }
+
+  private static long capacityFor(long expectedSize) {
+    long capacity = MIN_CAPACITY;
+    while (capacity * MAX_LOAD < expectedSize) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private void allocate(long capacity) throws HopException {
+    this.capacity = capacity;
+    this.size = 0;
+    if (file == null) {
+      this.header = ByteBuffer.allocate(HEADER_SIZE);
+      int chunkCount = (int) ((capacity + SLOTS_PER_CHUNK - 1) >>> CHUNK_BITS);
+      this.chunks = new ByteBuffer[chunkCount];
+      for (int i = 0; i < chunkCount; i++) {
+        long slots = Math.min(SLOTS_PER_CHUNK, capacity - i * SLOTS_PER_CHUNK);
+        chunks[i] = ByteBuffer.allocateDirect((int) (slots * SLOT_SIZE));
+      }
+      return;
+    }
+    try (FileChannel channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      MappedByteBuffer mappedHeader = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+      mappedHeader.putLong(0, MAGIC);
+      mappedHeader.putInt(8, FORMAT_VERSION);
+      mappedHeader.putInt(CLEAN_OFFSET, 0);
+      mappedHeader.putLong(CAPACITY_OFFSET, capacity);
+      mappedHeader.putLong(SIGNATURE_OFFSET, signatureHash);
+      this.header = mappedHeader;
+      this.chunks = mapChunks(channel, capacity);
+    } catch (IOException e) {
+      throw new HopException("Unable to write combination cache file " + file, e);
+    }
+  }
+
+  private static ByteBuffer[] mapChunks(FileChannel channel, long capacity) throws IOException {
+    int chunkCount = (int) ((capacity + SLOTS_PER_CHUNK - 1) >>> CHUNK_BITS);
+    ByteBuffer[] chunks = new ByteBuffer[chunkCount];
+    for (int i = 0; i < chunkCount; i++) {
+      long slots = Math.min(SLOTS_PER_CHUNK, capacity - i * SLOTS_PER_CHUNK);
+      chunks[i] =
+          channel.map(
+              FileChannel.MapMode.READ_WRITE,
+              HEADER_SIZE + i * SLOTS_PER_CHUNK * SLOT_SIZE,
+              slots * SLOT_SIZE);
+    }
+    return chunks;
+  }
+
+  /**
+   * @return the slot holding the fingerprint or the empty slot where it should go
+   */
+  private long findSlot(long hash1, long hash2) {
+    long mask = capacity - 1;
+    long slot = (hash1 ^ (hash1 >>> 32)) & mask;
+    while (true) {
+      ByteBuffer chunk = chunks[(int) (slot >>> CHUNK_BITS)];
+      int offset = (int) (slot & CHUNK_MASK) * SLOT_SIZE;
+      long slotHash1 = chunk.getLong(offset);
+      long slotHash2 = chunk.getLong(offset + 8);
+      if ((slotHash1 == 0L && slotHash2 == 0L) || (slotHash1 == hash1 && slotHash2 == hash2)) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * @return true if a new entry was added
+   */
+  private boolean store(long hash1, long hash2, long technicalKey) {
+    long slot = findSlot(hash1, hash2);
+    ByteBuffer chunk = chunks[(int) (slot >>> CHUNK_BITS)];
+    int offset = (int) (slot & CHUNK_MASK) * SLOT_SIZE;
+    boolean added = chunk.getLong(offset) == 0L && chunk.getLong(offset + 8) == 0L;
+    chunk.putLong(offset, hash1);
+    chunk.putLong(offset + 8, hash2);
+    chunk.putLong(offset + 16, technicalKey);
+    if (added) {
+      size++;
+    }
+    return added;
+  }
+
+  private void resize(long newCapacity) throws HopException {
+    ByteBuffer[] oldChunks = chunks;
+    Path oldFile = file;
+    if (file != null) {
+      file = targetFile.resolveSibling(targetFile.getFileName() + "." + newCapacity);
+    }
+    allocate(newCapacity);
+    for (ByteBuffer chunk : oldChunks) {
+      for (int offset = 0; offset < chunk.capacity(); offset += SLOT_SIZE) {
+        long hash1 = chunk.getLong(offset);
+        long hash2 = chunk.getLong(offset + 8);
+        if (hash1 != 0L || hash2 != 0L) {
+          store(hash1, hash2, chunk.getLong(offset + 16));
+        }
+      }
+    }
+    if (oldFile != null) {
+      try {
+        Files.deleteIfExists(oldFile);
+      } catch (IOException e) {
+        // Still mapped on some platforms: it's not marked as clean so it is never used again
+      }
+    }
+  }
+
+  private void moveToTarget() throws HopException {
+    try {
+      Files.move(file, targetFile, StandardCopyOption.REPLACE_EXISTING);
+      file = targetFile;
+    } catch (IOException e) {
+      throw new HopException("Unable to move combination cache file " + file, e);
+    }
+  }
+
+  /**
+   * Calculate the 128-bit fingerprint of a combination of key values. Every value is first
+   * normalised by the data type of its field and written in a form which only depends on the value,
+   * not on the storage type or the Java class holding it. That way the values read from the
+   * dimension table and from the input rows give the same fingerprint.
+   */
+  private void fingerprint(IRowMeta rowMeta, Object[] row) throws HopValueException {
+    keyBuffer.reset();
+    try {
+      for (int i = 0; i < rowMeta.size(); i++) {
+        IValueMeta valueMeta = rowMeta.getValueMeta(i);
+        if (valueMeta.isNull(row[i])) {
+          keyOutput.writeByte(0);
+          continue;
+        }
+        switch (valueMeta.getType()) {
+          case IValueMeta.TYPE_STRING:
+            writeBytes(1, valueMeta.getString(row[i]).getBytes(StandardCharsets.UTF_8));
+            break;
+          case IValueMeta.TYPE_INTEGER:
+            keyOutput.writeByte(2);
+            keyOutput.writeLong(valueMeta.getInteger(row[i]));
+            break;
+          case IValueMeta.TYPE_NUMBER:
+            double number = valueMeta.getNumber(row[i]);
+            keyOutput.writeByte(3);
+            // -0.0 and 0.0 are the same key
+            keyOutput.writeLong(Double.doubleToLongBits(number == 0.0 ? 0.0 : number));
+            break;
+          case IValueMeta.TYPE_BIGNUMBER:
+            writeBigNumber(valueMeta.getBigNumber(row[i]));
+            break;
+          case IValueMeta.TYPE_DATE:
+            keyOutput.writeByte(5);
+            keyOutput.writeLong(valueMeta.getDate(row[i]).getTime());
+            break;
+          case IValueMeta.TYPE_TIMESTAMP:
+            Date date = valueMeta.getDate(row[i]);
+            keyOutput.writeByte(5);
+            keyOutput.writeLong(date.getTime());
+            if (date instanceof Timestamp timestamp && timestamp.getNanos() % 1000000 != 0) {
+              keyOutput.writeInt(timestamp.getNanos());
+            }
+            break;
+          case IValueMeta.TYPE_BOOLEAN:
+            keyOutput.writeByte(Boolean.TRUE.equals(valueMeta.getBoolean(row[i])) ? 6 : 7);
+            break;
+          case IValueMeta.TYPE_BINARY:
+            writeBytes(8, valueMeta.getBinary(row[i]));
+            break;
+          default:
+            writeBytes(9, valueMeta.getString(row[i]).getBytes(StandardCharsets.UTF_8));
+            break;
+        }
+      }
+    } catch (IOException e) {
+      throw new HopValueException("Unable to calculate the fingerprint of a combination", e);
+    }
+
+    byte[] bytes = keyBuffer.getBuffer();
+    int length = keyBuffer.size();
+    long hash1 = 0xcbf29ce484222325L;
+    long hash2 = 0x9e3779b97f4a7c15L ^ length;
+    for (int i = 0; i < length; i++) {
+      int b = bytes[i] & 0xFF;
+      hash1 = (hash1 ^ b) * 0x100000001b3L;
+      hash2 = Long.rotateLeft(hash2 + b * 0xc2b2ae3d27d4eb4fL, 31) * 0x9e3779b97f4a7c15L;
+    }
+    fingerprint1 = mix(hash1);
+    fingerprint2 = mix(hash2);
+    if (fingerprint1 == 0L && fingerprint2 == 0L) {
+      // That's what an empty slot looks like
+      fingerprint1 = 1L;
+    }
+  }
+
+  private void writeBytes(int tag, byte[] bytes) throws IOException {
+    keyOutput.writeByte(tag);
+    keyOutput.writeInt(bytes.length);
+    keyOutput.write(bytes);
+  }
+
+  /** An integral big number gives the same fingerprint as the integer with the same value. */
+  private void writeBigNumber(BigDecimal number) throws IOException {
+    BigDecimal stripped = number.signum() == 0 ? BigDecimal.ZERO : number.stripTrailingZeros();
+    if (stripped.scale() <= 0 && stripped.precision() - stripped.scale() <= 18) {
+      keyOutput.writeByte(2);
+      keyOutput.writeLong(stripped.longValueExact());
+    } else {
+      keyOutput.writeByte(4);
+      keyOutput.writeUTF(stripped.toPlainString());
+    }
+  }
+
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  private static long hash(String string) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : string.getBytes(StandardCharsets.UTF_8)) {
+      hash = (hash ^ (b & 0xFF)) * 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  /** Gives access to the buffer so that we don't have to copy it for every lookup. */
+  private static class KeyBuffer extends ByteArrayOutputStream {
+    byte[] getBuffer() {
+      return buf;
+    }
+  }
+}
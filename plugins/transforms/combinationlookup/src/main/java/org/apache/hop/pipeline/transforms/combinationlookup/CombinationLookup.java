@@ -17,6 +17,9 @@
 
 package org.apache.hop.pipeline.transforms.combinationlookup;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -25,6 +28,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.UUID;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
@@ -98,7 +102,7 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
     }
   }
 
-  private Long lookupInCache(IRowMeta rowMeta, Object[] row) {
+  private Long lookupInCache(IRowMeta rowMeta, Object[] row) throws HopValueException {
     // Short circuit if cache is disabled.
     if (meta.getCacheSize() == -1) {
       return null;
@@ -106,6 +110,9 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
 
     // try to find the row in the cache...
     //
+    if (data.keyCache != null) {
+      return data.keyCache.get(rowMeta, row);
+    }
     return data.cache.get(new RowMetaAndData(rowMeta, row));
   }
 
@@ -119,14 +126,24 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
    * @param rowMeta
    * @param row
    * @param tk
-   * @throws HopValueException
+   * @throws HopException
    */
-  private void addToCache(IRowMeta rowMeta, Object[] row, Long tk) throws HopValueException {
+  private void addToCache(IRowMeta rowMeta, Object[] row, Long tk) throws HopException {
     // Short circuit if cache is disabled.
     if (meta.getCacheSize() == -1) {
       return;
     }
 
+    // The off-heap cache holds all combinations, it never needs to be reduced.
+    //
+    if (data.keyCache != null) {
+      data.keyCache.put(rowMeta, row, tk);
+      if (isRowLevel()) {
+        logRowlevel("Cache store: key=" + rowMeta.getString(row) + "    key=" + tk);
+      }
+      return;
+    }
+
     // store it in the cache if needed.
     data.cache.put(new RowMetaAndData(rowMeta, row), tk);
 
@@ -385,7 +402,20 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       }
 
       setCombiLookup(getInputRowMeta());
+      initKeyCache();
       preloadCache(data.hashRowMeta);
+
+      // New combinations can only be inserted in batches if we don't need the database to
+      // generate the technical key and if every inserted combination stays in the cache.
+      // Otherwise, we would look up combinations in the database which are not inserted yet.
+      //
+      data.batchInsert =
+          meta.isUseBatchUpdate()
+              && !isAutoIncrement()
+              && (data.keyCache != null || meta.getCacheSize() == 0);
+      if (meta.isUseBatchUpdate() && !data.batchInsert) {
+        logBasic(BaseMessages.getString(PKG, "CombinationLookup.Log.BatchInsertNotPossible"));
+      }
     }
 
     try {
@@ -646,7 +676,7 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       data.db.setValues(data.insertRowMeta, insertRow, data.prepStatementInsert);
 
       debug = "Insert row";
-      data.db.insertRow(data.prepStatementInsert);
+      data.db.insertRow(data.prepStatementInsert, data.batchInsert);
 
       debug = "Retrieve key";
       if (isAutoIncrement() && databaseMeta.supportsAutoGeneratedKeys()) {
@@ -727,20 +757,27 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
   @Override
   public void dispose() {
     if (data.db != null) {
+      boolean committed = false;
       try {
         if (!data.db.isAutoCommit()) {
           if (getErrors() == 0) {
-            data.db.commit();
+            if (data.batchInsert && data.prepStatementInsert != null) {
+              data.db.emptyAndCommit(data.prepStatementInsert, true);
+            } else {
+              data.db.commit();
+            }
           } else {
             data.db.rollback();
           }
         }
-      } catch (HopDatabaseException e) {
+        committed = getErrors() == 0;
+      } catch (HopException e) {
         logError(
             BaseMessages.getString(PKG, CONST_COMBINATION_LOOKUP_LOG_UNEXPECTED_ERROR)
                 + " : "
                 + e.toString());
       } finally {
+        closeKeyCache(committed);
         data.db.disconnect();
       }
     }
@@ -752,14 +789,12 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
    * Preload the cache
    *
    * @param hashRowMeta The RowMeta of the hashRow
-   * @throws HopDatabaseException If something went wrong while selecting the values from the db
-   * @throws HopValueException If something went wrong while adding the data to the cache
-   * @throws HopConfigException If the transform configuration is incomplete
+   * @throws HopException If something went wrong while selecting the values from the db, adding the
+   *     data to the cache or if the transform configuration is incomplete
    */
-  private void preloadCache(IRowMeta hashRowMeta)
-      throws HopDatabaseException, HopValueException, HopConfigException {
-    // fast exit if no preload cache or no cache
-    if (meta.isPreloadCache() && meta.getCacheSize() >= 0) {
+  private void preloadCache(IRowMeta hashRowMeta) throws HopException {
+    // fast exit if no preload cache or no cache, or if the cache was kept by a previous run
+    if (meta.isPreloadCache() && meta.getCacheSize() >= 0 && !data.keyCacheWarm) {
       if (hashRowMeta == null) {
         throw new HopConfigException(
             BaseMessages.getString(PKG, CONST_COMBINATION_LOOKUP_LOG_UNEXPECTED_ERROR));
@@ -820,6 +855,10 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       if (isDebug()) {
         logDebug("Using preload cache statement:" + Const.CR + sql);
       }
+      if (data.keyCache != null) {
+        preloadKeyCache(databaseMeta.stripCR(sql));
+        return;
+      }
       cacheValues = data.db.getRows(databaseMeta.stripCR(sql), meta.getCacheSize());
       for (Object[] cacheRow : cacheValues) {
         // Create a correctly structured array for the cache
@@ -832,4 +871,127 @@ public class CombinationLookup extends BaseTransform<CombinationLookupMeta, Comb
       }
     }
   }
+
+  /**
+   * Pre-load the off-heap cache in one pass over the rows of the dimension table. The key values
+   * are converted to the data types of the input fields so that they give the same fingerprint as
+   * the input rows.
+   */
+  private void preloadKeyCache(String sql) throws HopException {
+    IRowMeta keyRowMeta = new RowMeta();
+    for (IValueMeta valueMeta : data.hashRowMeta.getValueMetaList()) {
+      IValueMeta keyValueMeta = valueMeta.clone();
+      keyValueMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+      keyRowMeta.addValueMeta(keyValueMeta);
+    }
+
+    ResultSet resultSet = data.db.openQuery(sql);
+    try {
+      IRowMeta tableRowMeta = data.db.getReturnRowMeta();
+      Object[] tableRow;
+      while ((tableRow = data.db.getRow(resultSet)) != null) {
+        Object[] keyRow = new Object[keyRowMeta.size()];
+        for (int i = 0; i < keyRow.length; i++) {
+          // Assumes the technical key is at position 0 !!
+          keyRow[i] =
+              keyRowMeta
+                  .getValueMeta(i)
+                  .convertData(tableRowMeta.getValueMeta(i + 1), tableRow[i + 1]);
+        }
+        data.keyCache.put(keyRowMeta, keyRow, tableRowMeta.getInteger(tableRow, 0));
+        incrementLinesInput();
+      }
+    } finally {
+      data.db.closeQuery(resultSet);
+    }
+    if (isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG, "CombinationLookup.Log.PreloadedCache", Long.toString(data.keyCache.size())));
+    }
+  }
+
+  /**
+   * Create the off-heap cache if it is configured. When a cache folder is given we try to continue
+   * with the cache file of the previous run. That is only done when the highest technical key in
+   * the table is still the one the previous run saw when it finished.
+   */
+  private void initKeyCache() throws HopException {
+    if (!meta.isOffHeapCache() || meta.getCacheSize() < 0) {
+      return;
+    }
+    long expectedSize = Math.max(meta.getCacheSize(), 0);
+    String cacheFolder = resolve(meta.getCacheFolder());
+    if (Utils.isEmpty(cacheFolder)) {
+      data.keyCache = CombinationKeyCache.newCache(expectedSize);
+      return;
+    }
+
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+    StringBuilder signature = new StringBuilder(databaseMeta.getName());
+    signature.append(Const.CR).append(data.schemaTable);
+    signature.append(Const.CR).append(meta.getFields().getReturnFields().getTechnicalKeyField());
+    for (KeyField keyField : meta.getFields().getKeyFields()) {
+      signature.append(Const.CR).append(keyField.getLookup());
+    }
+    Path file =
+        Paths.get(
+            cacheFolder,
+            "combination-"
+                + UUID.nameUUIDFromBytes(signature.toString().getBytes(StandardCharsets.UTF_8))
+                + "-"
+                + getCopy()
+                + ".cache");
+
+    data.keyCache = CombinationKeyCache.open(file, signature.toString(), getMaxTechnicalKey());
+    if (data.keyCache != null) {
+      data.keyCacheWarm = true;
+      if (isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG,
+                "CombinationLookup.Log.ReusingCacheFile",
+                file.toString(),
+                Long.toString(data.keyCache.size())));
+      }
+    } else {
+      data.keyCache = CombinationKeyCache.newCache(file, signature.toString(), expectedSize);
+    }
+  }
+
+  /**
+   * Close the off-heap cache. A cache file is only kept if the combinations were committed,
+   * otherwise the table might not contain all the combinations in the cache.
+   */
+  private void closeKeyCache(boolean committed) {
+    if (data.keyCache == null) {
+      return;
+    }
+    try {
+      if (committed) {
+        data.keyCache.close(data.keyCache.isPersistent() ? getMaxTechnicalKey() : -1L);
+      } else {
+        data.keyCache.discard();
+      }
+    } catch (HopException e) {
+      data.keyCache.discard();
+      logError(
+          BaseMessages.getString(PKG, CONST_COMBINATION_LOOKUP_LOG_UNEXPECTED_ERROR)
+              + " : "
+              + e.toString());
+    } finally {
+      data.keyCache = null;
+    }
+  }
+
+  private long getMaxTechnicalKey() throws HopException {
+    String sql =
+        "SELECT MAX("
+            + meta.getDatabaseMeta()
+                .quoteField(meta.getFields().getReturnFields().getTechnicalKeyField())
+            + ") FROM "
+            + data.schemaTable;
+    RowMetaAndData max = data.db.getOneRow(sql);
+    return max == null ? -1L : max.getInteger(0, -1L);
+  }
 }
@@ -32,6 +32,15 @@ public class CombinationLookupData extends BaseTransformData implements ITransfo
 
   public Map<RowMetaAndData, Long> cache;
 
+  /** The off-heap cache, used instead of the cache map when configured */
+  public CombinationKeyCache keyCache;
+
+  /** True if the off-heap cache was kept by a previous run and doesn't need to be pre-loaded */
+  public boolean keyCacheWarm;
+
+  /** True if new combinations are inserted in batches */
+  public boolean batchInsert;
+
   public IRowMeta outputRowMeta;
   public IRowMeta lookupRowMeta;
   public IRowMeta insertRowMeta;
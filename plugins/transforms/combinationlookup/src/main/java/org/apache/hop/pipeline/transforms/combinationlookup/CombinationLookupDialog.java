@@ -79,6 +79,12 @@ public class CombinationLookupDialog extends BaseTransformDialog {
 
   private Button wPreloadCache;
 
+  private Button wBatch;
+
+  private Button wOffHeapCache;
+
+  private TextVar wCacheFolder;
+
   private Text wTk;
 
   private Label wlAutoinc;
@@ -293,6 +299,51 @@ public class CombinationLookupDialog extends BaseTransformDialog {
     fdPreloadCache.right = new FormAttachment(100, 0);
     wPreloadCache.setLayoutData(fdPreloadCache);
 
+    // Batch inserts
+    wBatch = new Button(shell, SWT.CHECK);
+    wBatch.setText(BaseMessages.getString(PKG, "CombinationLookupDialog.Batch.Label"));
+    wBatch.setToolTipText(BaseMessages.getString(PKG, "CombinationLookupDialog.Batch.Tooltip"));
+    PropsUi.setLook(wBatch);
+    FormData fdBatch = new FormData();
+    fdBatch.top = new FormAttachment(wCachesize, margin);
+    fdBatch.left = new FormAttachment(middle, 0);
+    fdBatch.right = new FormAttachment(middle + (100 - middle) / 3, -margin);
+    wBatch.setLayoutData(fdBatch);
+
+    // Off-heap cache
+    wOffHeapCache = new Button(shell, SWT.CHECK);
+    wOffHeapCache.setText(
+        BaseMessages.getString(PKG, "CombinationLookupDialog.OffHeapCache.Label"));
+    wOffHeapCache.setToolTipText(
+        BaseMessages.getString(PKG, "CombinationLookupDialog.OffHeapCache.Tooltip"));
+    PropsUi.setLook(wOffHeapCache);
+    wOffHeapCache.addListener(SWT.Selection, e -> setCacheFolder());
+    FormData fdOffHeapCache = new FormData();
+    fdOffHeapCache.top = new FormAttachment(wCachesize, margin);
+    fdOffHeapCache.left = new FormAttachment(wCommit, margin);
+    fdOffHeapCache.right = new FormAttachment(middle + 2 * (100 - middle) / 3, -margin);
+    wOffHeapCache.setLayoutData(fdOffHeapCache);
+
+    // Cache folder
+    Label wlCacheFolder = new Label(shell, SWT.RIGHT);
+    wlCacheFolder.setText(BaseMessages.getString(PKG, "CombinationLookupDialog.CacheFolder.Label"));
+    PropsUi.setLook(wlCacheFolder);
+    FormData fdlCacheFolder = new FormData();
+    fdlCacheFolder.left = new FormAttachment(0, 0);
+    fdlCacheFolder.right = new FormAttachment(middle, -margin);
+    fdlCacheFolder.top = new FormAttachment(wPreloadCache, margin);
+    wlCacheFolder.setLayoutData(fdlCacheFolder);
+    wCacheFolder = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wCacheFolder.setToolTipText(
+        BaseMessages.getString(PKG, "CombinationLookupDialog.CacheFolder.Tooltip"));
+    PropsUi.setLook(wCacheFolder);
+    wCacheFolder.addModifyListener(lsMod);
+    FormData fdCacheFolder = new FormData();
+    fdCacheFolder.left = new FormAttachment(middle, 0);
+    fdCacheFolder.top = new FormAttachment(wPreloadCache, margin);
+    fdCacheFolder.right = new FormAttachment(100, 0);
+    wCacheFolder.setLayoutData(fdCacheFolder);
+
     //
     // The Lookup fields: usually the (business) key
     //
@@ -301,7 +352,7 @@ public class CombinationLookupDialog extends BaseTransformDialog {
     PropsUi.setLook(wlKey);
     FormData fdlKey = new FormData();
     fdlKey.left = new FormAttachment(0, 0);
-    fdlKey.top = new FormAttachment(wPreloadCache, margin);
+    fdlKey.top = new FormAttachment(wCacheFolder, margin);
     fdlKey.right = new FormAttachment(100, 0);
     wlKey.setLayoutData(fdlKey);
 
@@ -698,6 +749,10 @@ public class CombinationLookupDialog extends BaseTransformDialog {
     }
 
     wPreloadCache.setSelection(input.isPreloadCache());
+    wBatch.setSelection(input.isUseBatchUpdate());
+    wOffHeapCache.setSelection(input.isOffHeapCache());
+    wCacheFolder.setText(Const.NVL(input.getCacheFolder(), ""));
+    setCacheFolder();
     wReplace.setSelection(input.isReplaceFields());
     wHashcode.setSelection(input.isUseHash());
     wHashfield.setEnabled(input.isUseHash());
@@ -798,6 +853,9 @@ public class CombinationLookupDialog extends BaseTransformDialog {
     }
 
     in.setPreloadCache(wPreloadCache.getSelection());
+    in.setUseBatchUpdate(wBatch.getSelection());
+    in.setOffHeapCache(wOffHeapCache.getSelection());
+    in.setCacheFolder(wCacheFolder.getText());
     returnFields.setUseAutoIncrement(wAutoinc.getSelection() && wAutoinc.isEnabled());
     in.setReplaceFields(wReplace.getSelection());
     in.setUseHash(wHashcode.getSelection());
@@ -826,6 +884,10 @@ public class CombinationLookupDialog extends BaseTransformDialog {
     returnFields.setLastUpdateField(wLastUpdateField.getText());
   }
 
+  private void setCacheFolder() {
+    wCacheFolder.setEnabled(wOffHeapCache.getSelection());
+  }
+
   private void getSchemaNames() {
     DatabaseMeta dbMeta = findDatabase(wConnection.getText());
     if (dbMeta != null) {
@@ -134,6 +134,27 @@ public class CombinationLookupMeta
       injectionKeyDescription = "CombinationLookup.Injection.CACHE_SIZE")
   private int cacheSize;
 
+  /** Keep the cache outside of the Java heap */
+  @HopMetadataProperty(
+      key = "off_heap_cache",
+      injectionKey = "OFF_HEAP_CACHE",
+      injectionKeyDescription = "CombinationLookup.Injection.OFF_HEAP_CACHE")
+  private boolean offHeapCache;
+
+  /** The folder to keep the off-heap cache in for the next run, empty for memory only */
+  @HopMetadataProperty(
+      key = "cache_folder",
+      injectionKey = "CACHE_FOLDER",
+      injectionKeyDescription = "CombinationLookup.Injection.CACHE_FOLDER")
+  private String cacheFolder;
+
+  /** Insert new combinations in batches of the commit size */
+  @HopMetadataProperty(
+      key = "useBatch",
+      injectionKey = "USE_BATCH",
+      injectionKeyDescription = "CombinationLookup.Injection.USE_BATCH")
+  private boolean useBatchUpdate;
+
   @HopMetadataProperty private CFields fields;
 
   public static final String CREATION_METHOD_AUTOINC = "autoinc";
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.combinationlookup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaBigNumber;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CombinationKeyCacheTest {
+  private static final String SIGNATURE = "junk_dimension";
+
+  @TempDir Path folder;
+
+  private static IRowMeta getRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("code"));
+    rowMeta.addValueMeta(new ValueMetaInteger("number"));
+    return rowMeta;
+  }
+
+  @Test
+  void testPutAndGetWhileGrowing() throws Exception {
+    IRowMeta rowMeta = getRowMeta();
+    CombinationKeyCache cache = CombinationKeyCache.newCache(0);
+    long initialCapacity = cache.getCapacity();
+
+    for (long i = 0; i < 10000; i++) {
+      cache.put(rowMeta, new Object[] {"code" + i, i}, i + 1);
+    }
+    cache.put(rowMeta, new Object[] {null, null}, 20000L);
+
+    assertEquals(10001, cache.size());
+    assertTrue(cache.getCapacity() > initialCapacity);
+    for (long i = 0; i < 10000; i++) {
+      assertEquals(i + 1, cache.get(rowMeta, new Object[] {"code" + i, i}));
+    }
+    assertEquals(20000L, cache.get(rowMeta, new Object[] {null, null}));
+    assertNull(cache.get(rowMeta, new Object[] {"code1", 2L}));
+    assertNull(cache.get(rowMeta, new Object[] {null, 1L}));
+
+    // Replacing a technical key doesn't add a combination
+    cache.put(rowMeta, new Object[] {"code1", 1L}, 5L);
+    assertEquals(5L, cache.get(rowMeta, new Object[] {"code1", 1L}));
+    assertEquals(10001, cache.size());
+  }
+
+  @Test
+  void testBinaryStringsGiveTheSameFingerprint() throws Exception {
+    IRowMeta rowMeta = getRowMeta();
+    IRowMeta binaryRowMeta = getRowMeta();
+    IValueMeta binaryString = binaryRowMeta.getValueMeta(0);
+    binaryString.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+    binaryString.setStorageMetadata(new ValueMetaString("code"));
+
+    CombinationKeyCache cache = CombinationKeyCache.newCache(10);
+    cache.put(rowMeta, new Object[] {"abc", 1L}, 7L);
+
+    assertEquals(
+        7L, cache.get(binaryRowMeta, new Object[] {"abc".getBytes(StandardCharsets.UTF_8), 1L}));
+  }
+
+  @Test
+  void testValuesAreNormalisedByTheirDataType() throws Exception {
+    IRowMeta integerRowMeta = new RowMeta();
+    integerRowMeta.addValueMeta(new ValueMetaInteger("id"));
+    integerRowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    IRowMeta bigNumberRowMeta = new RowMeta();
+    bigNumberRowMeta.addValueMeta(new ValueMetaBigNumber("id"));
+    bigNumberRowMeta.addValueMeta(new ValueMetaNumber("amount"));
+    IRowMeta stringRowMeta = new RowMeta();
+    stringRowMeta.addValueMeta(new ValueMetaString("id"));
+    stringRowMeta.addValueMeta(new ValueMetaNumber("amount"));
+
+    CombinationKeyCache cache = CombinationKeyCache.newCache(10);
+    cache.put(integerRowMeta, new Object[] {12L, 0.0}, 3L);
+    cache.put(bigNumberRowMeta, new Object[] {new BigDecimal("1.50"), 1.0}, 4L);
+
+    assertEquals(3L, cache.get(bigNumberRowMeta, new Object[] {new BigDecimal("12.00"), -0.0}));
+    assertEquals(4L, cache.get(bigNumberRowMeta, new Object[] {new BigDecimal("1.5"), 1.0}));
+    // A string with the same text is another value
+    assertNull(cache.get(stringRowMeta, new Object[] {"12", 0.0}));
+  }
+
+  @Test
+  void testWarmStart() throws Exception {
+    IRowMeta rowMeta = getRowMeta();
+    Path file = folder.resolve("combination.cache");
+
+    CombinationKeyCache cache = CombinationKeyCache.newCache(file, SIGNATURE, 10);
+    for (long i = 0; i < 2000; i++) {
+      cache.put(rowMeta, new Object[] {"code" + i, i}, i + 1);
+    }
+    // A file which isn't closed can't be used
+    assertNull(CombinationKeyCache.open(file, SIGNATURE, 2000L));
+    cache.close(2000L);
+
+    assertTrue(Files.exists(file));
+    assertNull(CombinationKeyCache.open(file, SIGNATURE, 2001L));
+    assertNull(CombinationKeyCache.open(file, "other_dimension", 2000L));
+
+    cache = CombinationKeyCache.open(file, SIGNATURE, 2000L);
+    assertNotNull(cache);
+    assertEquals(2000, cache.size());
+    assertEquals(1234L, cache.get(rowMeta, new Object[] {"code1233", 1233L}));
+
+    // Opened but not closed again: not usable until it is closed
+    assertNull(CombinationKeyCache.open(file, SIGNATURE, 2000L));
+    cache.discard();
+    assertTrue(Files.notExists(file));
+  }
+}
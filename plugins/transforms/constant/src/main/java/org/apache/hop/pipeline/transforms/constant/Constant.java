@@ -29,6 +29,7 @@ import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.value.ValueMetaFactory;
@@ -240,6 +241,10 @@ public class Constant extends BaseTransform<ConstantMeta, ConstantData> {
 
   @Override
   public boolean processRow() throws HopException {
+    if (isUsingRowBatches()) {
+      return processRowBatch();
+    }
+
     Object[] r = null;
     r = getRow();
 
@@ -249,12 +254,7 @@ public class Constant extends BaseTransform<ConstantMeta, ConstantData> {
     }
 
     if (data.firstRow) {
-      // The output meta is the original input meta + the
-      // additional constant fields.
-
-      data.firstRow = false;
-      data.outputMeta = getInputRowMeta().clone();
-      meta.getFields(data.outputMeta, getTransformName(), null, null, this, metadataProvider);
+      determineOutputMeta();
     }
 
     // Add the constant data to the end of the row.
@@ -279,6 +279,57 @@ public class Constant extends BaseTransform<ConstantMeta, ConstantData> {
     return true;
   }
 
+  private boolean processRowBatch() throws HopException {
+    long previousLinesWritten = getLinesWritten();
+    RowBatch batch = getRowBatch(getRowBatchSize());
+
+    if (batch == null) { // no more rows to be expected from the previous transform(s)
+      setOutputDone();
+      return false;
+    }
+
+    if (data.firstRow) {
+      determineOutputMeta();
+    }
+
+    // Add the constant data to the end of every row in the batch.
+    int inputSize = getInputRowMeta().size();
+    Object[] constants = data.getConstants().getData();
+    for (int i = 0; i < batch.size(); i++) {
+      batch.setRow(i, RowDataUtil.addRowData(batch.getRow(i), inputSize, constants));
+    }
+    batch.setRowMeta(data.outputMeta);
+
+    putRowBatch(batch);
+
+    if (isRowLevel()) {
+      for (int i = 0; i < batch.size(); i++) {
+        logRowlevel(
+            BaseMessages.getString(
+                PKG,
+                "Constant.Log.Wrote.Row",
+                Long.toString(previousLinesWritten + i + 1),
+                data.outputMeta.getString(batch.getRow(i))));
+      }
+    }
+
+    if (checkFeedback(previousLinesWritten, getLinesWritten()) && isBasic()) {
+      logBasic(
+          BaseMessages.getString(PKG, "Constant.Log.LineNr", Long.toString(getLinesWritten())));
+    }
+
+    return true;
+  }
+
+  private void determineOutputMeta() throws HopException {
+    // The output meta is the original input meta + the
+    // additional constant fields.
+
+    data.firstRow = false;
+    data.outputMeta = getInputRowMeta().clone();
+    meta.getFields(data.outputMeta, getTransformName(), null, null, this, metadataProvider);
+  }
+
   @Override
   public boolean init() {
 
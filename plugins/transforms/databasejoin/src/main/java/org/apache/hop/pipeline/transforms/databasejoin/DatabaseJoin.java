@@ -19,8 +19,17 @@ package org.apache.hop.pipeline.transforms.databasejoin;
 
 import java.sql.ResultSet;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.cache.CacheEvictionPolicy;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -33,7 +42,9 @@ import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.TransformCacheMetrics;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.databasejoin.cache.DatabaseCache;
 
@@ -45,8 +56,18 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
 
   private static final Class<?> PKG = DatabaseJoinMeta.class;
 
+  /** A query starting with a common table expression can't be used as a sub-query */
+  private static final Pattern CTE_PATTERN =
+      Pattern.compile("^\\s*WITH\\b", Pattern.CASE_INSENSITIVE);
+
+  /** Not every database allows ORDER BY in a sub-query */
+  private static final Pattern ORDER_BY_PATTERN =
+      Pattern.compile("\\bORDER\\s+BY\\b", Pattern.CASE_INSENSITIVE);
+
   private final ReentrantLock dbLock = new ReentrantLock();
 
+  private Map<IEngineMetric, Long> cacheMetrics = Collections.emptyMap();
+
   public DatabaseJoin(
       TransformMeta transformMeta,
       DatabaseJoinMeta meta,
@@ -63,50 +84,16 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
 
     if (first) {
       first = false;
-
-      data.outputRowMeta = rowMeta.clone();
-      meta.getFields(
-          data.outputRowMeta,
-          getTransformName(),
-          new IRowMeta[] {
-            meta.getTableFields(this),
-          },
-          null,
-          this,
-          metadataProvider);
-
-      data.lookupRowMeta = new RowMeta();
-
-      if (isDetailed()) {
-        logDetailed(
-            BaseMessages.getString(PKG, "DatabaseJoin.Log.CheckingRow")
-                + rowMeta.getString(rowData));
-      }
-
-      data.keynrs = new int[meta.getParameters().size()];
-
-      for (int i = 0; i < data.keynrs.length; i++) {
-        ParameterField field = meta.getParameters().get(i);
-        data.keynrs[i] = rowMeta.indexOfValue(field.getName());
-        if (data.keynrs[i] < 0) {
-          throw new HopTransformException(
-              BaseMessages.getString(PKG, "DatabaseJoin.Exception.FieldNotFound", field.getName()));
-        }
-
-        data.lookupRowMeta.addValueMeta(rowMeta.getValueMeta(data.keynrs[i]).clone());
-      }
+      initLookup(rowMeta, rowData);
     }
     final ResultSet rs;
     try {
       // Construct the parameters row...
-      Object[] lookupRowData = new Object[data.lookupRowMeta.size()];
-      for (int i = 0; i < data.keynrs.length; i++) {
-        lookupRowData[i] = rowData[data.keynrs[i]];
-      }
+      Object[] lookupRowData = getLookupRowData(rowData);
 
       List<Object[]> adds = getFromCacheOrFetch(lookupRowData);
 
-      IRowMeta addMeta = data.db.getReturnRowMeta();
+      IRowMeta addMeta = data.returnRowMeta;
 
       int counter = 0;
       for (Object[] add : adds) {
@@ -134,7 +121,7 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
         if (data.notfound == null) {
           // Just return null values for all values...
           //
-          data.notfound = new Object[data.db.getReturnRowMeta().size()];
+          data.notfound = new Object[addMeta.size()];
         }
         Object[] newRow = RowDataUtil.resizeArray(rowData, data.outputRowMeta.size());
         int newIndex = rowMeta.size();
@@ -149,24 +136,79 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
     }
   }
 
+  private void initLookup(IRowMeta rowMeta, Object[] rowData) throws HopException {
+    data.outputRowMeta = rowMeta.clone();
+    meta.getFields(
+        data.outputRowMeta,
+        getTransformName(),
+        new IRowMeta[] {
+          meta.getTableFields(this),
+        },
+        null,
+        this,
+        metadataProvider);
+
+    data.lookupRowMeta = new RowMeta();
+
+    if (isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(PKG, "DatabaseJoin.Log.CheckingRow") + rowMeta.getString(rowData));
+    }
+
+    data.keynrs = new int[meta.getParameters().size()];
+
+    for (int i = 0; i < data.keynrs.length; i++) {
+      ParameterField field = meta.getParameters().get(i);
+      data.keynrs[i] = rowMeta.indexOfValue(field.getName());
+      if (data.keynrs[i] < 0) {
+        throw new HopTransformException(
+            BaseMessages.getString(PKG, "DatabaseJoin.Exception.FieldNotFound", field.getName()));
+      }
+
+      data.lookupRowMeta.addValueMeta(rowMeta.getValueMeta(data.keynrs[i]).clone());
+    }
+  }
+
+  private Object[] getLookupRowData(Object[] rowData) {
+    Object[] lookupRowData = new Object[data.lookupRowMeta.size()];
+    for (int i = 0; i < data.keynrs.length; i++) {
+      lookupRowData[i] = rowData[data.keynrs[i]];
+    }
+    return lookupRowData;
+  }
+
   private List<Object[]> getFromCacheOrFetch(Object[] lookupRowData) throws HopDatabaseException {
+    RowMetaAndData key =
+        meta.isCached() || data.batchResults != null
+            ? new RowMetaAndData(data.lookupRowMeta, lookupRowData)
+            : null;
     if (meta.isCached()) {
-      List<Object[]> adds = data.cache.getRowsFromCache(data.lookupRowMeta, lookupRowData);
+      List<Object[]> adds = data.cache.getRowsFromCache(key);
       if (adds != null) {
         return adds;
-      } else {
-        List<Object[]> fromDatabase = fetchFromDatabase(lookupRowData);
-        data.cache.putRowsIntoCache(data.lookupRowMeta, lookupRowData, fromDatabase);
-        return fromDatabase;
       }
     }
-    return fetchFromDatabase(lookupRowData);
+
+    // Fetched with the other rows of the batch?
+    List<Object[]> fromDatabase = data.batchResults == null ? null : data.batchResults.get(key);
+    if (fromDatabase == null) {
+      long startTime = System.nanoTime();
+      fromDatabase = fetchFromDatabase(lookupRowData);
+      if (meta.isCached()) {
+        data.cache.getCache().recordLoad(System.nanoTime() - startTime);
+      }
+    }
+    if (meta.isCached()) {
+      data.cache.putRowsIntoCache(key, fromDatabase);
+    }
+    return fromDatabase;
   }
 
   private List<Object[]> fetchFromDatabase(Object[] lookupRowData) throws HopDatabaseException {
     List<Object[]> result = new ArrayList<>();
 
     ResultSet rs = data.db.openQuery(data.pstmt, data.lookupRowMeta, lookupRowData);
+    data.returnRowMeta = data.db.getReturnRowMeta();
     Object[] add = data.db.getRow(rs);
     while (add != null) {
       result.add(add);
@@ -179,16 +221,54 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
 
   @Override
   public boolean processRow() throws HopException {
-
-    boolean sendToErrorRow = false;
-    String errorMessage = null;
-
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      if (data.batchRows != null && !data.batchRows.isEmpty() && !processBatch()) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
 
+    if (first && data.batchSize > 1) {
+      // Run the query for the parameters of a number of rows at once
+      //
+      first = false;
+      dbLock.lock();
+      try {
+        initLookup(getInputRowMeta(), r);
+      } finally {
+        dbLock.unlock();
+      }
+      data.batchRows = new ArrayList<>(data.batchSize);
+      if (isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG, "DatabaseJoin.Log.BatchingQueries", String.valueOf(data.batchSize)));
+      }
+    }
+
+    if (data.batchRows != null) {
+      data.batchRows.add(r);
+      if (data.batchRows.size() >= data.batchSize) {
+        return processBatch();
+      }
+      return true;
+    }
+
+    return processJoinRow(r);
+  }
+
+  /**
+   * Join one input row with the rows of the query and pass the result on.
+   *
+   * @param r The input row
+   * @return false if the transform has to stop
+   */
+  private boolean processJoinRow(Object[] r) throws HopException {
+    boolean sendToErrorRow = false;
+    String errorMessage = null;
+
     try {
       lookupValues(getInputRowMeta(), r); // add new values to the row in rowset[0].
 
@@ -220,6 +300,166 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
     return true;
   }
 
+  /**
+   * Run the query for the distinct parameters of the buffered rows which are not in the cache at
+   * once and then join the rows in their original order.
+   *
+   * @return false if the transform has to stop
+   */
+  private boolean processBatch() throws HopException {
+    try {
+      dbLock.lock();
+      try {
+        fetchBatch();
+      } catch (HopException e) {
+        if (getTransformMeta().isDoingErrorHandling()) {
+          // Run the query for every row on its own so the rows in error go to the error handling
+          logBasic(BaseMessages.getString(PKG, "DatabaseJoin.Log.BatchFailed", e.getMessage()));
+          data.batchResults = null;
+        } else {
+          logError(
+              BaseMessages.getString(PKG, "DatabaseJoin.Log.ErrorInTransformRunning")
+                  + e.getMessage(),
+              e);
+          setErrors(1);
+          stopAll();
+          setOutputDone(); // signal end to receiver(s)
+          return false;
+        }
+      } finally {
+        dbLock.unlock();
+      }
+      for (Object[] row : data.batchRows) {
+        if (!processJoinRow(row)) {
+          return false;
+        }
+      }
+      return true;
+    } finally {
+      data.batchRows.clear();
+      data.batchResults = null;
+    }
+  }
+
+  /**
+   * Run the query once for every distinct set of parameters in the batch. The queries are combined
+   * with UNION ALL, every part is numbered so that the rows can be matched with their parameters:
+   *
+   * <pre>
+   * SELECT 0 AS hop_batch_index, q.* FROM ( query ) q
+   * UNION ALL SELECT 1, q.* FROM ( query ) q
+   * ...
+   * </pre>
+   *
+   * A statement has at most {@link Database#MAX_LOOKUP_PARAMETERS} parameters, more parameter sets
+   * are queried with several statements.
+   */
+  private void fetchBatch() throws HopException {
+    Map<RowMetaAndData, Object[]> keys = new LinkedHashMap<>();
+    for (Object[] row : data.batchRows) {
+      Object[] lookupRowData = getLookupRowData(row);
+      RowMetaAndData key = new RowMetaAndData(data.lookupRowMeta, lookupRowData);
+      if (!keys.containsKey(key) && !(meta.isCached() && data.cache.getCache().containsKey(key))) {
+        keys.put(key, lookupRowData);
+      }
+    }
+
+    data.batchResults = new HashMap<>();
+    if (keys.isEmpty()) {
+      return;
+    }
+
+    String query = data.sql.trim();
+    while (query.endsWith(";")) {
+      query = query.substring(0, query.length() - 1).trim();
+    }
+    List<RowMetaAndData> keyList = new ArrayList<>(keys.keySet());
+    for (RowMetaAndData key : keyList) {
+      data.batchResults.put(key, new ArrayList<>());
+    }
+
+    long startTime = System.nanoTime();
+    int nrParams = data.lookupRowMeta.size();
+    int chunkSize = Math.max(1, Database.MAX_LOOKUP_PARAMETERS / nrParams);
+    int nrRows = 0;
+    for (int from = 0; from < keyList.size(); from += chunkSize) {
+      nrRows +=
+          fetchBatchChunk(query, keyList.subList(from, Math.min(keyList.size(), from + chunkSize)));
+    }
+
+    if (meta.isCached()) {
+      data.cache.getCache().recordLoad(System.nanoTime() - startTime);
+    }
+    if (isDebug()) {
+      logDebug(
+          BaseMessages.getString(
+              PKG,
+              "DatabaseJoin.Log.BatchQueried",
+              String.valueOf(keys.size()),
+              String.valueOf(nrRows)));
+    }
+  }
+
+  /**
+   * Run the query for a number of parameter sets with one statement.
+   *
+   * @param query the query without a trailing semicolon
+   * @param keyList the parameter sets
+   * @return the number of rows found
+   */
+  private int fetchBatchChunk(String query, List<RowMetaAndData> keyList) throws HopException {
+    StringBuilder sql = new StringBuilder();
+    IRowMeta params = new RowMeta();
+    Object[] values = new Object[keyList.size() * data.lookupRowMeta.size()];
+    int valueIndex = 0;
+    for (int index = 0; index < keyList.size(); index++) {
+      if (index == 0) {
+        sql.append("SELECT 0 AS hop_batch_index, q.* FROM ( ");
+      } else {
+        sql.append(Const.CR).append("UNION ALL SELECT ").append(index).append(", q.* FROM ( ");
+      }
+      sql.append(query).append(" ) q");
+      Object[] lookupRowData = keyList.get(index).getData();
+      for (int i = 0; i < data.lookupRowMeta.size(); i++) {
+        params.addValueMeta(data.lookupRowMeta.getValueMeta(i));
+        values[valueIndex++] = lookupRowData[i];
+      }
+    }
+
+    List<Object[]> rows;
+    // The row limit is applied to every input row, not to the combined query
+    data.db.setQueryLimit(0);
+    try {
+      rows =
+          data.db.getRows(sql.toString(), params, values, ResultSet.FETCH_FORWARD, false, 0, null);
+    } finally {
+      data.db.setQueryLimit(meta.getRowLimit());
+    }
+    IRowMeta rowMeta = data.db.getReturnRowMeta();
+    data.returnRowMeta = new RowMeta();
+    for (int i = 1; i < rowMeta.size(); i++) {
+      data.returnRowMeta.addValueMeta(rowMeta.getValueMeta(i));
+    }
+
+    for (Object[] row : rows) {
+      int keyIndex = rowMeta.getInteger(row, 0).intValue();
+      data.batchResults.get(keyList.get(keyIndex)).add(Arrays.copyOfRange(row, 1, rowMeta.size()));
+      incrementLinesInput();
+    }
+    return rows.size();
+  }
+
+  /**
+   * The query of a batch is used as a sub-query. This isn't possible for a query starting with a
+   * common table expression and not on every database for a sorted query.
+   *
+   * @param sql the query
+   * @return true if the query can be run for several rows at once
+   */
+  static boolean isBatchable(String sql) {
+    return sql != null && !CTE_PATTERN.matcher(sql).find() && !ORDER_BY_PATTERN.matcher(sql).find();
+  }
+
   /**
    * Stop the running query In the Database Join transform data.isCancelled is checked before
    * synchronization and set after synchronization is completed.
@@ -279,14 +519,29 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
             sql = resolve(sql);
           }
           // Prepare the SQL statement
+          data.sql = sql;
           data.pstmt = data.db.prepareSql(sql);
           if (isDebug()) {
             logDebug(BaseMessages.getString(PKG, "DatabaseJoin.Log.SQLStatement", sql));
           }
           data.db.setQueryLimit(meta.getRowLimit());
 
+          int batchSize = Const.toInt(resolve(meta.getBatchSize()), 0);
+          if (batchSize > 1 && !meta.getParameters().isEmpty()) {
+            if (isBatchable(sql)) {
+              data.batchSize = batchSize;
+            } else {
+              logBasic(BaseMessages.getString(PKG, "DatabaseJoin.Log.BatchingNotSupported"));
+            }
+          }
+
           if (meta.isCached()) {
-            data.cache = new DatabaseCache(meta.getCacheSize());
+            data.cache =
+                new DatabaseCache(
+                    CacheEvictionPolicy.lookupName(resolve(meta.getCacheEvictionPolicy())),
+                    meta.getCacheSize(),
+                    Const.toLong(resolve(meta.getCacheMaxMemory()), 0L),
+                    Const.toLong(resolve(meta.getCacheTimeToLive()), 0L));
           }
 
           return true;
@@ -323,8 +578,21 @@ public class DatabaseJoin extends BaseTransform<DatabaseJoinMeta, DatabaseJoinDa
         data.db.disconnect();
         data.db = null;
       }
+      // Keep the cache metrics around, allow the cached rows to be garbage collected
+      cacheMetrics = getTransformMetrics();
       data.cache = null;
       dbLock.unlock();
     }
   }
+
+  @Override
+  public Map<IEngineMetric, Long> getTransformMetrics() {
+    // Read the cache once: dispose() can clear it while the metrics are collected
+    //
+    DatabaseCache cache = data.cache;
+    if (cache != null) {
+      return TransformCacheMetrics.of(cache.getCache());
+    }
+    return cacheMetrics;
+  }
 }
@@ -18,6 +18,9 @@
 package org.apache.hop.pipeline.transforms.databasejoin;
 
 import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
@@ -32,11 +35,19 @@ public class DatabaseJoinData extends BaseTransformData implements ITransformDat
 
   IRowMeta outputRowMeta;
   IRowMeta lookupRowMeta;
+  IRowMeta returnRowMeta;
+  String sql;
 
   public int[] keynrs; // parameter value index in an input row...
   public Object[] notfound; // Values in case nothing is found...
   public boolean isCanceled;
 
+  /** The number of rows to join at once, batching is disabled if batchRows is null */
+  public int batchSize;
+
+  public List<Object[]> batchRows;
+  public Map<RowMetaAndData, List<Object[]>> batchResults;
+
   public DatabaseJoinData() {
     super();
 
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.List;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Props;
+import org.apache.hop.core.cache.CacheEvictionPolicy;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
@@ -37,11 +38,13 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.dialog.MessageBox;
 import org.apache.hop.ui.core.widget.ColumnInfo;
+import org.apache.hop.ui.core.widget.ComboVar;
 import org.apache.hop.ui.core.widget.MetaSelectionLine;
 import org.apache.hop.ui.core.widget.SQLStyledTextComp;
 import org.apache.hop.ui.core.widget.StyledTextComp;
 import org.apache.hop.ui.core.widget.TableView;
 import org.apache.hop.ui.core.widget.TextComposite;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.apache.hop.ui.util.EnvironmentUtils;
 import org.eclipse.swt.SWT;
@@ -78,6 +81,8 @@ public class DatabaseJoinDialog extends BaseTransformDialog {
 
   private Button wUseVars;
 
+  private TextVar wBatchSize;
+
   private final DatabaseJoinMeta input;
 
   private Label wlPosition;
@@ -91,6 +96,15 @@ public class DatabaseJoinDialog extends BaseTransformDialog {
   private Label wlCacheSize;
   private Text wCacheSize;
 
+  private Label wlCacheEvictionPolicy;
+  private ComboVar wCacheEvictionPolicy;
+
+  private Label wlCacheMaxMemory;
+  private TextVar wCacheMaxMemory;
+
+  private Label wlCacheTimeToLive;
+  private TextVar wCacheTimeToLive;
+
   public DatabaseJoinDialog(
       Shell parent,
       IVariables variables,
@@ -188,13 +202,73 @@ public class DatabaseJoinDialog extends BaseTransformDialog {
     fdCacheSize.top = new FormAttachment(wCache, margin);
     wCacheSize.setLayoutData(fdCacheSize);
 
+    // Cache eviction policy line
+    wlCacheEvictionPolicy = new Label(shell, SWT.RIGHT);
+    wlCacheEvictionPolicy.setText(
+        BaseMessages.getString(PKG, "DatabaseJoinDialog.CacheEvictionPolicy.Label"));
+    PropsUi.setLook(wlCacheEvictionPolicy);
+    FormData fdlCacheEvictionPolicy = new FormData();
+    fdlCacheEvictionPolicy.left = new FormAttachment(0, 0);
+    fdlCacheEvictionPolicy.right = new FormAttachment(middle, -margin);
+    fdlCacheEvictionPolicy.top = new FormAttachment(wCacheSize, margin);
+    wlCacheEvictionPolicy.setLayoutData(fdlCacheEvictionPolicy);
+    wCacheEvictionPolicy = new ComboVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wCacheEvictionPolicy.setItems(CacheEvictionPolicy.getNames());
+    wCacheEvictionPolicy.setToolTipText(
+        BaseMessages.getString(PKG, "DatabaseJoinDialog.CacheEvictionPolicy.Tooltip"));
+    PropsUi.setLook(wCacheEvictionPolicy);
+    wCacheEvictionPolicy.addModifyListener(lsMod);
+    FormData fdCacheEvictionPolicy = new FormData();
+    fdCacheEvictionPolicy.left = new FormAttachment(middle, 0);
+    fdCacheEvictionPolicy.right = new FormAttachment(100, 0);
+    fdCacheEvictionPolicy.top = new FormAttachment(wCacheSize, margin);
+    wCacheEvictionPolicy.setLayoutData(fdCacheEvictionPolicy);
+
+    // Cache maximum memory line
+    wlCacheMaxMemory = new Label(shell, SWT.RIGHT);
+    wlCacheMaxMemory.setText(
+        BaseMessages.getString(PKG, "DatabaseJoinDialog.CacheMaxMemory.Label"));
+    PropsUi.setLook(wlCacheMaxMemory);
+    FormData fdlCacheMaxMemory = new FormData();
+    fdlCacheMaxMemory.left = new FormAttachment(0, 0);
+    fdlCacheMaxMemory.right = new FormAttachment(middle, -margin);
+    fdlCacheMaxMemory.top = new FormAttachment(wCacheEvictionPolicy, margin);
+    wlCacheMaxMemory.setLayoutData(fdlCacheMaxMemory);
+    wCacheMaxMemory = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wCacheMaxMemory);
+    wCacheMaxMemory.addModifyListener(lsMod);
+    FormData fdCacheMaxMemory = new FormData();
+    fdCacheMaxMemory.left = new FormAttachment(middle, 0);
+    fdCacheMaxMemory.right = new FormAttachment(100, 0);
+    fdCacheMaxMemory.top = new FormAttachment(wCacheEvictionPolicy, margin);
+    wCacheMaxMemory.setLayoutData(fdCacheMaxMemory);
+
+    // Cache time to live line
+    wlCacheTimeToLive = new Label(shell, SWT.RIGHT);
+    wlCacheTimeToLive.setText(
+        BaseMessages.getString(PKG, "DatabaseJoinDialog.CacheTimeToLive.Label"));
+    PropsUi.setLook(wlCacheTimeToLive);
+    FormData fdlCacheTimeToLive = new FormData();
+    fdlCacheTimeToLive.left = new FormAttachment(0, 0);
+    fdlCacheTimeToLive.right = new FormAttachment(middle, -margin);
+    fdlCacheTimeToLive.top = new FormAttachment(wCacheMaxMemory, margin);
+    wlCacheTimeToLive.setLayoutData(fdlCacheTimeToLive);
+    wCacheTimeToLive = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wCacheTimeToLive);
+    wCacheTimeToLive.addModifyListener(lsMod);
+    FormData fdCacheTimeToLive = new FormData();
+    fdCacheTimeToLive.left = new FormAttachment(middle, 0);
+    fdCacheTimeToLive.right = new FormAttachment(100, 0);
+    fdCacheTimeToLive.top = new FormAttachment(wCacheMaxMemory, margin);
+    wCacheTimeToLive.setLayoutData(fdCacheTimeToLive);
+
     // SQL editor...
     Label wlSql = new Label(shell, SWT.NONE);
     wlSql.setText(BaseMessages.getString(PKG, "DatabaseJoinDialog.SQL.Label"));
     PropsUi.setLook(wlSql);
     FormData fdlSql = new FormData();
     fdlSql.left = new FormAttachment(0, 0);
-    fdlSql.top = new FormAttachment(wCacheSize, margin * 2);
+    fdlSql.top = new FormAttachment(wCacheTimeToLive, margin * 2);
     wlSql.setLayoutData(fdlSql);
 
     wSql =
@@ -333,6 +407,25 @@ public class DatabaseJoinDialog extends BaseTransformDialog {
           }
         });
 
+    // Batch size
+    Label wlBatchSize = new Label(shell, SWT.RIGHT);
+    wlBatchSize.setText(BaseMessages.getString(PKG, "DatabaseJoinDialog.BatchSize.Label"));
+    PropsUi.setLook(wlBatchSize);
+    FormData fdlBatchSize = new FormData();
+    fdlBatchSize.left = new FormAttachment(0, 0);
+    fdlBatchSize.right = new FormAttachment(middle, -margin);
+    fdlBatchSize.top = new FormAttachment(wUseVars, margin);
+    wlBatchSize.setLayoutData(fdlBatchSize);
+    wBatchSize = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wBatchSize.setToolTipText(BaseMessages.getString(PKG, "DatabaseJoinDialog.BatchSize.Tooltip"));
+    PropsUi.setLook(wBatchSize);
+    wBatchSize.addModifyListener(lsMod);
+    FormData fdBatchSize = new FormData();
+    fdBatchSize.left = new FormAttachment(middle, 0);
+    fdBatchSize.right = new FormAttachment(100, 0);
+    fdBatchSize.top = new FormAttachment(wUseVars, margin);
+    wBatchSize.setLayoutData(fdBatchSize);
+
     // THE BUTTONS
     wOk = new Button(shell, SWT.PUSH);
     wOk.setText(BaseMessages.getString(PKG, "System.Button.OK"));
@@ -349,7 +442,7 @@ public class DatabaseJoinDialog extends BaseTransformDialog {
     PropsUi.setLook(wlParam);
     FormData fdlParam = new FormData();
     fdlParam.left = new FormAttachment(0, 0);
-    fdlParam.top = new FormAttachment(wUseVars, margin);
+    fdlParam.top = new FormAttachment(wBatchSize, margin);
     wlParam.setLayoutData(fdlParam);
 
     int nrKeyCols = 2;
@@ -437,6 +530,12 @@ public class DatabaseJoinDialog extends BaseTransformDialog {
   private void enableFields() {
     wCacheSize.setEnabled(wCache.getSelection());
     wlCacheSize.setEnabled(wCache.getSelection());
+    wCacheEvictionPolicy.setEnabled(wCache.getSelection());
+    wlCacheEvictionPolicy.setEnabled(wCache.getSelection());
+    wCacheMaxMemory.setEnabled(wCache.getSelection());
+    wlCacheMaxMemory.setEnabled(wCache.getSelection());
+    wCacheTimeToLive.setEnabled(wCache.getSelection());
+    wlCacheTimeToLive.setEnabled(wCache.getSelection());
   }
 
   protected void setComboBoxes() {
@@ -462,11 +561,15 @@ public class DatabaseJoinDialog extends BaseTransformDialog {
 
     wCache.setSelection(input.isCached());
     wCacheSize.setText("" + input.getCacheSize());
+    wCacheEvictionPolicy.setText(Const.NVL(input.getCacheEvictionPolicy(), ""));
+    wCacheMaxMemory.setText(Const.NVL(input.getCacheMaxMemory(), ""));
+    wCacheTimeToLive.setText(Const.NVL(input.getCacheTimeToLive(), ""));
 
     wSql.setText(Const.NVL(input.getSql(), ""));
     wLimit.setText("" + input.getRowLimit());
     wOuter.setSelection(input.isOuterJoin());
     wUseVars.setSelection(input.isReplaceVariables());
+    wBatchSize.setText(Const.NVL(input.getBatchSize(), ""));
     if (input.getParameters() != null) {
       int i = 0;
       for (ParameterField field : input.getParameters()) {
@@ -503,7 +606,11 @@ public class DatabaseJoinDialog extends BaseTransformDialog {
     input.setConnection(wConnection.getText());
     input.setCached(wCache.getSelection());
     input.setCacheSize(Const.toInt(wCacheSize.getText(), 0));
+    input.setCacheEvictionPolicy(wCacheEvictionPolicy.getText());
+    input.setCacheMaxMemory(wCacheMaxMemory.getText());
+    input.setCacheTimeToLive(wCacheTimeToLive.getText());
     input.setRowLimit(Const.toInt(wLimit.getText(), 0));
+    input.setBatchSize(wBatchSize.getText());
     input.setSql(wSql.getText());
     input.setOuterJoin(wOuter.getSelection());
     input.setReplaceVariables(wUseVars.getSelection());
@@ -24,6 +24,7 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.ICheckResult;
 import org.apache.hop.core.annotations.ActionTransformType;
 import org.apache.hop.core.annotations.Transform;
+import org.apache.hop.core.cache.CacheEvictionPolicy;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -78,6 +79,30 @@ public class DatabaseJoinMeta extends BaseTransformMeta<DatabaseJoin, DatabaseJo
       injectionKeyDescription = "DatabaseJoinMeta.Injection.CacheSize")
   private int cacheSize;
 
+  /** The cache eviction policy: LRU or TinyLFU */
+  @HopMetadataProperty(
+      key = "cache_eviction_policy",
+      injectionKeyDescription = "DatabaseJoinMeta.Injection.CacheEvictionPolicy")
+  private String cacheEvictionPolicy;
+
+  /** Limit the estimated memory usage of the cache to this number of MB */
+  @HopMetadataProperty(
+      key = "cache_max_memory",
+      injectionKeyDescription = "DatabaseJoinMeta.Injection.CacheMaxMemory")
+  private String cacheMaxMemory;
+
+  /** Expire the cached rows after this number of seconds */
+  @HopMetadataProperty(
+      key = "cache_time_to_live",
+      injectionKeyDescription = "DatabaseJoinMeta.Injection.CacheTimeToLive")
+  private String cacheTimeToLive;
+
+  /** Run the query for the parameters of this number of rows at once */
+  @HopMetadataProperty(
+      key = "batch_size",
+      injectionKeyDescription = "DatabaseJoinMeta.Injection.BatchSize")
+  private String batchSize;
+
   /** SQL Statement */
   @HopMetadataProperty(
       key = "sql",
@@ -116,6 +141,7 @@ public class DatabaseJoinMeta extends BaseTransformMeta<DatabaseJoin, DatabaseJo
 
   public DatabaseJoinMeta() {
     super(); // allocate BaseTransformMeta
+    cacheEvictionPolicy = CacheEvictionPolicy.LRU.name();
   }
 
   public DatabaseJoinMeta(final DatabaseJoinMeta clone) {
@@ -131,6 +157,10 @@ public class DatabaseJoinMeta extends BaseTransformMeta<DatabaseJoin, DatabaseJo
     }
     this.cached = clone.cached;
     this.cacheSize = clone.cacheSize;
+    this.cacheEvictionPolicy = clone.cacheEvictionPolicy;
+    this.cacheMaxMemory = clone.cacheMaxMemory;
+    this.cacheTimeToLive = clone.cacheTimeToLive;
+    this.batchSize = clone.batchSize;
   }
 
   public String getConnection() {
@@ -173,6 +203,70 @@ public class DatabaseJoinMeta extends BaseTransformMeta<DatabaseJoin, DatabaseJo
     this.cacheSize = cacheSize;
   }
 
+  /**
+   * Gets cacheEvictionPolicy
+   *
+   * @return value of cacheEvictionPolicy
+   */
+  public String getCacheEvictionPolicy() {
+    return cacheEvictionPolicy;
+  }
+
+  /**
+   * @param cacheEvictionPolicy The cacheEvictionPolicy to set
+   */
+  public void setCacheEvictionPolicy(String cacheEvictionPolicy) {
+    this.cacheEvictionPolicy = cacheEvictionPolicy;
+  }
+
+  /**
+   * Gets cacheMaxMemory
+   *
+   * @return value of cacheMaxMemory
+   */
+  public String getCacheMaxMemory() {
+    return cacheMaxMemory;
+  }
+
+  /**
+   * @param cacheMaxMemory The cacheMaxMemory to set
+   */
+  public void setCacheMaxMemory(String cacheMaxMemory) {
+    this.cacheMaxMemory = cacheMaxMemory;
+  }
+
+  /**
+   * Gets cacheTimeToLive
+   *
+   * @return value of cacheTimeToLive
+   */
+  public String getCacheTimeToLive() {
+    return cacheTimeToLive;
+  }
+
+  /**
+   * @param cacheTimeToLive The cacheTimeToLive to set
+   */
+  public void setCacheTimeToLive(String cacheTimeToLive) {
+    this.cacheTimeToLive = cacheTimeToLive;
+  }
+
+  /**
+   * Gets batchSize
+   *
+   * @return value of batchSize
+   */
+  public String getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * @param batchSize The batchSize to set
+   */
+  public void setBatchSize(String batchSize) {
+    this.batchSize = batchSize;
+  }
+
   /**
    * @return Returns the outerJoin.
    */
@@ -17,18 +17,45 @@
 
 package org.apache.hop.pipeline.transforms.databasejoin.cache;
 
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.cache.BoundedCache;
+import org.apache.hop.core.cache.CacheEvictionPolicy;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowDataUtil;
 
 public class DatabaseCache {
 
-  private Map<RowMetaAndData, List<Object[]>> cache;
+  private final BoundedCache<RowMetaAndData, List<Object[]>> cache;
 
   public DatabaseCache(int maxSize) {
-    cache = new EvictableCacheMap(maxSize);
+    this(CacheEvictionPolicy.LRU, maxSize, 0L, 0L);
+  }
+
+  /**
+   * @param policy the eviction policy
+   * @param maxSize the maximum number of keys, 0 for no maximum
+   * @param maxMemory the maximum estimated memory usage in MB, 0 for no maximum
+   * @param timeToLive the number of seconds after which the rows of a key expire, 0 to never expire
+   */
+  public DatabaseCache(CacheEvictionPolicy policy, int maxSize, long maxMemory, long timeToLive) {
+    cache =
+        new BoundedCache<>(
+            policy,
+            maxSize,
+            maxMemory * 1024L * 1024L,
+            timeToLive,
+            TimeUnit.SECONDS,
+            maxMemory > 0 ? DatabaseCache::estimateMemorySize : null);
+  }
+
+  private static long estimateMemorySize(RowMetaAndData key, List<Object[]> rows) {
+    long size = 64L + RowDataUtil.estimateMemorySize(key.getData());
+    for (Object[] row : rows) {
+      size += RowDataUtil.estimateMemorySize(row);
+    }
+    return size;
   }
 
   public List<Object[]> getRowsFromCache(IRowMeta lookupMeta, Object[] lookupRow) {
@@ -36,7 +63,7 @@ public class DatabaseCache {
   }
 
   public List<Object[]> getRowsFromCache(RowMetaAndData key) {
-    return cache.getOrDefault(key, null);
+    return cache.get(key);
   }
 
   public void putRowsIntoCache(RowMetaAndData key, List<Object[]> values) {
@@ -47,23 +74,14 @@ public class DatabaseCache {
     putRowsIntoCache(new RowMetaAndData(lookupMeta, lookupRow), values);
   }
 
-  private static class EvictableCacheMap extends LinkedHashMap<RowMetaAndData, List<Object[]>> {
-
-    private final int maxSize;
-
-    public EvictableCacheMap(int maxSize) {
-      super();
-      this.maxSize = maxSize;
-    }
-
-    @Override
-    protected boolean removeEldestEntry(Map.Entry<RowMetaAndData, List<Object[]>> eldest) {
-      return maxSize > 0
-          && size() > maxSize; // do not remove entries if maxSize is 0 (inherit from LinkedHashMap)
-    }
+  public boolean isEmpty() {
+    return cache.size() == 0;
   }
 
-  public boolean isEmpty() {
-    return cache.isEmpty();
+  /**
+   * @return the cache with the rows and the statistics
+   */
+  public BoundedCache<RowMetaAndData, List<Object[]>> getCache() {
+    return cache;
   }
 }
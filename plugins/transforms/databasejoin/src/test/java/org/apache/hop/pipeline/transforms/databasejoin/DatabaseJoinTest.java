@@ -132,4 +132,15 @@ class DatabaseJoinTest {
     verify(mockTransformDataInterface.db, times(0)).cancelStatement(any(PreparedStatement.class));
     assertFalse(mockTransformDataInterface.isCanceled);
   }
+
+  @Test
+  void testBatchableQueries() {
+    assertTrue(DatabaseJoin.isBatchable("SELECT * FROM customer WHERE id = ?"));
+    assertTrue(DatabaseJoin.isBatchable("SELECT * FROM orders WHERE ordered_by = ?"));
+    assertFalse(
+        DatabaseJoin.isBatchable(
+            "  with c AS (SELECT * FROM customer) SELECT * FROM c WHERE id = ?"));
+    assertFalse(DatabaseJoin.isBatchable("SELECT * FROM customer WHERE id = ? ORDER  BY name"));
+    assertFalse(DatabaseJoin.isBatchable(null));
+  }
 }
@@ -20,14 +20,21 @@ package org.apache.hop.pipeline.transforms.databaselookup;
 import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
+import org.apache.hop.core.RowMetaAndData;
+import org.apache.hop.core.cache.CacheEvictionPolicy;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
@@ -39,7 +46,9 @@ import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.transform.BaseTransform;
+import org.apache.hop.pipeline.transform.TransformCacheMetrics;
 import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.databaselookup.readallcache.ReadAllCache;
 
@@ -48,6 +57,8 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
 
   private static final Class<?> PKG = DatabaseLookupMeta.class;
 
+  private Map<IEngineMetric, Long> cacheMetrics = Collections.emptyMap();
+
   public DatabaseLookup(
       TransformMeta transformMeta,
       DatabaseLookupMeta meta,
@@ -69,39 +80,10 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   synchronized Object[] lookupValues(IRowMeta inputRowMeta, Object[] row) throws HopException {
     Object[] outputRow = RowDataUtil.resizeArray(row, data.outputRowMeta.size());
 
-    Object[] lookupRow = new Object[data.lookupMeta.size()];
-    int lookupIndex = 0;
-
-    for (int i = 0; i < meta.getLookup().getKeyFields().size(); i++) {
-      if (data.keynrs[i] >= 0) {
-        IValueMeta input = inputRowMeta.getValueMeta(data.keynrs[i]);
-        IValueMeta value = data.lookupMeta.getValueMeta(lookupIndex);
-        lookupRow[lookupIndex] = row[data.keynrs[i]];
-
-        // Try to convert type if needed
-        if (input.getType() != value.getType()
-            || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType()) {
-          lookupRow[lookupIndex] = value.convertData(input, lookupRow[lookupIndex]);
-          value.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
-        }
-        lookupIndex++;
-      }
-      if (data.keynrs2[i] >= 0) {
-        IValueMeta input = inputRowMeta.getValueMeta(data.keynrs2[i]);
-        IValueMeta value = data.lookupMeta.getValueMeta(lookupIndex);
-        lookupRow[lookupIndex] = row[data.keynrs2[i]];
-
-        // Try to convert type if needed
-        if (input.getType() != value.getType()
-            || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType()) {
-          lookupRow[lookupIndex] = value.convertData(input, lookupRow[lookupIndex]);
-          value.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
-        }
-        lookupIndex++;
-      }
-    }
+    Object[] lookupRow = getLookupRow(inputRowMeta, row);
 
     Object[] add;
+    IRowMeta returnRowMeta = null;
     boolean cacheNow = false;
     boolean cacheHit = false;
 
@@ -129,8 +111,26 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
                 + data.lookupMeta.getString(lookupRow));
       }
 
-      data.db.setValuesLookup(data.lookupMeta, lookupRow);
-      add = data.db.getLookup(meta.getLookup().isFailingOnMultipleResults());
+      RowMetaAndData batchKey =
+          data.batchResults == null ? null : new RowMetaAndData(data.lookupMeta, lookupRow);
+      Object[] batchRow = batchKey == null ? null : data.batchResults.get(batchKey);
+      if (batchRow != null) {
+        // This key was found with the other keys of the batch
+        //
+        add = batchRow.clone();
+        returnRowMeta = data.batchReturnMeta;
+      } else {
+        // Keys which didn't come back with the batch are looked up on their own: the database
+        // may compare them differently than we do, with a case-insensitive collation or padding.
+        //
+        long startTime = System.nanoTime();
+        data.db.setValuesLookup(data.lookupMeta, lookupRow);
+        add = data.db.getLookup(meta.getLookup().isFailingOnMultipleResults());
+        returnRowMeta = data.db.getReturnRowMeta();
+        if (data.cache instanceof DefaultCache defaultCache) {
+          defaultCache.getCache().recordLoad(System.nanoTime() - startTime);
+        }
+      }
       cacheNow = true;
     }
 
@@ -187,7 +187,7 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
         //
         int[] types = data.returnValueTypes;
         for (int i = 0; i < types.length; i++) {
-          IValueMeta returned = data.db.getReturnRowMeta().getValueMeta(i);
+          IValueMeta returned = returnRowMeta == null ? null : returnRowMeta.getValueMeta(i);
           IValueMeta expected = data.returnMeta.getValueMeta(i);
 
           if (returned != null && types[i] > 0 && types[i] != returned.getType()) {
@@ -212,6 +212,49 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
     return outputRow;
   }
 
+  /**
+   * Get the values to look up from an input row, converted to the types of the key fields.
+   *
+   * @param inputRowMeta The metadata of the input row
+   * @param row The input row
+   * @return The lookup row
+   * @throws HopValueException In case a value can't be converted
+   */
+  private Object[] getLookupRow(IRowMeta inputRowMeta, Object[] row) throws HopValueException {
+    Object[] lookupRow = new Object[data.lookupMeta.size()];
+    int lookupIndex = 0;
+
+    for (int i = 0; i < meta.getLookup().getKeyFields().size(); i++) {
+      if (data.keynrs[i] >= 0) {
+        IValueMeta input = inputRowMeta.getValueMeta(data.keynrs[i]);
+        IValueMeta value = data.lookupMeta.getValueMeta(lookupIndex);
+        lookupRow[lookupIndex] = row[data.keynrs[i]];
+
+        // Try to convert type if needed
+        if (input.getType() != value.getType()
+            || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType()) {
+          lookupRow[lookupIndex] = value.convertData(input, lookupRow[lookupIndex]);
+          value.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+        }
+        lookupIndex++;
+      }
+      if (data.keynrs2[i] >= 0) {
+        IValueMeta input = inputRowMeta.getValueMeta(data.keynrs2[i]);
+        IValueMeta value = data.lookupMeta.getValueMeta(lookupIndex);
+        lookupRow[lookupIndex] = row[data.keynrs2[i]];
+
+        // Try to convert type if needed
+        if (input.getType() != value.getType()
+            || IValueMeta.STORAGE_TYPE_BINARY_STRING == input.getStorageType()) {
+          lookupRow[lookupIndex] = value.convertData(input, lookupRow[lookupIndex]);
+          value.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+        }
+        lookupIndex++;
+      }
+    }
+    return lookupRow;
+  }
+
   // visible for testing purposes
   void determineFieldsTypesQueryingDb() throws HopException {
     List<KeyField> keyFields = meta.getLookup().getKeyFields();
@@ -311,6 +354,9 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
   public boolean processRow() throws HopException {
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if (r == null) { // no more input to be expected...
+      if (data.batchRows != null && !data.batchRows.isEmpty() && !processBatch()) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -356,6 +402,9 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
           returnRename,
           lookup.getOrderByClause(),
           lookup.isFailingOnMultipleResults());
+      data.keyFields = keyField;
+      data.returnFields = returnField;
+      data.returnRenames = returnRename;
 
       // lookup the values!
       if (isDetailed()) {
@@ -403,7 +452,13 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       }
 
       if (meta.isCached()) {
-        data.cache = DefaultCache.newCache(data, meta.getCacheSize());
+        data.cache =
+            DefaultCache.newCache(
+                data,
+                meta,
+                CacheEvictionPolicy.lookupName(resolve(meta.getCacheEvictionPolicy())),
+                Const.toLong(resolve(meta.getCacheMaxMemory()), 0L),
+                Const.toLong(resolve(meta.getCacheTimeToLive()), 0L));
       }
 
       determineFieldsTypesQueryingDb();
@@ -430,6 +485,21 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       if (meta.isCached() && meta.isLoadingAllDataInCache()) {
         loadAllTableDataIntoTheCache();
       }
+
+      // Look up the keys of a number of rows at once?
+      //
+      data.batchSize = Const.toInt(resolve(meta.getBatchSize()), 0);
+      if (data.batchSize > 1
+          && data.allEquals
+          && !keyFields.isEmpty()
+          && !(meta.isCached() && meta.isLoadingAllDataInCache())) {
+        data.batchRows = new ArrayList<>(data.batchSize);
+        if (isDetailed()) {
+          logDetailed(
+              BaseMessages.getString(
+                  PKG, "DatabaseLookup.Log.BatchingLookups", String.valueOf(data.batchSize)));
+        }
+      }
     }
 
     if (isRowLevel()) {
@@ -438,6 +508,24 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
               + getInputRowMeta().getString(r));
     }
 
+    if (data.batchRows != null) {
+      data.batchRows.add(r);
+      if (data.batchRows.size() >= data.batchSize) {
+        return processBatch();
+      }
+      return true;
+    }
+
+    return processLookupRow(r);
+  }
+
+  /**
+   * Look up the values for one input row and pass the result on.
+   *
+   * @param r The input row
+   * @return false if the transform has to stop
+   */
+  private boolean processLookupRow(Object[] r) throws HopException {
     try {
       // add new lookup values to the row
       Object[] outputRow = lookupValues(getInputRowMeta(), r);
@@ -472,6 +560,124 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
     return true;
   }
 
+  /**
+   * Look up the keys of the buffered rows which are not in the cache with a single query and then
+   * pass the rows on in their original order. The keys which are not found by the query are looked
+   * up one by one.
+   *
+   * @return false if the transform has to stop
+   */
+  private boolean processBatch() throws HopException {
+    try {
+      try {
+        lookupBatch();
+      } catch (HopException e) {
+        if (getTransformMeta().isDoingErrorHandling()) {
+          // Look up every row on its own so the rows in error go to the error handling
+          logBasic(BaseMessages.getString(PKG, "DatabaseLookup.Log.BatchFailed", e.getMessage()));
+          data.batchResults = null;
+        } else {
+          logError(
+              BaseMessages.getString(PKG, "DatabaseLookup.ERROR003.UnexpectedErrorDuringProcessing")
+                  + e.getMessage());
+          setErrors(1);
+          stopAll();
+          setOutputDone(); // signal end to receiver(s)
+          return false;
+        }
+      }
+      for (Object[] row : data.batchRows) {
+        if (!processLookupRow(row)) {
+          return false;
+        }
+      }
+      return true;
+    } finally {
+      data.batchRows.clear();
+      data.batchResults = null;
+    }
+  }
+
+  private void lookupBatch() throws HopException {
+    // The distinct keys we need to look up in the database
+    //
+    Map<RowMetaAndData, Object[]> keys = new LinkedHashMap<>();
+    for (Object[] row : data.batchRows) {
+      Object[] lookupRow;
+      try {
+        lookupRow = getLookupRow(getInputRowMeta(), row);
+      } catch (HopValueException e) {
+        // This row is handled on its own later on
+        continue;
+      }
+      RowMetaAndData key = new RowMetaAndData(data.lookupMeta, lookupRow);
+      if (!keys.containsKey(key)
+          && !(data.cache instanceof DefaultCache defaultCache
+              && defaultCache.getCache().containsKey(key))) {
+        keys.put(key, lookupRow);
+      }
+    }
+
+    data.batchResults = new HashMap<>();
+    if (keys.isEmpty()) {
+      return;
+    }
+
+    long startTime = System.nanoTime();
+    Lookup lookup = meta.getLookup();
+    List<RowMetaAndData> rows =
+        data.db.getLookupRows(
+            resolve(meta.getSchemaName()),
+            resolve(meta.getTableName()),
+            data.keyFields,
+            data.returnFields,
+            data.returnRenames,
+            lookup.getOrderByClause(),
+            data.lookupMeta,
+            new ArrayList<>(keys.values()));
+
+    int nrKeys = data.lookupMeta.size();
+    for (RowMetaAndData row : rows) {
+      IRowMeta rowMeta = row.getRowMeta();
+      if (data.batchReturnMeta == null) {
+        data.batchReturnMeta = new RowMeta();
+        for (int i = nrKeys; i < rowMeta.size(); i++) {
+          data.batchReturnMeta.addValueMeta(rowMeta.getValueMeta(i));
+        }
+      }
+
+      // Convert the key back to the types of the lookup row to match it
+      //
+      Object[] keyData = new Object[nrKeys];
+      for (int i = 0; i < nrKeys; i++) {
+        keyData[i] =
+            data.lookupMeta.getValueMeta(i).convertData(rowMeta.getValueMeta(i), row.getData()[i]);
+      }
+      RowMetaAndData key = new RowMetaAndData(data.lookupMeta, keyData);
+      if (data.batchResults.get(key) != null) {
+        if (lookup.isFailingOnMultipleResults()) {
+          throw new HopDatabaseException(
+              "Only 1 row was expected as a result of a lookup, and at least 2 were found!");
+        }
+        // Keep the first row like the lookup of a single key does
+        continue;
+      }
+      data.batchResults.put(key, Arrays.copyOfRange(row.getData(), nrKeys, rowMeta.size()));
+    }
+
+    if (data.cache instanceof DefaultCache defaultCache) {
+      defaultCache.getCache().recordLoad(System.nanoTime() - startTime);
+    }
+    if (isDebug()) {
+      logDebug(
+          BaseMessages.getString(
+              PKG,
+              "DatabaseLookup.Log.BatchLookedUp",
+              String.valueOf(keys.size()),
+              String.valueOf(rows.size())));
+    }
+  }
+
   private void loadAllTableDataIntoTheCache() throws HopException {
     DatabaseMeta dbMeta = getPipelineMeta().findDatabase(meta.getConnection(), variables);
 
@@ -662,14 +868,24 @@ public class DatabaseLookup extends BaseTransform<DatabaseLookupMeta, DatabaseLo
       data.db.disconnect();
     }
 
-    // Recover memory immediately, allow in-memory data to be garbage collected
+    // Keep the cache metrics around, then recover memory immediately, allow in-memory data to be
+    // garbage collected
     //
+    cacheMetrics = getTransformMetrics();
     data.cache = null;
     data.db = null;
 
     super.dispose();
   }
 
+  @Override
+  public Map<IEngineMetric, Long> getTransformMetrics() {
+    if (data.cache instanceof DefaultCache defaultCache) {
+      return TransformCacheMetrics.of(defaultCache.getCache());
+    }
+    return cacheMetrics;
+  }
+
   /*
    * this method is required in order to
    * provide ability for unit tests to
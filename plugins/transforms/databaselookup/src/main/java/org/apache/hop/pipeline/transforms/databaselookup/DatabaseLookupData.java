@@ -18,6 +18,8 @@
 package org.apache.hop.pipeline.transforms.databaselookup;
 
 import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
@@ -45,6 +47,17 @@ public class DatabaseLookupData extends BaseTransformData implements ITransformD
   public String[] returnTrimTypes;
   public List<Integer> trimIndexes;
 
+  public String[] keyFields;
+  public String[] returnFields;
+  public String[] returnRenames;
+
+  /** The number of rows to look up at once, batching is disabled if batchRows is null */
+  public int batchSize;
+
+  public List<Object[]> batchRows;
+  public Map<RowMetaAndData, Object[]> batchResults;
+  public IRowMeta batchReturnMeta;
+
   public DatabaseLookupData() {
     super();
 
@@ -22,6 +22,7 @@ import java.util.List;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Props;
+import org.apache.hop.core.cache.CacheEvictionPolicy;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopException;
@@ -43,6 +44,7 @@ import org.apache.hop.ui.core.dialog.MessageBox;
 import org.apache.hop.ui.core.gui.GuiResource;
 import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.ColumnsResizer;
+import org.apache.hop.ui.core.widget.ComboVar;
 import org.apache.hop.ui.core.widget.MetaSelectionLine;
 import org.apache.hop.ui.core.widget.TableView;
 import org.apache.hop.ui.core.widget.TextVar;
@@ -81,6 +83,15 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
   private Label wlCacheSize;
   private Text wCacheSize;
 
+  private Label wlCacheEvictionPolicy;
+  private ComboVar wCacheEvictionPolicy;
+
+  private Label wlCacheMaxMemory;
+  private TextVar wCacheMaxMemory;
+
+  private Label wlCacheTimeToLive;
+  private TextVar wCacheTimeToLive;
+
   private TableView wKey;
 
   private TextVar wSchema;
@@ -97,6 +108,8 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
 
   private Button wEatRows;
 
+  private TextVar wBatchSize;
+
   private final DatabaseLookupMeta input;
 
   /** List of ColumnInfo that should have the field names of the selected database table */
@@ -339,6 +352,67 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     fdCachesize.top = new FormAttachment(wCache, margin);
     wCacheSize.setLayoutData(fdCachesize);
 
+    // Cache eviction policy line
+    wlCacheEvictionPolicy = new Label(fieldGeneralComp, SWT.RIGHT);
+    wlCacheEvictionPolicy.setText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheEvictionPolicy.Label"));
+    PropsUi.setLook(wlCacheEvictionPolicy);
+    FormData fdlCacheEvictionPolicy = new FormData();
+    fdlCacheEvictionPolicy.left = new FormAttachment(0, 0);
+    fdlCacheEvictionPolicy.right = new FormAttachment(middle, -margin);
+    fdlCacheEvictionPolicy.top = new FormAttachment(wCacheSize, margin);
+    wlCacheEvictionPolicy.setLayoutData(fdlCacheEvictionPolicy);
+    wCacheEvictionPolicy =
+        new ComboVar(variables, fieldGeneralComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wCacheEvictionPolicy.setItems(CacheEvictionPolicy.getNames());
+    wCacheEvictionPolicy.setToolTipText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheEvictionPolicy.Tooltip"));
+    PropsUi.setLook(wCacheEvictionPolicy);
+    wCacheEvictionPolicy.addModifyListener(lsMod);
+    FormData fdCacheEvictionPolicy = new FormData();
+    fdCacheEvictionPolicy.left = new FormAttachment(middle, 0);
+    fdCacheEvictionPolicy.right = new FormAttachment(100, 0);
+    fdCacheEvictionPolicy.top = new FormAttachment(wCacheSize, margin);
+    wCacheEvictionPolicy.setLayoutData(fdCacheEvictionPolicy);
+
+    // Cache maximum memory line
+    wlCacheMaxMemory = new Label(fieldGeneralComp, SWT.RIGHT);
+    wlCacheMaxMemory.setText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheMaxMemory.Label"));
+    PropsUi.setLook(wlCacheMaxMemory);
+    FormData fdlCacheMaxMemory = new FormData();
+    fdlCacheMaxMemory.left = new FormAttachment(0, 0);
+    fdlCacheMaxMemory.right = new FormAttachment(middle, -margin);
+    fdlCacheMaxMemory.top = new FormAttachment(wCacheEvictionPolicy, margin);
+    wlCacheMaxMemory.setLayoutData(fdlCacheMaxMemory);
+    wCacheMaxMemory = new TextVar(variables, fieldGeneralComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wCacheMaxMemory);
+    wCacheMaxMemory.addModifyListener(lsMod);
+    FormData fdCacheMaxMemory = new FormData();
+    fdCacheMaxMemory.left = new FormAttachment(middle, 0);
+    fdCacheMaxMemory.right = new FormAttachment(100, 0);
+    fdCacheMaxMemory.top = new FormAttachment(wCacheEvictionPolicy, margin);
+    wCacheMaxMemory.setLayoutData(fdCacheMaxMemory);
+
+    // Cache time to live line
+    wlCacheTimeToLive = new Label(fieldGeneralComp, SWT.RIGHT);
+    wlCacheTimeToLive.setText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheTimeToLive.Label"));
+    PropsUi.setLook(wlCacheTimeToLive);
+    FormData fdlCacheTimeToLive = new FormData();
+    fdlCacheTimeToLive.left = new FormAttachment(0, 0);
+    fdlCacheTimeToLive.right = new FormAttachment(middle, -margin);
+    fdlCacheTimeToLive.top = new FormAttachment(wCacheMaxMemory, margin);
+    wlCacheTimeToLive.setLayoutData(fdlCacheTimeToLive);
+    wCacheTimeToLive = new TextVar(variables, fieldGeneralComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wCacheTimeToLive);
+    wCacheTimeToLive.addModifyListener(lsMod);
+    FormData fdCacheTimeToLive = new FormData();
+    fdCacheTimeToLive.left = new FormAttachment(middle, 0);
+    fdCacheTimeToLive.right = new FormAttachment(100, 0);
+    fdCacheTimeToLive.top = new FormAttachment(wCacheMaxMemory, margin);
+    wCacheTimeToLive.setLayoutData(fdCacheTimeToLive);
+
     // Cache load all
     wlCacheLoadAll = new Label(fieldGeneralComp, SWT.RIGHT);
     wlCacheLoadAll.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.CacheLoadAll.Label"));
@@ -346,7 +420,7 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     FormData fdlCacheLoadAll = new FormData();
     fdlCacheLoadAll.left = new FormAttachment(0, 0);
     fdlCacheLoadAll.right = new FormAttachment(middle, -margin);
-    fdlCacheLoadAll.top = new FormAttachment(wCacheSize, margin);
+    fdlCacheLoadAll.top = new FormAttachment(wCacheTimeToLive, margin);
     wlCacheLoadAll.setLayoutData(fdlCacheLoadAll);
     wCacheLoadAll = new Button(fieldGeneralComp, SWT.CHECK);
     PropsUi.setLook(wCacheLoadAll);
@@ -411,6 +485,26 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
           }
         });
 
+    // Batch size
+    Label wlBatchSize = new Label(fieldGeneralComp, SWT.RIGHT);
+    wlBatchSize.setText(BaseMessages.getString(PKG, "DatabaseLookupDialog.BatchSize.Label"));
+    PropsUi.setLook(wlBatchSize);
+    FormData fdlBatchSize = new FormData();
+    fdlBatchSize.left = new FormAttachment(0, 0);
+    fdlBatchSize.top = new FormAttachment(wFailMultiple, margin);
+    fdlBatchSize.right = new FormAttachment(middle, -margin);
+    wlBatchSize.setLayoutData(fdlBatchSize);
+    wBatchSize = new TextVar(variables, fieldGeneralComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wBatchSize.setToolTipText(
+        BaseMessages.getString(PKG, "DatabaseLookupDialog.BatchSize.Tooltip"));
+    PropsUi.setLook(wBatchSize);
+    wBatchSize.addModifyListener(lsMod);
+    FormData fdBatchSize = new FormData();
+    fdBatchSize.left = new FormAttachment(middle, 0);
+    fdBatchSize.top = new FormAttachment(wFailMultiple, margin);
+    fdBatchSize.right = new FormAttachment(100, 0);
+    wBatchSize.setLayoutData(fdBatchSize);
+
     fieldGeneralComp.setLayoutData(new FormDataBuilder().fullWidth().build());
 
     fieldGeneralComp.pack();
@@ -695,6 +789,13 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
 
     wCacheSize.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
     wlCacheSize.setEnabled(wCache.getSelection() && !wCacheLoadAll.getSelection());
+    boolean evicting = wCache.getSelection() && !wCacheLoadAll.getSelection();
+    wCacheEvictionPolicy.setEnabled(evicting);
+    wlCacheEvictionPolicy.setEnabled(evicting);
+    wCacheMaxMemory.setEnabled(evicting);
+    wlCacheMaxMemory.setEnabled(evicting);
+    wCacheTimeToLive.setEnabled(evicting);
+    wlCacheTimeToLive.setEnabled(evicting);
     wCacheLoadAll.setEnabled(wCache.getSelection());
     wlCacheLoadAll.setEnabled(wCache.getSelection());
     wFailMultiple.setEnabled(!wCache.getSelection());
@@ -707,6 +808,9 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
 
     wCache.setSelection(input.isCached());
     wCacheSize.setText("" + input.getCacheSize());
+    wCacheEvictionPolicy.setText(Const.NVL(input.getCacheEvictionPolicy(), ""));
+    wCacheMaxMemory.setText(Const.NVL(input.getCacheMaxMemory(), ""));
+    wCacheTimeToLive.setText(Const.NVL(input.getCacheTimeToLive(), ""));
     wCacheLoadAll.setSelection(input.isLoadingAllDataInCache());
 
     Lookup lookup = input.getLookup();
@@ -743,6 +847,7 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
     wOrderBy.setText(Const.NVL(lookup.getOrderByClause(), ""));
     wFailMultiple.setSelection(lookup.isFailingOnMultipleResults());
     wEatRows.setSelection(lookup.isEatingRowOnLookupFailure());
+    wBatchSize.setText(Const.NVL(input.getBatchSize(), ""));
 
     wKey.optimizeTableView();
     wReturn.optimizeTableView();
@@ -770,7 +875,11 @@ public class DatabaseLookupDialog extends BaseTransformDialog {
 
     input.setCached(wCache.getSelection());
     input.setCacheSize(Const.toInt(wCacheSize.getText(), 0));
+    input.setCacheEvictionPolicy(wCacheEvictionPolicy.getText());
+    input.setCacheMaxMemory(wCacheMaxMemory.getText());
+    input.setCacheTimeToLive(wCacheTimeToLive.getText());
     input.setLoadingAllDataInCache(wCacheLoadAll.getSelection());
+    input.setBatchSize(wBatchSize.getText());
 
     for (TableItem item : wKey.getNonEmptyItems()) {
       KeyField keyField = new KeyField();
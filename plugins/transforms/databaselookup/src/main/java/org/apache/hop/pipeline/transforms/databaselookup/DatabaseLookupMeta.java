@@ -26,6 +26,7 @@ import org.apache.hop.core.Const;
 import org.apache.hop.core.ICheckResult;
 import org.apache.hop.core.annotations.ActionTransformType;
 import org.apache.hop.core.annotations.Transform;
+import org.apache.hop.core.cache.CacheEvictionPolicy;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.exception.HopDatabaseException;
@@ -100,11 +101,36 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
       injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheLoadAll")
   private boolean loadingAllDataInCache;
 
+  /** The cache eviction policy: LRU or TinyLFU */
+  @HopMetadataProperty(
+      key = "cache_eviction_policy",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheEvictionPolicy")
+  private String cacheEvictionPolicy;
+
+  /** Limit the estimated memory usage of the cache to this number of MB */
+  @HopMetadataProperty(
+      key = "cache_max_memory",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheMaxMemory")
+  private String cacheMaxMemory;
+
+  /** Expire the cached rows after this number of seconds */
+  @HopMetadataProperty(
+      key = "cache_time_to_live",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.CacheTimeToLive")
+  private String cacheTimeToLive;
+
+  /** Look up the keys of this number of rows with one query */
+  @HopMetadataProperty(
+      key = "batch_size",
+      injectionKeyDescription = "DatabaseLookupMeta.Injection.BatchSize")
+  private String batchSize;
+
   @HopMetadataProperty(key = "lookup")
   private Lookup lookup;
 
   public DatabaseLookupMeta() {
     lookup = new Lookup();
+    cacheEvictionPolicy = CacheEvictionPolicy.LRU.name();
   }
 
   public DatabaseLookupMeta(DatabaseLookupMeta m) {
@@ -112,6 +138,10 @@ public class DatabaseLookupMeta extends BaseTransformMeta<DatabaseLookup, Databa
     this.cached = m.cached;
     this.cacheSize = m.cacheSize;
     this.loadingAllDataInCache = m.loadingAllDataInCache;
+    this.cacheEvictionPolicy = m.cacheEvictionPolicy;
+    this.cacheMaxMemory = m.cacheMaxMemory;
+    this.cacheTimeToLive = m.cacheTimeToLive;
+    this.batchSize = m.batchSize;
     this.lookup = new Lookup(m.lookup);
   }
 
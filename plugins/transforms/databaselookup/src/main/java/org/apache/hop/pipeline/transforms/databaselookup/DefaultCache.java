@@ -17,35 +17,73 @@
 
 package org.apache.hop.pipeline.transforms.databaselookup;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Date;
-import java.util.LinkedHashMap;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.apache.hop.core.RowMetaAndData;
-import org.apache.hop.core.TimedRow;
+import org.apache.hop.core.cache.BoundedCache;
+import org.apache.hop.core.cache.CacheEvictionPolicy;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowDataUtil;
 
-/** Old code, copied from {@linkplain DatabaseLookup} */
+/**
+ * Caches the looked up rows by key in a {@link BoundedCache}. The cache is bounded by the number of
+ * rows and/or the estimated memory usage and evicts rows according to the chosen policy.
+ */
 public class DefaultCache implements DatabaseLookupData.ICache {
 
+  /**
+   * Create an LRU cache bounded by a number of rows.
+   *
+   * @param data the transform data
+   * @param cacheSize the maximum number of rows, 0 for no maximum
+   * @return the new cache
+   */
   public static DefaultCache newCache(DatabaseLookupData data, int cacheSize) {
-    if (cacheSize > 0) {
-      cacheSize = (int) (cacheSize * 1.5);
-    } else {
-      cacheSize = 16;
+    return new DefaultCache(
+        data, new BoundedCache<>(CacheEvictionPolicy.LRU, cacheSize, 0, 0, TimeUnit.SECONDS, null));
+  }
+
+  /**
+   * Create a cache with the eviction policy, maximum size and time to live of the transform. When
+   * all data is loaded into the cache at startup it is never evicted.
+   *
+   * @param data the transform data
+   * @param meta the transform metadata
+   * @param policy the eviction policy
+   * @param maxMemory the maximum estimated memory usage in MB, 0 for no maximum
+   * @param timeToLive the number of seconds after which a row expires, 0 to never expire
+   * @return the new cache
+   */
+  public static DefaultCache newCache(
+      DatabaseLookupData data,
+      DatabaseLookupMeta meta,
+      CacheEvictionPolicy policy,
+      long maxMemory,
+      long timeToLive) {
+    if (meta.isLoadingAllDataInCache()) {
+      return newCache(data, 0);
     }
-    return new DefaultCache(data, cacheSize);
+    return new DefaultCache(
+        data,
+        new BoundedCache<>(
+            policy,
+            meta.getCacheSize(),
+            maxMemory * 1024L * 1024L,
+            timeToLive,
+            TimeUnit.SECONDS,
+            (key, row) ->
+                RowDataUtil.estimateMemorySize(key.getData())
+                    + RowDataUtil.estimateMemorySize(row)
+                    + 64L));
   }
 
   private final DatabaseLookupData data;
-  private final LinkedHashMap<RowMetaAndData, TimedRow> map;
+  private final BoundedCache<RowMetaAndData, Object[]> cache;
 
-  DefaultCache(DatabaseLookupData data, int capacity) {
+  DefaultCache(DatabaseLookupData data, BoundedCache<RowMetaAndData, Object[]> cache) {
     this.data = data;
-    map = new LinkedHashMap<>(capacity);
+    this.cache = cache;
   }
 
   @Override
@@ -53,17 +91,18 @@ public class DefaultCache implements DatabaseLookupData.ICache {
     if (data.allEquals) {
       // only do the map lookup when all equals otherwise conditions >, <, <> will give wrong
       // results
-      TimedRow timedRow = map.get(new RowMetaAndData(data.lookupMeta, lookupRow));
-      if (timedRow != null) {
-        return timedRow.getRow();
-      }
+      return cache.get(new RowMetaAndData(data.lookupMeta, lookupRow));
     } else { // special handling of conditions <,>, <> etc.
       if (!data.hasDBCondition) { // e.g. LIKE not handled by this routine, yet
         // TODO: find an alternative way to look up the data based on the condition.
         // Not all conditions are "=" so we are going to have to evaluate row by row
         // A sorted list or index might be a good solution here...
         //
-        for (RowMetaAndData key : map.keySet()) {
+        // Expired rows must not match, wherever they are in the cache
+        //
+        cache.removeExpired();
+        RowMetaAndData found = null;
+        for (RowMetaAndData key : cache.keySet()) {
           // Now verify that the key is matching our conditions...
           //
           boolean match = true;
@@ -120,12 +159,14 @@ public class DefaultCache implements DatabaseLookupData.ICache {
             lookupIndex++;
           }
           if (match) {
-            TimedRow timedRow = map.get(key);
-            if (timedRow != null) {
-              return timedRow.getRow();
-            }
+            found = key;
+            break;
           }
         }
+        if (found != null) {
+          return cache.get(found);
+        }
+        cache.recordMiss();
       }
     }
     return null;
@@ -134,55 +175,13 @@ public class DefaultCache implements DatabaseLookupData.ICache {
   @Override
   public void storeRowInCache(
       DatabaseLookupMeta meta, IRowMeta lookupMeta, Object[] lookupRow, Object[] add) {
-    RowMetaAndData rowMetaAndData = new RowMetaAndData(lookupMeta, lookupRow);
-    //  2009-02-01 XXX: I want to write a test case to prove this point before checking
-    // in.
-    // /* Don't insert a row with a duplicate key into the cache. It doesn't seem
-    // * to serve a useful purpose and can potentially cause the transform to return
-    // * different values over the life of the pipeline (if the source DB rows change)
-    // * Additionally, if using the load all data feature, re-inserting would reverse the order
-    // * specified in the transform.
-    // */
-    map.put(rowMetaAndData, new TimedRow(add));
-
-    // See if we have to limit the cache_size.
-    // Sample 10% of the rows in the cache.
-    // Remove everything below the second lowest date.
-    // That should on average remove more than 10% of the entries
-    // It's not exact science, but it will be faster than the old algorithm
-
-    // 2009-02-01: If you had previously set a cache size and then turned on load all,
-    // this
-    // method would throw out entries if the previous cache size wasn't big enough.
-    if (!meta.isLoadingAllDataInCache()
-        && meta.getCacheSize() > 0
-        && map.size() > meta.getCacheSize()) {
-      List<RowMetaAndData> keys = new ArrayList<>(map.keySet());
-      List<Date> samples = new ArrayList<>();
-      int incr = keys.size() / 10;
-      if (incr == 0) {
-        incr = 1;
-      }
-      for (int k = 0; k < keys.size(); k += incr) {
-        RowMetaAndData key = keys.get(k);
-        TimedRow timedRow = map.get(key);
-        samples.add(timedRow.getLogDate());
-      }
-
-      Collections.sort(samples);
-
-      if (samples.size() > 1) {
-        Date smallest = samples.get(1);
-
-        // Everything below the smallest date goes away...
-        for (RowMetaAndData key : keys) {
-          TimedRow timedRow = map.get(key);
+    cache.put(new RowMetaAndData(lookupMeta, lookupRow), add);
+  }
 
-          if (timedRow.getLogDate().compareTo(smallest) < 0) {
-            map.remove(key);
-          }
-        }
-      }
-    }
+  /**
+   * @return the cache with the rows and the statistics
+   */
+  public BoundedCache<RowMetaAndData, Object[]> getCache() {
+    return cache;
   }
 }
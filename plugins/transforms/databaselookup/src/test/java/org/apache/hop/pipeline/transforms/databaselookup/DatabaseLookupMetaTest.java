@@ -125,6 +125,9 @@ class DatabaseLookupMetaTest {
     DatabaseLookupMeta meta = new DatabaseLookupMeta();
     meta.setCached(true);
     meta.setCacheSize(123456);
+    meta.setCacheEvictionPolicy("TinyLFU");
+    meta.setCacheMaxMemory("64");
+    meta.setCacheTimeToLive("300");
     meta.setLoadingAllDataInCache(true);
     Lookup lookup = meta.getLookup();
     lookup.getKeyFields().add(new KeyField("aa", "gg", "ee", "cc"));
@@ -160,6 +163,9 @@ class DatabaseLookupMetaTest {
     assertEquals(meta.getTableName(), meta2.getTableName());
     assertEquals(meta.isCached(), meta2.isCached());
     assertEquals(meta.getCacheSize(), meta2.getCacheSize());
+    assertEquals(meta.getCacheEvictionPolicy(), meta2.getCacheEvictionPolicy());
+    assertEquals(meta.getCacheMaxMemory(), meta2.getCacheMaxMemory());
+    assertEquals(meta.getCacheTimeToLive(), meta2.getCacheTimeToLive());
     assertEquals(meta.isLoadingAllDataInCache(), meta2.isLoadingAllDataInCache());
 
     assertEquals(lookup.getKeyFields().size(), lookup2.getKeyFields().size());
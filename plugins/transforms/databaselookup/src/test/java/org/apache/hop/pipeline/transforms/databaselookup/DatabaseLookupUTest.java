@@ -21,11 +21,14 @@ import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.nullable;
@@ -35,17 +38,22 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockingDetails;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.apache.hop.core.HopEnvironment;
 import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
 import org.apache.hop.core.database.NoneDatabaseMeta;
@@ -405,6 +413,73 @@ class DatabaseLookupUTest {
     assertNotNull(data.cache.getRowFromCache(data.lookupMeta, new Object[] {2L}));
   }
 
+  @Test
+  void looksUpTheKeysOfABatchWithOneQuery() throws Exception {
+    Database db = mock(Database.class);
+    RowMeta resultMeta = new RowMeta();
+    resultMeta.addValueMeta(new ValueMetaInteger("id"));
+    resultMeta.addValueMeta(new ValueMetaString("name"));
+    when(db.getLookupRows(any(), any(), any(), any(), any(), any(), any(IRowMeta.class), anyList()))
+        .thenReturn(
+            Arrays.asList(
+                new RowMetaAndData(resultMeta, 1L, "one"),
+                new RowMetaAndData(resultMeta, 2L, "two")));
+
+    DatabaseLookupMeta meta = new DatabaseLookupMeta();
+    meta.setConnection("connection1");
+    meta.setBatchSize("10");
+    meta.getLookup().getKeyFields().add(new KeyField("Test", "", "=", "id"));
+    meta.getLookup()
+        .getReturnValues()
+        .add(
+            new ReturnValue(
+                "name",
+                "name",
+                "",
+                "String",
+                ValueMetaString.getTrimTypeCode(IValueMeta.TRIM_TYPE_NONE)));
+    DatabaseLookupData data = new DatabaseLookupData();
+
+    NoneDatabaseMeta genericMeta = new NoneDatabaseMeta();
+    DatabaseMeta dbMeta = new DatabaseMeta();
+    dbMeta.setIDatabase(genericMeta);
+    DatabaseLookup transform = spyLookup(mockHelper, meta, data, db, dbMeta);
+    when(transform.getPipelineMeta().findDatabase(any(String.class), any(IVariables.class)))
+        .thenReturn(dbMeta);
+    doNothing().when(transform).determineFieldsTypesQueryingDb();
+
+    RowMeta input = new RowMeta();
+    input.addValueMeta(new ValueMetaInteger("Test"));
+    transform.setInputRowMeta(input);
+    doReturn(new Object[] {1L}, new Object[] {2L}, new Object[] {1L}, new Object[] {3L}, null)
+        .when(transform)
+        .getRow();
+    List<Object[]> output = new ArrayList<>();
+    doAnswer(
+            invocation -> {
+              output.add(invocation.getArgument(1));
+              return null;
+            })
+        .when(transform)
+        .putRow(any(IRowMeta.class), any(Object[].class));
+
+    transform.init();
+    data.keytypes = new int[] {IValueMeta.TYPE_INTEGER};
+    while (transform.processRow()) {
+      // Keep going
+    }
+
+    verify(db, times(1))
+        .getLookupRows(any(), any(), any(), any(), any(), any(), any(IRowMeta.class), anyList());
+    // Only the key which didn't come back with the batch is looked up on its own
+    verify(db, times(1)).getLookup(anyBoolean());
+    assertEquals(4, output.size());
+    assertEquals("one", output.get(0)[1]);
+    assertEquals("two", output.get(1)[1]);
+    assertEquals("one", output.get(2)[1]);
+    assertNull(output.get(3)[1]);
+  }
+
   public class MockDatabaseLookup extends DatabaseLookup {
     public MockDatabaseLookup(
         TransformMeta transformMeta,
@@ -24,6 +24,10 @@ import static org.apache.hop.pipeline.transforms.dimensionlookup.DimensionLookup
 import static org.apache.hop.pipeline.transforms.dimensionlookup.DimensionLookupMeta.StartDateAlternative.NULL;
 import static org.apache.hop.pipeline.transforms.dimensionlookup.DimensionLookupMeta.StartDateAlternative.SYSTEM_DATE;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
@@ -31,6 +35,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.RowMetaAndData;
@@ -318,29 +323,11 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
             "Pre-loading cache by reading from database with: " + Const.CR + sql + Const.CR);
       }
 
-      List<Object[]> rows = data.db.getRows(sql.toString(), -1);
-      IRowMeta rowMeta = data.db.getReturnRowMeta();
-
-      data.preloadKeyIndexes = new int[f.getKeys().size()];
-      for (int i = 0; i < data.preloadKeyIndexes.length; i++) {
-        DLKey key = f.getKeys().get(i);
-        // The field in the table:
-        data.preloadKeyIndexes[i] = rowMeta.indexOfValue(key.getLookup());
-      }
-      data.preloadFromDateIndex = rowMeta.indexOfValue(f.getDate().getFrom());
-      data.preloadToDateIndex = rowMeta.indexOfValue(f.getDate().getTo());
-
-      data.preloadCache =
-          new DimensionCache(
-              rowMeta, data.preloadKeyIndexes, data.preloadFromDateIndex, data.preloadToDateIndex);
-      data.preloadCache.setRowCache(rows);
-
-      if (isDetailed()) {
-        logDetailed("Sorting the cache rows...");
-      }
-      data.preloadCache.sortRows();
-      if (isDetailed()) {
-        logDetailed("Sorting of cached rows finished.");
+      String cacheFolder = resolve(meta.getPreloadCacheFolder());
+      if (StringUtils.isNotEmpty(cacheFolder)) {
+        preloadMappedCache(sql.toString(), cacheFolder);
+      } else {
+        preloadHeapCache(sql.toString());
       }
 
       // Also see what indexes to take to populate the lookup row...
@@ -366,6 +353,109 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
     }
   }
 
+  /** Read the whole dimension table into a sorted list of rows on the heap. */
+  private void preloadHeapCache(String sql) throws HopException {
+    DLFields f = meta.getFields();
+
+    List<Object[]> rows = data.db.getRows(sql, -1);
+    IRowMeta rowMeta = data.db.getReturnRowMeta();
+
+    data.preloadKeyIndexes = new int[f.getKeys().size()];
+    for (int i = 0; i < data.preloadKeyIndexes.length; i++) {
+      DLKey key = f.getKeys().get(i);
+      // The field in the table:
+      data.preloadKeyIndexes[i] = rowMeta.indexOfValue(key.getLookup());
+    }
+    data.preloadFromDateIndex = rowMeta.indexOfValue(f.getDate().getFrom());
+    data.preloadToDateIndex = rowMeta.indexOfValue(f.getDate().getTo());
+
+    data.preloadCache =
+        new DimensionCache(
+            rowMeta, data.preloadKeyIndexes, data.preloadFromDateIndex, data.preloadToDateIndex);
+    data.preloadCache.setRowCache(rows);
+
+    if (isDetailed()) {
+      logDetailed("Sorting the cache rows...");
+    }
+    data.preloadCache.sortRows();
+    if (isDetailed()) {
+      logDetailed("Sorting of cached rows finished.");
+    }
+  }
+
+  /**
+   * Use the dimension table in a memory-mapped cache file. The file is only written when it doesn't
+   * exist yet or when the highest technical key or version in the table changed since it was
+   * written.
+   */
+  private void preloadMappedCache(String sql, String cacheFolder) throws HopException {
+    DLFields f = meta.getFields();
+
+    StringBuilder maxSql = new StringBuilder("SELECT MAX(");
+    maxSql.append(data.databaseMeta.quoteField(f.getReturns().getKeyField())).append(")");
+    boolean hasVersion = StringUtils.isNotEmpty(f.getReturns().getVersionField());
+    if (hasVersion) {
+      maxSql
+          .append(", MAX(")
+          .append(data.databaseMeta.quoteField(f.getReturns().getVersionField()))
+          .append(")");
+    }
+    maxSql.append(" FROM ").append(data.schemaTable);
+    RowMetaAndData max = data.db.getOneRow(maxSql.toString());
+    long maxTechnicalKey = max == null ? -1L : max.getInteger(0, -1L);
+    long maxVersion = max == null || !hasVersion ? -1L : max.getInteger(1, -1L);
+
+    String signature = data.databaseMeta.getName() + Const.CR + sql;
+    Path file =
+        Paths.get(
+            cacheFolder,
+            "dimension-"
+                + UUID.nameUUIDFromBytes(signature.getBytes(StandardCharsets.UTF_8))
+                + ".cache");
+
+    data.mappedCache = MappedDimensionCache.open(file, signature, maxTechnicalKey, maxVersion);
+    if (data.mappedCache != null) {
+      if (isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(
+                PKG,
+                "DimensionLookup.Log.ReusingCacheFile",
+                file.toString(),
+                Long.toString(data.mappedCache.getRowCount())));
+      }
+    } else {
+      if (isDetailed()) {
+        logDetailed(
+            BaseMessages.getString(PKG, "DimensionLookup.Log.WritingCacheFile", file.toString()));
+      }
+      ResultSet resultSet = data.db.openQuery(sql);
+      try {
+        IRowMeta rowMeta = data.db.getReturnRowMeta();
+        int[] keyIndexes = new int[f.getKeys().size()];
+        for (int i = 0; i < keyIndexes.length; i++) {
+          keyIndexes[i] = rowMeta.indexOfValue(f.getKeys().get(i).getLookup());
+        }
+        data.mappedCache =
+            MappedDimensionCache.build(
+                file,
+                signature,
+                maxTechnicalKey,
+                maxVersion,
+                rowMeta,
+                keyIndexes,
+                rowMeta.indexOfValue(f.getDate().getFrom()),
+                rowMeta.indexOfValue(f.getDate().getTo()),
+                () -> data.db.getRow(resultSet));
+      } finally {
+        data.db.closeQuery(resultSet);
+      }
+    }
+
+    data.preloadKeyIndexes = data.mappedCache.getKeyIndexes();
+    data.preloadFromDateIndex = data.mappedCache.getFromDateIndex();
+    data.preloadToDateIndex = data.mappedCache.getToDateIndex();
+  }
+
   private synchronized Object[] lookupValues(IRowMeta rowMeta, Object[] row) throws HopException {
     DLFields f = meta.getFields();
 
@@ -383,11 +473,12 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       //
       // Create a row to compare with
       //
-      IRowMeta preloadRowMeta = data.preloadCache.getRowMeta();
+      IRowMeta preloadRowMeta =
+          data.mappedCache != null ? data.mappedCache.getRowMeta() : data.preloadCache.getRowMeta();
 
       // In this case it's all the same. (simple)
       //
-      data.returnRowMeta = data.preloadCache.getRowMeta();
+      data.returnRowMeta = preloadRowMeta;
       lookupRowMeta = preloadRowMeta;
       lookupRow = new Object[preloadRowMeta.size()];
 
@@ -395,7 +486,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
       //
       for (int i = 0; i < data.preloadIndexes.size(); i++) {
         int from = data.preloadIndexes.get(i); // Input row index
-        int to = data.preloadCache.getKeyIndexes()[i]; // Lookup row index
+        int to = data.preloadKeyIndexes[i]; // Lookup row index
 
         // From data type...
         //
@@ -403,7 +494,7 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
 
         // to date type...
         //
-        IValueMeta toValueMeta = data.preloadCache.getRowMeta().getValueMeta(to);
+        IValueMeta toValueMeta = preloadRowMeta.getValueMeta(to);
 
         // From value:
         //
@@ -424,9 +515,16 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
 
       // Look up the row in the pre-load cache...
       //
-      int index = data.preloadCache.lookupRow(lookupRow);
-      if (index >= 0) {
-        returnRow = data.preloadCache.getRow(index);
+      if (data.mappedCache != null) {
+        long position = data.mappedCache.lookup(lookupRow, valueDate);
+        if (position >= 0) {
+          returnRow = data.mappedCache.getRow(position);
+        }
+      } else {
+        int index = data.preloadCache.lookupRow(lookupRow);
+        if (index >= 0) {
+          returnRow = data.preloadCache.getRow(index);
+        }
       }
     } else {
       lookupRow = new Object[data.lookupRowMeta.size()];
@@ -1889,6 +1987,8 @@ public class DimensionLookup extends BaseTransform<DimensionLookupMeta, Dimensio
         data.db.disconnect();
       }
     }
+    data.preloadCache = null;
+    data.mappedCache = null;
     super.dispose();
   }
 }
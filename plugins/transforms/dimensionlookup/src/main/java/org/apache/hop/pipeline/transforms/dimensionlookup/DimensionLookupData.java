@@ -81,6 +81,9 @@ public class DimensionLookupData extends BaseTransformData implements ITransform
 
   public DimensionCache preloadCache;
 
+  /** The pre-load cache in a memory-mapped file, used instead of preloadCache when configured */
+  public MappedDimensionCache mappedCache;
+
   public List<Integer> preloadIndexes;
 
   public List<Integer> lazyList;
@@ -101,6 +101,9 @@ public class DimensionLookupDialog extends BaseTransformDialog {
   private Label wlCacheSize;
   private Text wCacheSize;
 
+  private Label wlPreloadCacheFolder;
+  private TextVar wPreloadCacheFolder;
+
   private Combo wTk;
 
   private Label wlTkRename;
@@ -375,6 +378,28 @@ public class DimensionLookupDialog extends BaseTransformDialog {
     fdCacheSize.right = new FormAttachment(100, 0);
     wCacheSize.setLayoutData(fdCacheSize);
 
+    // Pre-load cache folder ...
+    wlPreloadCacheFolder = new Label(mainComposite, SWT.RIGHT);
+    wlPreloadCacheFolder.setText(
+        BaseMessages.getString(PKG, "DimensionLookupDialog.PreloadCacheFolder.Label"));
+    wlPreloadCacheFolder.setToolTipText(
+        BaseMessages.getString(PKG, "DimensionLookupDialog.PreloadCacheFolder.Tooltip"));
+    PropsUi.setLook(wlPreloadCacheFolder);
+    FormData fdlPreloadCacheFolder = new FormData();
+    fdlPreloadCacheFolder.left = new FormAttachment(0, 0);
+    fdlPreloadCacheFolder.right = new FormAttachment(middle, -margin);
+    fdlPreloadCacheFolder.top = new FormAttachment(wCacheSize, margin);
+    wlPreloadCacheFolder.setLayoutData(fdlPreloadCacheFolder);
+    wPreloadCacheFolder = new TextVar(variables, mainComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wPreloadCacheFolder.setToolTipText(
+        BaseMessages.getString(PKG, "DimensionLookupDialog.PreloadCacheFolder.Tooltip"));
+    PropsUi.setLook(wPreloadCacheFolder);
+    FormData fdPreloadCacheFolder = new FormData();
+    fdPreloadCacheFolder.left = new FormAttachment(middle, 0);
+    fdPreloadCacheFolder.top = new FormAttachment(wCacheSize, margin);
+    fdPreloadCacheFolder.right = new FormAttachment(100, 0);
+    wPreloadCacheFolder.setLayoutData(fdPreloadCacheFolder);
+
     // THE BOTTOM BUTTONS
     wOk = new Button(mainComposite, SWT.PUSH);
     wOk.setText(BaseMessages.getString(PKG, "System.Button.OK"));
@@ -401,7 +426,7 @@ public class DimensionLookupDialog extends BaseTransformDialog {
     FormData fdTabFolder = new FormData();
     fdTabFolder.left = new FormAttachment(0, 0);
     fdTabFolder.right = new FormAttachment(100, 0);
-    fdTabFolder.top = new FormAttachment(wCacheSize, margin);
+    fdTabFolder.top = new FormAttachment(wPreloadCacheFolder, margin);
     fdTabFolder.bottom = new FormAttachment(wOk, -margin);
     wTabFolder.setLayoutData(fdTabFolder);
 
@@ -1064,6 +1089,11 @@ public class DimensionLookupDialog extends BaseTransformDialog {
     wlCacheSize.setEnabled(wUseCache.getSelection() && !wPreloadCache.getSelection());
     wCacheSize.setEnabled(wUseCache.getSelection() && !wPreloadCache.getSelection());
 
+    boolean preloading =
+        wUseCache.getSelection() && !wUpdate.getSelection() && wPreloadCache.getSelection();
+    wlPreloadCacheFolder.setEnabled(preloading);
+    wPreloadCacheFolder.setEnabled(preloading);
+
     // The unknown record
     //
     wDisableUnknownUpdate.setEnabled(update);
@@ -1170,6 +1200,7 @@ public class DimensionLookupDialog extends BaseTransformDialog {
     wUseCache.setSelection(input.getCacheSize() >= 0);
     wPreloadCache.setSelection(input.isPreloadingCache());
     wCacheSize.setText("" + input.getCacheSize());
+    wPreloadCacheFolder.setText(Const.NVL(input.getPreloadCacheFolder(), ""));
 
     wMinYear.setText("" + input.getMinYear());
     wMaxYear.setText("" + input.getMaxYear());
@@ -1290,6 +1321,7 @@ public class DimensionLookupDialog extends BaseTransformDialog {
       in.setCacheSize(-1);
     }
     in.setPreloadingCache(wPreloadCache.getSelection());
+    in.setPreloadCacheFolder(wPreloadCacheFolder.getText());
     if (wPreloadCache.getSelection()) {
       in.setCacheSize(0);
     }
@@ -171,6 +171,15 @@ public class DimensionLookupMeta extends BaseTransformMeta<DimensionLookup, Dime
       injectionKeyDescription = "DimensionLookup.Injection.PRELOAD_CACHE")
   private boolean preloadingCache;
 
+  /** The folder in which a pre-loaded cache is kept in a memory-mapped file, empty for the heap */
+  @HopMetadataProperty(
+      key = "preload_cache_folder",
+      injectionKey = "PRELOAD_CACHE_FOLDER",
+      injectionKeyDescription = "DimensionLookup.Injection.PRELOAD_CACHE_FOLDER")
+  @Getter
+  @Setter
+  private String preloadCacheFolder;
+
   @HopMetadataProperty(
       key = "unknown_row_check_disabled",
       injectionKey = "UNKNOWN_ROW_CHECK_DISABLED",
@@ -211,6 +220,7 @@ public class DimensionLookupMeta extends BaseTransformMeta<DimensionLookup, Dime
     this.startDateAlternative = m.startDateAlternative;
     this.startDateFieldName = m.startDateFieldName;
     this.preloadingCache = m.preloadingCache;
+    this.preloadCacheFolder = m.preloadCacheFolder;
     this.unknownRowCheckDisabled = m.unknownRowCheckDisabled;
   }
 
@@ -0,0 +1,597 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.dimensionlookup;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+
+/**
+ * A pre-load cache for the dimension lookup which lives in a memory-mapped file instead of on the
+ * heap. Like {@link DimensionCache} it holds all versions of all dimension entries.
+ *
+ * <p>Every row of the dimension table is stored as a record with the serialized natural key, the
+ * start and end of the date range as milliseconds and the serialized row. After the records comes
+ * an index with the position of every record, sorted on the natural key bytes and the start of the
+ * date range. A lookup is a binary search in the index which only compares bytes: only the row
+ * which is found is de-serialized.
+ *
+ * <p>The file also stores the query which read the table and the highest technical key and version
+ * at that time. When these haven't changed the file is re-used by the next run.
+ */
+public class MappedDimensionCache {
+  private static final long MAGIC = 0x486f7044696d4331L;
+  private static final int FORMAT_VERSION = 1;
+
+  private static final int SEGMENT_BITS = 30;
+  private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+  private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+  /** Offsets of the header fields we have to update once all the records are written. */
+  private static final long ROW_COUNT_OFFSET = 12L;
+
+  private static final long INDEX_OFFSET_OFFSET = 20L;
+
+  /** Supplies the rows of the dimension table, null when there are no more rows. */
+  public interface IRowSupplier {
+    Object[] getRow() throws HopException;
+  }
+
+  private final Path file;
+  private final IRowMeta rowMeta;
+  private final IRowMeta keyRowMeta;
+  private final int[] keyIndexes;
+  private final int fromDateIndex;
+  private final int toDateIndex;
+  private final long rowCount;
+  private final long indexOffset;
+  private final MappedByteBuffer[] segments;
+
+  private MappedDimensionCache(
+      Path file,
+      IRowMeta rowMeta,
+      int[] keyIndexes,
+      int fromDateIndex,
+      int toDateIndex,
+      long rowCount,
+      long indexOffset,
+      MappedByteBuffer[] segments) {
+    this.file = file;
+    this.rowMeta = rowMeta;
+    this.keyRowMeta = getKeyRowMeta(rowMeta, keyIndexes);
+    this.keyIndexes = keyIndexes;
+    this.fromDateIndex = fromDateIndex;
+    this.toDateIndex = toDateIndex;
+    this.rowCount = rowCount;
+    this.indexOffset = indexOffset;
+    this.segments = segments;
+  }
+
+  /**
+   * Open an existing cache file.
+   *
+   * @param file the cache file
+   * @param signature the description of the query which reads the dimension table
+   * @param maxTechnicalKey the current highest technical key in the dimension table
+   * @param maxVersion the current highest version in the dimension table
+   * @return the cache or null if the file doesn't exist or if it is out of date
+   * @throws HopException in case the file can't be read
+   */
+  public static MappedDimensionCache open(
+      Path file, String signature, long maxTechnicalKey, long maxVersion) throws HopException {
+    if (!Files.exists(file)) {
+      return null;
+    }
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer[] segments = map(channel, FileChannel.MapMode.READ_ONLY);
+      if (channel.size() < INDEX_OFFSET_OFFSET + 8) {
+        return null;
+      }
+      MappedDimensionCache header = new MappedDimensionCache(segments);
+      if (header.getLong(0) != MAGIC || header.getInt(8) != FORMAT_VERSION) {
+        return null;
+      }
+      long rowCount = header.getLong(ROW_COUNT_OFFSET);
+      long indexOffset = header.getLong(INDEX_OFFSET_OFFSET);
+      if (header.getLong(28) != maxTechnicalKey || header.getLong(36) != maxVersion) {
+        return null;
+      }
+      long position = 44;
+      byte[] signatureBytes = new byte[header.getInt(position)];
+      header.get(position + 4, signatureBytes);
+      position += 4 + signatureBytes.length;
+      if (!signature.equals(new String(signatureBytes, StandardCharsets.UTF_8))) {
+        return null;
+      }
+      byte[] metaBytes = new byte[header.getInt(position)];
+      header.get(position + 4, metaBytes);
+      position += 4 + metaBytes.length;
+      IRowMeta rowMeta = new RowMeta(new DataInputStream(new ByteArrayInputStream(metaBytes)));
+      int[] keyIndexes = new int[header.getInt(position)];
+      position += 4;
+      for (int i = 0; i < keyIndexes.length; i++) {
+        keyIndexes[i] = header.getInt(position);
+        position += 4;
+      }
+      int fromDateIndex = header.getInt(position);
+      int toDateIndex = header.getInt(position + 4);
+
+      return new MappedDimensionCache(
+          file, rowMeta, keyIndexes, fromDateIndex, toDateIndex, rowCount, indexOffset, segments);
+    } catch (Exception e) {
+      throw new HopException("Error reading dimension cache file " + file, e);
+    }
+  }
+
+  /**
+   * Write a new cache file with the rows of the dimension table and open it. The file is written
+   * next to the target file first and then moved into place so that a failed or concurrent build
+   * never leaves a broken file behind.
+   *
+   * @param file the cache file
+   * @param signature the description of the query which reads the dimension table
+   * @param maxTechnicalKey the current highest technical key in the dimension table
+   * @param maxVersion the current highest version in the dimension table
+   * @param rowMeta the description of the rows to store
+   * @param keyIndexes the indexes of the natural key (in that order)
+   * @param fromDateIndex the field index where the start of the date range can be found
+   * @param toDateIndex the field index where the end of the date range can be found
+   * @param rows supplies the rows to store
+   * @return the cache
+   * @throws HopException in case the rows can't be read or the file can't be written
+   */
+  public static MappedDimensionCache build(
+      Path file,
+      String signature,
+      long maxTechnicalKey,
+      long maxVersion,
+      IRowMeta rowMeta,
+      int[] keyIndexes,
+      int fromDateIndex,
+      int toDateIndex,
+      IRowSupplier rows)
+      throws HopException {
+    Path tempFile = null;
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      tempFile = Files.createTempFile(file.toAbsolutePath().getParent(), "dimension", ".tmp");
+      Path tempIndexFile = Files.createTempFile(file.toAbsolutePath().getParent(), "index", ".tmp");
+
+      IRowMeta keyRowMeta = getKeyRowMeta(rowMeta, keyIndexes);
+      long rowCount = 0;
+      long position;
+      try (DataOutputStream out = newOutputStream(tempFile);
+          DataOutputStream indexOut = newOutputStream(tempIndexFile)) {
+        // The header
+        //
+        out.writeLong(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(0L); // row count
+        out.writeLong(0L); // index offset
+        out.writeLong(maxTechnicalKey);
+        out.writeLong(maxVersion);
+        position = 44;
+        byte[] signatureBytes = signature.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(signatureBytes.length);
+        out.write(signatureBytes);
+        position += 4 + signatureBytes.length;
+        ByteArrayOutputStream metaBytes = new ByteArrayOutputStream();
+        rowMeta.writeMeta(new DataOutputStream(metaBytes));
+        out.writeInt(metaBytes.size());
+        metaBytes.writeTo(out);
+        position += 4 + metaBytes.size();
+        out.writeInt(keyIndexes.length);
+        for (int keyIndex : keyIndexes) {
+          out.writeInt(keyIndex);
+        }
+        out.writeInt(fromDateIndex);
+        out.writeInt(toDateIndex);
+        position += 4 + 4L * keyIndexes.length + 8;
+
+        // The records
+        //
+        Object[] row;
+        while ((row = rows.getRow()) != null) {
+          Object[] keyValues = new Object[keyIndexes.length];
+          for (int i = 0; i < keyIndexes.length; i++) {
+            keyValues[i] = row[keyIndexes[i]];
+          }
+          byte[] key = RowMeta.extractData(keyRowMeta, keyValues);
+          byte[] value = RowMeta.extractData(rowMeta, row);
+          Date fromDate = rowMeta.getDate(row, fromDateIndex);
+          Date toDate = rowMeta.getDate(row, toDateIndex);
+
+          indexOut.writeLong(position);
+          out.writeInt(key.length);
+          out.write(key);
+          out.writeLong(fromDate == null ? Long.MIN_VALUE : fromDate.getTime());
+          out.writeLong(toDate == null ? Long.MAX_VALUE : toDate.getTime());
+          out.writeInt(value.length);
+          out.write(value);
+          position += 4 + key.length + 16 + 4 + value.length;
+          rowCount++;
+        }
+
+        // Align the index so that no index entry crosses the border of a mapped segment
+        //
+        while (position % 8 != 0) {
+          out.writeByte(0);
+          position++;
+        }
+      }
+
+      // Append the index to the records and fill in the header
+      //
+      long indexOffset = position;
+      try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+          FileChannel indexChannel = FileChannel.open(tempIndexFile, StandardOpenOption.READ)) {
+        long transferred = 0;
+        long indexSize = indexChannel.size();
+        while (transferred < indexSize) {
+          transferred +=
+              channel.transferFrom(
+                  indexChannel, indexOffset + transferred, indexSize - transferred);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(rowCount).putLong(indexOffset).flip();
+        channel.write(buffer, ROW_COUNT_OFFSET);
+      } finally {
+        Files.deleteIfExists(tempIndexFile);
+      }
+
+      // Sort the index in place
+      //
+      try (FileChannel channel =
+          FileChannel.open(tempFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        MappedByteBuffer[] segments = map(channel, FileChannel.MapMode.READ_WRITE);
+        MappedDimensionCache cache =
+            new MappedDimensionCache(
+                tempFile,
+                rowMeta,
+                keyIndexes,
+                fromDateIndex,
+                toDateIndex,
+                rowCount,
+                indexOffset,
+                segments);
+        cache.sortIndex(0, rowCount - 1);
+        for (MappedByteBuffer segment : segments) {
+          segment.force();
+        }
+      }
+
+      try {
+        Files.move(
+            tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      tempFile = null;
+    } catch (HopException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new HopException("Error writing dimension cache file " + file, e);
+    } finally {
+      if (tempFile != null) {
+        try {
+          Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+          // Nothing more we can do
+        }
+      }
+    }
+
+    MappedDimensionCache cache = open(file, signature, maxTechnicalKey, maxVersion);
+    if (cache == null) {
+      throw new HopException("Unable to open the dimension cache file which was just written");
+    }
+    return cache;
+  }
+
+  /**
+   * Looks up the version of a dimension entry which is valid on a certain date.
+   *
+   * @param lookupRowData The lookup row, in the layout of the cached rows. Only the natural key
+   *     fields are used.
+   * @param lookupDate the date which needs to fall in the date range of the version
+   * @return the position of the version in the file or -1 if nothing was found
+   */
+  public long lookup(Object[] lookupRowData, Date lookupDate) {
+    Object[] keyValues = new Object[keyIndexes.length];
+    for (int i = 0; i < keyIndexes.length; i++) {
+      keyValues[i] = lookupRowData[keyIndexes[i]];
+    }
+    byte[] key = RowMeta.extractData(keyRowMeta, keyValues);
+    long date = lookupDate == null ? Long.MIN_VALUE : lookupDate.getTime();
+
+    // Find the last version with this key starting at or before the lookup date
+    //
+    long low = 0;
+    long high = rowCount - 1;
+    long found = -1;
+    while (low <= high) {
+      long middle = (low + high) >>> 1;
+      if (compareRecord(getIndexEntry(middle), key, date) <= 0) {
+        found = middle;
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+    if (found < 0) {
+      return -1;
+    }
+    long position = getIndexEntry(found);
+    if (compareKey(position, key) != 0) {
+      return -1;
+    }
+    long toDate = getLong(position + 4 + getInt(position) + 8);
+    if (toDate <= date) {
+      return -1;
+    }
+    return position;
+  }
+
+  /**
+   * De-serialize the row stored at a position.
+   *
+   * @param position the position as returned by {@link #lookup(Object[], Date)}
+   * @return the row of data
+   */
+  public Object[] getRow(long position) {
+    long valuePosition = position + 4 + getInt(position) + 16;
+    byte[] value = new byte[getInt(valuePosition)];
+    get(valuePosition + 4, value);
+    return RowMeta.getRow(rowMeta, value);
+  }
+
+  private static IRowMeta getKeyRowMeta(IRowMeta rowMeta, int[] keyIndexes) {
+    if (rowMeta == null) {
+      return null;
+    }
+    IRowMeta keyRowMeta = new RowMeta();
+    for (int keyIndex : keyIndexes) {
+      keyRowMeta.addValueMeta(rowMeta.getValueMeta(keyIndex).clone());
+    }
+    return keyRowMeta;
+  }
+
+  private static DataOutputStream newOutputStream(Path path) throws IOException {
+    OutputStream outputStream = Files.newOutputStream(path);
+    return new DataOutputStream(new BufferedOutputStream(outputStream, 65536));
+  }
+
+  private static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode)
+      throws IOException {
+    long size = channel.size();
+    int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+    MappedByteBuffer[] segments = new MappedByteBuffer[count];
+    for (int i = 0; i < count; i++) {
+      long start = i * SEGMENT_SIZE;
+      segments[i] = channel.map(mode, start, Math.min(SEGMENT_SIZE, size - start));
+    }
+    return segments;
+  }
+
+  /** Only used to read the header of a file */
+  private MappedDimensionCache(MappedByteBuffer[] segments) {
+    this(null, null, new int[0], -1, -1, 0, 0, segments);
+  }
+
+  private void sortIndex(long low, long high) {
+    while (high - low > 16) {
+      // Median of three as the pivot
+      //
+      long middle = (low + high) >>> 1;
+      if (compareRecords(getIndexEntry(middle), getIndexEntry(low)) < 0) {
+        swapIndexEntries(middle, low);
+      }
+      if (compareRecords(getIndexEntry(high), getIndexEntry(low)) < 0) {
+        swapIndexEntries(high, low);
+      }
+      if (compareRecords(getIndexEntry(high), getIndexEntry(middle)) < 0) {
+        swapIndexEntries(high, middle);
+      }
+      long pivot = getIndexEntry(middle);
+
+      long i = low;
+      long j = high;
+      while (i <= j) {
+        while (compareRecords(getIndexEntry(i), pivot) < 0) {
+          i++;
+        }
+        while (compareRecords(getIndexEntry(j), pivot) > 0) {
+          j--;
+        }
+        if (i <= j) {
+          swapIndexEntries(i, j);
+          i++;
+          j--;
+        }
+      }
+
+      // Recurse into the smaller part to limit the depth of the stack
+      //
+      if (j - low < high - i) {
+        sortIndex(low, j);
+        low = i;
+      } else {
+        sortIndex(i, high);
+        high = j;
+      }
+    }
+
+    // Insertion sort for the small ranges
+    //
+    for (long i = low + 1; i <= high; i++) {
+      long entry = getIndexEntry(i);
+      long j = i - 1;
+      while (j >= low && compareRecords(getIndexEntry(j), entry) > 0) {
+        putIndexEntry(j + 1, getIndexEntry(j));
+        j--;
+      }
+      putIndexEntry(j + 1, entry);
+    }
+  }
+
+  private int compareRecords(long position1, long position2) {
+    int keyLength1 = getInt(position1);
+    int keyLength2 = getInt(position2);
+    int length = Math.min(keyLength1, keyLength2);
+    for (int i = 0; i < length; i++) {
+      int cmp = Byte.compareUnsigned(get(position1 + 4 + i), get(position2 + 4 + i));
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    if (keyLength1 != keyLength2) {
+      return Integer.compare(keyLength1, keyLength2);
+    }
+    return Long.compare(getLong(position1 + 4 + keyLength1), getLong(position2 + 4 + keyLength2));
+  }
+
+  private int compareRecord(long position, byte[] key, long date) {
+    int cmp = compareKey(position, key);
+    if (cmp != 0) {
+      return cmp;
+    }
+    return Long.compare(getLong(position + 4 + key.length), date);
+  }
+
+  private int compareKey(long position, byte[] key) {
+    int keyLength = getInt(position);
+    int length = Math.min(keyLength, key.length);
+    for (int i = 0; i < length; i++) {
+      int cmp = Byte.compareUnsigned(get(position + 4 + i), key[i]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return Integer.compare(keyLength, key.length);
+  }
+
+  private long getIndexEntry(long index) {
+    return getLong(indexOffset + index * 8);
+  }
+
+  private void putIndexEntry(long index, long value) {
+    long position = indexOffset + index * 8;
+    segments[(int) (position >>> SEGMENT_BITS)].putLong((int) (position & SEGMENT_MASK), value);
+  }
+
+  private void swapIndexEntries(long index1, long index2) {
+    long entry = getIndexEntry(index1);
+    putIndexEntry(index1, getIndexEntry(index2));
+    putIndexEntry(index2, entry);
+  }
+
+  private byte get(long position) {
+    return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+  }
+
+  private void get(long position, byte[] bytes) {
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = get(position + i);
+    }
+  }
+
+  private int getInt(long position) {
+    MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_BITS)];
+    int offset = (int) (position & SEGMENT_MASK);
+    if (offset + 4 <= segment.limit()) {
+      return segment.getInt(offset);
+    }
+    int value = 0;
+    for (int i = 0; i < 4; i++) {
+      value = (value << 8) | (get(position + i) & 0xFF);
+    }
+    return value;
+  }
+
+  private long getLong(long position) {
+    MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_BITS)];
+    int offset = (int) (position & SEGMENT_MASK);
+    if (offset + 8 <= segment.limit()) {
+      return segment.getLong(offset);
+    }
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      value = (value << 8) | (get(position + i) & 0xFF);
+    }
+    return value;
+  }
+
+  /**
+   * @return the cache file
+   */
+  public Path getFile() {
+    return file;
+  }
+
+  /**
+   * @return the description of the cached rows
+   */
+  public IRowMeta getRowMeta() {
+    return rowMeta;
+  }
+
+  /**
+   * @return the indexes of the natural key in the cached rows
+   */
+  public int[] getKeyIndexes() {
+    return keyIndexes;
+  }
+
+  /**
+   * @return the index of the start of the date range in the cached rows
+   */
+  public int getFromDateIndex() {
+    return fromDateIndex;
+  }
+
+  /**
+   * @return the index of the end of the date range in the cached rows
+   */
+  public int getToDateIndex() {
+    return toDateIndex;
+  }
+
+  /**
+   * @return the number of rows in the cache
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.dimensionlookup;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaDate;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedDimensionCacheTest {
+  private static final String SIGNATURE = "SELECT tk, code, name, date_from, date_to FROM dim";
+
+  @TempDir Path folder;
+
+  @BeforeAll
+  static void setUpBeforeClass() throws Exception {
+    HopClientEnvironment.init();
+  }
+
+  private static IRowMeta getRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("tk"));
+    rowMeta.addValueMeta(new ValueMetaString("code"));
+    rowMeta.addValueMeta(new ValueMetaString("name"));
+    rowMeta.addValueMeta(new ValueMetaDate("date_from"));
+    rowMeta.addValueMeta(new ValueMetaDate("date_to"));
+    return rowMeta;
+  }
+
+  private static MappedDimensionCache build(Path file) throws Exception {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[] {3L, "B", "b1", null, new Date(1000L)});
+    rows.add(new Object[] {1L, "A", "a1", null, new Date(1000L)});
+    rows.add(new Object[] {4L, "B", "b2", new Date(1000L), null});
+    rows.add(new Object[] {2L, "A", "a2", new Date(1000L), new Date(2000L)});
+    for (long tk = 10; tk < 200; tk++) {
+      rows.add(new Object[] {tk, "X" + tk, "x", null, null});
+    }
+    Iterator<Object[]> iterator = rows.iterator();
+
+    return MappedDimensionCache.build(
+        file,
+        SIGNATURE,
+        199L,
+        1L,
+        getRowMeta(),
+        new int[] {1},
+        3,
+        4,
+        () -> iterator.hasNext() ? iterator.next() : null);
+  }
+
+  private static Long lookup(MappedDimensionCache cache, String code, long date) {
+    long position = cache.lookup(new Object[] {null, code, null, null, null}, new Date(date));
+    if (position < 0) {
+      return null;
+    }
+    return (Long) cache.getRow(position)[0];
+  }
+
+  @Test
+  void testLookupVersions() throws Exception {
+    MappedDimensionCache cache = build(folder.resolve("dim.cache"));
+
+    assertEquals(194L, cache.getRowCount());
+    assertEquals(1L, lookup(cache, "A", 0L));
+    assertEquals(1L, lookup(cache, "A", 999L));
+    assertEquals(2L, lookup(cache, "A", 1000L));
+    assertEquals(2L, lookup(cache, "A", 1999L));
+    assertNull(lookup(cache, "A", 2000L));
+    assertEquals(3L, lookup(cache, "B", 500L));
+    assertEquals(4L, lookup(cache, "B", 5000L));
+    assertEquals(150L, lookup(cache, "X150", 5000L));
+    assertNull(lookup(cache, "C", 500L));
+    assertNull(lookup(cache, "0", 500L));
+    assertNull(lookup(cache, "Z", 500L));
+
+    Object[] row = cache.getRow(cache.lookup(new Object[] {null, "B", null, null, null}, null));
+    assertEquals("b1", row[2]);
+  }
+
+  @Test
+  void testReuse() throws Exception {
+    Path file = folder.resolve("dim.cache");
+    build(file);
+
+    MappedDimensionCache cache = MappedDimensionCache.open(file, SIGNATURE, 199L, 1L);
+    assertNotNull(cache);
+    assertEquals(194L, cache.getRowCount());
+    assertEquals("code", cache.getRowMeta().getValueMeta(cache.getKeyIndexes()[0]).getName());
+    assertEquals(4L, lookup(cache, "B", 5000L));
+
+    // A new technical key, a new version or a different query make the file stale
+    //
+    assertNull(MappedDimensionCache.open(file, SIGNATURE, 200L, 1L));
+    assertNull(MappedDimensionCache.open(file, SIGNATURE, 199L, 2L));
+    assertNull(MappedDimensionCache.open(file, SIGNATURE + " WHERE 1=1", 199L, 1L));
+    assertNull(MappedDimensionCache.open(folder.resolve("other.cache"), SIGNATURE, 199L, 1L));
+  }
+}
@@ -18,9 +18,11 @@
 package org.apache.hop.pipeline.transforms.filterrows;
 
 import java.util.List;
+import org.apache.hop.core.Condition;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -47,7 +49,11 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
 
   private synchronized boolean keepRow(IRowMeta rowMeta, Object[] row) throws HopException {
     try {
-      return meta.getCondition().evaluate(rowMeta, row);
+      Condition condition = meta.getCondition();
+      long rawComparisons = condition.getRawComparisons();
+      boolean keep = condition.evaluate(rowMeta, row);
+      addConversionsAvoided(condition.getRawComparisons() - rawComparisons);
+      return keep;
     } catch (Exception e) {
       String message =
           BaseMessages.getString(
@@ -63,6 +69,10 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
 
   @Override
   public boolean processRow() throws HopException {
+    if (isUsingRowBatches()) {
+      return processRowBatch();
+    }
+
     Object[] r = getRow(); // Get next usable row from input rowset(s)!
     if (r == null) {
       setOutputDone();
@@ -71,89 +81,134 @@ public class FilterRows extends BaseTransform<FilterRowsMeta, FilterRowsData> {
 
     if (first) {
       first = false;
+      initializeOutput();
+    }
 
-      data.outputRowMeta = getInputRowMeta().clone();
-      meta.getFields(getInputRowMeta(), getTransformName(), null, null, this, metadataProvider);
+    boolean keep = keepRow(getInputRowMeta(), r); // Keep this row?
+    if (!data.chosesTargetTransforms) {
+      if (keep) {
+        putRow(data.outputRowMeta, r); // copy row to output rowset(s)
+      }
+    } else {
+      sendRowToTarget(r, keep);
+    }
 
-      // if filter refers to non-existing fields, throw exception
-      checkNonExistingFields();
+    if (checkFeedback(getLinesRead()) && isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "FilterRows.Log.LineNumber") + getLinesRead());
+    }
 
-      // Cache the position of the IRowSet for the output.
-      //
-      if (data.chosesTargetTransforms) {
-        List<IStream> targetStreams = meta.getTransformIOMeta().getTargetStreams();
-        if (!Utils.isEmpty(targetStreams.get(0).getTransformName())) {
-          TransformMeta to = targetStreams.get(0).getTransformMeta();
-          PipelineHopMeta hop = getPipelineMeta().findPipelineHop(getTransformMeta(), to);
-          if (hop != null && hop.isEnabled()) {
-            data.trueRowSet = findOutputRowSet(getTransformName(), getCopy(), to.getName(), 0);
-            if (data.trueRowSet == null) {
-              throw new HopException(
-                  BaseMessages.getString(
-                      PKG,
-                      "FilterRows.Log.TargetTransformInvalid",
-                      targetStreams.get(0).getTransformName()));
-            }
-          }
-        } else {
-          data.trueRowSet = null;
-        }
+    return true;
+  }
 
-        if (!Utils.isEmpty(targetStreams.get(1).getTransformName())) {
-          TransformMeta to = targetStreams.get(1).getTransformMeta();
-          PipelineHopMeta hop = getPipelineMeta().findPipelineHop(getTransformMeta(), to);
-          if (hop != null && hop.isEnabled()) {
-            data.falseRowSet = findOutputRowSet(getTransformName(), getCopy(), to.getName(), 0);
-            if (data.falseRowSet == null) {
-              throw new HopException(
-                  BaseMessages.getString(
-                      PKG,
-                      "FilterRows.Log.TargetTransformInvalid",
-                      targetStreams.get(1).getTransformName()));
-            }
-          }
-        } else {
-          data.falseRowSet = null;
-        }
-      }
+  private boolean processRowBatch() throws HopException {
+    long previousLinesRead = getLinesRead();
+    RowBatch batch = getRowBatch(getRowBatchSize()); // Get next usable rows from input rowset(s)!
+    if (batch == null) {
+      setOutputDone();
+      return false;
     }
 
-    boolean keep = keepRow(getInputRowMeta(), r); // Keep this row?
+    if (first) {
+      first = false;
+      initializeOutput();
+    }
+
+    IRowMeta inputRowMeta = batch.getRowMeta();
     if (!data.chosesTargetTransforms) {
-      if (keep) {
-        putRow(data.outputRowMeta, r); // copy row to output rowset(s)
+      // Evaluate the whole batch first, then pass the selected rows in one go
+      //
+      boolean[] selection = new boolean[batch.size()];
+      for (int i = 0; i < batch.size(); i++) {
+        selection[i] = keepRow(inputRowMeta, batch.getRow(i));
       }
+      batch.retainRows(selection);
+      batch.setRowMeta(data.outputRowMeta);
+      putRowBatch(batch); // copy rows to output rowset(s)
     } else {
-      if (keep) {
-        if (data.trueRowSet != null) {
-          if (isRowLevel()) {
-            logRowlevel(
-                "Sending row to true  :"
-                    + data.trueTransformName
-                    + " : "
-                    + getInputRowMeta().getString(r));
+      for (int i = 0; i < batch.size(); i++) {
+        Object[] r = batch.getRow(i);
+        sendRowToTarget(r, keepRow(inputRowMeta, r));
+      }
+    }
+
+    if (checkFeedback(previousLinesRead, getLinesRead()) && isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "FilterRows.Log.LineNumber") + getLinesRead());
+    }
+
+    return true;
+  }
+
+  private void initializeOutput() throws HopException {
+    data.outputRowMeta = getInputRowMeta().clone();
+    meta.getFields(getInputRowMeta(), getTransformName(), null, null, this, metadataProvider);
+
+    // if filter refers to non-existing fields, throw exception
+    checkNonExistingFields();
+
+    // Cache the position of the IRowSet for the output.
+    //
+    if (data.chosesTargetTransforms) {
+      List<IStream> targetStreams = meta.getTransformIOMeta().getTargetStreams();
+      if (!Utils.isEmpty(targetStreams.get(0).getTransformName())) {
+        TransformMeta to = targetStreams.get(0).getTransformMeta();
+        PipelineHopMeta hop = getPipelineMeta().findPipelineHop(getTransformMeta(), to);
+        if (hop != null && hop.isEnabled()) {
+          data.trueRowSet = findOutputRowSet(getTransformName(), getCopy(), to.getName(), 0);
+          if (data.trueRowSet == null) {
+            throw new HopException(
+                BaseMessages.getString(
+                    PKG,
+                    "FilterRows.Log.TargetTransformInvalid",
+                    targetStreams.get(0).getTransformName()));
           }
-          putRowTo(data.outputRowMeta, r, data.trueRowSet);
         }
       } else {
-        if (data.falseRowSet != null) {
-          if (isRowLevel()) {
-            logRowlevel(
-                "Sending row to false :"
-                    + data.falseTransformName
-                    + " : "
-                    + getInputRowMeta().getString(r));
+        data.trueRowSet = null;
+      }
+
+      if (!Utils.isEmpty(targetStreams.get(1).getTransformName())) {
+        TransformMeta to = targetStreams.get(1).getTransformMeta();
+        PipelineHopMeta hop = getPipelineMeta().findPipelineHop(getTransformMeta(), to);
+        if (hop != null && hop.isEnabled()) {
+          data.falseRowSet = findOutputRowSet(getTransformName(), getCopy(), to.getName(), 0);
+          if (data.falseRowSet == null) {
+            throw new HopException(
+                BaseMessages.getString(
+                    PKG,
+                    "FilterRows.Log.TargetTransformInvalid",
+                    targetStreams.get(1).getTransformName()));
           }
-          putRowTo(data.outputRowMeta, r, data.falseRowSet);
         }
+      } else {
+        data.falseRowSet = null;
       }
     }
+  }
 
-    if (checkFeedback(getLinesRead()) && isBasic()) {
-      logBasic(BaseMessages.getString(PKG, "FilterRows.Log.LineNumber") + getLinesRead());
+  private void sendRowToTarget(Object[] r, boolean keep) throws HopException {
+    if (keep) {
+      if (data.trueRowSet != null) {
+        if (isRowLevel()) {
+          logRowlevel(
+              "Sending row to true  :"
+                  + data.trueTransformName
+                  + " : "
+                  + getInputRowMeta().getString(r));
+        }
+        putRowTo(data.outputRowMeta, r, data.trueRowSet);
+      }
+    } else {
+      if (data.falseRowSet != null) {
+        if (isRowLevel()) {
+          logRowlevel(
+              "Sending row to false :"
+                  + data.falseTransformName
+                  + " : "
+                  + getInputRowMeta().getString(r));
+        }
+        putRowTo(data.outputRowMeta, r, data.falseRowSet);
+      }
     }
-
-    return true;
   }
 
   @Override
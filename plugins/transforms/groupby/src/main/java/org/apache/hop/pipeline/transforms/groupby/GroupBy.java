@@ -48,6 +48,9 @@ import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaNone;
 import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.spill.SpillFile;
+import org.apache.hop.core.spill.SpillFileReader;
+import org.apache.hop.core.spill.SpillFileWriter;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
@@ -827,16 +830,26 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
           pathToTmp = retrieveVfsPath(pathToTmp);
         }
         data.tempFile = File.createTempFile(getMeta().getPrefix(), ".tmp", new File(pathToTmp));
-        data.fosToTempFile = new FileOutputStream(data.tempFile);
-        data.dosToTempFile = new DataOutputStream(data.fosToTempFile);
+        if (data.spillCodec != null) {
+          data.spillWriter =
+              new SpillFileWriter(
+                  data.tempFile.toPath(), data.inputRowMeta, data.spillCodec, data.spillDictionary);
+        } else {
+          data.fosToTempFile = new FileOutputStream(data.tempFile);
+          data.dosToTempFile = new DataOutputStream(data.fosToTempFile);
+        }
         data.firstRead = true;
-      } catch (IOException e) {
+      } catch (IOException | HopException e) {
         throw new HopFileException(
             BaseMessages.getString(PKG, "GroupBy.Exception.UnableToCreateTemporaryFile"), e);
       }
       // OK, save the oldest rows to disk!
       Object[] oldest = data.bufferList.get(0);
-      data.inputRowMeta.writeData(data.dosToTempFile, oldest);
+      if (data.spillWriter != null) {
+        data.spillWriter.writeRow(oldest);
+      } else {
+        data.inputRowMeta.writeData(data.dosToTempFile, oldest);
+      }
       data.bufferList.remove(0);
       data.rowsOnFile++;
     }
@@ -853,10 +866,15 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
       if (data.firstRead) {
         // Open the inputstream first...
         try {
-          data.fisToTmpFile = new FileInputStream(data.tempFile);
-          data.disToTmpFile = new DataInputStream(data.fisToTmpFile);
+          if (data.spillCodec != null) {
+            closeSpillWriter();
+            data.spillReader = new SpillFileReader(data.tempFile.toPath(), data.inputRowMeta);
+          } else {
+            data.fisToTmpFile = new FileInputStream(data.tempFile);
+            data.disToTmpFile = new DataInputStream(data.fisToTmpFile);
+          }
           data.firstRead = false;
-        } catch (IOException e) {
+        } catch (IOException | HopException e) {
           throw new HopFileException(
               BaseMessages.getString(PKG, "GroupBy.Exception.UnableToReadBackRowFromTemporaryFile"),
               e);
@@ -866,7 +884,11 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
       // Read one row from the file!
       Object[] row;
       try {
-        row = data.inputRowMeta.readData(data.disToTmpFile);
+        if (data.spillReader != null) {
+          row = data.spillReader.readRow();
+        } else {
+          row = data.inputRowMeta.readData(data.disToTmpFile);
+        }
       } catch (SocketTimeoutException e) {
         throw new HopFileException(e); // Shouldn't happen on files
       }
@@ -884,8 +906,17 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
     }
   }
 
+  /** Write the last block of the spill file so that it can be read back */
+  private void closeSpillWriter() throws IOException {
+    if (data.spillWriter != null) {
+      data.spillWriter.close();
+      data.spillWriter = null;
+    }
+  }
+
   private void closeOutput() throws HopFileException {
     try {
+      closeSpillWriter();
       if (data.dosToTempFile != null) {
         data.dosToTempFile.close();
         data.dosToTempFile = null;
@@ -905,6 +936,10 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
 
   private void closeInput() throws HopFileException {
     try {
+      if (data.spillReader != null) {
+        data.spillReader.close();
+        data.spillReader = null;
+      }
       if (data.fisToTmpFile != null) {
         data.fisToTmpFile.close();
         data.fisToTmpFile = null;
@@ -929,6 +964,11 @@ public class GroupBy extends BaseTransform<GroupByMeta, GroupByData> {
 
       data.rowsOnFile = 0;
 
+      // Use the compact spill file format for the temporary file?
+      //
+      data.spillCodec = SpillFile.getCodecName(this);
+      data.spillDictionary = SpillFile.isDictionaryEncoding(this);
+
       return true;
     }
     return false;
@@ -27,6 +27,8 @@ import java.util.List;
 import java.util.Set;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.spill.SpillFileReader;
+import org.apache.hop.core.spill.SpillFileWriter;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
@@ -67,6 +69,13 @@ public class GroupByData extends BaseTransformData implements ITransformData {
   public FileInputStream fisToTmpFile;
   public DataInputStream disToTmpFile;
 
+  /** The codec of the spill file format or null to use the classic temporary file format */
+  public String spillCodec;
+
+  public boolean spillDictionary;
+  public SpillFileWriter spillWriter;
+  public SpillFileReader spillReader;
+
   public Object[] groupResult;
 
   public boolean hasOutput;
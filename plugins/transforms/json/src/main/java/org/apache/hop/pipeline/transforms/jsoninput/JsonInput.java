@@ -20,7 +20,6 @@ package org.apache.hop.pipeline.transforms.jsoninput;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.BitSet;
 import org.apache.commons.lang.NotImplementedException;
@@ -47,6 +46,7 @@ import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException
 import org.apache.hop.pipeline.transforms.jsoninput.reader.FastJsonReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.InputsReader;
 import org.apache.hop.pipeline.transforms.jsoninput.reader.RowOutputConverter;
+import org.apache.hop.pipeline.transforms.jsoninput.reader.StreamingJsonReader;
 
 /**
  * Read Json files, parse them and convert them to rows and writes these to one or more output
@@ -282,8 +282,11 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
   }
 
   private void parseNextInputToRowSet(InputStream input) throws HopException {
+    boolean streaming = false;
     try {
       data.readerRowSet = data.reader.parseStringValue(input);
+      // A streaming reader reads the input while the rows are retrieved and closes it when done
+      streaming = !data.readerRowSet.isDone();
     } catch (HopException ke) {
       logInputError(ke);
       throw new JsonInputException(ke);
@@ -291,7 +294,22 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       logInputError(e);
       throw new JsonInputException(e);
     } finally {
-      closeQuietly(input);
+      if (!streaming) {
+        closeQuietly(input);
+      }
+    }
+  }
+
+  private Object[] getReaderRow() throws HopException {
+    try {
+      return data.readerRowSet.getRow();
+    } catch (StreamingJsonReader.StreamingReadException e) {
+      if (e.getCause() instanceof JsonInputException) {
+        logInputError(e.getCause());
+      } else {
+        logInputError((Exception) e.getCause());
+      }
+      throw new JsonInputException(e.getCause());
     }
   }
 
@@ -386,19 +404,13 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
         }
       }
     } else {
-      while ((rawReaderRow = data.readerRowSet.getRow()) == null) {
+      while ((rawReaderRow = getReaderRow()) == null) {
         if (data.inputs.hasNext() && data.readerRowSet.isDone()) {
-          try (InputStream nextIn = data.inputs.next()) {
-
-            if (nextIn != null) {
-              parseNextInputToRowSet(nextIn);
-            } else {
-              parseNextInputToRowSet(new ByteArrayInputStream(EMPTY_JSON));
-            }
-
-          } catch (IOException e) {
-            logError(BaseMessages.getString(PKG, "JsonInput.Log.UnexpectedError", e.toString()), e);
-            incrementErrors();
+          InputStream nextIn = data.inputs.next();
+          if (nextIn != null) {
+            parseNextInputToRowSet(nextIn);
+          } else {
+            parseNextInputToRowSet(new ByteArrayInputStream(EMPTY_JSON));
           }
         } else {
           if (isDetailed()) {
@@ -513,7 +525,16 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
       inputFields[i] = field;
     }
     // Instead of putting in the meta.inputFields, we put in our json path resolved input fields
-    data.reader = new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), getLogChannel());
+    if (meta.isStreamingRead()
+        && StreamingJsonReader.isSupported(inputFields, meta.isDefaultPathLeafToNull())) {
+      data.reader = new StreamingJsonReader(inputFields, getLogChannel());
+    } else {
+      if (meta.isStreamingRead()) {
+        logBasic(BaseMessages.getString(PKG, "JsonInput.Log.StreamingReadNotSupported"));
+      }
+      data.reader =
+          new FastJsonReader(inputFields, meta.isDefaultPathLeafToNull(), getLogChannel());
+    }
     data.reader.setIgnoreMissingPath(meta.isIgnoreMissingPath());
   }
 
@@ -524,6 +545,10 @@ public class JsonInput extends BaseFileInputTransform<JsonInputMeta, JsonInputDa
     }
     data.inputs = null;
     data.reader = null;
+    if (data.readerRowSet != null) {
+      // Closes the input of a streaming reader
+      data.readerRowSet.clear();
+    }
     data.readerRowSet = null;
     data.repeatedFields = null;
     super.dispose();
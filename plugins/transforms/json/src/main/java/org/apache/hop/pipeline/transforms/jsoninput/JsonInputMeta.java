@@ -253,6 +253,10 @@ public class JsonInputMeta
 
   private boolean defaultPathLeafToNull;
 
+  /** Flag : read the documents in a single pass over the tokens, if the paths allow it */
+  @Injection(name = "STREAMING_READ")
+  private boolean streamingRead;
+
   public JsonInputMeta() {
     additionalOutputFields = new AdditionalFileOutputFields();
     inputFiles = new InputFiles();
@@ -557,6 +561,14 @@ public class JsonInputMeta
     return ignoreMissingPath;
   }
 
+  public boolean isStreamingRead() {
+    return streamingRead;
+  }
+
+  public void setStreamingRead(boolean streamingRead) {
+    this.streamingRead = streamingRead;
+  }
+
   public void setIgnoreMissingPath(boolean ignoreMissingPath) {
     this.ignoreMissingPath = ignoreMissingPath;
   }
@@ -617,6 +629,7 @@ public class JsonInputMeta
     retval.append("    " + XmlHandler.addTagValue("ignoreMissingPath", ignoreMissingPath));
     retval.append(
         "    " + XmlHandler.addTagValue(CONST_DEFAULT_PATH_LEAF_TO_NULL, defaultPathLeafToNull));
+    retval.append("    " + XmlHandler.addTagValue("streamingRead", streamingRead));
     retval.append("    ").append(XmlHandler.addTagValue("rownum_field", rowNumberField));
 
     retval.append("    <file>").append(Const.CR);
@@ -690,6 +703,7 @@ public class JsonInputMeta
       ignoreMissingPath =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "ignoreMissingPath"));
       defaultPathLeafToNull = getDefaultPathLeafToNull(transformNode);
+      streamingRead = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "streamingRead"));
       doNotFailIfNoFile =
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "doNotFailIfNoFile"));
       includeRowNumber = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "rownum"));
@@ -780,6 +794,7 @@ public class JsonInputMeta
     isIgnoreEmptyFile = false;
     ignoreMissingPath = true;
     defaultPathLeafToNull = true;
+    streamingRead = false;
     doNotFailIfNoFile = true;
     includeFilename = false;
     filenameField = "";
@@ -0,0 +1,556 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import net.minidev.json.JSONArray;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.SingleRowRowSet;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.i18n.BaseMessages;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputMeta;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+
+/**
+ * Reads JSON documents in a single pass over the tokens of the parser, without building the
+ * document in memory. A row is returned as soon as an element matched by the wildcard of the paths
+ * is read, so memory use doesn't depend on the size of the document.
+ *
+ * <p>Only simple paths are supported: property names, array indexes and a single wildcard which all
+ * paths share, like <code>$.a.b[*].c</code> and <code>$.a.b[*].d</code>. Paths without a wildcard
+ * return a single row. Use {@link #isSupported(JsonInputField[], boolean)} to see if the fields can
+ * be read this way. Incoming JSON nodes are evaluated by the regular reader.
+ */
+public class StreamingJsonReader extends FastJsonReader {
+  private static final Class<?> PKG = JsonInputMeta.class;
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private JsonInputField[] streamingFields;
+  private PathPlan plan;
+
+  public StreamingJsonReader(JsonInputField[] fields, ILogChannel log) throws HopException {
+    super(fields, log);
+  }
+
+  /**
+   * See if the fields can be read in a single pass over the tokens of a document.
+   *
+   * @param fields the fields with the paths resolved
+   * @param defaultPathLeafToNull return null for missing values
+   * @return true if the paths are supported
+   */
+  public static boolean isSupported(JsonInputField[] fields, boolean defaultPathLeafToNull) {
+    // Without default path leaf to null the values of the paths don't line up in rows
+    return defaultPathLeafToNull && PathPlan.create(fields) != null;
+  }
+
+  @Override
+  public void setFields(JsonInputField[] fields) throws HopException {
+    super.setFields(fields);
+    this.streamingFields = fields;
+    this.plan = PathPlan.create(fields);
+  }
+
+  @Override
+  public IRowSet parseStringValue(InputStream in) throws HopException {
+    if (plan == null) {
+      return super.parseStringValue(in);
+    }
+    try {
+      return new StreamingRowSet(JSON_FACTORY.createParser(in));
+    } catch (IOException e) {
+      throw new HopException(e);
+    }
+  }
+
+  /** A step of a path: a property name, an array index or a wildcard */
+  static final class Step {
+    private final String name;
+    private final int index;
+
+    private Step(String name, int index) {
+      this.name = name;
+      this.index = index;
+    }
+
+    static Step property(String name) {
+      return new Step(name, -1);
+    }
+
+    static Step index(int index) {
+      return new Step(null, index);
+    }
+
+    static Step wildcard() {
+      return new Step(null, -1);
+    }
+
+    boolean isWildcard() {
+      return name == null && index < 0;
+    }
+
+    boolean matches(String property) {
+      return isWildcard() || property.equals(name);
+    }
+
+    boolean matches(int arrayIndex) {
+      return isWildcard() || arrayIndex == index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Step step)) {
+        return false;
+      }
+      return index == step.index && Objects.equals(name, step.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(name, index);
+    }
+  }
+
+  /**
+   * The paths of the fields split up in the steps to the elements which become rows and the steps
+   * to the values within an element.
+   */
+  static final class PathPlan {
+    /** The steps to the elements which become rows, ending with the wildcard */
+    final List<Step> rowSteps;
+
+    /** For every field, the steps from the element to the value */
+    final List<List<Step>> valueSteps;
+
+    private PathPlan(List<Step> rowSteps, List<List<Step>> valueSteps) {
+      this.rowSteps = rowSteps;
+      this.valueSteps = valueSteps;
+    }
+
+    /**
+     * @param fields the fields with the paths resolved
+     * @return the plan or null if the paths are not supported
+     */
+    static PathPlan create(JsonInputField[] fields) {
+      if (fields == null || fields.length == 0) {
+        return null;
+      }
+      List<Step> rowSteps = null;
+      List<List<Step>> valueSteps = new ArrayList<>();
+      for (JsonInputField field : fields) {
+        List<Step> steps = parsePath(field.getPath());
+        if (steps == null) {
+          return null;
+        }
+        int wildcard = -1;
+        for (int i = 0; i < steps.size(); i++) {
+          if (steps.get(i).isWildcard()) {
+            if (wildcard >= 0) {
+              return null;
+            }
+            wildcard = i;
+          }
+        }
+        List<Step> prefix = steps.subList(0, wildcard + 1);
+        if (rowSteps == null) {
+          rowSteps = prefix;
+        } else if (!rowSteps.equals(prefix)) {
+          // All paths need to return the same number of values
+          return null;
+        }
+        valueSteps.add(steps.subList(wildcard + 1, steps.size()));
+      }
+      return new PathPlan(rowSteps, valueSteps);
+    }
+
+    /**
+     * Parse a path in dot or bracket notation, like <code>$.a['b'][0][*].c</code>.
+     *
+     * @param path the path
+     * @return the steps or null if the path uses anything else
+     */
+    static List<Step> parsePath(String path) {
+      if (path == null || !path.startsWith("$")) {
+        return null;
+      }
+      List<Step> steps = new ArrayList<>();
+      int i = 1;
+      int length = path.length();
+      while (i < length) {
+        char c = path.charAt(i);
+        if (c == '.') {
+          i++;
+          if (i >= length || path.charAt(i) == '.') {
+            // Deep scans are not supported
+            return null;
+          }
+          if (path.charAt(i) == '*') {
+            steps.add(Step.wildcard());
+            i++;
+            continue;
+          }
+          int end = i;
+          while (end < length && path.charAt(end) != '.' && path.charAt(end) != '[') {
+            end++;
+          }
+          String name = path.substring(i, end);
+          if (name.isEmpty() || name.contains("(") || name.contains("*")) {
+            // Functions are not supported
+            return null;
+          }
+          steps.add(Step.property(name));
+          i = end;
+        } else if (c == '[') {
+          int close = path.indexOf(']', i);
+          if (close < 0) {
+            return null;
+          }
+          String content = path.substring(i + 1, close).trim();
+          if (content.equals("*")) {
+            steps.add(Step.wildcard());
+          } else if (content.length() >= 2
+              && (content.charAt(0) == '\'' || content.charAt(0) == '"')
+              && content.charAt(content.length() - 1) == content.charAt(0)) {
+            String name = content.substring(1, content.length() - 1);
+            if (name.indexOf(content.charAt(0)) >= 0 || name.indexOf('\\') >= 0) {
+              // Lists of properties and escapes are not supported
+              return null;
+            }
+            steps.add(Step.property(name));
+          } else if (!content.isEmpty() && content.chars().allMatch(Character::isDigit)) {
+            steps.add(Step.index(Integer.parseInt(content)));
+          } else {
+            // Filters, slices, negative indexes and lists are not supported
+            return null;
+          }
+          i = close + 1;
+        } else {
+          return null;
+        }
+      }
+      return steps;
+    }
+  }
+
+  /** A container the parser is in, on the way to the elements which become rows */
+  private static final class Frame {
+    private final int depth;
+    private final boolean object;
+    private int index;
+
+    private Frame(int depth, boolean object) {
+      this.depth = depth;
+      this.object = object;
+    }
+  }
+
+  /**
+   * Returns the rows while reading the document. Rows with only null values are skipped, unless
+   * nulls are included. A single row with null values is returned if the document has no rows.
+   */
+  private class StreamingRowSet extends SingleRowRowSet {
+    private final JsonParser parser;
+    private final Deque<Frame> frames;
+    private final boolean[] found;
+    private final boolean includeNulls =
+        "Y"
+            .equalsIgnoreCase(
+                System.getProperty(
+                    Const.HOP_JSON_INPUT_INCLUDE_NULLS, Const.JSON_INPUT_INCLUDE_NULLS));
+    private long nrRows;
+    private boolean done;
+
+    StreamingRowSet(JsonParser parser) {
+      super();
+      this.parser = parser;
+      this.frames = new ArrayDeque<>();
+      this.found = new boolean[streamingFields.length];
+    }
+
+    @Override
+    public Object[] getRow() {
+      if (done) {
+        return null;
+      }
+      try {
+        Object[] row = nextRow();
+        if (row == null) {
+          finish();
+          if (nrRows == 0) {
+            nrRows++;
+            return new Object[streamingFields.length];
+          }
+        } else {
+          nrRows++;
+        }
+        return row;
+      } catch (IOException e) {
+        clear();
+        throw new StreamingReadException(new HopException(e));
+      } catch (HopException e) {
+        clear();
+        throw new StreamingReadException(e);
+      }
+    }
+
+    private Object[] nextRow() throws IOException {
+      List<Step> rowSteps = plan.rowSteps;
+      JsonToken token;
+      while ((token = parser.nextToken()) != null) {
+        int depth;
+        if (frames.isEmpty()) {
+          // A document
+          depth = 0;
+        } else {
+          Frame frame = frames.peek();
+          if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+            frames.pop();
+            continue;
+          }
+          Step step = rowSteps.get(frame.depth);
+          boolean matches;
+          if (frame.object) {
+            matches = step.matches(parser.currentName());
+            token = parser.nextToken();
+          } else {
+            matches = step.matches(frame.index++);
+          }
+          if (!matches) {
+            parser.skipChildren();
+            continue;
+          }
+          depth = frame.depth + 1;
+        }
+
+        if (depth == rowSteps.size()) {
+          Object[] row = readRow();
+          if (includeNulls || !isAllNull(row)) {
+            return row;
+          }
+        } else if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+          frames.push(new Frame(depth, token == JsonToken.START_OBJECT));
+        }
+      }
+      return null;
+    }
+
+    /** Read the values of all fields from the element the parser is at */
+    private Object[] readRow() throws IOException {
+      Object[] row = new Object[streamingFields.length];
+      List<Integer> candidates = new ArrayList<>(streamingFields.length);
+      for (int f = 0; f < streamingFields.length; f++) {
+        candidates.add(f);
+      }
+      readValues(candidates, 0, row);
+      for (int f = 0; f < row.length; f++) {
+        found[f] |= row[f] != null;
+      }
+      return row;
+    }
+
+    /**
+     * Read the values of the fields at the value the parser is at.
+     *
+     * @param candidates the fields whose steps matched so far
+     * @param depth the number of steps matched
+     * @param row the values
+     */
+    private void readValues(List<Integer> candidates, int depth, Object[] row) throws IOException {
+      JsonToken token = parser.currentToken();
+      boolean complete = false;
+      for (int f : candidates) {
+        if (plan.valueSteps.get(f).size() == depth) {
+          complete = true;
+          break;
+        }
+      }
+
+      if (complete) {
+        // A field needs this value as a whole: resolve the other fields from the value too
+        //
+        Object value = readValue(parser);
+        for (int f : candidates) {
+          row[f] = resolve(value, plan.valueSteps.get(f), depth);
+        }
+        return;
+      }
+
+      if (token == JsonToken.START_OBJECT) {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String name = parser.currentName();
+          parser.nextToken();
+          List<Integer> matching = new ArrayList<>();
+          for (int f : candidates) {
+            if (plan.valueSteps.get(f).get(depth).matches(name)) {
+              matching.add(f);
+            }
+          }
+          if (matching.isEmpty()) {
+            parser.skipChildren();
+          } else {
+            readValues(matching, depth + 1, row);
+          }
+        }
+      } else if (token == JsonToken.START_ARRAY) {
+        int index = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          List<Integer> matching = new ArrayList<>();
+          for (int f : candidates) {
+            if (plan.valueSteps.get(f).get(depth).matches(index)) {
+              matching.add(f);
+            }
+          }
+          if (matching.isEmpty()) {
+            parser.skipChildren();
+          } else {
+            readValues(matching, depth + 1, row);
+          }
+          index++;
+        }
+      }
+    }
+
+    private void finish() throws IOException, HopException {
+      done = true;
+      parser.close();
+      if (!isIgnoreMissingPath()) {
+        for (int f = 0; f < found.length; f++) {
+          if (!found[f]) {
+            throw new JsonInputException(
+                BaseMessages.getString(
+                    PKG, "JsonReader.Error.CanNotFindPath", streamingFields[f].getPath()));
+          }
+        }
+      }
+    }
+
+    @Override
+    public int size() {
+      return done ? 0 : 1;
+    }
+
+    @Override
+    public boolean isDone() {
+      return done;
+    }
+
+    @Override
+    public void clear() {
+      done = true;
+      try {
+        parser.close();
+      } catch (IOException e) {
+        // Nothing left to read
+      }
+    }
+  }
+
+  private static boolean isAllNull(Object[] row) {
+    for (Object value : row) {
+      if (value != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Read the value the parser is at, the same way the regular reader returns values: objects as
+   * maps and arrays as JSON arrays.
+   */
+  private static Object readValue(JsonParser parser) throws IOException {
+    JsonToken token = parser.currentToken();
+    switch (token) {
+      case START_OBJECT:
+        Map<String, Object> map = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String name = parser.currentName();
+          parser.nextToken();
+          map.put(name, readValue(parser));
+        }
+        return map;
+      case START_ARRAY:
+        JSONArray array = new JSONArray();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+          array.add(readValue(parser));
+        }
+        return array;
+      case VALUE_STRING:
+        return parser.getText();
+      case VALUE_NUMBER_INT:
+        return parser.getNumberValue();
+      case VALUE_NUMBER_FLOAT:
+        return parser.getDoubleValue();
+      case VALUE_TRUE:
+        return Boolean.TRUE;
+      case VALUE_FALSE:
+        return Boolean.FALSE;
+      default:
+        return null;
+    }
+  }
+
+  /** Follow the remaining steps of a path in a value which was read as a whole */
+  private static Object resolve(Object value, List<Step> steps, int from) {
+    Object current = value;
+    for (int i = from; i < steps.size() && current != null; i++) {
+      Step step = steps.get(i);
+      if (current instanceof Map<?, ?> map && step.index < 0) {
+        current = map.get(step.name);
+      } else if (current instanceof List<?> list && step.name == null && step.index >= 0) {
+        current = step.index < list.size() ? list.get(step.index) : null;
+      } else {
+        current = null;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Thrown while the rows are read from the row set, which can't throw checked exceptions. The
+   * cause is the original exception.
+   */
+  public static class StreamingReadException extends RuntimeException {
+    public StreamingReadException(HopException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized HopException getCause() {
+      return (HopException) super.getCause();
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.jsoninput.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.minidev.json.JSONValue;
+import org.apache.hop.core.IRowSet;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.pipeline.transforms.jsoninput.JsonInputField;
+import org.apache.hop.pipeline.transforms.jsoninput.exception.JsonInputException;
+import org.junit.jupiter.api.Test;
+
+class StreamingJsonReaderTest {
+  private static final String JSON =
+      "{\"store\":{\"name\":\"shop\",\"books\":["
+          + "{\"id\":1,\"title\":\"One\",\"price\":8.95,\"tags\":{\"a\":\"x\"},\"authors\":[\"A\",\"B\"]},"
+          + "{\"id\":2,\"title\":\"Two\",\"extra\":{\"deep\":[1,2,{\"z\":true}]}},"
+          + "{\"id\":3,\"price\":22.99,\"authors\":[\"C\"]}"
+          + "]}}";
+
+  private final ILogChannel logMock = mock(ILogChannel.class);
+
+  private static JsonInputField[] fields(String... paths) {
+    JsonInputField[] fields = new JsonInputField[paths.length];
+    for (int i = 0; i < paths.length; i++) {
+      fields[i] = new JsonInputField("field" + i);
+      fields[i].setPath(paths[i]);
+    }
+    return fields;
+  }
+
+  private static InputStream input(String json) {
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** The rows with the values as JSON, like the values are converted to strings */
+  private static List<List<String>> rows(IRowSet rowSet) {
+    List<List<String>> rows = new ArrayList<>();
+    Object[] row;
+    while ((row = rowSet.getRow()) != null) {
+      rows.add(Arrays.stream(row).map(JSONValue::toJSONString).toList());
+    }
+    return rows;
+  }
+
+  private void assertSameRows(String json, String... paths) throws Exception {
+    JsonInputField[] fields = fields(paths);
+    assertTrue(StreamingJsonReader.isSupported(fields, true));
+
+    FastJsonReader treeReader = new FastJsonReader(fields, logMock);
+    treeReader.setIgnoreMissingPath(true);
+    StreamingJsonReader streamingReader = new StreamingJsonReader(fields, logMock);
+    streamingReader.setIgnoreMissingPath(true);
+
+    List<List<String>> expected = rows(treeReader.parseStringValue(input(json)));
+    List<List<String>> actual = rows(streamingReader.parseStringValue(input(json)));
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void testSameRowsAsTreeReader() throws Exception {
+    assertSameRows(
+        JSON,
+        "$.store.books[*].id",
+        "$.store.books[*].title",
+        "$['store']['books'][*]['price']",
+        "$.store.books[*].tags",
+        "$.store.books[*].authors",
+        "$.store.books[*].extra");
+  }
+
+  @Test
+  void testSameRowsWithoutWildcard() throws Exception {
+    assertSameRows(JSON, "$.store.name", "$.store.books[1].title", "$.store.books");
+  }
+
+  @Test
+  void testSameRowsForArrayOfValues() throws Exception {
+    assertSameRows("[1, \"two\", null, 4.5]", "$[*]");
+  }
+
+  @Test
+  void testSameRowsForMissingPath() throws Exception {
+    assertSameRows(JSON, "$.store.movies[*].id", "$.store.movies[*].title");
+  }
+
+  @Test
+  void testUnsupportedPaths() {
+    assertFalse(StreamingJsonReader.isSupported(fields("$..id"), true));
+    assertFalse(StreamingJsonReader.isSupported(fields("$.books[?(@.id > 1)].id"), true));
+    assertFalse(StreamingJsonReader.isSupported(fields("$.books[0:2].id"), true));
+    assertFalse(StreamingJsonReader.isSupported(fields("$.books.length()"), true));
+    assertFalse(StreamingJsonReader.isSupported(fields("$.a[*].b[*].c"), true));
+    assertFalse(StreamingJsonReader.isSupported(fields("$.a[*].b", "$.c[*].d"), true));
+    assertFalse(StreamingJsonReader.isSupported(fields("$.a[*].b", "$.c"), true));
+    assertFalse(StreamingJsonReader.isSupported(fields("$.a[*].b"), false));
+  }
+
+  @Test
+  void testMissingPathFails() throws Exception {
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$.store.books[*].isbn"), logMock);
+    reader.setIgnoreMissingPath(false);
+    IRowSet rowSet = reader.parseStringValue(input(JSON));
+
+    // The rows read so far are returned before the path is found to be missing
+    StreamingJsonReader.StreamingReadException e =
+        assertThrows(StreamingJsonReader.StreamingReadException.class, () -> rows(rowSet));
+    assertInstanceOf(JsonInputException.class, e.getCause());
+  }
+
+  @Test
+  void testRowsBeforeEndOfInput() throws Exception {
+    int nrBooks = 100000;
+    StringBuilder json = new StringBuilder("{\"books\":[");
+    for (int i = 0; i < nrBooks; i++) {
+      json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"skip\":[1,2,3]}");
+    }
+    json.append("]}");
+    byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+
+    long[] bytesRead = new long[1];
+    InputStream in =
+        new FilterInputStream(new ByteArrayInputStream(bytes)) {
+          @Override
+          public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            bytesRead[0] += Math.max(n, 0);
+            return n;
+          }
+        };
+
+    StreamingJsonReader reader = new StreamingJsonReader(fields("$.books[*].id"), logMock);
+    IRowSet rowSet = reader.parseStringValue(in);
+
+    Object[] first = rowSet.getRow();
+    assertNotNull(first);
+    assertEquals(0, ((Number) first[0]).intValue());
+    assertTrue(bytesRead[0] < bytes.length / 10);
+
+    int nrRows = 1;
+    while (rowSet.getRow() != null) {
+      nrRows++;
+    }
+    assertEquals(nrBooks, nrRows);
+    assertTrue(rowSet.isDone());
+  }
+}
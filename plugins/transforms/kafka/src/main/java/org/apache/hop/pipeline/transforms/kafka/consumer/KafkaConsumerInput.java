@@ -19,9 +19,21 @@ package org.apache.hop.pipeline.transforms.kafka.consumer;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
+import lombok.Getter;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.Result;
@@ -32,6 +44,7 @@ import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.variables.IVariables;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.RowProducer;
 import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
 import org.apache.hop.pipeline.TransformWithMappingMeta;
 import org.apache.hop.pipeline.config.PipelineRunConfiguration;
@@ -45,9 +58,13 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.errors.WakeupException;
 
 /** Consume messages from a Kafka topic */
@@ -56,6 +73,27 @@ public class KafkaConsumerInput
 
   private static final Class<?> PKG = KafkaConsumerInputMeta.class;
 
+  /** The maximum time to wait for records when the batches are processed by workers */
+  private static final long WORKERS_POLL_MILLIS = 100L;
+
+  /**
+   * The maximum time to wait for a worker to finish its batches when stopping or when its
+   * partitions are revoked
+   */
+  private static final long WORKER_STOP_MILLIS = 30000L;
+
+  /** A started sub-pipeline with the producer of the rows it processes */
+  @Getter
+  public static class SubPipeline {
+    private final RowProducer rowProducer;
+    private final SingleThreadedPipelineExecutor executor;
+
+    public SubPipeline(RowProducer rowProducer, SingleThreadedPipelineExecutor executor) {
+      this.rowProducer = rowProducer;
+      this.executor = executor;
+    }
+  }
+
   public KafkaConsumerInput(
       TransformMeta transformMeta,
       KafkaConsumerInputMeta meta,
@@ -85,17 +123,27 @@ public class KafkaConsumerInput
     data.batchDuration = Const.toInt(resolve(meta.getBatchDuration()), 0);
     data.batchSize = Const.toInt(resolve(meta.getBatchSize()), 0);
 
+    data.nrPartitionWorkers = Math.max(1, Const.toInt(resolve(meta.getPartitionWorkers()), 1));
+
     data.consumer = buildKafkaConsumer(this, meta);
 
     // Subscribe to the topics...
     //
     Set<String> topics = meta.getTopics().stream().map(this::resolve).collect(Collectors.toSet());
-    data.consumer.subscribe(topics);
+    if (data.nrPartitionWorkers > 1) {
+      data.consumer.subscribe(topics, new WorkersRebalanceListener());
+    } else {
+      data.consumer.subscribe(topics);
+    }
 
     // Load and start the single threader transformation
     //
     try {
-      initSubPipeline();
+      if (data.nrPartitionWorkers > 1) {
+        initPartitionWorkers();
+      } else {
+        initSubPipeline();
+      }
     } catch (Exception e) {
       logError("Error initializing sub-transformation", e);
       return false;
@@ -107,7 +155,39 @@ public class KafkaConsumerInput
   }
 
   private void initSubPipeline() throws HopException {
+    SubPipeline subPipeline = startSubPipeline(getTransformName());
+    data.rowProducer = subPipeline.getRowProducer();
+    data.executor = subPipeline.getExecutor();
+  }
+
+  /**
+   * Start a number of workers, each with its own copy of the sub-pipeline. The records of the
+   * assigned partitions are spread over the workers.
+   */
+  private void initPartitionWorkers() throws HopException {
+    data.processedOffsets = new ConcurrentHashMap<>();
+    data.partitionWorkers = new HashMap<>();
+    data.workers = new ArrayList<>();
+    for (int i = 0; i < data.nrPartitionWorkers; i++) {
+      // The first sub-pipeline is registered under the transform name so we can still drill down
+      //
+      String name = i == 0 ? getTransformName() : getTransformName() + " #" + (i + 1);
+      data.workers.add(
+          new KafkaPartitionWorker(this, name, data.outputRowMeta, data.processedOffsets));
+    }
+    data.workers.forEach(KafkaPartitionWorker::start);
+  }
+
+  /**
+   * Load, initialize and start a copy of the sub-pipeline.
+   *
+   * @param name the name to register the active sub-pipeline under
+   * @return the sub-pipeline with the producer of its rows
+   * @throws HopException in case the sub-pipeline can't be started
+   */
+  SubPipeline startSubPipeline(String name) throws HopException {
     try {
+      RowProducer rowProducer = null;
 
       String realFilename = resolve(meta.getFilename());
       PipelineMeta subTransMeta = new PipelineMeta(realFilename, metadataProvider, this);
@@ -143,7 +223,7 @@ public class KafkaConsumerInput
       for (TransformMeta transformMeta : subTransMeta.getTransforms()) {
         ITransformMeta iTransform = transformMeta.getTransform();
         if (iTransform instanceof InjectorMeta) {
-          if (data.rowProducer != null) {
+          if (rowProducer != null) {
             throw new HopException(
                 "You can only have one copy of the injector transform '"
                     + transformMeta.getName()
@@ -151,11 +231,11 @@ public class KafkaConsumerInput
           }
           // Attach an injector to this transform
           //
-          data.rowProducer = kafkaPipeline.addRowProducer(transformMeta.getName(), 0);
+          rowProducer = kafkaPipeline.addRowProducer(transformMeta.getName(), 0);
         }
       }
 
-      if (data.rowProducer == null) {
+      if (rowProducer == null) {
         throw new HopException(
             "Unable to find an Injector transform in the Kafka pipeline. Such a transform is needed to accept data from this Kafka Consumer transform.");
       }
@@ -174,32 +254,37 @@ public class KafkaConsumerInput
               @Override
               public void rowWrittenEvent(IRowMeta rowMeta, Object[] row)
                   throws HopTransformException {
-                // Write this row to the next transform(s)
+                // Write this row to the next transform(s).
+                // The sub-pipelines of the partition workers run on their own threads.
                 //
-                KafkaConsumerInput.this.putRow(rowMeta, row);
+                synchronized (data.outputLock) {
+                  KafkaConsumerInput.this.putRow(rowMeta, row);
+                }
               }
             });
       }
       kafkaPipeline.setLogChannel(getLogChannel());
       kafkaPipeline.startThreads();
 
+      SingleThreadedPipelineExecutor executor;
       if (errorHandlingConditionIsSatisfied()) {
-        data.executor = new SingleThreadedPipelineExecutor(kafkaPipeline, true);
+        executor = new SingleThreadedPipelineExecutor(kafkaPipeline, true);
       } else {
         // If the conditions for error handling are not met init SingleThreadedExecutor normally
-        data.executor = new SingleThreadedPipelineExecutor(kafkaPipeline);
+        executor = new SingleThreadedPipelineExecutor(kafkaPipeline);
       }
-      data.executor.setClearingMetricsPerIteration(
+      executor.setClearingMetricsPerIteration(
           StringUtils.isEmpty(meta.getExecutionInformationLocation()));
 
       // Initialize the sub-pipeline
       //
-      boolean ok = data.executor.init();
+      boolean ok = executor.init();
       if (!ok) {
         throw new HopException("Initialization of sub-pipeline failed");
       }
 
-      getPipeline().addActiveSubPipeline(getTransformName(), kafkaPipeline);
+      getPipeline().addActiveSubPipeline(name, kafkaPipeline);
+      return new SubPipeline(rowProducer, executor);
     } catch (Exception e) {
       throw new HopException("Unable to load and initialize sub pipeline", e);
     }
@@ -207,7 +292,13 @@ public class KafkaConsumerInput
 
   @Override
   public void dispose() {
+    if (data.workers != null) {
+      stopPartitionWorkers();
+    }
     if (data.consumer != null) {
+      if (data.workers != null) {
+        commitProcessedOffsetsSync();
+      }
       data.consumer.unsubscribe();
       data.consumer.close();
     }
@@ -275,6 +366,9 @@ public class KafkaConsumerInput
 
   @Override
   public boolean processRow() throws HopException {
+    if (data.workers != null) {
+      return processRowWithWorkers();
+    }
 
     // Poll records...
     // If we get any, process them...
@@ -375,7 +469,198 @@ public class KafkaConsumerInput
     return true;
   }
 
-  private boolean errorHandlingConditionIsSatisfied() {
+  /**
+   * Poll records while the workers process the previous batches. The records of every partition are
+   * handed to the worker of that partition. The partitions of workers which have enough batches to
+   * process are paused and the offsets of processed batches are committed asynchronously.
+   */
+  private boolean processRowWithWorkers() {
+    try {
+      if (!checkPartitionWorkers()) {
+        return false;
+      }
+      commitProcessedOffsets();
+      pauseBusyPartitions();
+
+      Duration duration =
+          Duration.ofMillis(
+              data.batchDuration > 0
+                  ? Math.min(data.batchDuration, WORKERS_POLL_MILLIS)
+                  : WORKERS_POLL_MILLIS);
+      ConsumerRecords<Object, Object> records = data.consumer.poll(duration);
+
+      if (!data.isKafkaConsumerClosing && !records.isEmpty()) {
+        Map<KafkaPartitionWorker, List<ConsumerRecord<Object, Object>>> batches = new HashMap<>();
+        for (TopicPartition partition : records.partitions()) {
+          List<ConsumerRecord<Object, Object>> partitionRecords = records.records(partition);
+          batches
+              .computeIfAbsent(getPartitionWorker(partition), w -> new ArrayList<>())
+              .addAll(partitionRecords);
+          for (int i = 0; i < partitionRecords.size(); i++) {
+            incrementLinesInput();
+          }
+        }
+        batches.forEach(KafkaPartitionWorker::addBatch);
+      }
+    } catch (WakeupException e) {
+      // We're going to close kafka consumer because of pipeline has been stopped so stop the
+      // workers too
+      stopPartitionWorkers();
+      setOutputDone();
+      stopAll();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return false if a worker failed to process a batch, in which case everything is stopped
+   */
+  private boolean checkPartitionWorkers() {
+    for (KafkaPartitionWorker worker : data.workers) {
+      if (worker.getFailure() != null) {
+        logError(
+            "Error processing Kafka records in sub-pipeline '" + worker.getName() + "'",
+            worker.getFailure());
+        setErrors(1);
+        stopPartitionWorkers();
+        setOutputDone();
+        stopAll();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private KafkaPartitionWorker getPartitionWorker(TopicPartition partition) {
+    // Hand a new partition to the worker with the fewest partitions
+    //
+    return data.partitionWorkers.computeIfAbsent(
+        partition,
+        p ->
+            data.workers.stream()
+                .min(
+                    Comparator.comparingLong(
+                        worker ->
+                            data.partitionWorkers.values().stream().filter(worker::equals).count()))
+                .orElseThrow());
+  }
+
+  private void pauseBusyPartitions() {
+    List<TopicPartition> pause = new ArrayList<>();
+    List<TopicPartition> resume = new ArrayList<>();
+    for (TopicPartition partition : data.consumer.assignment()) {
+      KafkaPartitionWorker worker = data.partitionWorkers.get(partition);
+      if (worker != null && worker.isBusy()) {
+        pause.add(partition);
+      } else {
+        resume.add(partition);
+      }
+    }
+    if (!pause.isEmpty()) {
+      data.consumer.pause(pause);
+    }
+    if (!resume.isEmpty()) {
+      data.consumer.resume(resume);
+    }
+  }
+
+  private Map<TopicPartition, OffsetAndMetadata> takeProcessedOffsets() {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    for (TopicPartition partition : new ArrayList<>(data.processedOffsets.keySet())) {
+      OffsetAndMetadata offset = data.processedOffsets.remove(partition);
+      // Skip the batches which finished after their partition was revoked
+      //
+      if (offset != null && data.partitionWorkers.containsKey(partition)) {
+        offsets.put(partition, offset);
+      }
+    }
+    return offsets;
+  }
+
+  private void commitProcessedOffsets() {
+    Map<TopicPartition, OffsetAndMetadata> offsets = takeProcessedOffsets();
+    if (!offsets.isEmpty()) {
+      data.consumer.commitAsync(
+          offsets,
+          (committed, e) -> {
+            if (e != null) {
+              logError("Error committing Kafka offsets " + offsets, e);
+            }
+          });
+    }
+  }
+
+  private void commitProcessedOffsetsSync() {
+    Map<TopicPartition, OffsetAndMetadata> offsets = takeProcessedOffsets();
+    if (!offsets.isEmpty()) {
+      try {
+        data.consumer.commitSync(offsets);
+      } catch (KafkaException e) {
+        logError("Error committing Kafka offsets " + offsets, e);
+      }
+    }
+  }
+
+  private void stopPartitionWorkers() {
+    for (KafkaPartitionWorker worker : data.workers) {
+      worker.stop(WORKER_STOP_MILLIS);
+    }
+  }
+
+  /** Commit the processed offsets of revoked partitions before another consumer gets them */
+  private class WorkersRebalanceListener implements ConsumerRebalanceListener {
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+      // Only the workers of the revoked partitions need to finish their batches
+      //
+      CompletableFuture<?>[] revokedWorkers =
+          partitions.stream()
+              .map(data.partitionWorkers::get)
+              .filter(Objects::nonNull)
+              .distinct()
+              .map(KafkaPartitionWorker::whenIdle)
+              .toArray(CompletableFuture[]::new);
+      try {
+        CompletableFuture.allOf(revokedWorkers).get(WORKER_STOP_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException | TimeoutException e) {
+        logError(
+            "The Kafka records of revoked partitions "
+                + partitions
+                + " were not processed in time, they will be consumed again",
+            e);
+      }
+      commitProcessedOffsetsSync();
+      partitions.forEach(data.partitionWorkers::remove);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+      // New partitions are handed to a worker when their first records arrive
+    }
+  }
+
+  /**
+   * Send a row which failed in the sub-pipeline to the error path.
+   *
+   * @param row the row created from the Kafka record
+   * @throws HopTransformException in case the row can't be written
+   */
+  void putSubPipelineError(Object[] row) throws HopTransformException {
+    synchronized (data.outputLock) {
+      putError(
+          data.outputRowMeta,
+          row,
+          1L,
+          "An error occurred while processing the subpipeline",
+          null,
+          "KAFKA001");
+    }
+  }
+
+  boolean errorHandlingConditionIsSatisfied() {
     // Added a check to be sure that lines collecting for error handling is limited
     // to the case of batchSize = 1.
     return getTransformMeta().isDoingErrorHandling() && data.batchSize == 1;
@@ -18,12 +18,15 @@
 package org.apache.hop.pipeline.transforms.kafka.consumer;
 
 import java.util.List;
+import java.util.Map;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.RowProducer;
 import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 
 @SuppressWarnings("java:S1104")
 public class KafkaConsumerInputData extends BaseTransformData implements ITransformData {
@@ -36,6 +39,16 @@ public class KafkaConsumerInputData extends BaseTransformData implements ITransf
   public boolean isKafkaConsumerClosing;
   public List<Object[]> incomingRowsBuffer;
 
+  /** The number of sub-pipelines processing the records of the assigned partitions */
+  public int nrPartitionWorkers;
+
+  public List<KafkaPartitionWorker> workers;
+  public Map<TopicPartition, KafkaPartitionWorker> partitionWorkers;
+  public Map<TopicPartition, OffsetAndMetadata> processedOffsets;
+
+  /** Rows from the sub-pipelines are written one at a time */
+  public final Object outputLock = new Object();
+
   /** */
   public KafkaConsumerInputData() {
     super();
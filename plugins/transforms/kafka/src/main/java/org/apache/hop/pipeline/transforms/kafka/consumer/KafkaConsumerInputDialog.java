@@ -106,6 +106,8 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
   protected TextVar wBatchSize;
   protected Label wlBatchDuration;
   protected TextVar wBatchDuration;
+  protected Label wlPartitionWorkers;
+  protected TextVar wPartitionWorkers;
 
   protected CTabFolder wTabFolder;
   protected CTabItem wSetupTab;
@@ -344,6 +346,7 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
     m.setExecutionDataProfile(wProfile.getText());
     m.setBatchSize(wBatchSize.getText());
     m.setBatchDuration(wBatchDuration.getText());
+    m.setPartitionWorkers(wPartitionWorkers.getText());
     m.setSubTransform(wSubTransform.getText());
     setTopicsFromTable();
 
@@ -374,7 +377,7 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
     wOffsetGroup.setLayout(flOffsetGroup);
 
     FormData fdOffsetGroup = new FormData();
-    fdOffsetGroup.top = new FormAttachment(wBatchSize, 15);
+    fdOffsetGroup.top = new FormAttachment(wPartitionWorkers, 15);
     fdOffsetGroup.left = new FormAttachment(0, 0);
     fdOffsetGroup.right = new FormAttachment(100, 0);
     wOffsetGroup.setLayoutData(fdOffsetGroup);
@@ -661,6 +664,29 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
     fdBatchSize.top = new FormAttachment(wlBatchSize, 0, SWT.CENTER);
     wBatchSize.setLayoutData(fdBatchSize);
 
+    wlPartitionWorkers = new Label(wBatchComp, SWT.RIGHT);
+    PropsUi.setLook(wlPartitionWorkers);
+    wlPartitionWorkers.setText(
+        BaseMessages.getString(PKG, "KafkaConsumerInputDialog.PartitionWorkers"));
+    wlPartitionWorkers.setToolTipText(
+        BaseMessages.getString(PKG, "KafkaConsumerInputDialog.PartitionWorkers.Tooltip"));
+    FormData fdlPartitionWorkers = new FormData();
+    fdlPartitionWorkers.left = new FormAttachment(0, 0);
+    fdlPartitionWorkers.top = new FormAttachment(wBatchSize, margin);
+    fdlPartitionWorkers.right = new FormAttachment(middle, -margin);
+    wlPartitionWorkers.setLayoutData(fdlPartitionWorkers);
+
+    wPartitionWorkers = new TextVar(variables, wBatchComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wPartitionWorkers);
+    wPartitionWorkers.setToolTipText(
+        BaseMessages.getString(PKG, "KafkaConsumerInputDialog.PartitionWorkers.Tooltip"));
+    wPartitionWorkers.addModifyListener(lsMod);
+    FormData fdPartitionWorkers = new FormData();
+    fdPartitionWorkers.left = new FormAttachment(wlPartitionWorkers, margin);
+    fdPartitionWorkers.right = new FormAttachment(100, 0);
+    fdPartitionWorkers.top = new FormAttachment(wlPartitionWorkers, 0, SWT.CENTER);
+    wPartitionWorkers.setLayoutData(fdPartitionWorkers);
+
     wBatchComp.layout();
     wBatchTab.setControl(wBatchComp);
   }
@@ -868,6 +894,7 @@ public class KafkaConsumerInputDialog extends BaseTransformDialog {
     wConsumerGroup.setText(Const.NVL(meta.getConsumerGroup(), ""));
     wBatchSize.setText(Const.NVL(meta.getBatchSize(), ""));
     wBatchDuration.setText(Const.NVL(meta.getBatchDuration(), ""));
+    wPartitionWorkers.setText(Const.NVL(meta.getPartitionWorkers(), ""));
 
     wbAutoCommit.setSelection(meta.isAutoCommit());
     wbManualCommit.setSelection(!meta.isAutoCommit());
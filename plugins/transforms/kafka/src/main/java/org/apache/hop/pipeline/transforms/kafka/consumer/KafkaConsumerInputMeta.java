@@ -87,6 +87,7 @@ public class KafkaConsumerInputMeta
   public static final String EXECUTION_DATA_PROFILE = "executionDataProfile";
   public static final String BATCH_SIZE = "batchSize";
   public static final String BATCH_DURATION = "batchDuration";
+  public static final String PARTITION_WORKERS = "partitionWorkers";
   public static final String DIRECT_BOOTSTRAP_SERVERS = "directBootstrapServers";
   public static final String ADVANCED_CONFIG = "advancedConfig";
   public static final String CONFIG_OPTION = "option";
@@ -119,6 +120,9 @@ public class KafkaConsumerInputMeta
   @Injection(name = SUB_TRANSFORM)
   protected String subTransform = "";
 
+  @Injection(name = "PARTITION_WORKERS")
+  protected String partitionWorkers = "1";
+
   @Injection(name = "DIRECT_BOOTSTRAP_SERVERS")
   private String directBootstrapServers;
 
@@ -234,6 +238,7 @@ public class KafkaConsumerInputMeta
     }
     setBatchSize(XmlHandler.getTagValue(transformNode, BATCH_SIZE));
     setBatchDuration(XmlHandler.getTagValue(transformNode, BATCH_DURATION));
+    setPartitionWorkers(XmlHandler.getTagValue(transformNode, PARTITION_WORKERS));
     setDirectBootstrapServers(XmlHandler.getTagValue(transformNode, DIRECT_BOOTSTRAP_SERVERS));
 
     String autoCommitValue = XmlHandler.getTagValue(transformNode, AUTO_COMMIT);
@@ -284,6 +289,7 @@ public class KafkaConsumerInputMeta
   public void setDefault() {
     batchSize = "1000";
     batchDuration = "1000";
+    partitionWorkers = "1";
   }
 
   public RowMeta getRowMeta(String origin, IVariables variables) throws HopTransformException {
@@ -331,6 +337,7 @@ public class KafkaConsumerInputMeta
     xml.append("    ").append(XmlHandler.addTagValue(SUB_TRANSFORM, getSubTransform()));
     xml.append("    ").append(XmlHandler.addTagValue(BATCH_SIZE, batchSize));
     xml.append("    ").append(XmlHandler.addTagValue(BATCH_DURATION, batchDuration));
+    xml.append("    ").append(XmlHandler.addTagValue(PARTITION_WORKERS, partitionWorkers));
     xml.append("    ")
         .append(XmlHandler.addTagValue(DIRECT_BOOTSTRAP_SERVERS, directBootstrapServers));
     xml.append("    ").append(XmlHandler.addTagValue(AUTO_COMMIT, autoCommit));
@@ -526,6 +533,16 @@ public class KafkaConsumerInputMeta
               transformMeta));
     }
 
+    String workers = variables.resolve(getPartitionWorkers());
+    if (StringUtils.isNotEmpty(workers) && Const.toInt(workers, -1) < 1) {
+      remarks.add(
+          new CheckResult(
+              ICheckResult.TYPE_RESULT_ERROR,
+              BaseMessages.getString(
+                  PKG, "KafkaConsumerInputMeta.CheckResult.NaN", "Parallel sub-pipelines"),
+              transformMeta));
+    }
+
     if (duration == 0 && size == 0) {
       remarks.add(
           new CheckResult(
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Runs batches of Kafka records through its own copy of the sub-pipeline on a separate thread. The
+ * records of a partition are always handed to the same worker so they are processed in order. Once
+ * a batch is processed, the offsets of its partitions are handed back to the transform to commit.
+ */
+public class KafkaPartitionWorker implements Runnable {
+
+  /** The number of batches a worker holds, the one being processed included */
+  public static final int MAX_PENDING_BATCHES = 2;
+
+  private final KafkaConsumerInput transform;
+  @Getter private final String name;
+  private final IRowMeta outputRowMeta;
+  private final Map<TopicPartition, OffsetAndMetadata> processedOffsets;
+  private final BlockingQueue<List<ConsumerRecord<Object, Object>>> batches;
+  private final Thread thread;
+
+  /** The number of batches handed to this worker which aren't processed yet */
+  private int pending;
+
+  /** Completed once the pending batches are processed */
+  private CompletableFuture<Void> idle;
+
+  @Getter private volatile KafkaConsumerInput.SubPipeline subPipeline;
+  @Getter private volatile Exception failure;
+  private volatile boolean stopped;
+
+  /**
+   * @param transform the Kafka consumer transform
+   * @param name the name of the worker thread and of its sub-pipeline
+   * @param outputRowMeta the layout of the rows created from the records
+   * @param processedOffsets the offsets to commit, shared by all workers
+   * @throws HopException in case the sub-pipeline can't be started
+   */
+  public KafkaPartitionWorker(
+      KafkaConsumerInput transform,
+      String name,
+      IRowMeta outputRowMeta,
+      Map<TopicPartition, OffsetAndMetadata> processedOffsets)
+      throws HopException {
+    this.transform = transform;
+    this.name = name;
+    this.outputRowMeta = outputRowMeta;
+    this.processedOffsets = processedOffsets;
+    this.batches = new LinkedBlockingQueue<>();
+    this.idle = CompletableFuture.completedFuture(null);
+    this.subPipeline = transform.startSubPipeline(name);
+    this.thread = new Thread(this, name);
+    this.thread.setDaemon(true);
+  }
+
+  public void start() {
+    thread.start();
+  }
+
+  /**
+   * Hand a batch of records to this worker. This never blocks: the transform pauses the partitions
+   * of busy workers instead.
+   *
+   * @param records the records of one or more partitions handled by this worker
+   */
+  public synchronized void addBatch(List<ConsumerRecord<Object, Object>> records) {
+    if (pending++ == 0) {
+      idle = new CompletableFuture<>();
+    }
+    batches.add(records);
+  }
+
+  /**
+   * @return true if the worker holds the maximum number of batches
+   */
+  public synchronized boolean isBusy() {
+    return pending >= MAX_PENDING_BATCHES;
+  }
+
+  /**
+   * @return true if all batches handed to this worker are processed
+   */
+  public synchronized boolean isIdle() {
+    return pending == 0;
+  }
+
+  /**
+   * @return a future which completes once the batches handed to this worker so far are processed,
+   *     or are dropped because the worker failed or stopped
+   */
+  public synchronized CompletableFuture<Void> whenIdle() {
+    return idle;
+  }
+
+  private synchronized void batchProcessed() {
+    if (pending > 0 && --pending == 0) {
+      idle.complete(null);
+    }
+  }
+
+  private synchronized void dropBatches() {
+    batches.clear();
+    pending = 0;
+    idle.complete(null);
+  }
+
+  /**
+   * Stop processing batches and wait for the batch being processed to finish.
+   *
+   * @param timeoutMillis the maximum time to wait
+   */
+  public void stop(long timeoutMillis) {
+    stopped = true;
+    batches.add(Collections.emptyList());
+    try {
+      thread.join(timeoutMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    dropBatches();
+    subPipeline.getExecutor().getPipeline().stopAll();
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (!stopped) {
+        List<ConsumerRecord<Object, Object>> records = batches.poll(100, TimeUnit.MILLISECONDS);
+        if (records == null || stopped) {
+          continue;
+        }
+        try {
+          processBatch(records);
+        } finally {
+          batchProcessed();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (Exception e) {
+      failure = e;
+      dropBatches();
+    }
+  }
+
+  private void processBatch(List<ConsumerRecord<Object, Object>> records) throws HopException {
+    List<Object[]> rows = new ArrayList<>(records.size());
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    for (ConsumerRecord<Object, Object> consumerRecord : records) {
+      Object[] row = transform.processMessageAsRow(consumerRecord);
+      subPipeline.getRowProducer().putRow(outputRowMeta, row);
+      rows.add(row);
+      offsets.put(
+          new TopicPartition(consumerRecord.topic(), consumerRecord.partition()),
+          new OffsetAndMetadata(consumerRecord.offset() + 1));
+    }
+
+    SingleThreadedPipelineExecutor executor = subPipeline.getExecutor();
+    executor.oneIteration();
+
+    boolean failed = executor.isStopped() || executor.getErrors() > 0;
+    if (failed) {
+      if (executor.getErrors() > 0 && transform.errorHandlingConditionIsSatisfied()) {
+        // Send the records to the error path, they are committed like any other
+        //
+        for (Object[] row : rows) {
+          transform.putSubPipelineError(row);
+        }
+      } else {
+        throw new HopException(
+            "An error occurred in sub-pipeline '"
+                + name
+                + "' processing "
+                + records.size()
+                + " records");
+      }
+    }
+    executor.buildExecutionSummary();
+
+    offsets.forEach(
+        (partition, offset) ->
+            processedOffsets.merge(partition, offset, (a, b) -> a.offset() >= b.offset() ? a : b));
+
+    if (failed) {
+      // To be safe we continue with a new copy of the sub-pipeline
+      //
+      executor.getPipeline().stopAll();
+      executor.dispose();
+      subPipeline = transform.startSubPipeline(name);
+    }
+  }
+}
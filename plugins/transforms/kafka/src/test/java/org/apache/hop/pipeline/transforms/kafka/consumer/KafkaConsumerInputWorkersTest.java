@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.kafka.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.apache.hop.core.logging.ILoggingObject;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.RowProducer;
+import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetCommitCallback;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+/** Process the records of a mock consumer with a number of partition workers */
+class KafkaConsumerInputWorkersTest {
+  private static final String TOPIC = "topic";
+  private static final TopicPartition PARTITION_0 = new TopicPartition(TOPIC, 0);
+  private static final TopicPartition PARTITION_1 = new TopicPartition(TOPIC, 1);
+
+  private TransformMockHelper<KafkaConsumerInputMeta, KafkaConsumerInputData> transformMockHelper;
+  private MockConsumer<Object, Object> consumer;
+  private KafkaConsumerInputData data;
+  private KafkaConsumerInput transform;
+
+  /** The last committed offset of every partition */
+  private final Map<TopicPartition, Long> commits = new ConcurrentHashMap<>();
+
+  /** The rows processed by the sub-pipelines, in the order they were processed */
+  private final List<Object[]> processed = Collections.synchronizedList(new ArrayList<>());
+
+  /** Sub-pipelines processing a record of a partition with a gate wait for the gate to open */
+  private final Map<Integer, CountDownLatch> gates = new ConcurrentHashMap<>();
+
+  private final Map<Integer, CountDownLatch> gatesReached = new ConcurrentHashMap<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    transformMockHelper =
+        new TransformMockHelper<>(
+            "KAFKA WORKERS TEST", KafkaConsumerInputMeta.class, KafkaConsumerInputData.class);
+    when(transformMockHelper.logChannelFactory.create(any(), any(ILoggingObject.class)))
+        .thenReturn(transformMockHelper.iLogChannel);
+    when(transformMockHelper.pipeline.isRunning()).thenReturn(true);
+
+    KafkaConsumerInputMeta meta = transformMockHelper.iTransformMeta;
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("key"));
+    rowMeta.addValueMeta(new ValueMetaString("message"));
+    rowMeta.addValueMeta(new ValueMetaString("topic"));
+    rowMeta.addValueMeta(new ValueMetaInteger("partition"));
+    rowMeta.addValueMeta(new ValueMetaInteger("offset"));
+    rowMeta.addValueMeta(new ValueMetaInteger("timestamp"));
+    when(meta.getRowMeta(any(), any())).thenReturn(rowMeta);
+    when(meta.getTopics()).thenReturn(List.of(TOPIC));
+    when(meta.getBatchSize()).thenReturn("100");
+    when(meta.getPartitionWorkers()).thenReturn("2");
+
+    consumer =
+        new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+          @Override
+          public synchronized void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+            offsets.forEach((partition, offset) -> commits.put(partition, offset.offset()));
+            super.commitSync(offsets);
+          }
+
+          @Override
+          public synchronized void commitAsync(
+              Map<TopicPartition, OffsetAndMetadata> offsets, OffsetCommitCallback callback) {
+            offsets.forEach((partition, offset) -> commits.put(partition, offset.offset()));
+            super.commitAsync(offsets, callback);
+          }
+        };
+
+    data = new KafkaConsumerInputData();
+    transform =
+        new KafkaConsumerInput(
+            transformMockHelper.transformMeta,
+            meta,
+            data,
+            0,
+            transformMockHelper.pipelineMeta,
+            transformMockHelper.pipeline) {
+          @Override
+          SubPipeline startSubPipeline(String name) {
+            return createSubPipeline();
+          }
+        };
+
+    try (MockedStatic<KafkaConsumerInput> consumerInput = mockStatic(KafkaConsumerInput.class)) {
+      consumerInput
+          .when(() -> KafkaConsumerInput.buildKafkaConsumer(any(), any()))
+          .thenReturn(consumer);
+      assertTrue(transform.init());
+    }
+
+    consumer.rebalance(List.of(PARTITION_0, PARTITION_1));
+    consumer.updateBeginningOffsets(Map.of(PARTITION_0, 0L, PARTITION_1, 0L));
+  }
+
+  @AfterEach
+  void tearDown() {
+    gates.values().forEach(CountDownLatch::countDown);
+    transform.dispose();
+    transformMockHelper.cleanUp();
+  }
+
+  /** A sub-pipeline which keeps the rows it processes, waiting at the gates of the partitions */
+  private KafkaConsumerInput.SubPipeline createSubPipeline() {
+    RowProducer rowProducer = mock(RowProducer.class);
+    SingleThreadedPipelineExecutor executor = mock(SingleThreadedPipelineExecutor.class);
+    List<Object[]> rows = new ArrayList<>();
+    try {
+      doAnswer(invocation -> rows.add(invocation.getArgument(1)))
+          .when(rowProducer)
+          .putRow(any(), any());
+      doAnswer(
+              invocation -> {
+                for (Object[] row : rows) {
+                  int partition = ((Long) row[3]).intValue();
+                  CountDownLatch gate = gates.get(partition);
+                  if (gate != null) {
+                    gatesReached.get(partition).countDown();
+                    gate.await(10, TimeUnit.SECONDS);
+                  }
+                }
+                processed.addAll(rows);
+                rows.clear();
+                return true;
+              })
+          .when(executor)
+          .oneIteration();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+    when(executor.getPipeline()).thenReturn(mock(Pipeline.class));
+    return new KafkaConsumerInput.SubPipeline(rowProducer, executor);
+  }
+
+  private void closeGate(int partition) {
+    gates.put(partition, new CountDownLatch(1));
+    gatesReached.put(partition, new CountDownLatch(1));
+  }
+
+  private void addRecords(TopicPartition partition, long firstOffset, int nrRecords) {
+    for (long offset = firstOffset; offset < firstOffset + nrRecords; offset++) {
+      consumer.addRecord(
+          new ConsumerRecord<>(
+              partition.topic(), partition.partition(), offset, "key", "message-" + offset));
+    }
+  }
+
+  private long countProcessed(TopicPartition partition) {
+    synchronized (processed) {
+      return processed.stream().filter(row -> (Long) row[3] == partition.partition()).count();
+    }
+  }
+
+  private void processUntil(BooleanSupplier condition) throws Exception {
+    long deadline = System.currentTimeMillis() + 10000L;
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.currentTimeMillis() < deadline, "Timed out processing the records");
+      assertTrue(transform.processRow());
+    }
+  }
+
+  @Test
+  void testRecordsOfAPartitionAreProcessedInOrder() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      addRecords(PARTITION_0, i * 20L, 20);
+      addRecords(PARTITION_1, i * 20L, 20);
+      transform.processRow();
+    }
+    processUntil(() -> processed.size() == 200);
+
+    // Both partitions are handled by their own worker
+    //
+    assertNotSame(data.partitionWorkers.get(PARTITION_0), data.partitionWorkers.get(PARTITION_1));
+
+    long[] nextOffsets = new long[2];
+    synchronized (processed) {
+      for (Object[] row : processed) {
+        int partition = ((Long) row[3]).intValue();
+        assertEquals(nextOffsets[partition]++, (long) (Long) row[4]);
+      }
+    }
+    assertEquals(100L, nextOffsets[0]);
+    assertEquals(100L, nextOffsets[1]);
+
+    processUntil(() -> commits.size() == 2 && commits.values().stream().allMatch(o -> o == 100L));
+  }
+
+  @Test
+  void testOffsetsAreCommittedAfterProcessing() throws Exception {
+    closeGate(0);
+    addRecords(PARTITION_0, 0L, 10);
+    processUntil(() -> gatesReached.get(0).getCount() == 0);
+
+    // The records are polled but not processed yet
+    //
+    for (int i = 0; i < 10; i++) {
+      transform.processRow();
+    }
+    assertFalse(commits.containsKey(PARTITION_0));
+    assertEquals(0L, countProcessed(PARTITION_0));
+
+    gates.get(0).countDown();
+    processUntil(() -> commits.containsKey(PARTITION_0));
+    assertEquals(10L, commits.get(PARTITION_0));
+    assertEquals(10L, countProcessed(PARTITION_0));
+  }
+
+  @Test
+  void testRevokedPartitionsAreCommittedOnceProcessed() throws Exception {
+    closeGate(1);
+    addRecords(PARTITION_0, 0L, 10);
+    addRecords(PARTITION_1, 0L, 10);
+    processUntil(() -> countProcessed(PARTITION_0) == 10 && gatesReached.get(1).getCount() == 0);
+
+    // Revoking the first partition doesn't wait for the worker of the second one
+    //
+    assertTimeout(Duration.ofSeconds(5), () -> consumer.rebalance(List.of(PARTITION_1)));
+    assertEquals(10L, commits.get(PARTITION_0));
+    assertFalse(data.partitionWorkers.containsKey(PARTITION_0));
+
+    // Revoking the second partition waits for its batch to be processed
+    //
+    Thread revoke = new Thread(() -> consumer.rebalance(List.of()));
+    revoke.start();
+    revoke.join(500);
+    assertTrue(revoke.isAlive());
+    assertFalse(commits.containsKey(PARTITION_1));
+
+    gates.get(1).countDown();
+    revoke.join(10000);
+    assertFalse(revoke.isAlive());
+    assertEquals(10L, commits.get(PARTITION_1));
+    assertEquals(10L, countProcessed(PARTITION_1));
+    assertTrue(data.partitionWorkers.isEmpty());
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * A HyperLogLog sketch to estimate the number of distinct values in a fixed amount of memory. Two
+ * sketches with the same precision can be merged, which makes it possible to combine the partial
+ * aggregates of several transform copies.
+ *
+ * <p>The relative error is about 1.04 / sqrt(2^precision): 1.6% with the default precision of 12,
+ * which uses 4KB per group.
+ */
+public class HyperLogLog implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  public static final int DEFAULT_PRECISION = 12;
+  public static final int MIN_PRECISION = 4;
+  public static final int MAX_PRECISION = 16;
+
+  private final int precision;
+  private final byte[] registers;
+
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  /**
+   * @param precision The number of bits of the hash which select a register, between 4 and 16
+   */
+  public HyperLogLog(int precision) {
+    if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+      throw new IllegalArgumentException(
+          "The precision needs to be between "
+              + MIN_PRECISION
+              + " and "
+              + MAX_PRECISION
+              + ", not "
+              + precision);
+    }
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  /**
+   * Create a sketch from the registers of another one, see {@link #getRegisters()}.
+   *
+   * @param registers The registers, the number of registers is a power of 2
+   */
+  HyperLogLog(byte[] registers) {
+    this(Integer.numberOfTrailingZeros(registers.length));
+    if (registers.length != this.registers.length) {
+      throw new IllegalArgumentException("Invalid number of registers: " + registers.length);
+    }
+    System.arraycopy(registers, 0, this.registers, 0, registers.length);
+  }
+
+  /**
+   * @return The registers of the sketch, for example to write it to a spill file
+   */
+  byte[] getRegisters() {
+    return registers;
+  }
+
+  /**
+   * Add a value to the sketch. Nulls are ignored.
+   *
+   * @param value A value in normal storage
+   */
+  public void add(Object value) {
+    if (value != null) {
+      addHash(hash(value));
+    }
+  }
+
+  void addHash(long hash) {
+    int index = (int) (hash >>> (64 - precision));
+    // The position of the first 1 bit in the remaining bits, a sentinel bit limits the count
+    long remaining = (hash << precision) | (1L << (precision - 1));
+    byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+    if (registers[index] < rank) {
+      registers[index] = rank;
+    }
+  }
+
+  /**
+   * Merge another sketch into this one, afterwards this sketch estimates the union of both.
+   *
+   * @param other The sketch to merge
+   */
+  public void merge(HyperLogLog other) {
+    if (other.precision != precision) {
+      throw new IllegalArgumentException("Can't merge sketches with a different precision");
+    }
+    for (int i = 0; i < registers.length; i++) {
+      if (registers[i] < other.registers[i]) {
+        registers[i] = other.registers[i];
+      }
+    }
+  }
+
+  /**
+   * @return The estimated number of distinct values
+   */
+  public long estimate() {
+    int m = registers.length;
+    double sum = 0.0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+    double estimate = alpha(m) * m * m / sum;
+
+    // Linear counting is more accurate for small cardinalities
+    //
+    if (estimate <= 2.5 * m && zeros > 0) {
+      estimate = m * Math.log((double) m / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  private static double alpha(int m) {
+    switch (m) {
+      case 16:
+        return 0.673;
+      case 32:
+        return 0.697;
+      case 64:
+        return 0.709;
+      default:
+        return 0.7213 / (1.0 + 1.079 / m);
+    }
+  }
+
+  /**
+   * @return The precision of this sketch
+   */
+  public int getPrecision() {
+    return precision;
+  }
+
+  /** A 64-bit hash which is the same for equal values of the same data type */
+  static long hash(Object value) {
+    long hash;
+    if (value instanceof Long longValue) {
+      hash = longValue;
+    } else if (value instanceof Double doubleValue) {
+      hash = Double.doubleToLongBits(doubleValue);
+    } else if (value instanceof String string) {
+      hash = 0xcbf29ce484222325L;
+      for (int i = 0; i < string.length(); i++) {
+        hash = (hash ^ string.charAt(i)) * 0x100000001b3L;
+      }
+    } else if (value instanceof byte[] bytes) {
+      hash = 0xcbf29ce484222325L;
+      for (byte b : bytes) {
+        hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+      }
+    } else if (value instanceof Date date) {
+      hash = date.getTime();
+    } else if (value instanceof BigDecimal bigDecimal) {
+      hash = bigDecimal.stripTrailingZeros().hashCode();
+    } else {
+      hash = value.hashCode();
+    }
+
+    // Spread the bits (the 64-bit finalizer of MurmurHash3)
+    //
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -17,14 +17,26 @@
 
 package org.apache.hop.pipeline.transforms.memgroupby;
 
+import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.ConcatString;
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.CountAll;
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.CountAny;
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.CountDistinct;
+import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.CountDistinctApproximate;
 import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.Percentile;
+import static org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByMeta.GroupType.StandardDeviation;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.StringJoiner;
@@ -39,9 +51,13 @@ import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.RowMeta;
 import org.apache.hop.core.row.ValueDataUtil;
 import org.apache.hop.core.row.value.ValueMetaBase;
+import org.apache.hop.core.row.value.ValueMetaBinary;
 import org.apache.hop.core.row.value.ValueMetaInteger;
 import org.apache.hop.core.row.value.ValueMetaNumber;
 import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.spill.SpillFile;
+import org.apache.hop.core.spill.SpillFileReader;
+import org.apache.hop.core.spill.SpillFileWriter;
 import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -54,6 +70,18 @@ import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByData.HashEntry
 public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupByData> {
   private static final Class<?> PKG = MemoryGroupByMeta.class;
 
+  /** The number of partitions of the hybrid hash aggregation, a power of 2 */
+  static final int NR_PARTITIONS = 16;
+
+  /** Spilled partitions are split this many times at most */
+  static final int MAX_SPILL_LEVEL = 3;
+
+  /** The default free memory percentage when spilling without a group limit */
+  static final int DEFAULT_FREE_MEMORY_LIMIT = 25;
+
+  /** Don't spill because of low free memory with fewer groups than this in memory */
+  private static final int MIN_SPILL_GROUPS = 1000;
+
   private boolean allNullsAreZero = false;
   private boolean minNullIsValued = false;
 
@@ -73,16 +101,21 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     Object[] r = getRow(); // get row!
 
     if (first) {
-      if ((r == null) && (!meta.isAlwaysGivingBackOneRow())) {
-        setOutputDone();
-        return false;
-      }
-
       String val = getVariable(Const.HOP_AGGREGATION_ALL_NULLS_ARE_ZERO, "N");
       allNullsAreZero = ValueMetaBase.convertStringToBoolean(val);
       val = getVariable(Const.HOP_AGGREGATION_MIN_NULL_IS_VALUED, "N");
       minNullIsValued = ValueMetaBase.convertStringToBoolean(val);
 
+      if ((r == null) && (!meta.isAlwaysGivingBackOneRow())) {
+        // The other copies can still have groups to send out
+        //
+        if (data.combiner != null && combinePartialAggregates()) {
+          handleLastOfGroup();
+        }
+        setOutputDone();
+        return false;
+      }
+
       // What is the output looking like?
       //
       data.inputRowMeta = getInputRowMeta();
@@ -148,6 +181,10 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
       // Initialize the group metadata
       //
       initGroupMeta(data.inputRowMeta);
+
+      if (meta.isSpillingToDisk()) {
+        initSpilling();
+      }
     }
 
     if (first) {
@@ -165,7 +202,9 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     // Here is where we start to do the real work...
     //
     if (r == null) { // no more input to be expected... (or none received in the first place)
-      handleLastOfGroup();
+      if (data.combiner == null || combinePartialAggregates()) {
+        handleLastOfGroup();
+      }
 
       setOutputDone();
       return false;
@@ -188,27 +227,24 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   private void handleLastOfGroup() throws HopException {
     // Dump the content of the map...
     //
-    for (HashEntry entry : data.map.keySet()) {
-      Aggregate aggregate = data.map.get(entry);
-      Object[] aggregateResult = getAggregateResult(aggregate);
+    boolean empty;
+    if (data.partitions != null) {
+      empty = outputPartitions(data.partitions) == 0;
 
-      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
-      int index = 0;
-      for (int i = 0; i < data.groupMeta.size(); i++) {
-        outputRowData[index++] =
-            data.groupMeta.getValueMeta(i).convertToNormalStorageType(entry.getGroupData()[i]);
-      }
-      for (int i = 0; i < data.aggMeta.size(); i++) {
-        outputRowData[index++] =
-            data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
+      // Start over for the next batch of rows
+      //
+      data.partitions = createPartitions(0);
+    } else {
+      for (Map.Entry<HashEntry, Aggregate> entry : data.map.entrySet()) {
+        outputGroup(entry.getKey(), entry.getValue());
       }
-      putRow(data.outputRowMeta, outputRowData);
+      empty = data.map.isEmpty();
     }
 
     // What if we always need to give back one row?
     // This means we give back 0 for count all, count distinct, null for everything else
     //
-    if (data.map.isEmpty() && meta.isAlwaysGivingBackOneRow()) {
+    if (empty && meta.isAlwaysGivingBackOneRow()) {
       Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
       int index = 0;
       for (int i = 0; i < data.groupMeta.size(); i++) {
@@ -218,7 +254,8 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
         GAggregate aggregate = meta.getAggregates().get(i);
         if (aggregate.getType() == CountAll
             || aggregate.getType() == CountAny
-            || aggregate.getType() == CountDistinct) {
+            || aggregate.getType() == CountDistinct
+            || aggregate.getType() == CountDistinctApproximate) {
           outputRowData[index++] = 0L;
         } else {
           outputRowData[index++] = null;
@@ -228,6 +265,22 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     }
   }
 
+  private void outputGroup(HashEntry entry, Aggregate aggregate) throws HopException {
+    Object[] aggregateResult = getAggregateResult(aggregate);
+
+    Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
+    int index = 0;
+    for (int i = 0; i < data.groupMeta.size(); i++) {
+      outputRowData[index++] =
+          data.groupMeta.getValueMeta(i).convertToNormalStorageType(entry.getGroupData()[i]);
+    }
+    for (int i = 0; i < data.aggMeta.size(); i++) {
+      outputRowData[index++] =
+          data.aggMeta.getValueMeta(i).convertToNormalStorageType(aggregateResult[i]);
+    }
+    putRow(data.outputRowMeta, outputRowData);
+  }
+
   /**
    * Used for junits in MemoryGroupByAggregationNullsTest
    *
@@ -242,7 +295,17 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     }
     HashEntry entry = data.getHashEntry(groupData);
 
-    Aggregate aggregate = data.map.get(entry);
+    // With hybrid hash aggregation the group lives in the map of its partition
+    //
+    Map<HashEntry, Aggregate> map = data.map;
+    if (data.partitions != null) {
+      SpillPartition partition = data.partitions[getPartitionNr(entry, 0)];
+      partition.added();
+      map = partition.getMap();
+    }
+
+    boolean newGroup = false;
+    Aggregate aggregate = map.get(entry);
     if (aggregate == null) {
       // Create a new value...
       //
@@ -251,7 +314,8 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
       // Store it in the map!
       //
-      data.map.put(entry, aggregate);
+      map.put(entry, aggregate);
+      newGroup = true;
     }
 
     for (int i = 0; i < data.subjectnrs.length; i++) {
@@ -315,6 +379,11 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
           }
           aggregate.counts[i] = aggregate.distinctObjs[i].size();
           break;
+        case CountDistinctApproximate:
+          if (!subjMeta.isNull(subj)) {
+            ((HyperLogLog) value).add(subjMeta.convertToNormalStorageType(subj));
+          }
+          break;
         case CountAll:
           if (!subjMeta.isNull(subj)) {
             aggregate.counts[i]++;
@@ -390,6 +459,622 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
           break;
       }
     }
+
+    // Only spill after the aggregate is updated
+    //
+    if (data.partitions != null) {
+      spillIfNeeded(data.partitions, newGroup);
+    }
+  }
+
+  /**
+   * Merge a partial aggregate into another one. The partial aggregate needs to be calculated over
+   * rows which came after the rows of the target, this keeps the first and last values right.
+   *
+   * @param target The aggregate to update
+   * @param partial The partial aggregate of later rows
+   * @throws HopValueException In case of a conversion error
+   */
+  @SuppressWarnings("unchecked")
+  void mergeAggregate(Aggregate target, Aggregate partial) throws HopValueException {
+    for (int i = 0; i < data.subjectnrs.length; i++) {
+      IValueMeta valueMeta = data.aggMeta.getValueMeta(i);
+      GAggregate agg = meta.getAggregates().get(i);
+      Object value = target.agg[i];
+      Object other = partial.agg[i];
+
+      switch (agg.getType()) {
+        case Sum:
+          target.agg[i] = ValueDataUtil.sum(valueMeta, value, valueMeta, other);
+          break;
+        case Average:
+          target.agg[i] = ValueDataUtil.sum(valueMeta, value, valueMeta, other);
+          target.counts[i] += partial.counts[i];
+          break;
+        case Median, Percentile:
+          ((List<Double>) value).addAll((List<Double>) other);
+          break;
+        case StandardDeviation:
+          mergeStandardDeviation(target, partial, i);
+          break;
+        case CountDistinct:
+          if (partial.distinctObjs != null && partial.distinctObjs[i] != null) {
+            if (target.distinctObjs == null) {
+              target.distinctObjs = new Set[meta.getAggregates().size()];
+            }
+            if (target.distinctObjs[i] == null) {
+              target.distinctObjs[i] = partial.distinctObjs[i];
+            } else {
+              target.distinctObjs[i].addAll(partial.distinctObjs[i]);
+            }
+            target.counts[i] = target.distinctObjs[i].size();
+          }
+          break;
+        case CountDistinctApproximate:
+          ((HyperLogLog) value).merge((HyperLogLog) other);
+          break;
+        case CountAll, CountAny:
+          target.counts[i] += partial.counts[i];
+          break;
+        case Minimum:
+          boolean otherIsNull = valueMeta.isNull(other);
+          boolean valueIsNull = valueMeta.isNull(value);
+          if (minNullIsValued || (!otherIsNull && !valueIsNull)) {
+            target.agg[i] = valueMeta.compare(other, value) < 0 ? other : value;
+          } else if (valueIsNull && !otherIsNull) {
+            target.agg[i] = other;
+          }
+          break;
+        case Maximum:
+          if (valueMeta.compare(other, value) > 0) {
+            target.agg[i] = other;
+          }
+          break;
+        case First:
+          if (value == null && !valueMeta.isNull(other)) {
+            target.agg[i] = other;
+          }
+          break;
+        case Last:
+          if (!valueMeta.isNull(other)) {
+            target.agg[i] = other;
+          }
+          break;
+        case FirstIncludingNull:
+          if (target.counts[i] == 0) {
+            target.agg[i] = other;
+            target.counts[i] = partial.counts[i];
+          }
+          break;
+        case LastIncludingNull:
+          target.agg[i] = other;
+          break;
+        case ConcatComma, ConcatString:
+          StringBuilder sb = (StringBuilder) value;
+          StringBuilder otherSb = (StringBuilder) other;
+          if (!otherSb.isEmpty()) {
+            if (!sb.isEmpty()) {
+              String separator = ", ";
+              if (agg.getType() == ConcatString) {
+                separator = Utils.isEmpty(agg.getValueField()) ? "" : resolve(agg.getValueField());
+              }
+              sb.append(separator);
+            }
+            sb.append(otherSb);
+          }
+          break;
+        case ConcatDistinct:
+          ((SortedSet<Object>) value).addAll((SortedSet<Object>) other);
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  /** Combine the running mean and sum of squared differences of two partial aggregates */
+  private void mergeStandardDeviation(Aggregate target, Aggregate partial, int i) {
+    long targetCount = target.counts[i];
+    long partialCount = partial.counts[i];
+    if (partialCount == 0) {
+      return;
+    }
+    if (targetCount == 0) {
+      target.agg[i] = partial.agg[i];
+      target.mean[i] = partial.mean[i];
+      target.counts[i] = partialCount;
+      return;
+    }
+    long count = targetCount + partialCount;
+    double delta = partial.mean[i] - target.mean[i];
+    double targetSum = target.agg[i] == null ? 0.0 : (Double) target.agg[i];
+    double partialSum = partial.agg[i] == null ? 0.0 : (Double) partial.agg[i];
+
+    target.agg[i] =
+        targetSum + partialSum + delta * delta * ((double) targetCount * partialCount / count);
+    target.mean[i] = target.mean[i] + delta * partialCount / count;
+    target.counts[i] = count;
+  }
+
+  private void initSpilling() throws HopException {
+    data.spillGroupLimit = Const.toInt(resolve(meta.getSpillGroupLimit()), -1);
+    data.freeMemoryPctLimit = Const.toInt(resolve(meta.getFreeMemoryLimit()), -1);
+    if (data.spillGroupLimit <= 0 && data.freeMemoryPctLimit <= 0) {
+      data.freeMemoryPctLimit = DEFAULT_FREE_MEMORY_LIMIT;
+    }
+    data.spillDirectory =
+        Const.NVL(resolve(meta.getSpillDirectory()), System.getProperty("java.io.tmpdir"));
+    data.spillCodec = SpillFile.getCodecName(this);
+    data.spillDictionary = SpillFile.isDictionaryEncoding(this);
+
+    data.partitions = createPartitions(0);
+  }
+
+  private static SpillPartition[] createPartitions(int level) {
+    SpillPartition[] partitions = new SpillPartition[NR_PARTITIONS];
+    for (int i = 0; i < partitions.length; i++) {
+      partitions[i] = new SpillPartition(level);
+    }
+    return partitions;
+  }
+
+  /**
+   * Every level of partitioning uses different bits of the hash code: the groups of a spilled
+   * partition are spread over all the partitions of the next level.
+   */
+  static int getPartitionNr(HashEntry entry, int level) {
+    int hash = entry.hashCode() + level * 0x9E3779B9;
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return hash & (NR_PARTITIONS - 1);
+  }
+
+  private static long getNrGroupsInMemory(SpillPartition[] partitions) {
+    long nrGroups = 0;
+    for (SpillPartition partition : partitions) {
+      nrGroups += partition.getMap().size();
+    }
+    return nrGroups;
+  }
+
+  private void spillIfNeeded(SpillPartition[] partitions, boolean newGroup) throws HopException {
+    if (partitions[0].getLevel() >= MAX_SPILL_LEVEL) {
+      // Give up partitioning, the groups probably have the same hash code
+      return;
+    }
+    boolean spill = false;
+    if (newGroup && data.spillGroupLimit > 0) {
+      spill = getNrGroupsInMemory(partitions) > data.spillGroupLimit;
+    }
+
+    // Check the free memory every 1000 rows...
+    //
+    if (data.freeMemoryPctLimit > 0 && ++data.freeCounter >= 1000) {
+      data.freeCounter = 0;
+      data.freeMemoryPct = Const.getPercentageFreeMemory();
+      spill |=
+          data.freeMemoryPct < data.freeMemoryPctLimit
+              && getNrGroupsInMemory(partitions) >= MIN_SPILL_GROUPS;
+    }
+
+    if (spill) {
+      spillPartition(getColdestPartition(partitions));
+    }
+  }
+
+  /**
+   * The partition with the lowest aggregation ratio gains the least from staying in memory. Only
+   * partitions with at least an average number of groups are considered so that every spill frees
+   * up a fair share of the memory.
+   */
+  private static SpillPartition getColdestPartition(SpillPartition[] partitions) {
+    long averageSize = getNrGroupsInMemory(partitions) / partitions.length;
+    SpillPartition coldest = null;
+    for (SpillPartition partition : partitions) {
+      if (partition.getMap().isEmpty() || partition.getMap().size() < averageSize) {
+        continue;
+      }
+      if (coldest == null
+          || partition.getAggregationRatio() < coldest.getAggregationRatio()
+          || (partition.getAggregationRatio() == coldest.getAggregationRatio()
+              && partition.getMap().size() > coldest.getMap().size())) {
+        coldest = partition;
+      }
+    }
+    return coldest;
+  }
+
+  /** Write the partial aggregates of the partition to a new spill file */
+  private void spillPartition(SpillPartition partition) throws HopException {
+    int groupSize = data.groupMeta.size();
+    int nrGroups = partition.getMap().size();
+    Path file = SpillFile.createTempFile(data.spillDirectory, "memgroupby");
+    IRowMeta spillRowMeta = getSpillRowMeta();
+    try (SpillFileWriter writer =
+        new SpillFileWriter(file, spillRowMeta, data.spillCodec, data.spillDictionary)) {
+      for (Map.Entry<HashEntry, Aggregate> entry : partition.getMap().entrySet()) {
+        Object[] row = new Object[spillRowMeta.size()];
+        System.arraycopy(entry.getKey().getGroupData(), 0, row, 0, groupSize);
+        writeState(entry.getValue(), row, groupSize);
+        writer.writeRow(row);
+      }
+    } catch (IOException | HopException e) {
+      SpillFile.delete(file);
+      throw new HopException("Unable to spill groups to file " + file, e);
+    }
+    partition.spilled(file);
+    data.nrSpillFiles++;
+
+    if (isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "MemoryGroupBy.Log.SpilledPartition",
+              Integer.toString(nrGroups),
+              Integer.toString(partition.getLevel()),
+              file.toString()));
+    }
+  }
+
+  /**
+   * Send out the groups of all partitions. The partitions in memory go first to free up memory,
+   * then the spilled partitions are aggregated one by one.
+   *
+   * @return The number of groups
+   */
+  private long outputPartitions(SpillPartition[] partitions) throws HopException {
+    long nrGroups = 0;
+    for (SpillPartition partition : partitions) {
+      if (!partition.isSpilled()) {
+        for (Map.Entry<HashEntry, Aggregate> entry : partition.getMap().entrySet()) {
+          outputGroup(entry.getKey(), entry.getValue());
+          nrGroups++;
+        }
+        partition.getMap().clear();
+      }
+    }
+
+    // The groups of a spilled partition which are still in memory are the most recent ones:
+    // write them last so that only one partition is in memory at a time
+    //
+    for (SpillPartition partition : partitions) {
+      if (partition.isSpilled() && !partition.getMap().isEmpty()) {
+        spillPartition(partition);
+      }
+    }
+    for (SpillPartition partition : partitions) {
+      if (partition.isSpilled()) {
+        nrGroups += aggregateSpilledPartition(partition);
+      }
+    }
+    return nrGroups;
+  }
+
+  /**
+   * Aggregate the spill files of a partition over the partitions of the next level, which can be
+   * spilled in turn.
+   *
+   * @return The number of groups
+   */
+  private long aggregateSpilledPartition(SpillPartition partition) throws HopException {
+    SpillPartition[] children = createPartitions(partition.getLevel() + 1);
+    int groupSize = data.groupMeta.size();
+    try {
+      for (Path file : partition.getFiles()) {
+        try (SpillFileReader reader = new SpillFileReader(file, getSpillRowMeta())) {
+          Object[] row;
+          while ((row = reader.readRow()) != null) {
+            HashEntry entry = data.getHashEntry(Arrays.copyOf(row, groupSize));
+            mergeIntoPartitions(children, entry, readState(row, groupSize));
+          }
+        } catch (IOException e) {
+          throw new HopException("Unable to read spill file " + file, e);
+        }
+        SpillFile.delete(file);
+      }
+      partition.getFiles().clear();
+
+      return outputPartitions(children);
+    } finally {
+      MemoryGroupByData.deleteSpillFiles(new SpillPartition[] {partition});
+      MemoryGroupByData.deleteSpillFiles(children);
+    }
+  }
+
+  /**
+   * The layout of the rows in the spill files: the group fields followed by the state of every
+   * aggregate. The state is written with the value metadata like the values of any other row: a
+   * value, a counter and for the standard deviation the mean. Collections like the values of a
+   * median or the distinct values are kept in a binary value.
+   */
+  private IRowMeta getSpillRowMeta() {
+    if (data.spillRowMeta != null) {
+      return data.spillRowMeta;
+    }
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addRowMeta(data.groupMeta);
+    data.spillElementMetas = new IValueMeta[data.subjectnrs.length];
+    for (int i = 0; i < data.subjectnrs.length; i++) {
+      IValueMeta aggValueMeta = data.aggMeta.getValueMeta(i);
+      String name = "aggregate_" + i;
+      IValueMeta stateMeta;
+      switch (meta.getAggregates().get(i).getType()) {
+        case Sum, Average, StandardDeviation:
+          // Calculated values are always in normal storage
+          stateMeta = aggValueMeta.clone();
+          stateMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+          break;
+        case First, Last, FirstIncludingNull, LastIncludingNull, Minimum, Maximum:
+          // Input values, in the storage type of the input field
+          stateMeta = aggValueMeta.clone();
+          break;
+        case ConcatComma, ConcatString:
+          stateMeta = new ValueMetaString();
+          break;
+        case CountDistinct:
+          IValueMeta subjMeta = data.inputRowMeta.getValueMeta(data.subjectnrs[i]);
+          IValueMeta elementMeta;
+          if (subjMeta.isBinary()) {
+            // Binary values are kept as strings in the distinct set
+            elementMeta = new ValueMetaString(subjMeta.getName());
+          } else {
+            elementMeta = subjMeta.clone();
+            elementMeta.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+          }
+          data.spillElementMetas[i] = elementMeta;
+          stateMeta = new ValueMetaBinary();
+          break;
+        case ConcatDistinct:
+          data.spillElementMetas[i] = new ValueMetaString(aggValueMeta.getName());
+          stateMeta = new ValueMetaBinary();
+          break;
+        default:
+          stateMeta = new ValueMetaBinary();
+          break;
+      }
+      stateMeta.setName(name);
+      rowMeta.addValueMeta(stateMeta);
+      rowMeta.addValueMeta(new ValueMetaInteger(name + "_count"));
+      if (meta.getAggregates().get(i).getType() == StandardDeviation) {
+        rowMeta.addValueMeta(new ValueMetaNumber(name + "_mean"));
+      }
+    }
+    data.spillRowMeta = rowMeta;
+    return rowMeta;
+  }
+
+  /**
+   * Put the state of an aggregate in a row of a spill file
+   *
+   * @param aggregate The aggregate
+   * @param row The spill row
+   * @param index The index of the first state value in the row
+   */
+  @SuppressWarnings("unchecked")
+  private void writeState(Aggregate aggregate, Object[] row, int index) throws HopException {
+    for (int i = 0; i < data.subjectnrs.length; i++) {
+      GAggregate agg = meta.getAggregates().get(i);
+      Object value = aggregate.agg[i];
+      switch (agg.getType()) {
+        case Median, Percentile:
+          List<Double> numbers = (List<Double>) value;
+          ByteBuffer buffer = ByteBuffer.allocate(numbers.size() * Double.BYTES);
+          for (Double number : numbers) {
+            buffer.putDouble(number);
+          }
+          row[index] = buffer.array();
+          break;
+        case CountDistinctApproximate:
+          row[index] = ((HyperLogLog) value).getRegisters();
+          break;
+        case CountDistinct:
+          Set<Object> distinct = aggregate.distinctObjs == null ? null : aggregate.distinctObjs[i];
+          row[index] = distinct == null ? null : writeSet(data.spillElementMetas[i], distinct);
+          break;
+        case ConcatDistinct:
+          row[index] = writeSet(data.spillElementMetas[i], (Set<Object>) value);
+          break;
+        case ConcatComma, ConcatString:
+          row[index] = value.toString();
+          break;
+        default:
+          row[index] = value;
+          break;
+      }
+      row[index + 1] = aggregate.counts[i];
+      index += 2;
+      if (agg.getType() == StandardDeviation) {
+        row[index++] = aggregate.mean == null ? 0.0 : aggregate.mean[i];
+      }
+    }
+  }
+
+  /**
+   * Create an aggregate from the state in a row of a spill file
+   *
+   * @param row The spill row
+   * @param index The index of the first state value in the row
+   * @return The aggregate
+   */
+  @SuppressWarnings("unchecked")
+  private Aggregate readState(Object[] row, int index) throws HopException {
+    int nrAggregates = data.subjectnrs.length;
+    Aggregate aggregate = new Aggregate();
+    aggregate.agg = new Object[nrAggregates];
+    aggregate.counts = new long[nrAggregates];
+    aggregate.mean = new double[nrAggregates];
+    for (int i = 0; i < nrAggregates; i++) {
+      GAggregate agg = meta.getAggregates().get(i);
+      Object value = row[index];
+      switch (agg.getType()) {
+        case Median, Percentile:
+          ByteBuffer buffer = ByteBuffer.wrap((byte[]) value);
+          List<Double> numbers = new ArrayList<>(buffer.remaining() / Double.BYTES);
+          while (buffer.hasRemaining()) {
+            numbers.add(buffer.getDouble());
+          }
+          aggregate.agg[i] = numbers;
+          break;
+        case CountDistinctApproximate:
+          aggregate.agg[i] = new HyperLogLog((byte[]) value);
+          break;
+        case CountDistinct:
+          if (value != null) {
+            if (aggregate.distinctObjs == null) {
+              aggregate.distinctObjs = new Set[nrAggregates];
+            }
+            aggregate.distinctObjs[i] = readSet(data.spillElementMetas[i], (byte[]) value);
+          }
+          break;
+        case ConcatDistinct:
+          aggregate.agg[i] = readSet(data.spillElementMetas[i], (byte[]) value);
+          break;
+        case ConcatComma, ConcatString:
+          aggregate.agg[i] = new StringBuilder((String) value);
+          break;
+        default:
+          aggregate.agg[i] = value;
+          break;
+      }
+      aggregate.counts[i] = (Long) row[index + 1];
+      index += 2;
+      if (agg.getType() == StandardDeviation) {
+        aggregate.mean[i] = (Double) row[index++];
+      }
+    }
+    return aggregate;
+  }
+
+  private static byte[] writeSet(IValueMeta elementMeta, Set<Object> set) throws HopException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream outputStream = new DataOutputStream(bytes)) {
+      outputStream.writeInt(set.size());
+      for (Object element : set) {
+        elementMeta.writeData(outputStream, element);
+      }
+    } catch (IOException e) {
+      throw new HopException("Unable to write the distinct values of an aggregate", e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static TreeSet<Object> readSet(IValueMeta elementMeta, byte[] bytes) throws HopException {
+    TreeSet<Object> set = new TreeSet<>();
+    try (DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      int size = inputStream.readInt();
+      for (int i = 0; i < size; i++) {
+        set.add(elementMeta.readData(inputStream));
+      }
+    } catch (IOException e) {
+      throw new HopException("Unable to read the distinct values of an aggregate", e);
+    }
+    return set;
+  }
+
+  private void mergeIntoPartitions(SpillPartition[] partitions, HashEntry entry, Aggregate partial)
+      throws HopException {
+    SpillPartition partition = partitions[getPartitionNr(entry, partitions[0].getLevel())];
+    partition.added();
+    Aggregate aggregate = partition.getMap().get(entry);
+    if (aggregate == null) {
+      partition.getMap().put(entry, partial);
+      spillIfNeeded(partitions, true);
+    } else {
+      mergeAggregate(aggregate, partial);
+      spillIfNeeded(partitions, false);
+    }
+  }
+
+  /**
+   * Hand over the partial aggregates of this copy to the combiner. The last copy to finish merges
+   * the partial aggregates of the other copies into its own.
+   *
+   * @return true if this copy needs to send out the groups
+   * @throws HopException In case of an error merging the partial aggregates
+   */
+  private boolean combinePartialAggregates() throws HopException {
+    // Only copies which received rows have partial aggregates
+    //
+    boolean hasGroups = !first;
+    if (hasGroups && data.partitions != null) {
+      // The last copy only adopts the spill files of the spilled partitions
+      //
+      for (SpillPartition partition : data.partitions) {
+        if (partition.isSpilled() && !partition.getMap().isEmpty()) {
+          spillPartition(partition);
+        }
+      }
+    }
+
+    List<MemoryGroupByData> partials = data.combiner.arrive(getCopy(), hasGroups ? data : null);
+    if (partials == null) {
+      // Other copies are still running, the last one sends out the groups
+      return false;
+    }
+
+    for (MemoryGroupByData partial : partials) {
+      if (!hasGroups) {
+        adoptMetadata(partial);
+        hasGroups = true;
+      }
+      mergePartial(partial);
+    }
+    if (isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(
+              PKG,
+              "MemoryGroupBy.Log.CombinedPartialAggregates",
+              Integer.toString(partials.size())));
+    }
+    return hasGroups || meta.isAlwaysGivingBackOneRow();
+  }
+
+  /** This copy received no rows, use the metadata of a copy which did */
+  private void adoptMetadata(MemoryGroupByData partial) throws HopException {
+    data.inputRowMeta = partial.inputRowMeta;
+    data.outputRowMeta = partial.outputRowMeta;
+    data.subjectnrs = partial.subjectnrs;
+    data.groupnrs = partial.groupnrs;
+    data.groupMeta = partial.groupMeta;
+    data.entryMeta = partial.entryMeta;
+    data.aggMeta = partial.aggMeta;
+    data.groupAggMeta = partial.groupAggMeta;
+    data.sketchPrecisions = partial.sketchPrecisions;
+    data.valueMetaInteger = partial.valueMetaInteger;
+    data.valueMetaNumber = partial.valueMetaNumber;
+    if (data.map == null) {
+      data.map = new HashMap<>();
+    }
+    if (meta.isSpillingToDisk() && data.partitions == null) {
+      initSpilling();
+    }
+  }
+
+  /** Merge the partial aggregates of another copy into the ones of this copy */
+  private void mergePartial(MemoryGroupByData partial) throws HopException {
+    if (data.partitions == null) {
+      for (Map.Entry<HashEntry, Aggregate> entry : partial.map.entrySet()) {
+        Aggregate aggregate = data.map.get(entry.getKey());
+        if (aggregate == null) {
+          data.map.put(entry.getKey(), entry.getValue());
+        } else {
+          mergeAggregate(aggregate, entry.getValue());
+        }
+      }
+    } else {
+      for (int i = 0; i < partial.partitions.length; i++) {
+        SpillPartition partition = partial.partitions[i];
+        data.partitions[i].adopt(partition);
+        for (Map.Entry<HashEntry, Aggregate> entry : partition.getMap().entrySet()) {
+          mergeIntoPartitions(data.partitions, entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    partial.map = new HashMap<>();
+    partial.partitions = null;
   }
 
   /**
@@ -402,6 +1087,7 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   void newAggregate(Object[] r, Aggregate aggregate) throws HopException {
     if (aggregate == null) {
       data.aggMeta = new RowMeta();
+      data.sketchPrecisions = new int[data.subjectnrs.length];
     } else {
       aggregate.counts = new long[data.subjectnrs.length];
 
@@ -430,6 +1116,14 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
         case CountDistinct, CountAny, CountAll:
           vMeta = new ValueMetaInteger(agg.getField());
           break;
+        case CountDistinctApproximate:
+          vMeta = new ValueMetaInteger(agg.getField());
+          if (aggregate == null) {
+            data.sketchPrecisions[i] = getSketchPrecision(agg);
+          } else {
+            v = new HyperLogLog(data.sketchPrecisions[i]);
+          }
+          break;
         case Sum, Average:
           vMeta = subjMeta.isNumeric() ? subjMeta.clone() : new ValueMetaNumber();
           vMeta.setName(agg.getField());
@@ -453,6 +1147,7 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
       if (agg.getType() != CountAll
           && agg.getType() != CountDistinct
+          && agg.getType() != CountDistinctApproximate
           && agg.getType() != CountAny) {
         vMeta.setLength(subjMeta.getLength(), subjMeta.getPrecision());
       }
@@ -464,6 +1159,23 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
     }
   }
 
+  /** The precision of the sketch is given in the value column, the number of register bits */
+  private int getSketchPrecision(GAggregate agg) throws HopException {
+    if (Utils.isEmpty(agg.getValueField())) {
+      return HyperLogLog.DEFAULT_PRECISION;
+    }
+    int precision = Const.toInt(resolve(agg.getValueField()), -1);
+    if (precision < HyperLogLog.MIN_PRECISION || precision > HyperLogLog.MAX_PRECISION) {
+      throw new HopException(
+          BaseMessages.getString(
+              PKG,
+              "MemoryGroupBy.Exception.InvalidSketchPrecision",
+              agg.getField(),
+              agg.getValueField()));
+    }
+    return precision;
+  }
+
   private void initGroupMeta(IRowMeta previousRowMeta) {
     data.groupMeta = new RowMeta();
     data.entryMeta = new RowMeta();
@@ -513,6 +1225,9 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
         case CountAll, CountAny, CountDistinct:
           ag = aggregate.counts[i];
           break;
+        case CountDistinctApproximate:
+          ag = ((HyperLogLog) ag).estimate();
+          break;
         case Minimum:
           break;
         case Maximum:
@@ -555,6 +1270,12 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
 
     if (super.init()) {
       data.map = new HashMap<>(5000);
+
+      int nrCopies = getTransformMeta().getCopies(this);
+      if (meta.isCombiningCopies() && nrCopies > 1) {
+        data.combiner =
+            PartialAggregateCombiner.getInstance(getPipeline(), getTransformName(), nrCopies);
+      }
       return true;
     }
     return false;
@@ -564,6 +1285,9 @@ public class MemoryGroupBy extends BaseTransform<MemoryGroupByMeta, MemoryGroupB
   public void dispose() {
     super.dispose();
     ((MemoryGroupByData) data).clear();
+    if (data.combiner != null) {
+      data.combiner.dispose();
+    }
   }
 
   @Override
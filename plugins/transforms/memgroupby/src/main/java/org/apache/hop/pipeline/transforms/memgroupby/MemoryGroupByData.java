@@ -17,10 +17,13 @@
 
 package org.apache.hop.pipeline.transforms.memgroupby;
 
+import java.nio.file.Path;
 import java.util.HashMap;
+import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.spill.SpillFile;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
@@ -28,6 +31,8 @@ import org.apache.hop.pipeline.transform.ITransformData;
 public class MemoryGroupByData extends BaseTransformData implements ITransformData {
   public class HashEntry {
     private Object[] groupData;
+    private int hash;
+    private boolean hashCalculated;
 
     public HashEntry(Object[] groupData) {
       this.groupData = groupData;
@@ -48,11 +53,17 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
     }
 
     public int hashCode() {
-      try {
-        return groupMeta.hashCode(getHashValue());
-      } catch (HopValueException e) {
-        throw new RuntimeException(e);
+      // The hash code is needed for the partition and the map, calculate it only once
+      //
+      if (!hashCalculated) {
+        try {
+          hash = groupMeta.hashCode(getHashValue());
+          hashCalculated = true;
+        } catch (HopValueException e) {
+          throw new RuntimeException(e);
+        }
       }
+      return hash;
     }
 
     private Object[] getHashValue() throws HopValueException {
@@ -75,6 +86,9 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
   public int[] groupnrs;
   public int[] subjectnrs;
 
+  /** The number of register bits of the approximate count distinct sketches */
+  public int[] sketchPrecisions;
+
   public boolean firstRead;
 
   public Object[] groupResult;
@@ -89,6 +103,30 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
 
   public boolean newBatch;
 
+  /** The partitions of the hybrid hash aggregation, null if the groups are never spilled */
+  public SpillPartition[] partitions;
+
+  /** The layout of the rows in the spill files: the group fields and the aggregate state */
+  public IRowMeta spillRowMeta;
+
+  /** The metadata of the values in the distinct sets of the aggregates, written to spill files */
+  public IValueMeta[] spillElementMetas;
+
+  public int spillGroupLimit;
+  public int freeMemoryPctLimit;
+  public int freeMemoryPct;
+  public int freeCounter;
+  public String spillDirectory;
+  public String spillCodec;
+  public boolean spillDictionary;
+  public int nrSpillFiles;
+
+  /** Combines the partial aggregates of all copies, null if every copy sends out its own groups */
+  public PartialAggregateCombiner combiner;
+
+  /** The partial aggregates were handed over to the combiner, they belong to another copy now */
+  public boolean handedOver;
+
   public MemoryGroupByData() {
     super();
   }
@@ -99,6 +137,28 @@ public class MemoryGroupByData extends BaseTransformData implements ITransformDa
 
   /** Method responsible for clearing out memory hogs */
   public void clear() {
+    if (handedOver) {
+      return;
+    }
     map = new HashMap<>();
+    deleteSpillFiles(partitions);
+    partitions = null;
+  }
+
+  /** Remove the spill files of the given partitions which weren't aggregated yet */
+  public static void deleteSpillFiles(SpillPartition[] partitions) {
+    if (partitions == null) {
+      return;
+    }
+    for (SpillPartition partition : partitions) {
+      for (Path file : partition.getFiles()) {
+        try {
+          SpillFile.delete(file);
+        } catch (HopException e) {
+          // Ignore, we're cleaning up
+        }
+      }
+      partition.getFiles().clear();
+    }
   }
 }
@@ -33,6 +33,7 @@ import org.apache.hop.ui.core.dialog.BaseDialog;
 import org.apache.hop.ui.core.dialog.ErrorDialog;
 import org.apache.hop.ui.core.widget.ColumnInfo;
 import org.apache.hop.ui.core.widget.TableView;
+import org.apache.hop.ui.core.widget.TextVar;
 import org.apache.hop.ui.pipeline.transform.BaseTransformDialog;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.ModifyListener;
@@ -57,6 +58,19 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
 
   private Button wAlwaysAddResult;
 
+  private Button wSpillToDisk;
+
+  private Button wCombineCopies;
+
+  private Label wlSpillGroupLimit;
+  private TextVar wSpillGroupLimit;
+
+  private Label wlFreeMemoryLimit;
+  private TextVar wFreeMemoryLimit;
+
+  private Label wlSpillDirectory;
+  private TextVar wSpillDirectory;
+
   private final MemoryGroupByMeta input;
 
   private ColumnInfo[] ciKey;
@@ -144,12 +158,127 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     wAlwaysAddResult.setLayoutData(fdAlwaysAddResult);
     wAlwaysAddResult.addSelectionListener(lsSel);
 
+    // Combine the partial aggregates of the transform copies?
+    //
+    Label wlCombineCopies = new Label(shell, SWT.RIGHT);
+    wlCombineCopies.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.CombineCopies.Label"));
+    wlCombineCopies.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.CombineCopies.ToolTip"));
+    PropsUi.setLook(wlCombineCopies);
+    FormData fdlCombineCopies = new FormData();
+    fdlCombineCopies.left = new FormAttachment(0, 0);
+    fdlCombineCopies.top = new FormAttachment(wAlwaysAddResult, margin);
+    fdlCombineCopies.right = new FormAttachment(middle, -margin);
+    wlCombineCopies.setLayoutData(fdlCombineCopies);
+    wCombineCopies = new Button(shell, SWT.CHECK);
+    wCombineCopies.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.CombineCopies.ToolTip"));
+    PropsUi.setLook(wCombineCopies);
+    FormData fdCombineCopies = new FormData();
+    fdCombineCopies.left = new FormAttachment(middle, 0);
+    fdCombineCopies.top = new FormAttachment(wlCombineCopies, 0, SWT.CENTER);
+    fdCombineCopies.right = new FormAttachment(100, 0);
+    wCombineCopies.setLayoutData(fdCombineCopies);
+    wCombineCopies.addSelectionListener(lsSel);
+
+    // Spill partial aggregates to disk?
+    //
+    Label wlSpillToDisk = new Label(shell, SWT.RIGHT);
+    wlSpillToDisk.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillToDisk.Label"));
+    wlSpillToDisk.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillToDisk.ToolTip"));
+    PropsUi.setLook(wlSpillToDisk);
+    FormData fdlSpillToDisk = new FormData();
+    fdlSpillToDisk.left = new FormAttachment(0, 0);
+    fdlSpillToDisk.top = new FormAttachment(wCombineCopies, margin);
+    fdlSpillToDisk.right = new FormAttachment(middle, -margin);
+    wlSpillToDisk.setLayoutData(fdlSpillToDisk);
+    wSpillToDisk = new Button(shell, SWT.CHECK);
+    wSpillToDisk.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillToDisk.ToolTip"));
+    PropsUi.setLook(wSpillToDisk);
+    FormData fdSpillToDisk = new FormData();
+    fdSpillToDisk.left = new FormAttachment(middle, 0);
+    fdSpillToDisk.top = new FormAttachment(wlSpillToDisk, 0, SWT.CENTER);
+    fdSpillToDisk.right = new FormAttachment(100, 0);
+    wSpillToDisk.setLayoutData(fdSpillToDisk);
+    wSpillToDisk.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent e) {
+            input.setChanged();
+            enableSpillFields();
+          }
+        });
+
+    wlSpillGroupLimit = new Label(shell, SWT.RIGHT);
+    wlSpillGroupLimit.setText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillGroupLimit.Label"));
+    wlSpillGroupLimit.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillGroupLimit.ToolTip"));
+    PropsUi.setLook(wlSpillGroupLimit);
+    FormData fdlSpillGroupLimit = new FormData();
+    fdlSpillGroupLimit.left = new FormAttachment(0, 0);
+    fdlSpillGroupLimit.top = new FormAttachment(wSpillToDisk, margin);
+    fdlSpillGroupLimit.right = new FormAttachment(middle, -margin);
+    wlSpillGroupLimit.setLayoutData(fdlSpillGroupLimit);
+    wSpillGroupLimit = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wSpillGroupLimit.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillGroupLimit.ToolTip"));
+    PropsUi.setLook(wSpillGroupLimit);
+    wSpillGroupLimit.addModifyListener(lsMod);
+    FormData fdSpillGroupLimit = new FormData();
+    fdSpillGroupLimit.left = new FormAttachment(middle, 0);
+    fdSpillGroupLimit.top = new FormAttachment(wSpillToDisk, margin);
+    fdSpillGroupLimit.right = new FormAttachment(100, 0);
+    wSpillGroupLimit.setLayoutData(fdSpillGroupLimit);
+
+    wlFreeMemoryLimit = new Label(shell, SWT.RIGHT);
+    wlFreeMemoryLimit.setText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.FreeMemoryLimit.Label"));
+    wlFreeMemoryLimit.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.FreeMemoryLimit.ToolTip"));
+    PropsUi.setLook(wlFreeMemoryLimit);
+    FormData fdlFreeMemoryLimit = new FormData();
+    fdlFreeMemoryLimit.left = new FormAttachment(0, 0);
+    fdlFreeMemoryLimit.top = new FormAttachment(wSpillGroupLimit, margin);
+    fdlFreeMemoryLimit.right = new FormAttachment(middle, -margin);
+    wlFreeMemoryLimit.setLayoutData(fdlFreeMemoryLimit);
+    wFreeMemoryLimit = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wFreeMemoryLimit.setToolTipText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.FreeMemoryLimit.ToolTip"));
+    PropsUi.setLook(wFreeMemoryLimit);
+    wFreeMemoryLimit.addModifyListener(lsMod);
+    FormData fdFreeMemoryLimit = new FormData();
+    fdFreeMemoryLimit.left = new FormAttachment(middle, 0);
+    fdFreeMemoryLimit.top = new FormAttachment(wSpillGroupLimit, margin);
+    fdFreeMemoryLimit.right = new FormAttachment(100, 0);
+    wFreeMemoryLimit.setLayoutData(fdFreeMemoryLimit);
+
+    wlSpillDirectory = new Label(shell, SWT.RIGHT);
+    wlSpillDirectory.setText(
+        BaseMessages.getString(PKG, "MemoryGroupByDialog.SpillDirectory.Label"));
+    PropsUi.setLook(wlSpillDirectory);
+    FormData fdlSpillDirectory = new FormData();
+    fdlSpillDirectory.left = new FormAttachment(0, 0);
+    fdlSpillDirectory.top = new FormAttachment(wFreeMemoryLimit, margin);
+    fdlSpillDirectory.right = new FormAttachment(middle, -margin);
+    wlSpillDirectory.setLayoutData(fdlSpillDirectory);
+    wSpillDirectory = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wSpillDirectory);
+    wSpillDirectory.addModifyListener(lsMod);
+    FormData fdSpillDirectory = new FormData();
+    fdSpillDirectory.left = new FormAttachment(middle, 0);
+    fdSpillDirectory.top = new FormAttachment(wFreeMemoryLimit, margin);
+    fdSpillDirectory.right = new FormAttachment(100, 0);
+    wSpillDirectory.setLayoutData(fdSpillDirectory);
+
     Label wlGroup = new Label(shell, SWT.NONE);
     wlGroup.setText(BaseMessages.getString(PKG, "MemoryGroupByDialog.Group.Label"));
     PropsUi.setLook(wlGroup);
     FormData fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment(0, 0);
-    fdlGroup.top = new FormAttachment(wlAlwaysAddResult, 2 * margin);
+    fdlGroup.top = new FormAttachment(wSpillDirectory, 2 * margin);
     wlGroup.setLayoutData(fdlGroup);
 
     int groupCols = 1;
@@ -306,6 +435,12 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     logDebug(BaseMessages.getString(PKG, "MemoryGroupByDialog.Log.GettingKeyInfo"));
 
     wAlwaysAddResult.setSelection(input.isAlwaysGivingBackOneRow());
+    wCombineCopies.setSelection(input.isCombiningCopies());
+    wSpillToDisk.setSelection(input.isSpillingToDisk());
+    wSpillGroupLimit.setText(Const.NVL(input.getSpillGroupLimit(), ""));
+    wFreeMemoryLimit.setText(Const.NVL(input.getFreeMemoryLimit(), ""));
+    wSpillDirectory.setText(Const.NVL(input.getSpillDirectory(), ""));
+    enableSpillFields();
 
     for (int i = 0; i < input.getGroups().size(); i++) {
       TableItem item = wGroup.table.getItem(i);
@@ -330,6 +465,16 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     wTransformName.setFocus();
   }
 
+  private void enableSpillFields() {
+    boolean spilling = wSpillToDisk.getSelection();
+    wlSpillGroupLimit.setEnabled(spilling);
+    wSpillGroupLimit.setEnabled(spilling);
+    wlFreeMemoryLimit.setEnabled(spilling);
+    wFreeMemoryLimit.setEnabled(spilling);
+    wlSpillDirectory.setEnabled(spilling);
+    wSpillDirectory.setEnabled(spilling);
+  }
+
   private void cancel() {
     transformName = null;
     input.setChanged(backupChanged);
@@ -342,6 +487,11 @@ public class MemoryGroupByDialog extends BaseTransformDialog {
     }
 
     input.setAlwaysGivingBackOneRow(wAlwaysAddResult.getSelection());
+    input.setCombiningCopies(wCombineCopies.getSelection());
+    input.setSpillingToDisk(wSpillToDisk.getSelection());
+    input.setSpillGroupLimit(wSpillGroupLimit.getText());
+    input.setFreeMemoryLimit(wFreeMemoryLimit.getText());
+    input.setSpillDirectory(wSpillDirectory.getText());
 
     input.getGroups().clear();
     for (TableItem item : wGroup.getNonEmptyItems()) {
@@ -82,9 +82,45 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
       injectionKeyDescription = "MemoryGroupBy.Injection.ALWAYSGIVINGBACKONEROW")
   private boolean alwaysGivingBackOneRow;
 
+  /** Spill the partial aggregates of groups to disk when the memory budget is exceeded */
+  @HopMetadataProperty(
+      key = "spill_to_disk",
+      injectionKey = "SPILL_TO_DISK",
+      injectionKeyDescription = "MemoryGroupBy.Injection.SPILL_TO_DISK")
+  private boolean spillingToDisk;
+
+  /** The maximum number of groups to keep in memory before spilling to disk */
+  @HopMetadataProperty(
+      key = "spill_group_limit",
+      injectionKey = "SPILL_GROUP_LIMIT",
+      injectionKeyDescription = "MemoryGroupBy.Injection.SPILL_GROUP_LIMIT")
+  private String spillGroupLimit;
+
+  /** Spill to disk when the percentage of free memory drops below this limit */
+  @HopMetadataProperty(
+      key = "free_memory_limit",
+      injectionKey = "FREE_MEMORY_LIMIT",
+      injectionKeyDescription = "MemoryGroupBy.Injection.FREE_MEMORY_LIMIT")
+  private String freeMemoryLimit;
+
+  /** The folder to write the spill files to */
+  @HopMetadataProperty(
+      key = "spill_directory",
+      injectionKey = "SPILL_DIRECTORY",
+      injectionKeyDescription = "MemoryGroupBy.Injection.SPILL_DIRECTORY")
+  private String spillDirectory;
+
+  /** Run the copies of this transform in parallel and combine their partial aggregates */
+  @HopMetadataProperty(
+      key = "combine_copies",
+      injectionKey = "COMBINE_COPIES",
+      injectionKeyDescription = "MemoryGroupBy.Injection.COMBINE_COPIES")
+  private boolean combiningCopies;
+
   public MemoryGroupByMeta() {
     this.groups = new ArrayList<>();
     this.aggregates = new ArrayList<>();
+    this.spillDirectory = "${java.io.tmpdir}";
   }
 
   public MemoryGroupByMeta(MemoryGroupByMeta meta) {
@@ -96,6 +132,11 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
       aggregates.add(new GAggregate(aggregate));
     }
     this.alwaysGivingBackOneRow = meta.alwaysGivingBackOneRow;
+    this.spillingToDisk = meta.spillingToDisk;
+    this.spillGroupLimit = meta.spillGroupLimit;
+    this.freeMemoryLimit = meta.freeMemoryLimit;
+    this.spillDirectory = meta.spillDirectory;
+    this.combiningCopies = meta.combiningCopies;
   }
 
   @Override
@@ -142,7 +183,7 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
             valueType = subj.getType();
             mask = subj.getConversionMask();
             break;
-          case CountDistinct, CountAll, CountAny:
+          case CountDistinct, CountAll, CountAny, CountDistinctApproximate:
             valueType = IValueMeta.TYPE_INTEGER;
             mask = "0";
             break;
@@ -359,7 +400,10 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
         "COUNT_ANY", BaseMessages.getString(PKG, "MemoryGroupByMeta.TypeGroupLongDesc.COUNT_ANY")),
     ConcatDistinct(
         "CONCAT_DISTINCT",
-        BaseMessages.getString(PKG, "MemoryGroupByMeta.TypeGroupLongDesc.CONCAT_DISTINCT"));
+        BaseMessages.getString(PKG, "MemoryGroupByMeta.TypeGroupLongDesc.CONCAT_DISTINCT")),
+    CountDistinctApproximate(
+        "COUNT_DISTINCT_APPROX",
+        BaseMessages.getString(PKG, "MemoryGroupByMeta.TypeGroupLongDesc.COUNT_DISTINCT_APPROX"));
 
     private String code;
     private String description;
@@ -464,8 +508,99 @@ public class MemoryGroupByMeta extends BaseTransformMeta<MemoryGroupBy, MemoryGr
     this.alwaysGivingBackOneRow = alwaysGivingBackOneRow;
   }
 
+  /**
+   * Gets spillingToDisk
+   *
+   * @return true if the partial aggregates are spilled to disk when the memory budget is exceeded
+   */
+  public boolean isSpillingToDisk() {
+    return spillingToDisk;
+  }
+
+  /**
+   * Sets spillingToDisk
+   *
+   * @param spillingToDisk value of spillingToDisk
+   */
+  public void setSpillingToDisk(boolean spillingToDisk) {
+    this.spillingToDisk = spillingToDisk;
+  }
+
+  /**
+   * Gets spillGroupLimit
+   *
+   * @return The maximum number of groups to keep in memory before spilling to disk
+   */
+  public String getSpillGroupLimit() {
+    return spillGroupLimit;
+  }
+
+  /**
+   * Sets spillGroupLimit
+   *
+   * @param spillGroupLimit value of spillGroupLimit
+   */
+  public void setSpillGroupLimit(String spillGroupLimit) {
+    this.spillGroupLimit = spillGroupLimit;
+  }
+
+  /**
+   * Gets freeMemoryLimit
+   *
+   * @return The percentage of free memory below which groups are spilled to disk
+   */
+  public String getFreeMemoryLimit() {
+    return freeMemoryLimit;
+  }
+
+  /**
+   * Sets freeMemoryLimit
+   *
+   * @param freeMemoryLimit value of freeMemoryLimit
+   */
+  public void setFreeMemoryLimit(String freeMemoryLimit) {
+    this.freeMemoryLimit = freeMemoryLimit;
+  }
+
+  /**
+   * Gets spillDirectory
+   *
+   * @return The folder to write the spill files to
+   */
+  public String getSpillDirectory() {
+    return spillDirectory;
+  }
+
+  /**
+   * Sets spillDirectory
+   *
+   * @param spillDirectory value of spillDirectory
+   */
+  public void setSpillDirectory(String spillDirectory) {
+    this.spillDirectory = spillDirectory;
+  }
+
+  /**
+   * Gets combiningCopies
+   *
+   * @return true if the partial aggregates of the transform copies are combined
+   */
+  public boolean isCombiningCopies() {
+    return combiningCopies;
+  }
+
+  /**
+   * Sets combiningCopies
+   *
+   * @param combiningCopies value of combiningCopies
+   */
+  public void setCombiningCopies(boolean combiningCopies) {
+    this.combiningCopies = combiningCopies;
+  }
+
   @Override
   public boolean supportsMultiCopyExecution() {
-    return false;
+    // Every copy would send out its own groups, unless the partial aggregates are combined
+    return combiningCopies;
   }
 }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+
+/**
+ * Collects the partial aggregates of the copies of a Memory Group By transform. Every copy
+ * aggregates the rows it receives. The last copy to run out of rows merges the partial aggregates
+ * of the other copies into its own and sends out the groups.
+ */
+public class PartialAggregateCombiner {
+  private static final String EXTENSION_DATA_PREFIX = "MemoryGroupBy.PartialAggregateCombiner.";
+
+  private final int nrCopies;
+  private final Map<Integer, MemoryGroupByData> partials = new TreeMap<>();
+  private int nrArrived;
+  private int nrDisposed;
+
+  PartialAggregateCombiner(int nrCopies) {
+    this.nrCopies = nrCopies;
+  }
+
+  /**
+   * Get the combiner shared by all the copies of a transform.
+   *
+   * @param pipeline The pipeline the copies run in
+   * @param transformName The name of the transform
+   * @param nrCopies The number of copies
+   * @return The combiner
+   */
+  public static PartialAggregateCombiner getInstance(
+      IPipelineEngine<?> pipeline, String transformName, int nrCopies) {
+    Map<String, Object> extensionDataMap = pipeline.getExtensionDataMap();
+    synchronized (extensionDataMap) {
+      return (PartialAggregateCombiner)
+          extensionDataMap.computeIfAbsent(
+              EXTENSION_DATA_PREFIX + transformName, key -> new PartialAggregateCombiner(nrCopies));
+    }
+  }
+
+  /**
+   * A copy ran out of rows and hands over its partial aggregates.
+   *
+   * @param copyNr The copy number
+   * @param partial The data with the partial aggregates or null if the copy received no rows
+   * @return null if other copies are still running, otherwise the partial aggregates of the other
+   *     copies in the order of their copy number.
+   */
+  public synchronized List<MemoryGroupByData> arrive(int copyNr, MemoryGroupByData partial) {
+    if (partial != null) {
+      partial.handedOver = true;
+      partials.put(copyNr, partial);
+    }
+    nrArrived++;
+    if (nrArrived < nrCopies) {
+      return null;
+    }
+    List<MemoryGroupByData> others = new ArrayList<>();
+    for (Map.Entry<Integer, MemoryGroupByData> entry : partials.entrySet()) {
+      if (entry.getKey() != copyNr) {
+        others.add(entry.getValue());
+      }
+    }
+    partials.clear();
+    return others;
+  }
+
+  /**
+   * A copy is disposed. Once all copies are disposed the partial aggregates which were never
+   * merged, for example because the pipeline was stopped, are cleaned up.
+   */
+  public synchronized void dispose() {
+    nrDisposed++;
+    if (nrDisposed >= nrCopies) {
+      for (MemoryGroupByData partial : partials.values()) {
+        partial.handedOver = false;
+        partial.clear();
+      }
+      partials.clear();
+    }
+  }
+
+  /**
+   * @return The number of copies
+   */
+  public int getNrCopies() {
+    return nrCopies;
+  }
+}
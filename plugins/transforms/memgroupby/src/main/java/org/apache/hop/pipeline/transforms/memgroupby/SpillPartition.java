@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.apache.hop.pipeline.transforms.memgroupby.MemoryGroupByData.HashEntry;
+
+/**
+ * A partition of the groups in a hybrid hash aggregation. The groups of a partition are kept in
+ * memory until the memory budget is exceeded. Then the partial aggregates of the partition are
+ * written to a spill file and the partition starts over with an empty map. At the end the spill
+ * files of a partition are aggregated again, split over partitions of the next level.
+ */
+public class SpillPartition {
+  private final int level;
+  private HashMap<HashEntry, Aggregate> map;
+  private final List<Path> files;
+
+  /** The number of rows or partial aggregates added since the last spill */
+  private long nrAdded;
+
+  public SpillPartition(int level) {
+    this.level = level;
+    this.map = new HashMap<>();
+    this.files = new ArrayList<>();
+  }
+
+  /**
+   * The aggregation ratio tells how many rows end up in the same group on average. Partitions with
+   * a low ratio are cold: keeping them in memory saves little work, so they are spilled first.
+   *
+   * @return The number of rows added per group in memory
+   */
+  public double getAggregationRatio() {
+    return map.isEmpty() ? Double.MAX_VALUE : (double) nrAdded / map.size();
+  }
+
+  public void added() {
+    nrAdded++;
+  }
+
+  /**
+   * Forget the groups in memory after they were written to a spill file
+   *
+   * @param file The spill file with the partial aggregates
+   */
+  public void spilled(Path file) {
+    files.add(file);
+    map = new HashMap<>();
+    nrAdded = 0;
+  }
+
+  /**
+   * Take over the spill files of the same partition of another transform copy
+   *
+   * @param other The partition of the other copy
+   */
+  public void adopt(SpillPartition other) {
+    files.addAll(other.files);
+    other.files.clear();
+  }
+
+  public boolean isSpilled() {
+    return !files.isEmpty();
+  }
+
+  /**
+   * Gets level
+   *
+   * @return The recursion level of the partition, 0 for the partitions of the input rows
+   */
+  public int getLevel() {
+    return level;
+  }
+
+  /**
+   * Gets map
+   *
+   * @return The groups of this partition which are in memory
+   */
+  public HashMap<HashEntry, Aggregate> getMap() {
+    return map;
+  }
+
+  /**
+   * Gets files
+   *
+   * @return The spill files of this partition, in the order in which they were written
+   */
+  public List<Path> getFiles() {
+    return files;
+  }
+}
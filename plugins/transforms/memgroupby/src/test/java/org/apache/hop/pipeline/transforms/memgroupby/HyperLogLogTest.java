@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+  private static void assertEstimate(long expected, long estimate, double maxError) {
+    double error = Math.abs(estimate - expected) / (double) expected;
+    assertTrue(error <= maxError, "Estimate " + estimate + " for " + expected + " values");
+  }
+
+  @Test
+  void testEmpty() {
+    assertEquals(0, new HyperLogLog().estimate());
+  }
+
+  @Test
+  void testSmallCardinalityIsNearlyExact() {
+    HyperLogLog sketch = new HyperLogLog();
+    for (long i = 0; i < 100; i++) {
+      sketch.add(i);
+      sketch.add(i);
+    }
+    sketch.add(null);
+    assertEstimate(100, sketch.estimate(), 0.02);
+  }
+
+  @Test
+  void testLargeCardinality() {
+    HyperLogLog sketch = new HyperLogLog();
+    for (int i = 0; i < 200000; i++) {
+      sketch.add("value-" + i);
+    }
+    assertEstimate(200000, sketch.estimate(), 0.05);
+  }
+
+  @Test
+  void testMergeGivesTheUnion() {
+    HyperLogLog first = new HyperLogLog(14);
+    HyperLogLog second = new HyperLogLog(14);
+    for (long i = 0; i < 60000; i++) {
+      first.add(i);
+    }
+    for (long i = 30000; i < 90000; i++) {
+      second.add(i);
+    }
+    first.merge(second);
+    assertEstimate(90000, first.estimate(), 0.03);
+  }
+
+  @Test
+  void testInvalidPrecision() {
+    assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+    assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(17));
+    HyperLogLog sketch = new HyperLogLog(10);
+    assertThrows(IllegalArgumentException.class, () -> sketch.merge(new HyperLogLog(12)));
+  }
+}
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+class MemoryGroupByCombineTest {
+  @RegisterExtension
+  static RestoreHopEngineEnvironmentExtension env = new RestoreHopEngineEnvironmentExtension();
+
+  private static final String TRANSFORM_NAME = "testTransform";
+
+  @TempDir Path tempDir;
+
+  @BeforeAll
+  static void setUpBeforeClass() throws HopException {
+    HopClientEnvironment.init();
+  }
+
+  private static IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("key"));
+    rowMeta.addValueMeta(new ValueMetaInteger("intg"));
+    return rowMeta;
+  }
+
+  private static List<Object[]> createRows(int nrRows, int nrGroups) {
+    Random random = new Random(42L);
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < nrRows; i++) {
+      rows.add(
+          new Object[] {
+            "key-" + random.nextInt(nrGroups),
+            random.nextInt(20) == 0 ? null : (long) random.nextInt(500)
+          });
+    }
+    return rows;
+  }
+
+  private static MemoryGroupByMeta createMeta() {
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.setCombiningCopies(true);
+    meta.getGroups().add(new GGroup("key"));
+    for (MemoryGroupByMeta.GroupType type :
+        new MemoryGroupByMeta.GroupType[] {
+          MemoryGroupByMeta.GroupType.Sum,
+          MemoryGroupByMeta.GroupType.Average,
+          MemoryGroupByMeta.GroupType.Minimum,
+          MemoryGroupByMeta.GroupType.Maximum,
+          MemoryGroupByMeta.GroupType.CountAll,
+          MemoryGroupByMeta.GroupType.CountAny,
+          MemoryGroupByMeta.GroupType.CountDistinct,
+          MemoryGroupByMeta.GroupType.CountDistinctApproximate
+        }) {
+      GAggregate aggregate = new GAggregate();
+      aggregate.setField("intg_" + type.name());
+      aggregate.setSubject("intg");
+      aggregate.setType(type);
+      meta.getAggregates().add(aggregate);
+    }
+    return meta;
+  }
+
+  /** A copy of the transform which reads the given rows and collects its output */
+  private static MemoryGroupBy createCopy(
+      MemoryGroupByMeta meta,
+      Pipeline pipeline,
+      int copyNr,
+      PartialAggregateCombiner combiner,
+      List<Object[]> rows,
+      Map<String, Object[]> output) {
+    TransformMeta transformMeta = new TransformMeta(TRANSFORM_NAME, meta);
+    PipelineMeta pipelineMeta = Mockito.mock(PipelineMeta.class);
+    Mockito.when(pipelineMeta.findTransform(TRANSFORM_NAME)).thenReturn(transformMeta);
+
+    MemoryGroupByData data = new MemoryGroupByData();
+    data.map = new HashMap<>();
+    data.combiner = combiner;
+
+    Iterator<Object[]> iterator = rows.iterator();
+    MemoryGroupBy transform =
+        new MemoryGroupBy(transformMeta, meta, data, copyNr, pipelineMeta, pipeline) {
+          @Override
+          public Object[] getRow() {
+            return iterator.hasNext() ? iterator.next() : null;
+          }
+
+          @Override
+          public IRowMeta getInputRowMeta() {
+            return createRowMeta();
+          }
+
+          @Override
+          public void putRow(IRowMeta rowMeta, Object[] row) {
+            synchronized (output) {
+              output.put((String) row[0], row);
+            }
+          }
+        };
+    transform.copyFrom(new Variables());
+    return transform;
+  }
+
+  private static void run(MemoryGroupBy transform) throws HopException {
+    while (transform.processRow()) {
+      // Run transform
+    }
+  }
+
+  /** Spread the rows round-robin over the copies and run them in parallel */
+  private static List<Map<String, Object[]>> runCopies(
+      MemoryGroupByMeta meta, List<Object[]> rows, int nrCopies) throws Exception {
+    Pipeline pipeline = new LocalPipelineEngine();
+    PartialAggregateCombiner combiner =
+        PartialAggregateCombiner.getInstance(pipeline, TRANSFORM_NAME, nrCopies);
+
+    List<Map<String, Object[]>> outputs = new ArrayList<>();
+    List<MemoryGroupBy> copies = new ArrayList<>();
+    for (int c = 0; c < nrCopies; c++) {
+      List<Object[]> copyRows = new ArrayList<>();
+      for (int i = c; i < rows.size(); i += nrCopies) {
+        copyRows.add(rows.get(i));
+      }
+      Map<String, Object[]> output = new TreeMap<>();
+      outputs.add(output);
+      copies.add(createCopy(meta, pipeline, c, combiner, copyRows, output));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(nrCopies);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (MemoryGroupBy copy : copies) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  run(copy);
+                  copy.dispose();
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    return outputs;
+  }
+
+  /** Exactly one copy sends out the groups */
+  private static Map<String, Object[]> getCombinedOutput(List<Map<String, Object[]>> outputs) {
+    Map<String, Object[]> combined = null;
+    for (Map<String, Object[]> output : outputs) {
+      if (!output.isEmpty()) {
+        assertEquals(null, combined, "Only one copy should send out groups");
+        combined = output;
+      }
+    }
+    return combined == null ? new TreeMap<>() : combined;
+  }
+
+  private static void assertSameGroups(
+      Map<String, Object[]> expected, Map<String, Object[]> actual) {
+    assertEquals(expected.keySet(), actual.keySet());
+    for (Map.Entry<String, Object[]> entry : expected.entrySet()) {
+      Object[] expectedRow = entry.getValue();
+      Object[] actualRow = actual.get(entry.getKey());
+      for (int i = 0; i < expectedRow.length; i++) {
+        if (expectedRow[i] instanceof Double expectedDouble) {
+          assertEquals(expectedDouble, (Double) actualRow[i], 1e-9);
+        } else {
+          assertEquals(expectedRow[i], actualRow[i], entry.getKey() + " field " + i);
+        }
+      }
+    }
+  }
+
+  @Test
+  void testCombinedCopiesGiveTheSameResult() throws Exception {
+    List<Object[]> rows = createRows(4000, 300);
+
+    Map<String, Object[]> expected = runCopies(createMeta(), rows, 1).get(0);
+    Map<String, Object[]> actual = getCombinedOutput(runCopies(createMeta(), rows, 4));
+
+    assertEquals(300, expected.size());
+    assertSameGroups(expected, actual);
+  }
+
+  @Test
+  void testCombinedCopiesWithSpilling() throws Exception {
+    List<Object[]> rows = createRows(4000, 600);
+    MemoryGroupByMeta meta = createMeta();
+    meta.setSpillingToDisk(true);
+    meta.setSpillGroupLimit("50");
+    meta.setSpillDirectory(tempDir.toString());
+
+    Map<String, Object[]> expected = runCopies(createMeta(), rows, 1).get(0);
+    Map<String, Object[]> actual = getCombinedOutput(runCopies(meta, rows, 3));
+
+    assertSameGroups(expected, actual);
+    assertEquals(0, tempDir.toFile().listFiles().length);
+  }
+
+  @Test
+  void testCopiesWithoutRows() throws Exception {
+    // Only one row for three copies: the last copy to finish can be one without rows
+    //
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[] {"key-1", 5L});
+
+    Map<String, Object[]> actual = getCombinedOutput(runCopies(createMeta(), rows, 3));
+
+    assertEquals(1, actual.size());
+    assertEquals(5L, actual.get("key-1")[1]);
+  }
+
+  @Test
+  void testAlwaysGivingBackOneRow() throws Exception {
+    MemoryGroupByMeta meta = createMeta();
+    meta.setAlwaysGivingBackOneRow(true);
+
+    List<Map<String, Object[]>> outputs = new ArrayList<>();
+    Pipeline pipeline = new LocalPipelineEngine();
+    PartialAggregateCombiner combiner =
+        PartialAggregateCombiner.getInstance(pipeline, TRANSFORM_NAME, 2);
+    int nrRows = 0;
+    for (int c = 0; c < 2; c++) {
+      Map<String, Object[]> output = new HashMap<>();
+      outputs.add(output);
+      MemoryGroupBy copy = createCopy(meta, pipeline, c, combiner, new ArrayList<>(), output);
+      run(copy);
+      nrRows += output.size();
+    }
+
+    // A single row for all copies together
+    //
+    assertEquals(1, nrRows);
+    assertTrue(outputs.get(0).isEmpty());
+  }
+}
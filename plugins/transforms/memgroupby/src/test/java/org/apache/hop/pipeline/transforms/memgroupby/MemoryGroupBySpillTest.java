@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.memgroupby;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.apache.hop.core.HopClientEnvironment;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.row.value.ValueMetaNumber;
+import org.apache.hop.core.row.value.ValueMetaString;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engines.local.LocalPipelineEngine;
+import org.apache.hop.pipeline.transform.TransformMeta;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+class MemoryGroupBySpillTest {
+  @RegisterExtension
+  static RestoreHopEngineEnvironmentExtension env = new RestoreHopEngineEnvironmentExtension();
+
+  private static final String TRANSFORM_NAME = "testTransform";
+
+  @TempDir Path tempDir;
+
+  @BeforeAll
+  static void setUpBeforeClass() throws HopException {
+    HopClientEnvironment.init();
+  }
+
+  private IRowMeta createRowMeta() {
+    IRowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaString("key"));
+    rowMeta.addValueMeta(new ValueMetaInteger("intg"));
+    rowMeta.addValueMeta(new ValueMetaNumber("num"));
+    rowMeta.addValueMeta(new ValueMetaString("str"));
+    return rowMeta;
+  }
+
+  private List<Object[]> createRows(int nrRows, int nrGroups) {
+    Random random = new Random(123L);
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < nrRows; i++) {
+      rows.add(
+          new Object[] {
+            "key-" + random.nextInt(nrGroups),
+            random.nextInt(10) == 0 ? null : (long) random.nextInt(1000),
+            random.nextDouble() * 100,
+            "s" + i
+          });
+    }
+    return rows;
+  }
+
+  private MemoryGroupByMeta createMeta() {
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.getGroups().add(new GGroup("key"));
+    addAggregate(meta, "intg", MemoryGroupByMeta.GroupType.Sum);
+    addAggregate(meta, "intg", MemoryGroupByMeta.GroupType.Average);
+    addAggregate(meta, "intg", MemoryGroupByMeta.GroupType.Minimum);
+    addAggregate(meta, "intg", MemoryGroupByMeta.GroupType.Maximum);
+    addAggregate(meta, "intg", MemoryGroupByMeta.GroupType.CountAll);
+    addAggregate(meta, "intg", MemoryGroupByMeta.GroupType.CountDistinct);
+    addAggregate(meta, "intg", MemoryGroupByMeta.GroupType.First);
+    addAggregate(meta, "intg", MemoryGroupByMeta.GroupType.LastIncludingNull);
+    addAggregate(meta, "num", MemoryGroupByMeta.GroupType.StandardDeviation);
+    addAggregate(meta, "num", MemoryGroupByMeta.GroupType.Median);
+    addAggregate(meta, "str", MemoryGroupByMeta.GroupType.ConcatComma);
+    addAggregate(meta, "str", MemoryGroupByMeta.GroupType.CountAny);
+    addAggregate(meta, "str", MemoryGroupByMeta.GroupType.ConcatDistinct);
+    addAggregate(meta, "str", MemoryGroupByMeta.GroupType.CountDistinctApproximate);
+    addAggregate(meta, "num", MemoryGroupByMeta.GroupType.Last);
+    return meta;
+  }
+
+  private void addAggregate(
+      MemoryGroupByMeta meta, String subject, MemoryGroupByMeta.GroupType type) {
+    GAggregate aggregate = new GAggregate();
+    aggregate.setField(subject + "_" + type.name());
+    aggregate.setSubject(subject);
+    aggregate.setType(type);
+    meta.getAggregates().add(aggregate);
+  }
+
+  /** Run the rows through the transform and return the output rows by group key */
+  private Map<String, Object[]> runTransform(
+      MemoryGroupByMeta meta, MemoryGroupByData data, List<Object[]> rows) throws HopException {
+    data.map = new HashMap<>();
+
+    TransformMeta transformMeta = new TransformMeta(TRANSFORM_NAME, meta);
+    PipelineMeta pipelineMeta = Mockito.mock(PipelineMeta.class);
+    Pipeline pipeline = Mockito.spy(new LocalPipelineEngine());
+    Mockito.when(pipelineMeta.findTransform(TRANSFORM_NAME)).thenReturn(transformMeta);
+
+    // Feed the rows directly to the transform, a spy is too slow for this many rows
+    //
+    Iterator<Object[]> iterator = rows.iterator();
+    Map<String, Object[]> output = new TreeMap<>();
+    MemoryGroupBy transform =
+        new MemoryGroupBy(transformMeta, meta, data, 0, pipelineMeta, pipeline) {
+          @Override
+          public Object[] getRow() {
+            return iterator.hasNext() ? iterator.next() : null;
+          }
+
+          @Override
+          public IRowMeta getInputRowMeta() {
+            return createRowMeta();
+          }
+
+          @Override
+          public void putRow(IRowMeta rowMeta, Object[] row) {
+            output.put((String) row[0], row);
+          }
+        };
+    transform.copyFrom(new Variables());
+
+    while (transform.processRow()) {
+      // Run transform
+    }
+    return output;
+  }
+
+  @Test
+  void testSpillingGivesTheSameResult() throws Exception {
+    List<Object[]> rows = createRows(5000, 1500);
+
+    Map<String, Object[]> expected = runTransform(createMeta(), new MemoryGroupByData(), rows);
+
+    MemoryGroupByMeta meta = createMeta();
+    meta.setSpillingToDisk(true);
+    meta.setSpillGroupLimit("200");
+    meta.setSpillDirectory(tempDir.toString());
+    MemoryGroupByData data = new MemoryGroupByData();
+    Map<String, Object[]> actual = runTransform(meta, data, rows);
+
+    assertTrue(data.nrSpillFiles > 0);
+    assertEquals(expected.size(), actual.size());
+    for (Map.Entry<String, Object[]> entry : expected.entrySet()) {
+      Object[] expectedRow = entry.getValue();
+      Object[] actualRow = actual.get(entry.getKey());
+      for (int i = 0; i < expectedRow.length; i++) {
+        if (expectedRow[i] instanceof Double expectedDouble) {
+          assertEquals(expectedDouble, (Double) actualRow[i], 1e-9);
+        } else {
+          assertEquals(expectedRow[i], actualRow[i], entry.getKey() + " field " + i);
+        }
+      }
+    }
+
+    // All spill files are removed once the groups are sent out
+    //
+    File[] files = tempDir.toFile().listFiles();
+    assertEquals(0, files == null ? 0 : files.length);
+  }
+
+  @Test
+  void testGroupsWithTheSameHashCodeStopSplitting() throws Exception {
+    // "Aa" and "BB" have the same hash code, so do all combinations of them
+    //
+    List<Object[]> rows = new ArrayList<>();
+    String[] parts = {"Aa", "BB"};
+    for (int i = 0; i < 2000; i++) {
+      StringBuilder key = new StringBuilder();
+      for (int bit = 0; bit < 8; bit++) {
+        key.append(parts[(i >> bit) & 1]);
+      }
+      rows.add(new Object[] {key.toString(), 1L, 1.0, "s"});
+    }
+
+    MemoryGroupByMeta meta = createMeta();
+    meta.setSpillingToDisk(true);
+    meta.setSpillGroupLimit("10");
+    meta.setSpillDirectory(tempDir.toString());
+    MemoryGroupByData data = new MemoryGroupByData();
+    Map<String, Object[]> actual = runTransform(meta, data, rows);
+
+    assertEquals(256, actual.size());
+    for (Object[] row : actual.values()) {
+      // intg_Sum
+      assertTrue(row[1] instanceof Long);
+    }
+    assertEquals(2000L, actual.values().stream().mapToLong(row -> (Long) row[1]).sum());
+  }
+
+  @Test
+  void testPartitionsUseDifferentBitsPerLevel() {
+    MemoryGroupByData data = new MemoryGroupByData();
+    data.groupMeta = new RowMeta();
+    data.groupMeta.addValueMeta(new ValueMetaInteger("key"));
+
+    // The groups of one partition are spread over the partitions of the next level
+    //
+    boolean[] used = new boolean[MemoryGroupBy.NR_PARTITIONS];
+    for (long i = 0; i < 10000; i++) {
+      MemoryGroupByData.HashEntry entry = data.getHashEntry(new Object[] {i});
+      if (MemoryGroupBy.getPartitionNr(entry, 0) == 3) {
+        used[MemoryGroupBy.getPartitionNr(entry, 1)] = true;
+      }
+    }
+    for (boolean partitionUsed : used) {
+      assertTrue(partitionUsed);
+    }
+  }
+}
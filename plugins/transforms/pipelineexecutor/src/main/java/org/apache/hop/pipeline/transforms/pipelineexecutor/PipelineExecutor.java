@@ -39,11 +39,13 @@ import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
 import org.apache.hop.pipeline.TransformWithMappingMeta;
 import org.apache.hop.pipeline.engine.IPipelineEngine;
 import org.apache.hop.pipeline.engine.PipelineEngineFactory;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
+import org.apache.hop.pipeline.transform.TransformMetaDataCombi;
 
 /** Execute a pipeline for every input row, set parameters. */
 public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, PipelineExecutorData> {
@@ -226,7 +228,19 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
       discardLogLines(pipelineExecutorData);
     }
 
-    IPipelineEngine<PipelineMeta> executorPipeline = createInternalPipeline();
+    SingleThreadedPipelineExecutor singleThreadedExecutor = null;
+    IPipelineEngine<PipelineMeta> executorPipeline = null;
+    if (pipelineExecutorData.reusingPipelines) {
+      singleThreadedExecutor = pipelineExecutorData.getPool().acquire(pipelineExecutorData.poolKey);
+      if (singleThreadedExecutor != null) {
+        executorPipeline = singleThreadedExecutor.getPipeline();
+      } else {
+        executorPipeline = createReusablePipeline();
+      }
+    }
+    if (executorPipeline == null) {
+      executorPipeline = createInternalPipeline();
+    }
     pipelineExecutorData.setExecutorPipeline(executorPipeline);
     if (incomingFieldValues != null) {
       // Pass parameter values
@@ -248,15 +262,19 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     executorPipeline.setPreviousResult(result);
 
     try {
-      executorPipeline.prepareExecution();
+      if (pipelineExecutorData.reusingPipelines) {
+        result = executeReusablePipeline((Pipeline) executorPipeline, singleThreadedExecutor);
+      } else {
+        executorPipeline.prepareExecution();
 
-      // run pipeline
-      executorPipeline.startThreads();
+        // run pipeline
+        executorPipeline.startThreads();
 
-      // Wait a while until we're done with the pipeline
-      executorPipeline.waitUntilFinished();
+        // Wait a while until we're done with the pipeline
+        executorPipeline.waitUntilFinished();
 
-      result = executorPipeline.getResult();
+        result = executorPipeline.getResult();
+      }
     } catch (HopException e) {
       logError("An error occurred executing the pipeline: ", e);
       result.setResult(false);
@@ -267,9 +285,149 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
     collectExecutionResults(result);
     collectExecutionResultFiles(result);
 
+    if (pipelineExecutorData.reusingPipelines) {
+      releaseReusablePipeline(result);
+    }
+
     pipelineExecutorData.groupBuffer.clear();
   }
 
+  /**
+   * Create a new pipeline to keep in the pool. Only single threaded pipelines can be reused: if the
+   * pipeline can't be executed this way we stop reusing pipelines.
+   *
+   * @return the new pipeline or null if pipelines can't be reused
+   */
+  private IPipelineEngine<PipelineMeta> createReusablePipeline() throws HopException {
+    PipelineMeta pipelineMeta = getData().getExecutorPipelineMeta();
+    if (pipelineMeta.getPipelineType() != PipelineMeta.PipelineType.SingleThreaded) {
+      disableReusingPipelines(
+          BaseMessages.getString(
+              PKG, "PipelineExecutor.Log.ReuseNotPossibleType", pipelineMeta.getName()));
+      return null;
+    }
+    for (TransformMeta transformMeta : pipelineMeta.getTransforms()) {
+      if (transformMeta.getCopies(this) > 1) {
+        disableReusingPipelines(
+            BaseMessages.getString(
+                PKG, "PipelineExecutor.Log.ReuseNotPossibleCopies", transformMeta.getName()));
+        return null;
+      }
+    }
+
+    IPipelineEngine<PipelineMeta> executorPipeline = createInternalPipeline(pipelineMeta);
+    if (!(executorPipeline instanceof Pipeline)) {
+      disableReusingPipelines(
+          BaseMessages.getString(
+              PKG,
+              "PipelineExecutor.Log.ReuseNotPossibleEngine",
+              resolve(meta.getRunConfigurationName())));
+      return null;
+    }
+    return executorPipeline;
+  }
+
+  private void disableReusingPipelines(String reason) {
+    logBasic(reason);
+    getData().reusingPipelines = false;
+  }
+
+  /**
+   * Execute a single threaded pipeline from the pool. A new pipeline is prepared first. A pipeline
+   * that was executed before is reset: its transforms get the new parameter values and are
+   * initialized again, the row sets are emptied.
+   *
+   * @param pipeline the single threaded pipeline to execute
+   * @param singleThreadedExecutor the executor of the pipeline or null for a new pipeline
+   * @return the result of the execution
+   */
+  private Result executeReusablePipeline(
+      Pipeline pipeline, SingleThreadedPipelineExecutor singleThreadedExecutor)
+      throws HopException {
+    if (singleThreadedExecutor == null) {
+      boolean prepared = false;
+      try {
+        pipeline.prepareExecution();
+        pipeline.startThreads();
+        singleThreadedExecutor = new SingleThreadedPipelineExecutor(pipeline);
+        prepared = true;
+      } finally {
+        if (!prepared) {
+          disposeUnpreparedPipeline(pipeline);
+        }
+      }
+      getData().setSingleThreadedExecutor(singleThreadedExecutor);
+    } else {
+      // The transforms took a copy of the variables when the pipeline was prepared.
+      //
+      for (TransformMetaDataCombi combi : pipeline.getTransforms()) {
+        for (PipelineExecutorParameters parameter : meta.getParameters()) {
+          String variableName = parameter.getVariable();
+          combi.transform.setVariable(variableName, pipeline.getVariable(variableName));
+        }
+      }
+      getData().setSingleThreadedExecutor(singleThreadedExecutor);
+      if (!singleThreadedExecutor.reset()) {
+        throw new HopException(
+            BaseMessages.getString(PKG, "PipelineExecutor.Exception.UnableToResetPipeline"));
+      }
+    }
+
+    boolean finished = singleThreadedExecutor.executeUntilFinished();
+    Result result = singleThreadedExecutor.getResult();
+    if (!finished) {
+      // A transform failed or the pipeline was stopped
+      result.setResult(false);
+      result.setNrErrors(Math.max(1, result.getNrErrors()));
+    }
+    return result;
+  }
+
+  /**
+   * Clean up a pipeline which failed to be prepared or started. The transforms which were
+   * initialized are disposed, unless the pipeline already did that when an initialization failed.
+   *
+   * @param pipeline the pipeline to clean up
+   */
+  private void disposeUnpreparedPipeline(Pipeline pipeline) {
+    if (pipeline.getTransforms() != null && !pipeline.isFinished()) {
+      for (TransformMetaDataCombi combi : pipeline.getTransforms()) {
+        combi.transform.dispose();
+        combi.transform.markStop();
+      }
+    }
+    String logChannelId = pipeline.getLogChannelId();
+    HopLogStore.discardLines(logChannelId, false);
+    LoggingRegistry.getInstance().removeIncludingChildren(logChannelId);
+  }
+
+  /**
+   * Give the executed pipeline back to the pool. Pipelines with errors are disposed.
+   *
+   * @param result the result of the execution
+   */
+  private void releaseReusablePipeline(Result result) {
+    PipelineExecutorData pipelineExecutorData = getData();
+    SingleThreadedPipelineExecutor singleThreadedExecutor =
+        pipelineExecutorData.getSingleThreadedExecutor();
+    pipelineExecutorData.setSingleThreadedExecutor(null);
+    if (singleThreadedExecutor == null) {
+      return;
+    }
+
+    // The pipeline logs to the same channel every time it is executed
+    //
+    HopLogStore.discardLines(singleThreadedExecutor.getPipeline().getLogChannelId(), false);
+
+    if (result.getNrErrors() > 0
+        || singleThreadedExecutor.isStopped()
+        || !pipelineExecutorData
+            .getPool()
+            .release(pipelineExecutorData.poolKey, singleThreadedExecutor)) {
+      PipelineExecutorPool.dispose(singleThreadedExecutor);
+    }
+  }
+
   @VisibleForTesting
   void discardLogLines(PipelineExecutorData pipelineExecutorData) {
     // Keep the strain on the logging back-end conservative.
@@ -283,11 +441,16 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
 
   @VisibleForTesting
   IPipelineEngine<PipelineMeta> createInternalPipeline() throws HopException {
+    return createInternalPipeline(getData().getExecutorPipelineMeta());
+  }
+
+  private IPipelineEngine<PipelineMeta> createInternalPipeline(PipelineMeta executorPipelineMeta)
+      throws HopException {
 
     String runConfigurationName = resolve(meta.getRunConfigurationName());
     IPipelineEngine<PipelineMeta> executorPipeline =
         PipelineEngineFactory.createPipelineEngine(
-            this, runConfigurationName, metadataProvider, getData().getExecutorPipelineMeta());
+            this, runConfigurationName, metadataProvider, executorPipelineMeta);
     executorPipeline.setParentPipeline(getPipeline());
     executorPipeline.setParent(this);
     executorPipeline.setLogLevel(getLogLevel());
@@ -519,6 +682,17 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
         pipelineExecutorData.groupField = resolve(meta.getGroupField());
       }
 
+      // Do we keep prepared pipelines around to execute them again?
+      pipelineExecutorData.reusingPipelines = meta.isReusingPipelines();
+      if (pipelineExecutorData.reusingPipelines) {
+        int poolSize = getTransformMeta().getCopies(this);
+        if (!Utils.isEmpty(meta.getPoolSize())) {
+          poolSize = Const.toInt(resolve(meta.getPoolSize()), poolSize);
+        }
+        pipelineExecutorData.setPool(
+            PipelineExecutorPool.register(getPipeline(), getTransformName(), poolSize));
+      }
+
       // First we need to load the mapping (pipeline)
       try {
         if ((!meta.isFilenameInField() && Utils.isEmpty(meta.getFilename()))
@@ -544,6 +718,8 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
   private boolean initPipeline(PipelineExecutorData pipelineExecutorData) throws HopException {
 
     pipelineExecutorData.setExecutorPipelineMeta(loadExecutorPipelineMeta());
+    pipelineExecutorData.poolKey =
+        meta.isFilenameInField() ? pipelineExecutorData.prevFilename : resolve(meta.getFilename());
 
     // Do we have a pipeline at all?
     if (pipelineExecutorData.getExecutorPipelineMeta() != null) {
@@ -566,6 +742,10 @@ public class PipelineExecutor extends BaseTransform<PipelineExecutorMeta, Pipeli
   public void dispose() {
     PipelineExecutorData pipelineExecutorData = getData();
     pipelineExecutorData.groupBuffer = null;
+    if (pipelineExecutorData.getPool() != null) {
+      PipelineExecutorPool.unregister(getPipeline(), getTransformName());
+      pipelineExecutorData.setPool(null);
+    }
     super.dispose();
   }
 
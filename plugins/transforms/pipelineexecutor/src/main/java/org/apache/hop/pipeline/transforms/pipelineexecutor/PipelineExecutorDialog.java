@@ -108,6 +108,9 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
   private CCombo wGroupField;
   private Label wlGroupTime;
   private TextVar wGroupTime;
+  private Button wReusePipelines;
+  private Label wlPoolSize;
+  private TextVar wPoolSize;
 
   private CCombo wExecutionResultTarget;
   private TableItem tiExecutionTimeField;
@@ -503,6 +506,8 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
     wGroupSize.setText(Const.NVL(pipelineExecutorMeta.getGroupSize(), ""));
     wGroupTime.setText(Const.NVL(pipelineExecutorMeta.getGroupTime(), ""));
     wGroupField.setText(Const.NVL(pipelineExecutorMeta.getGroupField(), ""));
+    wReusePipelines.setSelection(pipelineExecutorMeta.isReusingPipelines());
+    wPoolSize.setText(Const.NVL(pipelineExecutorMeta.getPoolSize(), ""));
 
     wExecutionResultTarget.setText(
         pipelineExecutorMeta.getExecutionResultTargetTransformMeta() == null
@@ -863,6 +868,51 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
     fdGroupTime.left = new FormAttachment(middle, 0);
     wGroupTime.setLayoutData(fdGroupTime);
 
+    // Reuse prepared pipelines
+    //
+    Label wlReusePipelines = new Label(wInputComposite, SWT.RIGHT);
+    PropsUi.setLook(wlReusePipelines);
+    wlReusePipelines.setText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.ReusePipelines.Label"));
+    wlReusePipelines.setToolTipText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.ReusePipelines.Tooltip"));
+    FormData fdlReusePipelines = new FormData();
+    fdlReusePipelines.top = new FormAttachment(wGroupTime, 10);
+    fdlReusePipelines.left = new FormAttachment(0, 0);
+    fdlReusePipelines.right = new FormAttachment(middle, -margin);
+    wlReusePipelines.setLayoutData(fdlReusePipelines);
+
+    wReusePipelines = new Button(wInputComposite, SWT.CHECK);
+    PropsUi.setLook(wReusePipelines);
+    wReusePipelines.setToolTipText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.ReusePipelines.Tooltip"));
+    FormData fdReusePipelines = new FormData();
+    fdReusePipelines.top = new FormAttachment(wlReusePipelines, 0, SWT.CENTER);
+    fdReusePipelines.left = new FormAttachment(middle, 0);
+    wReusePipelines.setLayoutData(fdReusePipelines);
+    wReusePipelines.addListener(SWT.Selection, e -> setFlags());
+
+    // Pool size
+    //
+    wlPoolSize = new Label(wInputComposite, SWT.RIGHT);
+    PropsUi.setLook(wlPoolSize);
+    wlPoolSize.setText(BaseMessages.getString(PKG, "PipelineExecutorDialog.PoolSize.Label"));
+    wlPoolSize.setToolTipText(
+        BaseMessages.getString(PKG, "PipelineExecutorDialog.PoolSize.Tooltip"));
+    FormData fdlPoolSize = new FormData();
+    fdlPoolSize.top = new FormAttachment(wReusePipelines, 10);
+    fdlPoolSize.left = new FormAttachment(0, 0);
+    fdlPoolSize.right = new FormAttachment(middle, -margin);
+    wlPoolSize.setLayoutData(fdlPoolSize);
+
+    wPoolSize = new TextVar(variables, wInputComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wPoolSize);
+    FormData fdPoolSize = new FormData();
+    fdPoolSize.right = new FormAttachment(100);
+    fdPoolSize.top = new FormAttachment(wlPoolSize, 0, SWT.CENTER);
+    fdPoolSize.left = new FormAttachment(middle, 0);
+    wPoolSize.setLayoutData(fdPoolSize);
+
     wTab.setControl(wInputComposite);
     wTabFolder.setSelection(wTab);
   }
@@ -1199,7 +1249,10 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
         || wlGroupField == null
         || wGroupField == null
         || wlGroupTime == null
-        || wGroupTime == null) {
+        || wGroupTime == null
+        || wReusePipelines == null
+        || wlPoolSize == null
+        || wPoolSize == null) {
       return;
     }
     boolean enableSize = Const.toInt(variables.resolve(wGroupSize.getText()), -1) >= 0;
@@ -1211,6 +1264,8 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
     wGroupField.setEnabled(!enableSize);
     wlGroupTime.setEnabled(!enableSize && !enableField);
     wGroupTime.setEnabled(!enableSize && !enableField);
+    wlPoolSize.setEnabled(wReusePipelines.getSelection());
+    wPoolSize.setEnabled(wReusePipelines.getSelection());
   }
 
   private void cancel() {
@@ -1299,6 +1354,8 @@ public class PipelineExecutorDialog extends BaseTransformDialog {
     pipelineExecutorMeta.setGroupSize(wGroupSize.getText());
     pipelineExecutorMeta.setGroupField(wGroupField.getText());
     pipelineExecutorMeta.setGroupTime(wGroupTime.getText());
+    pipelineExecutorMeta.setReusingPipelines(wReusePipelines.getSelection());
+    pipelineExecutorMeta.setPoolSize(wPoolSize.getText());
 
     pipelineExecutorMeta.setExecutionResultTargetTransform(wExecutionResultTarget.getText());
     pipelineExecutorMeta.setExecutionResultTargetTransformMeta(
@@ -107,6 +107,20 @@ public class PipelineExecutorMeta
   @HopMetadataProperty(key = "group_time")
   private String groupTime;
 
+  /**
+   * Keep prepared single threaded copies of the pipeline around and execute them again for the next
+   * group of rows instead of building a new pipeline every time.
+   */
+  @HopMetadataProperty(key = "reuse_pipelines")
+  private boolean reusingPipelines;
+
+  /**
+   * The maximum number of idle prepared pipelines that are kept around for all the copies of this
+   * transform. Empty means: the number of copies of this transform.
+   */
+  @HopMetadataProperty(key = "pool_size")
+  private String poolSize;
+
   @HopMetadataProperty(key = "variable_mapping", groupKey = "parameters")
   private List<PipelineExecutorParameters> parameters;
 
@@ -269,6 +283,8 @@ public class PipelineExecutorMeta
     groupSize = "1";
     groupField = "";
     groupTime = "";
+    reusingPipelines = false;
+    poolSize = "";
 
     executionTimeField = "ExecutionTime";
     executionResultField = "ExecutionResult";
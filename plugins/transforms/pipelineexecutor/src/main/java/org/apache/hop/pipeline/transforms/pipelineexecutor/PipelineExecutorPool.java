@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pipelineexecutor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.core.logging.LoggingRegistry;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+
+/**
+ * The idle prepared pipelines of a Pipeline Executor transform. The pool is shared by all the
+ * copies of the transform: a copy takes a prepared pipeline out of the pool to execute a group of
+ * rows and gives it back afterwards. The pipelines are kept per pipeline filename.
+ */
+public class PipelineExecutorPool {
+
+  private static final String EXTENSION_DATA_PREFIX = "PipelineExecutorPool-";
+
+  private final int maxIdle;
+  private final Map<String, Deque<SingleThreadedPipelineExecutor>> idleExecutors;
+  private int nrUsers;
+
+  PipelineExecutorPool(int maxIdle) {
+    this.maxIdle = maxIdle;
+    this.idleExecutors = new HashMap<>();
+  }
+
+  /**
+   * Get the pool of the given transform in the parent pipeline, create it if needed.
+   *
+   * @param parentPipeline the pipeline in which the Pipeline Executor transform runs
+   * @param transformName the name of the transform
+   * @param maxIdle the maximum number of idle pipelines in a new pool
+   * @return the shared pool. Call {@link #unregister(IPipelineEngine, String)} when done.
+   */
+  public static PipelineExecutorPool register(
+      IPipelineEngine<PipelineMeta> parentPipeline, String transformName, int maxIdle) {
+    Map<String, Object> extensionDataMap = parentPipeline.getExtensionDataMap();
+    synchronized (extensionDataMap) {
+      String key = EXTENSION_DATA_PREFIX + transformName;
+      PipelineExecutorPool pool = (PipelineExecutorPool) extensionDataMap.get(key);
+      if (pool == null) {
+        pool = new PipelineExecutorPool(maxIdle);
+        extensionDataMap.put(key, pool);
+      }
+      synchronized (pool) {
+        pool.nrUsers++;
+      }
+      return pool;
+    }
+  }
+
+  /**
+   * Stop using the pool of the given transform. The last copy of the transform to unregister
+   * disposes all the idle pipelines.
+   *
+   * @param parentPipeline the pipeline in which the Pipeline Executor transform runs
+   * @param transformName the name of the transform
+   */
+  public static void unregister(
+      IPipelineEngine<PipelineMeta> parentPipeline, String transformName) {
+    Map<String, Object> extensionDataMap = parentPipeline.getExtensionDataMap();
+    PipelineExecutorPool pool;
+    synchronized (extensionDataMap) {
+      String key = EXTENSION_DATA_PREFIX + transformName;
+      pool = (PipelineExecutorPool) extensionDataMap.get(key);
+      if (pool == null) {
+        return;
+      }
+      synchronized (pool) {
+        pool.nrUsers--;
+        if (pool.nrUsers > 0) {
+          return;
+        }
+      }
+      extensionDataMap.remove(key);
+    }
+    pool.clear();
+  }
+
+  /**
+   * Take an idle prepared pipeline out of the pool.
+   *
+   * @param filename the filename of the pipeline
+   * @return the executor of the idle pipeline or null if there is none
+   */
+  public synchronized SingleThreadedPipelineExecutor acquire(String filename) {
+    Deque<SingleThreadedPipelineExecutor> executors = idleExecutors.get(filename);
+    if (executors == null) {
+      return null;
+    }
+    return executors.pollFirst();
+  }
+
+  /**
+   * Give a prepared pipeline back to the pool after it executed without errors.
+   *
+   * @param filename the filename of the pipeline
+   * @param executor the executor of the pipeline
+   * @return true if the pipeline was added, false if the pool is full. The caller disposes the
+   *     pipeline in that case.
+   */
+  public synchronized boolean release(String filename, SingleThreadedPipelineExecutor executor) {
+    if (getNrIdle() >= maxIdle) {
+      return false;
+    }
+    idleExecutors.computeIfAbsent(filename, f -> new ArrayDeque<>()).addFirst(executor);
+    return true;
+  }
+
+  /** Dispose all the idle pipelines */
+  public void clear() {
+    List<SingleThreadedPipelineExecutor> executors = new ArrayList<>();
+    synchronized (this) {
+      idleExecutors.values().forEach(executors::addAll);
+      idleExecutors.clear();
+    }
+    for (SingleThreadedPipelineExecutor executor : executors) {
+      dispose(executor);
+    }
+  }
+
+  /**
+   * Dispose the transforms of a prepared pipeline and remove its logging.
+   *
+   * @param executor the executor of the pipeline to dispose
+   */
+  public static void dispose(SingleThreadedPipelineExecutor executor) {
+    executor.dispose();
+    String logChannelId = executor.getPipeline().getLogChannelId();
+    HopLogStore.discardLines(logChannelId, false);
+    LoggingRegistry.getInstance().removeIncludingChildren(logChannelId);
+  }
+
+  public int getMaxIdle() {
+    return maxIdle;
+  }
+
+  /**
+   * @return the number of idle pipelines in the pool
+   */
+  public synchronized int getNrIdle() {
+    int nrIdle = 0;
+    for (Deque<SingleThreadedPipelineExecutor> executors : idleExecutors.values()) {
+      nrIdle += executors.size();
+    }
+    return nrIdle;
+  }
+}
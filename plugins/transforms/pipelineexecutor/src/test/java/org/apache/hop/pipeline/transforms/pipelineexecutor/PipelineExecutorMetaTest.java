@@ -19,6 +19,7 @@ package org.apache.hop.pipeline.transforms.pipelineexecutor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.apache.hop.pipeline.transform.TransformSerializationTestUtil;
 import org.junit.jupiter.api.Test;
@@ -32,6 +33,8 @@ class PipelineExecutorMetaTest {
             "/pipeline-executor-transform.xml", PipelineExecutorMeta.class);
 
     assertEquals("${PROJECT_HOME}/loops/child-loops-log-counter.hpl", meta.getFilename());
+    assertTrue(meta.isReusingPipelines());
+    assertEquals("4", meta.getPoolSize());
     assertEquals("execution results", meta.getExecutionResultTargetTransform());
     assertEquals("ExecutionTime", meta.getExecutionTimeField());
     assertEquals("ExecutionResult", meta.getExecutionResultField());
@@ -83,6 +86,8 @@ class PipelineExecutorMetaTest {
     assertEquals(meta.getResultFilesTargetTransform(), clone.getResultFilesTargetTransform());
     assertEquals(meta.getResultFilesFileNameField(), clone.getResultFilesFileNameField());
     assertEquals(meta.getExecutorsOutputTransform(), clone.getExecutorsOutputTransform());
+    assertEquals(meta.isReusingPipelines(), clone.isReusingPipelines());
+    assertEquals(meta.getPoolSize(), clone.getPoolSize());
     assertEquals(meta.getParameters().size(), clone.getParameters().size());
     assertEquals(meta.getResultRows().size(), clone.getResultRows().size());
   }
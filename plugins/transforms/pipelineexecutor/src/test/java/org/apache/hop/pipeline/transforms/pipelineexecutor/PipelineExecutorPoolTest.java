@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.pipelineexecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.hop.core.logging.HopLogStore;
+import org.apache.hop.pipeline.Pipeline;
+import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.SingleThreadedPipelineExecutor;
+import org.apache.hop.pipeline.engine.IPipelineEngine;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PipelineExecutorPoolTest {
+
+  private IPipelineEngine<PipelineMeta> parentPipeline;
+
+  @BeforeAll
+  static void setUpBeforeClass() {
+    HopLogStore.init();
+  }
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    parentPipeline = mock(IPipelineEngine.class);
+    Map<String, Object> extensionDataMap = new HashMap<>();
+    when(parentPipeline.getExtensionDataMap()).thenReturn(extensionDataMap);
+  }
+
+  private SingleThreadedPipelineExecutor mockExecutor() {
+    SingleThreadedPipelineExecutor executor = mock(SingleThreadedPipelineExecutor.class);
+    Pipeline pipeline = mock(Pipeline.class);
+    when(pipeline.getLogChannelId()).thenReturn("channel");
+    when(executor.getPipeline()).thenReturn(pipeline);
+    return executor;
+  }
+
+  @Test
+  void testSharedByCopies() {
+    PipelineExecutorPool pool1 = PipelineExecutorPool.register(parentPipeline, "executor", 2);
+    PipelineExecutorPool pool2 = PipelineExecutorPool.register(parentPipeline, "executor", 2);
+    PipelineExecutorPool other = PipelineExecutorPool.register(parentPipeline, "other", 2);
+
+    assertSame(pool1, pool2);
+    assertNotSame(pool1, other);
+  }
+
+  @Test
+  void testAcquireAndRelease() {
+    PipelineExecutorPool pool = PipelineExecutorPool.register(parentPipeline, "executor", 2);
+    SingleThreadedPipelineExecutor executor1 = mockExecutor();
+    SingleThreadedPipelineExecutor executor2 = mockExecutor();
+    SingleThreadedPipelineExecutor executor3 = mockExecutor();
+
+    assertNull(pool.acquire("a.hpl"));
+    assertTrue(pool.release("a.hpl", executor1));
+    assertTrue(pool.release("b.hpl", executor2));
+    assertFalse(pool.release("a.hpl", executor3));
+    assertEquals(2, pool.getNrIdle());
+
+    assertNull(pool.acquire("c.hpl"));
+    assertSame(executor1, pool.acquire("a.hpl"));
+    assertNull(pool.acquire("a.hpl"));
+    assertEquals(1, pool.getNrIdle());
+  }
+
+  @Test
+  void testLastUnregisterDisposes() {
+    PipelineExecutorPool pool = PipelineExecutorPool.register(parentPipeline, "executor", 2);
+    PipelineExecutorPool.register(parentPipeline, "executor", 2);
+    SingleThreadedPipelineExecutor executor = mockExecutor();
+    pool.release("a.hpl", executor);
+
+    PipelineExecutorPool.unregister(parentPipeline, "executor");
+    verify(executor, never()).dispose();
+    assertEquals(1, pool.getNrIdle());
+
+    PipelineExecutorPool.unregister(parentPipeline, "executor");
+    verify(executor).dispose();
+    assertEquals(0, pool.getNrIdle());
+    assertTrue(parentPipeline.getExtensionDataMap().isEmpty());
+  }
+}
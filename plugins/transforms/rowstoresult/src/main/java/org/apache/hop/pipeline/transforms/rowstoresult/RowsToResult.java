@@ -17,6 +17,7 @@
 
 package org.apache.hop.pipeline.transforms.rowstoresult;
 
+import java.util.ArrayList;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.i18n.BaseMessages;
@@ -70,7 +71,8 @@ public class RowsToResult extends BaseTransform<RowsToResultMeta, RowsToResultDa
   public boolean init() {
 
     if (super.init()) {
-      // Add init code here.
+      // A prepared pipeline can be executed again: start from an empty buffer.
+      data.rows = new ArrayList<>();
       return true;
     }
     return false;
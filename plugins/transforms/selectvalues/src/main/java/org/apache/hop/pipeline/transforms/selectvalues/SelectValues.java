@@ -30,6 +30,7 @@ import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.row.RowBatch;
 import org.apache.hop.core.row.RowDataUtil;
 import org.apache.hop.core.row.value.ValueMetaFactory;
 import org.apache.hop.core.util.EnvUtil;
@@ -387,6 +388,10 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
 
   @Override
   public boolean processRow() throws HopException {
+    if (isUsingRowBatches()) {
+      return processRowBatch();
+    }
+
     Object[] rowData = getRow(); // get row from rowset, wait for our turn, indicate busy!
     if (rowData == null) { // no more input to be expected...
 
@@ -407,27 +412,11 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
 
     if (first) {
       first = false;
-
-      data.selectRowMeta = getInputRowMeta().clone();
-      meta.getSelectFields(data.selectRowMeta, getTransformName());
-      data.deselectRowMeta = data.selectRowMeta.clone();
-      meta.getDeleteFields(data.deselectRowMeta);
-      data.metadataRowMeta = data.deselectRowMeta.clone();
-      meta.getMetadataFields(data.metadataRowMeta, getTransformName(), this);
+      determineOutputRowMeta();
     }
 
     try {
-      Object[] outputData = rowData;
-
-      if (data.select) {
-        outputData = selectValues(getInputRowMeta(), outputData);
-      }
-      if (data.deselect) {
-        outputData = removeValues(data.selectRowMeta, outputData);
-      }
-      if (data.metadata) {
-        outputData = metadataValues(data.deselectRowMeta, outputData);
-      }
+      Object[] outputData = transformRow(rowData);
 
       if (outputData == null) {
         setOutputDone(); // signal end to receiver(s)
@@ -445,14 +434,7 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
 
     } catch (HopException e) {
       if (getTransformMeta().isDoingErrorHandling()) {
-        String field;
-        if (e instanceof HopConversionException hopConversionException) {
-          List<IValueMeta> fields = hopConversionException.getFields();
-          field = fields.isEmpty() ? null : fields.get(0).getName();
-        } else {
-          field = null;
-        }
-        putError(getInputRowMeta(), rowCopy, 1, e.getMessage(), field, "SELECT001");
+        putError(getInputRowMeta(), rowCopy, 1, e.getMessage(), getErrorField(e), "SELECT001");
       } else {
         throw e;
       }
@@ -465,6 +447,114 @@ public class SelectValues extends BaseTransform<SelectValuesMeta, SelectValuesDa
     return true;
   }
 
+  private boolean processRowBatch() throws HopException {
+    long previousLinesRead = getLinesRead();
+    RowBatch batch = getRowBatch(getRowBatchSize());
+    if (batch == null) { // no more input to be expected...
+      setOutputDone();
+      return false;
+    }
+
+    if (first) {
+      first = false;
+      determineOutputRowMeta();
+    }
+
+    boolean doingErrorHandling = getTransformMeta().isDoingErrorHandling();
+    boolean[] selection = new boolean[batch.size()];
+    boolean endOfData = false;
+
+    for (int i = 0; i < batch.size() && !endOfData; i++) {
+      Object[] rowData = batch.getRow(i);
+      Object[] rowCopy = doingErrorHandling ? getInputRowMeta().cloneRow(rowData) : null;
+
+      if (isRowLevel()) {
+        logRowlevel(
+            BaseMessages.getString(PKG, "SelectValues.Log.GotRowFromPreviousTransform")
+                + getInputRowMeta().getString(rowData));
+      }
+
+      try {
+        Object[] outputData = transformRow(rowData);
+        if (outputData == null) {
+          endOfData = true;
+        } else {
+          batch.setRow(i, outputData);
+          selection[i] = true;
+        }
+      } catch (HopException e) {
+        if (doingErrorHandling) {
+          putError(getInputRowMeta(), rowCopy, 1, e.getMessage(), getErrorField(e), "SELECT001");
+        } else {
+          throw e;
+        }
+      }
+    }
+
+    // Send the rows on their way
+    //
+    batch.retainRows(selection);
+    batch.setRowMeta(data.metadataRowMeta);
+    putRowBatch(batch);
+
+    if (isRowLevel()) {
+      for (int i = 0; i < batch.size(); i++) {
+        logRowlevel(
+            BaseMessages.getString(PKG, "SelectValues.Log.WroteRowToNextTransform")
+                + data.metadataRowMeta.getString(batch.getRow(i)));
+      }
+    }
+
+    if (endOfData) {
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+
+    if (checkFeedback(previousLinesRead, getLinesRead()) && isBasic()) {
+      logBasic(BaseMessages.getString(PKG, "SelectValues.Log.LineNumber") + getLinesRead());
+    }
+
+    return true;
+  }
+
+  private void determineOutputRowMeta() throws HopException {
+    data.selectRowMeta = getInputRowMeta().clone();
+    meta.getSelectFields(data.selectRowMeta, getTransformName());
+    data.deselectRowMeta = data.selectRowMeta.clone();
+    meta.getDeleteFields(data.deselectRowMeta);
+    data.metadataRowMeta = data.deselectRowMeta.clone();
+    meta.getMetadataFields(data.metadataRowMeta, getTransformName(), this);
+  }
+
+  /**
+   * Select, remove and change the metadata of the values in a row.
+   *
+   * @param rowData The input row
+   * @return The output row or null if the select values transform needs to stop.
+   */
+  private Object[] transformRow(Object[] rowData) throws HopException {
+    Object[] outputData = rowData;
+
+    if (data.select) {
+      outputData = selectValues(getInputRowMeta(), outputData);
+    }
+    if (data.deselect) {
+      outputData = removeValues(data.selectRowMeta, outputData);
+    }
+    if (data.metadata) {
+      outputData = metadataValues(data.deselectRowMeta, outputData);
+    }
+    return outputData;
+  }
+
+  private static String getErrorField(HopException e) {
+    if (e instanceof HopConversionException hopConversionException) {
+      List<IValueMeta> fields = hopConversionException.getFields();
+      return fields.isEmpty() ? null : fields.get(0).getName();
+    }
+    return null;
+  }
+
   @Override
   public boolean init() {
 
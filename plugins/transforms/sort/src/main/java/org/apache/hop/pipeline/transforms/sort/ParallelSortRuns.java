@@ -0,0 +1,509 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.spill.SpillFileReader;
+import org.apache.hop.core.spill.SpillFileWriter;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.pipeline.transform.BaseTransform;
+
+/**
+ * The parallel external merge sort of the Sort Rows transform.
+ *
+ * <p>When the sort buffer is full it is handed over to a background thread which sorts it on the
+ * fork-join pool and writes it to a temporary file (a run) while the transform fills the next
+ * buffer. At most one run is being sorted and written at any time so that we never keep more than
+ * two buffers in memory.
+ *
+ * <p>The runs are merged with a heap. We never read more than the merge fan-in number of files at
+ * the same time: if there are more runs than that, groups of runs are first merged in parallel into
+ * larger runs.
+ */
+public class ParallelSortRuns {
+
+  /** Creates the temporary files to store the sorted runs in. */
+  @FunctionalInterface
+  public interface IRunFileFactory {
+    FileObject createRunFile() throws HopException;
+  }
+
+  private static final AtomicInteger threadCounter = new AtomicInteger(0);
+
+  private final IRowMeta rowMeta;
+  private final int[] fieldNrs;
+  private final Comparator<Object[]> comparator;
+  private final boolean onlyPassingUniqueRows;
+  private final boolean compressFiles;
+  private final int mergeFanIn;
+  private final String spillCodec;
+  private final boolean spillDictionary;
+  private final IRunFileFactory runFileFactory;
+  private final ExecutorService executor;
+
+  private List<SortRun> runs;
+  private Future<SortRun> pendingRun;
+  private PriorityQueue<RunReader> mergeQueue;
+  private List<RunReader> readers;
+  private int nrMergePasses;
+
+  /**
+   * @param rowMeta The metadata of the rows to sort
+   * @param fieldNrs The indexes of the sort keys, used to remove duplicates
+   * @param comparator The comparator to sort the rows with
+   * @param onlyPassingUniqueRows Only write the first row of every set of rows with the same keys
+   * @param compressFiles Compress the temporary files with GZIP
+   * @param mergeFanIn The maximum number of runs to merge at the same time
+   * @param nrThreads The number of background threads to sort, write and merge runs with
+   * @param spillCodec The codec of the spill file format or null to use the classic format
+   * @param spillDictionary Dictionary encode strings in the spill file format
+   * @param runFileFactory Creates the temporary files
+   */
+  public ParallelSortRuns(
+      IRowMeta rowMeta,
+      int[] fieldNrs,
+      Comparator<Object[]> comparator,
+      boolean onlyPassingUniqueRows,
+      boolean compressFiles,
+      int mergeFanIn,
+      int nrThreads,
+      String spillCodec,
+      boolean spillDictionary,
+      IRunFileFactory runFileFactory) {
+    this.rowMeta = rowMeta;
+    this.fieldNrs = fieldNrs;
+    this.comparator = comparator;
+    this.onlyPassingUniqueRows = onlyPassingUniqueRows;
+    this.compressFiles = compressFiles;
+    this.mergeFanIn = Math.max(2, mergeFanIn);
+    this.spillCodec = spillCodec;
+    this.spillDictionary = spillDictionary;
+    this.runFileFactory = runFileFactory;
+    this.executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, nrThreads),
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "sort-rows-runs-" + threadCounter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.runs = new ArrayList<>();
+  }
+
+  /**
+   * Sort a list of rows using all available cores. The sort is stable.
+   *
+   * @param rows The rows to sort
+   * @param comparator The comparator to use
+   */
+  public static void sort(List<Object[]> rows, Comparator<Object[]> comparator) {
+    if (rows.size() < 2) {
+      return;
+    }
+    Object[][] array = rows.toArray(new Object[0][]);
+    Arrays.parallelSort(array, comparator);
+    for (int i = 0; i < array.length; i++) {
+      rows.set(i, array[i]);
+    }
+  }
+
+  /**
+   * Sort the given rows and write them to a new run in the background. The caller hands over the
+   * list and should not touch it anymore. If the previous run is still being written we wait for it
+   * first.
+   *
+   * @param rows The rows of the new run
+   * @throws HopException In case writing the previous run failed
+   */
+  public void addRun(List<Object[]> rows) throws HopException {
+    waitForPendingRun();
+    if (rows.isEmpty()) {
+      return;
+    }
+    pendingRun =
+        executor.submit(
+            () -> {
+              sort(rows, comparator);
+              SortRun run = writeRun(rows);
+              rows.clear();
+              return run;
+            });
+  }
+
+  /**
+   * @return true if rows were written to a run
+   */
+  public boolean hasRuns() {
+    return pendingRun != null || !runs.isEmpty();
+  }
+
+  /**
+   * Get the next row in sort order from the runs. The first call starts the merge.
+   *
+   * @return The next row or null if all rows were read
+   * @throws HopException In case of an error reading or merging the runs
+   */
+  public Object[] getRow() throws HopException {
+    if (mergeQueue == null) {
+      startMerge();
+    }
+    RunReader reader = mergeQueue.poll();
+    if (reader == null) {
+      return null;
+    }
+    Object[] row = reader.row;
+    if (reader.next()) {
+      mergeQueue.add(reader);
+    } else {
+      reader.close();
+      reader.run.delete();
+    }
+    return row;
+  }
+
+  /**
+   * Wait for the last run to be written and merge the runs until no more than the merge fan-in
+   * number are left. Then open all the remaining runs.
+   *
+   * @throws HopException In case of an error writing or merging the runs
+   */
+  void startMerge() throws HopException {
+    waitForPendingRun();
+
+    while (runs.size() > mergeFanIn) {
+      List<Future<SortRun>> merges = new ArrayList<>();
+      for (int i = 0; i < runs.size(); i += mergeFanIn) {
+        List<SortRun> group =
+            new ArrayList<>(runs.subList(i, Math.min(runs.size(), i + mergeFanIn)));
+        merges.add(executor.submit(() -> mergeRuns(group)));
+      }
+      List<SortRun> merged = new ArrayList<>();
+      HopException exception = null;
+      for (Future<SortRun> merge : merges) {
+        try {
+          merged.add(getResult(merge));
+        } catch (HopException e) {
+          exception = e;
+        }
+      }
+      if (exception != null) {
+        // Make sure we clean up all the runs we know about
+        //
+        runs.addAll(merged);
+        throw exception;
+      }
+      runs = merged;
+      nrMergePasses++;
+    }
+
+    readers = new ArrayList<>();
+    mergeQueue = new PriorityQueue<>(Math.max(1, runs.size()), RunReader::compareTo);
+    for (int i = 0; i < runs.size(); i++) {
+      RunReader reader = new RunReader(runs.get(i), i);
+      readers.add(reader);
+      if (reader.next()) {
+        mergeQueue.add(reader);
+      }
+    }
+  }
+
+  /** Merge a number of runs into a new run and remove the merged runs. */
+  private SortRun mergeRuns(List<SortRun> group) throws HopException {
+    if (group.size() == 1) {
+      return group.get(0);
+    }
+    PriorityQueue<RunReader> queue = new PriorityQueue<>(group.size(), RunReader::compareTo);
+    List<RunReader> groupReaders = new ArrayList<>();
+    try {
+      for (int i = 0; i < group.size(); i++) {
+        RunReader reader = new RunReader(group.get(i), i);
+        groupReaders.add(reader);
+        if (reader.next()) {
+          queue.add(reader);
+        }
+      }
+
+      SortRun run = new SortRun(runFileFactory.createRunFile());
+      try (RunWriter writer = new RunWriter(run)) {
+        RunReader reader;
+        while ((reader = queue.poll()) != null) {
+          writer.write(reader.row);
+          if (reader.next()) {
+            queue.add(reader);
+          }
+        }
+      }
+      return run;
+    } finally {
+      for (RunReader reader : groupReaders) {
+        reader.close();
+        reader.run.delete();
+      }
+    }
+  }
+
+  /** Write a sorted list of rows to a new run. */
+  private SortRun writeRun(List<Object[]> rows) throws HopException {
+    SortRun run = new SortRun(runFileFactory.createRunFile());
+    try (RunWriter writer = new RunWriter(run)) {
+      for (Object[] row : rows) {
+        writer.write(row);
+      }
+    }
+    return run;
+  }
+
+  private void waitForPendingRun() throws HopException {
+    if (pendingRun != null) {
+      Future<SortRun> future = pendingRun;
+      pendingRun = null;
+      runs.add(getResult(future));
+    }
+  }
+
+  private static <T> T getResult(Future<T> future) throws HopException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for the sorted runs", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof HopException hopException) {
+        throw hopException;
+      }
+      throw new HopException("Error sorting rows in a temporary file", e.getCause());
+    }
+  }
+
+  /**
+   * Close all files and remove all the runs. After this method you can add new runs, for example
+   * for the next group of rows.
+   */
+  public void clear() {
+    if (pendingRun != null) {
+      try {
+        runs.add(pendingRun.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        // The error was reported already or will be reported by the transform
+      }
+      pendingRun = null;
+    }
+    if (readers != null) {
+      for (RunReader reader : readers) {
+        reader.close();
+      }
+      readers = null;
+    }
+    for (SortRun run : runs) {
+      run.delete();
+    }
+    runs = new ArrayList<>();
+    mergeQueue = null;
+  }
+
+  /** Clear all runs and stop the background threads. */
+  public void dispose() {
+    clear();
+    executor.shutdownNow();
+  }
+
+  /**
+   * @return The number of runs waiting to be merged
+   */
+  public int getNrRuns() {
+    return runs.size() + (pendingRun == null ? 0 : 1);
+  }
+
+  /**
+   * @return The number of intermediate merge passes done
+   */
+  public int getNrMergePasses() {
+    return nrMergePasses;
+  }
+
+  /** A sorted run of rows in a temporary file */
+  private static class SortRun {
+    private final FileObject file;
+    private long nrRows;
+
+    SortRun(FileObject file) {
+      this.file = file;
+    }
+
+    void delete() {
+      try {
+        if (file.exists()) {
+          file.delete();
+        }
+      } catch (IOException e) {
+        // Temporary files are cleaned up by the operating system eventually
+      }
+    }
+  }
+
+  /** Writes the rows of a run, skipping rows with duplicate keys if needed */
+  private class RunWriter implements AutoCloseable {
+    private final SortRun run;
+    private final SpillFileWriter spillWriter;
+    private final OutputStream outputStream;
+    private final DataOutputStream dataOutputStream;
+    private Object[] previousRow;
+
+    RunWriter(SortRun run) throws HopException {
+      this.run = run;
+      if (spillCodec != null) {
+        spillWriter = new SpillFileWriter(run.file.getPath(), rowMeta, spillCodec, spillDictionary);
+        outputStream = null;
+        dataOutputStream = null;
+        return;
+      }
+      spillWriter = null;
+      try {
+        outputStream = HopVfs.getOutputStream(run.file, false);
+        if (compressFiles) {
+          dataOutputStream =
+              new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(outputStream)));
+        } else {
+          dataOutputStream = new DataOutputStream(new BufferedOutputStream(outputStream, 500000));
+        }
+      } catch (IOException e) {
+        throw new HopException("Error creating temporary file " + run.file, e);
+      }
+    }
+
+    void write(Object[] row) throws HopException {
+      if (onlyPassingUniqueRows
+          && previousRow != null
+          && rowMeta.compare(row, previousRow, fieldNrs) == 0) {
+        return;
+      }
+      if (spillWriter != null) {
+        spillWriter.writeRow(row);
+      } else {
+        rowMeta.writeData(dataOutputStream, row);
+      }
+      previousRow = row;
+      run.nrRows++;
+    }
+
+    @Override
+    public void close() throws HopException {
+      try {
+        if (spillWriter != null) {
+          spillWriter.close();
+          return;
+        }
+        dataOutputStream.close();
+      } catch (IOException e) {
+        throw new HopException("Error closing temporary file " + run.file, e);
+      } finally {
+        BaseTransform.closeQuietly(outputStream);
+      }
+    }
+  }
+
+  /** Reads the rows of a run one by one */
+  private class RunReader implements Comparable<RunReader> {
+    private final SortRun run;
+    private final int index;
+    private SpillFileReader spillReader;
+    private InputStream inputStream;
+    private DataInputStream dataInputStream;
+    private long remaining;
+    private Object[] row;
+
+    RunReader(SortRun run, int index) throws HopException {
+      this.run = run;
+      this.index = index;
+      this.remaining = run.nrRows;
+      if (spillCodec != null) {
+        spillReader = new SpillFileReader(run.file.getPath(), rowMeta);
+        return;
+      }
+      try {
+        inputStream = HopVfs.getInputStream(run.file);
+        if (compressFiles) {
+          dataInputStream =
+              new DataInputStream(new GZIPInputStream(new BufferedInputStream(inputStream)));
+        } else {
+          dataInputStream = new DataInputStream(new BufferedInputStream(inputStream, 50000));
+        }
+      } catch (IOException e) {
+        close();
+        throw new HopException("Error opening temporary file " + run.file, e);
+      }
+    }
+
+    /**
+     * @return true if the next row was read, false if the run is exhausted
+     */
+    boolean next() throws HopException {
+      if (remaining <= 0) {
+        row = null;
+        return false;
+      }
+      try {
+        row = spillReader != null ? spillReader.readRow() : rowMeta.readData(dataInputStream);
+      } catch (IOException e) {
+        throw new HopException("Error reading temporary file " + run.file, e);
+      }
+      remaining--;
+      return true;
+    }
+
+    void close() {
+      BaseTransform.closeQuietly(spillReader);
+      BaseTransform.closeQuietly(dataInputStream);
+      BaseTransform.closeQuietly(inputStream);
+      spillReader = null;
+      dataInputStream = null;
+      inputStream = null;
+    }
+
+    /** Runs with a lower index hold older rows: this keeps the sort stable. */
+    @Override
+    public int compareTo(RunReader other) {
+      int result = comparator.compare(row, other.row);
+      return result != 0 ? result : Integer.compare(index, other.index);
+    }
+  }
+}
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.SocketTimeoutException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -40,6 +41,9 @@ import org.apache.hop.core.exception.HopFileException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
+import org.apache.hop.core.spill.SpillFile;
+import org.apache.hop.core.spill.SpillFileReader;
+import org.apache.hop.core.spill.SpillFileWriter;
 import org.apache.hop.core.vfs.HopVfs;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
@@ -52,6 +56,8 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
 
   private static final Class<?> PKG = SortRows.class;
 
+  private static final int DEFAULT_MERGE_FAN_IN = 64;
+
   public SortRows(
       TransformMeta transformMeta,
       SortRowsMeta meta,
@@ -119,24 +125,40 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
       return;
     }
 
+    if (data.parallelSortRuns != null) {
+      sortExternalRowsInParallel();
+      return;
+    }
+
     // First sort the rows in buffer[]
     quickSort(data.buffer);
 
     // Then write them to disk...
     DataOutputStream dos;
     GZIPOutputStream gzos;
+    OutputStream outputStream;
+    SpillFileWriter spillWriter;
     int p;
 
     try {
-      FileObject fileObject =
-          HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()), variables);
+      FileObject fileObject = createTempFile();
 
       data.files.add(fileObject); // Remember the files!
-      OutputStream outputStream = HopVfs.getOutputStream(fileObject, false);
-      if (data.compressFiles) {
+      if (data.spillCodec != null) {
+        spillWriter =
+            new SpillFileWriter(
+                fileObject.getPath(), data.outputRowMeta, data.spillCodec, data.spillDictionary);
+        outputStream = null;
+        dos = null;
+        gzos = null;
+      } else if (data.compressFiles) {
+        spillWriter = null;
+        outputStream = HopVfs.getOutputStream(fileObject, false);
         gzos = new GZIPOutputStream(new BufferedOutputStream(outputStream));
         dos = new DataOutputStream(gzos);
       } else {
+        spillWriter = null;
+        outputStream = HopVfs.getOutputStream(fileObject, false);
         dos = new DataOutputStream(new BufferedOutputStream(outputStream, 500000));
         gzos = null;
       }
@@ -177,7 +199,11 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
           duplicatesIndex++;
         }
         if (!skip) {
-          data.outputRowMeta.writeData(dos, data.buffer.get(p));
+          if (spillWriter != null) {
+            spillWriter.writeRow(data.buffer.get(p));
+          } else {
+            data.outputRowMeta.writeData(dos, data.buffer.get(p));
+          }
         }
       }
 
@@ -196,11 +222,15 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
       data.buffer.clear();
 
       // Close temp-file
-      dos.close(); // close data stream
-      if (gzos != null) {
-        gzos.close(); // close gzip stream
+      if (spillWriter != null) {
+        spillWriter.close();
+      } else {
+        dos.close(); // close data stream
+        if (gzos != null) {
+          gzos.close(); // close gzip stream
+        }
+        outputStream.close(); // close file stream
       }
-      outputStream.close(); // close file stream
 
       // How much memory do we have left?
       //
@@ -218,6 +248,58 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     data.getBufferIndex = 0;
   }
 
+  /**
+   * Hand the buffer over to be sorted and written to disk in the background. We continue with a new
+   * buffer right away.
+   */
+  private void sortExternalRowsInParallel() throws HopException {
+    int bufferSize = data.buffer.size();
+    data.parallelSortRuns.addRun(data.buffer);
+    data.buffer = new ArrayList<>(bufferSize);
+
+    if (data.sortSize < 0 && bufferSize > data.minSortSize) {
+      // The previous buffer is still in memory until it is written: take a bit more margin
+      //
+      data.minSortSize = (int) Math.round(bufferSize * 0.90);
+    }
+
+    data.freeMemoryPct = Const.getPercentageFreeMemory();
+    data.freeCounter = 0;
+    if (data.sortSize <= 0 && isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(PKG, "SortRows.Detailed.AvailableMemory", data.freeMemoryPct));
+    }
+    data.getBufferIndex = 0;
+  }
+
+  /** Create a new temporary file in the classic or in the spill file format */
+  private FileObject createTempFile() throws HopException {
+    if (data.spillCodec != null) {
+      Path path = SpillFile.createTempFile(resolve(meta.getDirectory()), meta.getPrefix());
+      return HopVfs.getFileObject(path.toString());
+    }
+    return HopVfs.createTempFile(meta.getPrefix(), ".tmp", resolve(meta.getDirectory()), variables);
+  }
+
+  /**
+   * Read the next row from a temporary file.
+   *
+   * @param fileNumber The index of the temporary file
+   * @return The next row or null if the end of the file was reached
+   */
+  private Object[] readTempFileRow(int fileNumber) throws HopException {
+    if (data.spillCodec != null) {
+      return data.spillReaders.get(fileNumber).readRow();
+    }
+    try {
+      return data.outputRowMeta.readData(data.dis.get(fileNumber));
+    } catch (HopFileException fe) { // empty file or EOF mostly
+      return null;
+    } catch (SocketTimeoutException e) {
+      throw new HopValueException(e); // should never happen on local files
+    }
+  }
+
   private DataInputStream getDataInputStream(GZIPInputStream gzipInputStream) {
     DataInputStream result = new DataInputStream(gzipInputStream);
     data.gzis.add(gzipInputStream);
@@ -227,11 +309,19 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
   // get sorted rows from available files in iterative manner.
   // that means call to this method will continue to return rows
   // till all temp files will not be read to the end.
-  Object[] getBuffer() throws HopValueException {
+  Object[] getBuffer() throws HopException {
     Object[] retval;
 
+    // Merge the sorted runs written in the background
+    if (data.parallelSortRuns != null && data.parallelSortRuns.hasRuns()) {
+      return data.parallelSortRuns.getRow();
+    }
+
     // Open all files at once and read one row from each file...
-    if (CollectionUtils.isNotEmpty(data.files) && (data.dis.isEmpty() || data.fis.isEmpty())) {
+    if (CollectionUtils.isNotEmpty(data.files)
+        && (data.spillCodec != null
+            ? data.spillReaders.isEmpty()
+            : (data.dis.isEmpty() || data.fis.isEmpty()))) {
       if (isBasic()) {
         logBasic(BaseMessages.getString(PKG, "SortRows.Basic.OpeningTempFiles", data.files.size()));
       }
@@ -243,15 +333,19 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
           if (isDetailed()) {
             logDetailed(BaseMessages.getString(PKG, "SortRows.Detailed.OpeningTempFile", filename));
           }
-          InputStream fi = HopVfs.getInputStream(fileObject);
-          DataInputStream di;
-          data.fis.add(fi);
-          if (data.compressFiles) {
-            di = getDataInputStream(new GZIPInputStream(new BufferedInputStream(fi)));
+          if (data.spillCodec != null) {
+            data.spillReaders.add(new SpillFileReader(fileObject.getPath(), data.outputRowMeta));
           } else {
-            di = new DataInputStream(new BufferedInputStream(fi, 50000));
+            InputStream fi = HopVfs.getInputStream(fileObject);
+            DataInputStream di;
+            data.fis.add(fi);
+            if (data.compressFiles) {
+              di = getDataInputStream(new GZIPInputStream(new BufferedInputStream(fi)));
+            } else {
+              di = new DataInputStream(new BufferedInputStream(fi, 50000));
+            }
+            data.dis.add(di);
           }
-          data.dis.add(di);
 
           // How long is the buffer?
           int buffersize = data.bufferSizes.get(f);
@@ -263,7 +357,7 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
           }
 
           if (buffersize > 0) {
-            Object[] row = data.outputRowMeta.readData(di);
+            Object[] row = readTempFileRow(f);
             data.rowbuffer.add(row); // new row from input stream
             data.tempRows.add(new RowTempFile(row, f));
           }
@@ -309,11 +403,9 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
         // now get another Row for position smallest
 
         FileObject file = data.files.get(smallest);
-        DataInputStream di = data.dis.get(smallest);
-        InputStream fi = data.fis.get(smallest);
 
-        try {
-          Object[] row2 = data.outputRowMeta.readData(di);
+        Object[] row2 = readTempFileRow(smallest);
+        if (row2 != null) {
           RowTempFile extra = new RowTempFile(row2, smallest);
 
           int index = Collections.binarySearch(data.tempRows, extra, data.comparator);
@@ -322,11 +414,16 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
           } else {
             data.tempRows.add(index, extra);
           }
-        } catch (HopFileException fe) { // empty file or EOF mostly
-          GZIPInputStream gzfi = (data.compressFiles) ? data.gzis.get(smallest) : null;
+        } else { // empty file or EOF
+          GZIPInputStream gzfi =
+              (data.compressFiles && data.spillCodec == null) ? data.gzis.get(smallest) : null;
           try {
-            di.close();
-            fi.close();
+            if (data.spillCodec != null) {
+              data.spillReaders.remove(smallest).close();
+            } else {
+              data.dis.get(smallest).close();
+              data.fis.get(smallest).close();
+            }
             if (gzfi != null) {
               gzfi.close();
             }
@@ -341,8 +438,10 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
           }
 
           data.files.remove(smallest);
-          data.dis.remove(smallest);
-          data.fis.remove(smallest);
+          if (data.spillCodec == null) {
+            data.dis.remove(smallest);
+            data.fis.remove(smallest);
+          }
 
           if (gzfi != null) {
             data.gzis.remove(smallest);
@@ -356,8 +455,6 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
               rtf.fileNumber--;
             }
           }
-        } catch (SocketTimeoutException e) {
-          throw new HopValueException(e); // should never happen on local files
         }
       }
     }
@@ -442,6 +539,21 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
         i++;
       }
       data.rowComparator = new RowObjectArrayComparator(data.outputRowMeta, data.fieldnrs);
+
+      if (meta.isParallelSort()) {
+        data.parallelSortRuns =
+            new ParallelSortRuns(
+                data.outputRowMeta,
+                data.fieldnrs,
+                data.rowComparator,
+                meta.isOnlyPassingUniqueRows(),
+                data.compressFiles,
+                data.mergeFanIn,
+                Runtime.getRuntime().availableProcessors(),
+                data.spillCodec,
+                data.spillDictionary,
+                this::createTempFile);
+      }
     } // end if first
 
     // it is not first row and it is null
@@ -572,16 +684,27 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
     data.compressFiles =
         getVariableBoolean(meta.getCompressFilesVariable(), meta.isCompressFiles());
 
+    // Use the compact spill file format for the temporary files?
+    //
+    data.spillCodec = SpillFile.getCodecName(this);
+    data.spillDictionary = SpillFile.isDictionaryEncoding(this);
+
     data.tempRows = new ArrayList<>();
 
     data.minSortSize = 5000;
 
+    data.mergeFanIn = Const.toInt(resolve(meta.getMergeFanIn()), DEFAULT_MERGE_FAN_IN);
+
     return true;
   }
 
   @Override
   public void dispose() {
     clearBuffers();
+    if (data.parallelSortRuns != null) {
+      data.parallelSortRuns.dispose();
+      data.parallelSortRuns = null;
+    }
     super.dispose();
   }
 
@@ -604,6 +727,11 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
         BaseTransform.closeQuietly(is);
       }
     }
+    // close any open spill files
+    for (SpillFileReader spillReader : data.spillReaders) {
+      BaseTransform.closeQuietly(spillReader);
+    }
+    data.spillReaders.clear();
     // remove temp files
     for (int f = 0; f < data.files.size(); f++) {
       FileObject fileToDelete = data.files.get(f);
@@ -615,12 +743,21 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
         logError(e.getLocalizedMessage(), e);
       }
     }
+
+    // remove the sorted runs
+    if (data.parallelSortRuns != null) {
+      data.parallelSortRuns.clear();
+    }
   }
 
   /** Sort the entire vector, if it is not empty. */
   void quickSort(List<Object[]> elements) {
     if (CollectionUtils.isNotEmpty(elements)) {
-      Collections.sort(elements, data.rowComparator);
+      if (meta.isParallelSort()) {
+        ParallelSortRuns.sort(elements, data.rowComparator);
+      } else {
+        Collections.sort(elements, data.rowComparator);
+      }
 
       long nrConversions = 0L;
       for (IValueMeta valueMeta : data.outputRowMeta.getValueMetaList()) {
@@ -663,7 +800,15 @@ public class SortRows extends BaseTransform<SortRowsMeta, SortRowsData> {
   }
 
   private void preSortBeforeFlush() throws HopException {
-    if (!data.files.isEmpty()) {
+    if (data.parallelSortRuns != null && data.parallelSortRuns.hasRuns()) {
+      // hand over the last buffer and merge all runs
+      sortExternalRows();
+      if (isBasic()) {
+        logBasic(
+            BaseMessages.getString(
+                PKG, "SortRows.Basic.OpeningTempFiles", data.parallelSortRuns.getNrRuns()));
+      }
+    } else if (!data.files.isEmpty()) {
       // dump to dist and then read from disk
       sortExternalRows();
     } else {
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.zip.GZIPInputStream;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.spill.SpillFileReader;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
 
@@ -40,6 +41,14 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
   public List<Object[]> rowbuffer;
   public List<Integer> bufferSizes;
 
+  /** The readers of the temporary files in the spill file format */
+  public List<SpillFileReader> spillReaders;
+
+  /** The codec of the spill file format or null to use the classic temporary file format */
+  public String spillCodec;
+
+  public boolean spillDictionary;
+
   // To store rows and file references
   public List<RowTempFile> tempRows;
 
@@ -60,6 +69,11 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
   public int freeMemoryPctLimit;
   public int memoryReporting;
 
+  /** The parallel external merge sort, only used when parallel sorting is enabled */
+  public ParallelSortRuns parallelSortRuns;
+
+  public int mergeFanIn;
+
   /*
    * Group Fields Implementation heroic
    */
@@ -75,6 +89,7 @@ public class SortRowsData extends BaseTransformData implements ITransformData {
     gzis = new ArrayList<>();
     dis = new ArrayList<>();
     bufferSizes = new ArrayList<>();
+    spillReaders = new ArrayList<>();
 
     previous = null; // Heroic
   }
@@ -71,6 +71,10 @@ public class SortRowsDialog extends BaseTransformDialog {
 
   private Button wUniqueRows;
 
+  private Button wParallelSort;
+
+  private TextVar wMergeFanIn;
+
   private TableView wFields;
 
   private final SortRowsMeta input;
@@ -259,6 +263,46 @@ public class SortRowsDialog extends BaseTransformDialog {
     wUniqueRows.setLayoutData(fdUniqueRows);
     wUniqueRows.addSelectionListener(new ComponentSelectionListener(input));
 
+    // Sort with all available cores?
+    Label wlParallelSort = new Label(shell, SWT.RIGHT);
+    wlParallelSort.setText(BaseMessages.getString(PKG, "SortRowsDialog.ParallelSort.Label"));
+    PropsUi.setLook(wlParallelSort);
+    FormData fdlParallelSort = new FormData();
+    fdlParallelSort.left = new FormAttachment(0, 0);
+    fdlParallelSort.right = new FormAttachment(middle, -margin);
+    fdlParallelSort.top = new FormAttachment(wUniqueRows, margin);
+    wlParallelSort.setLayoutData(fdlParallelSort);
+    wParallelSort = new Button(shell, SWT.CHECK);
+    wParallelSort.setToolTipText(
+        BaseMessages.getString(PKG, "SortRowsDialog.ParallelSort.Tooltip"));
+    PropsUi.setLook(wParallelSort);
+    FormData fdParallelSort = new FormData();
+    fdParallelSort.left = new FormAttachment(middle, 0);
+    fdParallelSort.top = new FormAttachment(wlParallelSort, 0, SWT.CENTER);
+    fdParallelSort.right = new FormAttachment(100, 0);
+    wParallelSort.setLayoutData(fdParallelSort);
+    wParallelSort.addSelectionListener(new ComponentSelectionListener(input));
+
+    // The maximum number of temporary files to merge at once
+    Label wlMergeFanIn = new Label(shell, SWT.RIGHT);
+    wlMergeFanIn.setText(BaseMessages.getString(PKG, "SortRowsDialog.MergeFanIn.Label"));
+    wlMergeFanIn.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.MergeFanIn.ToolTip"));
+    PropsUi.setLook(wlMergeFanIn);
+    FormData fdlMergeFanIn = new FormData();
+    fdlMergeFanIn.left = new FormAttachment(0, 0);
+    fdlMergeFanIn.right = new FormAttachment(middle, -margin);
+    fdlMergeFanIn.top = new FormAttachment(wParallelSort, margin * 2);
+    wlMergeFanIn.setLayoutData(fdlMergeFanIn);
+    wMergeFanIn = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wMergeFanIn.setToolTipText(BaseMessages.getString(PKG, "SortRowsDialog.MergeFanIn.ToolTip"));
+    PropsUi.setLook(wMergeFanIn);
+    wMergeFanIn.addModifyListener(lsMod);
+    FormData fdMergeFanIn = new FormData();
+    fdMergeFanIn.left = new FormAttachment(middle, 0);
+    fdMergeFanIn.top = new FormAttachment(wParallelSort, margin * 2);
+    fdMergeFanIn.right = new FormAttachment(100, 0);
+    wMergeFanIn.setLayoutData(fdMergeFanIn);
+
     wOk = new Button(shell, SWT.PUSH);
     wOk.setText(BaseMessages.getString(PKG, "System.Button.OK"));
     wOk.addListener(SWT.Selection, e -> ok());
@@ -276,7 +320,7 @@ public class SortRowsDialog extends BaseTransformDialog {
     PropsUi.setLook(wlFields);
     FormData fdlFields = new FormData();
     fdlFields.left = new FormAttachment(0, 0);
-    fdlFields.top = new FormAttachment(wUniqueRows, margin);
+    fdlFields.top = new FormAttachment(wMergeFanIn, margin);
     wlFields.setLayoutData(fdlFields);
 
     final int FieldsRows = input.getSortFields().size();
@@ -404,6 +448,8 @@ public class SortRowsDialog extends BaseTransformDialog {
     wCompress.setSelection(input.isCompressFiles());
     wCompress.setVariableName(input.getCompressFilesVariable());
     wUniqueRows.setSelection(input.isOnlyPassingUniqueRows());
+    wParallelSort.setSelection(input.isParallelSort());
+    wMergeFanIn.setText(Const.NVL(input.getMergeFanIn(), ""));
 
     Table table = wFields.table;
     if (!input.getSortFields().isEmpty()) {
@@ -470,6 +516,8 @@ public class SortRowsDialog extends BaseTransformDialog {
     input.setCompressFiles(wCompress.getSelection());
     input.setCompressFilesVariable(wCompress.getVariableName());
     input.setOnlyPassingUniqueRows(wUniqueRows.getSelection());
+    input.setParallelSort(wParallelSort.getSelection());
+    input.setMergeFanIn(wMergeFanIn.getText());
 
     int nrFields = wFields.nrNonEmpty();
 
@@ -92,6 +92,17 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData>
   @HopMetadataProperty(key = "compress_variables", injectionKey = "COMPRESS_VARIABLE")
   private String compressFilesVariable;
 
+  /**
+   * Sort the buffer with all available cores and write the temporary files in the background while
+   * the next buffer is filled.
+   */
+  @HopMetadataProperty(key = "parallel_sort", injectionKey = "PARALLEL_SORT")
+  private boolean parallelSort;
+
+  /** The maximum number of temporary files to merge at the same time when sorting in parallel */
+  @HopMetadataProperty(key = "merge_fan_in", injectionKey = "MERGE_FAN_IN")
+  private String mergeFanIn;
+
   private List<SortRowsField> groupFields;
 
   public SortRowsMeta() {
@@ -150,6 +161,8 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData>
     compressFiles = false;
     compressFilesVariable = null;
     onlyPassingUniqueRows = false;
+    parallelSort = false;
+    mergeFanIn = "64";
 
     int nrFields = 0;
   }
@@ -391,6 +404,34 @@ public class SortRowsMeta extends BaseTransformMeta<SortRows, SortRowsData>
     this.freeMemoryLimit = freeMemoryLimit;
   }
 
+  /**
+   * @return true if the rows are sorted with all available cores
+   */
+  public boolean isParallelSort() {
+    return parallelSort;
+  }
+
+  /**
+   * @param parallelSort true to sort the rows with all available cores
+   */
+  public void setParallelSort(boolean parallelSort) {
+    this.parallelSort = parallelSort;
+  }
+
+  /**
+   * @return the maximum number of temporary files to merge at the same time
+   */
+  public String getMergeFanIn() {
+    return mergeFanIn;
+  }
+
+  /**
+   * @param mergeFanIn the maximum number of temporary files to merge at the same time
+   */
+  public void setMergeFanIn(String mergeFanIn) {
+    this.mergeFanIn = mergeFanIn;
+  }
+
   public boolean isGroupSortEnabled() {
     return this.getSortFields() != null;
   }
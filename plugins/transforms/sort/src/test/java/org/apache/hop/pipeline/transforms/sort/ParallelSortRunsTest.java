@@ -0,0 +1,216 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.sort;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.apache.hop.core.exception.HopValueException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.apache.hop.core.spill.SpillFile;
+import org.apache.hop.core.variables.Variables;
+import org.apache.hop.core.vfs.HopVfs;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelSortRunsTest {
+  @RegisterExtension
+  static RestoreHopEngineEnvironmentExtension env = new RestoreHopEngineEnvironmentExtension();
+
+  @TempDir Path tempDir;
+
+  private IRowMeta rowMeta;
+  private int[] fieldNrs;
+  private Comparator<Object[]> comparator;
+  private ParallelSortRuns sortRuns;
+
+  @BeforeEach
+  void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("key"));
+    rowMeta.addValueMeta(new ValueMetaInteger("sequence"));
+    fieldNrs = new int[] {0};
+    comparator =
+        (o1, o2) -> {
+          try {
+            return rowMeta.compare(o1, o2, fieldNrs);
+          } catch (HopValueException e) {
+            throw new IllegalStateException(e);
+          }
+        };
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (sortRuns != null) {
+      sortRuns.dispose();
+    }
+  }
+
+  private ParallelSortRuns createSortRuns(boolean unique, boolean compress, int fanIn) {
+    return new ParallelSortRuns(
+        rowMeta,
+        fieldNrs,
+        comparator,
+        unique,
+        compress,
+        fanIn,
+        2,
+        null,
+        false,
+        () ->
+            HopVfs.createTempFile(
+                "sort", ".tmp", tempDir.toString(), Variables.getADefaultVariableSpace()));
+  }
+
+  private ParallelSortRuns createSpillFileSortRuns(String codec, int fanIn) {
+    return new ParallelSortRuns(
+        rowMeta,
+        fieldNrs,
+        comparator,
+        false,
+        false,
+        fanIn,
+        2,
+        codec,
+        true,
+        () ->
+            HopVfs.getFileObject(SpillFile.createTempFile(tempDir.toString(), "sort").toString()));
+  }
+
+  /** Add runs of random keys, the sequence is used to verify that the sort is stable. */
+  private long addRandomRuns(int nrRuns, int rowsPerRun, int maxKey) throws Exception {
+    Random random = new Random(42L);
+    long sequence = 0;
+    for (int r = 0; r < nrRuns; r++) {
+      List<Object[]> rows = new ArrayList<>();
+      for (int i = 0; i < rowsPerRun; i++) {
+        rows.add(new Object[] {(long) random.nextInt(maxKey), sequence++});
+      }
+      sortRuns.addRun(rows);
+    }
+    return sequence;
+  }
+
+  @Test
+  void testSort() {
+    List<Object[]> rows = new ArrayList<>();
+    for (long i = 0; i < 10000; i++) {
+      rows.add(new Object[] {i % 7, i});
+    }
+    ParallelSortRuns.sort(rows, comparator);
+
+    for (int i = 1; i < rows.size(); i++) {
+      Object[] previous = rows.get(i - 1);
+      Object[] row = rows.get(i);
+      assertTrue((Long) previous[0] <= (Long) row[0]);
+      if (previous[0].equals(row[0])) {
+        assertTrue((Long) previous[1] < (Long) row[1]);
+      }
+    }
+  }
+
+  @Test
+  void testMergeWithIntermediatePasses() throws Exception {
+    sortRuns = createSortRuns(false, false, 3);
+    long nrRows = addRandomRuns(10, 500, 100);
+    assertTrue(sortRuns.hasRuns());
+
+    long count = 0;
+    Object[] previous = null;
+    Object[] row;
+    while ((row = sortRuns.getRow()) != null) {
+      if (previous != null) {
+        assertTrue((Long) previous[0] <= (Long) row[0]);
+        if (previous[0].equals(row[0])) {
+          assertTrue((Long) previous[1] < (Long) row[1]);
+        }
+      }
+      previous = row;
+      count++;
+    }
+    assertEquals(nrRows, count);
+    assertTrue(sortRuns.getNrMergePasses() > 0);
+    assertNull(sortRuns.getRow());
+  }
+
+  @Test
+  void testMergeSpillFiles() throws Exception {
+    sortRuns = createSpillFileSortRuns("Snappy", 4);
+    long nrRows = addRandomRuns(10, 500, 100);
+
+    long count = 0;
+    Object[] previous = null;
+    Object[] row;
+    while ((row = sortRuns.getRow()) != null) {
+      if (previous != null) {
+        assertTrue((Long) previous[0] <= (Long) row[0]);
+      }
+      previous = row;
+      count++;
+    }
+    assertEquals(nrRows, count);
+  }
+
+  @Test
+  void testUniqueRowsCompressed() throws Exception {
+    sortRuns = createSortRuns(true, true, 64);
+    addRandomRuns(4, 1000, 50);
+
+    long count = 0;
+    Object[] previous = null;
+    Object[] row;
+    while ((row = sortRuns.getRow()) != null) {
+      if (previous != null) {
+        assertTrue((Long) previous[0] <= (Long) row[0]);
+      }
+      previous = row;
+      count++;
+    }
+    // Every run only contains unique keys, the transform removes the duplicates between runs
+    assertTrue(count <= 4 * 50);
+    assertEquals(0, sortRuns.getNrMergePasses());
+  }
+
+  @Test
+  void testClearRemovesFiles() throws Exception {
+    sortRuns = createSortRuns(false, false, 2);
+    addRandomRuns(5, 100, 1000);
+    sortRuns.getRow();
+
+    sortRuns.clear();
+
+    assertFalse(sortRuns.hasRuns());
+    File[] files = tempDir.toFile().listFiles();
+    assertEquals(0, files == null ? 0 : files.length);
+  }
+}
@@ -53,6 +53,8 @@ class SortRowsMetaInjectionTest extends BaseMetadataInjectionTestJunit5<SortRows
     check("COLLATOR_ENABLED", () -> meta.getSortFields().get(0).isCollatorEnabled());
     check("COLLATOR_STRENGTH", () -> meta.getSortFields().get(0).getCollatorStrength());
     check("COMPRESS_VARIABLE", () -> meta.getCompressFilesVariable());
+    check("PARALLEL_SORT", () -> meta.isParallelSort());
+    check("MERGE_FAN_IN", () -> meta.getMergeFanIn());
     //    check("NAME", () -> meta.getFieldName()[0]);
     //    check("SORT_ASCENDING", () -> meta.getAscending()[0]);
     //    check("IGNORE_CASE", () -> meta.getCaseSensitive()[0]);
@@ -58,6 +58,8 @@ class SortRowsMetaTest {
             "CompressFiles",
             "CompressFilesVariable",
             "OnlyPassingUniqueRows",
+            "ParallelSort",
+            "MergeFanIn",
             "SortFields");
 
     Map<String, String> getterMap = new HashMap<>();
@@ -75,6 +77,8 @@ class SortRowsMetaTest {
     fieldLoadSaveValidatorAttributeMap.put("CompressFiles", booleanFieldLoadSaveValidator);
     fieldLoadSaveValidatorAttributeMap.put("CompressFilesVariable", stringFieldLoadSaveValidator);
     fieldLoadSaveValidatorAttributeMap.put("OnlyPassingUniqueRows", booleanFieldLoadSaveValidator);
+    fieldLoadSaveValidatorAttributeMap.put("ParallelSort", booleanFieldLoadSaveValidator);
+    fieldLoadSaveValidatorAttributeMap.put("MergeFanIn", stringFieldLoadSaveValidator);
 
     LoadSaveTester<SortRowsMeta> loadSaveTester =
         new LoadSaveTester<>(
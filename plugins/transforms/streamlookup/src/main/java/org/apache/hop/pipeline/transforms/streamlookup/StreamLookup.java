@@ -20,12 +20,15 @@ package org.apache.hop.pipeline.transforms.streamlookup;
 import java.math.BigDecimal;
 import java.text.DateFormat;
 import java.util.Collections;
+import java.util.Map;
 import org.apache.hop.core.IRowSet;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.hash.ByteArrayHashIndex;
+import org.apache.hop.core.hash.OffHeapByteArrayHashIndex;
+import org.apache.hop.core.hash.OffHeapLongHashIndex;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
 import org.apache.hop.core.row.RowDataUtil;
@@ -35,6 +38,8 @@ import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.EngineMetric;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
@@ -47,6 +52,14 @@ import org.apache.hop.pipeline.transform.TransformMeta;
 public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupData> {
   private static final Class<?> PKG = StreamLookupMeta.class;
 
+  public static final IEngineMetric METRIC_OFF_HEAP_BYTES =
+      new EngineMetric(
+          "off_heap_bytes",
+          "Off-heap bytes",
+          "The number of bytes of lookup data stored outside of the Java heap",
+          "095",
+          true);
+
   public StreamLookup(
       TransformMeta transformMeta,
       StreamLookupMeta meta,
@@ -214,6 +227,11 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
       rowData = getRowFrom(rowSet);
     }
 
+    if (meta.isUsingOffHeap() && isDetailed()) {
+      logDetailed(
+          BaseMessages.getString(PKG, "StreamLookup.Log.OffHeapBytes", getOffHeapBytes() + ""));
+    }
+
     return true;
   }
 
@@ -296,7 +314,9 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
   private void addToCache(
       IRowMeta keyMeta, Object[] keyData, IRowMeta valueMeta, Object[] valueData)
       throws HopValueException {
-    if (meta.isMemoryPreservationActive()) {
+    if (meta.isUsingOffHeap()) {
+      addToOffHeapCache(keyMeta, keyData, valueMeta, valueData);
+    } else if (meta.isMemoryPreservationActive()) {
       if (meta.isUsingSortedList()) {
         KeyValue keyValue = new KeyValue(keyData, valueData);
         int idx = Collections.binarySearch(data.list, keyValue, data.comparator);
@@ -308,18 +328,7 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
         }
       } else {
         if (meta.isUsingIntegerPair()) {
-          if (!data.metadataVerifiedIntegerPair) {
-            data.metadataVerifiedIntegerPair = true;
-            if (keyMeta.size() != 1
-                || valueMeta.size() != 1
-                || !keyMeta.getValueMeta(0).isInteger()
-                || !valueMeta.getValueMeta(0).isInteger()) {
-
-              throw new HopValueException(
-                  BaseMessages.getString(
-                      PKG, "StreamLookup.Exception.CanNotUseIntegerPairAlgorithm"));
-            }
-          }
+          verifyIntegerPair(keyMeta, valueMeta);
 
           Long key = keyMeta.getInteger(keyData, 0);
           Long value = valueMeta.getInteger(valueData, 0);
@@ -339,8 +348,94 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
     }
   }
 
+  private void verifyIntegerPair(IRowMeta keyMeta, IRowMeta valueMeta) throws HopValueException {
+    if (!data.metadataVerifiedIntegerPair) {
+      data.metadataVerifiedIntegerPair = true;
+      if (keyMeta.size() != 1
+          || valueMeta.size() != 1
+          || !keyMeta.getValueMeta(0).isInteger()
+          || !valueMeta.getValueMeta(0).isInteger()) {
+
+        throw new HopValueException(
+            BaseMessages.getString(PKG, "StreamLookup.Exception.CanNotUseIntegerPairAlgorithm"));
+      }
+    }
+  }
+
+  /**
+   * Store the lookup data in direct memory. A single integer key and value go straight into a
+   * long/long table, other keys and values are serialized.
+   */
+  private void addToOffHeapCache(
+      IRowMeta keyMeta, Object[] keyData, IRowMeta valueMeta, Object[] valueData)
+      throws HopValueException {
+    if (meta.isUsingIntegerPair()) {
+      verifyIntegerPair(keyMeta, valueMeta);
+      if (data.offHeapLongIndex == null) {
+        data.offHeapLongIndex = new OffHeapLongHashIndex();
+      }
+      Long key = keyMeta.getInteger(keyData, 0);
+      Long value = valueMeta.getInteger(valueData, 0);
+      // A null can't be stored in the long/long table, these rows get the default value
+      //
+      if (key != null && value != null) {
+        data.offHeapLongIndex.put(key, value);
+      }
+    } else {
+      if (data.offHeapIndex == null) {
+        data.offHeapIndex = new OffHeapByteArrayHashIndex();
+      }
+      data.offHeapIndex.put(
+          RowMeta.extractData(keyMeta, keyData), RowMeta.extractData(valueMeta, valueData));
+    }
+  }
+
+  private Object[] getFromOffHeapCache(IRowMeta keyMeta, Object[] keyData)
+      throws HopValueException {
+    if (meta.isUsingIntegerPair()) {
+      Long key = keyMeta.getInteger(keyData, 0);
+      Long value = key == null ? null : data.offHeapLongIndex.get(key);
+      if (value == null) {
+        return null;
+      }
+      return new Object[] {
+        value,
+      };
+    } else {
+      byte[] value = data.offHeapIndex.get(RowMeta.extractData(keyMeta, keyData));
+      if (value == null) {
+        return null;
+      }
+      return RowMeta.getRow(data.cacheValueMeta, value);
+    }
+  }
+
+  /**
+   * @return The number of bytes of lookup data stored in direct memory
+   */
+  public long getOffHeapBytes() {
+    long bytes = 0L;
+    if (data.offHeapIndex != null) {
+      bytes += data.offHeapIndex.getOffHeapBytes();
+    }
+    if (data.offHeapLongIndex != null) {
+      bytes += data.offHeapLongIndex.getOffHeapBytes();
+    }
+    return bytes;
+  }
+
+  @Override
+  public Map<IEngineMetric, Long> getTransformMetrics() {
+    if (!meta.isUsingOffHeap()) {
+      return Collections.emptyMap();
+    }
+    return Collections.singletonMap(METRIC_OFF_HEAP_BYTES, getOffHeapBytes());
+  }
+
   private Object[] getFromCache(IRowMeta keyMeta, Object[] keyData) throws HopValueException {
-    if (meta.isMemoryPreservationActive()) {
+    if (meta.isUsingOffHeap()) {
+      return getFromOffHeapCache(keyMeta, keyData);
+    } else if (meta.isMemoryPreservationActive()) {
       if (meta.isUsingSortedList()) {
         KeyValue keyValue = new KeyValue(keyData, null);
         int idx = Collections.binarySearch(data.list, keyValue, data.comparator);
@@ -505,6 +600,8 @@ public class StreamLookup extends BaseTransform<StreamLookupMeta, StreamLookupDa
     data.list = null;
     data.hashIndex = null;
     data.longIndex = null;
+    data.offHeapIndex = null;
+    data.offHeapLongIndex = null;
 
     super.dispose();
   }
@@ -26,6 +26,8 @@ import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.exception.HopValueException;
 import org.apache.hop.core.hash.ByteArrayHashIndex;
 import org.apache.hop.core.hash.LongHashIndex;
+import org.apache.hop.core.hash.OffHeapByteArrayHashIndex;
+import org.apache.hop.core.hash.OffHeapLongHashIndex;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -65,6 +67,11 @@ public class StreamLookupData extends BaseTransformData implements ITransformDat
   public ByteArrayHashIndex hashIndex;
   public LongHashIndex longIndex;
 
+  /** The off-heap lookup stores, only one of them is used */
+  public OffHeapByteArrayHashIndex offHeapIndex;
+
+  public OffHeapLongHashIndex offHeapLongIndex;
+
   public IRowMeta lookupMeta;
 
   public IRowMeta infoMeta;
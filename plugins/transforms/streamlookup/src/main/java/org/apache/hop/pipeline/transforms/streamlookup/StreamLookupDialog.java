@@ -64,6 +64,8 @@ public class StreamLookupDialog extends BaseTransformDialog {
 
   private Button wIntegerPair;
 
+  private Button wOffHeap;
+
   private final StreamLookupMeta input;
 
   private ColumnInfo[] ciKey;
@@ -265,14 +267,29 @@ public class StreamLookupDialog extends BaseTransformDialog {
     wPreserveMemory.setLayoutData(fdPreserveMemory);
     wPreserveMemory.addListener(SWT.Selection, e -> input.setChanged());
 
+    Label wlOffHeap = new Label(shell, SWT.RIGHT);
+    wlOffHeap.setText(BaseMessages.getString(PKG, "StreamLookupDialog.OffHeap.Label"));
+    wlOffHeap.setToolTipText(BaseMessages.getString(PKG, "StreamLookupDialog.OffHeap.Tooltip"));
+    PropsUi.setLook(wlOffHeap);
+    FormData fdlOffHeap = new FormData();
+    fdlOffHeap.left = new FormAttachment(0, 0);
+    fdlOffHeap.bottom = new FormAttachment(wlPreserveMemory, -margin);
+    fdlOffHeap.right = new FormAttachment(middle, -margin);
+    wlOffHeap.setLayoutData(fdlOffHeap);
+    wOffHeap = new Button(shell, SWT.CHECK);
+    wOffHeap.setToolTipText(BaseMessages.getString(PKG, "StreamLookupDialog.OffHeap.Tooltip"));
+    PropsUi.setLook(wOffHeap);
+    FormData fdOffHeap = new FormData();
+    fdOffHeap.left = new FormAttachment(middle, 0);
+    fdOffHeap.top = new FormAttachment(wlOffHeap, 0, SWT.CENTER);
+    fdOffHeap.right = new FormAttachment(100, 0);
+    wOffHeap.setLayoutData(fdOffHeap);
+    wOffHeap.addListener(SWT.Selection, e -> input.setChanged());
+
     // preserve memory should be enabled to have this options on.
-    wPreserveMemory.addListener(
-        SWT.Selection,
-        event -> {
-          boolean selection = wPreserveMemory.getSelection();
-          wSortedList.setEnabled(selection);
-          wIntegerPair.setEnabled(selection);
-        });
+    // The integer pair option also selects the long/long table when storing off-heap.
+    wPreserveMemory.addListener(SWT.Selection, event -> enableMemoryOptions());
+    wOffHeap.addListener(SWT.Selection, event -> enableMemoryOptions());
 
     // THE UPDATE/INSERT TABLE
     Label wlReturn = new Label(shell, SWT.NONE);
@@ -324,7 +341,7 @@ public class StreamLookupDialog extends BaseTransformDialog {
     fdReturn.left = new FormAttachment(0, 0);
     fdReturn.top = new FormAttachment(wlReturn, margin);
     fdReturn.right = new FormAttachment(100, 0);
-    fdReturn.bottom = new FormAttachment(wlPreserveMemory, -2 * margin);
+    fdReturn.bottom = new FormAttachment(wlOffHeap, -2 * margin);
     wReturn.setLayoutData(fdReturn);
 
     getData();
@@ -436,12 +453,9 @@ public class StreamLookupDialog extends BaseTransformDialog {
     IStream infoStream = input.getTransformIOMeta().getInfoStreams().get(0);
     wTransform.setText(Const.NVL(infoStream.getTransformName(), ""));
 
-    boolean isPreserveMemory = input.isMemoryPreservationActive();
-    wPreserveMemory.setSelection(isPreserveMemory);
-    if (isPreserveMemory) {
-      wSortedList.setEnabled(true);
-      wIntegerPair.setEnabled(true);
-    }
+    wPreserveMemory.setSelection(input.isMemoryPreservationActive());
+    wOffHeap.setSelection(input.isUsingOffHeap());
+    enableMemoryOptions();
     // usually this is sorted list or integer pair
     // for backward compatibility they can be set both
     // but user will be forced to choose only one option later.
@@ -457,6 +471,12 @@ public class StreamLookupDialog extends BaseTransformDialog {
     wTransformName.setFocus();
   }
 
+  private void enableMemoryOptions() {
+    boolean preserveMemory = wPreserveMemory.getSelection();
+    wSortedList.setEnabled(preserveMemory && !wOffHeap.getSelection());
+    wIntegerPair.setEnabled(preserveMemory || wOffHeap.getSelection());
+  }
+
   private void cancel() {
     transformName = null;
     input.setChanged(changed);
@@ -474,6 +494,7 @@ public class StreamLookupDialog extends BaseTransformDialog {
     input.setMemoryPreservationActive(wPreserveMemory.getSelection());
     input.setUsingSortedList(wSortedList.getSelection());
     input.setUsingIntegerPair(wIntegerPair.getSelection());
+    input.setUsingOffHeap(wOffHeap.getSelection());
 
     if (log.isDebug()) {
       logDebug(BaseMessages.getString(PKG, "StreamLookupDialog.Log.FoundKeys", nrkeys + ""));
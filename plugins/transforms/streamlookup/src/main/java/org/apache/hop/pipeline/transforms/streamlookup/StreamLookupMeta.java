@@ -97,6 +97,10 @@ public class StreamLookupMeta extends BaseTransformMeta<StreamLookup, StreamLook
   @Injection(name = "INTEGER_PAIR")
   private boolean usingIntegerPair;
 
+  /** Store the lookup data in direct memory, outside of the Java heap */
+  @Injection(name = "OFF_HEAP")
+  private boolean usingOffHeap;
+
   public StreamLookupMeta() {
     super(); // allocate BaseTransformMeta
   }
@@ -164,6 +168,7 @@ public class StreamLookupMeta extends BaseTransformMeta<StreamLookup, StreamLook
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "sorted_list")));
       setUsingIntegerPair(
           "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "integer_pair")));
+      setUsingOffHeap("Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "off_heap")));
 
       Node lookup = XmlHandler.getSubNode(transformNode, "lookup");
       nrkeys = XmlHandler.countNodes(lookup, "key");
@@ -212,6 +217,7 @@ public class StreamLookupMeta extends BaseTransformMeta<StreamLookup, StreamLook
     setMemoryPreservationActive(true);
     setUsingSortedList(false);
     setUsingIntegerPair(false);
+    setUsingOffHeap(false);
 
     allocate(0, 0);
   }
@@ -265,6 +271,7 @@ public class StreamLookupMeta extends BaseTransformMeta<StreamLookup, StreamLook
         .append(XmlHandler.addTagValue("preserve_memory", isMemoryPreservationActive()));
     retval.append("    ").append(XmlHandler.addTagValue("sorted_list", isUsingSortedList()));
     retval.append("    ").append(XmlHandler.addTagValue("integer_pair", isUsingIntegerPair()));
+    retval.append("    ").append(XmlHandler.addTagValue("off_heap", isUsingOffHeap()));
 
     retval.append("    <lookup>").append(Const.CR);
     for (int i = 0; i < getKeystream().length; i++) {
@@ -658,6 +665,20 @@ public class StreamLookupMeta extends BaseTransformMeta<StreamLookup, StreamLook
     this.usingIntegerPair = usingIntegerPair;
   }
 
+  /**
+   * @return true if the lookup data is stored in direct memory, outside of the Java heap
+   */
+  public boolean isUsingOffHeap() {
+    return usingOffHeap;
+  }
+
+  /**
+   * @param usingOffHeap true to store the lookup data in direct memory, outside of the Java heap
+   */
+  public void setUsingOffHeap(boolean usingOffHeap) {
+    this.usingOffHeap = usingOffHeap;
+  }
+
   /**
    * If we use injection we can have different arrays lengths. We need synchronize them for
    * consistency behavior with UI
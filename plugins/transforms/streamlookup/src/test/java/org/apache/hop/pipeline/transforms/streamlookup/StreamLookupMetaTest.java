@@ -60,6 +60,7 @@ class StreamLookupMetaTest implements IInitializer<ITransformMeta> {
             "memoryPreservationActive",
             "usingSortedList",
             "usingIntegerPair",
+            "usingOffHeap",
             "keystream",
             "keylookup",
             "value",
@@ -130,7 +130,7 @@ class StreamLookupTest {
     return dataRowSet;
   }
 
-  private StreamLookupMeta mockProcessRowMeta(boolean memoryPreservationActive)
+  private StreamLookupMeta mockProcessRowMeta(boolean memoryPreservationActive, boolean offHeap)
       throws HopTransformException {
     StreamLookupMeta meta = smh.iTransformMeta;
 
@@ -149,6 +149,7 @@ class StreamLookupTest {
     doReturn(memoryPreservationActive).when(meta).isMemoryPreservationActive();
     doReturn(false).when(meta).isUsingSortedList();
     doReturn(false).when(meta).isUsingIntegerPair();
+    doReturn(offHeap).when(meta).isUsingOffHeap();
     doReturn(new int[] {-1}).when(meta).getValueDefaultType();
     doReturn(new String[] {""}).when(meta).getValueDefault();
     doReturn(new String[] {"Value"}).when(meta).getValueName();
@@ -169,6 +170,15 @@ class StreamLookupTest {
   private void doTest(
       boolean memoryPreservationActive, boolean binaryLookupStream, boolean binaryDataStream)
       throws HopException {
+    doTest(memoryPreservationActive, false, binaryLookupStream, binaryDataStream);
+  }
+
+  private void doTest(
+      boolean memoryPreservationActive,
+      boolean offHeap,
+      boolean binaryLookupStream,
+      boolean binaryDataStream)
+      throws HopException {
     StreamLookup transform =
         new StreamLookup(
             smh.transformMeta,
@@ -182,7 +192,7 @@ class StreamLookupTest {
     transform.addRowSetToInputRowSets(mockDataRowSet(binaryDataStream));
     transform.addRowSetToOutputRowSets(new QueueRowSet());
 
-    StreamLookupMeta meta = mockProcessRowMeta(memoryPreservationActive);
+    StreamLookupMeta meta = mockProcessRowMeta(memoryPreservationActive, offHeap);
     StreamLookupData data = new StreamLookupData();
     data.readLookupValues = true;
 
@@ -256,4 +266,14 @@ class StreamLookupTest {
   void testMemoryPreservationWithBinaryStreams() throws HopException {
     doTest(true, false, true);
   }
+
+  @Test
+  void testOffHeapWithNormalStreams() throws HopException {
+    doTest(false, true, false, false);
+  }
+
+  @Test
+  void testOffHeapWithBinaryStreams() throws HopException {
+    doTest(false, true, true, true);
+  }
 }
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+/**
+ * Tunes the JDBC batch size of the background writer from the observed latency per row. Small
+ * batches pay the round trip and commit overhead on every few rows, very large batches put a strain
+ * on the driver and the database. The tuner climbs towards the batch size with the lowest time per
+ * row: it keeps growing or shrinking the batch as long as that improves the latency and turns
+ * around when it gets worse.
+ *
+ * <p>Only the writer thread updates the tuner, the batch size can be read from any thread.
+ */
+public class BatchSizeTuner {
+  /** The factor by which the batch size is grown or shrunk */
+  static final double STEP_FACTOR = 1.25;
+
+  private final int minBatchSize;
+  private final int maxBatchSize;
+  private final boolean adaptive;
+
+  private volatile int batchSize;
+  private int direction;
+  private double previousNanosPerRow;
+
+  /**
+   * @param initialBatchSize The batch size to start with
+   * @param minBatchSize The smallest batch size to use
+   * @param maxBatchSize The largest batch size to use
+   * @param adaptive false to keep the initial batch size
+   */
+  public BatchSizeTuner(
+      int initialBatchSize, int minBatchSize, int maxBatchSize, boolean adaptive) {
+    this.minBatchSize = Math.max(1, minBatchSize);
+    this.maxBatchSize = Math.max(this.minBatchSize, maxBatchSize);
+    this.adaptive = adaptive;
+    this.batchSize = adaptive ? clamp(initialBatchSize) : Math.max(1, initialBatchSize);
+    this.direction = 1;
+    this.previousNanosPerRow = -1;
+  }
+
+  /**
+   * Take the measurement of an executed batch into account.
+   *
+   * @param nrRows The number of rows in the batch
+   * @param nanos The time it took to execute and commit the batch
+   */
+  public void update(int nrRows, long nanos) {
+    if (!adaptive || nrRows <= 0) {
+      return;
+    }
+    // A partial batch (the end of the stream or a forced flush) says nothing about the batch size
+    //
+    if (nrRows < batchSize) {
+      return;
+    }
+    double nanosPerRow = (double) nanos / nrRows;
+    if (previousNanosPerRow >= 0 && nanosPerRow > previousNanosPerRow) {
+      direction = -direction;
+    }
+    previousNanosPerRow = nanosPerRow;
+
+    int next =
+        direction > 0
+            ? (int) Math.ceil(batchSize * STEP_FACTOR)
+            : (int) Math.floor(batchSize / STEP_FACTOR);
+    next = clamp(next);
+    if (next == batchSize) {
+      // We hit one of the limits, turn around next time
+      direction = -direction;
+    }
+    batchSize = next;
+  }
+
+  private int clamp(int size) {
+    return Math.min(maxBatchSize, Math.max(minBatchSize, size));
+  }
+
+  /**
+   * @return The number of rows to put in the next batch
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * @return The smallest batch size to use
+   */
+  public int getMinBatchSize() {
+    return minBatchSize;
+  }
+
+  /**
+   * @return The largest batch size to use
+   */
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * @return true if the batch size is tuned, false if it stays fixed
+   */
+  public boolean isAdaptive() {
+    return adaptive;
+  }
+}
@@ -21,9 +21,12 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.RowMetaAndData;
 import org.apache.hop.core.database.Database;
@@ -40,6 +43,8 @@ import org.apache.hop.core.util.Utils;
 import org.apache.hop.i18n.BaseMessages;
 import org.apache.hop.pipeline.Pipeline;
 import org.apache.hop.pipeline.PipelineMeta;
+import org.apache.hop.pipeline.engine.EngineMetric;
+import org.apache.hop.pipeline.engine.IEngineMetric;
 import org.apache.hop.pipeline.transform.BaseTransform;
 import org.apache.hop.pipeline.transform.TransformMeta;
 
@@ -54,6 +59,35 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       "Could not retrieve table structure for: ";
   public static final String COULD_NOT_ROLLBACK_TRANSACTION = "Could not rollback transaction: ";
 
+  public static final IEngineMetric METRIC_WRITER_BATCHES =
+      new EngineMetric(
+          "writer_batches",
+          "Batches",
+          "The number of batches committed by the background writer",
+          "096",
+          true);
+  public static final IEngineMetric METRIC_WRITER_BATCH_SIZE =
+      new EngineMetric(
+          "writer_batch_size",
+          "Batch size",
+          "The number of rows in the last batch committed by the background writer",
+          "097",
+          true);
+  public static final IEngineMetric METRIC_WRITER_BATCH_LATENCY =
+      new EngineMetric(
+          "writer_batch_latency",
+          "Batch latency (ms)",
+          "The time it took to execute and commit the last batch",
+          "098",
+          true);
+  public static final IEngineMetric METRIC_WRITER_WAIT =
+      new EngineMetric(
+          "writer_wait",
+          "Writer wait (ms)",
+          "The time the transform waited for the background writer",
+          "099",
+          true);
+
   public TableOutput(
       TransformMeta transformMeta,
       TableOutputMeta meta,
@@ -72,6 +106,20 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       if (first && meta.isTruncateTable() && !meta.isOnlyWhenHaveRows()) {
         truncateTable();
       }
+      if (data.writer != null || data.bulkWriter != null) {
+        try {
+          if (data.writer != null) {
+            data.writer.flush();
+            putWrittenRows();
+          } else {
+            commitBulkRows();
+          }
+        } catch (HopException e) {
+          logError("Because of an error, this transform can't continue: ", e);
+          setErrors(1);
+          stopAll();
+        }
+      }
       return false;
     }
 
@@ -136,6 +184,19 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
     }
 
     try {
+      if (data.bulkWriting || data.backgroundWriting) {
+        if (data.bulkWriting) {
+          writeBulk(r);
+        } else {
+          writeInBackground(r);
+          putWrittenRows();
+        }
+        if (checkFeedback(getLinesRead()) && isBasic()) {
+          logBasic("linenr " + getLinesRead());
+        }
+        return true;
+      }
+
       Object[] outputRowData = writeToTable(getInputRowMeta(), r);
       if (outputRowData != null) {
         putRow(data.outputRowMeta, outputRowData); // in case we want it go further...
@@ -251,16 +312,7 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
       throw new HopTransformException("The tablename is not defined (empty)");
     }
 
-    insertStatement = data.preparedStatements.get(tableName);
-    if (insertStatement == null) {
-      String sql =
-          data.db.getInsertStatement(resolve(meta.getSchemaName()), tableName, data.insertRowMeta);
-      if (isDetailed()) {
-        logDetailed("Prepared statement : " + sql);
-      }
-      insertStatement = data.db.prepareSql(sql, meta.isReturningGeneratedKeys());
-      data.preparedStatements.put(tableName, insertStatement);
-    }
+    insertStatement = getInsertStatement(tableName);
 
     try {
       // For PG & GP, we add a savepoint before the row.
@@ -449,6 +501,159 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
     return outputRowData;
   }
 
+  private PreparedStatement getInsertStatement(String tableName) throws HopException {
+    PreparedStatement insertStatement = data.preparedStatements.get(tableName);
+    if (insertStatement == null) {
+      String sql =
+          data.db.getInsertStatement(resolve(meta.getSchemaName()), tableName, data.insertRowMeta);
+      if (isDetailed()) {
+        logDetailed("Prepared statement : " + sql);
+      }
+      insertStatement = data.db.prepareSql(sql, meta.isReturningGeneratedKeys());
+      data.preparedStatements.put(tableName, insertStatement);
+    }
+    return insertStatement;
+  }
+
+  /**
+   * Hand the row to the background writer. The writer only exists with a single target table and
+   * batch mode without error handling on a connection of its own, see {@link #init()}.
+   */
+  protected void writeInBackground(Object[] r) throws HopException {
+    if (data.writer == null) {
+      int maxBatchSize = Const.toInt(resolve(meta.getMaxBatchSize()), 10000);
+      BatchSizeTuner tuner =
+          new BatchSizeTuner(
+              data.commitSize,
+              Math.max(1, Math.min(data.commitSize, maxBatchSize) / 10),
+              maxBatchSize,
+              meta.isAdaptiveBatchSize());
+      data.writer =
+          new TableOutputWriter(
+              data.db,
+              getInsertStatement(data.tableName),
+              data.insertRowMeta,
+              data.tableName,
+              data.commitSize,
+              tuner,
+              getLogChannel());
+      data.writer.start();
+    }
+
+    Object[] insertRowData = r;
+    if (meta.isSpecifyFields()) {
+      insertRowData = new Object[data.valuenrs.length];
+      for (int idx = 0; idx < data.valuenrs.length; idx++) {
+        insertRowData[idx] = r[data.valuenrs[idx]];
+      }
+    }
+    data.writer.addRow(insertRowData, r);
+  }
+
+  /**
+   * Write the row with the bulk writer of the database and commit after every commit size rows. The
+   * bulk writer is only used with a single target table without error handling, see {@link
+   * #init()}.
+   */
+  protected void writeBulk(Object[] r) throws HopException {
+    if (data.bulkWriter == null) {
+      data.bulkWriter =
+          data.db.createBulkWriter(
+              resolve(meta.getSchemaName()), data.tableName, data.insertRowMeta, data.commitSize);
+      if (isDetailed()) {
+        logDetailed("Writing rows with " + data.bulkWriter.getDescription());
+      }
+    }
+
+    Object[] insertRowData = r;
+    if (meta.isSpecifyFields()) {
+      insertRowData = new Object[data.valuenrs.length];
+      for (int idx = 0; idx < data.valuenrs.length; idx++) {
+        insertRowData[idx] = r[data.valuenrs[idx]];
+      }
+    }
+    try {
+      data.bulkWriter.writeRow(insertRowData);
+    } catch (HopDatabaseException e) {
+      abortBulkRows();
+      throw new HopException(
+          "Error writing row to table ["
+              + data.tableName
+              + "] with values: "
+              + getInputRowMeta().getString(r),
+          e);
+    }
+    data.batchBuffer.add(r);
+    data.bulkCounter++;
+
+    if (data.bulkCounter >= data.commitSize) {
+      commitBulkRows();
+    }
+  }
+
+  /** Flush the bulk writer, commit and pass on the written rows. */
+  private void commitBulkRows() throws HopException {
+    if (data.bulkWriter == null || data.bulkCounter == 0) {
+      return;
+    }
+    try {
+      long written = data.bulkWriter.flush();
+      data.db.commit();
+      long conversionsAvoided = data.bulkWriter.getConversionsAvoided();
+      addConversionsAvoided(conversionsAvoided - data.bulkConversionsAvoided);
+      data.bulkConversionsAvoided = conversionsAvoided;
+      if (isDebug()) {
+        logDebug("Committed " + written + " rows written to table [" + data.tableName + "]");
+      }
+    } catch (HopDatabaseException e) {
+      abortBulkRows();
+      throw new HopException("Error writing rows to table [" + data.tableName + "]", e);
+    }
+    for (Object[] row : data.batchBuffer) {
+      putRow(data.outputRowMeta, row);
+      incrementLinesOutput();
+    }
+    data.batchBuffer.clear();
+    data.bulkCounter = 0;
+  }
+
+  /** Throw away the rows which aren't committed yet. */
+  private void abortBulkRows() {
+    data.bulkWriter.abort();
+    data.batchBuffer.clear();
+    data.bulkCounter = 0;
+    setErrors(getErrors() + 1);
+    try {
+      data.db.rollback();
+    } catch (HopDatabaseException e) {
+      logError(COULD_NOT_ROLLBACK_TRANSACTION + e.getMessage());
+    }
+  }
+
+  /** Pass on the rows of the batches which the background writer committed. */
+  private void putWrittenRows() throws HopException {
+    Object[] row;
+    while ((row = data.writer.pollWrittenRow()) != null) {
+      putRow(data.outputRowMeta, row);
+      incrementLinesOutput();
+    }
+  }
+
+  @Override
+  public Map<IEngineMetric, Long> getTransformMetrics() {
+    TableOutputWriter writer = data.writer;
+    if (writer == null) {
+      return Collections.emptyMap();
+    }
+    Map<IEngineMetric, Long> metrics = new LinkedHashMap<>();
+    metrics.put(METRIC_WRITER_BATCHES, writer.getNrBatches());
+    metrics.put(METRIC_WRITER_BATCH_SIZE, writer.getLastBatchSize());
+    metrics.put(
+        METRIC_WRITER_BATCH_LATENCY, TimeUnit.NANOSECONDS.toMillis(writer.getLastBatchNanos()));
+    metrics.put(METRIC_WRITER_WAIT, TimeUnit.NANOSECONDS.toMillis(writer.getWaitNanos()));
+    return metrics;
+  }
+
   private void processBatchException(
       String errorMessage, int[] updateCounts, List<Exception> exceptionsList) throws HopException {
     // There was an error with the commit
@@ -563,6 +768,35 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
           data.tableName = resolve(meta.getTableName());
         }
 
+        // The bulk writer needs a single table and rows which are only passed on after the commit.
+        //
+        if (meta.isUseBulkWriter()) {
+          data.bulkWriting =
+              data.tableName != null
+                  && !meta.isReturningGeneratedKeys()
+                  && !getTransformMeta().isDoingErrorHandling()
+                  && !meta.isIgnoreErrors();
+          if (!data.bulkWriting && isBasic()) {
+            logBasic(BaseMessages.getString(PKG, "TableOutput.Log.BulkWriterNotUsed"));
+          }
+        }
+
+        // The background writer needs a single table and rows which are only passed on after
+        // the commit: batch mode without error handling. A connection shared with other
+        // transforms in a transactional pipeline can't be used from another thread.
+        //
+        if (meta.isBackgroundWriter() && !data.bulkWriting) {
+          data.backgroundWriting =
+              data.batchMode
+                  && data.tableName != null
+                  && !getTransformMeta().isDoingErrorHandling()
+                  && !meta.isIgnoreErrors()
+                  && Utils.isEmpty(data.db.getConnectionGroup());
+          if (!data.backgroundWriting && isBasic()) {
+            logBasic(BaseMessages.getString(PKG, "TableOutput.Log.BackgroundWriterNotUsed"));
+          }
+        }
+
         return true;
       } catch (HopException e) {
         logError("An error occurred initializing this transform: " + e.getMessage());
@@ -1153,6 +1387,8 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
 
     if (data.db != null) {
       try {
+        closeWriter();
+        closeBulkWriter();
         emptyAndCommitBatchBuffers(true);
       } finally {
         try {
@@ -1183,9 +1419,62 @@ public class TableOutput extends BaseTransform<TableOutputMeta, TableOutputData>
   //
   @Override
   public void batchComplete() throws HopException {
+    if (data.writer != null) {
+      data.writer.flush();
+      putWrittenRows();
+    }
+    commitBulkRows();
     emptyAndCommitBatchBuffers(false);
   }
 
+  /** Commit the rows which are still in the bulk writer, unless there were errors. */
+  private void closeBulkWriter() {
+    if (data.bulkWriter == null) {
+      return;
+    }
+    try {
+      if (getErrors() == 0) {
+        commitBulkRows();
+      } else {
+        data.bulkWriter.abort();
+        data.batchBuffer.clear();
+      }
+    } catch (HopException e) {
+      logError("Unexpected error writing the last rows to the database.", e);
+      setErrors(1);
+      stopAll();
+    } finally {
+      try {
+        data.bulkWriter.close();
+      } catch (HopDatabaseException e) {
+        logError("Unable to close the bulk writer", e);
+      }
+    }
+  }
+
+  /** Commit the rows which are still in the background writer, unless there were errors. */
+  private void closeWriter() {
+    if (data.writer == null) {
+      return;
+    }
+    try {
+      if (getErrors() == 0) {
+        data.writer.flush();
+        putWrittenRows();
+      }
+    } catch (HopException e) {
+      logError("Unexpected error writing the last batch to the database.", e);
+      setErrors(1);
+      stopAll();
+    } finally {
+      try {
+        data.writer.close();
+      } catch (HopException e) {
+        logError("Unable to stop the background writer", e);
+      }
+    }
+  }
+
   private void emptyAndCommitBatchBuffers(boolean dispose) {
     try {
       for (String schemaTable : data.preparedStatements.keySet()) {
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import org.apache.hop.core.database.Database;
 import org.apache.hop.core.database.DatabaseMeta;
+import org.apache.hop.core.database.IBulkWriter;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.pipeline.transform.BaseTransformData;
 import org.apache.hop.pipeline.transform.ITransformData;
@@ -69,6 +70,22 @@ public class TableOutputData extends BaseTransformData implements ITransformData
 
   public int commitSize;
 
+  /** Write the rows with the bulk writer of the database */
+  public boolean bulkWriting;
+
+  public IBulkWriter bulkWriter;
+
+  /** The number of rows written with the bulk writer since the last commit */
+  public int bulkCounter;
+
+  /** The number of values the bulk writer wrote without converting them, at the last commit */
+  public long bulkConversionsAvoided;
+
+  /** Write the batches on a background thread */
+  public boolean backgroundWriting;
+
+  public TableOutputWriter writer;
+
   public TableOutputData() {
     super();
 
@@ -124,6 +124,15 @@ public class TableOutputDialog extends BaseTransformDialog {
   private Label wlBatch;
   private Button wBatch;
 
+  private Label wlBulkWriter;
+  private Button wBulkWriter;
+  private Label wlBackgroundWriter;
+  private Button wBackgroundWriter;
+  private Label wlAdaptiveBatchSize;
+  private Button wAdaptiveBatchSize;
+  private Label wlMaxBatchSize;
+  private TextVar wMaxBatchSize;
+
   private Button wUsePart;
 
   private Label wlPartField;
@@ -713,13 +722,114 @@ public class TableOutputDialog extends BaseTransformDialog {
           }
         });
 
+    // Bulk writer
+    wlBulkWriter = new Label(wMainComp, SWT.RIGHT);
+    wlBulkWriter.setText(BaseMessages.getString(PKG, "TableOutputDialog.BulkWriter.Label"));
+    wlBulkWriter.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.BulkWriter.Tooltip"));
+    PropsUi.setLook(wlBulkWriter);
+    FormData fdlBulkWriter = new FormData();
+    fdlBulkWriter.left = new FormAttachment(0, 0);
+    fdlBulkWriter.top = new FormAttachment(wBatch, margin);
+    fdlBulkWriter.right = new FormAttachment(middle, -margin);
+    wlBulkWriter.setLayoutData(fdlBulkWriter);
+    wBulkWriter = new Button(wMainComp, SWT.CHECK);
+    PropsUi.setLook(wBulkWriter);
+    FormData fdBulkWriter = new FormData();
+    fdBulkWriter.left = new FormAttachment(middle, 0);
+    fdBulkWriter.top = new FormAttachment(wlBulkWriter, 0, SWT.CENTER);
+    fdBulkWriter.right = new FormAttachment(100, 0);
+    wBulkWriter.setLayoutData(fdBulkWriter);
+    wBulkWriter.addSelectionListener(lsSelMod);
+    wBulkWriter.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent arg0) {
+            setFlags();
+          }
+        });
+
+    // Background writer
+    wlBackgroundWriter = new Label(wMainComp, SWT.RIGHT);
+    wlBackgroundWriter.setText(
+        BaseMessages.getString(PKG, "TableOutputDialog.BackgroundWriter.Label"));
+    wlBackgroundWriter.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.BackgroundWriter.Tooltip"));
+    PropsUi.setLook(wlBackgroundWriter);
+    FormData fdlBackgroundWriter = new FormData();
+    fdlBackgroundWriter.left = new FormAttachment(0, 0);
+    fdlBackgroundWriter.top = new FormAttachment(wBulkWriter, margin);
+    fdlBackgroundWriter.right = new FormAttachment(middle, -margin);
+    wlBackgroundWriter.setLayoutData(fdlBackgroundWriter);
+    wBackgroundWriter = new Button(wMainComp, SWT.CHECK);
+    PropsUi.setLook(wBackgroundWriter);
+    FormData fdBackgroundWriter = new FormData();
+    fdBackgroundWriter.left = new FormAttachment(middle, 0);
+    fdBackgroundWriter.top = new FormAttachment(wlBackgroundWriter, 0, SWT.CENTER);
+    fdBackgroundWriter.right = new FormAttachment(100, 0);
+    wBackgroundWriter.setLayoutData(fdBackgroundWriter);
+    wBackgroundWriter.addSelectionListener(lsSelMod);
+    wBackgroundWriter.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent arg0) {
+            setFlags();
+          }
+        });
+
+    // Adaptive batch size
+    wlAdaptiveBatchSize = new Label(wMainComp, SWT.RIGHT);
+    wlAdaptiveBatchSize.setText(
+        BaseMessages.getString(PKG, "TableOutputDialog.AdaptiveBatchSize.Label"));
+    wlAdaptiveBatchSize.setToolTipText(
+        BaseMessages.getString(PKG, "TableOutputDialog.AdaptiveBatchSize.Tooltip"));
+    PropsUi.setLook(wlAdaptiveBatchSize);
+    FormData fdlAdaptiveBatchSize = new FormData();
+    fdlAdaptiveBatchSize.left = new FormAttachment(0, 0);
+    fdlAdaptiveBatchSize.top = new FormAttachment(wBackgroundWriter, margin);
+    fdlAdaptiveBatchSize.right = new FormAttachment(middle, -margin);
+    wlAdaptiveBatchSize.setLayoutData(fdlAdaptiveBatchSize);
+    wAdaptiveBatchSize = new Button(wMainComp, SWT.CHECK);
+    PropsUi.setLook(wAdaptiveBatchSize);
+    FormData fdAdaptiveBatchSize = new FormData();
+    fdAdaptiveBatchSize.left = new FormAttachment(middle, 0);
+    fdAdaptiveBatchSize.top = new FormAttachment(wlAdaptiveBatchSize, 0, SWT.CENTER);
+    fdAdaptiveBatchSize.right = new FormAttachment(100, 0);
+    wAdaptiveBatchSize.setLayoutData(fdAdaptiveBatchSize);
+    wAdaptiveBatchSize.addSelectionListener(lsSelMod);
+    wAdaptiveBatchSize.addSelectionListener(
+        new SelectionAdapter() {
+          @Override
+          public void widgetSelected(SelectionEvent arg0) {
+            setFlags();
+          }
+        });
+
+    // Maximum batch size
+    wlMaxBatchSize = new Label(wMainComp, SWT.RIGHT);
+    wlMaxBatchSize.setText(BaseMessages.getString(PKG, "TableOutputDialog.MaxBatchSize.Label"));
+    PropsUi.setLook(wlMaxBatchSize);
+    FormData fdlMaxBatchSize = new FormData();
+    fdlMaxBatchSize.left = new FormAttachment(0, 0);
+    fdlMaxBatchSize.top = new FormAttachment(wAdaptiveBatchSize, margin);
+    fdlMaxBatchSize.right = new FormAttachment(middle, -margin);
+    wlMaxBatchSize.setLayoutData(fdlMaxBatchSize);
+    wMaxBatchSize = new TextVar(variables, wMainComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    PropsUi.setLook(wMaxBatchSize);
+    FormData fdMaxBatchSize = new FormData();
+    fdMaxBatchSize.left = new FormAttachment(middle, 0);
+    fdMaxBatchSize.top = new FormAttachment(wlMaxBatchSize, 0, SWT.CENTER);
+    fdMaxBatchSize.right = new FormAttachment(100, 0);
+    wMaxBatchSize.setLayoutData(fdMaxBatchSize);
+    wMaxBatchSize.addModifyListener(lsMod);
+
     // NameInField
     Label wlNameInField = new Label(wMainComp, SWT.RIGHT);
     wlNameInField.setText(BaseMessages.getString(PKG, "TableOutputDialog.NameInField.Label"));
     PropsUi.setLook(wlNameInField);
     FormData fdlNameInField = new FormData();
     fdlNameInField.left = new FormAttachment(0, 0);
-    fdlNameInField.top = new FormAttachment(wBatch, margin * 5);
+    fdlNameInField.top = new FormAttachment(wMaxBatchSize, margin * 5);
     fdlNameInField.right = new FormAttachment(middle, -margin);
     wlNameInField.setLayoutData(fdlNameInField);
     wNameInField = new Button(wMainComp, SWT.CHECK);
@@ -1376,6 +1486,22 @@ public class TableOutputDialog extends BaseTransformDialog {
 
     wOnlyWhenHaveRows.setEnabled(useTruncate);
 
+    // The bulk writer and the background writer only work with a single table
+    boolean enableBulkWriter = !usePartitioning && !isTableNameInField && !returnKeys;
+    boolean useBulkWriter = enableBulkWriter && wBulkWriter.getSelection();
+    wlBulkWriter.setEnabled(enableBulkWriter);
+    wBulkWriter.setEnabled(enableBulkWriter);
+
+    boolean enableBackgroundWriter =
+        useBatch && !usePartitioning && !isTableNameInField && !useBulkWriter;
+    boolean useBackgroundWriter = enableBackgroundWriter && wBackgroundWriter.getSelection();
+    wlBackgroundWriter.setEnabled(enableBackgroundWriter);
+    wBackgroundWriter.setEnabled(enableBackgroundWriter);
+    wlAdaptiveBatchSize.setEnabled(useBackgroundWriter);
+    wAdaptiveBatchSize.setEnabled(useBackgroundWriter);
+    wlMaxBatchSize.setEnabled(useBackgroundWriter && wAdaptiveBatchSize.getSelection());
+    wMaxBatchSize.setEnabled(useBackgroundWriter && wAdaptiveBatchSize.getSelection());
+
     wlReturnField.setEnabled(returnKeys);
     wReturnField.setEnabled(returnKeys);
 
@@ -1488,6 +1614,10 @@ public class TableOutputDialog extends BaseTransformDialog {
     wOnlyWhenHaveRows.setSelection(input.isOnlyWhenHaveRows());
     wIgnore.setSelection(input.isIgnoreErrors());
     wBatch.setSelection(input.isUseBatchUpdate());
+    wBulkWriter.setSelection(input.isUseBulkWriter());
+    wBackgroundWriter.setSelection(input.isBackgroundWriter());
+    wAdaptiveBatchSize.setSelection(input.isAdaptiveBatchSize());
+    wMaxBatchSize.setText(Const.NVL(input.getMaxBatchSize(), ""));
 
     wCommit.setText(input.getCommitSize());
 
@@ -1571,6 +1701,10 @@ public class TableOutputDialog extends BaseTransformDialog {
     info.setOnlyWhenHaveRows(wOnlyWhenHaveRows.getSelection());
     info.setIgnoreErrors(wIgnore.getSelection());
     info.setUseBatchUpdate(wBatch.getSelection());
+    info.setUseBulkWriter(wBulkWriter.getSelection());
+    info.setBackgroundWriter(wBackgroundWriter.getSelection());
+    info.setAdaptiveBatchSize(wAdaptiveBatchSize.getSelection());
+    info.setMaxBatchSize(wMaxBatchSize.getText());
     info.setPartitioningEnabled(wUsePart.getSelection());
     info.setPartitioningField(wPartField.getText());
     info.setPartitioningDaily(wPartDaily.getSelection());
@@ -115,6 +115,34 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
       injectionKeyDescription = "TableOutputMeta.Injection.UseBatch.Field")
   private boolean useBatchUpdate;
 
+  /** Write the rows with the bulk load protocol of the database, e.g. COPY on PostgreSQL */
+  @HopMetadataProperty(
+      key = "use_bulk_writer",
+      injectionKey = "USE_BULK_WRITER",
+      injectionKeyDescription = "TableOutputMeta.Injection.UseBulkWriter.Field")
+  private boolean useBulkWriter;
+
+  /** Execute and commit the batches on a background thread while the next batch is filled */
+  @HopMetadataProperty(
+      key = "background_writer",
+      injectionKey = "BACKGROUND_WRITER",
+      injectionKeyDescription = "TableOutputMeta.Injection.BackgroundWriter.Field")
+  private boolean backgroundWriter;
+
+  /** Tune the batch size of the background writer from the observed latency per row */
+  @HopMetadataProperty(
+      key = "adaptive_batch_size",
+      injectionKey = "ADAPTIVE_BATCH_SIZE",
+      injectionKeyDescription = "TableOutputMeta.Injection.AdaptiveBatchSize.Field")
+  private boolean adaptiveBatchSize;
+
+  /** The largest batch size the background writer can tune to */
+  @HopMetadataProperty(
+      key = "max_batch_size",
+      injectionKey = "MAX_BATCH_SIZE",
+      injectionKeyDescription = "TableOutputMeta.Injection.MaxBatchSize.Field")
+  private String maxBatchSize;
+
   @HopMetadataProperty(
       key = "partitioning_enabled",
       injectionKey = "PARTITION_OVER_TABLES",
@@ -233,6 +261,7 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
     super(); // allocate BaseTransformMeta
     useBatchUpdate = true;
     commitSize = "1000";
+    maxBatchSize = "10000";
 
     fields = new ArrayList<>();
   }
@@ -246,6 +275,10 @@ public class TableOutputMeta extends BaseTransformMeta<TableOutput, TableOutputD
   public void setDefault() {
     tableName = "";
     commitSize = "1000";
+    useBulkWriter = false;
+    backgroundWriter = false;
+    adaptiveBatchSize = false;
+    maxBatchSize = "10000";
 
     partitioningEnabled = false;
     partitioningDaily = false;
@@ -0,0 +1,377 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hop.core.Const;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopDatabaseBatchException;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * Writes batches of rows to a table on a background thread. While the writer thread executes a
+ * batch, the transform fills the next one. The two batches are handed over with a synchronous queue
+ * so the transform only waits when the database can't keep up.
+ *
+ * <p>The tuner only decides on the number of rows per executed batch. The writer commits every
+ * commit size rows, like the transform does without the writer: a batch never crosses a commit
+ * boundary.
+ *
+ * <p>All work on the database connection and the prepared statement happens on the writer thread
+ * since JDBC connections can't be used by two threads at the same time. The output rows are only
+ * passed on after they were committed.
+ */
+public class TableOutputWriter {
+  private static final Batch END = new Batch();
+
+  private final Database db;
+  private final PreparedStatement statement;
+  private final IRowMeta insertRowMeta;
+  private final String tableName;
+  private final int commitSize;
+  private final BatchSizeTuner tuner;
+  private final ILogChannel log;
+
+  private final SynchronousQueue<Batch> handOff = new SynchronousQueue<>();
+  private final Queue<Object[]> writtenRows = new ConcurrentLinkedQueue<>();
+  private final Thread thread;
+
+  /** The batch the transform is filling, only used by the transform thread */
+  private Batch current = new Batch();
+
+  /** The number of rows to add before the next commit, only used by the transform thread */
+  private int rowsUntilCommit;
+
+  /** The output rows which are executed but not yet committed, only used by the writer thread */
+  private final List<Object[]> uncommittedRows = new ArrayList<>();
+
+  /** The number of batches handed over and not yet written, guarded by this */
+  private int pendingBatches;
+
+  private volatile HopException error;
+  private boolean closed;
+
+  private final AtomicLong nrBatches = new AtomicLong();
+  private final AtomicLong nrRowsWritten = new AtomicLong();
+  private final AtomicLong lastBatchSize = new AtomicLong();
+  private final AtomicLong lastBatchNanos = new AtomicLong();
+  private final AtomicLong waitNanos = new AtomicLong();
+
+  /**
+   * @param db The connected database, it is no longer used by the caller until the writer is closed
+   * @param statement The prepared insert statement
+   * @param insertRowMeta The metadata of the rows to insert
+   * @param tableName The name of the table, used in messages
+   * @param commitSize The number of rows to commit at once
+   * @param tuner Decides on the size of the batches
+   * @param log The log channel to report to
+   */
+  public TableOutputWriter(
+      Database db,
+      PreparedStatement statement,
+      IRowMeta insertRowMeta,
+      String tableName,
+      int commitSize,
+      BatchSizeTuner tuner,
+      ILogChannel log) {
+    this.db = db;
+    this.statement = statement;
+    this.insertRowMeta = insertRowMeta;
+    this.tableName = tableName;
+    this.commitSize = Math.max(1, commitSize);
+    this.tuner = tuner;
+    this.rowsUntilCommit = this.commitSize;
+    this.log = log;
+    this.thread = new Thread(this::run, "TableOutputWriter-" + tableName);
+    this.thread.setDaemon(true);
+  }
+
+  /** Start the writer thread. */
+  public void start() {
+    thread.start();
+  }
+
+  /**
+   * Add a row to the current batch. The batch is handed to the writer thread once it is full or
+   * reaches the next commit, which waits for the previous batch to be written.
+   *
+   * @param insertRow The values to insert
+   * @param outputRow The row to pass on once the insert is committed
+   * @throws HopException In case writing a previous batch failed
+   */
+  public void addRow(Object[] insertRow, Object[] outputRow) throws HopException {
+    checkError();
+    current.insertRows.add(insertRow);
+    current.outputRows.add(outputRow);
+    int size = current.insertRows.size();
+    if (size >= rowsUntilCommit) {
+      current.commit = true;
+      handOver();
+    } else if (size >= tuner.getBatchSize()) {
+      handOver();
+    }
+  }
+
+  private void handOver() throws HopException {
+    Batch batch = current;
+    current = new Batch();
+    rowsUntilCommit -= batch.insertRows.size();
+    if (batch.commit) {
+      rowsUntilCommit = commitSize;
+    }
+    synchronized (this) {
+      pendingBatches++;
+    }
+    long start = System.nanoTime();
+    try {
+      handOff.put(batch);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while handing a batch to the table writer", e);
+    } finally {
+      waitNanos.addAndGet(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Hand over the rows of the current batch and wait until every batch is written and committed.
+   *
+   * @throws HopException In case writing a batch failed
+   */
+  public void flush() throws HopException {
+    checkError();
+    // Nothing to commit when no rows were added since the last commit
+    //
+    if (!current.insertRows.isEmpty() || rowsUntilCommit < commitSize) {
+      current.commit = true;
+      handOver();
+    }
+    long start = System.nanoTime();
+    try {
+      synchronized (this) {
+        while (pendingBatches > 0) {
+          wait(100);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for the table writer", e);
+    } finally {
+      waitNanos.addAndGet(System.nanoTime() - start);
+    }
+    checkError();
+  }
+
+  /**
+   * Stop the writer thread. Rows which weren't flushed are not written.
+   *
+   * @throws HopException In case the writer thread couldn't be stopped
+   */
+  public void close() throws HopException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    current = new Batch();
+    try {
+      if (thread.isAlive()) {
+        handOff.put(END);
+        thread.join(TimeUnit.MINUTES.toMillis(1));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while stopping the table writer", e);
+    }
+  }
+
+  /**
+   * @return The next row of a committed batch or null if there is none at the moment
+   */
+  public Object[] pollWrittenRow() {
+    return writtenRows.poll();
+  }
+
+  private void checkError() throws HopException {
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  private void run() {
+    try {
+      while (true) {
+        Batch batch = handOff.take();
+        if (batch == END) {
+          return;
+        }
+        try {
+          // After an error the remaining batches are skipped: they're rolled back anyway
+          //
+          if (error == null) {
+            write(batch);
+          }
+        } catch (HopException e) {
+          error = e;
+        } catch (Exception e) {
+          error = new HopException("Unexpected error writing a batch to table " + tableName, e);
+        } finally {
+          synchronized (this) {
+            pendingBatches--;
+            notifyAll();
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void write(Batch batch) throws HopException {
+    int size = batch.insertRows.size();
+    long nanos = 0;
+    try {
+      if (size > 0) {
+        long start = System.nanoTime();
+        for (Object[] row : batch.insertRows) {
+          db.setValues(insertRowMeta, row, statement);
+          db.insertRow(statement, true, false);
+        }
+        if (db.getUseBatchInsert(true)) {
+          try {
+            statement.executeBatch();
+            statement.clearBatch();
+          } catch (SQLException e) {
+            throw Database.createHopDatabaseBatchException("Error updating batch", e);
+          }
+        }
+        nanos = System.nanoTime() - start;
+        uncommittedRows.addAll(batch.outputRows);
+      }
+      if (batch.commit) {
+        db.commit();
+        writtenRows.addAll(uncommittedRows);
+        uncommittedRows.clear();
+      }
+    } catch (HopDatabaseBatchException e) {
+      db.clearBatch(statement);
+      db.rollback();
+      throw new HopException(getBatchErrorMessage(e), e);
+    } catch (HopException e) {
+      db.rollback();
+      throw e;
+    }
+    if (size == 0) {
+      return;
+    }
+
+    nrBatches.incrementAndGet();
+    nrRowsWritten.addAndGet(size);
+    lastBatchSize.set(size);
+    lastBatchNanos.set(nanos);
+    // Only the execution of the batch says something about the batch size, not the commit
+    //
+    tuner.update(size, nanos);
+
+    if (log.isDebug()) {
+      log.logDebug(
+          "Wrote batch of "
+              + size
+              + " rows to table ["
+              + tableName
+              + "] in "
+              + TimeUnit.NANOSECONDS.toMillis(nanos)
+              + "ms, next batch size is "
+              + tuner.getBatchSize());
+    }
+  }
+
+  private String getBatchErrorMessage(HopDatabaseBatchException e) {
+    StringBuilder message =
+        new StringBuilder("Error batch inserting rows into table [" + tableName + "].");
+    message.append(Const.CR);
+    message.append("Errors encountered (first 10):").append(Const.CR);
+    List<Exception> exceptions = e.getExceptionsList();
+    for (int x = 0; exceptions != null && x < exceptions.size() && x < 10; x++) {
+      if (exceptions.get(x).getMessage() != null) {
+        message.append(exceptions.get(x).getMessage()).append(Const.CR);
+      }
+    }
+    return message.toString();
+  }
+
+  /**
+   * @return The number of batches written
+   */
+  public long getNrBatches() {
+    return nrBatches.get();
+  }
+
+  /**
+   * @return The number of rows written
+   */
+  public long getNrRowsWritten() {
+    return nrRowsWritten.get();
+  }
+
+  /**
+   * @return The number of rows in the last batch written
+   */
+  public long getLastBatchSize() {
+    return lastBatchSize.get();
+  }
+
+  /**
+   * @return The time it took to execute the last batch, in nanoseconds
+   */
+  public long getLastBatchNanos() {
+    return lastBatchNanos.get();
+  }
+
+  /**
+   * @return The total time the transform waited for the writer thread, in nanoseconds
+   */
+  public long getWaitNanos() {
+    return waitNanos.get();
+  }
+
+  /**
+   * @return The tuner which decides on the size of the batches
+   */
+  public BatchSizeTuner getTuner() {
+    return tuner;
+  }
+
+  /** The rows to insert and the matching rows to pass on */
+  private static class Batch {
+    private final List<Object[]> insertRows = new ArrayList<>();
+    private final List<Object[]> outputRows = new ArrayList<>();
+
+    /** Commit after this batch */
+    private boolean commit;
+  }
+}
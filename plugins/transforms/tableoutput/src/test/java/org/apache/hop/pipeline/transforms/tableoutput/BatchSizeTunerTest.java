@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BatchSizeTunerTest {
+
+  /** A fixed cost per batch, a cost per row and a penalty growing with the batch size */
+  private static long nanos(int batchSize) {
+    return 1_000_000L + batchSize * 10_000L + (long) batchSize * batchSize * 10L;
+  }
+
+  @Test
+  void testConvergesToLowestLatencyPerRow() {
+    // The latency per row is lowest around sqrt(1_000_000 / 10) = 316 rows
+    //
+    BatchSizeTuner tuner = new BatchSizeTuner(20, 2, 10000, true);
+    for (int i = 0; i < 100; i++) {
+      int size = tuner.getBatchSize();
+      tuner.update(size, nanos(size));
+    }
+    int size = tuner.getBatchSize();
+    assertTrue(size > 150 && size < 700, "Unexpected batch size " + size);
+  }
+
+  @Test
+  void testStaysWithinLimits() {
+    BatchSizeTuner tuner = new BatchSizeTuner(50, 10, 200, true);
+    for (int i = 0; i < 50; i++) {
+      int size = tuner.getBatchSize();
+      // Larger batches are always faster per row
+      tuner.update(size, 1_000_000L);
+      assertTrue(tuner.getBatchSize() >= 10 && tuner.getBatchSize() <= 200);
+    }
+    assertTrue(tuner.getBatchSize() >= 160);
+  }
+
+  @Test
+  void testPartialBatchesAreIgnored() {
+    BatchSizeTuner tuner = new BatchSizeTuner(100, 10, 1000, true);
+    tuner.update(40, 1_000_000L);
+    assertEquals(100, tuner.getBatchSize());
+  }
+
+  @Test
+  void testFixedBatchSize() {
+    BatchSizeTuner tuner = new BatchSizeTuner(5000, 500, 1000, false);
+    tuner.update(5000, 1_000_000L);
+    tuner.update(5000, 1L);
+    assertEquals(5000, tuner.getBatchSize());
+  }
+}
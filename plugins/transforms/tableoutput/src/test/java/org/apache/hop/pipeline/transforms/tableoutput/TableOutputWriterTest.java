@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.tableoutput;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import org.apache.hop.core.database.Database;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.logging.ILogChannel;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.core.row.RowMeta;
+import org.apache.hop.core.row.value.ValueMetaInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TableOutputWriterTest {
+  private Database db;
+  private PreparedStatement statement;
+  private IRowMeta rowMeta;
+  private TableOutputWriter writer;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    db = mock(Database.class);
+    doReturn(true).when(db).getUseBatchInsert(true);
+    statement = mock(PreparedStatement.class);
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta(new ValueMetaInteger("id"));
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    if (writer != null) {
+      writer.close();
+    }
+  }
+
+  private TableOutputWriter createWriter(int batchSize) {
+    return createWriter(batchSize, batchSize);
+  }
+
+  private TableOutputWriter createWriter(int batchSize, int commitSize) {
+    writer =
+        new TableOutputWriter(
+            db,
+            statement,
+            rowMeta,
+            "test",
+            commitSize,
+            new BatchSizeTuner(batchSize, batchSize, batchSize, false),
+            mock(ILogChannel.class));
+    writer.start();
+    return writer;
+  }
+
+  @Test
+  void testRowsArePassedOnAfterCommit() throws Exception {
+    createWriter(10);
+    for (long i = 0; i < 25; i++) {
+      writer.addRow(new Object[] {i}, new Object[] {i, "out"});
+    }
+    writer.flush();
+
+    for (long i = 0; i < 25; i++) {
+      assertArrayEquals(new Object[] {i, "out"}, writer.pollWrittenRow());
+    }
+    assertNull(writer.pollWrittenRow());
+
+    verify(db, times(25)).insertRow(statement, true, false);
+    verify(statement, times(3)).executeBatch();
+    verify(db, times(3)).commit();
+    assertEquals(3, writer.getNrBatches());
+    assertEquals(25, writer.getNrRowsWritten());
+    assertEquals(5, writer.getLastBatchSize());
+  }
+
+  @Test
+  void testCommitsOnTheCommitSize() throws Exception {
+    createWriter(10, 25);
+    for (long i = 0; i < 60; i++) {
+      writer.addRow(new Object[] {i}, new Object[] {i});
+    }
+    writer.flush();
+    // Nothing was added since the last commit
+    writer.flush();
+
+    // Batches of 10, 10, 5 | 10, 10, 5 | 10
+    verify(statement, times(7)).executeBatch();
+    verify(db, times(3)).commit();
+    assertEquals(60, writer.getNrRowsWritten());
+    for (long i = 0; i < 60; i++) {
+      assertArrayEquals(new Object[] {i}, writer.pollWrittenRow());
+    }
+    assertNull(writer.pollWrittenRow());
+  }
+
+  @Test
+  void testRowsAreOnlyPassedOnAfterTheirCommit() throws Exception {
+    createWriter(2, 4);
+    // The third batch is only taken by the writer thread after the second one was committed
+    //
+    for (long i = 0; i < 6; i++) {
+      writer.addRow(new Object[] {i}, new Object[] {i});
+    }
+    for (long i = 0; i < 4; i++) {
+      assertArrayEquals(new Object[] {i}, writer.pollWrittenRow());
+    }
+    assertNull(writer.pollWrittenRow());
+
+    writer.flush();
+    assertArrayEquals(new Object[] {4L}, writer.pollWrittenRow());
+    assertArrayEquals(new Object[] {5L}, writer.pollWrittenRow());
+    assertNull(writer.pollWrittenRow());
+    verify(db, times(2)).commit();
+  }
+
+  @Test
+  void testErrorIsReportedToTheTransform() throws Exception {
+    when(statement.executeBatch()).thenThrow(new SQLException("Duplicate key"));
+    createWriter(2);
+    writer.addRow(new Object[] {1L}, new Object[] {1L});
+    writer.addRow(new Object[] {2L}, new Object[] {2L});
+
+    HopException exception = assertThrows(HopException.class, () -> writer.flush());
+    assertEquals(true, exception.getMessage().contains("Duplicate key"));
+    assertThrows(HopException.class, () -> writer.addRow(new Object[] {3L}, new Object[] {3L}));
+    assertNull(writer.pollWrittenRow());
+    verify(db).rollback();
+    verify(db, times(0)).commit();
+    verify(db, times(2)).setValues(any(IRowMeta.class), any(Object[].class), any());
+  }
+}
@@ -0,0 +1,346 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.csvinput;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.Getter;
+import org.apache.hop.core.exception.HopException;
+
+/**
+ * Reads CSV files in chunks which always end on a record boundary. A producer thread reads the
+ * files with positional reads straight into the chunk buffers and finds the record boundaries with
+ * a {@link CsvRecordScanner}, a pool of worker threads parses the chunks and the parsed chunks are
+ * handed out in the order of the files.
+ */
+public class CsvChunkReader {
+
+  public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+  /** The initial number of bytes we read to find a record start at an arbitrary position */
+  private static final int RESYNC_WINDOW = 64 * 1024;
+
+  /** Parses the records in a chunk of a file into rows */
+  public interface IChunkParser {
+    /**
+     * @param range the part of the file the chunk was read from
+     * @param chunk the data, starting with a record
+     * @param length the number of bytes of data in the chunk
+     * @return the rows or conversion exceptions, in the order of the records in the chunk
+     * @throws HopException in case the chunk can't be parsed
+     */
+    List<Object> parse(FileRange range, byte[] chunk, int length) throws HopException;
+  }
+
+  /** The part of a local file to read */
+  @Getter
+  public static class FileRange {
+    private final String filename;
+    private final String path;
+    private final IFieldsMapping fieldsMapping;
+    private final long dataStart;
+    private final long from;
+    private final long to;
+    private final boolean headerPresent;
+
+    /**
+     * @param filename the name of the file as specified
+     * @param path the path of the local file
+     * @param fieldsMapping the fields of the file
+     * @param dataStart the position after the byte order mark
+     * @param from the position to start reading. After the data start we start at the first record
+     *     which starts at or after this position.
+     * @param to the position to stop reading: we read the records which start before the first
+     *     record which starts at or after this position.
+     * @param headerPresent true if the first record of the file is a header row
+     */
+    public FileRange(
+        String filename,
+        String path,
+        IFieldsMapping fieldsMapping,
+        long dataStart,
+        long from,
+        long to,
+        boolean headerPresent) {
+      this.filename = filename;
+      this.path = path;
+      this.fieldsMapping = fieldsMapping;
+      this.dataStart = dataStart;
+      this.from = from;
+      this.to = to;
+      this.headerPresent = headerPresent;
+    }
+  }
+
+  /** A chunk of records, parsed or being parsed by a worker thread */
+  public static class Chunk {
+    @Getter private final FileRange range;
+
+    /** True if this is the first chunk read from the file range */
+    @Getter private final boolean first;
+
+    private final Future<List<Object>> rows;
+
+    Chunk(FileRange range, boolean first, Future<List<Object>> rows) {
+      this.range = range;
+      this.first = first;
+      this.rows = rows;
+    }
+
+    /**
+     * Wait for the worker thread to parse the chunk.
+     *
+     * @return the rows or conversion exceptions, in the order of the records in the chunk
+     * @throws HopException in case the chunk couldn't be parsed
+     */
+    public List<Object> getRows() throws HopException {
+      try {
+        return rows.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new HopException("Interrupted while waiting for a parsed chunk", e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof HopException hopException) {
+          throw hopException;
+        }
+        throw new HopException("Error parsing a chunk", e.getCause());
+      }
+    }
+  }
+
+  private static final Chunk END = new Chunk(null, false, null);
+
+  private final CsvRecordScanner scanner;
+  private final IChunkParser parser;
+  private final int chunkSize;
+  private final ExecutorService workers;
+  private final BlockingQueue<Chunk> chunks;
+  private final Thread producer;
+
+  private List<FileRange> ranges;
+  private volatile boolean stopped;
+  private volatile Exception failure;
+
+  /**
+   * @param name the name of the producer thread
+   * @param scanner the scanner to find record boundaries
+   * @param parser the parser to run in the worker threads
+   * @param nrThreads the number of worker threads
+   * @param chunkSize the number of bytes to read in a chunk
+   */
+  public CsvChunkReader(
+      String name, CsvRecordScanner scanner, IChunkParser parser, int nrThreads, int chunkSize) {
+    this.scanner = scanner;
+    this.parser = parser;
+    this.chunkSize = chunkSize;
+    this.workers = Executors.newFixedThreadPool(nrThreads);
+    this.chunks = new ArrayBlockingQueue<>(2 * nrThreads);
+    this.producer = new Thread(this::produce, name);
+    this.producer.setDaemon(true);
+  }
+
+  /**
+   * Start reading the given file ranges in the background.
+   *
+   * @param ranges the parts of the files to read, in order
+   */
+  public void start(List<FileRange> ranges) {
+    this.ranges = ranges;
+    producer.start();
+  }
+
+  /**
+   * @return the next chunk in the order of the files or null if all files are read
+   * @throws HopException in case a file couldn't be read
+   */
+  public Chunk nextChunk() throws HopException {
+    Chunk chunk;
+    try {
+      chunk = chunks.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while waiting for a chunk", e);
+    }
+    if (chunk == END) {
+      // Leave the end marker for the next call
+      //
+      chunks.offer(END);
+      if (failure != null) {
+        throw new HopException("Error reading CSV file", failure);
+      }
+      return null;
+    }
+    return chunk;
+  }
+
+  /** Stop reading and parsing. */
+  public void close() {
+    stopped = true;
+    producer.interrupt();
+    workers.shutdownNow();
+    chunks.clear();
+  }
+
+  private void produce() {
+    try {
+      for (FileRange range : ranges) {
+        if (stopped) {
+          break;
+        }
+        readRange(range);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (Exception e) {
+      failure = e;
+    }
+    workers.shutdown();
+    try {
+      chunks.put(END);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void readRange(FileRange range) throws IOException, InterruptedException {
+    CsvRecordScanner rangeScanner = scanner.withMappedFields(range.getFieldsMapping().size());
+
+    try (FileChannel channel =
+        FileChannel.open(Paths.get(range.getPath()), StandardOpenOption.READ)) {
+      long size = channel.size();
+
+      long start;
+      if (range.getFrom() > range.getDataStart()) {
+        start = findRecordStart(channel, rangeScanner, range.getFrom(), size);
+      } else if (range.isHeaderPresent()) {
+        start = skipRecord(channel, rangeScanner, range.getDataStart(), size);
+      } else {
+        start = range.getDataStart();
+      }
+      long end = size;
+      if (range.getTo() < size) {
+        end = findRecordStart(channel, rangeScanner, range.getTo(), size);
+      }
+
+      boolean first = true;
+      byte[] buffer = new byte[chunkSize];
+      int length = 0;
+      long offset = start;
+      while (offset < end && !stopped) {
+        if (length == buffer.length) {
+          // A record which doesn't fit in a chunk
+          //
+          buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+        }
+        int n = (int) Math.min(buffer.length - length, size - offset - length);
+        read(channel, offset + length, buffer, length, n);
+        length += n;
+        boolean endOfData = offset + length >= size;
+
+        // Find the last record which starts before the end of the range
+        //
+        int position = 0;
+        while (offset + position < end) {
+          int next = rangeScanner.nextRecordStart(buffer, position, length, endOfData);
+          if (next < 0) {
+            break;
+          }
+          position = next;
+        }
+
+        if (position > 0) {
+          byte[] rest = new byte[Math.max(chunkSize, length - position)];
+          System.arraycopy(buffer, position, rest, 0, length - position);
+          Arrays.fill(buffer, position, length, (byte) 0);
+          submit(range, first, buffer, position);
+          first = false;
+          buffer = rest;
+          length -= position;
+          offset += position;
+        }
+      }
+    }
+  }
+
+  private void submit(FileRange range, boolean first, byte[] chunk, int length)
+      throws InterruptedException {
+    Future<List<Object>> rows = workers.submit(() -> parser.parse(range, chunk, length));
+    chunks.put(new Chunk(range, first, rows));
+  }
+
+  private static long findRecordStart(
+      FileChannel channel, CsvRecordScanner scanner, long position, long size) throws IOException {
+    int window = RESYNC_WINDOW;
+    while (true) {
+      int length = (int) Math.min(window, size - position + 1);
+      byte[] buffer = new byte[length];
+      read(channel, position - 1, buffer, 0, length);
+      boolean endOfData = position - 1 + length >= size;
+      int index = scanner.findRecordStart(buffer, length, endOfData);
+      if (index >= 0) {
+        return position - 1 + index;
+      }
+      window *= 2;
+    }
+  }
+
+  private static long skipRecord(
+      FileChannel channel, CsvRecordScanner scanner, long position, long size) throws IOException {
+    int window = RESYNC_WINDOW;
+    while (true) {
+      int length = (int) Math.min(window, size - position);
+      byte[] buffer = new byte[length];
+      read(channel, position, buffer, 0, length);
+      boolean endOfData = position + length >= size;
+      int index = scanner.nextRecordStart(buffer, 0, length, endOfData);
+      if (index >= 0) {
+        return position + index;
+      }
+      window *= 2;
+    }
+  }
+
+  private static void read(FileChannel channel, long position, byte[] buffer, int offset, int n)
+      throws IOException {
+    if (n <= 0) {
+      return;
+    }
+    // Read into the chunk buffer itself: no mapping per chunk and no extra copy
+    //
+    ByteBuffer target = ByteBuffer.wrap(buffer, offset, n);
+    while (target.hasRemaining()) {
+      long readPosition = position + target.position() - offset;
+      if (channel.read(target, readPosition) < 0) {
+        throw new EOFException("Unexpected end of file at position " + readPosition);
+      }
+    }
+  }
+}
@@ -29,6 +29,7 @@ import org.apache.commons.io.ByteOrderMark;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.provider.local.LocalFile;
+import org.apache.hop.core.Const;
 import org.apache.hop.core.ResultFile;
 import org.apache.hop.core.exception.HopConversionException;
 import org.apache.hop.core.exception.HopException;
@@ -94,6 +95,10 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
         valueMeta.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
       }
 
+      // With lazy conversion the fields are passed on without converting them
+      //
+      data.binaryStringCount = countBinaryStrings(data.outputRowMeta, null);
+
       // Calculate the indexes for the filename and row number fields
       //
       data.filenameFieldIndex = -1;
@@ -117,14 +122,22 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
         prepareToRunInParallel();
       }
 
-      // Open the next file...
+      // Parse the files in chunks on a number of worker threads
       //
-      if (!openNextFile()) {
+      if (data.parseThreads > 1 && meta.getInputFields().length > 0) {
+        startChunkReader();
+      } else if (!openNextFile()) {
+        // Open the next file...
+        //
         setOutputDone();
         return false; // nothing to see here, move along...
       }
     }
 
+    if (data.chunkReader != null) {
+      return processChunkRow();
+    }
+
     // If we are running in parallel, make sure we don't read too much in this transform copy...
     //
     if (data.parallel && data.totalBytesRead >= data.blockToRead) {
@@ -143,43 +156,234 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
           return false;
         }
       } else {
-        putRow(data.outputRowMeta, outputRowData); // copy row to possible alternate rowset(s).
-        if (checkFeedback(getLinesInput()) && isBasic()) {
-          logBasic(
-              BaseMessages.getString(
-                  PKG, "CsvInput.Log.LineNumber", Long.toString(getLinesInput())));
-        }
+        putOutputRow(outputRowData);
       }
     } catch (HopConversionException e) {
-      if (getTransformMeta().isDoingErrorHandling()) {
-        StringBuilder errorDescriptions = new StringBuilder(100);
-        StringBuilder errorFields = new StringBuilder(50);
-        for (int i = 0; i < e.getCauses().size(); i++) {
-          if (i > 0) {
-            errorDescriptions.append(", ");
-            errorFields.append(", ");
-          }
-          errorDescriptions.append(e.getCauses().get(i).getMessage());
-          errorFields.append(e.getFields().get(i).toStringMeta());
+      putConversionError(e);
+    }
+
+    return true;
+  }
+
+  private void putOutputRow(Object[] outputRowData) throws HopException {
+    putRow(data.outputRowMeta, outputRowData); // copy row to possible alternate rowset(s).
+    addConversionsAvoided(data.binaryStringCount);
+    if (checkFeedback(getLinesInput()) && isBasic()) {
+      logBasic(
+          BaseMessages.getString(PKG, "CsvInput.Log.LineNumber", Long.toString(getLinesInput())));
+    }
+  }
+
+  private void putConversionError(HopConversionException e) throws HopException {
+    if (getTransformMeta().isDoingErrorHandling()) {
+      StringBuilder errorDescriptions = new StringBuilder(100);
+      StringBuilder errorFields = new StringBuilder(50);
+      for (int i = 0; i < e.getCauses().size(); i++) {
+        if (i > 0) {
+          errorDescriptions.append(", ");
+          errorFields.append(", ");
         }
+        errorDescriptions.append(e.getCauses().get(i).getMessage());
+        errorFields.append(e.getFields().get(i).toStringMeta());
+      }
 
-        putError(
-            data.outputRowMeta,
-            e.getRowData(),
-            e.getCauses().size(),
-            errorDescriptions.toString(),
-            errorFields.toString(),
-            "CSVINPUT001");
-      } else {
-        // Only forward the first cause.
-        //
-        throw new HopException(e.getMessage(), e.getCauses().get(0));
+      putError(
+          data.outputRowMeta,
+          e.getRowData(),
+          e.getCauses().size(),
+          errorDescriptions.toString(),
+          errorFields.toString(),
+          "CSVINPUT001");
+    } else {
+      // Only forward the first cause.
+      //
+      throw new HopException(e.getMessage(), e.getCauses().get(0));
+    }
+  }
+
+  /**
+   * Pass on the next row parsed by the chunk reader. The row number is added here since the chunks
+   * are parsed in parallel.
+   */
+  private boolean processChunkRow() throws HopException {
+    while (data.chunkRows == null || data.chunkRowNr >= data.chunkRows.size()) {
+      CsvChunkReader.Chunk chunk = data.chunkReader.nextChunk();
+      if (chunk == null) {
+        setOutputDone();
+        return false;
+      }
+      data.chunkRows = chunk.getRows();
+      data.chunkRowNr = 0;
+      if (chunk.isFirst()) {
+        data.rowNumber = 1L;
       }
     }
 
+    Object parsed = data.chunkRows.get(data.chunkRowNr);
+    data.chunkRows.set(data.chunkRowNr++, null);
+
+    if (parsed instanceof HopConversionException e) {
+      if (data.isAddingRowNumber) {
+        e.getRowData()[data.rownumFieldIndex] = data.rowNumber++;
+      }
+      putConversionError(e);
+    } else {
+      Object[] outputRowData = (Object[]) parsed;
+      if (data.isAddingRowNumber) {
+        outputRowData[data.rownumFieldIndex] = data.rowNumber++;
+      }
+      putOutputRow(outputRowData);
+    }
     return true;
   }
 
+  /**
+   * Start reading the files in chunks. The producer thread of the chunk reader reads the chunks of
+   * the files with positional file channel reads and finds the record boundaries in them, the
+   * worker threads parse the chunks.
+   */
+  private void startChunkReader() throws HopException {
+    List<CsvChunkReader.FileRange> ranges = getFileRanges();
+
+    CsvRecordScanner scanner =
+        new CsvRecordScanner(
+            data.delimiter,
+            data.enclosure,
+            data.crLfMatcher,
+            data.encodingType.getLength(),
+            meta.isNewlinePossibleInFields(),
+            meta.getInputFields().length,
+            0);
+    data.chunkData = ThreadLocal.withInitial(this::createChunkData);
+    data.chunkReader =
+        new CsvChunkReader(
+            getTransformName() + " - " + getCopyNr(),
+            scanner,
+            this::parseChunk,
+            data.parseThreads,
+            Math.max(data.preferredBufferSize, CsvChunkReader.DEFAULT_CHUNK_SIZE));
+    data.chunkReader.start(ranges);
+
+    if (isBasic()) {
+      logBasic(
+          BaseMessages.getString(
+              PKG,
+              "CsvInput.Log.ParsingInChunks",
+              Integer.toString(ranges.size()),
+              Integer.toString(data.parseThreads)));
+    }
+  }
+
+  /**
+   * Calculate the part of every file to read. When running in parallel that's the part of the block
+   * of this transform copy in the file.
+   */
+  private List<CsvChunkReader.FileRange> getFileRanges() throws HopException {
+    List<CsvChunkReader.FileRange> ranges = new ArrayList<>();
+    try {
+      long fileStart = 0L;
+      for (int i = 0; i < data.filenames.length; i++) {
+        String filename = data.filenames[i];
+        FileObject fileObject = HopVfs.getFileObject(filename, variables);
+        if (!(fileObject instanceof LocalFile)) {
+          throw new HopException(
+              BaseMessages.getString(PKG, "CsvInput.Log.OnlyLocalFilesAreSupported"));
+        }
+        long size = fileObject.getContent().getSize();
+
+        long from = 0L;
+        long to = size;
+        if (data.parallel) {
+          from = Math.max(data.startPosition - fileStart, 0L);
+          if (data.transformNumber < data.totalNumberOfTransforms - 1) {
+            to = Math.min(data.endPosition - fileStart, size);
+          }
+          fileStart += size;
+          if (from >= to) {
+            continue;
+          }
+        }
+
+        IFieldsMapping fieldsMapping = createFieldMapping(filename, meta);
+        if (meta.isHeaderPresent() && fieldsMapping.size() == 0) {
+          continue;
+        }
+        String vfsFilename = HopVfs.getFilename(fileObject);
+        int bomSize = getBOMSize(vfsFilename);
+        ranges.add(
+            new CsvChunkReader.FileRange(
+                filename,
+                vfsFilename,
+                fieldsMapping,
+                bomSize,
+                Math.max(from, bomSize),
+                to,
+                meta.isHeaderPresent()));
+
+        // Add filename to result filenames ?
+        if (meta.isAddResult()) {
+          ResultFile resultFile =
+              new ResultFile(
+                  ResultFile.FILE_TYPE_GENERAL,
+                  fileObject,
+                  getPipelineMeta().getName(),
+                  toString());
+          resultFile.setComment("File was read by a Csv input transform");
+          addResultFile(resultFile);
+        }
+      }
+    } catch (HopException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new HopException(e);
+    }
+    return ranges;
+  }
+
+  /** The data to parse chunks in a worker thread, with its own conversion metadata. */
+  private CsvInputData createChunkData() {
+    CsvInputData chunkData = new CsvInputData();
+    chunkData.outputRowMeta = data.outputRowMeta;
+    chunkData.convertRowMeta = data.convertRowMeta.clone();
+    chunkData.delimiter = data.delimiter;
+    chunkData.enclosure = data.enclosure;
+    chunkData.delimiterMatcher = data.delimiterMatcher;
+    chunkData.enclosureMatcher = data.enclosureMatcher;
+    chunkData.crLfMatcher = data.crLfMatcher;
+    chunkData.encodingType = data.encodingType;
+    chunkData.preferredBufferSize = data.preferredBufferSize;
+    chunkData.filenameFieldIndex = data.filenameFieldIndex;
+    chunkData.rownumFieldIndex = data.rownumFieldIndex;
+    chunkData.isAddingRowNumber = false;
+    chunkData.filenr = 1;
+    return chunkData;
+  }
+
+  private List<Object> parseChunk(CsvChunkReader.FileRange range, byte[] chunk, int length)
+      throws HopException {
+    CsvInputData chunkData = data.chunkData.get();
+    chunkData.filenames = new String[] {range.getFilename()};
+    chunkData.fieldsMapping = range.getFieldsMapping();
+    if (meta.isLazyConversionActive()) {
+      chunkData.binaryFilename = range.getFilename().getBytes();
+    }
+    chunkData.setChunk(chunk, length);
+
+    List<Object> rows = new ArrayList<>();
+    while (true) {
+      try {
+        Object[] outputRowData = readOneRow(chunkData, false, false);
+        if (outputRowData == null) {
+          break;
+        }
+        rows.add(outputRowData);
+      } catch (HopConversionException e) {
+        rows.add(e);
+      }
+    }
+    return rows;
+  }
+
   public void prepareToRunInParallel() throws HopException {
     try {
       // At this point it doesn't matter if we have 1 or more files.
@@ -297,6 +501,11 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
 
   @Override
   public void dispose() {
+    if (data.chunkReader != null) {
+      data.chunkReader.close();
+      data.chunkReader = null;
+    }
+
     try {
       // Close the previous file...
       //
@@ -588,10 +797,25 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
    * @throws HopException
    */
   private Object[] readOneRow(boolean skipRow, boolean ignoreEnclosures) throws HopException {
+    return readOneRow(data, skipRow, ignoreEnclosures);
+  }
+
+  /**
+   * Read a single row of data from the file or chunk in the given data.
+   *
+   * @param csvData the data to read from
+   * @param skipRow if row should be skipped: header row or part of row in case of parallel read
+   * @param ignoreEnclosures if enclosures should be ignored, i.e. in case of we need to skip part
+   *     of the row during parallel read
+   * @return a row of data...
+   * @throws HopException
+   */
+  private Object[] readOneRow(CsvInputData csvData, boolean skipRow, boolean ignoreEnclosures)
+      throws HopException {
 
     try {
 
-      Object[] outputRowData = RowDataUtil.allocateRowData(data.outputRowMeta.size());
+      Object[] outputRowData = RowDataUtil.allocateRowData(csvData.outputRowMeta.size());
       int outputIndex = 0;
       boolean newLineFound = false;
       boolean endOfBuffer = false;
@@ -609,7 +833,7 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
       //
       while (!newLineFound && outputIndex < meta.getInputFields().length) {
 
-        if (data.resizeBufferIfNeeded()) {
+        if (csvData.resizeBufferIfNeeded()) {
           // Last row was being discarded if the last item is null and
           // there is no end of line delimiter
           if (outputRowData != null && outputIndex > 0) {
@@ -619,14 +843,14 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
             //
             if (meta.isIncludingFilename() && !Utils.isEmpty(meta.getFilenameField())) {
               if (meta.isLazyConversionActive()) {
-                outputRowData[data.filenameFieldIndex] = data.binaryFilename;
+                outputRowData[csvData.filenameFieldIndex] = csvData.binaryFilename;
               } else {
-                outputRowData[data.filenameFieldIndex] = data.filenames[data.filenr - 1];
+                outputRowData[csvData.filenameFieldIndex] = csvData.filenames[csvData.filenr - 1];
               }
             }
 
-            if (data.isAddingRowNumber) {
-              outputRowData[data.rownumFieldIndex] = data.rowNumber++;
+            if (csvData.isAddingRowNumber) {
+              outputRowData[csvData.rownumFieldIndex] = csvData.rowNumber++;
             }
 
             incrementLinesInput();
@@ -652,11 +876,11 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
           // If we find the first char, we might find others as well ;-)
           // Single byte delimiters only for now.
           //
-          if (data.delimiterFound()) {
+          if (csvData.delimiterFound()) {
             delimiterFound = true;
           } else if ((!meta.isNewlinePossibleInFields()
-                  || outputIndex == data.fieldsMapping.size() - 1)
-              && data.newLineFound()) {
+                  || outputIndex == csvData.fieldsMapping.size() - 1)
+              && csvData.newLineFound()) {
             // Perhaps we found a (pre-mature) new line?
             //
             // In case we are not using an enclosure and in case fields contain new lines
@@ -667,18 +891,18 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
             newLineFound = true;
 
             // Skip new line character
-            for (int i = 0; i < data.encodingType.getLength(); i++) {
-              data.moveEndBufferPointer();
+            for (int i = 0; i < csvData.encodingType.getLength(); i++) {
+              csvData.moveEndBufferPointer();
             }
 
             // Re-check for double new line (\r\n)...
-            if (data.newLineFound()) {
+            if (csvData.newLineFound()) {
               // Found another one, need to skip it later
               doubleLineEnd = true;
             }
-          } else if (data.enclosureFound() && !ignoreEnclosuresInField) {
-            int enclosurePosition = data.getEndBuffer();
-            int fieldFirstBytePosition = data.getStartBuffer();
+          } else if (csvData.enclosureFound() && !ignoreEnclosuresInField) {
+            int enclosurePosition = csvData.getEndBuffer();
+            int fieldFirstBytePosition = csvData.getStartBuffer();
             if (fieldFirstBytePosition == enclosurePosition) {
               // Perhaps we need to skip over an enclosed part?
               // We always expect exactly one enclosure character
@@ -688,25 +912,25 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
               enclosureFound = true;
               boolean keepGoing;
               do {
-                if (data.moveEndBufferPointer()) {
+                if (csvData.moveEndBufferPointer()) {
                   enclosureFound = false;
                   break;
                 }
-                keepGoing = !data.enclosureFound();
+                keepGoing = !csvData.enclosureFound();
                 if (!keepGoing) {
                   // We found an enclosure character.
                   // Read another byte...
-                  if (!data.endOfBuffer() && data.moveEndBufferPointer()) {
+                  if (!csvData.endOfBuffer() && csvData.moveEndBufferPointer()) {
                     break;
                   }
-                  if (data.enclosure.length > 1) {
-                    data.moveEndBufferPointer();
+                  if (csvData.enclosure.length > 1) {
+                    csvData.moveEndBufferPointer();
                   }
                   // If this character is also an enclosure, we can consider the enclosure
                   // "escaped".
                   // As such, if this is an enclosure, we keep going...
                   //
-                  keepGoing = data.enclosureFound();
+                  keepGoing = csvData.enclosureFound();
                   if (keepGoing) {
                     escapedEnclosureFound++;
                   }
@@ -715,7 +939,7 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
 
               // Did we reach the end of the buffer?
               //
-              if (data.endOfBuffer()) {
+              if (csvData.endOfBuffer()) {
                 endOfBuffer = true;
                 break;
               }
@@ -724,7 +948,7 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
               ignoreEnclosuresInField = true;
             }
           } else {
-            if (data.moveEndBufferPointer()) {
+            if (csvData.moveEndBufferPointer()) {
               endOfBuffer = true;
               break;
             }
@@ -737,10 +961,10 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
         // [startBuffer-endBuffer[
         //
         // This is the part we want.
-        // data.byteBuffer[data.startBuffer]
+        // csvData.byteBuffer[csvData.startBuffer]
         //
 
-        byte[] field = data.getField(delimiterFound, enclosureFound, newLineFound, endOfBuffer);
+        byte[] field = csvData.getField(delimiterFound, enclosureFound, newLineFound, endOfBuffer);
 
         // Did we have any escaped characters in there?
         //
@@ -748,7 +972,7 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
           if (isRowLevel()) {
             logRowlevel("Escaped enclosures found in " + new String(field));
           }
-          field = data.removeEscapedEnclosures(field, escapedEnclosureFound);
+          field = csvData.removeEscapedEnclosures(field, escapedEnclosureFound);
         }
 
         final int actualFieldIndex = outputIndex++;
@@ -762,7 +986,7 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
               // from it.
               // That will do the actual conversion.
               //
-              IValueMeta sourceValueMeta = data.convertRowMeta.getValueMeta(actualFieldIndex);
+              IValueMeta sourceValueMeta = csvData.convertRowMeta.getValueMeta(actualFieldIndex);
               try {
                 outputRowData[actualFieldIndex] =
                     sourceValueMeta.convertBinaryStringToNativeType(field);
@@ -796,26 +1020,26 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
             || (newLineFound && doubleLineEnd)) {
 
           int i = 0;
-          while ((!data.newLineFound() && (i < data.delimiter.length))) {
-            data.moveEndBufferPointer();
+          while ((!csvData.newLineFound() && (i < csvData.delimiter.length))) {
+            csvData.moveEndBufferPointer();
             i++;
           }
 
-          if (data.isCarriageReturn() || doubleLineEnd) {
-            data.moveEndBufferPointerXTimes(data.encodingType.getLength());
+          if (csvData.isCarriageReturn() || doubleLineEnd) {
+            csvData.moveEndBufferPointerXTimes(csvData.encodingType.getLength());
           }
         }
 
-        data.setStartBuffer(data.getEndBuffer());
+        csvData.setStartBuffer(csvData.getEndBuffer());
       }
 
       // See if we reached the end of the line.
       // If not, we need to skip the remaining items on the line until the next newline...
       //
-      if (!newLineFound && !data.resizeBufferIfNeeded()) {
+      if (!newLineFound && !csvData.resizeBufferIfNeeded()) {
         do {
-          data.moveEndBufferPointer();
-          if (data.resizeBufferIfNeeded()) {
+          csvData.moveEndBufferPointer();
+          if (csvData.resizeBufferIfNeeded()) {
             break; // nothing more to read.
           }
 
@@ -825,33 +1049,33 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
           // In that particular case we want to use the same logic we use above (refactored a bit)
           // to skip these fields.
 
-        } while (!data.newLineFound());
+        } while (!csvData.newLineFound());
 
-        if (!data.resizeBufferIfNeeded()) {
-          while (data.newLineFound()) {
-            data.moveEndBufferPointer();
-            if (data.resizeBufferIfNeeded()) {
+        if (!csvData.resizeBufferIfNeeded()) {
+          while (csvData.newLineFound()) {
+            csvData.moveEndBufferPointer();
+            if (csvData.resizeBufferIfNeeded()) {
               break; // nothing more to read.
             }
           }
         }
 
         // Make sure we start at the right position the next time around.
-        data.setStartBuffer(data.getEndBuffer());
+        csvData.setStartBuffer(csvData.getEndBuffer());
       }
 
       // Optionally add the current filename to the mix as well...
       //
       if (meta.isIncludingFilename() && !Utils.isEmpty(meta.getFilenameField())) {
         if (meta.isLazyConversionActive()) {
-          outputRowData[data.filenameFieldIndex] = data.binaryFilename;
+          outputRowData[csvData.filenameFieldIndex] = csvData.binaryFilename;
         } else {
-          outputRowData[data.filenameFieldIndex] = data.filenames[data.filenr - 1];
+          outputRowData[csvData.filenameFieldIndex] = csvData.filenames[csvData.filenr - 1];
         }
       }
 
-      if (data.isAddingRowNumber) {
-        outputRowData[data.rownumFieldIndex] = data.rowNumber++;
+      if (csvData.isAddingRowNumber) {
+        outputRowData[csvData.rownumFieldIndex] = csvData.rowNumber++;
       }
 
       if (!ignoreEnclosures) {
@@ -928,6 +1152,7 @@ public class CsvInput extends BaseTransform<CsvInputMeta, CsvInputData> {
       }
 
       data.isAddingRowNumber = !Utils.isEmpty(meta.getRowNumField());
+      data.parseThreads = Const.toInt(resolve(meta.getParseThreads()), 1);
 
       // Handle parallel reading capabilities...
       //
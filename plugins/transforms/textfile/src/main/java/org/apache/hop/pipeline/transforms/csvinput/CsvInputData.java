@@ -67,6 +67,10 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
   public boolean parallel;
   public int filenameFieldIndex;
   public int rownumFieldIndex;
+
+  /** The number of binary strings in a row which are passed on without a conversion */
+  public int binaryStringCount;
+
   public EncodingType encodingType;
   public IPatternMatcher delimiterMatcher;
   public IPatternMatcher enclosureMatcher;
@@ -74,6 +78,17 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
 
   public IFieldsMapping fieldsMapping;
 
+  /** The number of threads parsing chunks of the file, 1 to parse the file in this thread */
+  public int parseThreads;
+
+  public CsvChunkReader chunkReader;
+
+  /** The data used to parse a chunk in a worker thread of the chunk reader */
+  public ThreadLocal<CsvInputData> chunkData;
+
+  public List<Object> chunkRows;
+  public int chunkRowNr;
+
   /**
    * Data class for CsvInput transform
    *
@@ -110,6 +125,12 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
   }
 
   private int readBufferFromFile() throws IOException {
+    // A chunk is parsed from memory, there's nothing more to read
+    //
+    if (fc == null) {
+      return -1;
+    }
+
     // See if the line is not longer than the buffer.
     // In that case we need to increase the size of the byte buffer.
     // Since this method doesn't get called every other character, I'm sure we can spend a bit of
@@ -260,6 +281,20 @@ public class CsvInputData extends BaseTransformData implements ITransformData {
     return field;
   }
 
+  /**
+   * Parse the records in a chunk of data instead of reading from a file.
+   *
+   * @param chunk the data, starting with a record
+   * @param length the number of bytes of data in the chunk
+   */
+  void setChunk(byte[] chunk, int length) {
+    fc = null;
+    byteBuffer = chunk;
+    startBuffer = 0;
+    endBuffer = 0;
+    bufferSize = length;
+  }
+
   void closeFile() throws HopException {
     try {
       if (fc != null) {
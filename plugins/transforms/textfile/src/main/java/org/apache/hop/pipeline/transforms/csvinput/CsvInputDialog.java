@@ -114,6 +114,7 @@ public class CsvInputDialog extends BaseTransformDialog
   private Button wAddResult;
   private boolean isReceivingInput;
   private Button wRunningInParallel;
+  private TextVar wParseThreads;
   private Button wNewlinePossible;
   private ComboVar wEncoding;
 
@@ -446,6 +447,28 @@ public class CsvInputDialog extends BaseTransformDialog
     wRunningInParallel.setLayoutData(fdRunningInParallel);
     lastControl = wlRunningInParallel;
 
+    // The number of threads to parse the file with
+    //
+    Label wlParseThreads = new Label(shell, SWT.RIGHT);
+    wlParseThreads.setText(BaseMessages.getString(PKG, "CsvInputDialog.ParseThreads.Label"));
+    PropsUi.setLook(wlParseThreads);
+    FormData fdlParseThreads = new FormData();
+    fdlParseThreads.top = new FormAttachment(lastControl, margin);
+    fdlParseThreads.left = new FormAttachment(0, 0);
+    fdlParseThreads.right = new FormAttachment(middle, -margin);
+    wlParseThreads.setLayoutData(fdlParseThreads);
+    wParseThreads = new TextVar(variables, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wParseThreads.setToolTipText(
+        BaseMessages.getString(PKG, "CsvInputDialog.ParseThreads.Tooltip"));
+    PropsUi.setLook(wParseThreads);
+    wParseThreads.addModifyListener(lsMod);
+    FormData fdParseThreads = new FormData();
+    fdParseThreads.top = new FormAttachment(lastControl, margin);
+    fdParseThreads.left = new FormAttachment(middle, 0);
+    fdParseThreads.right = new FormAttachment(100, 0);
+    wParseThreads.setLayoutData(fdParseThreads);
+    lastControl = wParseThreads;
+
     // Is a new line possible in a field?
     //
     Label wlNewlinePossible = new Label(shell, SWT.RIGHT);
@@ -871,6 +894,7 @@ public class CsvInputDialog extends BaseTransformDialog
     wLazyConversion.setSelection(inputMeta.isLazyConversionActive());
     wHeaderPresent.setSelection(inputMeta.isHeaderPresent());
     wRunningInParallel.setSelection(inputMeta.isRunningInParallel());
+    wParseThreads.setText(Const.NVL(inputMeta.getParseThreads(), ""));
     wNewlinePossible.setSelection(inputMeta.isNewlinePossibleInFields());
     wRowNumField.setText(Const.NVL(inputMeta.getRowNumField(), ""));
     wAddResult.setSelection(inputMeta.isAddResult());
@@ -931,6 +955,7 @@ public class CsvInputDialog extends BaseTransformDialog
     inputMeta.setRowNumField(wRowNumField.getText());
     inputMeta.setAddResult(wAddResult.getSelection());
     inputMeta.setRunningInParallel(wRunningInParallel.getSelection());
+    inputMeta.setParseThreads(wParseThreads.getText());
     inputMeta.setNewlinePossibleInFields(wNewlinePossible.getSelection());
     inputMeta.setEncoding(wEncoding.getText());
     inputMeta.setSchemaDefinition(wSchemaDefinition.getText());
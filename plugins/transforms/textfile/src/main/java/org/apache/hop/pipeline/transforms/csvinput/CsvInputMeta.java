@@ -123,6 +123,9 @@ public class CsvInputMeta extends BaseTransformMeta<CsvInput, CsvInputData>
   @Injection(name = "RUNNING_IN_PARALLEL")
   private boolean runningInParallel;
 
+  @Injection(name = "PARSE_THREADS")
+  private String parseThreads;
+
   @Injection(name = "FILE_ENCODING")
   private String encoding;
 
@@ -195,6 +198,7 @@ public class CsvInputMeta extends BaseTransformMeta<CsvInput, CsvInputData>
       } else {
         newlinePossibleInFields = "Y".equalsIgnoreCase(nlp);
       }
+      parseThreads = XmlHandler.getTagValue(transformNode, "parse_threads");
       encoding = XmlHandler.getTagValue(transformNode, "encoding");
 
       Node fields = XmlHandler.getSubNode(transformNode, CONST_FIELDS);
@@ -248,6 +252,7 @@ public class CsvInputMeta extends BaseTransformMeta<CsvInput, CsvInputData>
     retval
         .append("    ")
         .append(XmlHandler.addTagValue("newline_possible", newlinePossibleInFields));
+    retval.append("    ").append(XmlHandler.addTagValue("parse_threads", parseThreads));
     retval.append("    ").append(XmlHandler.addTagValue("encoding", encoding));
 
     retval.append("    ").append(XmlHandler.openTag(CONST_FIELDS)).append(Const.CR);
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.csvinput;
+
+/**
+ * Finds the record boundaries in a block of CSV data without converting any fields. The rules are
+ * the ones {@link CsvInput} uses to read a row: an enclosure is only recognized at the start of a
+ * field, a doubled enclosure is escaped, fields after the last one are skipped up to the next new
+ * line and a record ends with one or more new line characters.
+ */
+public class CsvRecordScanner {
+
+  private final byte[] delimiter;
+  private final byte[] enclosure;
+  private final ICrLfMatcher crLfMatcher;
+  private final int newlineLength;
+  private final boolean newlinePossibleInFields;
+  private final int nrFields;
+  private final int nrMappedFields;
+
+  /** The number of bytes we need to see after a position to make a decision */
+  private final int lookahead;
+
+  /**
+   * @param delimiter the field delimiter
+   * @param enclosure the field enclosure or null if there is none
+   * @param crLfMatcher the matcher for carriage returns and line feeds
+   * @param newlineLength the number of bytes in a new line character
+   * @param newlinePossibleInFields true if fields other than the last can contain new lines
+   * @param nrFields the number of fields to read from a row
+   * @param nrMappedFields the number of fields in the file
+   */
+  public CsvRecordScanner(
+      byte[] delimiter,
+      byte[] enclosure,
+      ICrLfMatcher crLfMatcher,
+      int newlineLength,
+      boolean newlinePossibleInFields,
+      int nrFields,
+      int nrMappedFields) {
+    this.delimiter = delimiter;
+    this.enclosure = enclosure;
+    this.crLfMatcher = crLfMatcher;
+    this.newlineLength = newlineLength;
+    this.newlinePossibleInFields = newlinePossibleInFields;
+    this.nrFields = nrFields;
+    this.nrMappedFields = nrMappedFields;
+    int enclosureLength = enclosure == null ? 0 : enclosure.length;
+    this.lookahead = delimiter.length + 2 * enclosureLength + 2 * newlineLength;
+  }
+
+  /**
+   * @param nrMappedFields the number of fields in the file
+   * @return a copy of this scanner for a file with the given number of fields
+   */
+  public CsvRecordScanner withMappedFields(int nrMappedFields) {
+    return new CsvRecordScanner(
+        delimiter,
+        enclosure,
+        crLfMatcher,
+        newlineLength,
+        newlinePossibleInFields,
+        nrFields,
+        nrMappedFields);
+  }
+
+  /**
+   * Scan the record starting at the given position.
+   *
+   * @param buffer the data
+   * @param start the start of a record in the buffer
+   * @param length the number of bytes of data in the buffer
+   * @param endOfData true if there is no more data after the buffer
+   * @return the start of the next record or -1 if we need more data to find it. At the end of the
+   *     data this is the length of the buffer.
+   */
+  public int nextRecordStart(byte[] buffer, int start, int length, boolean endOfData) {
+    int limit = endOfData ? length : length - lookahead;
+    int fieldIndex = 0;
+    boolean fieldStart = true;
+    int i = start;
+
+    while (i < limit) {
+      if (fieldIndex >= nrFields) {
+        // The remaining fields are skipped up to the next new line, enclosures included
+        //
+        if (isNewline(buffer, i, length)) {
+          return skipNewlines(buffer, i, length, limit, endOfData);
+        }
+        i++;
+      } else if (matches(buffer, i, length, delimiter)) {
+        fieldIndex++;
+        fieldStart = true;
+        i += delimiter.length;
+      } else if ((!newlinePossibleInFields || fieldIndex == nrMappedFields - 1)
+          && isNewline(buffer, i, length)) {
+        return skipNewlines(buffer, i, length, limit, endOfData);
+      } else if (fieldStart && enclosure != null && matches(buffer, i, length, enclosure)) {
+        // Skip over the enclosed part, delimiters and new lines included
+        //
+        i += enclosure.length;
+        boolean enclosed = true;
+        while (enclosed) {
+          if (i >= limit) {
+            return endOfData ? length : -1;
+          }
+          if (matches(buffer, i, length, enclosure)) {
+            if (matches(buffer, i + enclosure.length, length, enclosure)) {
+              i += 2 * enclosure.length;
+            } else {
+              i += enclosure.length;
+              enclosed = false;
+            }
+          } else {
+            i++;
+          }
+        }
+        fieldStart = false;
+      } else {
+        fieldStart = false;
+        i++;
+      }
+    }
+    return endOfData ? length : -1;
+  }
+
+  /**
+   * Find the first record which starts in a block of data read from an arbitrary position in a
+   * file. The first byte of the buffer is the byte before that position. We don't know if the
+   * position is inside an enclosed field so we guess it from the first enclosure which can only be
+   * an opening enclosure (followed by a regular character) or a closing one (preceded by a regular
+   * character). Without such an enclosure we assume the position is not enclosed. The number of
+   * fields on a row isn't taken into account.
+   *
+   * @param buffer the data, starting one byte before the position
+   * @param length the number of bytes of data in the buffer
+   * @param endOfData true if there is no more data after the buffer
+   * @return the index of the first record start after the first byte, -1 if we need more data to
+   *     find it or the length of the buffer at the end of the data
+   */
+  public int findRecordStart(byte[] buffer, int length, boolean endOfData) {
+    int limit = endOfData ? length : length - lookahead;
+    boolean enclosed = isEnclosedAtStart(buffer, length);
+
+    int i = 0;
+    while (i < limit) {
+      if (enclosure != null && matches(buffer, i, length, enclosure)) {
+        enclosed = !enclosed;
+        i += enclosure.length;
+      } else if (!enclosed && isNewline(buffer, i, length)) {
+        return skipNewlines(buffer, i, length, limit, endOfData);
+      } else {
+        i++;
+      }
+    }
+    return endOfData ? length : -1;
+  }
+
+  private boolean isEnclosedAtStart(byte[] buffer, int length) {
+    if (enclosure == null || enclosure.length != 1 || delimiter.length != 1) {
+      return false;
+    }
+    int count = 0;
+    for (int i = 0; i < length - 1; i++) {
+      if (buffer[i] != enclosure[0]) {
+        continue;
+      }
+      count++;
+      boolean enclosedAfter;
+      if (isRegular(buffer[i + 1])) {
+        // An opening enclosure or the second half of an escaped one
+        enclosedAfter = true;
+      } else if (i > 0 && isRegular(buffer[i - 1])) {
+        // A closing enclosure or the first half of an escaped one
+        enclosedAfter = false;
+      } else {
+        continue;
+      }
+      // Every enclosure toggles the state so the parity tells us where we started
+      //
+      return enclosedAfter ^ (count % 2 == 1);
+    }
+    return false;
+  }
+
+  private boolean isRegular(byte b) {
+    return b != enclosure[0] && b != delimiter[0] && b != '\r' && b != '\n';
+  }
+
+  private int skipNewlines(byte[] buffer, int i, int length, int limit, boolean endOfData) {
+    int position = i + newlineLength;
+    while (position < limit && isNewline(buffer, position, length)) {
+      position += newlineLength;
+    }
+    if (position < limit) {
+      return position;
+    }
+    return endOfData ? length : -1;
+  }
+
+  private boolean isNewline(byte[] buffer, int i, int length) {
+    return i + newlineLength <= length
+        && (crLfMatcher.isReturn(buffer, i) || crLfMatcher.isLineFeed(buffer, i));
+  }
+
+  private static boolean matches(byte[] buffer, int i, int length, byte[] pattern) {
+    if (i + pattern.length > length) {
+      return false;
+    }
+    for (int j = 0; j < pattern.length; j++) {
+      if (buffer[i + j] != pattern[j]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
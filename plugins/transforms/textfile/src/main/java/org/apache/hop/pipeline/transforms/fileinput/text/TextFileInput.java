@@ -18,6 +18,7 @@
 package org.apache.hop.pipeline.transforms.fileinput.text;
 
 import org.apache.commons.vfs2.FileObject;
+import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopPluginException;
 import org.apache.hop.core.exception.HopTransformException;
 import org.apache.hop.core.playlist.FilePlayListAll;
@@ -58,6 +59,15 @@ public class TextFileInput extends BaseFileInputTransform<TextFileInputMeta, Tex
     return new TextFileInputReader(this, meta, data, file, getLogChannel());
   }
 
+  @Override
+  protected void prepareToRowProcessing() throws HopException {
+    super.prepareToRowProcessing();
+
+    // With lazy conversion the fields are passed on without converting them
+    //
+    data.binaryStringCount = countBinaryStrings(data.outputRowMeta, null);
+  }
+
   @Override
   public boolean init() {
     if (!super.init()) {
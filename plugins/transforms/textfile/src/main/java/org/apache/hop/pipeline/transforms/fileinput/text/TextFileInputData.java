@@ -61,6 +61,9 @@ public class TextFileInputData extends BaseFileInputTransformData {
 
   public EncodingType encodingType;
 
+  /** The number of binary strings in a row which are passed on without a conversion */
+  public int binaryStringCount;
+
   public TextFileInputData() {
     // linked list is better, as usually .remove(0) is applied to this list
     lineBuffer = new LinkedList<>();
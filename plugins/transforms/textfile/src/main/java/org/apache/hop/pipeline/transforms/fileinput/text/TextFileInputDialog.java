@@ -220,6 +220,8 @@ public class TextFileInputDialog extends BaseTransformDialog
 
   private Button wDateLenient;
 
+  private Button wLazyConversion;
+
   private CCombo wDateLocale;
 
   private Button wErrorIgnored;
@@ -1440,12 +1442,31 @@ public class TextFileInputDialog extends BaseTransformDialog
     fdDateLenient.top = new FormAttachment(wlDateLenient, 0, SWT.CENTER);
     wDateLenient.setLayoutData(fdDateLenient);
 
+    // Lazy conversion checkbox
+    Label wlLazyConversion = new Label(wContentComp, SWT.RIGHT);
+    wlLazyConversion.setText(
+        BaseMessages.getString(PKG, "TextFileInputDialog.LazyConversion.Label"));
+    PropsUi.setLook(wlLazyConversion);
+    FormData fdlLazyConversion = new FormData();
+    fdlLazyConversion.left = new FormAttachment(0, 0);
+    fdlLazyConversion.top = new FormAttachment(wDateLenient, margin);
+    fdlLazyConversion.right = new FormAttachment(middle, -margin);
+    wlLazyConversion.setLayoutData(fdlLazyConversion);
+    wLazyConversion = new Button(wContentComp, SWT.CHECK);
+    wLazyConversion.setToolTipText(
+        BaseMessages.getString(PKG, "TextFileInputDialog.LazyConversion.Tooltip"));
+    PropsUi.setLook(wLazyConversion);
+    FormData fdLazyConversion = new FormData();
+    fdLazyConversion.left = new FormAttachment(middle, 0);
+    fdLazyConversion.top = new FormAttachment(wlLazyConversion, 0, SWT.CENTER);
+    wLazyConversion.setLayoutData(fdLazyConversion);
+
     Label wlDateLocale = new Label(wContentComp, SWT.RIGHT);
     wlDateLocale.setText(BaseMessages.getString(PKG, "TextFileInputDialog.DateLocale.Label"));
     PropsUi.setLook(wlDateLocale);
     FormData fdlDateLocale = new FormData();
     fdlDateLocale.left = new FormAttachment(0, 0);
-    fdlDateLocale.top = new FormAttachment(wDateLenient, margin);
+    fdlDateLocale.top = new FormAttachment(wLazyConversion, margin);
     fdlDateLocale.right = new FormAttachment(middle, -margin);
     wlDateLocale.setLayoutData(fdlDateLocale);
     wDateLocale = new CCombo(wContentComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
@@ -1455,7 +1476,7 @@ public class TextFileInputDialog extends BaseTransformDialog
     wDateLocale.addModifyListener(lsMod);
     FormData fdDateLocale = new FormData();
     fdDateLocale.left = new FormAttachment(middle, 0);
-    fdDateLocale.top = new FormAttachment(wDateLenient, margin);
+    fdDateLocale.top = new FormAttachment(wLazyConversion, margin);
     fdDateLocale.right = new FormAttachment(100, 0);
     wDateLocale.setLayoutData(fdDateLocale);
     wDateLocale.addFocusListener(
@@ -2389,6 +2410,7 @@ public class TextFileInputDialog extends BaseTransformDialog
     wInclRownum.setSelection(meta.content.includeRowNumber);
     wRownumByFile.setSelection(meta.content.rowNumberByFile);
     wDateLenient.setSelection(meta.content.dateFormatLenient);
+    wLazyConversion.setSelection(meta.content.lazyConversionActive);
     wAddResult.setSelection(meta.inputFiles.isaddresult);
 
     if (meta.content.filenameField != null) {
@@ -2685,6 +2707,7 @@ public class TextFileInputDialog extends BaseTransformDialog
     meta.content.nrLinesDocHeader = Const.toInt(wNrLinesDocHeader.getText(), 0);
     meta.content.fileCompression = wCompression.getText();
     meta.content.dateFormatLenient = wDateLenient.getSelection();
+    meta.content.lazyConversionActive = wLazyConversion.getSelection();
     meta.content.noEmptyLines = wNoempty.getSelection();
     meta.content.encoding = wEncoding.getText();
     meta.content.length = wLength.getText();
@@ -225,6 +225,10 @@ public class TextFileInputMeta
     /** Length based on bytes or characters */
     @Injection(name = "LENGTH")
     public String length;
+
+    /** Flag indicating that the fields are passed on as binary strings, converted when needed */
+    @Injection(name = "LAZY_CONVERSION")
+    public boolean lazyConversionActive;
   }
 
   /** The filters to use... */
@@ -341,6 +345,8 @@ public class TextFileInputMeta
       content.fileFormat = XmlHandler.getTagValue(transformNode, CONST_FORMAT);
       content.encoding = XmlHandler.getTagValue(transformNode, "encoding");
       content.length = XmlHandler.getTagValue(transformNode, CONST_LENGTH);
+      content.lazyConversionActive =
+          YES.equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "lazy_conversion"));
 
       Node filenode = XmlHandler.getSubNode(transformNode, "file");
       Node fields = XmlHandler.getSubNode(transformNode, "fields");
@@ -557,6 +563,7 @@ public class TextFileInputMeta
     content.rowNumberField = "";
     content.dateFormatLenient = true;
     content.rowNumberByFile = false;
+    content.lazyConversionActive = false;
 
     errorHandling.errorIgnored = false;
     errorHandling.skipBadFiles = false;
@@ -666,6 +673,16 @@ public class TextFileInputMeta
           v.setDateFormatLenient(content.dateFormatLenient);
           v.setDateFormatLocale(content.dateFormatLocale);
           v.setTrimType(field.getTrimType());
+          if (isLazyConversion(field)) {
+            // Keep the field as it is read: it's only converted when the value is needed.
+            //
+            v.setStorageType(IValueMeta.STORAGE_TYPE_BINARY_STRING);
+            v.setStringEncoding(variables.resolve(content.encoding));
+            IValueMeta storageMetadata = ValueMetaFactory.cloneValueMeta(v, IValueMeta.TYPE_STRING);
+            storageMetadata.setStorageType(IValueMeta.STORAGE_TYPE_NORMAL);
+            storageMetadata.setLength(-1, -1);
+            v.setStorageMetadata(storageMetadata);
+          }
 
           row.addValueMeta(v);
         } catch (Exception e) {
@@ -812,6 +829,9 @@ public class TextFileInputMeta
     retval.append("    ").append(XmlHandler.addTagValue(CONST_FORMAT, content.fileFormat));
     retval.append("    ").append(XmlHandler.addTagValue("encoding", content.encoding));
     retval.append("    ").append(XmlHandler.addTagValue(CONST_LENGTH, content.length));
+    retval
+        .append("    ")
+        .append(XmlHandler.addTagValue("lazy_conversion", content.lazyConversionActive));
     retval.append(
         "    " + XmlHandler.addTagValue("add_to_result_filenames", inputFiles.isaddresult));
 
@@ -1248,6 +1268,37 @@ public class TextFileInputMeta
     return content.encoding;
   }
 
+  /**
+   * @return true if the fields are passed on as binary strings and converted when needed
+   */
+  public boolean isLazyConversionActive() {
+    return content.lazyConversionActive;
+  }
+
+  /**
+   * @param lazyConversionActive true to pass on the fields as binary strings
+   */
+  public void setLazyConversionActive(boolean lazyConversionActive) {
+    content.lazyConversionActive = lazyConversionActive;
+  }
+
+  /**
+   * Lazy conversion only applies to fields which are passed on as they are read: a null value, a
+   * default for null values and repeated values need the converted value. Parsing errors need to be
+   * caught while reading if they are ignored.
+   *
+   * @param field The field to check
+   * @return true if the field is passed on as a binary string
+   */
+  public boolean isLazyConversion(BaseFileField field) {
+    return content.lazyConversionActive
+        && !errorHandling.errorIgnored
+        && !ignoreFields
+        && !field.isRepeated()
+        && Utils.isEmpty(field.getNullString())
+        && Utils.isEmpty(field.getIfNullValue());
+  }
+
   /**
    * @return the length
    */
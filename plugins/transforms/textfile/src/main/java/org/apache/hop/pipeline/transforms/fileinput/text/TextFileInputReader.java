@@ -401,6 +401,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
         log.logRowlevel("Putting row: " + data.outputRowMeta.getString(r));
       }
       transform.putRow(data.outputRowMeta, r);
+      transform.addConversionsAvoided(data.binaryStringCount);
 
       if (transform.getLinesInput() >= meta.content.rowLimit && meta.content.rowLimit > 0) {
         close();
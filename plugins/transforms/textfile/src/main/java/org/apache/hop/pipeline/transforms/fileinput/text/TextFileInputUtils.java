@@ -17,6 +17,7 @@
 
 package org.apache.hop.pipeline.transforms.fileinput.text;
 
+import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
@@ -290,6 +291,11 @@ public class TextFileInputUtils {
     return strings.toArray(new String[strings.size()]);
   }
 
+  private static byte[] toBinaryString(String string, String encoding)
+      throws UnsupportedEncodingException {
+    return Utils.isEmpty(encoding) ? string.getBytes() : string.getBytes(encoding);
+  }
+
   public static final Object[] convertLineToRow(
       ILogChannel log,
       TextFileLine textFileLine,
@@ -421,10 +427,17 @@ public class TextFileInputUtils {
         if (fieldnr < strings.length) {
           String pol = strings[fieldnr];
           try {
-            if (valueMeta.isNull(pol) || !Utils.isEmpty(nullif) && nullif.equals(pol)) {
-              pol = null;
+            if (valueMeta.isStorageBinaryString()) {
+              // Lazy conversion: pass on the bytes, they are converted when the value is needed
+              //
+              value =
+                  Utils.isEmpty(pol) ? null : toBinaryString(pol, valueMeta.getStringEncoding());
+            } else {
+              if (valueMeta.isNull(pol) || !Utils.isEmpty(nullif) && nullif.equals(pol)) {
+                pol = null;
+              }
+              value = valueMeta.convertDataFromString(pol, convertMeta, nullif, ifnull, trimType);
             }
-            value = valueMeta.convertDataFromString(pol, convertMeta, nullif, ifnull, trimType);
           } catch (Exception e) {
             // OK, give some feedback!
             // when getting fields, failOnParseError will be set to false, as we do not want one
@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.textfileoutput;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.apache.hop.core.exception.HopException;
+import org.apache.hop.core.row.IRowMeta;
+
+/**
+ * Formats rows on a number of threads and writes them in the order they were received on another
+ * thread. The rows are formatted in blocks which can be compressed as separate gzip members: the
+ * concatenation of these members is a valid gzip file. The rows can be spread over several files,
+ * called shards, in turn or by the hash of a key field.
+ */
+public class ParallelTextFileWriter {
+
+  /** The number of rows formatted in a block */
+  public static final int ROWS_PER_BLOCK = 2000;
+
+  private static final Future<Block> END = CompletableFuture.completedFuture(null);
+
+  private final TextFileOutput<?, ?> transform;
+  private final IRowMeta rowMeta;
+  private final OutputStream[] shards;
+  private final int keyIndex;
+  private final boolean compress;
+
+  private final ExecutorService formatters;
+
+  /** Every formatting thread uses its own copy since the value formatters aren't thread safe */
+  private final ThreadLocal<IRowMeta> formatRowMeta;
+
+  /** The blocks in the order they are written, this limits the number of blocks in memory */
+  private final BlockingQueue<Future<Block>> blocks;
+
+  private final List<List<Object[]>> batches;
+  private final Thread writerThread;
+
+  private volatile Exception failure;
+  private int nextShard;
+
+  /**
+   * @param transform the transform formatting the rows
+   * @param rowMeta the layout of the rows
+   * @param nrThreads the number of formatting threads
+   * @param shards the output stream of every shard
+   * @param keyIndex the index of the field of which the hash decides the shard of a row or -1 to
+   *     send the rows to the shards in turn
+   * @param compress compress every block as a separate gzip member
+   */
+  public ParallelTextFileWriter(
+      TextFileOutput<?, ?> transform,
+      IRowMeta rowMeta,
+      int nrThreads,
+      OutputStream[] shards,
+      int keyIndex,
+      boolean compress) {
+    this.transform = transform;
+    this.rowMeta = rowMeta;
+    this.shards = shards;
+    this.keyIndex = keyIndex;
+    this.compress = compress;
+
+    this.formatters =
+        Executors.newFixedThreadPool(
+            nrThreads,
+            runnable -> {
+              Thread thread = new Thread(runnable, transform.getTransformName() + " - format");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.formatRowMeta = ThreadLocal.withInitial(() -> rowMeta.clone());
+    this.blocks = new ArrayBlockingQueue<>(2 * nrThreads);
+    this.batches = new ArrayList<>();
+    for (int i = 0; i < shards.length; i++) {
+      batches.add(new ArrayList<>(ROWS_PER_BLOCK));
+    }
+
+    this.writerThread = new Thread(this::writeBlocks, transform.getTransformName() + " - write");
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  public int getNrShards() {
+    return shards.length;
+  }
+
+  /**
+   * Hand a row to the writer. This blocks while the formatting threads are busy.
+   *
+   * @param row the row to write
+   * @throws HopException in case a block couldn't be formatted or written
+   */
+  public void addRow(Object[] row) throws HopException {
+    checkFailure();
+    int shard = getShard(row);
+    List<Object[]> batch = batches.get(shard);
+    // Transforms further down may change the row
+    batch.add(row.clone());
+    if (batch.size() >= ROWS_PER_BLOCK) {
+      submitBatch(shard);
+    }
+  }
+
+  /**
+   * Write bytes to a shard after the rows handed to the writer so far, like a header or a footer.
+   *
+   * @param shard the number of the shard
+   * @param text the bytes to write, compressed like the rows
+   * @throws HopException in case the bytes can't be compressed or a block couldn't be written
+   */
+  public void addBlock(int shard, byte[] text) throws HopException {
+    checkFailure();
+    if (text.length == 0) {
+      return;
+    }
+    submitBatch(shard);
+    try {
+      put(CompletableFuture.completedFuture(new Block(shard, gzip(text), 0, 0)));
+    } catch (IOException e) {
+      throw new HopException("Error compressing block", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while writing rows", e);
+    }
+  }
+
+  /**
+   * Write the rows which are left and wait for all blocks to be written. The output streams are
+   * left open.
+   *
+   * @throws HopException in case a block couldn't be formatted or written
+   */
+  public void finish() throws HopException {
+    try {
+      for (int shard = 0; shard < shards.length; shard++) {
+        submitBatch(shard);
+      }
+      put(END);
+      writerThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while writing rows", e);
+    } finally {
+      formatters.shutdown();
+    }
+    checkFailure();
+  }
+
+  /** Stop formatting and writing without waiting for the rows which are left */
+  public void cancel() {
+    formatters.shutdownNow();
+    writerThread.interrupt();
+    try {
+      writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private int getShard(Object[] row) throws HopException {
+    if (shards.length == 1) {
+      return 0;
+    }
+    if (keyIndex < 0) {
+      int shard = nextShard;
+      nextShard = (nextShard + 1) % shards.length;
+      return shard;
+    }
+    int hash = rowMeta.getValueMeta(keyIndex).hashCode(row[keyIndex]);
+    return Math.floorMod(hash, shards.length);
+  }
+
+  private void submitBatch(int shard) throws HopException {
+    List<Object[]> rows = batches.get(shard);
+    if (rows.isEmpty()) {
+      return;
+    }
+    batches.set(shard, new ArrayList<>(ROWS_PER_BLOCK));
+    try {
+      put(formatters.submit(() -> format(shard, rows)));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new HopException("Interrupted while writing rows", e);
+    }
+  }
+
+  private void put(Future<Block> block) throws InterruptedException {
+    // The writer thread takes blocks until the end, even after a failure
+    blocks.put(block);
+  }
+
+  /** Runs on a formatting thread */
+  private Block format(int shard, List<Object[]> rows) throws HopException, IOException {
+    IRowMeta threadRowMeta = formatRowMeta.get();
+    ByteArrayOutputStream text = new ByteArrayOutputStream(rows.size() * 100);
+    int conversionsAvoided = 0;
+    for (Object[] row : rows) {
+      conversionsAvoided += transform.writeFields(text, threadRowMeta, row);
+    }
+    return new Block(shard, gzip(text.toByteArray()), rows.size(), conversionsAvoided);
+  }
+
+  private byte[] gzip(byte[] text) throws IOException {
+    if (!compress) {
+      return text;
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(text.length / 4 + 64);
+    try (GZIPOutputStream out = new GZIPOutputStream(bytes, 65536)) {
+      out.write(text);
+    }
+    return bytes.toByteArray();
+  }
+
+  /** Runs on the writer thread */
+  private void writeBlocks() {
+    try {
+      Future<Block> future;
+      while ((future = blocks.take()) != END) {
+        if (failure != null) {
+          future.cancel(false);
+          continue;
+        }
+        try {
+          Block block = future.get();
+          shards[block.shard].write(block.bytes);
+          for (int i = 0; i < block.nrRows; i++) {
+            transform.incrementLinesOutput();
+          }
+          transform.addConversionsAvoided(block.conversionsAvoided);
+        } catch (ExecutionException e) {
+          failure = e.getCause() instanceof Exception cause ? cause : e;
+        } catch (IOException e) {
+          failure = e;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void checkFailure() throws HopException {
+    Exception e = failure;
+    if (e != null) {
+      throw new HopException("Error writing rows", e);
+    }
+  }
+
+  /** The formatted rows of a shard */
+  private record Block(int shard, byte[] bytes, int nrRows, int conversionsAvoided) {}
+}
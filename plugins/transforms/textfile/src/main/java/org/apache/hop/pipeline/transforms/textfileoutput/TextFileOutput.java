@@ -18,18 +18,22 @@
 package org.apache.hop.pipeline.transforms.textfileoutput;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.Const;
 import org.apache.hop.core.ResultFile;
 import org.apache.hop.core.compress.CompressionOutputStream;
 import org.apache.hop.core.compress.CompressionProviderFactory;
 import org.apache.hop.core.compress.ICompressionProvider;
+import org.apache.hop.core.compress.gzip.GzipCompressionProvider;
 import org.apache.hop.core.compress.zip.ZipCompressionProvider;
 import org.apache.hop.core.exception.HopException;
 import org.apache.hop.core.exception.HopFileException;
@@ -100,7 +104,8 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
 
   private ICompressionProvider getCompressionProvider() throws HopException {
     String compressionType = meta.getFileCompression();
-    if (Utils.isEmpty(compressionType)) {
+    if (Utils.isEmpty(compressionType) || data.blockCompression) {
+      // Blocks compressed by the formatting threads are written as they are
       compressionType = FILE_COMPRESSION_TYPE_NONE;
     }
     ICompressionProvider compressionProvider =
@@ -280,6 +285,19 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
     return filename;
   }
 
+  /**
+   * @param shard the number of the shard, starting at 0
+   * @return the name of the file of the shard: the file name with the shard number appended
+   */
+  public String getShardFileName(int shard) throws HopException {
+    String filename = meta.getFileName();
+    if (filename == null) {
+      throw new HopFileException(
+          BaseMessages.getString(PKG, "TextFileOutput.Exception.FileNameNotSet"));
+    }
+    return buildFilename(resolve(filename) + "_" + shard, true);
+  }
+
   public int getFlushInterval() {
     String var = variables.getVariable("HOP_FILE_OUTPUT_MAX_STREAM_LIFE");
     int flushInterval = 0;
@@ -331,6 +349,9 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
   }
 
   private boolean writeRowToFile(Object[] row) throws HopException {
+    if (data.parallelWriting) {
+      return writeRowParallel(row);
+    }
     if (row != null) {
       String filename = getOutputFileName(meta.isFileNameInField() ? row : null);
       boolean isWriteHeader = isWriteHeader(filename);
@@ -413,6 +434,141 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
     }
   }
 
+  /**
+   * Hand the row to the formatting threads. At the end of the rows the footers and ended lines are
+   * added and we wait for everything to be written.
+   */
+  private boolean writeRowParallel(Object[] row) throws HopException {
+    if (row != null) {
+      if (data.parallelWriter == null) {
+        startParallelWriter(true);
+      }
+      first = false;
+
+      data.parallelWriter.addRow(row);
+      putRow(data.outputRowMeta, row); // in case we want it to go further...
+
+      if (checkFeedback(getLinesOutput())) {
+        logBasic("linenr " + getLinesOutput());
+      }
+      return true;
+    }
+
+    if (data.parallelWriter == null) {
+      if (first && meta.isDoNotOpenNewFileInit() && Utils.isEmpty(resolve(meta.getEndedLine()))) {
+        // No rows and nothing to create a file for
+        setOutputDone();
+        return false;
+      }
+      startParallelWriter(false);
+    }
+    for (int shard = 0; shard < data.parallelWriter.getNrShards(); shard++) {
+      if (data.outputRowMeta != null && meta.isFooterEnabled()) {
+        data.parallelWriter.addBlock(shard, formatLines(this::writeHeader));
+      }
+      data.parallelWriter.addBlock(shard, formatLines(this::writeEndedLine));
+    }
+    finishParallelWriter();
+    try {
+      flushOpenFiles(true);
+    } catch (IOException e) {
+      throw new HopException("Unable to flush open files", e);
+    }
+    setOutputDone();
+    return false;
+  }
+
+  /**
+   * Open the file or the shard files and start the formatting threads.
+   *
+   * @param writeHeaders write the header to the files which need one
+   */
+  private void startParallelWriter(boolean writeHeaders) throws HopException {
+    int nrShards = Math.max(1, meta.getShardCount(this));
+    OutputStream[] streams = new OutputStream[nrShards];
+    boolean[] isWriteHeader = new boolean[nrShards];
+    for (int shard = 0; shard < nrShards; shard++) {
+      String filename = nrShards > 1 ? getShardFileName(shard) : getOutputFileName(null);
+      isWriteHeader[shard] = writeHeaders && isWriteHeader(filename);
+      initFileStreamWriter(filename);
+      streams[shard] = data.writer;
+    }
+
+    int keyIndex = -1;
+    String shardField = resolve(meta.getShardField());
+    if (nrShards > 1 && !Utils.isEmpty(shardField) && data.outputRowMeta != null) {
+      keyIndex = data.outputRowMeta.indexOfValue(shardField);
+      if (keyIndex < 0) {
+        throw new HopTransformException(
+            BaseMessages.getString(PKG, "TextFileOutput.Exception.ShardFieldNotFound", shardField));
+      }
+    }
+
+    data.parallelWriter =
+        new ParallelTextFileWriter(
+            this,
+            data.outputRowMeta,
+            Math.max(1, meta.getFormatThreads(this)),
+            streams,
+            keyIndex,
+            data.blockCompression);
+    for (int shard = 0; shard < nrShards; shard++) {
+      if (isWriteHeader[shard]) {
+        data.parallelWriter.addBlock(shard, formatLines(this::writeHeader));
+      }
+    }
+  }
+
+  /** Wait for the rows handed to the parallel writer to be written */
+  private void finishParallelWriter() throws HopException {
+    if (data.parallelWriter != null) {
+      try {
+        data.parallelWriter.finish();
+      } finally {
+        data.parallelWriter = null;
+      }
+    }
+  }
+
+  /** Capture the bytes of a header, footer or ended line instead of writing them to the file */
+  private byte[] formatLines(BooleanSupplier writeLines) {
+    OutputStream writer = data.writer;
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    data.writer = bytes;
+    try {
+      writeLines.getAsBoolean();
+    } finally {
+      data.writer = writer;
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Format the rows on several threads if the options ask for it and nothing prevents it. In that
+   * case the file isn't opened in init, so this is where it's done if we can't.
+   */
+  private void initParallelWriting() throws HopException {
+    if (!isParallelWritingRequested()) {
+      return;
+    }
+    if (meta.isFileNameInField()
+        || data.splitEvery > 0
+        || meta.isServletOutput()
+        || data.isBeamContext()) {
+      logBasic(BaseMessages.getString(PKG, "TextFileOutput.Log.ParallelWritingNotSupported"));
+      if (!meta.isDoNotOpenNewFileInit() && !meta.isFileNameInField()) {
+        initOutput();
+      }
+      return;
+    }
+    data.blockCompression = getCompressionProvider() instanceof GzipCompressionProvider;
+    data.parallelWriting = true;
+  }
+
+  private boolean isParallelWritingRequested() {
+    return meta.getFormatThreads(this) > 1 || meta.getShardCount(this) > 1;
+  }
+
   public void flushOpenFiles(boolean closeAfterFlush) throws IOException {
     data.getFileStreamsCollection().flushOpenFiles(true);
   }
@@ -439,6 +595,7 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
               data.outputRowMeta, getTransformName(), null, null, this, metadataProvider);
         }
       }
+      initParallelWriting();
     }
     return writeRowTo(row);
   }
@@ -448,6 +605,19 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
   }
 
   public void writeRow(IRowMeta rowMeta, Object[] r) throws HopTransformException {
+    int conversionsAvoided = writeFields(data.writer, rowMeta, r);
+    incrementLinesOutput();
+    addConversionsAvoided(conversionsAvoided);
+  }
+
+  /**
+   * Write the fields of a row followed by a new line. This is called by the formatting threads of
+   * the parallel writer as well, each with its own copy of the row metadata.
+   *
+   * @return the number of binary strings which were written without converting them
+   */
+  int writeFields(OutputStream out, IRowMeta rowMeta, Object[] r) throws HopTransformException {
+    int conversionsAvoided = 0;
     try {
       if (meta.getOutputFields() == null || meta.getOutputFields().length == 0) {
         /*
@@ -455,7 +625,7 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
          */
         for (int i = 0; i < rowMeta.size(); i++) {
           if (i > 0 && data.binarySeparator.length > 0) {
-            data.writer.write(data.binarySeparator);
+            out.write(data.binarySeparator);
           }
           IValueMeta v = rowMeta.getValueMeta(i);
           Object valueData = r[i];
@@ -463,30 +633,32 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
           // no special null value default was specified since no fields are specified at all
           // As such, we pass null
           //
-          writeField(v, valueData, null);
+          if (writeField(out, v, valueData, null)) {
+            conversionsAvoided++;
+          }
         }
-        data.writer.write(data.binaryNewline);
+        out.write(data.binaryNewline);
       } else {
         /*
          * Only write the fields specified!
          */
         for (int i = 0; i < meta.getOutputFields().length; i++) {
           if (i > 0 && data.binarySeparator.length > 0) {
-            data.writer.write(data.binarySeparator);
+            out.write(data.binarySeparator);
           }
 
           IValueMeta v = rowMeta.getValueMeta(data.fieldnrs[i]);
           Object valueData = r[data.fieldnrs[i]];
-          writeField(v, valueData, data.binaryNullValue[i]);
+          if (writeField(out, v, valueData, data.binaryNullValue[i])) {
+            conversionsAvoided++;
+          }
         }
-        data.writer.write(data.binaryNewline);
+        out.write(data.binaryNewline);
       }
-
-      incrementLinesOutput();
-
     } catch (Exception e) {
       throw new HopTransformException("Error writing line", e);
     }
+    return conversionsAvoided;
   }
 
   private byte[] formatField(IValueMeta v, Object valueData) throws HopValueException {
@@ -494,7 +666,8 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
       if (v.isStorageBinaryString()
           && v.getTrimType() == IValueMeta.TRIM_TYPE_NONE
           && v.getLength() < 0
-          && Utils.isEmpty(v.getStringEncoding())) {
+          && (Utils.isEmpty(v.getStringEncoding())
+              || v.isRawBinaryString() && isFileEncoding(v.getStringEncoding()))) {
         return (byte[]) valueData;
       } else {
         String svalue =
@@ -508,6 +681,19 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
     }
   }
 
+  /** The bytes of a string in this encoding can be written to the file as they are */
+  private boolean isFileEncoding(String encoding) {
+    return data.fileEncodingMatches.computeIfAbsent(
+        encoding,
+        e -> {
+          try {
+            return Charset.forName(e).equals(Charset.forName(meta.getEncoding()));
+          } catch (IllegalArgumentException ex) {
+            return false;
+          }
+        });
+  }
+
   private byte[] convertStringToBinaryString(IValueMeta v, String string) throws HopValueException {
     int length = v.getLength();
 
@@ -595,8 +781,12 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
     }
   }
 
-  private void writeField(IValueMeta v, Object valueData, byte[] nullString)
+  /**
+   * @return true if the value is a binary string which was written without converting it
+   */
+  private boolean writeField(OutputStream out, IValueMeta v, Object valueData, byte[] nullString)
       throws HopTransformException {
+    boolean conversionAvoided = false;
     try {
       byte[] str;
 
@@ -615,6 +805,9 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
         } else {
           str = formatField(v, valueData);
         }
+        if (str == valueData && v.isStorageBinaryString()) {
+          conversionAvoided = true; // lazy conversion: written without converting
+        }
       }
 
       if (str != null && str.length > 0) {
@@ -631,32 +824,33 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
         }
 
         if (writeEnclosures) {
-          data.writer.write(data.binaryEnclosure);
+          out.write(data.binaryEnclosure);
           enclosures = getEnclosurePositions(str);
         }
 
         if (enclosures == null) {
-          data.writer.write(str);
+          out.write(str);
         } else {
           // Skip the enclosures, double them instead...
           int from = 0;
           for (int position : enclosures) {
-            data.writer.write(str, from, position + data.binaryEnclosure.length - from);
-            data.writer.write(data.binaryEnclosure); // write enclosure a second time
+            out.write(str, from, position + data.binaryEnclosure.length - from);
+            out.write(data.binaryEnclosure); // write enclosure a second time
             from = position + data.binaryEnclosure.length;
           }
           if (from < str.length) {
-            data.writer.write(str, from, str.length - from);
+            out.write(str, from, str.length - from);
           }
         }
 
         if (writeEnclosures) {
-          data.writer.write(data.binaryEnclosure);
+          out.write(data.binaryEnclosure);
         }
       }
     } catch (Exception e) {
       throw new HopTransformException("Error writing field content to file", e);
     }
+    return conversionAvoided;
   }
 
   private List<Integer> getEnclosurePositions(byte[] str) {
@@ -861,7 +1055,10 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
       data.splitnr = 0;
       // In case user want to create file at first row
       // In that case, DO NOT create file at Init
-      if (!meta.isDoNotOpenNewFileInit() && !meta.isFileNameInField()) {
+      // With parallel writing the files are opened with the first row as well
+      if (!meta.isDoNotOpenNewFileInit()
+          && !meta.isFileNameInField()
+          && !isParallelWritingRequested()) {
         try {
           initOutput();
         } catch (Exception e) {
@@ -951,6 +1148,10 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
 
   @Override
   public void dispose() {
+    if (data.parallelWriter != null) {
+      data.parallelWriter.cancel();
+      data.parallelWriter = null;
+    }
     try {
       close();
     } catch (Exception e) {
@@ -1083,6 +1284,7 @@ public class TextFileOutput<Meta extends TextFileOutputMeta, Data extends TextFi
   @Override
   public void batchComplete() throws HopException {
     if (!data.isBeamContext()) {
+      finishParallelWriter();
       try {
         close();
       } catch (IOException e) {
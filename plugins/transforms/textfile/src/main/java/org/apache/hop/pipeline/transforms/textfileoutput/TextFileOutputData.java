@@ -28,6 +28,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.hop.core.compress.CompressionOutputStream;
 import org.apache.hop.core.row.IRowMeta;
 import org.apache.hop.core.row.IValueMeta;
@@ -427,6 +428,9 @@ public class TextFileOutputData extends BaseTransformData implements ITransformD
 
   public byte[][] binaryNullValue;
 
+  /** The string encodings compared with the file encoding, shared by the formatting threads */
+  public final Map<String, Boolean> fileEncodingMatches = new ConcurrentHashMap<>();
+
   public boolean oneFileOpened;
 
   public int fileNameFieldIndex;
@@ -441,6 +445,14 @@ public class TextFileOutputData extends BaseTransformData implements ITransformD
 
   public int splitEvery;
 
+  /** The rows are formatted on several threads and written by the parallel writer */
+  public boolean parallelWriting;
+
+  /** The blocks of rows are compressed by the formatting threads as separate gzip members */
+  public boolean blockCompression;
+
+  public ParallelTextFileWriter parallelWriter;
+
   public TextFileOutputData() {
     super();
 
@@ -136,6 +136,12 @@ public class TextFileOutputDialog extends BaseTransformDialog {
   private Label wlSplitEvery;
   private TextVar wSplitEvery;
 
+  private TextVar wFormatThreads;
+
+  private TextVar wShardCount;
+
+  private ComboVar wShardField;
+
   private TableView wFields;
 
   protected TextFileOutputMeta input;
@@ -1017,6 +1023,86 @@ public class TextFileOutputDialog extends BaseTransformDialog {
     fdEndedLine.right = new FormAttachment(100, 0);
     wEndedLine.setLayoutData(fdEndedLine);
 
+    Label wlFormatThreads = new Label(wContentComp, SWT.RIGHT);
+    wlFormatThreads.setText(
+        BaseMessages.getString(PKG, "TextFileOutputDialog.FormatThreads.Label"));
+    wlFormatThreads.setToolTipText(
+        BaseMessages.getString(PKG, "TextFileOutputDialog.FormatThreads.Tooltip"));
+    PropsUi.setLook(wlFormatThreads);
+    FormData fdlFormatThreads = new FormData();
+    fdlFormatThreads.left = new FormAttachment(0, 0);
+    fdlFormatThreads.top = new FormAttachment(wEndedLine, margin);
+    fdlFormatThreads.right = new FormAttachment(middle, -margin);
+    wlFormatThreads.setLayoutData(fdlFormatThreads);
+    wFormatThreads = new TextVar(variables, wContentComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wFormatThreads.setToolTipText(
+        BaseMessages.getString(PKG, "TextFileOutputDialog.FormatThreads.Tooltip"));
+    PropsUi.setLook(wFormatThreads);
+    wFormatThreads.addModifyListener(lsMod);
+    FormData fdFormatThreads = new FormData();
+    fdFormatThreads.left = new FormAttachment(middle, 0);
+    fdFormatThreads.top = new FormAttachment(wEndedLine, margin);
+    fdFormatThreads.right = new FormAttachment(100, 0);
+    wFormatThreads.setLayoutData(fdFormatThreads);
+
+    Label wlShardCount = new Label(wContentComp, SWT.RIGHT);
+    wlShardCount.setText(BaseMessages.getString(PKG, "TextFileOutputDialog.ShardCount.Label"));
+    wlShardCount.setToolTipText(
+        BaseMessages.getString(PKG, "TextFileOutputDialog.ShardCount.Tooltip"));
+    PropsUi.setLook(wlShardCount);
+    FormData fdlShardCount = new FormData();
+    fdlShardCount.left = new FormAttachment(0, 0);
+    fdlShardCount.top = new FormAttachment(wFormatThreads, margin);
+    fdlShardCount.right = new FormAttachment(middle, -margin);
+    wlShardCount.setLayoutData(fdlShardCount);
+    wShardCount = new TextVar(variables, wContentComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wShardCount.setToolTipText(
+        BaseMessages.getString(PKG, "TextFileOutputDialog.ShardCount.Tooltip"));
+    PropsUi.setLook(wShardCount);
+    wShardCount.addModifyListener(lsMod);
+    FormData fdShardCount = new FormData();
+    fdShardCount.left = new FormAttachment(middle, 0);
+    fdShardCount.top = new FormAttachment(wFormatThreads, margin);
+    fdShardCount.right = new FormAttachment(100, 0);
+    wShardCount.setLayoutData(fdShardCount);
+
+    Label wlShardField = new Label(wContentComp, SWT.RIGHT);
+    wlShardField.setText(BaseMessages.getString(PKG, "TextFileOutputDialog.ShardField.Label"));
+    wlShardField.setToolTipText(
+        BaseMessages.getString(PKG, "TextFileOutputDialog.ShardField.Tooltip"));
+    PropsUi.setLook(wlShardField);
+    FormData fdlShardField = new FormData();
+    fdlShardField.left = new FormAttachment(0, 0);
+    fdlShardField.top = new FormAttachment(wShardCount, margin);
+    fdlShardField.right = new FormAttachment(middle, -margin);
+    wlShardField.setLayoutData(fdlShardField);
+    wShardField = new ComboVar(variables, wContentComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER);
+    wShardField.setToolTipText(
+        BaseMessages.getString(PKG, "TextFileOutputDialog.ShardField.Tooltip"));
+    PropsUi.setLook(wShardField);
+    wShardField.addModifyListener(lsMod);
+    FormData fdShardField = new FormData();
+    fdShardField.left = new FormAttachment(middle, 0);
+    fdShardField.top = new FormAttachment(wShardCount, margin);
+    fdShardField.right = new FormAttachment(100, 0);
+    wShardField.setLayoutData(fdShardField);
+    wShardField.addFocusListener(
+        new FocusListener() {
+          @Override
+          public void focusLost(FocusEvent e) {
+            // Do nothing
+          }
+
+          @Override
+          public void focusGained(FocusEvent e) {
+            Cursor busy = new Cursor(shell.getDisplay(), SWT.CURSOR_WAIT);
+            shell.setCursor(busy);
+            getFields();
+            shell.setCursor(null);
+            busy.dispose();
+          }
+        });
+
     FormData fdContentComp = new FormData();
     fdContentComp.left = new FormAttachment(0, 0);
     fdContentComp.top = new FormAttachment(0, 0);
@@ -1483,13 +1569,18 @@ public class TextFileOutputDialog extends BaseTransformDialog {
     if (!gotPreviousFields) {
       try {
         String field = wFileNameField.getText();
+        String shardField = wShardField.getText();
         IRowMeta r = pipelineMeta.getPrevTransformFields(variables, transformName);
         if (r != null) {
           wFileNameField.setItems(r.getFieldNames());
+          wShardField.setItems(r.getFieldNames());
         }
         if (field != null) {
           wFileNameField.setText(field);
         }
+        if (shardField != null) {
+          wShardField.setText(shardField);
+        }
       } catch (HopException ke) {
         new ErrorDialog(
             shell,
@@ -1551,6 +1642,9 @@ public class TextFileOutputDialog extends BaseTransformDialog {
     }
 
     wSplitEvery.setText(Const.NVL(input.getSplitEveryRows(), ""));
+    wFormatThreads.setText(Const.NVL(input.getFormatThreads(), ""));
+    wShardCount.setText(Const.NVL(input.getShardCount(), ""));
+    wShardField.setText(Const.NVL(input.getShardField(), ""));
 
     wEnclForced.setSelection(input.isEnclosureForced());
     wDisableEnclosureFix.setSelection(input.isEnclosureFixDisabled());
@@ -1642,6 +1736,9 @@ public class TextFileOutputDialog extends BaseTransformDialog {
     tfoi.setExtension(wExtension.getText());
     tfoi.setSplitEveryRows(wSplitEvery.getText());
     tfoi.setEndedLine(wEndedLine.getText());
+    tfoi.setFormatThreads(wFormatThreads.getText());
+    tfoi.setShardCount(wShardCount.getText());
+    tfoi.setShardField(wShardField.getText());
 
     tfoi.setFileNameField(wFileNameField.getText());
     tfoi.setFileNameInField(wFileNameInField.getSelection());
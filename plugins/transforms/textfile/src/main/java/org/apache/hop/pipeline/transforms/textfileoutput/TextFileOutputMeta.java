@@ -186,6 +186,18 @@ public class TextFileOutputMeta extends BaseTransformMeta<TextFileOutput, TextFi
   @Injection(name = "FAST_DATA_DUMP")
   private boolean fastDump;
 
+  /** The number of threads formatting the rows: more than 1 formats and writes them in parallel */
+  @Injection(name = "FORMAT_THREADS")
+  private String formatThreads;
+
+  /** The number of files to spread the rows over: more than 1 writes them in parallel */
+  @Injection(name = "SHARD_COUNT")
+  private String shardCount;
+
+  /** The field of which the hash decides the file of a row: empty means the rows take turns */
+  @Injection(name = "SHARD_FIELD")
+  private String shardField;
+
   /* THE FIELD SPECIFICATIONS ... */
 
   /** The output fields */
@@ -300,6 +312,22 @@ public class TextFileOutputMeta extends BaseTransformMeta<TextFileOutput, TextFi
     return Const.toInt(varSpace == null ? splitEveryRows : varSpace.resolve(splitEveryRows), 0);
   }
 
+  /**
+   * @param varSpace for variable substitution
+   * @return The number of threads formatting the rows.
+   */
+  public int getFormatThreads(IVariables varSpace) {
+    return Const.toInt(varSpace == null ? formatThreads : varSpace.resolve(formatThreads), 1);
+  }
+
+  /**
+   * @param varSpace for variable substitution
+   * @return The number of files to spread the rows over.
+   */
+  public int getShardCount(IVariables varSpace) {
+    return Const.toInt(varSpace == null ? shardCount : varSpace.resolve(shardCount), 1);
+  }
+
   /**
    * @return <i>1</i> if <i>isFooterEnabled()</i> and <i>0</i> otherwise
    */
@@ -427,6 +455,9 @@ public class TextFileOutputMeta extends BaseTransformMeta<TextFileOutput, TextFi
       padded = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "file", "pad"));
       fastDump = "Y".equalsIgnoreCase(XmlHandler.getTagValue(transformNode, "file", "fast_dump"));
       splitEveryRows = XmlHandler.getTagValue(transformNode, "file", "splitevery");
+      formatThreads = XmlHandler.getTagValue(transformNode, "file", "format_threads");
+      shardCount = XmlHandler.getTagValue(transformNode, "file", "shard_count");
+      shardField = XmlHandler.getTagValue(transformNode, "file", "shard_field");
 
       newline = getNewLine(fileFormat);
 
@@ -507,6 +538,9 @@ public class TextFileOutputMeta extends BaseTransformMeta<TextFileOutput, TextFi
     timeInFilename = false;
     padded = false;
     fastDump = false;
+    formatThreads = "1";
+    shardCount = "1";
+    shardField = "";
     addToResultFilenames = true;
 
     newline = getNewLine(fileFormat);
@@ -693,6 +727,9 @@ public class TextFileOutputMeta extends BaseTransformMeta<TextFileOutput, TextFi
     retval.append(CONST_SPACES).append(XmlHandler.addTagValue("pad", padded));
     retval.append(CONST_SPACES).append(XmlHandler.addTagValue("fast_dump", fastDump));
     retval.append(CONST_SPACES).append(XmlHandler.addTagValue("splitevery", splitEveryRows));
+    retval.append(CONST_SPACES).append(XmlHandler.addTagValue("format_threads", formatThreads));
+    retval.append(CONST_SPACES).append(XmlHandler.addTagValue("shard_count", shardCount));
+    retval.append(CONST_SPACES).append(XmlHandler.addTagValue("shard_field", shardField));
   }
 
   @Override
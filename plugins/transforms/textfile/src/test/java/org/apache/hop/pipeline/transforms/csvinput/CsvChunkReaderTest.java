@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.csvinput;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CsvChunkReaderTest {
+
+  @TempDir Path folder;
+
+  private static CsvRecordScanner createScanner() {
+    return new CsvRecordScanner(
+        new byte[] {','}, new byte[] {'"'}, new SingleByteCrLfMatcher(), 1, false, 3, 3);
+  }
+
+  private static byte[] bytes(String string) {
+    return string.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String content(int nrRows) {
+    StringBuilder content = new StringBuilder("id,name,remark\r\n");
+    for (int i = 0; i < nrRows; i++) {
+      content.append(i).append(",\"name, ").append(i).append("\",");
+      if (i % 3 == 0) {
+        content.append("\"line\r\nbreak \"\"").append(i).append("\"\"\"");
+      } else {
+        content.append("plain");
+      }
+      content.append(i % 5 == 0 ? "\n\n" : "\r\n");
+    }
+    return content.toString();
+  }
+
+  private List<String> read(Path file, List<CsvChunkReader.FileRange> ranges) throws Exception {
+    List<String> records = new ArrayList<>();
+    CsvChunkReader reader =
+        new CsvChunkReader(
+            "test",
+            createScanner(),
+            (range, chunk, length) -> List.of(new String(chunk, 0, length, StandardCharsets.UTF_8)),
+            3,
+            64);
+    reader.start(ranges);
+    CsvChunkReader.Chunk chunk = reader.nextChunk();
+    while (chunk != null) {
+      records.add((String) chunk.getRows().get(0));
+      chunk = reader.nextChunk();
+    }
+    assertNull(reader.nextChunk());
+    reader.close();
+    return records;
+  }
+
+  private CsvChunkReader.FileRange range(Path file, long from, long to) {
+    return new CsvChunkReader.FileRange(
+        file.toString(), file.toString(), UnnamedFieldsMapping.mapping(3), 0L, from, to, true);
+  }
+
+  @Test
+  void testNextRecordStart() {
+    CsvRecordScanner scanner = createScanner();
+    byte[] data = bytes("a,\"b\r\nc\",d\r\n\r\ne,f,g");
+
+    assertEquals(14, scanner.nextRecordStart(data, 0, data.length, true));
+    assertEquals(data.length, scanner.nextRecordStart(data, 14, data.length, true));
+
+    // We can't be sure the record ended without looking beyond the new lines
+    assertEquals(-1, scanner.nextRecordStart(data, 0, 13, false));
+
+    // Fields after the last one are skipped up to the new line, enclosures included
+    data = bytes("a,b,c,\"d\ne\nf");
+    assertEquals(9, scanner.nextRecordStart(data, 0, data.length, true));
+  }
+
+  @Test
+  void testFindRecordStart() {
+    CsvRecordScanner scanner = createScanner();
+
+    // Not enclosed: the record starts after the first new line
+    byte[] data = bytes("xx,yy\n1,\"a\",b\n");
+    assertEquals(6, scanner.findRecordStart(data, data.length, true));
+
+    // The closing enclosure tells us we start in an enclosed field
+    data = bytes("ne\nbreak\",c\n2,\"x\",y\n");
+    assertEquals(12, scanner.findRecordStart(data, data.length, true));
+
+    // The byte before the position is a new line
+    data = bytes("\n3,c,d\n");
+    assertEquals(1, scanner.findRecordStart(data, data.length, true));
+  }
+
+  @Test
+  void testChunksInOrder() throws Exception {
+    String content = content(200);
+    Path file = folder.resolve("test.csv");
+    Files.write(file, bytes(content));
+
+    List<String> chunks = read(file, List.of(range(file, 0L, Files.size(file))));
+
+    assertTrue(chunks.size() > 10);
+    String header = "id,name,remark\r\n";
+    assertEquals(content.substring(header.length()), String.join("", chunks));
+  }
+
+  @Test
+  void testSplitRanges() throws Exception {
+    String content = content(200);
+    Path file = folder.resolve("test.csv");
+    Files.write(file, bytes(content));
+    long size = Files.size(file);
+
+    // Split the file at arbitrary positions, inside enclosed line breaks included
+    //
+    StringBuilder all = new StringBuilder();
+    long[] positions = {0L, 100L, 1000L, 1003L, 2000L, 3000L, size};
+    for (int i = 0; i < positions.length - 1; i++) {
+      all.append(String.join("", read(file, List.of(range(file, positions[i], positions[i + 1])))));
+    }
+
+    String header = "id,name,remark\r\n";
+    assertEquals(content.substring(header.length()), all.toString());
+  }
+}
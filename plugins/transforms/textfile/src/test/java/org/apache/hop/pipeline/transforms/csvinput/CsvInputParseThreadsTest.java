@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.csvinput;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hop.core.exception.HopTransformException;
+import org.apache.hop.core.row.IRowMeta;
+import org.apache.hop.junit.rules.RestoreHopEngineEnvironmentExtension;
+import org.apache.hop.pipeline.transform.RowAdapter;
+import org.apache.hop.pipeline.transforms.mock.TransformMockHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+/** Parsing a file on a number of threads gives the same rows, in the same order. */
+class CsvInputParseThreadsTest extends CsvInputUnitTestBase {
+  private TransformMockHelper<CsvInputMeta, CsvInputData> transformMockHelper;
+
+  @RegisterExtension
+  static RestoreHopEngineEnvironmentExtension env = new RestoreHopEngineEnvironmentExtension();
+
+  @BeforeEach
+  void setUp() {
+    transformMockHelper =
+        TransformMockUtil.getTransformMockHelper(
+            CsvInputMeta.class, CsvInputData.class, "CsvInputParseThreadsTest");
+  }
+
+  @AfterEach
+  void cleanUp() {
+    transformMockHelper.cleanUp();
+  }
+
+  private static String createContent() {
+    StringBuilder content = new StringBuilder("id,name,remark\r\n");
+    for (int i = 0; i < 5000; i++) {
+      content.append(i).append(",\"name, ").append(i).append("\",");
+      if (i % 7 == 0) {
+        content.append("\"line\nbreak \"\"").append(i).append("\"\"\"");
+      } else {
+        content.append("plain ").append(i);
+      }
+      content.append("\r\n");
+    }
+    return content.toString();
+  }
+
+  private List<Object[]> readRows(
+      File file, String parseThreads, int transformNr, int totalNumberOfTransforms)
+      throws Exception {
+    CsvInputMeta meta = createMeta(file, createInputFileFields("id", "name", "remark"));
+    meta.setHeaderPresent(true);
+    meta.setRowNumField("rownr");
+    meta.setParseThreads(parseThreads);
+    meta.setRunningInParallel(totalNumberOfTransforms > 1);
+
+    CsvInputData data = new CsvInputData();
+    CsvInput csvInput =
+        new CsvInput(
+            transformMockHelper.transformMeta,
+            meta,
+            data,
+            transformNr,
+            transformMockHelper.pipelineMeta,
+            transformMockHelper.pipeline);
+    csvInput.init();
+    data.transformNumber = transformNr;
+    data.totalNumberOfTransforms = totalNumberOfTransforms;
+
+    List<Object[]> rows = new ArrayList<>();
+    csvInput.addRowListener(
+        new RowAdapter() {
+          @Override
+          public void rowWrittenEvent(IRowMeta rowMeta, Object[] row) throws HopTransformException {
+            rows.add(row);
+          }
+        });
+    while (csvInput.processRow()) {
+      // Keep reading
+    }
+    csvInput.dispose();
+    return rows;
+  }
+
+  @Test
+  void testSameRowsInTheSameOrder() throws Exception {
+    File file = createTestFile(ENCODING, createContent());
+
+    List<Object[]> expected = readRows(file, null, 0, 1);
+    List<Object[]> rows = readRows(file, "4", 0, 1);
+
+    assertEquals(5000, expected.size());
+    assertEquals(expected.size(), rows.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertArrayEquals(expected.get(i), rows.get(i));
+    }
+    assertEquals("line\nbreak \"7\"", rows.get(7)[2]);
+    assertEquals(5000L, rows.get(4999)[3]);
+  }
+
+  @Test
+  void testRunningInParallelWithEnclosedNewlines() throws Exception {
+    File file = createTestFile(ENCODING, createContent());
+
+    List<Object[]> expected = readRows(file, null, 0, 1);
+    List<Object[]> rows = new ArrayList<>();
+    for (int transformNr = 0; transformNr < 3; transformNr++) {
+      rows.addAll(readRows(file, "2", transformNr, 3));
+    }
+
+    assertEquals(expected.size(), rows.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i)[0], rows.get(i)[0]);
+      assertEquals(expected.get(i)[2], rows.get(i)[2]);
+    }
+  }
+}
@@ -66,6 +66,7 @@ class TextFileInputMetaNewInjectionTest extends BaseMetadataInjectionTestJunit5<
     check("ROW_LIMIT", () -> meta.content.rowLimit);
     check("DATE_FORMAT_LENIENT", () -> meta.content.dateFormatLenient);
     check("DATE_FORMAT_LOCALE", () -> meta.content.dateFormatLocale.toString(), "en", "en_us");
+    check("LAZY_CONVERSION", () -> meta.content.lazyConversionActive);
     check("FILTER_POSITION", () -> meta.getFilter()[0].getFilterPosition());
     check("FILTER_STRING", () -> meta.getFilter()[0].getFilterString());
     check("FILTER_LAST_LINE", () -> meta.getFilter()[0].isFilterLastLine());
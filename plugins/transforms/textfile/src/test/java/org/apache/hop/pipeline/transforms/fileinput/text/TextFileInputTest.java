@@ -17,8 +17,11 @@
 
 package org.apache.hop.pipeline.transforms.fileinput.text;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -394,6 +397,42 @@ class TextFileInputTest {
     deleteVfsFile(virtualFile);
   }
 
+  @Test
+  void readInputWithLazyConversion() throws Exception {
+    final String virtualFile = createVirtualFile("lazy-conversion.txt", "a,1\n", "b,-\n");
+
+    BaseFileField col2 = field("col2");
+    col2.setNullString("-");
+
+    TextFileInputMeta meta = createMetaObject(field("col1"), col2);
+    meta.content.lazyConversionActive = true;
+    TextFileInputData data = createDataObject(virtualFile, ",", "col1", "col2");
+
+    TextFileInput input =
+        TransformMockUtil.getTransform(
+            TextFileInput.class,
+            meta,
+            data,
+            TextFileInputMeta.class,
+            TextFileInputData.class,
+            "test");
+
+    List<Object[]> output = PipelineTestingUtil.execute(input, 2, false);
+
+    // The first field is passed on as raw bytes, the second one needs its null string handled
+    //
+    assertTrue(data.outputRowMeta.getValueMeta(0).isStorageBinaryString());
+    assertFalse(data.outputRowMeta.getValueMeta(1).isStorageBinaryString());
+    assertArrayEquals("a".getBytes(), (byte[]) output.get(0)[0]);
+    assertEquals("1", output.get(0)[1]);
+    assertArrayEquals("b".getBytes(), (byte[]) output.get(1)[0]);
+    assertNull(output.get(1)[1]);
+    assertEquals("a", data.outputRowMeta.getString(output.get(0), 0));
+    assertEquals(2L, input.getConversionsAvoided());
+
+    deleteVfsFile(virtualFile);
+  }
+
   @Test
   void testErrorHandlerLineNumber() throws Exception {
     final String content =
@@ -58,6 +58,9 @@ class TextFileOutputMetaInjectionTest extends BaseMetadataInjectionTestJunit5<Te
     check("INC_TIME_IN_FILENAME", () -> meta.isTimeInFilename());
     check("RIGHT_PAD_FIELDS", () -> meta.isPadded());
     check("FAST_DATA_DUMP", () -> meta.isFastDump());
+    check("FORMAT_THREADS", () -> meta.getFormatThreads());
+    check("SHARD_COUNT", () -> meta.getShardCount());
+    check("SHARD_FIELD", () -> meta.getShardField());
     check("ENCODING", () -> meta.getEncoding());
     check("ADD_ENDING_LINE", () -> meta.getEndedLine());
     check("FILENAME_IN_FIELD", () -> meta.isFileNameInField());
@@ -77,6 +77,9 @@ class TextFileOutputMetaTest {
         "pad",
         "fast_dump",
         "splitevery",
+        "format_threads",
+        "shard_count",
+        "shard_field",
         "OutputFields",
         "schemaDefinition",
         "ignoreFields");
@@ -112,6 +115,9 @@ class TextFileOutputMetaTest {
     getterMap.put("pad", "isPadded");
     getterMap.put("fast_dump", "isFastDump");
     getterMap.put("splitevery", "getSplitEvery");
+    getterMap.put("format_threads", "getFormatThreads");
+    getterMap.put("shard_count", "getShardCount");
+    getterMap.put("shard_field", "getShardField");
     getterMap.put("OutputFields", "getOutputFields");
     getterMap.put("schemaDefinition", "getSchemaDefinition");
     getterMap.put("ignoreFields", "isIgnoreFields");
@@ -148,6 +154,9 @@ class TextFileOutputMetaTest {
     setterMap.put("pad", "setPadded");
     setterMap.put("fast_dump", "setFastDump");
     setterMap.put("splitevery", "setSplitEvery");
+    setterMap.put("format_threads", "setFormatThreads");
+    setterMap.put("shard_count", "setShardCount");
+    setterMap.put("shard_field", "setShardField");
     setterMap.put("OutputFields", "setOutputFields");
     setterMap.put("schemaDefinition", "setSchemaDefinition");
     setterMap.put("ignoreFields", "setIgnoreFields");
@@ -26,11 +26,14 @@ import static org.junit.jupiter.api.Assertions.fail;
 import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.hop.core.IRowSet;
@@ -289,6 +292,18 @@ class TextFileOutputTest {
 
   @Test
   void testsIterate() {
+    assertIterateContents();
+  }
+
+  /** The same files are written when the rows are formatted on several threads */
+  @Test
+  void testsIterateParallel() {
+    Mockito.when(transformMockHelper.iTransformMeta.getFormatThreads(Mockito.any(IVariables.class)))
+        .thenReturn(2);
+    assertIterateContents();
+  }
+
+  private void assertIterateContents() {
     FileObject resultFile = null;
     FileObject contentFile;
     String content = null;
@@ -776,4 +791,96 @@ class TextFileOutputTest {
     textFileOutput.writeRow(rowMeta, rows);
     Mockito.verify(textFileOutput.getData().writer).write(testString.getBytes(outputEncode));
   }
+
+  private List<Object[]> namedRows(int nrRows, int nrNames) {
+    List<Object[]> namedRows = new ArrayList<>();
+    for (int i = 0; i < nrRows; i++) {
+      namedRows.add(new Object[] {"name" + (i % nrNames), "row" + i});
+    }
+    return namedRows;
+  }
+
+  private static String lines(List<Object[]> rows) {
+    StringBuilder lines = new StringBuilder();
+    for (Object[] r : rows) {
+      lines.append(r[0]).append(' ').append(r[1]).append('\n');
+    }
+    return lines.toString();
+  }
+
+  private static String content(FileObject file, boolean gzip) throws IOException {
+    try (InputStream in =
+        gzip
+            ? new GZIPInputStream(file.getContent().getInputStream())
+            : file.getContent().getInputStream()) {
+      return new String(IOUtils.toByteArray(in), StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  void testParallelGzipBlocks() throws Exception {
+    Mockito.when(transformMockHelper.iTransformMeta.getFormatThreads(Mockito.any(IVariables.class)))
+        .thenReturn(4);
+    Mockito.when(transformMockHelper.iTransformMeta.getFileCompression()).thenReturn("GZip");
+    Mockito.when(transformMockHelper.iTransformMeta.isFooterEnabled()).thenReturn(true);
+    List<Object[]> namedRows = namedRows(3 * ParallelTextFileWriter.ROWS_PER_BLOCK + 10, 7);
+    FileObject f = createTemplateFile(null);
+
+    List<Throwable> errors =
+        doOutput(textFileFields, namedRows, f.getName().getURI(), END_LINE, true, true, false);
+
+    assertTrue(errors.isEmpty(), errors.toString());
+    // Every block is a separate gzip member, in order
+    String header = "Name Surname\n";
+    assertEquals(header + lines(namedRows) + header + END_LINE, content(f, true));
+  }
+
+  @Test
+  void testShardsInTurn() throws Exception {
+    Mockito.when(transformMockHelper.iTransformMeta.getShardCount(Mockito.any(IVariables.class)))
+        .thenReturn(2);
+    List<Object[]> namedRows = namedRows(5, 5);
+    FileObject f = createTemplateFile(null);
+
+    List<Throwable> errors =
+        doOutput(textFileFields, namedRows, f.getName().getURI(), null, false, true, false);
+
+    assertTrue(errors.isEmpty(), errors.toString());
+    assertFalse(f.exists());
+    FileObject shard0 = TestUtils.getFileObject(f.getName().getURI() + "_0", new Variables());
+    FileObject shard1 = TestUtils.getFileObject(f.getName().getURI() + "_1", new Variables());
+    assertEquals(
+        lines(List.of(namedRows.get(0), namedRows.get(2), namedRows.get(4))),
+        content(shard0, false));
+    assertEquals(lines(List.of(namedRows.get(1), namedRows.get(3))), content(shard1, false));
+  }
+
+  @Test
+  void testShardsByKey() throws Exception {
+    int nrShards = 3;
+    Mockito.when(transformMockHelper.iTransformMeta.getFormatThreads(Mockito.any(IVariables.class)))
+        .thenReturn(2);
+    Mockito.when(transformMockHelper.iTransformMeta.getShardCount(Mockito.any(IVariables.class)))
+        .thenReturn(nrShards);
+    Mockito.when(transformMockHelper.iTransformMeta.getShardField()).thenReturn("Name");
+    List<Object[]> namedRows = namedRows(ParallelTextFileWriter.ROWS_PER_BLOCK + 100, 10);
+    FileObject f = createTemplateFile(null);
+
+    List<Throwable> errors =
+        doOutput(textFileFields, namedRows, f.getName().getURI(), null, false, true, false);
+
+    assertTrue(errors.isEmpty(), errors.toString());
+    ValueMetaString nameMeta = new ValueMetaString("Name");
+    for (int shard = 0; shard < nrShards; shard++) {
+      List<Object[]> shardRows = new ArrayList<>();
+      for (Object[] r : namedRows) {
+        if (Math.floorMod(nameMeta.hashCode(r[0]), nrShards) == shard) {
+          shardRows.add(r);
+        }
+      }
+      FileObject shardFile =
+          TestUtils.getFileObject(f.getName().getURI() + "_" + shard, new Variables());
+      assertEquals(lines(shardRows), content(shardFile, false));
+    }
+  }
 }
@@ -20,12 +20,14 @@ package org.apache.hop.pipeline.transforms.xml.getxmldata;
 import static org.apache.hop.pipeline.transforms.xml.getxmldata.GetXmlDataField.getElementTypeDesc;
 import static org.apache.hop.pipeline.transforms.xml.getxmldata.GetXmlDataField.getResultTypeCode;
 
+import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
+import javax.xml.stream.XMLStreamException;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.hop.core.Const;
@@ -586,6 +588,13 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
 
   private boolean openNextFile() {
     try {
+      if (data.totalNumberOfTransforms > 1) {
+        // Divide the files over the copies of the transform, whichever way they are read
+        while (data.filenr < data.files.nrOfFiles()
+            && data.filenr % data.totalNumberOfTransforms != data.transformNumber) {
+          data.filenr++;
+        }
+      }
       if (data.filenr >= data.files.nrOfFiles()) {
         // finished processing!
 
@@ -646,20 +655,25 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
               BaseMessages.getString(PKG, "GetXMLData.Log.OpeningFile", data.file.toString()));
         }
 
-        // Open the XML document
-        if (!setDocument(null, data.file, false, false)) {
-          if (data.stopPruning) {
-            return false; // ignore error when stopped while pruning
+        if (data.streamingPlan != null) {
+          // The rows are read while the file is parsed
+          openStreamingReader();
+        } else {
+          // Open the XML document
+          if (!setDocument(null, data.file, false, false)) {
+            if (data.stopPruning) {
+              return false; // ignore error when stopped while pruning
+            }
+            throw new HopException(
+                BaseMessages.getString(PKG, CONST_GET_XMLDATA_LOG_UNABLE_CREATE_DOCUMENT));
           }
-          throw new HopException(
-              BaseMessages.getString(PKG, CONST_GET_XMLDATA_LOG_UNABLE_CREATE_DOCUMENT));
-        }
 
-        // Apply XPath and set node list
-        if (data.prunePath == null
-            && !applyXPath()) { // this was already done in processStreaming()
-          throw new HopException(
-              BaseMessages.getString(PKG, CONST_GET_XMLDATA_LOG_UNABLE_APPLY_XPATH));
+          // Apply XPath and set node list
+          if (data.prunePath == null
+              && !applyXPath()) { // this was already done in processStreaming()
+            throw new HopException(
+                BaseMessages.getString(PKG, CONST_GET_XMLDATA_LOG_UNABLE_APPLY_XPATH));
+          }
         }
 
         addFileToResultFilesname(data.file);
@@ -667,12 +681,14 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         if (isDetailed()) {
           logDetailed(
               BaseMessages.getString(PKG, "GetXMLData.Log.FileOpened", data.file.toString()));
-          logDetailed(
-              BaseMessages.getString(
-                  PKG,
-                  CONST_GET_XMLDATA_LOG_LOOP_FILE_OCCURENCES,
-                  "" + data.nodesize,
-                  data.file.getName().getBaseName()));
+          if (data.streamingPlan == null) {
+            logDetailed(
+                BaseMessages.getString(
+                    PKG,
+                    CONST_GET_XMLDATA_LOG_LOOP_FILE_OCCURENCES,
+                    "" + data.nodesize,
+                    data.file.getName().getBaseName()));
+          }
         }
       }
     } catch (Exception e) {
@@ -690,6 +706,37 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return true;
   }
 
+  private void openStreamingReader() throws HopException {
+    this.prevRow = buildEmptyRow(); // pre-allocate previous row
+    try {
+      // get encoding. By default UTF-8
+      String encoding = "UTF-8";
+      if (!Utils.isEmpty(meta.getEncoding())) {
+        encoding = meta.getEncoding();
+      }
+      data.is = new BufferedInputStream(HopVfs.getInputStream(data.file));
+      data.streamingReader = new StreamingXPathReader(data.streamingPlan, data.is, encoding);
+    } catch (Exception e) {
+      closeStreamingReader();
+      throw new HopException(e);
+    }
+  }
+
+  private void closeStreamingReader() {
+    if (data.streamingReader != null) {
+      try {
+        data.streamingReader.close();
+      } catch (XMLStreamException e) {
+        // Ignore close errors
+      }
+      data.streamingReader = null;
+    }
+    if (data.is != null) {
+      BaseTransform.closeQuietly(data.is);
+      data.is = null;
+    }
+  }
+
   @Override
   public boolean processRow() throws HopException {
     if (first && !meta.isInFields()) {
@@ -745,6 +792,9 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
   }
 
   private Object[] getXmlRow() throws HopException {
+    if (data.streamingPlan != null) {
+      return getStreamingXmlRow();
+    }
 
     if (!meta.isInFields()) {
       while ((data.nodenr >= data.nodesize || data.file == null)) {
@@ -757,6 +807,26 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return getXmlRowPutRowWithErrorhandling();
   }
 
+  private Object[] getStreamingXmlRow() throws HopException {
+    data.errorInRowButContinue = false;
+    try {
+      while (true) {
+        if (data.streamingReader != null) {
+          String[] nodeValues = data.streamingReader.next();
+          if (nodeValues != null) {
+            return processPutRow(null, nodeValues);
+          }
+          closeStreamingReader();
+        }
+        if (!openNextFile()) {
+          return null;
+        }
+      }
+    } catch (XMLStreamException e) {
+      throw new HopException(BaseMessages.getString(PKG, "GetXMLData.Error.UnableReadFile"), e);
+    }
+  }
+
   private Object[] getXmlRowPutRowWithErrorhandling() throws HopException {
     // Build an empty row based on the meta-data
     Object[] r;
@@ -773,7 +843,7 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         }
       }
 
-      r = processPutRow(data.an.get(data.nodenr));
+      r = processPutRow(data.an.get(data.nodenr), null);
     } catch (Exception e) {
       throw new HopException(BaseMessages.getString(PKG, "GetXMLData.Error.UnableReadFile"), e);
     }
@@ -781,7 +851,11 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
     return r;
   }
 
-  private Object[] processPutRow(Node node) throws HopException {
+  /**
+   * @param node the loop node to evaluate the field paths on
+   * @param nodeValues the values of the fields read by the streaming XPath reader or null
+   */
+  private Object[] processPutRow(Node node, String[] nodeValues) throws HopException {
     // Create new row...
     Object[] outputRowData = buildEmptyRow();
 
@@ -813,8 +887,10 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         // Get node value
         String nodevalue;
 
-        // Handle namespaces
-        if (meta.isNameSpaceAware()) {
+        if (nodeValues != null) {
+          nodevalue = nodeValues[i];
+        } else if (meta.isNameSpaceAware()) {
+          // Handle namespaces
           XPath xpathField = node.createXPath(addNSPrefix(xPathValue, data.PathValue));
           xpathField.setNamespaceURIs(data.NAMESPACE);
           if (xmlDataField
@@ -1046,13 +1122,48 @@ public class GetXmlData extends BaseTransform<GetXmlDataMeta, GetXmlDataData> {
         }
       }
 
+      if (meta.isStreamingXPath()) {
+        data.transformNumber = getCopyNr();
+        data.totalNumberOfTransforms = getTransformMeta().getCopies(this);
+        data.streamingPlan = createStreamingPlan();
+        if (data.streamingPlan == null) {
+          logBasic(BaseMessages.getString(PKG, "GetXMLData.Log.StreamingXPath.NotSupported"));
+        } else {
+          if (isDetailed()) {
+            logDetailed(BaseMessages.getString(PKG, "GetXMLData.Log.StreamingXPath.Activated"));
+          }
+          data.prunePath = null;
+        }
+      }
+
       return true;
     }
     return false;
   }
 
+  /**
+   * Compile the loop and field paths for the streaming XPath reader.
+   *
+   * @return the compiled paths or null if the files need to be read in memory
+   */
+  private StreamingXPathReader.Plan createStreamingPlan() {
+    if (meta.isInFields() || meta.isNameSpaceAware() || meta.isValidating() || meta.isUseToken()) {
+      return null;
+    }
+    List<String> fieldXPaths = new ArrayList<>();
+    for (GetXmlDataField xmlDataField : meta.getInputFields()) {
+      if (!getResultTypeCode(GetXmlDataField.RESULT_TYPE_VALUE_OF)
+          .equals(xmlDataField.getResultType())) {
+        return null;
+      }
+      fieldXPaths.add(xmlDataField.getResolvedXPath());
+    }
+    return StreamingXPathReader.compile(data.PathValue, fieldXPaths);
+  }
+
   @Override
   public void dispose() {
+    closeStreamingReader();
     if (data.file != null) {
       try {
         data.file.close();
@@ -103,6 +103,16 @@ public class GetXmlDataData extends BaseTransformData implements ITransformData
   public String rootUriName;
   public long size;
 
+  /** The compiled paths when reading with the streaming XPath reader, null otherwise */
+  public StreamingXPathReader.Plan streamingPlan;
+
+  public StreamingXPathReader streamingReader;
+
+  /** The files are divided over the copies when streaming XPath is enabled */
+  public int transformNumber;
+
+  public int totalNumberOfTransforms;
+
   /** */
   public GetXmlDataData() {
     super();
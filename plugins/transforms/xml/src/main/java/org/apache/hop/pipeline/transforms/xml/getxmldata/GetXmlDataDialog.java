@@ -151,6 +151,9 @@ public class GetXmlDataDialog extends BaseTransformDialog {
   private Label wlPrunePath;
   private TextVar wPrunePath;
 
+  private Label wlStreamingXPath;
+  private Button wStreamingXPath;
+
   private Label wlEncoding;
   private CCombo wEncoding;
 
@@ -843,6 +846,24 @@ public class GetXmlDataDialog extends BaseTransformDialog {
     fdPrunePath.right = new FormAttachment(100, 0);
     wPrunePath.setLayoutData(fdPrunePath);
 
+    // Read simple paths in a single pass over large files
+    wlStreamingXPath = new Label(wXmlConf, SWT.RIGHT);
+    wlStreamingXPath.setText(BaseMessages.getString(PKG, "GetXMLDataDialog.StreamingXPath.Label"));
+    PropsUi.setLook(wlStreamingXPath);
+    FormData fdlStreamingXPath = new FormData();
+    fdlStreamingXPath.left = new FormAttachment(0, 0);
+    fdlStreamingXPath.top = new FormAttachment(wPrunePath, margin);
+    fdlStreamingXPath.right = new FormAttachment(middle, -margin);
+    wlStreamingXPath.setLayoutData(fdlStreamingXPath);
+    wStreamingXPath = new Button(wXmlConf, SWT.CHECK);
+    PropsUi.setLook(wStreamingXPath);
+    wStreamingXPath.setToolTipText(
+        BaseMessages.getString(PKG, "GetXMLDataDialog.StreamingXPath.Tooltip"));
+    FormData fdStreamingXPath = new FormData();
+    fdStreamingXPath.left = new FormAttachment(middle, 0);
+    fdStreamingXPath.top = new FormAttachment(wlStreamingXPath, 0, SWT.CENTER);
+    wStreamingXPath.setLayoutData(fdStreamingXPath);
+
     FormData fdXmlConf = new FormData();
     fdXmlConf.left = new FormAttachment(0, margin);
     fdXmlConf.top = new FormAttachment(0, margin);
@@ -1444,6 +1465,8 @@ public class GetXmlDataDialog extends BaseTransformDialog {
     wPreview.setEnabled(!wXMLStreamField.getSelection());
     wPrunePath.setEnabled(!wXMLStreamField.getSelection());
     wlPrunePath.setEnabled(!wXMLStreamField.getSelection());
+    wStreamingXPath.setEnabled(!wXMLStreamField.getSelection());
+    wlStreamingXPath.setEnabled(!wXMLStreamField.getSelection());
     wlShortFileFieldName.setEnabled(!wXMLStreamField.getSelection());
     wShortFileFieldName.setEnabled(!wXMLStreamField.getSelection());
     wlPathFieldName.setEnabled(!wXMLStreamField.getSelection());
@@ -1749,6 +1772,7 @@ public class GetXmlDataDialog extends BaseTransformDialog {
     wReadUrl.setSelection(in.isReadUrl());
     wIgnoreComment.setSelection(in.isIgnoreComments());
     wValidating.setSelection(in.isValidating());
+    wStreamingXPath.setSelection(in.isStreamingXPath());
     wUseToken.setSelection(in.isUseToken());
     wIgnoreEmptyFile.setSelection(in.isIgnoreEmptyFile());
     wDoNotFailIfNoFile.setSelection(in.isDoNotFailIfNoFile());
@@ -1918,6 +1942,7 @@ public class GetXmlDataDialog extends BaseTransformDialog {
     in.setReadUrl(wReadUrl.getSelection());
     in.setIgnoreComments(wIgnoreComment.getSelection());
     in.setValidating(wValidating.getSelection());
+    in.setStreamingXPath(wStreamingXPath.getSelection());
     in.setUseToken(wUseToken.getSelection());
     in.setIgnoreEmptyFile(wIgnoreEmptyFile.getSelection());
     in.setDoNotFailIfNoFile(wDoNotFailIfNoFile.getSelection());
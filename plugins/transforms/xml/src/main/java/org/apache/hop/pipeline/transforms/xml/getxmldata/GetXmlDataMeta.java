@@ -201,6 +201,12 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
   @HopMetadataProperty(injectionKeyDescription = "GetXmlDataMeta.Injection.PrunePath")
   private String prunePath;
 
+  /** Flag : read files in a single pass for simple XPath expressions */
+  @HopMetadataProperty(
+      key = "streamingxpath",
+      injectionKeyDescription = "GetXmlDataMeta.Injection.StreamingXPath")
+  private boolean streamingXPath;
+
   /** Additional fields * */
   @HopMetadataProperty(
       injectionKeyDescription = "GetXmlDataMeta.Injection.PrunePath",
@@ -326,6 +332,7 @@ public class GetXmlDataMeta extends BaseTransformMeta<GetXmlData, GetXmlDataData
     inFields = false;
     xmlField = "";
     prunePath = "";
+    streamingXPath = false;
   }
 
   @Override
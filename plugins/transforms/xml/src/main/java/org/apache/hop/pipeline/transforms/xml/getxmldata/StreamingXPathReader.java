@@ -0,0 +1,371 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Evaluates a simple loop XPath and the field XPaths relative to it in a single pass over a StAX
+ * parser, without building a document. A row is returned as soon as a loop element is closed, so
+ * memory use doesn't depend on the size of the file.
+ *
+ * <p>The loop path is an absolute path of element names or <code>*</code>, each with an optional
+ * position, like <code>/feed/items/item</code> or <code>/feed/item[2]/part</code>. The field paths
+ * are relative paths in the same notation, optionally ending with an attribute, like <code>
+ * name</code>, <code>price/@currency</code> or <code>.</code>. The values are the same as the XPath
+ * string values of the first matching node: the text of the element and all its descendants or the
+ * value of the attribute. Use {@link #compile(String, List)} to see if the paths are supported.
+ */
+public class StreamingXPathReader implements AutoCloseable {
+
+  private static final Pattern NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_.\\-]*");
+  private static final String ANY = "*";
+
+  private final Plan plan;
+  private final XMLStreamReader reader;
+  private final Deque<Frame> stack = new ArrayDeque<>();
+
+  /** The depth of the loop element being read or 0 outside a loop element */
+  private int loopDepth;
+
+  private final String[] values;
+  private final StringBuilder[] text;
+  private final int[] textDepth;
+  private int nrTextCaptures;
+
+  /**
+   * @param plan the compiled paths
+   * @param in the XML document
+   * @param encoding the encoding of the document
+   * @throws XMLStreamException in case the parser can't be created
+   */
+  public StreamingXPathReader(Plan plan, InputStream in, String encoding)
+      throws XMLStreamException {
+    this.plan = plan;
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+    this.reader = factory.createXMLStreamReader(in, encoding);
+
+    int nrFields = plan.fieldSteps.size();
+    this.values = new String[nrFields];
+    this.text = new StringBuilder[nrFields];
+    this.textDepth = new int[nrFields];
+  }
+
+  /**
+   * See if the paths can be evaluated in a single pass and compile them.
+   *
+   * @param loopXPath the loop XPath
+   * @param fieldXPaths the XPath of every field, relative to the loop XPath
+   * @return the compiled paths or null if one of the paths is not supported
+   */
+  public static Plan compile(String loopXPath, List<String> fieldXPaths) {
+    if (loopXPath == null
+        || !loopXPath.startsWith(GetXmlDataMeta.N0DE_SEPARATOR)
+        || loopXPath.startsWith("//")) {
+      return null;
+    }
+    List<Step> loopSteps = parseSteps(loopXPath.substring(1));
+    if (loopSteps == null || loopSteps.isEmpty()) {
+      return null;
+    }
+    List<List<Step>> fieldSteps = new ArrayList<>();
+    List<String> attributes = new ArrayList<>();
+    for (String fieldXPath : fieldXPaths) {
+      if (fieldXPath == null) {
+        return null;
+      }
+      String path = fieldXPath.trim();
+      if (path.startsWith("./")) {
+        path = path.substring(2);
+      }
+      String attribute = null;
+      int last = path.lastIndexOf(GetXmlDataMeta.N0DE_SEPARATOR);
+      if (path.startsWith(GetXmlDataMeta.AT, last + 1)) {
+        attribute = path.substring(last + 2);
+        if (!NAME.matcher(attribute).matches()) {
+          return null;
+        }
+        path = last < 0 ? "" : path.substring(0, last);
+      }
+      List<Step> steps = path.isEmpty() || path.equals(".") ? new ArrayList<>() : parseSteps(path);
+      if (steps == null) {
+        return null;
+      }
+      fieldSteps.add(steps);
+      attributes.add(attribute);
+    }
+    return new Plan(loopSteps, fieldSteps, attributes);
+  }
+
+  /**
+   * @param path element steps separated by slashes, like <code>a/b[2]/*</code>
+   * @return the steps or null if the path uses anything else
+   */
+  private static List<Step> parseSteps(String path) {
+    List<Step> steps = new ArrayList<>();
+    for (String part : path.split(GetXmlDataMeta.N0DE_SEPARATOR, -1)) {
+      String name = part;
+      int position = 0;
+      int bracket = part.indexOf('[');
+      if (bracket >= 0) {
+        if (!part.endsWith("]")) {
+          return null;
+        }
+        try {
+          position = Integer.parseInt(part.substring(bracket + 1, part.length() - 1).trim());
+        } catch (NumberFormatException e) {
+          // Other predicates are not supported
+          return null;
+        }
+        if (position < 1) {
+          return null;
+        }
+        name = part.substring(0, bracket).trim();
+      }
+      if (!name.equals(ANY) && !NAME.matcher(name).matches()) {
+        // Empty steps (//), parent steps, axes, functions and prefixed names are not supported
+        return null;
+      }
+      steps.add(new Step(name, position));
+    }
+    return steps;
+  }
+
+  /**
+   * Read up to the end of the next loop element.
+   *
+   * @return the values of the fields or null at the end of the document
+   * @throws XMLStreamException in case of a parse error
+   */
+  public String[] next() throws XMLStreamException {
+    while (reader.hasNext()) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT:
+          startElement();
+          break;
+        case XMLStreamConstants.END_ELEMENT:
+          if (endElement()) {
+            return values.clone();
+          }
+          break;
+        case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE:
+          if (nrTextCaptures > 0) {
+            characters();
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    return null;
+  }
+
+  private void startElement() {
+    Frame parent = stack.peek();
+    int depth = stack.size() + 1;
+    String key = elementKey();
+    int position = 1;
+    int anyPosition = 1;
+    if (parent != null && plan.positional) {
+      position = parent.nextPosition(key);
+      anyPosition = parent.nextPosition(ANY);
+    }
+
+    boolean onLoopPath =
+        (parent == null || parent.onLoopPath)
+            && depth <= plan.loopSteps.size()
+            && plan.loopSteps.get(depth - 1).matches(key, position, anyPosition);
+
+    BitSet fields = Frame.NO_FIELDS;
+    if (loopDepth > 0) {
+      int relativeDepth = depth - loopDepth;
+      if (!parent.fields.isEmpty()) {
+        fields = new BitSet();
+        for (int f = parent.fields.nextSetBit(0); f >= 0; f = parent.fields.nextSetBit(f + 1)) {
+          List<Step> steps = plan.fieldSteps.get(f);
+          if (values[f] == null
+              && steps.get(relativeDepth - 1).matches(key, position, anyPosition)) {
+            if (steps.size() == relativeDepth) {
+              matched(f, depth);
+            } else {
+              fields.set(f);
+            }
+          }
+        }
+      }
+    } else if (onLoopPath && depth == plan.loopSteps.size()) {
+      loopDepth = depth;
+      fields = new BitSet();
+      for (int f = 0; f < values.length; f++) {
+        values[f] = null;
+        if (plan.fieldSteps.get(f).isEmpty()) {
+          matched(f, depth);
+        } else {
+          fields.set(f);
+        }
+      }
+    }
+    stack.push(new Frame(onLoopPath, fields));
+  }
+
+  /** The element of a field is found: read the attribute or start collecting the text */
+  private void matched(int f, int depth) {
+    String attribute = plan.attributes.get(f);
+    if (attribute != null) {
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+        String namespace = reader.getAttributeNamespace(i);
+        if ((namespace == null || namespace.isEmpty())
+            && attribute.equals(reader.getAttributeLocalName(i))) {
+          values[f] = reader.getAttributeValue(i);
+          return;
+        }
+      }
+      // A later element with the attribute can still match
+    } else {
+      values[f] = "";
+      text[f] = new StringBuilder();
+      textDepth[f] = depth;
+      nrTextCaptures++;
+    }
+  }
+
+  private void characters() {
+    for (int f = 0; f < text.length; f++) {
+      if (text[f] != null) {
+        text[f].append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+      }
+    }
+  }
+
+  /**
+   * @return true if a loop element was closed
+   */
+  private boolean endElement() {
+    int depth = stack.size();
+    stack.pop();
+    if (nrTextCaptures > 0) {
+      for (int f = 0; f < text.length; f++) {
+        if (text[f] != null && textDepth[f] == depth) {
+          values[f] = text[f].toString();
+          text[f] = null;
+          nrTextCaptures--;
+        }
+      }
+    }
+    if (depth != loopDepth) {
+      return false;
+    }
+    loopDepth = 0;
+    for (int f = 0; f < values.length; f++) {
+      if (values[f] == null) {
+        // Like the value of an XPath expression without a matching node
+        values[f] = "";
+      }
+    }
+    return true;
+  }
+
+  /** Elements without a namespace are matched by name, others only by a wildcard */
+  private String elementKey() {
+    String namespace = reader.getNamespaceURI();
+    String localName = reader.getLocalName();
+    if (namespace == null || namespace.isEmpty()) {
+      return localName;
+    }
+    return "{" + namespace + "}" + localName;
+  }
+
+  @Override
+  public void close() throws XMLStreamException {
+    reader.close();
+  }
+
+  /** The compiled loop and field paths */
+  public static final class Plan {
+    private final List<Step> loopSteps;
+    private final List<List<Step>> fieldSteps;
+
+    /** The attribute to read for every field or null to read the text of the element */
+    private final List<String> attributes;
+
+    /** Count the elements by name to evaluate positions */
+    private final boolean positional;
+
+    private Plan(List<Step> loopSteps, List<List<Step>> fieldSteps, List<String> attributes) {
+      this.loopSteps = loopSteps;
+      this.fieldSteps = fieldSteps;
+      this.attributes = attributes;
+      boolean hasPosition = loopSteps.stream().anyMatch(step -> step.position > 0);
+      for (List<Step> steps : fieldSteps) {
+        hasPosition |= steps.stream().anyMatch(step -> step.position > 0);
+      }
+      this.positional = hasPosition;
+    }
+  }
+
+  /** A step of a path: an element name or a wildcard, with an optional position */
+  private record Step(String name, int position) {
+    boolean matches(String key, int namePosition, int anyPosition) {
+      if (name.equals(ANY)) {
+        return position == 0 || position == anyPosition;
+      }
+      return name.equals(key) && (position == 0 || position == namePosition);
+    }
+  }
+
+  /** An open element */
+  private static final class Frame {
+    private static final BitSet NO_FIELDS = new BitSet();
+
+    /** The element matches the loop path up to its depth */
+    private final boolean onLoopPath;
+
+    /** The fields of which the path matches up to this element */
+    private final BitSet fields;
+
+    /** The number of child elements by name */
+    private Map<String, Integer> childCounts;
+
+    private Frame(boolean onLoopPath, BitSet fields) {
+      this.onLoopPath = onLoopPath;
+      this.fields = fields;
+    }
+
+    private int nextPosition(String key) {
+      if (childCounts == null) {
+        childCounts = new HashMap<>();
+      }
+      return childCounts.merge(key, 1, Integer::sum);
+    }
+  }
+}
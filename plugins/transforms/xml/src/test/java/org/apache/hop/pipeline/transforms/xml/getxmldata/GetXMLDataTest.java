@@ -20,7 +20,11 @@ package org.apache.hop.pipeline.transforms.xml.getxmldata;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import org.apache.hop.core.RowMetaAndData;
@@ -45,6 +49,7 @@ import org.apache.hop.pipeline.transforms.injector.InjectorMeta;
 import org.apache.hop.pipeline.transforms.xml.RowTransformCollector;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 
 /** Test class for the "Get XML Data" transform. */
 @ExtendWith(RestoreHopEnvironmentExtension.class)
@@ -447,4 +452,77 @@ class GetXMLDataTest {
     assertEquals("${xml_path}", gxdm.getInputFields().get(0).getXPath());
     assertEquals("data/owner", gxdm.getInputFields().get(0).getResolvedXPath());
   }
+
+  /**
+   * With streaming XPath enabled the files are divided over the copies of the transform, also when
+   * the files have to be read in memory.
+   */
+  @Test
+  void testFilesAreDividedOverCopies(@TempDir Path folder) throws Exception {
+    List<GetXmlFileItem> files = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      Path file = folder.resolve("file" + i + ".xml");
+      Files.writeString(
+          file,
+          "<Level1><Level2><Props><ObjectID>ID" + i + "</ObjectID></Props></Level2></Level1>",
+          StandardCharsets.UTF_8);
+      files.add(new GetXmlFileItem(file.toString(), null, null, "Y", "N"));
+    }
+    List<String> expected = List.of("ID0", "ID1", "ID2", "ID3", "ID4");
+
+    // Streamed
+    assertEquals(expected, readFilesWithCopies(files, false));
+    // Read in memory since the streaming reader isn't namespace aware
+    assertEquals(expected, readFilesWithCopies(files, true));
+  }
+
+  private List<String> readFilesWithCopies(List<GetXmlFileItem> files, boolean nameSpaceAware)
+      throws Exception {
+    PipelineMeta pipelineMeta = new PipelineMeta();
+    pipelineMeta.setName("getxmldata-copies");
+    PluginRegistry registry = PluginRegistry.getInstance();
+
+    GetXmlDataField field = new GetXmlDataField();
+    field.setName("objectid");
+    field.setXPath("ObjectID");
+    field.setElementType(GetXmlDataField.getElementTypeCode(GetXmlDataField.ELEMENT_TYPE_NODE));
+    field.setType(ValueMetaFactory.getValueMetaName(IValueMeta.TYPE_STRING));
+    field.setTrimType(GetXmlDataField.getTrimTypeCode(GetXmlDataField.TYPE_TRIM_NONE));
+
+    GetXmlDataMeta gxdm = new GetXmlDataMeta();
+    gxdm.setDefault();
+    gxdm.setEncoding("UTF-8");
+    gxdm.setLoopXPath("Level1/Level2/Props");
+    gxdm.setInputFields(List.of(field));
+    gxdm.setFilesList(files);
+    gxdm.setStreamingXPath(true);
+    gxdm.setNameSpaceAware(nameSpaceAware);
+
+    TransformMeta getXMLDataTransform =
+        new TransformMeta(
+            registry.getPluginId(TransformPluginType.class, gxdm), "get xml data", gxdm);
+    getXMLDataTransform.setCopies(2);
+    pipelineMeta.addTransform(getXMLDataTransform);
+
+    DummyMeta dm = new DummyMeta();
+    TransformMeta dummyTransform =
+        new TransformMeta(registry.getPluginId(TransformPluginType.class, dm), "dummy", dm);
+    pipelineMeta.addTransform(dummyTransform);
+    pipelineMeta.addPipelineHop(new PipelineHopMeta(getXMLDataTransform, dummyTransform));
+
+    Pipeline pipeline = new LocalPipelineEngine(pipelineMeta);
+    pipeline.prepareExecution();
+    RowTransformCollector collector = new RowTransformCollector();
+    pipeline.getTransform("dummy", 0).addRowListener(collector);
+    pipeline.startThreads();
+    pipeline.waitUntilFinished();
+    assertEquals(0, pipeline.getErrors());
+
+    List<String> ids = new ArrayList<>();
+    for (RowMetaAndData row : collector.getRowsWritten()) {
+      ids.add(row.getString("objectid", null));
+    }
+    Collections.sort(ids);
+    return ids;
+  }
 }
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hop.pipeline.transforms.xml.getxmldata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StreamingXPathReaderTest {
+  private static final String XML =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+          + "<feed>"
+          + "<items>"
+          + "<item id=\"1\"><name>One</name><price currency=\"EUR\">8.95</price>"
+          + "<tags><tag>a</tag><tag>b</tag></tags></item>"
+          + "<!-- comment --><item id=\"2\"><name>Two <b>bold</b></name><tags><tag>c</tag></tags></item>"
+          + "<item id=\"3\"><price currency=\"USD\">3</price></item>"
+          + "</items>"
+          + "<other><item id=\"4\"/></other>"
+          + "</feed>";
+
+  private static InputStream input(String xml) {
+    return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<List<String>> rows(String xml, String loopXPath, String... fieldXPaths)
+      throws Exception {
+    StreamingXPathReader.Plan plan = StreamingXPathReader.compile(loopXPath, List.of(fieldXPaths));
+    assertNotNull(plan);
+    List<List<String>> rows = new ArrayList<>();
+    try (StreamingXPathReader reader = new StreamingXPathReader(plan, input(xml), "UTF-8")) {
+      String[] values;
+      while ((values = reader.next()) != null) {
+        rows.add(Arrays.asList(values));
+      }
+    }
+    return rows;
+  }
+
+  @Test
+  void testEncoding() throws Exception {
+    byte[] bytes =
+        "<items><item><name>Caf\u00e9</name></item></items>".getBytes(StandardCharsets.ISO_8859_1);
+    StreamingXPathReader.Plan plan = StreamingXPathReader.compile("/items/item", List.of("name"));
+    try (StreamingXPathReader reader =
+        new StreamingXPathReader(plan, new ByteArrayInputStream(bytes), "ISO-8859-1")) {
+      assertEquals("Caf\u00e9", reader.next()[0]);
+    }
+  }
+
+  @Test
+  void testFieldValues() throws Exception {
+    List<List<String>> rows =
+        rows(
+            XML,
+            "/feed/items/item",
+            "@id",
+            "name",
+            "./price/@currency",
+            "tags/tag[2]",
+            "tags/tag",
+            ".");
+
+    assertEquals(3, rows.size());
+    assertEquals(List.of("1", "One", "EUR", "b", "a", "One8.95ab"), rows.get(0));
+    assertEquals(List.of("2", "Two bold", "", "", "c", "Two boldc"), rows.get(1));
+    assertEquals(List.of("3", "", "USD", "", "", "3"), rows.get(2));
+  }
+
+  @Test
+  void testLoopPositionAndWildcard() throws Exception {
+    assertEquals(List.of(List.of("2")), rows(XML, "/feed/items/item[2]", "@id"));
+    assertEquals(
+        List.of(List.of("1"), List.of("2"), List.of("3"), List.of("4")),
+        rows(XML, "/feed/*/item", "@id"));
+    assertEquals(List.of(List.of("4")), rows(XML, "/feed/*[2]/*", "@id"));
+  }
+
+  @Test
+  void testFirstMatchingNode() throws Exception {
+    // The first item without the attribute doesn't stop the search
+    String xml = "<a><b><c/><c x=\"1\"/><c x=\"2\"/></b></a>";
+    assertEquals(List.of(List.of("1", "")), rows(xml, "/a/b", "c/@x", "c"));
+  }
+
+  @Test
+  void testTextContent() throws Exception {
+    String xml = "<a><b><![CDATA[x<y]]> &amp; z</b></a>";
+    assertEquals(List.of(List.of("x<y & z")), rows(xml, "/a/b", "."));
+  }
+
+  @Test
+  void testNamespacedElementsOnlyMatchWildcards() throws Exception {
+    String xml = "<a xmlns=\"urn:test\"><b>1</b></a>";
+    assertEquals(List.of(), rows(xml, "/a", "b"));
+    assertEquals(List.of(List.of("", "1")), rows(xml, "/*", "b", "*"));
+  }
+
+  @Test
+  void testUnsupportedPaths() {
+    assertNull(StreamingXPathReader.compile("//item", List.of("name")));
+    assertNull(StreamingXPathReader.compile("/feed//item", List.of("name")));
+    assertNull(StreamingXPathReader.compile("/feed/item[@id='1']", List.of("name")));
+    assertNull(StreamingXPathReader.compile("/feed/item[last()]", List.of("name")));
+    assertNull(StreamingXPathReader.compile("/ns:feed/item", List.of("name")));
+    assertNull(StreamingXPathReader.compile("/feed/item", List.of("../name")));
+    assertNull(StreamingXPathReader.compile("/feed/item", List.of("name/text()")));
+    assertNull(StreamingXPathReader.compile("/feed/item", List.of("/feed/name")));
+    assertNull(StreamingXPathReader.compile("/feed/item", List.of("name//x")));
+    assertNull(StreamingXPathReader.compile("/feed/item", List.of("count(name)")));
+  }
+
+  @Test
+  void testRowsBeforeEndOfInput() throws Exception {
+    int nrItems = 100000;
+    StringBuilder xml = new StringBuilder("<feed>");
+    for (int i = 0; i < nrItems; i++) {
+      xml.append("<item id=\"").append(i).append("\"><skip><x>1</x><x>2</x></skip></item>");
+    }
+    xml.append("</feed>");
+    byte[] bytes = xml.toString().getBytes(StandardCharsets.UTF_8);
+
+    long[] bytesRead = new long[1];
+    InputStream in =
+        new FilterInputStream(new ByteArrayInputStream(bytes)) {
+          @Override
+          public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            bytesRead[0] += Math.max(n, 0);
+            return n;
+          }
+        };
+
+    StreamingXPathReader.Plan plan = StreamingXPathReader.compile("/feed/item", List.of("@id"));
+    try (StreamingXPathReader reader = new StreamingXPathReader(plan, in, "UTF-8")) {
+      String[] first = reader.next();
+      assertNotNull(first);
+      assertEquals("0", first[0]);
+      assertTrue(bytesRead[0] < bytes.length / 10);
+
+      int nrRows = 1;
+      while (reader.next() != null) {
+        nrRows++;
+      }
+      assertEquals(nrItems, nrRows);
+    }
+  }
+}